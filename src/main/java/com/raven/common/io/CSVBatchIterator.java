@@ -0,0 +1,126 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.raven.common.struct.DataFrame;
+
+/**
+ * An iterator over the batches of rows of CSV data. Each batch is represented
+ * by a DataFrame holding at most a fixed number of rows. All batches have
+ * the same column names and column types. Instances of this class
+ * are created by {@link CSVReader#stream(int)}.
+ * 
+ * <p>Any IOException encountered while reading a batch is rethrown as an
+ * <code>UncheckedIOException</code> by the <code>hasNext()</code> and
+ * <code>next()</code> methods. The underlying resources are closed automatically
+ * when all batches have been read or when an exception is thrown. An iterator
+ * which is not exhausted should be closed explicitly.
+ * 
+ * @author Phil Gaiser
+ * @see CSVReader
+ * @since 4.1.0
+ *
+ */
+public final class CSVBatchIterator implements Iterator<DataFrame>, Closeable {
+
+    private final CSVReader.RecordCursor cursor;
+    private final int batchRows;
+    private final boolean reuseBuffers;
+    private DataFrame next;
+    private boolean closed;
+
+    /**
+     * Constructs a new <code>CSVBatchIterator</code> reading from
+     * the specified cursor
+     * 
+     * @param cursor The <code>RecordCursor</code> to read the records from
+     * @param batchRows The maximum number of rows of each batch
+     * @param reuseBuffers Indicates whether batches may reuse
+     *                     the value arrays of previous batches
+     */
+    CSVBatchIterator(final CSVReader.RecordCursor cursor, final int batchRows,
+            final boolean reuseBuffers){
+
+        this.cursor = cursor;
+        this.batchRows = batchRows;
+        this.reuseBuffers = reuseBuffers;
+    }
+
+    @Override
+    public boolean hasNext(){
+        if(next != null){
+            return true;
+        }
+        if(closed){
+            return false;
+        }
+        try{
+            final DataFrame batch = cursor.read(batchRows, reuseBuffers);
+            if((batch == null) || (batch.rows() < batchRows)){
+                close();
+            }
+            if((batch != null) && (batch.rows() > 0)){
+                this.next = batch;
+            }
+        }catch(IOException ex){
+            closeQuietly();
+            throw new UncheckedIOException(ex);
+        }catch(RuntimeException ex){
+            closeQuietly();
+            throw ex;
+        }
+        return (next != null);
+    }
+
+    @Override
+    public DataFrame next(){
+        if(!hasNext()){
+            throw new NoSuchElementException("No more batches available");
+        }
+        final DataFrame batch = this.next;
+        this.next = null;
+        return batch;
+    }
+
+    /**
+     * Closes this iterator and all underlying resources. Subsequent calls
+     * to <code>hasNext()</code> return false
+     * 
+     * @throws IOException If an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException{
+        if(!closed){
+            this.closed = true;
+            cursor.close();
+        }
+    }
+
+    private void closeQuietly(){
+        try{
+            close();
+        }catch(IOException ex){
+            //original exception is rethrown
+        }
+    }
+}
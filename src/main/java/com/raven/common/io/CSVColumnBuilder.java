@@ -0,0 +1,956 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.io;
+
+import java.util.Arrays;
+
+import com.raven.common.struct.BooleanColumn;
+import com.raven.common.struct.ByteColumn;
+import com.raven.common.struct.CharColumn;
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DoubleColumn;
+import com.raven.common.struct.FloatColumn;
+import com.raven.common.struct.IntColumn;
+import com.raven.common.struct.LongColumn;
+import com.raven.common.struct.NullableBooleanColumn;
+import com.raven.common.struct.NullableByteColumn;
+import com.raven.common.struct.NullableCharColumn;
+import com.raven.common.struct.NullableDoubleColumn;
+import com.raven.common.struct.NullableFloatColumn;
+import com.raven.common.struct.NullableIntColumn;
+import com.raven.common.struct.NullableLongColumn;
+import com.raven.common.struct.NullableShortColumn;
+import com.raven.common.struct.NullableStringColumn;
+import com.raven.common.struct.ShortColumn;
+import com.raven.common.struct.StringColumn;
+
+/**
+ * Builds one column of a DataFrame from the fields of parsed CSV records.<br>
+ * Values are parsed directly from the character buffer of a {@link CSVParser}
+ * and are stored in a growable primitive array of the column type. Null values
+ * are tracked in a separate bit mask which is only allocated when the first
+ * null value is added. Thus, neither boxed values nor row arrays are created
+ * while reading CSV data.
+ * 
+ * <p>A builder either uses a fixed column type, in which case values which
+ * cannot be converted to that type cause an exception, or it infers the column
+ * type. An inferring builder first collects a sample of values as strings and
+ * then chooses the narrowest type which can represent all sampled values. The
+ * integer types are tried first, followed by the double type, the boolean type,
+ * the char type and the string type. If a value added after the sample cannot
+ * be represented by the inferred type, then the column is widened. Integer
+ * columns are widened to a larger integer type or to the double type. All other
+ * columns are widened to the string type. Integer values whose magnitude
+ * exceeds 2<sup>53</sup> cannot be represented exactly by a double. Columns
+ * holding such values are therefore widened to the string type instead of the
+ * double type. An inferring builder keeps the original text of each value
+ * which differs from the string representation of the converted value, for
+ * example <i>"007"</i> or <i>"TRUE"</i>. Values which are widened to the string
+ * type therefore always keep their original text.
+ * 
+ * <p>This class is not part of the public API.
+ * 
+ * @author Phil Gaiser
+ * @see CSVReader
+ * @since 4.1.0
+ *
+ */
+final class CSVColumnBuilder {
+
+    /** The initial capacity of the value array **/
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** The largest magnitude up to which all integers are exact doubles **/
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+
+    private byte type;
+    private final boolean widen;
+    private int sample;
+    private int size;
+    private int nullCount;
+    private int capacity;
+
+    private byte[] bytes;
+    private short[] shorts;
+    private int[] ints;
+    private long[] longs;
+    private float[] floats;
+    private double[] doubles;
+    private boolean[] booleans;
+    private char[] chars;
+    private String[] strings;
+    private long[] nulls;
+    //the original text of values which is lost by their conversion, or null
+    private String[] texts;
+    private char[] scratch;
+
+    /**
+     * Constructs a new <code>CSVColumnBuilder</code>
+     * 
+     * @param type The type code of the column type to use. For inferring
+     *             builders this must be the type code of <code>StringColumn</code>
+     * @param widen Indicates whether the column type may be widened
+     * @param sample The number of values to collect before the column
+     *               type is inferred, or zero to use the specified type
+     * @param capacity The initial capacity of the value array
+     */
+    private CSVColumnBuilder(final byte type, final boolean widen, final int sample,
+            final int capacity){
+
+        this.type = type;
+        this.widen = widen;
+        this.sample = sample;
+        allocate(capacity);
+    }
+
+    /**
+     * Creates a builder for a column of the specified type
+     * 
+     * @param type The type code of the non-nullable column to build
+     * @return A <code>CSVColumnBuilder</code> using a fixed column type
+     */
+    static CSVColumnBuilder of(final byte type){
+        return new CSVColumnBuilder(type, false, 0, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates a builder for a column of the specified type with
+     * the specified initial capacity
+     * 
+     * @param type The type code of the non-nullable column to build
+     * @param capacity The initial capacity of the value array. Must be positive
+     * @return A <code>CSVColumnBuilder</code> using a fixed column type
+     */
+    static CSVColumnBuilder of(final byte type, final int capacity){
+        return new CSVColumnBuilder(type, false, 0, capacity);
+    }
+
+    /**
+     * Creates a builder which infers the column type from the specified
+     * number of values
+     * 
+     * @param sample The number of values to collect before the column type
+     *               is inferred. Must be positive
+     * @return A <code>CSVColumnBuilder</code> inferring the column type
+     */
+    static CSVColumnBuilder inferring(final int sample){
+        return new CSVColumnBuilder(StringColumn.TYPE_CODE, true, sample, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Adds the specified field of the current record of the given parser
+     * 
+     * @param parser The <code>CSVParser</code> holding the current record
+     * @param field The index of the field to add
+     * @throws RuntimeException If the field cannot be converted to
+     *                          the column type
+     */
+    void add(final CSVParser parser, final int field){
+        if(size == capacity){
+            grow();
+        }
+        if(parser.isNull(field)){
+            setNull(size);
+        }else{
+            try{
+                set(parser, field, size);
+            }catch(RuntimeException ex){
+                if(!widen){
+                    throw ex;
+                }
+                convert(widenedType(parser.getString(field)));
+                set(parser, field, size);
+            }
+            if(widen && (type != StringColumn.TYPE_CODE)){
+                keepText(parser, field, size);
+            }
+        }
+        ++size;
+        if((sample > 0) && (size >= sample)){
+            infer(false);
+        }
+    }
+
+    /**
+     * Appends all values of the specified builder to this builder.
+     * If both builders use different column types, then both are converted
+     * to a common type if this builder may widen its type
+     * 
+     * @param other The builder to append
+     */
+    void append(final CSVColumnBuilder other){
+        if(sample > 0){
+            infer(true);
+        }
+        if(other.sample > 0){
+            other.infer(true);
+        }
+        if(other.type != type){
+            if(other.nullCount == other.size){
+                other.convert(type);
+            }else if(nullCount == size){
+                convert(other.type);
+            }else{
+                byte target = commonType(type, other.type);
+                if((target == DoubleColumn.TYPE_CODE)
+                        && (!isExactDouble() || !other.isExactDouble())){
+
+                    target = StringColumn.TYPE_CODE;
+                }
+                convert(target);
+                other.convert(target);
+            }
+        }
+        final long total = (long) size + other.size;
+        if(total > Integer.MAX_VALUE){
+            throw new IllegalStateException("Column exceeds maximum supported size");
+        }
+        if(total > capacity){
+            resize((int) Math.min(Math.max(total, capacity * 2L), Integer.MAX_VALUE));
+        }
+        System.arraycopy(other.array(), 0, array(), size, other.size);
+        if(other.nulls != null){
+            for(int i=0; i<other.size; ++i){
+                if(other.isNull(i)){
+                    setNull(size + i);
+                }
+            }
+        }
+        if(other.texts != null){
+            for(int i=0; i<other.size; ++i){
+                if(other.texts[i] != null){
+                    setText(size + i, other.texts[i]);
+                }
+            }
+        }
+        this.size = (int) total;
+    }
+
+    /**
+     * Indicates whether this builder holds any null values
+     * 
+     * @return True if this builder holds at least one null value,
+     *         false otherwise
+     */
+    boolean hasNulls(){
+        return (nulls != null);
+    }
+
+    /**
+     * Returns the number of values of this builder
+     * 
+     * @return The number of values of this builder
+     */
+    int size(){
+        return this.size;
+    }
+
+    /**
+     * Returns the type code of the non-nullable column built by this builder.
+     * For inferring builders, the returned type is only final after
+     * the column has been built
+     * 
+     * @return The type code of the column built by this builder
+     */
+    byte type(){
+        return this.type;
+    }
+
+    /**
+     * Infers the column type of this builder if not already done and widens
+     * an inferred integer type to at least the specified integer type
+     * 
+     * @param target The type code of the minimum integer type
+     */
+    void widenIntegers(final byte target){
+        if(sample > 0){
+            infer(true);
+        }
+        if(widen && isIntegerType(type) && (type < target)){
+            convert(target);
+        }
+    }
+
+    /**
+     * Removes all values from this builder. The value array is kept,
+     * so that it can be reused for the values subsequently added
+     * 
+     */
+    void clear(){
+        this.size = 0;
+        this.nullCount = 0;
+        this.nulls = null;
+        this.texts = null;
+    }
+
+    /**
+     * Builds the column holding all values added to this builder
+     * 
+     * @param nullable Indicates whether to build a nullable column
+     * @return A <code>Column</code> holding all values of this builder
+     */
+    Column build(final boolean nullable){
+        return build(nullable, false);
+    }
+
+    /**
+     * Builds the column holding all values added to this builder. If the
+     * value array may be shared and is completely filled, then it is used
+     * by the built column directly instead of being copied. In that case, the
+     * values of the built column are overwritten when this builder is cleared
+     * and values are subsequently added to it
+     * 
+     * @param nullable Indicates whether to build a nullable column
+     * @param share Indicates whether the built column may share
+     *              the value array of this builder
+     * @return A <code>Column</code> holding all values of this builder
+     */
+    Column build(final boolean nullable, final boolean share){
+        if(sample > 0){
+            infer(true);
+        }
+        final boolean wrap = share && (size == capacity);
+        switch(type){
+        case ByteColumn.TYPE_CODE:
+            if(!nullable){
+                return new ByteColumn(wrap ? bytes : Arrays.copyOf(bytes, size));
+            }
+            final Byte[] boxedBytes = new Byte[size];
+            for(int i=0; i<size; ++i){
+                boxedBytes[i] = isNull(i) ? null : bytes[i];
+            }
+            return new NullableByteColumn(boxedBytes);
+        case ShortColumn.TYPE_CODE:
+            if(!nullable){
+                return new ShortColumn(wrap ? shorts : Arrays.copyOf(shorts, size));
+            }
+            final Short[] boxedShorts = new Short[size];
+            for(int i=0; i<size; ++i){
+                boxedShorts[i] = isNull(i) ? null : shorts[i];
+            }
+            return new NullableShortColumn(boxedShorts);
+        case IntColumn.TYPE_CODE:
+            if(!nullable){
+                return new IntColumn(wrap ? ints : Arrays.copyOf(ints, size));
+            }
+            final Integer[] boxedInts = new Integer[size];
+            for(int i=0; i<size; ++i){
+                boxedInts[i] = isNull(i) ? null : ints[i];
+            }
+            return new NullableIntColumn(boxedInts);
+        case LongColumn.TYPE_CODE:
+            if(!nullable){
+                return new LongColumn(wrap ? longs : Arrays.copyOf(longs, size));
+            }
+            final Long[] boxedLongs = new Long[size];
+            for(int i=0; i<size; ++i){
+                boxedLongs[i] = isNull(i) ? null : longs[i];
+            }
+            return new NullableLongColumn(boxedLongs);
+        case FloatColumn.TYPE_CODE:
+            if(!nullable){
+                return new FloatColumn(wrap ? floats : Arrays.copyOf(floats, size));
+            }
+            final Float[] boxedFloats = new Float[size];
+            for(int i=0; i<size; ++i){
+                boxedFloats[i] = isNull(i) ? null : floats[i];
+            }
+            return new NullableFloatColumn(boxedFloats);
+        case DoubleColumn.TYPE_CODE:
+            if(!nullable){
+                return new DoubleColumn(wrap ? doubles : Arrays.copyOf(doubles, size));
+            }
+            final Double[] boxedDoubles = new Double[size];
+            for(int i=0; i<size; ++i){
+                boxedDoubles[i] = isNull(i) ? null : doubles[i];
+            }
+            return new NullableDoubleColumn(boxedDoubles);
+        case BooleanColumn.TYPE_CODE:
+            if(!nullable){
+                return new BooleanColumn(wrap ? booleans : Arrays.copyOf(booleans, size));
+            }
+            final Boolean[] boxedBooleans = new Boolean[size];
+            for(int i=0; i<size; ++i){
+                boxedBooleans[i] = isNull(i) ? null : booleans[i];
+            }
+            return new NullableBooleanColumn(boxedBooleans);
+        case CharColumn.TYPE_CODE:
+            if(!nullable){
+                return new CharColumn(wrap ? chars : Arrays.copyOf(chars, size));
+            }
+            final Character[] boxedChars = new Character[size];
+            for(int i=0; i<size; ++i){
+                boxedChars[i] = isNull(i) ? null : chars[i];
+            }
+            return new NullableCharColumn(boxedChars);
+        default:
+            final String[] values = wrap ? strings : Arrays.copyOf(strings, size);
+            return nullable
+                    ? new NullableStringColumn(values)
+                    : new StringColumn(values);
+        }
+    }
+
+    private void set(final CSVParser parser, final int field, final int index){
+        switch(type){
+        case ByteColumn.TYPE_CODE:
+            bytes[index] = (byte) parser.parseLong(field, Byte.MIN_VALUE, Byte.MAX_VALUE);
+            break;
+        case ShortColumn.TYPE_CODE:
+            shorts[index] = (short) parser.parseLong(field, Short.MIN_VALUE, Short.MAX_VALUE);
+            break;
+        case IntColumn.TYPE_CODE:
+            ints[index] = (int) parser.parseLong(field, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            break;
+        case LongColumn.TYPE_CODE:
+            longs[index] = parser.parseLong(field, Long.MIN_VALUE, Long.MAX_VALUE);
+            break;
+        case FloatColumn.TYPE_CODE:
+            floats[index] = parser.parseFloat(field);
+            break;
+        case DoubleColumn.TYPE_CODE:
+            if(widen && !parser.isDecimal(field)){
+                throw new NumberFormatException("Not a decimal: " + parser.getString(field));
+            }
+            doubles[index] = parser.parseDouble(field);
+            break;
+        case BooleanColumn.TYPE_CODE:
+            if(widen && !parser.isBoolean(field)){
+                throw new IllegalArgumentException("Not a boolean: " + parser.getString(field));
+            }
+            booleans[index] = parser.parseBoolean(field);
+            break;
+        case CharColumn.TYPE_CODE:
+            if(widen && ((parser.end(field) - parser.start(field)) != 1)){
+                throw new IllegalArgumentException("Not a char: " + parser.getString(field));
+            }
+            final char c = parser.parseChar(field);
+            if((c < 32) || (c > 126)){
+                throw new IllegalArgumentException(
+                        "Invalid character value. Only printable ASCII is permitted");
+            }
+            chars[index] = c;
+            break;
+        default:
+            strings[index] = parser.getString(field);
+        }
+    }
+
+    private void setNull(final int index){
+        if(nulls == null){
+            this.nulls = new long[(capacity + 63) >>> 6];
+        }
+        nulls[index >>> 6] |= (1L << index);
+        ++nullCount;
+    }
+
+    private boolean isNull(final int index){
+        return (nulls != null) && ((nulls[index >>> 6] & (1L << index)) != 0);
+    }
+
+    private void setText(final int index, final String text){
+        if(texts == null){
+            this.texts = new String[capacity];
+        }
+        texts[index] = text;
+    }
+
+    /**
+     * Keeps the original text of the specified field if it differs from the
+     * string representation of the value converted from it
+     * 
+     * @param parser The <code>CSVParser</code> holding the current record
+     * @param field The index of the field
+     * @param index The index of the value converted from the field
+     */
+    private void keepText(final CSVParser parser, final int field, final int index){
+        final int start = parser.start(field);
+        final int length = format(index);
+        boolean same = ((parser.end(field) - start) == length);
+        final char[] chars = parser.chars();
+        for(int i=0; same && (i<length); ++i){
+            same = (chars[start + i] == scratch[i]);
+        }
+        if(!same){
+            setText(index, parser.getString(field));
+        }
+    }
+
+    /**
+     * Returns the original text of the specified non-null value
+     * 
+     * @param index The index of the value
+     * @return The original text of the value
+     */
+    private String textAt(final int index){
+        if((texts != null) && (texts[index] != null)){
+            return texts[index];
+        }
+        if(type == StringColumn.TYPE_CODE){
+            return strings[index];
+        }
+        return new String(scratch(), 0, format(index));
+    }
+
+    /**
+     * Writes the string representation of the specified non-null value
+     * of a non-string type into the scratch buffer
+     * 
+     * @param index The index of the value
+     * @return The number of written characters
+     */
+    private int format(final int index){
+        final char[] buffer = scratch();
+        switch(type){
+        case ByteColumn.TYPE_CODE:
+        case ShortColumn.TYPE_CODE:
+        case IntColumn.TYPE_CODE:
+        case LongColumn.TYPE_CODE:
+            return NumberCodec.formatLong(longAt(index), buffer, 0);
+        case FloatColumn.TYPE_CODE:
+            return NumberCodec.formatFloat(floats[index], buffer, 0);
+        case DoubleColumn.TYPE_CODE:
+            return NumberCodec.formatDouble(doubles[index], buffer, 0);
+        case BooleanColumn.TYPE_CODE:
+            final String s = String.valueOf(booleans[index]);
+            s.getChars(0, s.length(), buffer, 0);
+            return s.length();
+        case CharColumn.TYPE_CODE:
+            buffer[0] = chars[index];
+            return 1;
+        default:
+            throw new IllegalStateException("Invalid column type: " + type);
+        }
+    }
+
+    private char[] scratch(){
+        if(scratch == null){
+            this.scratch = new char[NumberCodec.MAX_CHARS];
+        }
+        return this.scratch;
+    }
+
+    private long longAt(final int index){
+        switch(type){
+        case ByteColumn.TYPE_CODE:
+            return bytes[index];
+        case ShortColumn.TYPE_CODE:
+            return shorts[index];
+        case IntColumn.TYPE_CODE:
+            return ints[index];
+        default:
+            return longs[index];
+        }
+    }
+
+    /**
+     * Indicates whether all values of this builder can be
+     * represented exactly by a double
+     * 
+     * @return True if all values can be converted to a double
+     *         without loss of precision, false otherwise
+     */
+    private boolean isExactDouble(){
+        if(type != LongColumn.TYPE_CODE){
+            return true;
+        }
+        for(int i=0; i<size; ++i){
+            if(!isNull(i) && !isExactDouble(longs[i])){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Infers the column type from all values collected so far
+     * and converts them to that type. If all collected values are null,
+     * then the sample is extended unless the inference is forced
+     * 
+     * @param force Indicates whether the column type must be decided
+     */
+    private void infer(final boolean force){
+        boolean integers = true;
+        boolean decimals = true;
+        boolean bools = true;
+        boolean characters = true;
+        boolean any = false;
+        long min = 0;
+        long max = 0;
+        for(int i=0; i<size; ++i){
+            final String s = strings[i];
+            if(s == null){
+                continue;
+            }
+            if(integers){
+                if(isInteger(s)){
+                    try{
+                        final long value = Long.parseLong(s);
+                        min = any ? Math.min(min, value) : value;
+                        max = any ? Math.max(max, value) : value;
+                    }catch(NumberFormatException ex){
+                        integers = false;
+                        decimals = false;
+                    }
+                }else{
+                    integers = false;
+                    //previous integer values must be exact doubles
+                    decimals = !any || (isExactDouble(min) && isExactDouble(max));
+                }
+            }
+            if(!integers && decimals){
+                decimals = isDecimal(s) && (!isInteger(s) || isExactDouble(s));
+            }
+            if(bools){
+                bools = "true".equalsIgnoreCase(s) || "false".equalsIgnoreCase(s);
+            }
+            if(characters){
+                characters = (s.length() == 1) && (s.charAt(0) >= 32) && (s.charAt(0) <= 126);
+            }
+            any = true;
+        }
+        if(!any && !force){
+            this.sample = (int) Math.min(size * 2L, Integer.MAX_VALUE);
+            return;
+        }
+        this.sample = 0;
+        if(!any){
+            return;
+        }
+        if(integers){
+            convert((byte) Math.max(integerType(min), integerType(max)));
+        }else if(decimals){
+            convert(DoubleColumn.TYPE_CODE);
+        }else if(bools){
+            convert(BooleanColumn.TYPE_CODE);
+        }else if(characters){
+            convert(CharColumn.TYPE_CODE);
+        }
+    }
+
+    /**
+     * Returns the type to which this column must be widened in order
+     * to represent the specified value
+     * 
+     * @param value The value which cannot be represented by the current type
+     * @return The type code of the widened type
+     */
+    private byte widenedType(final String value){
+        if(isIntegerType(type)){
+            if(isInteger(value)){
+                try{
+                    return (byte) Math.max(type, integerType(Long.parseLong(value)));
+                }catch(NumberFormatException ex){
+                    //does not fit into a long
+                    return StringColumn.TYPE_CODE;
+                }
+            }
+            if(isDecimal(value) && isExactDouble()){
+                return DoubleColumn.TYPE_CODE;
+            }
+        }
+        return StringColumn.TYPE_CODE;
+    }
+
+    /**
+     * Converts all values of this builder to the specified type. An inferring
+     * builder converts values to the string type from their original text
+     * and keeps the original text of values which is lost by the conversion
+     * 
+     * @param target The type code of the type to convert to
+     */
+    private void convert(final byte target){
+        if(target == type){
+            return;
+        }
+        final Object[] values = new Object[size];
+        final String[] originals = widen ? new String[size] : null;
+        for(int i=0; i<size; ++i){
+            if(!isNull(i)){
+                values[i] = valueAt(i);
+                if(widen){
+                    originals[i] = textAt(i);
+                }
+            }
+        }
+        this.type = target;
+        this.texts = null;
+        allocate(capacity);
+        final boolean text = (target == StringColumn.TYPE_CODE);
+        for(int i=0; i<size; ++i){
+            if(values[i] != null){
+                if(widen && text){
+                    strings[i] = originals[i];
+                }else{
+                    store(i, values[i]);
+                    if(widen && !originals[i].equals(textAt(i))){
+                        setText(i, originals[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    private Object valueAt(final int index){
+        switch(type){
+        case ByteColumn.TYPE_CODE:
+            return bytes[index];
+        case ShortColumn.TYPE_CODE:
+            return shorts[index];
+        case IntColumn.TYPE_CODE:
+            return ints[index];
+        case LongColumn.TYPE_CODE:
+            return longs[index];
+        case FloatColumn.TYPE_CODE:
+            return floats[index];
+        case DoubleColumn.TYPE_CODE:
+            return doubles[index];
+        case BooleanColumn.TYPE_CODE:
+            return booleans[index];
+        case CharColumn.TYPE_CODE:
+            return chars[index];
+        default:
+            return strings[index];
+        }
+    }
+
+    private void store(final int index, final Object value){
+        final boolean parse = (value instanceof String);
+        switch(type){
+        case ByteColumn.TYPE_CODE:
+            bytes[index] = parse ? Byte.parseByte((String) value) : ((Number) value).byteValue();
+            break;
+        case ShortColumn.TYPE_CODE:
+            shorts[index] = parse ? Short.parseShort((String) value) : ((Number) value).shortValue();
+            break;
+        case IntColumn.TYPE_CODE:
+            ints[index] = parse ? Integer.parseInt((String) value) : ((Number) value).intValue();
+            break;
+        case LongColumn.TYPE_CODE:
+            longs[index] = parse ? Long.parseLong((String) value) : ((Number) value).longValue();
+            break;
+        case FloatColumn.TYPE_CODE:
+            floats[index] = parse ? Float.parseFloat((String) value) : ((Number) value).floatValue();
+            break;
+        case DoubleColumn.TYPE_CODE:
+            doubles[index] = parse ? Double.parseDouble((String) value) : ((Number) value).doubleValue();
+            break;
+        case BooleanColumn.TYPE_CODE:
+            booleans[index] = parse ? Boolean.parseBoolean((String) value) : (Boolean) value;
+            break;
+        case CharColumn.TYPE_CODE:
+            chars[index] = parse ? ((String) value).charAt(0) : (Character) value;
+            break;
+        default:
+            strings[index] = String.valueOf(value);
+        }
+    }
+
+    private Object array(){
+        switch(type){
+        case ByteColumn.TYPE_CODE:
+            return bytes;
+        case ShortColumn.TYPE_CODE:
+            return shorts;
+        case IntColumn.TYPE_CODE:
+            return ints;
+        case LongColumn.TYPE_CODE:
+            return longs;
+        case FloatColumn.TYPE_CODE:
+            return floats;
+        case DoubleColumn.TYPE_CODE:
+            return doubles;
+        case BooleanColumn.TYPE_CODE:
+            return booleans;
+        case CharColumn.TYPE_CODE:
+            return chars;
+        default:
+            return strings;
+        }
+    }
+
+    /**
+     * Allocates a new empty value array of the current type and releases
+     * the arrays of all other types
+     * 
+     * @param length The length of the array to allocate
+     */
+    private void allocate(final int length){
+        this.bytes = null;
+        this.shorts = null;
+        this.ints = null;
+        this.longs = null;
+        this.floats = null;
+        this.doubles = null;
+        this.booleans = null;
+        this.chars = null;
+        this.strings = null;
+        switch(type){
+        case ByteColumn.TYPE_CODE:
+            this.bytes = new byte[length];
+            break;
+        case ShortColumn.TYPE_CODE:
+            this.shorts = new short[length];
+            break;
+        case IntColumn.TYPE_CODE:
+            this.ints = new int[length];
+            break;
+        case LongColumn.TYPE_CODE:
+            this.longs = new long[length];
+            break;
+        case FloatColumn.TYPE_CODE:
+            this.floats = new float[length];
+            break;
+        case DoubleColumn.TYPE_CODE:
+            this.doubles = new double[length];
+            break;
+        case BooleanColumn.TYPE_CODE:
+            this.booleans = new boolean[length];
+            break;
+        case CharColumn.TYPE_CODE:
+            this.chars = new char[length];
+            break;
+        default:
+            this.strings = new String[length];
+        }
+        this.capacity = length;
+    }
+
+    private void grow(){
+        if(capacity == Integer.MAX_VALUE){
+            throw new IllegalStateException("Column exceeds maximum supported size");
+        }
+        resize((int) Math.min(capacity * 2L, Integer.MAX_VALUE));
+    }
+
+    private void resize(final int length){
+        switch(type){
+        case ByteColumn.TYPE_CODE:
+            this.bytes = Arrays.copyOf(bytes, length);
+            break;
+        case ShortColumn.TYPE_CODE:
+            this.shorts = Arrays.copyOf(shorts, length);
+            break;
+        case IntColumn.TYPE_CODE:
+            this.ints = Arrays.copyOf(ints, length);
+            break;
+        case LongColumn.TYPE_CODE:
+            this.longs = Arrays.copyOf(longs, length);
+            break;
+        case FloatColumn.TYPE_CODE:
+            this.floats = Arrays.copyOf(floats, length);
+            break;
+        case DoubleColumn.TYPE_CODE:
+            this.doubles = Arrays.copyOf(doubles, length);
+            break;
+        case BooleanColumn.TYPE_CODE:
+            this.booleans = Arrays.copyOf(booleans, length);
+            break;
+        case CharColumn.TYPE_CODE:
+            this.chars = Arrays.copyOf(chars, length);
+            break;
+        default:
+            this.strings = Arrays.copyOf(strings, length);
+        }
+        if(nulls != null){
+            this.nulls = Arrays.copyOf(nulls, (length + 63) >>> 6);
+        }
+        if(texts != null){
+            this.texts = Arrays.copyOf(texts, length);
+        }
+        this.capacity = length;
+    }
+
+    private static byte commonType(final byte a, final byte b){
+        if(isIntegerType(a) && isIntegerType(b)){
+            return (byte) Math.max(a, b);
+        }
+        if((isIntegerType(a) || (a == DoubleColumn.TYPE_CODE))
+                && (isIntegerType(b) || (b == DoubleColumn.TYPE_CODE))){
+
+            return DoubleColumn.TYPE_CODE;
+        }
+        return StringColumn.TYPE_CODE;
+    }
+
+    private static boolean isIntegerType(final byte type){
+        return (type == ByteColumn.TYPE_CODE)
+                || (type == ShortColumn.TYPE_CODE)
+                || (type == IntColumn.TYPE_CODE)
+                || (type == LongColumn.TYPE_CODE);
+    }
+
+    private static byte integerType(final long value){
+        if((value >= Byte.MIN_VALUE) && (value <= Byte.MAX_VALUE)){
+            return ByteColumn.TYPE_CODE;
+        }else if((value >= Short.MIN_VALUE) && (value <= Short.MAX_VALUE)){
+            return ShortColumn.TYPE_CODE;
+        }else if((value >= Integer.MIN_VALUE) && (value <= Integer.MAX_VALUE)){
+            return IntColumn.TYPE_CODE;
+        }
+        return LongColumn.TYPE_CODE;
+    }
+
+    private static boolean isExactDouble(final long value){
+        return (value >= -MAX_EXACT_DOUBLE) && (value <= MAX_EXACT_DOUBLE);
+    }
+
+    private static boolean isExactDouble(final String s){
+        try{
+            return isExactDouble(Long.parseLong(s));
+        }catch(NumberFormatException ex){
+            return false;
+        }
+    }
+
+    private static boolean isInteger(final String s){
+        int i = 0;
+        if((s.length() > 1) && ((s.charAt(0) == '-') || (s.charAt(0) == '+'))){
+            i = 1;
+        }
+        if(i == s.length()){
+            return false;
+        }
+        for(; i<s.length(); ++i){
+            final char c = s.charAt(i);
+            if((c < '0') || (c > '9')){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDecimal(final String s){
+        if(s.isEmpty()){
+            return false;
+        }
+        for(int i=0; i<s.length(); ++i){
+            final char c = s.charAt(i);
+            if(((c < '0') || (c > '9')) && (c != '.') && (c != '-')
+                    && (c != '+') && (c != 'e') && (c != 'E')){
+
+                return false;
+            }
+        }
+        try{
+            Double.parseDouble(s);
+            return true;
+        }catch(NumberFormatException ex){
+            return false;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.raven.common.io;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Provides transparent compression and decompression of CSV data.
+ * 
+ * <p>Data compressed in the <i>gzip</i> format is detected by its magic bytes
+ * or by the <i>".gz"</i> file extension. Data compressed in the <i>zlib</i>
+ * format is detected by the <i>".zz"</i> or <i>".deflate"</i> file extensions.
+ * Compressed data is decompressed by a separate thread which hands over the
+ * decompressed bytes through a bounded buffer, so that decompression
+ * overlaps with parsing.
+ * 
+ * <p>This class is not part of the public API.
+ * 
+ * @author Phil Gaiser
+ * @see CSVReader
+ * @see CSVWriter
+ * @since 4.1.0
+ *
+ */
+final class CSVCompression {
+
+    /** The size of the buffers used for compression and decompression **/
+    static final int BUFFER_SIZE = 1 << 16;
+
+    /** The number of decompressed blocks which can be handed over at once **/
+    private static final int BLOCKS = 8;
+
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private CSVCompression(){ }
+
+    /**
+     * Indicates whether the specified file holds compressed data
+     * 
+     * @param file The file to check
+     * @return True if the specified file holds data in the gzip or zlib
+     *         format, false otherwise
+     * @throws IOException If the file cannot be read
+     */
+    static boolean isCompressed(final File file) throws IOException{
+        if(isZlib(file.getName())){
+            return true;
+        }
+        try(InputStream in = new FileInputStream(file)){
+            return (in.read() == GZIP_MAGIC_1) && (in.read() == GZIP_MAGIC_2);
+        }
+    }
+
+    /**
+     * Wraps the specified stream so that compressed data is decompressed
+     * transparently. Uncompressed data is only buffered
+     * 
+     * @param in The <code>InputStream</code> to read from
+     * @param name The name of the read file, used to detect the compression
+     *             format by its extension. May be null
+     * @return An <code>InputStream</code> providing the uncompressed data
+     * @throws IOException If the stream cannot be read
+     */
+    static InputStream decompress(final InputStream in, final String name)
+            throws IOException{
+
+        final BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        if((name != null) && isZlib(name)){
+            return new ReadAheadInputStream(inflating(buffered));
+        }
+        buffered.mark(2);
+        final boolean gzip = (buffered.read() == GZIP_MAGIC_1)
+                && (buffered.read() == GZIP_MAGIC_2);
+
+        buffered.reset();
+        if(gzip){
+            return new ReadAheadInputStream(new GZIPInputStream(buffered, BUFFER_SIZE));
+        }
+        return buffered;
+    }
+
+    /**
+     * Wraps the specified stream so that all written data is compressed
+     * according to the extension of the specified file name
+     * 
+     * @param out The <code>OutputStream</code> to write to
+     * @param name The name of the written file. May be null
+     * @return An <code>OutputStream</code> compressing all written data,
+     *         or the specified stream if no compression is used
+     * @throws IOException If the stream cannot be written
+     */
+    static OutputStream compress(final OutputStream out, final String name)
+            throws IOException{
+
+        if(name == null){
+            return out;
+        }
+        if(name.toLowerCase(Locale.ROOT).endsWith(".gz")){
+            return new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        if(isZlib(name)){
+            final Deflater deflater = new Deflater();
+            return new DeflaterOutputStream(out, deflater, BUFFER_SIZE){
+                @Override
+                public void close() throws IOException{
+                    try{
+                        super.close();
+                    }finally{
+                        deflater.end();
+                    }
+                }
+            };
+        }
+        return out;
+    }
+
+    /**
+     * Indicates whether the specified file name denotes a file which
+     * is compressed by the specified extension
+     * 
+     * @param name The file name to check
+     * @return True if the file name has the extension of a compressed
+     *         format, false otherwise
+     */
+    static boolean hasCompressedExtension(final String name){
+        return name.toLowerCase(Locale.ROOT).endsWith(".gz") || isZlib(name);
+    }
+
+    private static boolean isZlib(final String name){
+        final String lower = name.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".zz") || lower.endsWith(".deflate");
+    }
+
+    private static InputStream inflating(final InputStream in){
+        final Inflater inflater = new Inflater();
+        return new InflaterInputStream(in, inflater, BUFFER_SIZE){
+            @Override
+            public void close() throws IOException{
+                try{
+                    super.close();
+                }finally{
+                    inflater.end();
+                }
+            }
+        };
+    }
+
+    /**
+     * Reads ahead from a source stream by a separate thread. The read bytes
+     * are handed over in blocks through a bounded queue. All blocks
+     * are reused once they have been consumed.
+     *
+     */
+    static final class ReadAheadInputStream extends InputStream {
+
+        /** Marks the end of the source stream **/
+        private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+        private final InputStream source;
+        private final BlockingQueue<ByteBuffer> filled;
+        private final BlockingQueue<byte[]> free;
+        private final Thread producer;
+        private volatile IOException failure;
+        private volatile boolean closed;
+        private ByteBuffer current;
+
+        /**
+         * Constructs a new <code>ReadAheadInputStream</code> and starts
+         * the thread reading from the specified source
+         * 
+         * @param source The <code>InputStream</code> to read ahead from
+         */
+        ReadAheadInputStream(final InputStream source){
+            this.source = source;
+            this.filled = new ArrayBlockingQueue<>(BLOCKS + 1);
+            this.free = new ArrayBlockingQueue<>(BLOCKS);
+            for(int i=0; i<BLOCKS; ++i){
+                this.free.add(new byte[BUFFER_SIZE]);
+            }
+            this.producer = new Thread(this::produce,
+                    "claymore-inflater-" + THREAD_COUNT.incrementAndGet());
+
+            this.producer.setDaemon(true);
+            this.producer.start();
+        }
+
+        @Override
+        public int read() throws IOException{
+            if(!fill()){
+                return -1;
+            }
+            return current.get() & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException{
+            if(len == 0){
+                return 0;
+            }
+            if(!fill()){
+                return -1;
+            }
+            final int n = Math.min(len, current.remaining());
+            current.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException{
+            return (current != null) ? current.remaining() : 0;
+        }
+
+        @Override
+        public void close() throws IOException{
+            if(!closed){
+                this.closed = true;
+                producer.interrupt();
+            }
+        }
+
+        private boolean fill() throws IOException{
+            if(closed){
+                throw new IOException("Stream closed");
+            }
+            while((current == null) || !current.hasRemaining()){
+                if(current == END){
+                    return false;
+                }
+                if(current != null){
+                    free.offer(current.array());
+                }
+                try{
+                    this.current = filled.take();
+                }catch(InterruptedException ex){
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while decompressing");
+                }
+                if((current == END) && (failure != null)){
+                    throw failure;
+                }
+            }
+            return true;
+        }
+
+        private void produce(){
+            try{
+                while(!closed){
+                    final byte[] block = free.take();
+                    int n = 0;
+                    while(n < block.length){
+                        final int r = source.read(block, n, block.length - n);
+                        if(r < 0){
+                            break;
+                        }
+                        n += r;
+                    }
+                    if(n > 0){
+                        filled.put(ByteBuffer.wrap(block, 0, n));
+                    }
+                    if(n < block.length){
+                        break;
+                    }
+                }
+            }catch(IOException ex){
+                this.failure = ex;
+            }catch(InterruptedException ex){
+                //closed by the consumer
+            }finally{
+                try{
+                    source.close();
+                }catch(IOException ex){
+                    if(failure == null){
+                        this.failure = ex;
+                    }
+                }
+                filled.offer(END);
+            }
+        }
+    }
+}
@@ -0,0 +1,449 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+
+/**
+ * Splits memory-mapped CSV-files into chunks which can be parsed independently.
+ * 
+ * <p>The boundaries of all chunks are aligned to record boundaries. Just like
+ * in a {@link CSVParser}, a record is terminated by a line feed, a carriage
+ * return or a carriage return followed by a line feed. Since line
+ * breaks may occur inside quoted values, the bytes of a file are scanned with
+ * the same states as used by the <code>CSVParser</code>. In particular, a double
+ * quote only starts a quoted value at the start of a field and is a regular
+ * character within an unquoted field. Because the state at the start of a
+ * chunk is not known in advance, each chunk is first scanned in parallel for
+ * all possible start states. The resulting end states are then chained in
+ * order to determine the actual state at each tentative boundary. Each boundary
+ * is finally moved forward to the next line break which terminates a record.
+ * 
+ * <p>This class is not part of the public API.
+ * 
+ * @author Phil Gaiser
+ * @see CSVReader
+ * @since 4.1.0
+ *
+ */
+final class CSVFileSplitter {
+
+    /** The minimum size of a chunk in bytes **/
+    static final long MIN_CHUNK_SIZE = 1L << 20;
+
+    /** The maximum size of a chunk in bytes **/
+    static final long MAX_CHUNK_SIZE = 1L << 26;
+
+    /** The number of chunks per thread to balance the load of all threads **/
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /** The size of the regions which are mapped when scanning a file **/
+    private static final long WINDOW_SIZE = 1L << 22;
+
+    //the scanner states, corresponding to the states of the CSVParser
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+    private static final int STATES = 4;
+
+    private CSVFileSplitter(){ }
+
+    /**
+     * Splits the specified file into chunks aligned to record boundaries
+     * 
+     * @param channel The <code>FileChannel</code> of the file to split
+     * @param start The position at which the first chunk starts. Must be
+     *              aligned to a record boundary
+     * @param separator The character which separates fields
+     * @param threads The number of threads which will parse the chunks
+     * @param executor The <code>Executor</code> used to scan the file
+     * @return The positions of all chunk boundaries. The chunk at index
+     *         <i>i</i> starts at index <i>i</i> (inclusive) and ends at index
+     *         <i>i + 1</i> (exclusive). The first position is the start position
+     *         and the last position is the size of the file
+     * @throws IOException If the file cannot be read
+     */
+    static long[] split(final FileChannel channel, final long start,
+            final char separator, final int threads, final Executor executor)
+                    throws IOException{
+
+        final long size = channel.size();
+        final long length = size - start;
+        long n = Math.min((long) threads * CHUNKS_PER_THREAD,
+                (length + MIN_CHUNK_SIZE - 1) / MIN_CHUNK_SIZE);
+
+        n = Math.max(n, (length + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+        final int chunks = (int) Math.max(n, 1);
+        final long[] raw = new long[chunks + 1];
+        for(int i=0; i<=chunks; ++i){
+            raw[i] = start + ((length * i) / chunks);
+        }
+        final List<Future<int[]>> scans = new ArrayList<>(chunks);
+        for(int i=0; i<chunks-1; ++i){
+            final long from = raw[i];
+            final long to = raw[i + 1];
+            scans.add(submit(executor, () -> transitions(channel, from, to, separator)));
+        }
+        final long[] bounds = new long[chunks + 1];
+        bounds[0] = start;
+        int k = 1;
+        int state = FIELD_START;
+        try{
+            for(int i=1; i<chunks; ++i){
+                state = await(scans.get(i - 1))[state];
+                if(raw[i] <= bounds[k - 1]){//previous record spans this boundary
+                    continue;
+                }
+                final long end = recordEnd(channel, raw[i], state, separator);
+                if(end < size){
+                    bounds[k++] = end;
+                }
+            }
+        }finally{
+            cancel(scans);
+        }
+        bounds[k++] = size;
+        final long[] result = new long[k];
+        System.arraycopy(bounds, 0, result, 0, k);
+        return result;
+    }
+
+    /**
+     * Returns the position of the first byte at or after the specified position
+     * which is not a line break character
+     * 
+     * @param channel The <code>FileChannel</code> of the file to scan
+     * @param pos The position to start scanning at
+     * @return The position of the first byte which is not a line break character,
+     *         or the size of the file if no such byte exists
+     * @throws IOException If the file cannot be read
+     */
+    static long skipLineBreaks(final FileChannel channel, long pos) throws IOException{
+        final long size = channel.size();
+        while(pos < size){
+            final long end = Math.min(size, pos + WINDOW_SIZE);
+            final MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, pos, end - pos);
+
+            for(int i=0; i<buffer.limit(); ++i){
+                final byte b = buffer.get(i);
+                if((b != '\n') && (b != '\r')){
+                    return pos + i;
+                }
+            }
+            pos = end;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the position after the line break which terminates the record
+     * starting at the specified position. If the line break is a carriage
+     * return followed by a line feed, the returned position is after
+     * the line feed
+     * 
+     * @param channel The <code>FileChannel</code> of the file to scan
+     * @param pos The position to start scanning at. Must be aligned
+     *            to a record boundary
+     * @param separator The character which separates fields
+     * @return The position after the found line break, or the size of the
+     *         file if no such line break exists
+     * @throws IOException If the file cannot be read
+     */
+    static long recordEnd(final FileChannel channel, final long pos,
+            final char separator) throws IOException{
+
+        return recordEnd(channel, pos, FIELD_START, separator);
+    }
+
+    /**
+     * Returns the position after the last line break within the specified range
+     * which terminates a record. The start of the range must be aligned to
+     * a record boundary. If the range ends with a carriage return, a line feed
+     * which follows it later is read as an empty line
+     * 
+     * @param channel The <code>FileChannel</code> of the file to scan
+     * @param pos The start position of the range, inclusive
+     * @param to The end position of the range, exclusive
+     * @param separator The character which separates fields
+     * @return The position after the found line break, or the start
+     *         of the range if no such line break exists
+     * @throws IOException If the file cannot be read
+     */
+    static long lastRecordEnd(final FileChannel channel, long pos, final long to,
+            final char separator) throws IOException{
+
+        long last = pos;
+        int state = FIELD_START;
+        while(pos < to){
+            final long end = Math.min(to, pos + WINDOW_SIZE);
+            final MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, pos, end - pos);
+
+            for(int i=0; i<buffer.limit(); ++i){
+                final char c = (char) (buffer.get(i) & 0xff);
+                if(((c == '\n') || (c == '\r')) && (state != QUOTED)){
+                    last = pos + i + 1;
+                }
+                state = next(state, c, separator);
+            }
+            pos = end;
+        }
+        return last;
+    }
+
+    /**
+     * Counts the number of line breaks before the specified position. A carriage
+     * return followed by a line feed is counted as one line break
+     * 
+     * @param channel The <code>FileChannel</code> of the file to scan
+     * @param to The position to stop counting at, exclusive
+     * @return The number of line breaks in the file before
+     *         the specified position
+     * @throws IOException If the file cannot be read
+     */
+    static long countLines(final FileChannel channel, final long to) throws IOException{
+        long n = 0;
+        long pos = 0;
+        byte previous = 0;
+        while(pos < to){
+            final long end = Math.min(to, pos + WINDOW_SIZE);
+            final MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, pos, end - pos);
+
+            for(int i=0; i<buffer.limit(); ++i){
+                final byte b = buffer.get(i);
+                if((b == '\r') || ((b == '\n') && (previous != '\r'))){
+                    ++n;
+                }
+                previous = b;
+            }
+            pos = end;
+        }
+        return n;
+    }
+
+    /**
+     * Submits the specified job to the specified executor. If the job has not
+     * been started by the executor when {@link #await(Future)} is called,
+     * then it is run by the waiting thread instead. Therefore, waiting for
+     * a job never depends on the availability of a thread of the executor,
+     * which might be shared with other operations or be the current thread.
+     * Jobs rejected by the executor are always run by the waiting thread
+     * 
+     * @param <T> The result type of the job
+     * @param executor The <code>Executor</code> to submit the job to
+     * @param job The job to submit
+     * @return The <code>Future</code> of the submitted job
+     */
+    static <T> Future<T> submit(final Executor executor, final Callable<T> job){
+        final FutureTask<T> task = new FutureTask<>(job);
+        try{
+            executor.execute(task);
+        }catch(RejectedExecutionException ex){
+            //run by the waiting thread
+        }
+        return task;
+    }
+
+    /**
+     * Cancels all specified jobs which have not been started yet.
+     * Null elements are ignored
+     * 
+     * @param jobs The <code>Futures</code> of the jobs to cancel
+     */
+    static void cancel(final Iterable<? extends Future<?>> jobs){
+        for(final Future<?> job : jobs){
+            if(job != null){
+                job.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Waits for the specified job to complete and returns its result.
+     * A job created by {@link #submit(Executor, Callable)} which has not been
+     * started yet is run by the current thread. Any exception thrown by
+     * the job is rethrown
+     * 
+     * @param <T> The result type of the job
+     * @param future The <code>Future</code> of the job
+     * @return The result of the job
+     * @throws IOException If the job threw an IOException or if the
+     *                     current thread was interrupted
+     */
+    static <T> T await(final Future<T> future) throws IOException{
+        if(future instanceof RunnableFuture){
+            //no effect if the job has already been started
+            ((RunnableFuture<T>) future).run();
+        }
+        try{
+            return future.get();
+        }catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while processing CSV data");
+        }catch(ExecutionException ex){
+            final Throwable cause = ex.getCause();
+            if(cause instanceof IOException){
+                throw (IOException) cause;
+            }else if(cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }else if(cause instanceof Error){
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Reads the byte at the specified position
+     * 
+     * @param channel The <code>FileChannel</code> of the file to read
+     * @param pos The position of the byte to read. Must be within the file
+     * @return The byte at the specified position
+     * @throws IOException If the file cannot be read
+     */
+    private static byte byteAt(final FileChannel channel, final long pos) throws IOException{
+        final ByteBuffer buffer = ByteBuffer.allocate(1);
+        while(buffer.hasRemaining()){
+            if(channel.read(buffer, pos) < 0){
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        return buffer.get(0);
+    }
+
+    /**
+     * Returns the position after the first line break at or after the specified
+     * position which terminates a record. If the line break is a carriage return
+     * followed by a line feed, the returned position is after the line feed
+     * 
+     * @param channel The <code>FileChannel</code> of the file to scan
+     * @param pos The position to start scanning at
+     * @param state The scanner state at the specified position
+     * @param separator The character which separates fields
+     * @return The position after the found line break, or the size of the
+     *         file if no such line break exists
+     * @throws IOException If the file cannot be read
+     */
+    private static long recordEnd(final FileChannel channel, long pos, int state,
+            final char separator) throws IOException{
+
+        final long size = channel.size();
+        while(pos < size){
+            final long end = Math.min(size, pos + WINDOW_SIZE);
+            final MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, pos, end - pos);
+
+            for(int i=0; i<buffer.limit(); ++i){
+                final char c = (char) (buffer.get(i) & 0xff);
+                if(((c == '\n') || (c == '\r')) && (state != QUOTED)){
+                    final long next = pos + i + 1;
+                    if((c == '\r') && (next < size) && (byteAt(channel, next) == '\n')){
+                        return next + 1;
+                    }
+                    return next;
+                }
+                state = next(state, c, separator);
+            }
+            pos = end;
+        }
+        return size;
+    }
+
+    /**
+     * Scans the specified range for all possible start states
+     * 
+     * @param channel The <code>FileChannel</code> of the file to scan
+     * @param pos The start position of the range, inclusive
+     * @param to The end position of the range, exclusive
+     * @param separator The character which separates fields
+     * @return The scanner states at the end of the range. The element at
+     *         index <i>i</i> is the end state for the start state <i>i</i>
+     * @throws IOException If the file cannot be read
+     */
+    private static int[] transitions(final FileChannel channel, long pos,
+            final long to, final char separator) throws IOException{
+
+        final int[] states = new int[STATES];
+        for(int i=0; i<STATES; ++i){
+            states[i] = i;
+        }
+        while(pos < to){
+            final long end = Math.min(to, pos + WINDOW_SIZE);
+            final MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, pos, end - pos);
+
+            for(int i=0; i<buffer.limit(); ++i){
+                final char c = (char) (buffer.get(i) & 0xff);
+                for(int j=0; j<STATES; ++j){
+                    states[j] = next(states[j], c, separator);
+                }
+            }
+            pos = end;
+        }
+        return states;
+    }
+
+    /**
+     * Computes the next scanner state. The transitions are the same as the
+     * transitions of the <code>CSVParser</code>, where a line break which
+     * terminates a record leads to the start of a field
+     * 
+     * @param state The current scanner state
+     * @param c The next character
+     * @param separator The character which separates fields
+     * @return The scanner state after the specified character
+     */
+    private static int next(final int state, final char c, final char separator){
+        switch(state){
+        case FIELD_START:
+            if(c == '"'){
+                return QUOTED;
+            }
+            return ((c == separator) || (c == '\n') || (c == '\r'))
+                    ? FIELD_START : UNQUOTED;
+        case UNQUOTED:
+            return ((c == separator) || (c == '\n') || (c == '\r'))
+                    ? FIELD_START : UNQUOTED;
+        case QUOTED:
+            return (c == '"') ? QUOTE_IN_QUOTED : QUOTED;
+        case QUOTE_IN_QUOTED:
+            if(c == '"'){//escaped quote
+                return QUOTED;
+            }
+            return ((c == separator) || (c == '\n') || (c == '\r'))
+                    ? FIELD_START : UNQUOTED;
+        default:
+            throw new IllegalStateException("Invalid scanner state: " + state);
+        }
+    }
+}
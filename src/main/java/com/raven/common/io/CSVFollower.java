@@ -0,0 +1,272 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.raven.common.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+import com.raven.common.struct.DataFrame;
+
+/**
+ * Follows a CSV-file which is being appended to. A follower reads only the
+ * complete records which were appended to the CSV-file since it was last polled.
+ * It remembers the position after the last complete record as well as the column
+ * names and column types determined by the first polled records. Instances of
+ * this class are created by {@link CSVReader#follow()}.
+ * 
+ * <p>The <code>poll()</code> method returns the new records immediately. The
+ * <code>poll(long, TimeUnit)</code> method waits for new records to be appended.
+ * While waiting, a follower is woken up by a <code>WatchService</code> when the
+ * directory of the CSV-file changes. Since a WatchService may deliver events
+ * late or not at all on some platforms, the CSV-file is additionally checked
+ * for new records at a fixed interval. New records can also be appended to an
+ * existing DataFrame directly by the <code>appendTo()</code> method.
+ * 
+ * <p>A follower keeps the CSV-file open until it is closed. Instances of this
+ * class are not thread-safe.
+ * 
+ * @author Phil Gaiser
+ * @see CSVReader
+ * @since 4.1.0
+ *
+ */
+public final class CSVFollower implements Closeable {
+
+    /** The interval in milliseconds at which the CSV-file is checked while waiting **/
+    private static final long POLL_INTERVAL = 500;
+
+    private final CSVReader.FileTail tail;
+    private WatchService watcher;
+    private boolean polling;
+    private boolean closed;
+
+    /**
+     * Constructs a new <code>CSVFollower</code> reading from the specified tail
+     * 
+     * @param tail The <code>FileTail</code> to read the records from
+     */
+    CSVFollower(final CSVReader.FileTail tail){
+        this.tail = tail;
+    }
+
+    /**
+     * Reads all complete records which were appended to the CSV-file since
+     * the last poll. The first poll reads all complete records of the
+     * CSV-file. This method does not wait for new records
+     * 
+     * @return A DataFrame holding the new records, or null if no
+     *         new records are available
+     * @throws IOException If the CSV-file cannot be read, is improperly
+     *                     formatted or was truncated
+     * @throws IllegalStateException If this follower was closed
+     */
+    public DataFrame poll() throws IOException{
+        ensureOpen();
+        return tail.read();
+    }
+
+    /**
+     * Reads all complete records which were appended to the CSV-file since
+     * the last poll, waiting up to the specified time for new records
+     * if necessary
+     * 
+     * @param timeout The maximum time to wait
+     * @param unit The <code>TimeUnit</code> of the timeout argument.
+     *             Must not be null
+     * @return A DataFrame holding the new records, or null if no new
+     *         records were appended before the specified timeout elapsed
+     * @throws IOException If the CSV-file cannot be read, is improperly
+     *                     formatted or was truncated, or if the current
+     *                     thread was interrupted while waiting
+     * @throws IllegalStateException If this follower was closed
+     */
+    public DataFrame poll(final long timeout, final TimeUnit unit) throws IOException{
+        if(unit == null){
+            throw new IllegalArgumentException("TimeUnit argument must not be null");
+        }
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        DataFrame df = poll();
+        while(df == null){
+            final long remaining = deadline - System.nanoTime();
+            if(remaining <= 0){
+                return null;
+            }
+            await(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL)));
+            df = poll();
+        }
+        return df;
+    }
+
+    /**
+     * Appends all complete records which were appended to the CSV-file since
+     * the last poll to the specified DataFrame. This method does not wait for
+     * new records. The specified DataFrame must have the column names and
+     * column types of the polled records, for example because it was returned
+     * by the first poll of this follower
+     * 
+     * @param df The <code>DataFrame</code> to append the new records to.
+     *           Must not be null
+     * @return The number of appended records
+     * @throws IOException If the CSV-file cannot be read, is improperly
+     *                     formatted or was truncated
+     * @throws IllegalStateException If this follower was closed
+     */
+    public int appendTo(final DataFrame df) throws IOException{
+        if(df == null){
+            throw new IllegalArgumentException("DataFrame argument must not be null");
+        }
+        final DataFrame rows = poll();
+        if(rows == null){
+            return 0;
+        }
+        df.addRows(rows);
+        return rows.rows();
+    }
+
+    /**
+     * Discards the column types determined by the previous polls. The column
+     * types are determined again by the next poll which reads any records,
+     * in the same way as by the first poll. The column names are retained.
+     * 
+     * <p>This method can be used to continue following a CSV-file after
+     * a poll failed because an appended record cannot be converted to the
+     * current column types. It has no effect if the column types were specified
+     * by {@link CSVReader#useColumnTypes(Class...)}, or if no records have been
+     * polled yet. DataFrames returned by later polls might have different
+     * column types than the DataFrames returned before
+     * 
+     * @throws IllegalStateException If this follower was closed
+     */
+    public void reinferColumnTypes(){
+        ensureOpen();
+        tail.reinferColumnTypes();
+    }
+
+    /**
+     * Returns the position after the last complete record which was read
+     * from the CSV-file. All bytes before this position have been read
+     * 
+     * @return The position in bytes after the last complete record
+     */
+    public long position(){
+        return tail.position();
+    }
+
+    /**
+     * Closes this follower and the followed CSV-file. Subsequent
+     * polls will result in an <code>IllegalStateException</code>
+     * 
+     * @throws IOException If an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException{
+        if(!closed){
+            this.closed = true;
+            try{
+                if(watcher != null){
+                    watcher.close();
+                }
+            }finally{
+                tail.close();
+            }
+        }
+    }
+
+    /**
+     * Waits until the directory of the CSV-file changes or the specified
+     * time elapses. If no WatchService is available for the CSV-file,
+     * then this method simply sleeps for the specified time
+     * 
+     * @param nanos The maximum time to wait in nanoseconds
+     * @throws IOException If the current thread was interrupted while waiting
+     */
+    private void await(final long nanos) throws IOException{
+        try{
+            final WatchService service = watcher();
+            if(service != null){
+                final WatchKey key = service.poll(nanos, TimeUnit.NANOSECONDS);
+                if(key != null){
+                    key.pollEvents();
+                    key.reset();
+                }
+            }else{
+                TimeUnit.NANOSECONDS.sleep(nanos);
+            }
+        }catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while following CSV file");
+        }catch(ClosedWatchServiceException ex){
+            ensureOpen();
+        }
+    }
+
+    /**
+     * Returns the WatchService for the directory of the CSV-file. The
+     * WatchService is created when this method is first called
+     * 
+     * @return The WatchService for the directory of the CSV-file,
+     *         or null if no WatchService is available
+     */
+    private WatchService watcher(){
+        if((watcher == null) && !polling){
+            final Path dir = tail.source().getAbsoluteFile().toPath().getParent();
+            if(dir == null){
+                this.polling = true;
+                return null;
+            }
+            WatchService service = null;
+            try{
+                service = FileSystems.getDefault().newWatchService();
+                dir.register(service, StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_CREATE);
+
+                this.watcher = service;
+            }catch(IOException | UnsupportedOperationException ex){
+                //fall back to polling at a fixed interval
+                this.polling = true;
+                closeQuietly(service);
+                return null;
+            }
+        }
+        return this.watcher;
+    }
+
+    private void ensureOpen(){
+        if(closed){
+            throw new IllegalStateException("CSVFollower is closed");
+        }
+    }
+
+    private static void closeQuietly(final WatchService service){
+        if(service != null){
+            try{
+                service.close();
+            }catch(IOException ex){
+                //ignore
+            }
+        }
+    }
+}
@@ -0,0 +1,401 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.raven.common.io;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+import com.raven.common.struct.BooleanColumn;
+import com.raven.common.struct.ByteColumn;
+import com.raven.common.struct.CharColumn;
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DoubleColumn;
+import com.raven.common.struct.FloatColumn;
+import com.raven.common.struct.IntColumn;
+import com.raven.common.struct.LongColumn;
+import com.raven.common.struct.NullableBooleanColumn;
+import com.raven.common.struct.NullableByteColumn;
+import com.raven.common.struct.NullableCharColumn;
+import com.raven.common.struct.NullableDoubleColumn;
+import com.raven.common.struct.NullableFloatColumn;
+import com.raven.common.struct.NullableIntColumn;
+import com.raven.common.struct.NullableLongColumn;
+import com.raven.common.struct.NullableShortColumn;
+import com.raven.common.struct.NullableStringColumn;
+import com.raven.common.struct.ShortColumn;
+import com.raven.common.struct.StringColumn;
+
+/**
+ * Formats the rows of DataFrame columns as CSV text into a reusable
+ * character buffer. The value arrays of all columns are accessed directly
+ * by their type, so that primitive values are never boxed.
+ * 
+ * <p>A data value is enclosed with double quotes if it contains the separator
+ * or any line breaks, if it starts with a double quote or if it is empty.
+ * Double quotes inside an enclosed value are escaped by another double quote.
+ * Null values are represented by the <i>"null"</i> string.
+ * 
+ * <p>A CSVFormatter is not thread-safe. Multiple formatters may format
+ * different row ranges of the same columns concurrently.
+ * 
+ * <p>This class is not part of the public API.
+ * 
+ * @author Phil Gaiser
+ * @see CSVWriter
+ * @since 4.1.0
+ *
+ */
+final class CSVFormatter {
+
+    private static final char[] NULL = "null".toCharArray();
+    private static final char[] TRUE = "true".toCharArray();
+    private static final char[] FALSE = "false".toCharArray();
+
+    private final byte[] types;
+    private final Object[] values;
+    private final Column[] columns;
+    private final char separator;
+    private final char[] lineSeparator;
+    private final boolean plainNumbers;
+    private char[] buffer;
+    private int length;
+
+    /**
+     * Constructs a new <code>CSVFormatter</code> for the specified columns
+     * 
+     * @param columns The columns to format
+     * @param separator The separator character
+     * @param lineSeparator The characters terminating each line
+     * @param capacity The initial capacity of the character buffer
+     */
+    CSVFormatter(final Column[] columns, final char separator,
+            final String lineSeparator, final int capacity){
+
+        this.columns = columns;
+        this.separator = separator;
+        this.lineSeparator = lineSeparator.toCharArray();
+        this.plainNumbers = "0123456789+-.ENaIfinty".indexOf(separator) < 0;
+        this.types = new byte[columns.length];
+        this.values = new Object[columns.length];
+        for(int i=0; i<columns.length; ++i){
+            this.types[i] = columns[i].typeCode();
+            this.values[i] = valuesOf(columns[i]);
+        }
+        this.buffer = new char[Math.max(capacity, NumberCodec.MAX_CHARS)];
+    }
+
+    /**
+     * Appends the specified column names as a header line
+     * 
+     * @param names The column names to format
+     */
+    void formatHeader(final String[] names){
+        for(int i=0; i<names.length; ++i){
+            if(i > 0){
+                append(separator);
+            }
+            appendEscaped(names[i]);
+        }
+        append(lineSeparator);
+    }
+
+    /**
+     * Appends the specified range of rows, each terminated by a line separator
+     * 
+     * @param from The index of the first row to format, inclusive
+     * @param to The index of the last row to format, exclusive
+     */
+    void formatRows(final int from, final int to){
+        final int n = types.length;
+        for(int row=from; row<to; ++row){
+            for(int col=0; col<n; ++col){
+                if(col > 0){
+                    append(separator);
+                }
+                formatValue(col, row);
+            }
+            append(lineSeparator);
+        }
+    }
+
+    /**
+     * Returns the number of characters in the buffer of this formatter
+     * 
+     * @return The number of formatted characters
+     */
+    int length(){
+        return this.length;
+    }
+
+    /**
+     * Removes all characters from the buffer of this formatter
+     * 
+     */
+    void clear(){
+        this.length = 0;
+    }
+
+    /**
+     * Encodes all characters in the buffer of this formatter with the
+     * specified charset. Text consisting of ASCII characters is
+     * encoded directly for ASCII-compatible charsets
+     * 
+     * @param charset The <code>Charset</code> to encode the text with
+     * @return A <code>ByteBuffer</code> holding the encoded text
+     * @throws CharacterCodingException If the text cannot be encoded
+     */
+    ByteBuffer encode(final Charset charset) throws CharacterCodingException{
+        if(CSVParser.supportsBytes(charset)){
+            final byte[] bytes = new byte[length];
+            int i = 0;
+            for(; i<length; ++i){
+                final char c = buffer[i];
+                if(c >= 0x80){
+                    break;
+                }
+                bytes[i] = (byte) c;
+            }
+            if(i == length){
+                return ByteBuffer.wrap(bytes);
+            }
+        }
+        final CharsetEncoder encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        return encoder.encode(CharBuffer.wrap(buffer, 0, length));
+    }
+
+    private void formatValue(final int col, final int row){
+        switch(types[col]){
+        case ByteColumn.TYPE_CODE:
+            appendLong(((byte[]) values[col])[row]);
+            break;
+        case ShortColumn.TYPE_CODE:
+            appendLong(((short[]) values[col])[row]);
+            break;
+        case IntColumn.TYPE_CODE:
+            appendLong(((int[]) values[col])[row]);
+            break;
+        case LongColumn.TYPE_CODE:
+            appendLong(((long[]) values[col])[row]);
+            break;
+        case FloatColumn.TYPE_CODE:
+            appendFloat(((float[]) values[col])[row]);
+            break;
+        case DoubleColumn.TYPE_CODE:
+            appendDouble(((double[]) values[col])[row]);
+            break;
+        case BooleanColumn.TYPE_CODE:
+            append(((boolean[]) values[col])[row] ? TRUE : FALSE);
+            break;
+        case CharColumn.TYPE_CODE:
+            appendChar(((char[]) values[col])[row]);
+            break;
+        case StringColumn.TYPE_CODE:
+        case NullableStringColumn.TYPE_CODE:
+            final String s = ((String[]) values[col])[row];
+            if(s != null){
+                appendEscaped(s);
+            }else{
+                append(NULL);
+            }
+            break;
+        case NullableByteColumn.TYPE_CODE:
+        case NullableShortColumn.TYPE_CODE:
+        case NullableIntColumn.TYPE_CODE:
+        case NullableLongColumn.TYPE_CODE:
+            final Number integer = ((Number[]) values[col])[row];
+            if(integer != null){
+                appendLong(integer.longValue());
+            }else{
+                append(NULL);
+            }
+            break;
+        case NullableFloatColumn.TYPE_CODE:
+            final Float f = ((Float[]) values[col])[row];
+            if(f != null){
+                appendFloat(f);
+            }else{
+                append(NULL);
+            }
+            break;
+        case NullableDoubleColumn.TYPE_CODE:
+            final Double d = ((Double[]) values[col])[row];
+            if(d != null){
+                appendDouble(d);
+            }else{
+                append(NULL);
+            }
+            break;
+        case NullableBooleanColumn.TYPE_CODE:
+            final Boolean b = ((Boolean[]) values[col])[row];
+            if(b != null){
+                append(b ? TRUE : FALSE);
+            }else{
+                append(NULL);
+            }
+            break;
+        case NullableCharColumn.TYPE_CODE:
+            final Character c = ((Character[]) values[col])[row];
+            if(c != null){
+                appendChar(c);
+            }else{
+                append(NULL);
+            }
+            break;
+        default:
+            final Object value = columns[col].getValue(row);
+            if(value != null){
+                appendEscaped(value.toString());
+            }else{
+                append(NULL);
+            }
+        }
+    }
+
+    private void appendLong(final long value){
+        ensureCapacity(NumberCodec.MAX_CHARS);
+        this.length = NumberCodec.formatLong(value, buffer, length);
+    }
+
+    private void appendFloat(final float value){
+        if(plainNumbers){
+            ensureCapacity(NumberCodec.MAX_CHARS);
+            this.length = NumberCodec.formatFloat(value, buffer, length);
+        }else{
+            appendEscaped(Float.toString(value));
+        }
+    }
+
+    private void appendDouble(final double value){
+        if(plainNumbers){
+            ensureCapacity(NumberCodec.MAX_CHARS);
+            this.length = NumberCodec.formatDouble(value, buffer, length);
+        }else{
+            appendEscaped(Double.toString(value));
+        }
+    }
+
+    private void appendChar(final char c){
+        if((c == separator) || (c == '"') || (c == '\n') || (c == '\r')){
+            appendEscaped(String.valueOf(c));
+        }else{
+            append(c);
+        }
+    }
+
+    private void appendEscaped(final String s){
+        final int n = s.length();
+        boolean quote = (n == 0) || (s.charAt(0) == '"');
+        for(int i=0; (i < n) && !quote; ++i){
+            final char c = s.charAt(i);
+            quote = (c == separator) || (c == '\n') || (c == '\r');
+        }
+        if(!quote){
+            ensureCapacity(n);
+            s.getChars(0, n, buffer, length);
+            this.length += n;
+            return;
+        }
+        ensureCapacity((2 * n) + 2);
+        buffer[length++] = '"';
+        for(int i=0; i<n; ++i){
+            final char c = s.charAt(i);
+            if(c == '"'){
+                buffer[length++] = '"';
+            }
+            buffer[length++] = c;
+        }
+        buffer[length++] = '"';
+    }
+
+    private void append(final char c){
+        ensureCapacity(1);
+        buffer[length++] = c;
+    }
+
+    private void append(final char[] chars){
+        ensureCapacity(chars.length);
+        System.arraycopy(chars, 0, buffer, length, chars.length);
+        this.length += chars.length;
+    }
+
+    private void ensureCapacity(final int n){
+        if((length + n) > buffer.length){
+            final long required = (long) length + n;
+            final long grown = Math.max(required, buffer.length * 2L);
+            if(grown > (Integer.MAX_VALUE - 8)){
+                if(required > (Integer.MAX_VALUE - 8)){
+                    throw new IllegalStateException("CSV chunk exceeds maximum supported size");
+                }
+                this.buffer = Arrays.copyOf(buffer, Integer.MAX_VALUE - 8);
+            }else{
+                this.buffer = Arrays.copyOf(buffer, (int) grown);
+            }
+        }
+    }
+
+    private static Object valuesOf(final Column column){
+        switch(column.typeCode()){
+        case ByteColumn.TYPE_CODE:
+            return ((ByteColumn) column).asArray();
+        case ShortColumn.TYPE_CODE:
+            return ((ShortColumn) column).asArray();
+        case IntColumn.TYPE_CODE:
+            return ((IntColumn) column).asArray();
+        case LongColumn.TYPE_CODE:
+            return ((LongColumn) column).asArray();
+        case FloatColumn.TYPE_CODE:
+            return ((FloatColumn) column).asArray();
+        case DoubleColumn.TYPE_CODE:
+            return ((DoubleColumn) column).asArray();
+        case BooleanColumn.TYPE_CODE:
+            return ((BooleanColumn) column).asArray();
+        case CharColumn.TYPE_CODE:
+            return ((CharColumn) column).asArray();
+        case StringColumn.TYPE_CODE:
+            return ((StringColumn) column).asArray();
+        case NullableStringColumn.TYPE_CODE:
+            return ((NullableStringColumn) column).asArray();
+        case NullableByteColumn.TYPE_CODE:
+            return ((NullableByteColumn) column).asArray();
+        case NullableShortColumn.TYPE_CODE:
+            return ((NullableShortColumn) column).asArray();
+        case NullableIntColumn.TYPE_CODE:
+            return ((NullableIntColumn) column).asArray();
+        case NullableLongColumn.TYPE_CODE:
+            return ((NullableLongColumn) column).asArray();
+        case NullableFloatColumn.TYPE_CODE:
+            return ((NullableFloatColumn) column).asArray();
+        case NullableDoubleColumn.TYPE_CODE:
+            return ((NullableDoubleColumn) column).asArray();
+        case NullableBooleanColumn.TYPE_CODE:
+            return ((NullableBooleanColumn) column).asArray();
+        case NullableCharColumn.TYPE_CODE:
+            return ((NullableCharColumn) column).asArray();
+        default:
+            return null;
+        }
+    }
+}
@@ -0,0 +1,591 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Single-pass parser for records of CSV data.<br>
+ * A CSVParser reads characters from an underlying <code>Reader</code> and
+ * splits them into records and fields by means of a small state machine.
+ * Each character is inspected exactly once.
+ * 
+ * <p>The content of all fields of the current record is copied into one
+ * shared character buffer. The boundaries of each field within that buffer
+ * can be queried by the {@link #start(int)} and {@link #end(int)} methods.
+ * Thus, no String objects have to be created for fields which are converted
+ * to primitive values.
+ * 
+ * <p>A CSVParser can alternatively read raw bytes from a <code>ByteBuffer</code>,
+ * for example a region of a memory-mapped file, if the CSV data is encoded
+ * with a charset in which all ASCII characters are represented by single bytes
+ * which never occur as part of other characters. This is the case for
+ * <i>UTF-8</i>, <i>US-ASCII</i> and <i>ISO-8859-1</i>. In that case, bytes are
+ * not decoded while parsing. Only fields which contain non-ASCII characters are
+ * decoded when they are requested as a String.
+ * 
+ * <p>The following rules apply:
+ * <ul>
+ * <li>Records are terminated by either <code>\n</code>, <code>\r</code>
+ *     or <code>\r\n</code>. Empty lines are skipped</li>
+ * <li>A field which starts with a double quote is a quoted field. Quoted fields
+ *     may contain separator characters and line breaks. A double quote within
+ *     a quoted field must be escaped by another double quote</li>
+ * <li>A double quote within an unquoted field is treated as a regular character.
+ *     Any characters following the closing quote of a quoted field are appended
+ *     to the content of that field</li>
+ * </ul>
+ * 
+ * <p>This class is not part of the public API.
+ * 
+ * @author Phil Gaiser
+ * @see CSVReader
+ * @since 4.1.0
+ *
+ */
+final class CSVParser implements Closeable {
+
+    /** The size of the buffer used to read characters from the underlying reader **/
+    private static final int BUFFER_SIZE = 8192;
+
+    /** The string representation of null values **/
+    private static final char[] NULL = new char[]{'n', 'u', 'l', 'l'};
+
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+
+    private final Reader reader;
+    private final ByteBuffer bytes;
+    private final Charset charset;
+    private final char separator;
+    private final char[] buffer;
+    private byte[] scratch;
+    private int position;
+    private int limit;
+    private boolean skipLineFeed;
+    private int line;
+    private int recordLine;
+
+    private char[] chars;
+    private int length;
+    private int[] starts;
+    private int[] ends;
+    private boolean[] quoted;
+    private int fields;
+    private boolean[] selection;
+    private boolean skip;
+
+    /**
+     * Constructs a new <code>CSVParser</code> which reads from
+     * the specified <code>Reader</code>
+     * 
+     * @param reader The <code>Reader</code> to read characters from
+     * @param separator The character which separates fields
+     */
+    CSVParser(final Reader reader, final char separator){
+        this(reader, null, null, separator);
+    }
+
+    /**
+     * Constructs a new <code>CSVParser</code> which reads the remaining bytes
+     * of the specified <code>ByteBuffer</code>. The charset must be supported
+     * as indicated by {@link #supportsBytes(Charset)}
+     * 
+     * @param bytes The <code>ByteBuffer</code> to read bytes from
+     * @param charset The charset of the CSV data
+     * @param separator The character which separates fields
+     */
+    CSVParser(final ByteBuffer bytes, final Charset charset, final char separator){
+        this(null, bytes, charset, separator);
+        this.scratch = new byte[BUFFER_SIZE];
+    }
+
+    private CSVParser(final Reader reader, final ByteBuffer bytes,
+            final Charset charset, final char separator){
+
+        this.reader = reader;
+        this.bytes = bytes;
+        this.charset = charset;
+        this.separator = separator;
+        this.buffer = new char[BUFFER_SIZE];
+        this.chars = new char[256];
+        this.starts = new int[16];
+        this.ends = new int[16];
+        this.quoted = new boolean[16];
+    }
+
+    /**
+     * Parses the next record
+     * 
+     * @return True if a record was parsed, false if the end of
+     *         the input was reached
+     * @throws IOException If the underlying reader throws an IOException or
+     *                     if a quoted field is not terminated
+     */
+    boolean next() throws IOException{
+        this.fields = 0;
+        this.length = 0;
+        this.quoted[0] = false;
+        this.skip = isSkipped(0);
+        this.recordLine = line + 1;
+        int state = FIELD_START;
+        boolean started = false;
+        while(true){
+            if(position == limit){
+                if(!fill()){
+                    break;
+                }
+            }
+            final char c = buffer[position++];
+            if(skipLineFeed){
+                skipLineFeed = false;
+                if(c == '\n'){
+                    continue;
+                }
+            }
+            switch(state){
+            case FIELD_START:
+                if(c == '"'){
+                    quoted[fields] = true;
+                    state = QUOTED;
+                    started = true;
+                }else if(c == separator){
+                    endField();
+                    started = true;
+                }else if((c == '\n') || (c == '\r')){
+                    newLine(c);
+                    if(!started){//skip empty lines
+                        this.recordLine = line + 1;
+                        continue;
+                    }
+                    endField();
+                    return true;
+                }else{
+                    append(c);
+                    state = UNQUOTED;
+                    started = true;
+                }
+                break;
+            case UNQUOTED:
+                if(c == separator){
+                    endField();
+                    state = FIELD_START;
+                }else if((c == '\n') || (c == '\r')){
+                    newLine(c);
+                    endField();
+                    return true;
+                }else{
+                    append(c);
+                }
+                break;
+            case QUOTED:
+                if(c == '"'){
+                    state = QUOTE_IN_QUOTED;
+                }else{
+                    if(c == '\n'){
+                        ++line;
+                    }
+                    append(c);
+                }
+                break;
+            case QUOTE_IN_QUOTED:
+                if(c == '"'){//escaped quote
+                    append(c);
+                    state = QUOTED;
+                }else if(c == separator){
+                    endField();
+                    state = FIELD_START;
+                }else if((c == '\n') || (c == '\r')){
+                    newLine(c);
+                    endField();
+                    return true;
+                }else{
+                    append(c);
+                    state = UNQUOTED;
+                }
+                break;
+            default:
+                throw new IllegalStateException("Invalid parser state: " + state);
+            }
+        }
+        //end of input
+        if(state == QUOTED){
+            throw new IOException(String.format(
+                    "Unterminated quoted value at line: %s", recordLine));
+        }
+        if(!started){
+            return false;
+        }
+        endField();
+        return true;
+    }
+
+    /**
+     * Sets the fields to be materialized for all subsequently parsed records.
+     * The content of fields which are not selected is scanned over but not
+     * copied into the character buffer, i.e. such fields always appear
+     * to be empty
+     * 
+     * @param selection The selected field indices. The field at index <i>i</i>
+     *                  is materialized if <code>selection[i]</code> is true.
+     *                  Fields with an index greater than or equal to the length
+     *                  of the array are not materialized. May be null to
+     *                  materialize all fields
+     */
+    void select(final boolean[] selection){
+        this.selection = selection;
+    }
+
+    /**
+     * Returns the number of fields of the current record
+     * 
+     * @return The number of fields of the current record
+     */
+    int fields(){
+        return this.fields;
+    }
+
+    /**
+     * Returns the buffer holding the content of all fields of the current record
+     * 
+     * @return The character buffer of the current record
+     */
+    char[] chars(){
+        return this.chars;
+    }
+
+    /**
+     * Returns the index within the character buffer of the first character
+     * of the specified field
+     * 
+     * @param field The index of the field
+     * @return The start index (inclusive) of the specified field
+     */
+    int start(final int field){
+        return starts[field];
+    }
+
+    /**
+     * Returns the index within the character buffer after the last character
+     * of the specified field
+     * 
+     * @param field The index of the field
+     * @return The end index (exclusive) of the specified field
+     */
+    int end(final int field){
+        return ends[field];
+    }
+
+    /**
+     * Indicates whether the specified field was enclosed by double quotes
+     * 
+     * @param field The index of the field
+     * @return True if the specified field was quoted, false otherwise
+     */
+    boolean isQuoted(final int field){
+        return quoted[field];
+    }
+
+    /**
+     * Indicates whether the specified field represents a null value. This is the
+     * case for unquoted fields which are either empty or are equal to <i>"null"</i>
+     * 
+     * @param field The index of the field
+     * @return True if the specified field represents a null value, false otherwise
+     */
+    boolean isNull(final int field){
+        if(quoted[field]){
+            return false;
+        }
+        final int start = starts[field];
+        final int len = ends[field] - start;
+        if(len == 0){
+            return true;
+        }
+        if(len != NULL.length){
+            return false;
+        }
+        for(int i=0; i<NULL.length; ++i){
+            if(chars[start + i] != NULL[i]){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the content of the specified field as a String
+     * 
+     * @param field The index of the field
+     * @return The content of the specified field
+     */
+    String getString(final int field){
+        final int start = starts[field];
+        final int len = ends[field] - start;
+        if((charset != null) && !StandardCharsets.ISO_8859_1.equals(charset)){
+            for(int i=start; i<ends[field]; ++i){
+                if(chars[i] >= 0x80){
+                    return decode(start, len);
+                }
+            }
+        }
+        return new String(chars, start, len);
+    }
+
+    /**
+     * Returns the line number at which the current record starts.
+     * The first line has the number 1
+     * 
+     * @return The line number of the current record
+     */
+    int line(){
+        return this.recordLine;
+    }
+
+    /**
+     * Parses the specified field as a decimal integer without creating
+     * an intermediate String object. An optional leading sign is permitted
+     * 
+     * @param field The index of the field
+     * @param min The minimum permitted value
+     * @param max The maximum permitted value
+     * @return The parsed value
+     * @throws NumberFormatException If the field does not represent a
+     *                               decimal integer within the specified range
+     */
+    long parseLong(final int field, final long min, final long max){
+        return NumberCodec.parseLong(chars, starts[field], ends[field], min, max);
+    }
+
+    /**
+     * Parses the specified field as a double without creating an intermediate
+     * String object. The accepted syntax is the same as
+     * of <code>Double.parseDouble(String)</code>
+     * 
+     * @param field The index of the field
+     * @return The parsed value
+     * @throws NumberFormatException If the field does not represent a number
+     */
+    double parseDouble(final int field){
+        return NumberCodec.parseDouble(chars, starts[field], ends[field]);
+    }
+
+    /**
+     * Parses the specified field as a float without creating an intermediate
+     * String object. The accepted syntax is the same as
+     * of <code>Float.parseFloat(String)</code>
+     * 
+     * @param field The index of the field
+     * @return The parsed value
+     * @throws NumberFormatException If the field does not represent a number
+     */
+    float parseFloat(final int field){
+        return NumberCodec.parseFloat(chars, starts[field], ends[field]);
+    }
+
+    /**
+     * Indicates whether the specified field only consists of characters used
+     * in the plain decimal notation of numbers, i.e. digits, decimal points,
+     * signs and exponent markers. This does not guarantee that the field
+     * can be parsed as a number
+     * 
+     * @param field The index of the field
+     * @return True if the specified field is not empty and only consists
+     *         of characters of decimal numbers, false otherwise
+     */
+    boolean isDecimal(final int field){
+        final int start = starts[field];
+        final int end = ends[field];
+        if(start == end){
+            return false;
+        }
+        for(int i=start; i<end; ++i){
+            final char c = chars[i];
+            if(((c < '0') || (c > '9')) && (c != '.') && (c != '-')
+                    && (c != '+') && (c != 'e') && (c != 'E')){
+
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the specified field as a boolean without creating an
+     * intermediate String object. Like <code>Boolean.valueOf(String)</code>,
+     * only the string <i>"true"</i>, ignoring case, is parsed as true
+     * 
+     * @param field The index of the field
+     * @return The parsed value
+     */
+    boolean parseBoolean(final int field){
+        final int start = starts[field];
+        if((ends[field] - start) != 4){
+            return false;
+        }
+        return (Character.toLowerCase(chars[start]) == 't')
+                && (Character.toLowerCase(chars[start + 1]) == 'r')
+                && (Character.toLowerCase(chars[start + 2]) == 'u')
+                && (Character.toLowerCase(chars[start + 3]) == 'e');
+    }
+
+    /**
+     * Indicates whether the specified field is equal to either <i>"true"</i>
+     * or <i>"false"</i>, ignoring case
+     * 
+     * @param field The index of the field
+     * @return True if the specified field represents a boolean value,
+     *         false otherwise
+     */
+    boolean isBoolean(final int field){
+        final int start = starts[field];
+        final int len = ends[field] - start;
+        if(len == 4){
+            return parseBoolean(field);
+        }
+        return (len == 5)
+                && (Character.toLowerCase(chars[start]) == 'f')
+                && (Character.toLowerCase(chars[start + 1]) == 'a')
+                && (Character.toLowerCase(chars[start + 2]) == 'l')
+                && (Character.toLowerCase(chars[start + 3]) == 's')
+                && (Character.toLowerCase(chars[start + 4]) == 'e');
+    }
+
+    /**
+     * Returns the first character of the specified field
+     * 
+     * @param field The index of the field
+     * @return The first character of the specified field
+     * @throws IllegalArgumentException If the specified field is empty
+     */
+    char parseChar(final int field){
+        if(starts[field] == ends[field]){
+            throw new IllegalArgumentException("Empty value cannot be converted to char");
+        }
+        final char c = chars[starts[field]];
+        if((c >= 0x80) && (charset != null)){
+            return getString(field).charAt(0);
+        }
+        return c;
+    }
+
+    /**
+     * Closes the underlying reader, if any
+     * 
+     * @throws IOException If the underlying reader throws an IOException
+     */
+    @Override
+    public void close() throws IOException{
+        if(reader != null){
+            reader.close();
+        }
+    }
+
+    /**
+     * Indicates whether CSV data encoded with the specified charset can be
+     * parsed from raw bytes without decoding them
+     * 
+     * @param charset The charset to check
+     * @return True if the specified charset can be parsed from raw bytes,
+     *         false otherwise
+     */
+    static boolean supportsBytes(final Charset charset){
+        return StandardCharsets.UTF_8.equals(charset)
+                || StandardCharsets.US_ASCII.equals(charset)
+                || StandardCharsets.ISO_8859_1.equals(charset);
+    }
+
+    private boolean fill() throws IOException{
+        if(bytes != null){
+            final int n = Math.min(bytes.remaining(), BUFFER_SIZE);
+            if(n == 0){
+                return false;
+            }
+            bytes.get(scratch, 0, n);
+            for(int i=0; i<n; ++i){
+                buffer[i] = (char) (scratch[i] & 0xff);
+            }
+            this.position = 0;
+            this.limit = n;
+            return true;
+        }
+        int n = reader.read(buffer, 0, buffer.length);
+        while(n == 0){
+            n = reader.read(buffer, 0, buffer.length);
+        }
+        if(n < 0){
+            this.position = 0;
+            this.limit = 0;
+            return false;
+        }
+        this.position = 0;
+        this.limit = n;
+        return true;
+    }
+
+    private void newLine(final char c){
+        ++line;
+        if(c == '\r'){
+            this.skipLineFeed = true;
+        }
+    }
+
+    private void append(final char c){
+        if(skip){
+            return;
+        }
+        if(length == chars.length){
+            this.chars = Arrays.copyOf(chars, chars.length * 2);
+        }
+        chars[length++] = c;
+    }
+
+    private void endField(){
+        if(fields == (starts.length - 1)){
+            final int size = starts.length * 2;
+            this.starts = Arrays.copyOf(starts, size);
+            this.ends = Arrays.copyOf(ends, size);
+            this.quoted = Arrays.copyOf(quoted, size);
+        }
+        starts[fields] = (fields == 0) ? 0 : ends[fields - 1];
+        ends[fields] = length;
+        ++fields;
+        quoted[fields] = false;
+        this.skip = isSkipped(fields);
+    }
+
+    private boolean isSkipped(final int field){
+        return (selection != null)
+                && ((field >= selection.length) || !selection[field]);
+    }
+
+    private String decode(final int start, final int len){
+        final byte[] raw = new byte[len];
+        for(int i=0; i<len; ++i){
+            raw[i] = (byte) chars[start + i];
+        }
+        return new String(raw, charset);
+    }
+}
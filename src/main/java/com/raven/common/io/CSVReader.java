@@ -16,19 +16,27 @@
 
 package com.raven.common.io;
 
-import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.IllegalCharsetNameException;
 import java.nio.charset.StandardCharsets;
 import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.regex.Pattern;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 import com.raven.common.struct.BooleanColumn;
 import com.raven.common.struct.ByteColumn;
@@ -62,14 +70,16 @@ import com.raven.common.struct.StringColumn;
  * each type individually. Passing the types directly to the
  * <code>useColumnTypes()</code> method will ensure that the columns of the returned 
  * DataFrame are of the corresponding type. The order of the types of the argument 
- * will specify to which column that type is assigned to.
+ * will specify to which column that type is assigned to. Alternatively, the
+ * types can be inferred from the CSV data by the <code>inferColumnTypes()</code>
+ * method.
  * 
- * <p>There is only one restriction regarding the separator and the content of
- * the CSV-file to read.<br>
- * Any character except <i>double quotes</i> can be used as a separator. If a data value
- * contains one or more instances of the used separator character, then that data value
- * must be enclosed with double quotes. For that reason <i>double quotes</i> cannot
- * be used as a separator character or occur inside data values.
+ * <p>Any character except <i>double quotes</i> can be used as a separator. If a data
+ * value contains one or more instances of the used separator character or any
+ * line breaks, then that data value must be enclosed with double quotes. A double
+ * quote inside such an enclosed data value must be escaped by another double quote.
+ * For that reason <i>double quotes</i> cannot be used as a separator character.
+ * The CSV data is parsed in a single pass over all characters.
  * 
  * <p>If a data value in the CSV-file is nonexistent or empty, then it should have a
  * text representation of <i>"null"</i> inside the file to read. Simply omitting
@@ -78,10 +88,30 @@ import com.raven.common.struct.StringColumn;
  * If a CSV-file contains at least one data value which is represented by the <i>"null"</i>
  * string, then the DataFrame produced by the underlying CSVReader instance will
  * be a <code>NullableDataFrame</code> and the respective values will be null.
+ * Null values are tracked for each column separately while reading, so values
+ * which were already read are never converted when a null value is encountered.
+ * Nullable columns can also be declared up front by
+ * the <code>useNullableColumns()</code> method.
+ * 
+ * <p>A subset of the columns can be read by the <code>selectColumns()</code>
+ * method and a range of rows by the <code>skipRows()</code> and
+ * <code>limit()</code> methods. Values which are not read are only scanned over
+ * and are never stored or converted.
+ * 
+ * <p>Large CSV data can be processed in batches of rows with constant memory
+ * by the <code>stream()</code> method. CSV-files which are continuously appended
+ * to can be followed by the <code>follow()</code> method, which only reads
+ * the records appended since the CSV-file was last polled.
+ * 
+ * <p>CSV data compressed in the <i>gzip</i> format is detected by its magic bytes
+ * and decompressed transparently. CSV-files with a <i>".zz"</i> or <i>".deflate"</i>
+ * extension are decompressed as <i>zlib</i> data. Decompression is performed by
+ * a separate thread, so that it overlaps with parsing. Compressed CSV-files
+ * are always read sequentially.
  * 
  * <p>A CSVReader may also be constructed to read any <code>InputStream</code> passed to
  * the constructor. Any input stream will be automatically wrapped and buffered
- * by a <code>BufferedReader</code> instance. All closable resources will be
+ * by a <code>Reader</code> instance. All closable resources will be
  * automatically closed by a CSVReader after a read operation.
  * 
  * @author Phil Gaiser
@@ -93,10 +123,17 @@ public class CSVReader {
 
     private InputStream is;
     private File file;
-    private String separator = ",";
+    private char separator = ',';
     private Charset charset = StandardCharsets.UTF_8;
     private Column[] types;
     private boolean hasHeader = true;
+    private int threads = 1;
+    private int sampleRows;
+    private boolean nullable;
+    private String[] selectedNames;
+    private int[] selectedIndices;
+    private long skipRows;
+    private long limit = -1;
 
     /** Used for concurrent read operations **/
     private ConcurrentCSVReader async;
@@ -214,30 +251,59 @@ public class CSVReader {
     }
 
     /**
-     * Creates a background thread which will read the CSV-file asynchronously and
-     * supply a DataFrame representing its content to the CompletableFuture returned
-     * by this method.<br>
+     * Reads the CSV-file asynchronously by the shared I/O executor and
+     * supplies a DataFrame representing its content to the CompletableFuture
+     * returned by this method.<br>
      * This method can only be called once. Subsequent calls will result in an
      * <code>IllegalStateException</code>.
      * 
      * <p>This method is meant to be used for large CSV-files.
      * 
-     * <p>When called, this method will return immediately. The result of the 
-     * background operation will be passed to the {@link CompletableFuture} instance.
+     * <p>The read operation is executed by the bounded executor provided
+     * by {@link IOExecutor#getDefault()}. This method returns immediately unless
+     * the queue of that executor is full, in which case the calling thread is
+     * blocked until the operation can be queued. The result of the background
+     * operation will be passed to the {@link CompletableFuture} instance.
      * 
-     * <p>Please note that any IOExceptions encountered by the launched background 
-     * thread will result in the CompletableFuture being completed exceptionally.
+     * <p>Please note that any IOExceptions encountered by the background 
+     * operation will result in the CompletableFuture being completed exceptionally.
      * 
      * @return A <code>CompletableFuture</code> for the asynchronous read operation
      * @throws IllegalStateException If this method has already been called
      * @see #read()
      */
     public CompletableFuture<DataFrame> readAsync() throws IllegalStateException{
+        return readAsync(IOExecutor.getDefault());
+    }
+
+    /**
+     * Reads the CSV-file asynchronously by the specified executor and
+     * supplies a DataFrame representing its content to the CompletableFuture
+     * returned by this method.<br>
+     * This method can only be called once. Subsequent calls will result in an
+     * <code>IllegalStateException</code>.
+     * 
+     * <p>If the specified executor rejects the read operation, then
+     * the returned CompletableFuture is completed exceptionally.
+     * 
+     * @param executor The <code>Executor</code> to execute the read operation.
+     *                 Must not be null
+     * @return A <code>CompletableFuture</code> for the asynchronous read operation
+     * @throws IllegalStateException If this method has already been called
+     * @see #readAsync()
+     * @since 4.1.0
+     */
+    public CompletableFuture<DataFrame> readAsync(final Executor executor)
+            throws IllegalStateException{
+
+        if(executor == null){
+            throw new IllegalArgumentException("Executor argument must not be null");
+        }
         if(async != null){
             throw new IllegalStateException("readAsync() already called");
         }
         this.async = new ConcurrentCSVReader();
-        return this.async.execute();
+        return this.async.execute(executor);
     }
 
     /**
@@ -266,7 +332,276 @@ public class CSVReader {
             throw new IllegalArgumentException(
                     "Cannot use double quotes as separator character");
         }
-        this.separator = normalizeSeparator(separator);
+        this.separator = separator;
+        return this;
+    }
+
+    /**
+     * Reads the CSV data in batches of the specified number of rows. The returned
+     * iterator produces one DataFrame for each batch. All batches have the same
+     * column names and column types. If column types are inferred, then they are
+     * inferred from the first batch and all subsequent values must be convertible
+     * to the inferred types. Inferred integer columns use at least
+     * the <i>int</i> type. Batches are DataFrames of the same implementation
+     * if the <code>useNullableColumns()</code> option is set. Otherwise, any batch
+     * holding a null value is a NullableDataFrame.
+     * 
+     * <p>Only the rows of the current batch are held in memory, which allows
+     * CSV data larger than the available heap space to be processed.
+     * The CSV data is read sequentially regardless of the number of threads
+     * specified by the <code>useThreads()</code> method.<br>
+     * This method can only be called once. Subsequent calls to this method
+     * or to any read method will result in an <code>IllegalStateException</code>.
+     * 
+     * <p>Resources are closed automatically when the returned iterator is
+     * exhausted. If the iterator is not exhausted, it should be closed by
+     * the caller
+     * 
+     * @param batchRows The maximum number of rows of each batch. Must be positive
+     * @return A <code>CSVBatchIterator</code> over all batches of the CSV data
+     * @throws IOException If the file cannot be opened or read, or if the first
+     *                     line of the CSV data is improperly formatted
+     * @throws IllegalStateException If the CSV data has already been read
+     * @see #stream(int, boolean)
+     * @since 4.1.0
+     */
+    public CSVBatchIterator stream(final int batchRows) throws IOException{
+        return stream(batchRows, false);
+    }
+
+    /**
+     * Reads the CSV data in batches of the specified number of rows.
+     * This method behaves like {@link #stream(int)} but additionally allows
+     * the value arrays of the produced DataFrames to be reused.
+     * 
+     * <p>If <i>reuseBuffers</i> is true, then the columns of a batch may share
+     * their value arrays with the column builders of the returned iterator.
+     * The content of a batch is then only valid until the next call to
+     * <code>hasNext()</code> or <code>next()</code> of the iterator, but no
+     * arrays have to be allocated for batches after the first one. Callers
+     * must therefore not retain any batch when reusing buffers
+     * 
+     * @param batchRows The maximum number of rows of each batch. Must be positive
+     * @param reuseBuffers Indicates whether subsequent batches may reuse the
+     *                     value arrays of previous batches
+     * @return A <code>CSVBatchIterator</code> over all batches of the CSV data
+     * @throws IOException If the file cannot be opened or read, or if the first
+     *                     line of the CSV data is improperly formatted
+     * @throws IllegalStateException If the CSV data has already been read
+     * @see #stream(int)
+     * @since 4.1.0
+     */
+    public CSVBatchIterator stream(final int batchRows, final boolean reuseBuffers)
+            throws IOException{
+
+        if(batchRows <= 0){
+            throw new IllegalArgumentException(
+                    "Number of batch rows must be positive: " + batchRows);
+        }
+        if(file != null){
+            ensureExists();
+        }
+        return new CSVBatchIterator(new RecordCursor(), batchRows, reuseBuffers);
+    }
+
+    /**
+     * Follows the CSV-file of this CSVReader while it is being appended to.
+     * The returned follower reads all complete records of the CSV-file when it
+     * is polled and remembers the position after the last complete record.
+     * Each subsequent poll only reads the records which were appended since the
+     * previous poll, so the cost of a poll is proportional to the size of the
+     * appended data and not to the size of the CSV-file. A record is complete
+     * once its terminating line break was written. An incomplete last record is
+     * read by a later poll after it was completed.
+     * 
+     * <p>The column names and column types are determined by the first poll
+     * which reads any records, in the same way as by the <code>stream()</code>
+     * method, except that inferred integer columns are at least of type
+     * <code>long</code>. All records appended later must be convertible to these
+     * column types. Otherwise, each poll throws an <code>IOException</code> and
+     * does not advance the position of the follower. The column types can then
+     * be determined again from the appended records by
+     * {@link CSVFollower#reinferColumnTypes()}.
+     * If records appended later may contain null values, then nullable columns
+     * should be declared by the <code>useNullableColumns()</code> method, so that
+     * all polled DataFrames are of the same implementation.
+     * 
+     * <p>Only CSV-files which are not compressed and which use a character
+     * encoding compatible with <i>ASCII</i> can be followed. The CSV-file
+     * is read sequentially regardless of the number of threads specified by the
+     * <code>useThreads()</code> method. This method can only be called once.
+     * Subsequent calls to this method or to any read method will result
+     * in an <code>IllegalStateException</code>.
+     * 
+     * <p>The returned follower keeps the CSV-file open until it is closed
+     * by the caller
+     * 
+     * @return A <code>CSVFollower</code> for the CSV-file of this CSVReader
+     * @throws IOException If the file cannot be opened
+     * @throws IllegalStateException If this CSVReader was not constructed to read
+     *                               a file, if the CSV-file is compressed or
+     *                               uses an unsupported character encoding,
+     *                               or if the CSV data has already been read
+     * @see CSVFollower
+     * @since 4.1.0
+     */
+    public CSVFollower follow() throws IOException{
+        if(file != null){
+            ensureExists();
+        }
+        return new CSVFollower(new FileTail());
+    }
+
+    /**
+     * Instructs this <code>CSVReader</code> to only read the columns with the
+     * specified names. The columns of the returned DataFrame are arranged in the
+     * order of the arguments. The content of all other columns is scanned over
+     * without being stored or converted. Any column types specified by
+     * the <code>useColumnTypes()</code> method correspond to the selected columns.
+     * Selecting columns by name requires the CSV data to have a header.
+     * 
+     * <p>Passing null or no arguments selects all columns
+     * 
+     * @param columns The names of the columns to read
+     * @return This CSVReader instance
+     * @see #selectColumns(int...)
+     * @since 4.1.0
+     */
+    public CSVReader selectColumns(final String... columns){
+        if((columns != null) && (columns.length > 0)){
+            for(final String column : columns){
+                if(column == null){
+                    throw new IllegalArgumentException("Column name must not be null");
+                }
+            }
+            this.selectedNames = columns.clone();
+        }else{
+            this.selectedNames = null;
+        }
+        this.selectedIndices = null;
+        return this;
+    }
+
+    /**
+     * Instructs this <code>CSVReader</code> to only read the columns at the
+     * specified indices. The columns of the returned DataFrame are arranged in
+     * the order of the arguments. The content of all other columns is scanned
+     * over without being stored or converted. Any column types specified by
+     * the <code>useColumnTypes()</code> method correspond to the selected columns.
+     * 
+     * <p>Passing null or no arguments selects all columns
+     * 
+     * @param columns The indices of the columns to read
+     * @return This CSVReader instance
+     * @see #selectColumns(String...)
+     * @since 4.1.0
+     */
+    public CSVReader selectColumns(final int... columns){
+        if((columns != null) && (columns.length > 0)){
+            for(final int column : columns){
+                if(column < 0){
+                    throw new IllegalArgumentException(
+                            "Column index must not be negative: " + column);
+                }
+            }
+            this.selectedIndices = columns.clone();
+        }else{
+            this.selectedIndices = null;
+        }
+        this.selectedNames = null;
+        return this;
+    }
+
+    /**
+     * Instructs this <code>CSVReader</code> to skip the specified number of rows
+     * before reading. The header line is not counted as a row. Skipped rows are
+     * parsed but their content is neither stored nor converted
+     * 
+     * @param rows The number of rows to skip. Must not be negative
+     * @return This CSVReader instance
+     * @since 4.1.0
+     */
+    public CSVReader skipRows(final long rows){
+        if(rows < 0){
+            throw new IllegalArgumentException(
+                    "Number of rows must not be negative: " + rows);
+        }
+        this.skipRows = rows;
+        return this;
+    }
+
+    /**
+     * Instructs this <code>CSVReader</code> to read at most the specified
+     * number of rows. The read operation stops as soon as the specified number
+     * of rows has been read. Combined with <code>skipRows()</code>, this allows
+     * a range of rows to be read
+     * 
+     * @param rows The maximum number of rows to read. Must not be negative
+     * @return This CSVReader instance
+     * @since 4.1.0
+     */
+    public CSVReader limit(final long rows){
+        if(rows < 0){
+            throw new IllegalArgumentException(
+                    "Number of rows must not be negative: " + rows);
+        }
+        this.limit = rows;
+        return this;
+    }
+
+    /**
+     * Instructs this <code>CSVReader</code> whether to declare all columns as
+     * nullable up front. If set to true, the DataFrame returned by
+     * the <code>read()</code> method is always a <code>NullableDataFrame</code>,
+     * regardless of whether the CSV data contains any null values. By default,
+     * the returned DataFrame is only nullable if the CSV data contains at
+     * least one null value.
+     * 
+     * <p>In either case, each column tracks its null values separately while
+     * reading. A column only starts tracking null values when the first null
+     * value of that column is encountered. Values which were already read are
+     * never converted during the read operation. The columns of the returned
+     * DataFrame are created only once after all values have been read
+     * 
+     * @param nullable A boolean value specifying whether to declare
+     *                 all columns as nullable
+     * @return This CSVReader instance
+     * @since 4.1.0
+     */
+    public CSVReader useNullableColumns(final boolean nullable){
+        this.nullable = nullable;
+        return this;
+    }
+
+    /**
+     * Instructs this <code>CSVReader</code> to read CSV-files in parallel by
+     * the specified number of threads. By default, CSV data is read by one thread.
+     * 
+     * <p>When reading a CSV-file in parallel, the file is memory-mapped and split
+     * into chunks which are aligned to record boundaries. The chunks are parsed
+     * concurrently and the results are concatenated in order. The chunks are
+     * parsed by the shared I/O executor provided by {@link IOExecutor#getDefault()}
+     * and by the thread calling the read method. The specified number of
+     * threads determines how the file is split, whereas the number of chunks
+     * parsed at the same time is also bounded by the configuration of the
+     * shared I/O executor. Since the raw bytes
+     * are parsed directly, parallel reads are only supported for the
+     * <i>UTF-8</i>, <i>US-ASCII</i> and <i>ISO-8859-1</i> charsets. Double quotes
+     * must only be used to enclose values or as escaped quotes inside of
+     * enclosed values. In all other cases, including readers constructed
+     * for an <code>InputStream</code> and readers which skip or limit rows,
+     * the CSV data is read sequentially
+     * 
+     * @param threads The number of threads to use. Must be positive
+     * @return This CSVReader instance
+     * @since 4.1.0
+     */
+    public CSVReader useThreads(final int threads){
+        if(threads <= 0){
+            throw new IllegalArgumentException(
+                    "Number of threads must be positive: " + threads);
+        }
+        this.threads = threads;
         return this;
     }
 
@@ -330,10 +665,48 @@ public class CSVReader {
      */
     public CSVReader useColumnTypes(final Class<?>... types){
         if((types != null) && !isNullType(types[0])){
-            inferColumnTypes(types);
+            resolveColumnTypes(types);
         }else{
             this.types = null;
         }
+        this.sampleRows = 0;
+        return this;
+    }
+
+    /**
+     * Instructs this <code>CSVReader</code> to infer the type of each column
+     * from the first rows of the CSV data. Any column types specified by
+     * the <code>useColumnTypes()</code> method are discarded.
+     * 
+     * <p>For each column, the first <i>sampleRows</i> values are examined and the
+     * narrowest type which can represent all non-null values of that sample is
+     * chosen. The candidate types are, in that order, the integer types
+     * <i>Byte</i>, <i>Short</i>, <i>Integer</i> and <i>Long</i>, followed by
+     * <i>Double</i>, <i>Boolean</i>, <i>Character</i> and <i>String</i>. If a later
+     * value cannot be represented by the inferred type, then the column is widened.
+     * Integer columns are widened to a larger integer type or to <i>Double</i>,
+     * all other columns are widened to <i>String</i>. Values widened to
+     * <i>String</i> keep their original text. Columns holding integers whose
+     * magnitude exceeds 2<sup>53</sup> are never converted to <i>Double</i>, as
+     * such integers cannot be represented exactly by a double. Columns whose
+     * sampled values are all null are sampled further until the first
+     * non-null value is encountered.
+     * 
+     * <p>All values are parsed directly into primitive arrays without
+     * creating intermediate rows.
+     * 
+     * @param sampleRows The number of rows to examine before the types are
+     *                   inferred. Must be positive
+     * @return This CSVReader instance
+     * @since 4.1.0
+     */
+    public CSVReader inferColumnTypes(final int sampleRows){
+        if(sampleRows <= 0){
+            throw new IllegalArgumentException(
+                    "Number of sample rows must be positive: " + sampleRows);
+        }
+        this.sampleRows = sampleRows;
+        this.types = null;
         return this;
     }
 
@@ -352,160 +725,370 @@ public class CSVReader {
      * @throws IllegalStateException If this method has already been called
      */
     private DataFrame read0() throws IOException{
-        final BufferedReader reader = createReader();
-        this.is = null;
-        this.file = null;
-
-        //regex which splits a string by the provided
-        //separator if it is not enclosed by double quotes
-        final Pattern pattern = Pattern.compile(separator
-                + "(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
-
-        DataFrame df = new DefaultDataFrame();
-        String line = "";
-        int lineIndex = 0;
-        try{
-            if(types != null){
-                for(int i=0; i<types.length; ++i){
-                    df.addColumn(types[i]);
-                }
-                if(hasHeader){
-                    final String[] header = pattern.split(reader.readLine(), 0);
-                    for(int i=0; i<header.length; ++i){
-                        header[i] = normalize(header[i]);
-                    }
-                    df.setColumnNames(header);
-                    ++lineIndex;
+        if((threads > 1) && (file != null) && CSVParser.supportsBytes(charset)
+                && (skipRows == 0) && (limit < 0) && !CSVCompression.isCompressed(file)){
+            final File source = this.file;
+            this.file = null;
+            return readParallel(source);
+        }
+        try(RecordCursor cursor = new RecordCursor()){
+            return cursor.readAll();
+        }
+    }
+
+    /**
+     * Reads the specified CSV-file in parallel. The file is memory-mapped and
+     * split into chunks which are aligned to record boundaries. Each chunk is
+     * parsed by a separate job directly from the raw bytes of the file and
+     * the columns of all chunks are concatenated in order
+     * 
+     * @param source The CSV-file to read
+     * @return A DataFrame holding the content of the CSV-file read
+     * @throws IOException If the file cannot be opened or read, or if the file 
+     *                     content is improperly formatted
+     */
+    private DataFrame readParallel(final File source) throws IOException{
+        try(FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)){
+            final long size = channel.size();
+            final long start = CSVFileSplitter.skipLineBreaks(channel, 0);
+            if(start == size){
+                return build(builders(0), null);
+            }
+            final long firstEnd = CSVFileSplitter.recordEnd(channel, start, separator);
+            final CSVParser first = new CSVParser(
+                    map(channel, start, firstEnd), charset, separator);
+
+            first.next();
+            final int fields = first.fields();
+            final String[] header = hasHeader ? header(first) : null;
+            final int[] selection = selection(header, fields);
+            final Executor executor = IOExecutor.getDefault();
+            final List<Future<CSVColumnBuilder[]>> jobs = new ArrayList<>();
+            try{
+                final long[] bounds = CSVFileSplitter.split(channel,
+                        (hasHeader ? firstEnd : start), separator, threads, executor);
+
+                for(int i=0; i<bounds.length-1; ++i){
+                    final long from = bounds[i];
+                    final long to = bounds[i + 1];
+                    jobs.add(CSVFileSplitter.submit(executor,
+                            () -> readChunk(channel, from, to, selection, fields)));
                 }
-                while((line = reader.readLine()) != null){
-                    ++lineIndex;
-                    if(line.isEmpty()){//skip empty lines
-                        continue;
-                    }
-                    final String[] blocks = pattern.split(process(line), 0);
-                    final Object[] converted = new Object[blocks.length];
-                    for(int i=0; i<blocks.length; ++i){
-                        converted[i] = convertType(i, normalize(blocks[i]));
-                    }
-                    try{
-                        df.addRow(converted);
-                    }catch(DataFrameException ex){//null value in row
-                        df = DataFrame.convert(df, NullableDataFrame.class);
-                        df.addRow(converted);
+                final CSVColumnBuilder[] columns = CSVFileSplitter.await(jobs.get(0));
+                for(int i=1; i<jobs.size(); ++i){
+                    final CSVColumnBuilder[] chunk = CSVFileSplitter.await(jobs.get(i));
+                    jobs.set(i, null);
+                    for(int j=0; j<columns.length; ++j){
+                        columns[j].append(chunk[j]);
                     }
                 }
+                return build(columns, select(header, selection));
+            }catch(RuntimeException ex){
+                throw new IOException("Improperly formatted CSV file", ex);
+            }finally{
+                CSVFileSplitter.cancel(jobs);
+            }
+        }
+    }
+
+    /**
+     * Parses all records within the specified byte range of a CSV-file
+     * 
+     * @param channel The <code>FileChannel</code> of the CSV-file
+     * @param from The start position of the chunk, inclusive.
+     *             Must be aligned to a record boundary
+     * @param to The end position of the chunk, exclusive.
+     *           Must be aligned to a record boundary
+     * @param selection The indices of the selected fields. May be null
+     * @param fields The number of fields of the first record of the CSV-file
+     * @return The column builders holding all records of the specified chunk
+     * @throws IOException If the chunk cannot be read or is improperly formatted
+     */
+    private CSVColumnBuilder[] readChunk(final FileChannel channel, final long from,
+            final long to, final int[] selection, final int fields) throws IOException{
+
+        final CSVParser parser = new CSVParser(map(channel, from, to), charset, separator);
+        parser.select(mask(selection, fields));
+        final CSVColumnBuilder[] columns = builders(
+                (selection != null) ? selection.length : fields);
+
+        try{
+            while(parser.next()){
+                addRecord(parser, columns, selection, fields);
+            }
+        }catch(RuntimeException ex){
+            throw new IOException(String.format(
+                    "Improperly formatted CSV file at line: %s",
+                    CSVFileSplitter.countLines(channel, from) + parser.line()), ex);
+        }
+        return columns;
+    }
+
+    /**
+     * Creates the column builders for the CSV data. If column types were
+     * specified, one builder is created for each type. Otherwise the specified
+     * number of builders is created, which either infer their type or build
+     * string columns
+     * 
+     * @param count The number of columns of the returned DataFrame
+     * @return The column builders for the CSV data
+     */
+    private CSVColumnBuilder[] builders(final int count){
+        if((types != null) && (count > 0) && (types.length != count)){
+            throw new DataFrameException(String.format(
+                    "Expected %s column types but found %s", count, types.length));
+        }
+        final CSVColumnBuilder[] columns = new CSVColumnBuilder[
+                (types != null) ? types.length : count];
+
+        for(int i=0; i<columns.length; ++i){
+            if(types != null){
+                columns[i] = CSVColumnBuilder.of(types[i].typeCode());
+            }else if(sampleRows > 0){
+                columns[i] = CSVColumnBuilder.inferring(sampleRows);
             }else{
-                if(hasHeader){
-                    final String[] header = pattern.split(reader.readLine(), 0);
-                    for(int i=0; i<header.length; ++i){
-                        header[i] = normalize(header[i]);
-                        df.addColumn(new StringColumn());
-                    }
-                    df.setColumnNames(header);
-                }else{
-                    final String[] first = pattern.split(reader.readLine(), 0);
-                    for(int i=0; i<first.length; ++i){
-                        first[i] = normalize(first[i]);
-                        df.addColumn(new StringColumn());
+                columns[i] = CSVColumnBuilder.of(StringColumn.TYPE_CODE);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Adds all selected fields of the current record of the specified parser
+     * to the corresponding column builders
+     * 
+     * @param parser The <code>CSVParser</code> holding the current record
+     * @param columns The column builders to add the fields to
+     * @param selection The indices of the selected fields. May be null
+     *                  to select all fields
+     * @param fields The expected number of fields of the record
+     */
+    private void addRecord(final CSVParser parser, final CSVColumnBuilder[] columns,
+            final int[] selection, final int fields){
+
+        if(parser.fields() != fields){
+            throw new DataFrameException(String.format(
+                    "Expected %s values but found %s",
+                    fields, parser.fields()));
+        }
+        if(selection == null){
+            for(int i=0; i<columns.length; ++i){
+                columns[i].add(parser, i);
+            }
+        }else{
+            for(int i=0; i<columns.length; ++i){
+                columns[i].add(parser, selection[i]);
+            }
+        }
+    }
+
+    /**
+     * Resolves the indices of all selected columns
+     * 
+     * @param header The column names of the CSV header. May be null
+     * @param fields The number of fields of the first record
+     * @return The indices of all selected fields in the order of the
+     *         selection, or null if all fields are selected
+     * @throws IllegalArgumentException If a selected column does not exist
+     */
+    private int[] selection(final String[] header, final int fields){
+        if(selectedNames != null){
+            if(header == null){
+                throw new IllegalArgumentException(
+                        "Cannot select columns by name without a header");
+            }
+            final int[] indices = new int[selectedNames.length];
+            for(int i=0; i<indices.length; ++i){
+                indices[i] = -1;
+                for(int j=0; j<header.length; ++j){
+                    if(header[j].equals(selectedNames[i])){
+                        indices[i] = j;
+                        break;
                     }
-                    df.addRow((Object[])first);
                 }
-                ++lineIndex;
-                while((line = reader.readLine()) != null){
-                    ++lineIndex;
-                    if(line.isEmpty()){//skip empty lines
-                        continue;
-                    }
-                    final String[] blocks = pattern.split(process(line), 0);
-                    for(int i=0; i<blocks.length; ++i){
-                        if(blocks[i].equals("null")){
-                            blocks[i] = null;
-                        }else{
-                            blocks[i] = normalize(blocks[i]);
-                        }
-                    }
-                    try{
-                        df.addRow((Object[])blocks);
-                    }catch(DataFrameException ex){//null value in row
-                        df = DataFrame.convert(df, NullableDataFrame.class);
-                        df.addRow((Object[])blocks);
-                    }
+                if(indices[i] == -1){
+                    throw new IllegalArgumentException(
+                            "Selected column not found: " + selectedNames[i]);
                 }
             }
-        }catch(RuntimeException ex){
-            throw new IOException(String.format(
-                    "Improperly formatted CSV file at line: %s", lineIndex), ex);
+            return indices;
+        }
+        if(selectedIndices != null){
+            for(final int index : selectedIndices){
+                if(index >= fields){
+                    throw new IllegalArgumentException(String.format(
+                            "Selected column index %s out of bounds for %s columns",
+                            index, fields));
+                }
+            }
+            return selectedIndices;
+        }
+        return null;
+    }
+
+    /**
+     * Creates the field mask for the specified selection
+     * 
+     * @param selection The indices of the selected fields. May be null
+     * @param fields The number of fields of each record
+     * @return The field mask to be used by the parser, or null
+     *         if all fields are selected
+     */
+    private static boolean[] mask(final int[] selection, final int fields){
+        if(selection == null){
+            return null;
+        }
+        int length = fields;
+        for(final int index : selection){
+            length = Math.max(length, index + 1);
+        }
+        final boolean[] mask = new boolean[length];
+        for(final int index : selection){
+            mask[index] = true;
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the column names of the selected columns
+     * 
+     * @param header The column names of the CSV header. May be null
+     * @param selection The indices of the selected fields. May be null
+     * @return The column names of the selected columns, or null if
+     *         the CSV data has no header
+     */
+    private static String[] select(final String[] header, final int[] selection){
+        if((header == null) || (selection == null)){
+            return header;
+        }
+        final String[] names = new String[selection.length];
+        for(int i=0; i<names.length; ++i){
+            names[i] = header[selection[i]];
+        }
+        return names;
+    }
+
+    /**
+     * Builds the DataFrame holding the content of all specified column builders.
+     * If nullable columns were declared or if any column holds a null value,
+     * then a NullableDataFrame is returned. Each builder is released as soon as
+     * its column is built, so that at most one column exists twice in memory
+     * 
+     * @param columns The column builders holding the content of the CSV data
+     * @param names The column names to set. May be null
+     * @return A DataFrame holding the content of all column builders
+     */
+    private DataFrame build(final CSVColumnBuilder[] columns, final String[] names){
+        return build(columns, names, false, false);
+    }
+
+    /**
+     * Builds the DataFrame holding the content of all specified column builders.
+     * If nullable columns were declared or if any column holds a null value,
+     * then a NullableDataFrame is returned
+     * 
+     * @param columns The column builders holding the content of the CSV data
+     * @param names The column names to set. May be null
+     * @param keep Indicates whether to keep the column builders for reuse.
+     *             If false, each builder is released as soon as its
+     *             column is built
+     * @param share Indicates whether the built columns may share
+     *              the value arrays of the column builders
+     * @return A DataFrame holding the content of all column builders
+     */
+    private DataFrame build(final CSVColumnBuilder[] columns, final String[] names,
+            final boolean keep, final boolean share){
+
+        boolean nullable = this.nullable;
+        for(final CSVColumnBuilder column : columns){
+            nullable |= column.hasNulls();
+        }
+        final Column[] cols = new Column[columns.length];
+        for(int i=0; i<cols.length; ++i){
+            cols[i] = columns[i].build(nullable, share);
+            if(!keep){
+                columns[i] = null;
+            }
+        }
+        final DataFrame df = nullable
+                ? new NullableDataFrame(cols)
+                : new DefaultDataFrame(cols);
 
-        }finally{
-            reader.close();
+        if(names != null){
+            df.setColumnNames(names);
         }
         return df;
     }
 
     /**
-     * Creates a BufferedReader for this CSVReader instance
+     * Maps the specified region of a file into memory
      * 
-     * @return A <code>BufferedReader</code> for reading characters
-     *         from an input stream or file
-     * @throws FileNotFoundException If this CSVReader was constructed to
-     *                               use a File object and the corresponding
-     *                               file was not found
-     * @throws IllegalStateException If this method has already been called
+     * @param channel The <code>FileChannel</code> of the file to map
+     * @param from The start position of the region, inclusive
+     * @param to The end position of the region, exclusive
+     * @return A <code>ByteBuffer</code> of the specified region
+     * @throws IOException If the region cannot be mapped
      */
-    private BufferedReader createReader() throws FileNotFoundException{
-        if(file != null){
-            return new BufferedReader(
-                    new InputStreamReader(new FileInputStream(this.file), charset));
+    private static ByteBuffer map(final FileChannel channel, final long from,
+            final long to) throws IOException{
 
-        }else if(is != null){
-            return new BufferedReader(
-                    new InputStreamReader(this.is, charset));
-        }else{
-            throw new IllegalStateException("read() already called");
+        if((to - from) > Integer.MAX_VALUE){
+            throw new IOException("CSV record exceeds maximum supported size");
         }
+        return channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
     }
 
     /**
-     * Converts the provided string object to the defined type
+     * Returns the column names specified by the current record of the given parser
      * 
-     * @param i The index of the column type to look up
-     * @param object The object to convert
-     * @return The converted object
+     * @param parser The <code>CSVParser</code> positioned at the header line
+     * @return The column names of the header
      */
-    private Object convertType(final int i, final String object){
-        if(object.equals("null")){
-            return null;
+    private String[] header(final CSVParser parser){
+        final String[] names = new String[parser.fields()];
+        for(int i=0; i<names.length; ++i){
+            names[i] = parser.getString(i);
+        }
+        return names;
+    }
+
+    /**
+     * Creates a Reader for this CSVReader instance
+     * 
+     * @return A <code>Reader</code> for reading characters
+     *         from an input stream or file
+     * @throws IOException If this CSVReader was constructed to use a File object
+     *                     and the corresponding file was not found, or if the
+     *                     header of compressed data cannot be read
+     * @throws IllegalStateException If this method has already been called
+     */
+    private Reader createReader() throws IOException{
+        final InputStream in;
+        final String name;
+        if(file != null){
+            in = new FileInputStream(this.file);
+            name = file.getName();
+        }else if(is != null){
+            in = this.is;
+            name = null;
+        }else{
+            throw new IllegalStateException("read() already called");
+        }
+        try{
+            return new InputStreamReader(CSVCompression.decompress(in, name), charset);
+        }catch(IOException ex){
+            in.close();
+            throw ex;
         }
-        switch(types[i].typeCode()){
-        case StringColumn.TYPE_CODE:
-            return object;
-        case ByteColumn.TYPE_CODE:
-            return Byte.valueOf(object);
-        case ShortColumn.TYPE_CODE:
-            return Short.valueOf(object);
-        case IntColumn.TYPE_CODE:
-            return Integer.valueOf(object);
-        case LongColumn.TYPE_CODE:
-            return Long.valueOf(object);
-        case FloatColumn.TYPE_CODE:
-            return Float.valueOf(object);
-        case DoubleColumn.TYPE_CODE:
-            return Double.valueOf(object);
-        case BooleanColumn.TYPE_CODE:
-            return Boolean.valueOf(object);
-        case CharColumn.TYPE_CODE:
-            return Character.valueOf(object.charAt(0));
-        }
-        return object;
     }
 
     /**
      * Populates the Column array with the right column type according to the 
      * arguments passed by the caller
      * 
-     * @param types The types to infer
+     * @param types The types to resolve
      */
-    private void inferColumnTypes(Class<?>[] types){
+    private void resolveColumnTypes(Class<?>[] types){
         this.types = new Column[types.length];
         for(int i=0; i<types.length; ++i){
             final Class<?> type = types[i];
@@ -543,84 +1126,6 @@ public class CSVReader {
         }
     }
 
-    /**
-     * Normalizes a string by removing enclosing quotes
-     * 
-     * @param str The String to normalize 
-     * @return The normalized String
-     */
-    private String normalize(final String str){
-        if((str.charAt(0) == '"') && (str.charAt(str.length()-1) == '"')){
-            return str.substring(1, str.length()-1);
-        }
-        return str;
-    }
-
-    /**
-     * Processes a text line and handles malformed formats
-     * 
-     * @param line The line to process
-     * @return A processed line
-     */
-    private String process(String line){
-        if(line.startsWith(separator)){
-            line = "null" + line;
-        }
-        final String s = separator + separator;
-        while(line.contains(s)){
-            line = line.replaceAll(
-                    s,
-                    separator + "null" + separator);
-        }
-        if(line.endsWith(separator)){
-            line = line + "null";
-        }
-        return line;
-    }
-
-    /**
-     * Normalizes the separator character by escaping special regex characters
-     * 
-     * @param separator The separator character to normalize
-     * @return A String containing the normalized separator character
-     */
-    private String normalizeSeparator(final char separator){
-        switch(separator){
-        case '[':
-            return "\\[";
-        case ']':
-            return "\\]";
-        case '\\':
-            return "\\\\";
-        case '{':
-            return "\\{";
-        case '}':
-            return "\\}";
-        case '(':
-            return "\\(";
-        case ')':
-            return "\\)";
-        case '*':
-            return "\\*";
-        case '+':
-            return "\\+";
-        case '?':
-            return "\\?";
-        case '.':
-            return "\\.";
-        case '^':
-            return "\\^";
-        case '$':
-            return "\\$";
-        case '|':
-            return "\\|";
-        case '#':
-            return "\\#";
-        default:
-            return String.valueOf(separator);
-        }
-    }
-
     /**
      * Ensures that the file specified by this CSVReader exists
      * and is not a directory
@@ -646,7 +1151,376 @@ public class CSVReader {
     }
 
     /**
-     * Background thread for concurrent read operations of CSV-files.
+     * Sequentially reads the records of the CSV data. A cursor applies the
+     * column selection and the row range of its CSVReader to all records and
+     * adds the read records to reusable column builders.
+     *
+     */
+    final class RecordCursor implements Closeable {
+
+        private final CSVParser parser;
+        private String[] names;
+        private int[] selection;
+        private int fields;
+        private boolean[] mask;
+        private long toSkip;
+        private long remaining;
+        private boolean pending;
+        private boolean empty;
+        private CSVColumnBuilder[] columns;
+
+        /**
+         * Constructs a new <code>RecordCursor</code> and reads the first
+         * record of the CSV data
+         * 
+         * @throws IOException If the CSV data cannot be read or if the
+         *                     first record is improperly formatted
+         * @throws IllegalStateException If the CSV data has already been read
+         */
+        RecordCursor() throws IOException{
+            this.parser = new CSVParser(createReader(), separator);
+            is = null;
+            file = null;
+            try{
+                if(!hasHeader && (selectedIndices != null)){
+                    parser.select(mask(selectedIndices, 0));
+                }
+                if(!parser.next()){
+                    this.empty = true;
+                    return;
+                }
+                this.fields = parser.fields();
+                final String[] header = hasHeader ? header(parser) : null;
+                this.selection = selection(header, fields);
+                this.names = select(header, selection);
+                this.mask = mask(selection, fields);
+                this.toSkip = skipRows;
+                this.remaining = (limit >= 0) ? limit : Long.MAX_VALUE;
+                parser.select((toSkip > 0) ? new boolean[0] : mask);
+                //without a header, the first record is a data record
+                this.pending = !hasHeader;
+            }catch(RuntimeException ex){
+                parser.close();
+                throw malformed(ex);
+            }catch(IOException ex){
+                parser.close();
+                throw ex;
+            }
+        }
+
+        /**
+         * Reads all remaining records
+         * 
+         * @return A DataFrame holding all remaining records
+         * @throws IOException If the CSV data cannot be read or is
+         *                     improperly formatted
+         */
+        DataFrame readAll() throws IOException{
+            if(empty){
+                return build(builders(0), null);
+            }
+            fill(Integer.MAX_VALUE);
+            return build(columns, names);
+        }
+
+        /**
+         * Reads at most the specified number of records. The column builders
+         * used by this cursor are kept, so that their value arrays can be
+         * reused when reading the next records. The column types are fixed
+         * after the first call to this method. Subsequently read records must
+         * be convertible to the fixed column types. Since the value range of the
+         * first records is not representative, inferred integer columns use
+         * at least the <i>int</i> type. If buffers are reused and the first call
+         * reads the specified number of records, then the column builders are
+         * sized to hold that number of records for all subsequent calls
+         * 
+         * @param rows The maximum number of records to read
+         * @param reuse Indicates whether the DataFrames returned by all calls
+         *              after the first one may share the value arrays
+         *              of the column builders
+         * @return A DataFrame holding the read records. If no records were
+         *         read, then the returned DataFrame has no rows. Returns null
+         *         if the CSV data has no records at all
+         * @throws IOException If the CSV data cannot be read or is
+         *                     improperly formatted
+         */
+        DataFrame read(final int rows, final boolean reuse) throws IOException{
+            if(empty){
+                return null;
+            }
+            final boolean first = (columns == null);
+            final int n = fill(rows);
+            if(first){
+                for(final CSVColumnBuilder column : columns){
+                    column.widenIntegers(IntColumn.TYPE_CODE);
+                }
+            }
+            final DataFrame df = build(columns, names, true, reuse && !first);
+            if(first){
+                //only allocate full batches if they are reused for more records
+                final boolean presize = reuse && (n == rows) && (remaining > 0);
+                for(int i=0; i<columns.length; ++i){
+                    final byte type = columns[i].type();
+                    columns[i] = presize
+                            ? CSVColumnBuilder.of(type, n)
+                            : CSVColumnBuilder.of(type);
+                }
+            }
+            return df;
+        }
+
+        @Override
+        public void close() throws IOException{
+            parser.close();
+        }
+
+        private int fill(final int rows) throws IOException{
+            if(columns == null){
+                this.columns = builders((selection != null) ? selection.length : fields);
+            }else{
+                for(final CSVColumnBuilder column : columns){
+                    column.clear();
+                }
+            }
+            try{
+                int n = 0;
+                while((n < rows) && (remaining > 0)){
+                    if(!pending && !parser.next()){
+                        this.remaining = 0;
+                        break;
+                    }
+                    this.pending = false;
+                    if(toSkip > 0){
+                        if(--toSkip == 0){
+                            parser.select(mask);
+                        }
+                        continue;
+                    }
+                    addRecord(parser, columns, selection, fields);
+                    --remaining;
+                    ++n;
+                }
+                return n;
+            }catch(RuntimeException ex){
+                throw malformed(ex);
+            }
+        }
+
+        private IOException malformed(final RuntimeException ex){
+            return new IOException(String.format(
+                    "Improperly formatted CSV file at line: %s", parser.line()), ex);
+        }
+    }
+
+    /**
+     * Incrementally reads the records which are appended to a CSV-file.
+     * A tail remembers the position after the last complete record which it has
+     * read and only parses the bytes after that position when it is read again.
+     * The column selection and the row range of its CSVReader are applied to
+     * all records. The column types are fixed after the first read records.
+     *
+     */
+    final class FileTail implements Closeable {
+
+        private final File source;
+        private final FileChannel channel;
+        private long position;
+        private String[] names;
+        private int[] selection;
+        private int fields;
+        private boolean[] mask;
+        private long toSkip;
+        private long remaining;
+        private CSVColumnBuilder[] columns;
+        private boolean fixed;
+
+        /**
+         * Constructs a new <code>FileTail</code> positioned at the
+         * start of the CSV-file
+         * 
+         * @throws IOException If the CSV-file cannot be opened
+         * @throws IllegalStateException If the CSV-file cannot be followed
+         *                               or has already been read
+         */
+        FileTail() throws IOException{
+            if(file == null){
+                throw new IllegalStateException((is != null)
+                        ? "Only CSV-files can be followed"
+                        : "read() already called");
+            }
+            if(CSVCompression.isCompressed(file)){
+                throw new IllegalStateException("Compressed CSV-files cannot be followed");
+            }
+            if(!CSVParser.supportsBytes(charset)){
+                throw new IllegalStateException(
+                        "Unsupported charset for following CSV-files: " + charset);
+            }
+            this.source = file;
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            this.toSkip = skipRows;
+            this.remaining = (limit >= 0) ? limit : Long.MAX_VALUE;
+            file = null;
+        }
+
+        /**
+         * Reads all complete records which were appended to the
+         * CSV-file since the last read
+         * 
+         * @return A DataFrame holding the read records, or null
+         *         if no new records were read
+         * @throws IOException If the CSV-file cannot be read, is improperly
+         *                     formatted or was truncated
+         */
+        DataFrame read() throws IOException{
+            final long size = channel.size();
+            if(size < position){
+                throw new IOException(String.format(
+                        "CSV file was truncated from %s to %s bytes", position, size));
+            }
+            if((size == position) || (remaining == 0)){
+                return null;
+            }
+            final long end = CSVFileSplitter.lastRecordEnd(channel, position,
+                    Math.min(size, position + Integer.MAX_VALUE), separator);
+
+            if(end == position){
+                if((size - position) >= Integer.MAX_VALUE){
+                    throw new IOException("CSV record exceeds maximum supported size");
+                }
+                return null;
+            }
+            final CSVParser parser = new CSVParser(map(channel, position, end),
+                    charset, separator);
+
+            final boolean first = (columns == null);
+            try{
+                if(first){
+                    if(!readHeader(parser)){
+                        this.position = end;
+                        return null;
+                    }
+                    this.columns = builders((selection != null) ? selection.length : fields);
+                }else{
+                    for(final CSVColumnBuilder column : columns){
+                        column.clear();
+                    }
+                    parser.select((toSkip > 0) ? new boolean[0] : mask);
+                }
+                //the counters are only updated if all records were read
+                long skip = toSkip;
+                long left = remaining;
+                int n = 0;
+                boolean pending = first && !hasHeader;
+                while((left > 0) && (pending || parser.next())){
+                    pending = false;
+                    if(skip > 0){
+                        if(--skip == 0){
+                            parser.select(mask);
+                        }
+                        continue;
+                    }
+                    addRecord(parser, columns, selection, fields);
+                    --left;
+                    ++n;
+                }
+                if(n == 0){
+                    this.toSkip = skip;
+                    this.position = end;
+                    return null;
+                }
+                if(!fixed){
+                    //later records may hold larger integers than the first records
+                    for(final CSVColumnBuilder column : columns){
+                        column.widenIntegers(LongColumn.TYPE_CODE);
+                    }
+                }
+                final DataFrame df = build(columns, names, true, false);
+                if(!fixed){
+                    for(int i=0; i<columns.length; ++i){
+                        columns[i] = CSVColumnBuilder.of(columns[i].type());
+                    }
+                    this.fixed = true;
+                }
+                this.toSkip = skip;
+                this.remaining = left;
+                this.position = end;
+                return df;
+            }catch(RuntimeException ex){
+                if(first){
+                    this.columns = null;
+                }else if(!fixed){
+                    this.columns = builders(columns.length);
+                }
+                throw new IOException(String.format(
+                        "Improperly formatted CSV file at line: %s",
+                        CSVFileSplitter.countLines(channel, position) + parser.line()), ex);
+            }
+        }
+
+        /**
+         * Discards the column types determined by the previous reads, so that
+         * the column types are determined again by the next read which reads
+         * any records. The column names are retained
+         */
+        void reinferColumnTypes(){
+            if(fixed){
+                this.columns = builders(columns.length);
+                this.fixed = false;
+            }
+        }
+
+        /**
+         * Returns the position after the last complete record
+         * which was read from the CSV-file
+         * 
+         * @return The position in bytes after the last complete record
+         */
+        long position(){
+            return this.position;
+        }
+
+        /**
+         * Returns the followed CSV-file
+         * 
+         * @return The followed CSV-file
+         */
+        File source(){
+            return this.source;
+        }
+
+        @Override
+        public void close() throws IOException{
+            channel.close();
+        }
+
+        /**
+         * Reads the first record of the CSV-file and determines the column
+         * names and the field selection
+         * 
+         * @param parser The <code>CSVParser</code> positioned at the
+         *               start of the CSV-file
+         * @return True if the first record was read, false if the
+         *         parser holds no records
+         */
+        private boolean readHeader(final CSVParser parser) throws IOException{
+            if(!hasHeader && (selectedIndices != null)){
+                parser.select(mask(selectedIndices, 0));
+            }
+            if(!parser.next()){
+                return false;
+            }
+            this.fields = parser.fields();
+            final String[] header = hasHeader ? header(parser) : null;
+            this.selection = selection(header, fields);
+            this.names = select(header, selection);
+            this.mask = mask(selection, fields);
+            parser.select((toSkip > 0) ? new boolean[0] : mask);
+            return true;
+        }
+    }
+
+    /**
+     * Background job for concurrent read operations of CSV-files.
      *
      */
     private class ConcurrentCSVReader implements Runnable {
@@ -662,10 +1536,17 @@ public class CSVReader {
         }
 
         /**
-         * Starts this Runnable in its own thread
+         * Submits this Runnable to the specified executor
+         * 
+         * @param executor The <code>Executor</code> to run this Runnable
+         * @return The <code>CompletableFuture</code> of this operation
          */
-        public CompletableFuture<DataFrame> execute(){
-            new Thread(this).start();
+        CompletableFuture<DataFrame> execute(final Executor executor){
+            try{
+                executor.execute(this);
+            }catch(RejectedExecutionException ex){
+                this.future.completeExceptionally(ex);
+            }
             return this.future;
         }
 
@@ -16,19 +16,27 @@
 
 package com.raven.common.io;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.IllegalCharsetNameException;
 import java.nio.charset.StandardCharsets;
 import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
+import com.raven.common.struct.Column;
 import com.raven.common.struct.DataFrame;
 
 /**
@@ -44,16 +52,25 @@ import com.raven.common.struct.DataFrame;
  * <p>There is only one restriction regarding the separator as specified
  * by the <code>useSeparator()</code> method. Any character except <i>double quotes</i>
  * can be used as a separator. If a data value contains one or more instances of the
- * used separator character, then that data value will be enclosed with double quotes.
- * For that reason <i>double quotes</i> cannot be used as a separator character or
- * occur inside data values.
+ * used separator character or any line breaks, starts with a double quote or is
+ * empty, then that data value will be enclosed with double quotes. Double quotes
+ * inside such an enclosed data value are escaped by another double quote.
+ * For that reason <i>double quotes</i> cannot be used as a separator character.
+ * 
+ * <p>The DataFrame to write is formatted column by column according to the column
+ * types, without boxing primitive values, into large buffers which are encoded and
+ * written as a whole. Large DataFrames can be formatted by multiple threads as
+ * specified by the <code>useThreads()</code> method.
  * 
  * <p>If the DataFrame to write contains nullable values, then any null values will be
  * represented as a <i>"null"</i> string.
  * 
+ * <p>CSV-files with a <i>".gz"</i> extension are written compressed in the <i>gzip</i>
+ * format. CSV-files with a <i>".zz"</i> or <i>".deflate"</i> extension are
+ * written compressed in the <i>zlib</i> format.
+ * 
  * <p>A CSVWriter may also be constructed to write to any <code>OutputStream</code>
- * passed to the constructor. Any output stream will be automatically wrapped and buffered
- * by a <code>BufferedWriter</code> instance. All closable resources will be automatically
+ * passed to the constructor. All closable resources will be automatically
  * closed by a CSVWriter after a write operation.
  * 
  * @author Phil Gaiser
@@ -64,11 +81,18 @@ import com.raven.common.struct.DataFrame;
  */
 public class CSVWriter {
 
+    /** The number of values formatted as one chunk **/
+    private static final int CHUNK_CELLS = 1 << 18;
+
+    /** The initial size of the character buffer of each chunk **/
+    private static final int BUFFER_SIZE = 1 << 16;
+
     private OutputStream os;
     private File file;
-    private String separator = ",";
+    private char separator = ',';
     private Charset charset = StandardCharsets.UTF_8;
     private boolean writeHeader = true;
+    private int threads = 1;
 
     /** Used for concurrent write operations **/
     private ConcurrentCSVWriter async;
@@ -135,46 +159,22 @@ public class CSVWriter {
         if(df == null){
             throw new IllegalArgumentException("DataFrame must not be null");
         }
-        final BufferedWriter writer = createWriter();
+        final WritableByteChannel channel = createChannel();
         this.os = null;
         this.file = null;
 
         try{
-            final String nl = System.lineSeparator();
-            final int cols = df.columns();//cache
-
-            //Add header if available and requested
-            if(df.hasColumnNames() && writeHeader){
-                final String[] names = df.getColumnNames();
-                for(int i=0; i<names.length; ++i){
-                    writer.write(escape(names[i]));
-                    if(i<names.length-1){
-                        writer.write(separator);
-                    }
-                }
-                writer.write(nl);
-            }
-            //Add rows
-            for(int i=0; i<df.rows(); ++i){
-                final Object[] row = df.getRow(i);
-                for(int j=0; j<cols; ++j){
-                    writer.write(row[j] != null ? escape(row[j].toString()) : "null");
-                    if(j<cols-1){
-                        writer.write(separator);
-                    }
-                }
-                writer.write(nl);
-            }
+            write0(df, channel);
         }catch(RuntimeException ex){
             throw new IOException(ex);
         }finally{
-            writer.close();
+            channel.close();
         }
     }
 
     /**
-     * Creates a background thread which will asynchronously write the specified
-     * DataFrame to the file or output stream in a CSV format.<br>
+     * Writes the specified DataFrame to the file or output stream in a CSV format
+     * asynchronously by the shared I/O executor.<br>
      * The CompletableFuture returned by this method does not return
      * anything upon completion.<br>
      * 
@@ -183,10 +183,13 @@ public class CSVWriter {
      * 
      * <p>This method is meant to be used for large DataFrames/CSV-files.<br>
      * 
-     * <p>When called, this method will return immediately.
+     * <p>The write operation is executed by the bounded executor provided
+     * by {@link IOExecutor#getDefault()}. This method returns immediately unless
+     * the queue of that executor is full, in which case the calling thread is
+     * blocked until the operation can be queued.
      * 
-     * <p>Please note that any IOExceptions encountered by the launched background 
-     * thread will result in the CompletableFuture being completed exceptionally.
+     * <p>Please note that any IOExceptions encountered by the background 
+     * operation will result in the CompletableFuture being completed exceptionally.
      * 
      * @param df The DataFrame to write to a CSV-file or output stream.
      *           Must not be null
@@ -195,11 +198,38 @@ public class CSVWriter {
      * @see #write(DataFrame)
      */
     public CompletableFuture<Void> writeAsync(DataFrame df) throws IllegalStateException{
+        return writeAsync(df, IOExecutor.getDefault());
+    }
+
+    /**
+     * Writes the specified DataFrame to the file or output stream in a CSV format
+     * asynchronously by the specified executor.<br>
+     * This method can only be called once. Subsequent calls will result in an
+     * <code>IllegalStateException</code>.
+     * 
+     * <p>If the specified executor rejects the write operation, then
+     * the returned CompletableFuture is completed exceptionally.
+     * 
+     * @param df The DataFrame to write to a CSV-file or output stream.
+     *           Must not be null
+     * @param executor The <code>Executor</code> to execute the write operation.
+     *                 Must not be null
+     * @return A <code>CompletableFuture</code> for the asynchronous write operation
+     * @throws IllegalStateException If this method has already been called
+     * @see #writeAsync(DataFrame)
+     * @since 4.1.0
+     */
+    public CompletableFuture<Void> writeAsync(final DataFrame df, final Executor executor)
+            throws IllegalStateException{
+
+        if(executor == null){
+            throw new IllegalArgumentException("Executor argument must not be null");
+        }
         if(async != null){
             throw new IllegalStateException("writeAsync() already called");
         }
         this.async = new ConcurrentCSVWriter(df);
-        return this.async.execute();
+        return this.async.execute(executor);
     }
 
     /**
@@ -215,7 +245,34 @@ public class CSVWriter {
             throw new IllegalArgumentException(
                     "Cannot use double quotes as separator character");
         }
-        this.separator = String.valueOf(separator);
+        this.separator = separator;
+        return this;
+    }
+
+    /**
+     * Instructs this <code>CSVWriter</code> to format the rows of the written
+     * DataFrame in parallel by the specified number of threads. By default,
+     * CSV data is written by one thread.
+     * 
+     * <p>When writing in parallel, consecutive ranges of rows are formatted and
+     * encoded concurrently. The formatted chunks are written in order by the
+     * thread calling the write method, so the produced CSV data is identical
+     * to the CSV data written by one thread. The chunks are formatted by the
+     * shared I/O executor provided by {@link IOExecutor#getDefault()} and by
+     * the thread calling the write method. The specified number of threads
+     * bounds the number of chunks which are formatted ahead of the written
+     * chunk. Small DataFrames are always written by one thread
+     * 
+     * @param threads The number of threads to use. Must be positive
+     * @return This CSVWriter instance
+     * @since 4.1.0
+     */
+    public CSVWriter useThreads(final int threads){
+        if(threads <= 0){
+            throw new IllegalArgumentException(
+                    "Number of threads must be positive: " + threads);
+        }
+        this.threads = threads;
         return this;
     }
 
@@ -273,45 +330,136 @@ public class CSVWriter {
     }
 
     /**
-     * Escapes a string by enclosing it with double quotes if applicable
+     * Writes the specified DataFrame to the specified channel. The rows are
+     * formatted in chunks, each of which is encoded and written as a whole
      * 
-     * @param str The String to escape
-     * @return The escaped String
+     * @param df The DataFrame to write
+     * @param channel The <code>WritableByteChannel</code> to write to
+     * @throws IOException If the channel cannot be written
      */
-    private String escape(final String str){
-        if(str.contains(separator)){
-            return "\"" + str + "\"";
+    private void write0(final DataFrame df, final WritableByteChannel channel)
+            throws IOException{
+
+        final Column[] columns = new Column[df.columns()];
+        for(int i=0; i<columns.length; ++i){
+            columns[i] = df.getColumn(i);
+        }
+        final String nl = System.lineSeparator();
+        final int rows = df.rows();
+        final int chunkRows = Math.max(1, CHUNK_CELLS / Math.max(1, columns.length));
+        final CSVFormatter formatter = new CSVFormatter(
+                columns, separator, nl, BUFFER_SIZE);
+
+        //Add header if available and requested
+        if(df.hasColumnNames() && writeHeader){
+            formatter.formatHeader(df.getColumnNames());
+        }
+        if((threads > 1) && (rows > chunkRows)){
+            writeFully(channel, formatter.encode(charset));
+            writeParallel(columns, rows, chunkRows, channel);
+            return;
+        }
+        for(int from=0; from<rows; from+=chunkRows){
+            formatter.formatRows(from, Math.min(rows, from + chunkRows));
+            writeFully(channel, formatter.encode(charset));
+            formatter.clear();
+        }
+        if(formatter.length() > 0){
+            writeFully(channel, formatter.encode(charset));
         }
-        return str;
     }
 
     /**
-     * Creates a BufferedWriter for this CSVWriter instance
+     * Formats and encodes chunks of rows in parallel and writes them in order
+     * to the specified channel. The number of chunks which are held in memory
+     * at the same time is bounded by twice the number of threads
      * 
-     * @return A <code>BufferedWriter</code> for writing characters
+     * @param columns The columns to write
+     * @param rows The number of rows to write
+     * @param chunkRows The number of rows of each chunk
+     * @param channel The <code>WritableByteChannel</code> to write to
+     * @throws IOException If the channel cannot be written
+     */
+    private void writeParallel(final Column[] columns, final int rows,
+            final int chunkRows, final WritableByteChannel channel) throws IOException{
+
+        final String nl = System.lineSeparator();
+        final char sep = this.separator;
+        final Charset cs = this.charset;
+        final Executor executor = IOExecutor.getDefault();
+        final Deque<Future<ByteBuffer>> pending = new ArrayDeque<>();
+        try{
+            for(int from=0; from<rows; from+=chunkRows){
+                final int start = from;
+                final int end = Math.min(rows, from + chunkRows);
+                pending.add(CSVFileSplitter.submit(executor, () -> {
+                    final CSVFormatter formatter = new CSVFormatter(
+                            columns, sep, nl, BUFFER_SIZE);
+
+                    formatter.formatRows(start, end);
+                    return formatter.encode(cs);
+                }));
+                if(pending.size() >= (2 * threads)){
+                    writeFully(channel, CSVFileSplitter.await(pending.poll()));
+                }
+            }
+            while(!pending.isEmpty()){
+                writeFully(channel, CSVFileSplitter.await(pending.poll()));
+            }
+        }finally{
+            CSVFileSplitter.cancel(pending);
+        }
+    }
+
+    /**
+     * Writes all remaining bytes of the specified buffer to the specified channel
+     * 
+     * @param channel The <code>WritableByteChannel</code> to write to
+     * @param buffer The <code>ByteBuffer</code> to write
+     * @throws IOException If the channel cannot be written
+     */
+    private static void writeFully(final WritableByteChannel channel,
+            final ByteBuffer buffer) throws IOException{
+
+        while(buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Creates a WritableByteChannel for this CSVWriter instance. Uncompressed
+     * files are written through a <code>FileChannel</code>
+     * 
+     * @return A <code>WritableByteChannel</code> for writing bytes
      *         to an output stream or file
-     * @throws FileNotFoundException If the file exists but is a directory rather
-     *                               than a regular file, does not exist but cannot
-     *                               be created, or cannot be opened for any
-     *                               other reason
+     * @throws IOException If the file exists but is a directory rather than
+     *                     a regular file, does not exist but cannot be created,
+     *                     or cannot be opened for any other reason
      * @throws IllegalStateException If this method has already been called
      */
-    private BufferedWriter createWriter() throws FileNotFoundException{
-        if(file != null){
-            return new BufferedWriter(
-                    new OutputStreamWriter(new FileOutputStream(this.file), charset));
+    private WritableByteChannel createChannel() throws IOException{
+        if((file != null) && CSVCompression.hasCompressedExtension(file.getName())){
+            final OutputStream out = new FileOutputStream(this.file);
+            try{
+                return Channels.newChannel(
+                        CSVCompression.compress(out, file.getName()));
+            }catch(IOException ex){
+                out.close();
+                throw ex;
+            }
+        }else if(file != null){
+            return FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
 
         }else if(os != null){
-            return new BufferedWriter(
-                    new OutputStreamWriter(this.os, charset));
-
+            return Channels.newChannel(this.os);
         }else{
-            throw new IllegalStateException("read() already called");
+            throw new IllegalStateException("write() already called");
         }
     }
 
     /**
-     * Background thread for concurrent write operations of CSV-files.
+     * Background job for concurrent write operations of CSV-files.
      *
      */
     private class ConcurrentCSVWriter implements Runnable {
@@ -330,10 +478,17 @@ public class CSVWriter {
         }
 
         /**
-         * Starts this Runnable in its own thread
+         * Submits this Runnable to the specified executor
+         * 
+         * @param executor The <code>Executor</code> to run this Runnable
+         * @return The <code>CompletableFuture</code> of this operation
          */
-        public CompletableFuture<Void> execute(){
-            new Thread(this).start();
+        CompletableFuture<Void> execute(final Executor executor){
+            try{
+                executor.execute(this);
+            }catch(RejectedExecutionException ex){
+                this.future.completeExceptionally(ex);
+            }
             return this.future;
         }
 
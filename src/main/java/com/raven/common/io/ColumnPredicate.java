@@ -0,0 +1,293 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.io;
+
+import java.io.File;
+
+import com.raven.common.struct.BinaryColumn;
+import com.raven.common.struct.BooleanColumn;
+import com.raven.common.struct.CharColumn;
+import com.raven.common.struct.Column;
+import com.raven.common.struct.NullableBinaryColumn;
+import com.raven.common.struct.NullableBooleanColumn;
+import com.raven.common.struct.NullableCharColumn;
+import com.raven.common.struct.NullableStringColumn;
+import com.raven.common.struct.StringColumn;
+
+/**
+ * A simple range or equality predicate on the values of one column.<br>
+ * A <code>ColumnPredicate</code> can be passed to
+ * the {@link DataFrameSerializer#readFile(File, ColumnPredicate)} method in order
+ * to only read the rows whose value in the specified column matches the
+ * predicate. When reading row-group based files as written by
+ * a {@link DataFrameAppender}, entire row groups are skipped without being
+ * decompressed if their statistics rule out a match.
+ * 
+ * <p>All bounds are inclusive. Null values never match a predicate.
+ * Numeric columns must be compared with <code>Number</code> values,
+ * char columns with <code>Character</code> values, string columns with
+ * <code>String</code> values and boolean columns with <code>Boolean</code> values.
+ * Strings are compared lexicographically. Predicates on binary columns
+ * are not supported.
+ * 
+ * <p>Example:<br>
+ * <pre><code>
+ * DataFrame df = DataFrameSerializer.readFile(
+ *         "myFile.df", ColumnPredicate.between("timestamp", start, end));
+ * </code></pre>
+ * 
+ * @author Phil Gaiser
+ * @see DataFrameSerializer
+ * @see DataFrameAppender
+ * @since 4.1.0
+ *
+ */
+public final class ColumnPredicate {
+
+    private final String column;
+    private final Object lower;
+    private final Object upper;
+
+    private ColumnPredicate(final String column, final Object lower, final Object upper){
+        if((column == null) || column.isEmpty()){
+            throw new IllegalArgumentException("Column name must not be null or empty");
+        }
+        if((lower == null) && (upper == null)){
+            throw new IllegalArgumentException("Predicate value must not be null");
+        }
+        checkValue(lower);
+        checkValue(upper);
+        if((lower != null) && (upper != null) && (compare(lower, upper) > 0)){
+            throw new IllegalArgumentException(
+                    "Lower bound must not be greater than upper bound");
+        }
+        this.column = column;
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    /**
+     * Creates a predicate which matches all values
+     * equal to the specified value
+     * 
+     * @param column The name of the column to test. Must not be null or empty
+     * @param value The value to match. Must not be null
+     * @return A <code>ColumnPredicate</code> for the specified value
+     */
+    public static ColumnPredicate equalTo(final String column, final Object value){
+        if(value == null){
+            throw new IllegalArgumentException("Predicate value must not be null");
+        }
+        return new ColumnPredicate(column, value, value);
+    }
+
+    /**
+     * Creates a predicate which matches all values in the specified range
+     * 
+     * @param column The name of the column to test. Must not be null or empty
+     * @param min The lower bound of the range (inclusive). Must not be null
+     * @param max The upper bound of the range (inclusive). Must not be null
+     * @return A <code>ColumnPredicate</code> for the specified range
+     */
+    public static ColumnPredicate between(final String column, final Object min,
+            final Object max){
+
+        if((min == null) || (max == null)){
+            throw new IllegalArgumentException("Predicate bounds must not be null");
+        }
+        return new ColumnPredicate(column, min, max);
+    }
+
+    /**
+     * Creates a predicate which matches all values greater than
+     * or equal to the specified value
+     * 
+     * @param column The name of the column to test. Must not be null or empty
+     * @param min The lower bound (inclusive). Must not be null
+     * @return A <code>ColumnPredicate</code> for the specified lower bound
+     */
+    public static ColumnPredicate atLeast(final String column, final Object min){
+        return new ColumnPredicate(column, min, null);
+    }
+
+    /**
+     * Creates a predicate which matches all values less than
+     * or equal to the specified value
+     * 
+     * @param column The name of the column to test. Must not be null or empty
+     * @param max The upper bound (inclusive). Must not be null
+     * @return A <code>ColumnPredicate</code> for the specified upper bound
+     */
+    public static ColumnPredicate atMost(final String column, final Object max){
+        return new ColumnPredicate(column, null, max);
+    }
+
+    /**
+     * Returns the name of the column tested by this predicate
+     * 
+     * @return The name of the column
+     */
+    public String getColumnName(){
+        return this.column;
+    }
+
+    /**
+     * Indicates whether the specified value matches this predicate
+     * 
+     * @param value The value to test
+     * @return True if the specified value matches this predicate,
+     *         false otherwise
+     */
+    public boolean test(final Object value){
+        if(value == null){
+            return false;
+        }
+        if((value instanceof Float) || (value instanceof Double)){
+            if(Double.isNaN(((Number)value).doubleValue())){
+                return false;
+            }
+        }
+        if((lower != null) && (compare(value, lower) < 0)){
+            return false;
+        }
+        return (upper == null) || (compare(value, upper) <= 0);
+    }
+
+    @Override
+    public String toString(){
+        if((lower != null) && (lower == upper)){
+            return column + " == " + lower;
+        }
+        return ((lower != null) ? (lower + " <= ") : "") + column
+                + ((upper != null) ? (" <= " + upper) : "");
+    }
+
+    /**
+     * Indicates whether a row group with the specified statistics for the
+     * column of this predicate might contain any matching values
+     * 
+     * @param stats The statistics of the column of this predicate
+     * @param rows The number of rows of the row group
+     * @return False if the statistics rule out a match, true otherwise
+     */
+    boolean mightMatch(final ColumnStatistics stats, final int rows){
+        Object min = null;
+        Object max = null;
+        switch(stats.kind()){
+        case ColumnStatistics.LONG:
+            min = stats.minLong();
+            max = stats.maxLong();
+            break;
+        case ColumnStatistics.DOUBLE:
+            min = stats.minDouble();
+            max = stats.maxDouble();
+            break;
+        case ColumnStatistics.STRING:
+            min = stats.minString();
+            max = stats.maxString();
+            break;
+        default:
+            //no range information but a row group holding
+            //only null values can never match
+            return (stats.nullCount() != rows);
+        }
+        if((lower != null) && (compare(max, lower) < 0)){
+            return false;
+        }
+        return (upper == null) || (compare(min, upper) <= 0);
+    }
+
+    /**
+     * Ensures that the values of this predicate can be compared
+     * with the values of the specified Column
+     * 
+     * @param col The <code>Column</code> to check
+     * @throws SerializationException If the values of this predicate cannot be
+     *                                compared with the values of the specified Column
+     */
+    void checkType(final Column col){
+        final Object value = (lower != null) ? lower : upper;
+        final boolean valid;
+        switch(col.typeCode()){
+        case StringColumn.TYPE_CODE:
+        case NullableStringColumn.TYPE_CODE:
+            valid = (value instanceof String);
+            break;
+        case CharColumn.TYPE_CODE:
+        case NullableCharColumn.TYPE_CODE:
+            valid = (value instanceof Character);
+            break;
+        case BooleanColumn.TYPE_CODE:
+        case NullableBooleanColumn.TYPE_CODE:
+            valid = (value instanceof Boolean);
+            break;
+        case BinaryColumn.TYPE_CODE:
+        case NullableBinaryColumn.TYPE_CODE:
+            valid = false;
+            break;
+        default:
+            valid = (value instanceof Number);
+            break;
+        }
+        if(!valid){
+            throw new SerializationException(String.format(
+                    "Predicate value of type %s is not applicable to column '%s'",
+                    value.getClass().getSimpleName(), column));
+        }
+    }
+
+    private static void checkValue(final Object value){
+        if((value != null) && !(value instanceof Number)
+                && !(value instanceof Character) && !(value instanceof String)
+                && !(value instanceof Boolean)){
+
+            throw new IllegalArgumentException(
+                    "Unsupported predicate value type: "
+                    + value.getClass().getSimpleName());
+        }
+    }
+
+    private static boolean isIntegral(final Object value){
+        return (value instanceof Long) || (value instanceof Integer)
+                || (value instanceof Short) || (value instanceof Byte)
+                || (value instanceof Character);
+    }
+
+    private static long longValue(final Object value){
+        return (value instanceof Character)
+                ? (Character) value
+                : ((Number)value).longValue();
+    }
+
+    private static int compare(final Object a, final Object b){
+        if(isIntegral(a) && isIntegral(b)){
+            return Long.compare(longValue(a), longValue(b));
+        }
+        if((a instanceof Number) && (b instanceof Number)){
+            return Double.compare(((Number)a).doubleValue(), ((Number)b).doubleValue());
+        }
+        if((a instanceof String) && (b instanceof String)){
+            return ((String)a).compareTo((String)b);
+        }
+        if((a instanceof Boolean) && (b instanceof Boolean)){
+            return Boolean.compare((Boolean)a, (Boolean)b);
+        }
+        throw new IllegalArgumentException(String.format(
+                "Cannot compare values of type %s and %s",
+                a.getClass().getSimpleName(), b.getClass().getSimpleName()));
+    }
+}
@@ -0,0 +1,453 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import com.raven.common.struct.ByteColumn;
+import com.raven.common.struct.CharColumn;
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DoubleColumn;
+import com.raven.common.struct.FloatColumn;
+import com.raven.common.struct.IntColumn;
+import com.raven.common.struct.LongColumn;
+import com.raven.common.struct.NullableByteColumn;
+import com.raven.common.struct.NullableCharColumn;
+import com.raven.common.struct.NullableDoubleColumn;
+import com.raven.common.struct.NullableFloatColumn;
+import com.raven.common.struct.NullableIntColumn;
+import com.raven.common.struct.NullableLongColumn;
+import com.raven.common.struct.NullableShortColumn;
+import com.raven.common.struct.NullableStringColumn;
+import com.raven.common.struct.ShortColumn;
+import com.raven.common.struct.StringColumn;
+
+/**
+ * Statistics of the values of one column within one row group of a
+ * row-group based <code>.df</code> file. The statistics consist of the number
+ * of null values and, for numeric, character and string columns, the minimum
+ * and maximum of all non-null values.
+ * 
+ * <p>Statistics are used to skip entire row groups when reading a file
+ * with a {@link ColumnPredicate}. Therefore, they must never rule out a value
+ * which is actually present in the row group. NaN values of floating point
+ * columns are not considered by the minimum and maximum, as they can never
+ * match a predicate.
+ * 
+ * <p>The serialized form is:
+ * <pre>
+ * nullCount(4) kind(1) [min max]
+ * </pre>
+ * where min and max are encoded as 8 bytes for kind <code>LONG</code>
+ * and <code>DOUBLE</code>, and as length-prefixed UTF-8 bytes for
+ * kind <code>STRING</code>. A null count of -1 denotes an unknown null count.
+ * 
+ * <p>This class is not part of the public API.
+ * 
+ * @author Phil Gaiser
+ * @see RowGroupIndex
+ * @since 4.1.0
+ *
+ */
+final class ColumnStatistics {
+
+    /** Kind of statistics without any minimum and maximum values **/
+    static final byte NONE = 0;
+
+    /** Kind of statistics with minimum and maximum values of integral types **/
+    static final byte LONG = 1;
+
+    /** Kind of statistics with minimum and maximum values of floating point types **/
+    static final byte DOUBLE = 2;
+
+    /** Kind of statistics with minimum and maximum values of strings **/
+    static final byte STRING = 3;
+
+    /** Strings longer than this are not tracked by min/max values **/
+    private static final int MAX_STRING_LENGTH = 256;
+
+    /** The character set used for serialization of Strings **/
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final int nullCount;
+    private final byte kind;
+    private long minLong;
+    private long maxLong;
+    private double minDouble;
+    private double maxDouble;
+    private String minString;
+    private String maxString;
+
+    private ColumnStatistics(final int nullCount, final byte kind){
+        this.nullCount = nullCount;
+        this.kind = kind;
+    }
+
+    /**
+     * Computes the statistics of the first <code>rows</code>
+     * values of the specified Column
+     * 
+     * @param col The <code>Column</code> to compute the statistics for
+     * @param rows The number of rows to consider
+     * @return The <code>ColumnStatistics</code> of the specified Column
+     */
+    static ColumnStatistics of(final Column col, final int rows){
+        switch(col.typeCode()){
+        case ByteColumn.TYPE_CODE:{
+            final byte[] values = ((ByteColumn)col).asArray();
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for(int i=0; i<rows; ++i){
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+            return ofLong(0, rows, min, max);
+        }
+        case ShortColumn.TYPE_CODE:{
+            final short[] values = ((ShortColumn)col).asArray();
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for(int i=0; i<rows; ++i){
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+            return ofLong(0, rows, min, max);
+        }
+        case IntColumn.TYPE_CODE:{
+            final int[] values = ((IntColumn)col).asArray();
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for(int i=0; i<rows; ++i){
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+            return ofLong(0, rows, min, max);
+        }
+        case LongColumn.TYPE_CODE:{
+            final long[] values = ((LongColumn)col).asArray();
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for(int i=0; i<rows; ++i){
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+            return ofLong(0, rows, min, max);
+        }
+        case CharColumn.TYPE_CODE:{
+            final char[] values = ((CharColumn)col).asArray();
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for(int i=0; i<rows; ++i){
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+            return ofLong(0, rows, min, max);
+        }
+        case FloatColumn.TYPE_CODE:{
+            final float[] values = ((FloatColumn)col).asArray();
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            int n = 0;
+            for(int i=0; i<rows; ++i){
+                if(!Float.isNaN(values[i])){
+                    min = Math.min(min, values[i]);
+                    max = Math.max(max, values[i]);
+                    ++n;
+                }
+            }
+            return ofDouble(0, n, min, max);
+        }
+        case DoubleColumn.TYPE_CODE:{
+            final double[] values = ((DoubleColumn)col).asArray();
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            int n = 0;
+            for(int i=0; i<rows; ++i){
+                if(!Double.isNaN(values[i])){
+                    min = Math.min(min, values[i]);
+                    max = Math.max(max, values[i]);
+                    ++n;
+                }
+            }
+            return ofDouble(0, n, min, max);
+        }
+        case StringColumn.TYPE_CODE:
+            return ofStrings(((StringColumn)col).asArray(), rows);
+        case NullableByteColumn.TYPE_CODE:
+            return ofIntegers(((NullableByteColumn)col).asArray(), rows);
+        case NullableShortColumn.TYPE_CODE:
+            return ofIntegers(((NullableShortColumn)col).asArray(), rows);
+        case NullableIntColumn.TYPE_CODE:
+            return ofIntegers(((NullableIntColumn)col).asArray(), rows);
+        case NullableLongColumn.TYPE_CODE:
+            return ofIntegers(((NullableLongColumn)col).asArray(), rows);
+        case NullableFloatColumn.TYPE_CODE:
+            return ofDecimals(((NullableFloatColumn)col).asArray(), rows);
+        case NullableDoubleColumn.TYPE_CODE:
+            return ofDecimals(((NullableDoubleColumn)col).asArray(), rows);
+        case NullableCharColumn.TYPE_CODE:{
+            final Character[] values = ((NullableCharColumn)col).asArray();
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            int nulls = 0;
+            for(int i=0; i<rows; ++i){
+                if(values[i] == null){
+                    ++nulls;
+                }else{
+                    min = Math.min(min, values[i]);
+                    max = Math.max(max, values[i]);
+                }
+            }
+            return ofLong(nulls, rows - nulls, min, max);
+        }
+        case NullableStringColumn.TYPE_CODE:
+            return ofStrings(((NullableStringColumn)col).asArray(), rows);
+        default:
+            //boolean and binary columns only track null values
+            int nulls = 0;
+            if(col.isNullable()){
+                for(int i=0; i<rows; ++i){
+                    if(col.getValue(i) == null){
+                        ++nulls;
+                    }
+                }
+            }
+            return new ColumnStatistics(nulls, NONE);
+        }
+    }
+
+    /**
+     * Reads serialized statistics from the specified buffer
+     * 
+     * @param buffer The <code>ByteBuffer</code> to read from
+     * @return The <code>ColumnStatistics</code> read
+     */
+    static ColumnStatistics read(final ByteBuffer buffer){
+        final ColumnStatistics stats = new ColumnStatistics(
+                buffer.getInt(), buffer.get());
+
+        switch(stats.kind){
+        case NONE:
+            break;
+        case LONG:
+            stats.minLong = buffer.getLong();
+            stats.maxLong = buffer.getLong();
+            break;
+        case DOUBLE:
+            stats.minDouble = buffer.getDouble();
+            stats.maxDouble = buffer.getDouble();
+            break;
+        case STRING:
+            stats.minString = readString(buffer);
+            stats.maxString = readString(buffer);
+            break;
+        default:
+            throw new IllegalStateException("Unknown statistics kind: " + stats.kind);
+        }
+        return stats;
+    }
+
+    /**
+     * Writes these statistics to the specified buffer
+     * 
+     * @param buffer The <code>ByteBuffer</code> to write to
+     */
+    void write(final ByteBuffer buffer){
+        buffer.putInt(nullCount);
+        buffer.put(kind);
+        switch(kind){
+        case LONG:
+            buffer.putLong(minLong);
+            buffer.putLong(maxLong);
+            break;
+        case DOUBLE:
+            buffer.putDouble(minDouble);
+            buffer.putDouble(maxDouble);
+            break;
+        case STRING:
+            final byte[] min = minString.getBytes(UTF_8);
+            final byte[] max = maxString.getBytes(UTF_8);
+            buffer.putInt(min.length);
+            buffer.put(min);
+            buffer.putInt(max.length);
+            buffer.put(max);
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Returns the number of bytes of the serialized form of these statistics
+     * 
+     * @return The serialized size in bytes
+     */
+    int byteSize(){
+        switch(kind){
+        case LONG:
+        case DOUBLE:
+            return 5 + 16;
+        case STRING:
+            return 5 + 8 + minString.getBytes(UTF_8).length
+                    + maxString.getBytes(UTF_8).length;
+        default:
+            return 5;
+        }
+    }
+
+    /**
+     * Returns the number of null values, or -1 if unknown
+     * 
+     * @return The number of null values
+     */
+    int nullCount(){
+        return this.nullCount;
+    }
+
+    /**
+     * Returns the kind of these statistics
+     * 
+     * @return The kind, i.e. one of <code>NONE</code>, <code>LONG</code>,
+     *         <code>DOUBLE</code> or <code>STRING</code>
+     */
+    byte kind(){
+        return this.kind;
+    }
+
+    long minLong(){
+        return this.minLong;
+    }
+
+    long maxLong(){
+        return this.maxLong;
+    }
+
+    double minDouble(){
+        return this.minDouble;
+    }
+
+    double maxDouble(){
+        return this.maxDouble;
+    }
+
+    String minString(){
+        return this.minString;
+    }
+
+    String maxString(){
+        return this.maxString;
+    }
+
+    private static ColumnStatistics ofLong(final int nulls, final int nonNulls,
+            final long min, final long max){
+
+        if(nonNulls == 0){
+            return new ColumnStatistics(nulls, NONE);
+        }
+        final ColumnStatistics stats = new ColumnStatistics(nulls, LONG);
+        stats.minLong = min;
+        stats.maxLong = max;
+        return stats;
+    }
+
+    private static ColumnStatistics ofDouble(final int nulls, final int nonNaN,
+            final double min, final double max){
+
+        if(nonNaN == 0){
+            return new ColumnStatistics(nulls, NONE);
+        }
+        final ColumnStatistics stats = new ColumnStatistics(nulls, DOUBLE);
+        stats.minDouble = min;
+        stats.maxDouble = max;
+        return stats;
+    }
+
+    private static ColumnStatistics ofIntegers(final Number[] values, final int rows){
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        int nulls = 0;
+        for(int i=0; i<rows; ++i){
+            if(values[i] == null){
+                ++nulls;
+            }else{
+                final long value = values[i].longValue();
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+        return ofLong(nulls, rows - nulls, min, max);
+    }
+
+    private static ColumnStatistics ofDecimals(final Number[] values, final int rows){
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        int nulls = 0;
+        int n = 0;
+        for(int i=0; i<rows; ++i){
+            if(values[i] == null){
+                ++nulls;
+            }else{
+                final double value = values[i].doubleValue();
+                if(!Double.isNaN(value)){
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                    ++n;
+                }
+            }
+        }
+        return ofDouble(nulls, n, min, max);
+    }
+
+    private static ColumnStatistics ofStrings(final String[] values, final int rows){
+        String min = null;
+        String max = null;
+        int nulls = 0;
+        boolean bounded = true;
+        for(int i=0; i<rows; ++i){
+            final String value = values[i];
+            if(value == null){
+                ++nulls;
+            }else{
+                if(value.length() > MAX_STRING_LENGTH){
+                    bounded = false;
+                }
+                if((min == null) || (value.compareTo(min) < 0)){
+                    min = value;
+                }
+                if((max == null) || (value.compareTo(max) > 0)){
+                    max = value;
+                }
+            }
+        }
+        if(!bounded || (min == null) || (min.length() > MAX_STRING_LENGTH)
+                || (max.length() > MAX_STRING_LENGTH)){
+
+            return new ColumnStatistics(nulls, NONE);
+        }
+        final ColumnStatistics stats = new ColumnStatistics(nulls, STRING);
+        stats.minString = min;
+        stats.maxString = max;
+        return stats;
+    }
+
+    private static String readString(final ByteBuffer buffer){
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
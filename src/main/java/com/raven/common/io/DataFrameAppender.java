@@ -0,0 +1,373 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import com.raven.common.struct.DataFrame;
+
+/**
+ * Appends rows of DataFrames to a <code>.df</code> file without rewriting
+ * the content which is already persisted in that file.
+ * 
+ * <p>Each call to {@link #append(DataFrame)} writes all rows of the given
+ * DataFrame as one independently compressed <i>row group</i> to the end of
+ * the underlying file. The cost of an append operation is therefore only
+ * proportional to the size of the appended DataFrame and not to the size of
+ * the entire file. An index of all row groups is kept in the footer of the
+ * file. The footer is written when the appender is flushed or closed.
+ * Until then, readers only see the row groups of the last written footer.
+ * The footer of an existing file is never overwritten by appended row groups
+ * before a new footer has been forced to the storage device. If an appended
+ * row group would overlap the current footer, a copy of the current footer is
+ * written further back in the file first. Therefore, a file which could
+ * be read before remains readable even if the appender is not closed
+ * properly, for example because of an exception or a crash.
+ * 
+ * <p>For each row group, the minimum and maximum values as well as the
+ * number of null values of each column are stored in the footer. These
+ * statistics allow readers to skip entire row groups when reading a file
+ * with the {@link DataFrameSerializer#readFile(File, ColumnPredicate)} method.
+ * Appending DataFrames which are sorted by the column used in such predicates,
+ * for example a timestamp, will therefore make filtered reads more efficient.
+ * 
+ * <p>All appended DataFrames must have the same column structure, i.e. the
+ * same number of columns with the same column types, as the first row group
+ * of the file. Column names are taken from the first appended DataFrame.
+ * 
+ * <p>Files written by a <code>DataFrameAppender</code> can be read with
+ * the {@link DataFrameSerializer#readFile(File)} method, in which case all
+ * row groups are concatenated to one DataFrame, or with
+ * the {@link DataFrameSerializer#readRows(File, int, int)} method, which only
+ * reads the row groups that overlap with the requested row range.
+ * 
+ * <p>Opening an appender on an existing row-group file continues that file.
+ * Opening an appender on a file created
+ * by {@link DataFrameSerializer#writeFile(File, DataFrame)} is not supported.
+ * 
+ * <p>Example:<br>
+ * <pre><code>
+ * try(DataFrameAppender appender = new DataFrameAppender("myFile.df")){
+ *     appender.append(batch);
+ * }
+ * </code></pre>
+ * 
+ * <p>This class is not thread-safe.
+ * 
+ * @author Phil Gaiser
+ * @see DataFrameSerializer
+ * @since 4.1.0
+ *
+ */
+public final class DataFrameAppender implements Closeable, Flushable {
+
+    private final File file;
+    private final FileChannel channel;
+    private RowGroupIndex index;
+    private byte[] footer;
+    private long footerPosition;
+    private DataFrame schema;
+    private boolean modified;
+    private boolean closed;
+
+    /**
+     * Constructs a new <code>DataFrameAppender</code> for the specified file.
+     * If the file does not exist, it is created. If the file name does not end
+     * with the <code>.df</code> extension, it is added automatically
+     * 
+     * @param file The file to append DataFrames to. Must not be null
+     * @throws IOException If any errors occur while opening the file, or if
+     *                     the file exists but is not a row-group file
+     */
+    public DataFrameAppender(final String file) throws IOException{
+        this(new File(file));
+    }
+
+    /**
+     * Constructs a new <code>DataFrameAppender</code> for the specified file.
+     * If the file does not exist, it is created. If the file name does not end
+     * with the <code>.df</code> extension, it is added automatically
+     * 
+     * @param file The file to append DataFrames to. Must not be null
+     * @throws IOException If any errors occur while opening the file, or if
+     *                     the file exists but is not a row-group file
+     */
+    public DataFrameAppender(final File file) throws IOException{
+        this(withExtension(file), FileChannel.open(withExtension(file).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Constructs a new <code>DataFrameAppender</code> which writes to the
+     * specified channel of the specified file. The channel is closed when
+     * the constructed appender is closed or if the construction fails
+     * 
+     * @param file The file to append DataFrames to
+     * @param channel The open <code>FileChannel</code> of the specified file
+     * @throws IOException If any errors occur while reading the file, or if
+     *                     the file is not empty but is not a row-group file
+     */
+    DataFrameAppender(final File file, final FileChannel channel) throws IOException{
+        this.file = file;
+        this.channel = channel;
+        try{
+            if(channel.size() == 0){
+                write(ByteBuffer.wrap(RowGroupIndex.header()), 0);
+                this.modified = true;
+            }else{
+                this.index = RowGroupIndex.read(channel);
+                final long size = channel.size();
+                final int footerLength = RowGroupIndex.readFully(
+                        channel, size - RowGroupIndex.TRAILER_LENGTH, 4).getInt();
+
+                this.footerPosition = size - RowGroupIndex.TRAILER_LENGTH - footerLength;
+                this.footer = RowGroupIndex.readFully(channel, footerPosition,
+                        footerLength + RowGroupIndex.TRAILER_LENGTH).array();
+
+                if(index.schema().length > 0){
+                    this.schema = DataFrameSerializer.deserialize(index.schema());
+                }
+            }
+        }catch(IOException | RuntimeException ex){
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Appends all rows of the specified DataFrame as one row group to the
+     * underlying file. Empty DataFrames are ignored.<br>
+     * The appended rows only become visible to readers after this appender
+     * is flushed or closed
+     * 
+     * @param df The DataFrame to append. Must not be null
+     * @throws IOException If any errors occur while writing to the file
+     * @throws SerializationException If any errors occur during serialization,
+     *                                or if the column structure of the specified
+     *                                DataFrame does not match the structure
+     *                                of the file
+     */
+    public void append(final DataFrame df) throws IOException, SerializationException{
+        ensureOpen();
+        if(df == null){
+            throw new SerializationException("DataFrame argument must not be null");
+        }
+        if(schema == null){
+            this.schema = DataFrame.like(df);
+            final byte[] bytes = DataFrameSerializer.serialize(schema);
+            if(index == null){
+                this.index = new RowGroupIndex(bytes);
+            }else{
+                index.setSchema(bytes);
+            }
+        }else{
+            checkSchema(df);
+        }
+        if(df.rows() == 0){
+            return;
+        }
+        if((index.totalRows() + df.rows()) > Integer.MAX_VALUE){
+            throw new SerializationException(
+                    "Total row count exceeds maximum supported size");
+        }
+        final byte[] bytes = DataFrameSerializer.serialize(
+                df, DataFrameSerializer.MODE_COMPRESSED);
+
+        final ColumnStatistics[] stats = new ColumnStatistics[df.columns()];
+        for(int i=0; i<stats.length; ++i){
+            stats[i] = ColumnStatistics.of(df.getColumn(i), df.rows());
+        }
+        final long offset = index.end();
+        if((footer != null) && ((offset + bytes.length) > footerPosition)){
+            //keep the current footer valid until a new one is written
+            moveFooter(Math.max(offset + bytes.length, footerPosition + footer.length));
+        }
+        write(ByteBuffer.wrap(bytes), offset);
+        index.add(offset, bytes.length, df.rows(), stats);
+        this.modified = true;
+    }
+
+    /**
+     * Writes the footer of the underlying file so that all row groups
+     * appended so far become visible to readers
+     * 
+     * @throws IOException If any errors occur while writing to the file
+     */
+    @Override
+    public void flush() throws IOException{
+        ensureOpen();
+        if(!modified){
+            return;
+        }
+        if(index == null){
+            this.index = new RowGroupIndex(new byte[0]);
+        }
+        final byte[] bytes = index.toBytes((schema != null) ? schema.columns() : 0);
+        long position = index.end();
+        if((footer != null) && ((position + bytes.length) > footerPosition)){
+            position = footerPosition + footer.length;
+        }
+        writeAtEnd(bytes, position);
+        channel.force(false);
+        //the old footer is only removed once the new footer is persisted
+        channel.truncate(position + bytes.length);
+        channel.force(true);
+        this.footer = bytes;
+        this.footerPosition = position;
+        this.modified = false;
+    }
+
+    /**
+     * Flushes and closes this appender. Calling this method on an already
+     * closed appender has no effect
+     * 
+     * @throws IOException If any errors occur while writing to the file
+     */
+    @Override
+    public void close() throws IOException{
+        if(closed){
+            return;
+        }
+        try{
+            flush();
+        }finally{
+            this.closed = true;
+            channel.close();
+        }
+    }
+
+    /**
+     * Returns the total number of rows in all row groups of the underlying file,
+     * including the rows appended but not yet flushed
+     * 
+     * @return The total number of rows of the underlying file
+     */
+    public long rows(){
+        return (index != null) ? index.totalRows() : 0;
+    }
+
+    /**
+     * Returns the number of row groups of the underlying file,
+     * including the row groups appended but not yet flushed
+     * 
+     * @return The number of row groups of the underlying file
+     */
+    public int rowGroups(){
+        return (index != null) ? index.size() : 0;
+    }
+
+    /**
+     * Returns the file this appender writes to
+     * 
+     * @return The underlying <code>File</code>
+     */
+    public File getFile(){
+        return this.file;
+    }
+
+    /**
+     * Adds the extension of <code>.df</code> files to the specified
+     * file if it does not already end with it
+     * 
+     * @param file The file to check. Must not be null
+     * @return A file with the <code>.df</code> extension
+     */
+    private static File withExtension(final File file){
+        if(file == null){
+            throw new IllegalArgumentException("File argument must not be null");
+        }
+        if(!file.getName().endsWith(DataFrameSerializer.DF_FILE_EXTENSION)){
+            return new File(file.getAbsolutePath()
+                    + DataFrameSerializer.DF_FILE_EXTENSION);
+        }
+        return file;
+    }
+
+    private void checkSchema(final DataFrame df){
+        if(df.isNullable() != schema.isNullable()){
+            throw new SerializationException(String.format(
+                    "DataFrame type missmatch. Expected %s DataFrame",
+                    (schema.isNullable() ? "nullable" : "non-nullable")));
+        }
+        if(df.columns() != schema.columns()){
+            throw new SerializationException(String.format(
+                    "Column count missmatch. Expected %s columns but found %s",
+                    schema.columns(), df.columns()));
+        }
+        for(int i=0; i<schema.columns(); ++i){
+            if(df.getColumn(i).typeCode() != schema.getColumn(i).typeCode()){
+                throw new SerializationException(
+                        "Column type missmatch at column index " + i);
+            }
+        }
+    }
+
+    /**
+     * Writes a copy of the current footer to the specified position,
+     * forces it to the storage device and makes it the current footer
+     * 
+     * @param position The file position to write the footer to. Must not
+     *                 be before the end of the current footer
+     * @throws IOException If any errors occur while writing to the file
+     */
+    private void moveFooter(final long position) throws IOException{
+        writeAtEnd(footer, position);
+        //the copy must be persisted before the old footer is overwritten
+        channel.force(true);
+        this.footerPosition = position;
+    }
+
+    /**
+     * Writes the specified bytes of a footer to the specified position. If the
+     * bytes cannot be written completely, the file is truncated to its
+     * previous size, so that the previous footer is again at the end of the file
+     * 
+     * @param bytes The bytes of the footer and trailer to write
+     * @param position The file position to write the bytes to
+     * @throws IOException If any errors occur while writing to the file
+     */
+    private void writeAtEnd(final byte[] bytes, final long position) throws IOException{
+        final long size = channel.size();
+        try{
+            write(ByteBuffer.wrap(bytes), position);
+        }catch(IOException ex){
+            if(position >= size){
+                channel.truncate(size);
+            }
+            throw ex;
+        }
+    }
+
+    private void write(final ByteBuffer buffer, long position) throws IOException{
+        while(buffer.hasRemaining()){
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private void ensureOpen() throws IOException{
+        if(closed){
+            throw new IOException("DataFrameAppender is closed");
+        }
+    }
+}
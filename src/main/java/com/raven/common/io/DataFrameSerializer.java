@@ -25,10 +25,16 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.Adler32;
 import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
 import java.util.zip.Inflater;
@@ -90,6 +96,14 @@ import com.raven.common.struct.StringColumn;
  * {@link DataFrameSerializer#readFileAsync(File)} and
  * {@link DataFrameSerializer#writeFileAsync(File, DataFrame)} method respectively.
  * 
+ * <p>Files which grow incrementally can be written by a {@link DataFrameAppender}.
+ * Such files are read by the {@link DataFrameSerializer#readFile(File)} method
+ * like any other <code>.df</code> file. A range of rows can be read from them
+ * with the {@link DataFrameSerializer#readRows(File, int, int)} method. Rows
+ * matching a {@link ColumnPredicate} can be read with
+ * the {@link DataFrameSerializer#readFile(File, ColumnPredicate)} method, which
+ * skips all row groups whose statistics rule out a match.
+ * 
  * @author Phil Gaiser
  * @see CSVReader
  * @see CSVWriter
@@ -117,6 +131,16 @@ public final class DataFrameSerializer {
     /** The character set used for serialization and deserialization of Strings **/
     private static final Charset UTF_8 = Charset.forName("UTF-8");
 
+    /** The maximum size of arrays which can be allocated **/
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    /** The maximum size of buffers which are kept for reuse by each thread **/
+    private static final int MAX_POOLED_BUFFER_SIZE = 1 << 20;
+
+    /** The reusable resources of each thread calling the serializer **/
+    private static final ThreadLocal<ThreadResources> RESOURCES =
+            ThreadLocal.withInitial(ThreadResources::new);
+
     /**
      * Deserializes the given <code>Base64</code> encoded string to a DataFrame
      * 
@@ -139,7 +163,7 @@ public final class DataFrameSerializer {
      * @throws SerializationException If any errors occur during serialization
      */
     public static String toBase64(final DataFrame df) throws SerializationException{
-        return Base64.getEncoder().encodeToString(compress(serialize(df)));
+        return Base64.getEncoder().encodeToString(serialize(df, MODE_COMPRESSED));
     }
 
     /**
@@ -173,17 +197,105 @@ public final class DataFrameSerializer {
     }
 
     /**
-     * Creates a background thread which will read the df-file asynchronously and
-     * supply a DataFrame representing its content to the CompletableFuture returned
-     * by this method.
+     * Reads the specified file and returns a DataFrame constituted by all rows
+     * of that file which match the specified predicate.
+     * 
+     * <p>If the specified file is a row-group based file as written by
+     * a {@link DataFrameAppender}, then all row groups whose statistics rule out
+     * a match are skipped without being read or decompressed. Other
+     * <code>.df</code> files are read entirely before being filtered.
+     * 
+     * @param file The file to read. Must be a <code>.df</code> file
+     * @param predicate The <code>ColumnPredicate</code> which all returned
+     *                  rows must match. Must not be null
+     * @return A DataFrame holding all rows of the specified file which match
+     *         the specified predicate. The returned DataFrame may be empty
+     * @throws IOException If any errors occur during file reading
+     * @throws SerializationException If any errors occur during deserialization,
+     *                                or if the predicate is not applicable
+     */
+    public static DataFrame readFile(final String file, final ColumnPredicate predicate)
+            throws IOException, SerializationException{
+
+        return readFile(new File(file), predicate);
+    }
+
+    /**
+     * Reads the specified file and returns a DataFrame constituted by all rows
+     * of that file which match the specified predicate.
+     * 
+     * <p>If the specified file is a row-group based file as written by
+     * a {@link DataFrameAppender}, then all row groups whose statistics rule out
+     * a match are skipped without being read or decompressed. Other
+     * <code>.df</code> files are read entirely before being filtered.
+     * 
+     * @param file The file to read. Must be a <code>.df</code> file
+     * @param predicate The <code>ColumnPredicate</code> which all returned
+     *                  rows must match. Must not be null
+     * @return A DataFrame holding all rows of the specified file which match
+     *         the specified predicate. The returned DataFrame may be empty
+     * @throws IOException If any errors occur during file reading
+     * @throws SerializationException If any errors occur during deserialization,
+     *                                or if the predicate is not applicable
+     */
+    public static DataFrame readFile(final File file, final ColumnPredicate predicate)
+            throws IOException, SerializationException{
+
+        if(file == null){
+            throw new SerializationException("File argument must not be null");
+        }
+        if(predicate == null){
+            throw new SerializationException("Predicate argument must not be null");
+        }
+        try(RandomAccessFile raf = new RandomAccessFile(file, "r")){
+            final FileChannel channel = raf.getChannel();
+            final ByteBuffer header = RowGroupIndex.readFully(channel, 0,
+                    (int) Math.min(channel.size(), RowGroupIndex.HEADER_LENGTH));
+
+            if(!RowGroupIndex.startsWithMagic(header.array())){
+                final DataFrame df = readFile(file);
+                return filterRows(df, columnIndex(df, predicate), predicate);
+            }
+            final RowGroupIndex index = RowGroupIndex.read(channel);
+            if(index.schema().length == 0){
+                throw new SerializationException("Row-group file has no schema");
+            }
+            final DataFrame schema = deserialize(index.schema());
+            final int col = columnIndex(schema, predicate);
+            final DataFrame[] parts = new DataFrame[index.size()];
+            int count = 0;
+            for(int i=0; i<index.size(); ++i){
+                if(predicate.mightMatch(index.statistics(i, col), index.rows(i))){
+                    final DataFrame part = filterRows(deserialize(
+                            RowGroupIndex.readFully(channel, index.offset(i),
+                                    index.length(i)).array()), col, predicate);
+
+                    if(part.rows() > 0){
+                        parts[count++] = part;
+                    }
+                }
+            }
+            return (count == 0)
+                    ? schema
+                    : DataFrame.concat(Arrays.copyOf(parts, count));
+        }
+    }
+
+    /**
+     * Reads the df-file asynchronously by the shared I/O executor and
+     * supplies a DataFrame representing its content to the CompletableFuture
+     * returned by this method.
      * 
      * <p>This method is meant to be used for large df-files.
      * 
-     * <p>When called, this method will return immediately. The result of the 
-     * background operation will be passed to the {@link CompletableFuture} instance.
+     * <p>The read operation is executed by the bounded executor provided
+     * by {@link IOExecutor#getDefault()}. This method returns immediately unless
+     * the queue of that executor is full, in which case the calling thread is
+     * blocked until the operation can be queued. The result of the background
+     * operation will be passed to the {@link CompletableFuture} instance.
      * 
-     * <p>Please note that any IOExceptions encountered by the launched background 
-     * thread will result in the CompletableFuture being completed exceptionally.
+     * <p>Please note that any IOExceptions encountered by the background 
+     * operation will result in the CompletableFuture being completed exceptionally.
      * 
      * @param file The file to read. Must be a <code>.df</code> file
      * @return A <code>CompletableFuture</code> for the asynchronous read operation
@@ -196,17 +308,11 @@ public final class DataFrameSerializer {
     }
 
     /**
-     * Creates a background thread which will read the df-file asynchronously and
-     * supply a DataFrame representing its content to the CompletableFuture returned
-     * by this method.
-     * 
-     * <p>This method is meant to be used for large df-files.
-     * 
-     * <p>When called, this method will return immediately. The result of the 
-     * background operation will be passed to the {@link CompletableFuture} instance.
+     * Reads the df-file asynchronously by the shared I/O executor and
+     * supplies a DataFrame representing its content to the CompletableFuture
+     * returned by this method.
      * 
-     * <p>Please note that any IOExceptions encountered by the launched background 
-     * thread will result in the CompletableFuture being completed exceptionally.
+     * <p>See {@link DataFrameSerializer#readFileAsync(String)}
      * 
      * @param file The file to read. Must be a <code>.df</code> file
      * @return A <code>CompletableFuture</code> for the asynchronous read operation
@@ -215,10 +321,55 @@ public final class DataFrameSerializer {
     public static CompletableFuture<DataFrame> readFileAsync(final File file)
             throws IllegalArgumentException{
 
+        return readFileAsync(file, IOExecutor.getDefault());
+    }
+
+    /**
+     * Reads the df-file asynchronously by the specified executor and
+     * supplies a DataFrame representing its content to the CompletableFuture
+     * returned by this method.
+     * 
+     * <p>If the specified executor rejects the read operation, then
+     * the returned CompletableFuture is completed exceptionally.
+     * 
+     * @param file The file to read. Must be a <code>.df</code> file
+     * @param executor The <code>Executor</code> to execute the read operation.
+     *                 Must not be null
+     * @return A <code>CompletableFuture</code> for the asynchronous read operation
+     * @throws IllegalArgumentException If any argument is null
+     * @since 4.1.0
+     */
+    public static CompletableFuture<DataFrame> readFileAsync(final String file,
+            final Executor executor) throws IllegalArgumentException{
+
+        return readFileAsync(new File(file), executor);
+    }
+
+    /**
+     * Reads the df-file asynchronously by the specified executor and
+     * supplies a DataFrame representing its content to the CompletableFuture
+     * returned by this method.
+     * 
+     * <p>If the specified executor rejects the read operation, then
+     * the returned CompletableFuture is completed exceptionally.
+     * 
+     * @param file The file to read. Must be a <code>.df</code> file
+     * @param executor The <code>Executor</code> to execute the read operation.
+     *                 Must not be null
+     * @return A <code>CompletableFuture</code> for the asynchronous read operation
+     * @throws IllegalArgumentException If any argument is null
+     * @since 4.1.0
+     */
+    public static CompletableFuture<DataFrame> readFileAsync(final File file,
+            final Executor executor) throws IllegalArgumentException{
+
         if(file == null){
             throw new IllegalArgumentException("The File argument must not be null");
         }
-        return new ConcurrentDFReader(file).execute();
+        if(executor == null){
+            throw new IllegalArgumentException("The Executor argument must not be null");
+        }
+        return new ConcurrentDFReader(file).execute(executor);
     }
 
     /**
@@ -253,16 +404,20 @@ public final class DataFrameSerializer {
     }
 
     /**
-     * Creates a background thread which will asynchronously persist the given
-     * DataFrame to the specified file.<br>
+     * Persists the given DataFrame to the specified file asynchronously by
+     * the shared I/O executor.<br>
      * The CompletableFuture returned by this method does not return
      * anything upon completion.<br>
      * 
-     * <p>This method is meant to be used for large DataFrames/df-files.<br>
-     * When called, this method will return immediately.
+     * <p>This method is meant to be used for large DataFrames/df-files.
+     * 
+     * <p>The write operation is executed by the bounded executor provided
+     * by {@link IOExecutor#getDefault()}. This method returns immediately unless
+     * the queue of that executor is full, in which case the calling thread is
+     * blocked until the operation can be queued.
      * 
-     * <p>Please note that any IOExceptions encountered by the launched background 
-     * thread will result in the CompletableFuture being completed exceptionally.
+     * <p>Please note that any IOExceptions encountered by the background 
+     * operation will result in the CompletableFuture being completed exceptionally.
      * 
      * @param file The file to write the DataFrame to. Must not be null
      * @param df The DataFrame to persist. Must not be null
@@ -276,16 +431,10 @@ public final class DataFrameSerializer {
     }
 
     /**
-     * Creates a background thread which will asynchronously persist the given
-     * DataFrame to the specified file.<br>
-     * The CompletableFuture returned by this method does not return
-     * anything upon completion.<br>
+     * Persists the given DataFrame to the specified file asynchronously by
+     * the shared I/O executor.
      * 
-     * <p>This method is meant to be used for large DataFrames/df-files.<br>
-     * When called, this method will return immediately.
-     * 
-     * <p>Please note that any IOExceptions encountered by the launched background 
-     * thread will result in the CompletableFuture being completed exceptionally.
+     * <p>See {@link DataFrameSerializer#writeFileAsync(String, DataFrame)}
      * 
      * @param file The file to write the DataFrame to
      * @param df The DataFrame to persist
@@ -295,6 +444,46 @@ public final class DataFrameSerializer {
     public static CompletableFuture<Void> writeFileAsync(final File file,
             final DataFrame df) throws IllegalArgumentException{
 
+        return writeFileAsync(file, df, IOExecutor.getDefault());
+    }
+
+    /**
+     * Persists the given DataFrame to the specified file asynchronously by
+     * the specified executor.
+     * 
+     * <p>If the specified executor rejects the write operation, then
+     * the returned CompletableFuture is completed exceptionally.
+     * 
+     * @param file The file to write the DataFrame to
+     * @param df The DataFrame to persist
+     * @param executor The <code>Executor</code> to execute the write operation
+     * @return A <code>CompletableFuture</code> for the asynchronous write operation
+     * @throws IllegalArgumentException If any argument is null
+     * @since 4.1.0
+     */
+    public static CompletableFuture<Void> writeFileAsync(final String file,
+            final DataFrame df, final Executor executor) throws IllegalArgumentException{
+
+        return writeFileAsync(new File(file), df, executor);
+    }
+
+    /**
+     * Persists the given DataFrame to the specified file asynchronously by
+     * the specified executor.
+     * 
+     * <p>If the specified executor rejects the write operation, then
+     * the returned CompletableFuture is completed exceptionally.
+     * 
+     * @param file The file to write the DataFrame to
+     * @param df The DataFrame to persist
+     * @param executor The <code>Executor</code> to execute the write operation
+     * @return A <code>CompletableFuture</code> for the asynchronous write operation
+     * @throws IllegalArgumentException If any argument is null
+     * @since 4.1.0
+     */
+    public static CompletableFuture<Void> writeFileAsync(final File file,
+            final DataFrame df, final Executor executor) throws IllegalArgumentException{
+
         if(file == null){
             throw new IllegalArgumentException(
                     "The File argument must not be null");
@@ -303,7 +492,11 @@ public final class DataFrameSerializer {
             throw new IllegalArgumentException(
                     "The DataFrame argument must not be null");
         }
-        return new ConcurrentDFWriter(file, df).execute();
+        if(executor == null){
+            throw new IllegalArgumentException(
+                    "The Executor argument must not be null");
+        }
+        return new ConcurrentDFWriter(file, df).execute(executor);
     }
 
     /**
@@ -340,7 +533,150 @@ public final class DataFrameSerializer {
             throw new SerializationException("DataFrame argument must not be null");
         }
         try{
-            return (compress ? compress(serializeImplv2(df)) : serializeImplv2(df));
+            if(!compress){
+                return serializeImplv2(df);
+            }
+            final Layout layout = layoutImplv2(df);
+            final ThreadResources res = RESOURCES.get();
+            final byte[] bytes = res.serialBuffer(layout.size);
+            serializeImplv2(df, layout, bytes, 0);
+            return compress(res, bytes, 0, layout.size);
+        }catch(SerializationException ex){
+            throw ex;
+        }catch(Exception ex){
+            //catch any unchecked runtime exception which at this point can
+            //only be caused by improper or malicious usage of the DataFrame API
+            throw new SerializationException(
+                    "Serialization failed due to an invalid DataFrame format", ex);
+        }
+    }
+
+    /**
+     * Computes the exact number of bytes of the uncompressed serialized form
+     * of the given <code>DataFrame</code>. This can be used to allocate a
+     * buffer of sufficient size to be passed to
+     * the {@link DataFrameSerializer#serialize(DataFrame, ByteBuffer)} method.
+     * 
+     * @param df The DataFrame to compute the serialized size for. Must not be null
+     * @return The number of bytes of the given DataFrame in a serialized form
+     * @throws SerializationException If the serialized size of the given DataFrame
+     *                                exceeds the maximum supported size
+     */
+    public static int serializedSize(final DataFrame df) throws SerializationException{
+        if(df == null){
+            throw new SerializationException("DataFrame argument must not be null");
+        }
+        return layoutImplv2(df).size;
+    }
+
+    /**
+     * Serializes the given <code>DataFrame</code> to the specified buffer.<br>
+     * The serialized bytes are not compressed. The compression can be controlled
+     * by passing an additional boolean flag to the arguments.
+     * 
+     * <p>See {@link DataFrameSerializer#serialize(DataFrame, ByteBuffer, boolean)}
+     * 
+     * @param df The DataFrame to serialize. Must not be null
+     * @param buffer The <code>ByteBuffer</code> to write the serialized DataFrame to.
+     *               Must not be null
+     * @return The number of bytes written to the specified buffer
+     * @throws SerializationException If any errors occur during serialization, or
+     *                                if the buffer has insufficient remaining space
+     */
+    public static int serialize(final DataFrame df, final ByteBuffer buffer)
+            throws SerializationException{
+
+        return serialize(df, buffer, MODE_UNCOMPRESSED);
+    }
+
+    /**
+     * Serializes the given <code>DataFrame</code> to the specified buffer.<br>
+     * The bytes are written starting at the current position of the buffer.
+     * Upon return, the position is advanced by the number of bytes written.
+     * If the buffer has insufficient remaining space, then a
+     * <code>SerializationException</code> is thrown and the position of the
+     * buffer is left unchanged. The number of bytes required for an
+     * uncompressed DataFrame can be determined in advance by
+     * the {@link DataFrameSerializer#serializedSize(DataFrame)} method.
+     * 
+     * <p>This method does not allocate any arrays proportional to the size of
+     * the DataFrame if the given buffer is backed by an accessible array.
+     * Buffers are reused by the calling thread otherwise, as well as the
+     * <code>Deflater</code> used for compression.
+     * 
+     * @param df The DataFrame to serialize. Must not be null
+     * @param buffer The <code>ByteBuffer</code> to write the serialized DataFrame to.
+     *               Must not be null
+     * @param compress A boolean flag indicating whether to compress the serialized bytes.
+     *                 Must be either {@link DataFrameSerializer#MODE_COMPRESSED}
+     *                 or {@link DataFrameSerializer#MODE_UNCOMPRESSED}
+     * @return The number of bytes written to the specified buffer
+     * @throws SerializationException If any errors occur during serialization, or
+     *                                if the buffer has insufficient remaining space
+     */
+    public static int serialize(final DataFrame df, final ByteBuffer buffer,
+            final boolean compress) throws SerializationException{
+
+        if(df == null){
+            throw new SerializationException("DataFrame argument must not be null");
+        }
+        if(buffer == null){
+            throw new SerializationException("Buffer argument must not be null");
+        }
+        if(buffer.isReadOnly()){
+            throw new SerializationException("Buffer argument must not be read-only");
+        }
+        try{
+            final Layout layout = layoutImplv2(df);
+            final ThreadResources res = RESOURCES.get();
+            final int remaining = buffer.remaining();
+            final boolean direct = !buffer.hasArray();
+            int length;
+            if(!compress){
+                if(layout.size > remaining){
+                    throw new SerializationException(String.format(
+                            "Insufficient buffer capacity. Requires %s bytes but "
+                            + "only %s bytes are remaining", layout.size, remaining));
+                }
+                if(direct){
+                    final byte[] bytes = res.serialBuffer(layout.size);
+                    serializeImplv2(df, layout, bytes, 0);
+                    buffer.put(bytes, 0, layout.size);
+                }else{
+                    serializeImplv2(df, layout, buffer.array(),
+                            buffer.arrayOffset() + buffer.position());
+
+                    buffer.position(buffer.position() + layout.size);
+                }
+                length = layout.size;
+            }else{
+                final byte[] bytes = res.serialBuffer(layout.size);
+                serializeImplv2(df, layout, bytes, 0);
+                if(direct){
+                    final byte[] out = res.deflateBuffer(
+                            Math.min(remaining, deflateBound(layout.size)));
+
+                    length = deflate(res, bytes, 0, layout.size, out, 0,
+                            Math.min(remaining, out.length));
+
+                    if(length >= 0){
+                        buffer.put(out, 0, length);
+                    }
+                }else{
+                    length = deflate(res, bytes, 0, layout.size, buffer.array(),
+                            buffer.arrayOffset() + buffer.position(), remaining);
+
+                    if(length >= 0){
+                        buffer.position(buffer.position() + length);
+                    }
+                }
+                if(length < 0){
+                    throw new SerializationException(String.format(
+                            "Insufficient buffer capacity. Compressed DataFrame "
+                            + "exceeds %s remaining bytes", remaining));
+                }
+            }
+            return length;
         }catch(SerializationException ex){
             throw ex;
         }catch(Exception ex){
@@ -355,15 +691,12 @@ public final class DataFrameSerializer {
      * Deserializes the given array of bytes to a <code>DataFrame</code>.
      * 
      * <p>If the given byte array is compressed, it will be automatically
-     * decompressed before the deserialization is executed. The byte array of
-     * the provided reference may be affected by this operation as long as
-     * decompression is in process. The original state, however, will be restored
-     * after decompression. This approach helps avoid additional copy operations and
-     * should be considered when writing multi-threaded code that uses deserialization
-     * as provided by this method.
+     * decompressed before the deserialization is executed. Decompression is
+     * done with an <code>Inflater</code> and a buffer which are reused by
+     * the calling thread.
      * 
-     * <p>Deserialization of uncompressed arrays does only require read access and
-     * therefore will never alter the content of the provided array
+     * <p>Deserialization does only require read access and therefore will
+     * never alter the content of the provided array
      * 
      * @param bytes The byte array representing the DataFrame to deserialize.
      *              Must not be null
@@ -373,28 +706,160 @@ public final class DataFrameSerializer {
      *                                does not constitute a DataFrame
      */
     public static DataFrame deserialize(byte[] bytes) throws SerializationException{
+        return deserialize(bytes, false);
+    }
+
+    /**
+     * Deserializes the given array of bytes to a <code>DataFrame</code> whose
+     * columns are decoded lazily.
+     * 
+     * <p>Only the header of the serialized DataFrame is decoded by this method.
+     * The payload of each column is kept in its serialized form until the column
+     * is accessed for the first time, at which point it is decoded and cached.
+     * Accessing individual values, columns, column names or the size of the
+     * returned DataFrame therefore only decodes the columns involved. All other
+     * operations decode all remaining columns first. This makes lazy
+     * deserialization suitable for short-lived DataFrames of which only a
+     * few columns are used.
+     * 
+     * <p>The returned DataFrame keeps its own copy of the undecoded bytes, so
+     * the provided array may be modified or reused after this method returns.
+     * If the given byte array is compressed, it is decompressed completely
+     * before this method returns.
+     * 
+     * <p>The returned DataFrame is neither a <code>DefaultDataFrame</code>
+     * nor a <code>NullableDataFrame</code>. The {@link DataFrame#isNullable()}
+     * method indicates which implementation it represents. A concrete instance
+     * can be obtained by {@link DataFrame#copy(DataFrame)}. Just like the
+     * concrete implementations, the returned DataFrame is only equal to other
+     * lazily deserialized DataFrames with the same content.
+     * 
+     * @param bytes The byte array representing the DataFrame to deserialize.
+     *              Must not be null
+     * @return A DataFrame from the given array of bytes which
+     *         decodes its columns on demand
+     * @throws SerializationException If any errors occur during deserialization
+     *                                or decompression, or if the given byte array
+     *                                does not constitute a DataFrame
+     * @since 4.1.0
+     */
+    public static DataFrame deserializeLazily(final byte[] bytes)
+            throws SerializationException{
+
+        return deserialize(bytes, true);
+    }
+
+    /**
+     * Deserializes the given array of bytes to a <code>DataFrame</code>
+     * 
+     * @param bytes The byte array representing the DataFrame to deserialize
+     * @param lazy Indicates whether to defer the decoding of the columns
+     * @return A DataFrame from the given array of bytes
+     * @throws SerializationException If any errors occur during deserialization
+     */
+    private static DataFrame deserialize(final byte[] bytes, final boolean lazy)
+            throws SerializationException{
+
         if(bytes == null){
             throw new SerializationException("Array argument must not be null");
         }
         try{
             if((bytes[0] == DF_BYTE0) && (bytes[1] == DF_BYTE1)){
-                bytes = decompress(bytes);
+                final ThreadResources res = RESOURCES.get();
+                return deserializeUncompressed(
+                        inflate(res, bytes, 0, bytes.length), 0, lazy);
             }
-            //validate the first bytes of the header and the used format version
-            //must start with '{v:'
-            if((bytes[0] != 0x7b) || (bytes[1] != 0x76) || (bytes[2] != 0x3a)
-                    || ((bytes[3] != 0x32) && (bytes[3] != 0x31))){//version 2 and 1 supported
+            return deserializeUncompressed(bytes, 0, lazy);
+        }catch(SerializationException ex){
+            throw ex;
+        }catch(Exception ex){
+            //catch any unchecked exception which at
+            //this point can only be caused by an invalid format
+            throw new SerializationException(
+                    "Deserialization failed due to an invalid DataFrame format", ex);
+        }
+    }
 
-                throw new SerializationException(String.format("Unsupported encoding (v:%s)",
-                        ((char)bytes[3])));
-            }
-            if(bytes[3] == 0x32){//encoding version 2
-                return deserializeImplv2(bytes);
+    /**
+     * Deserializes the remaining bytes of the given buffer to a <code>DataFrame</code>.
+     * The bytes between the position and the limit of the buffer must represent
+     * exactly one serialized DataFrame. Upon return, the position of the buffer
+     * is set to its limit.
+     * 
+     * <p>If the bytes are compressed, they will be automatically decompressed
+     * before the deserialization is executed. Heap buffers are read directly
+     * without copying their content. The content of the given buffer is
+     * never altered by this method.
+     * 
+     * @param buffer The <code>ByteBuffer</code> holding the serialized DataFrame.
+     *               Must not be null
+     * @return A DataFrame from the remaining bytes of the given buffer
+     * @throws SerializationException If any errors occur during deserialization
+     *                                or decompression, or if the remaining bytes
+     *                                do not constitute a DataFrame
+     */
+    public static DataFrame deserialize(final ByteBuffer buffer)
+            throws SerializationException{
+
+        return deserialize(buffer, false);
+    }
+
+    /**
+     * Deserializes the remaining bytes of the given buffer to
+     * a <code>DataFrame</code> whose columns are decoded lazily.
+     * Upon return, the position of the buffer is set to its limit.
+     * 
+     * <p>See {@link DataFrameSerializer#deserializeLazily(byte[])}
+     * 
+     * @param buffer The <code>ByteBuffer</code> holding the serialized DataFrame.
+     *               Must not be null
+     * @return A DataFrame from the remaining bytes of the given buffer
+     *         which decodes its columns on demand
+     * @throws SerializationException If any errors occur during deserialization
+     *                                or decompression, or if the remaining bytes
+     *                                do not constitute a DataFrame
+     * @since 4.1.0
+     */
+    public static DataFrame deserializeLazily(final ByteBuffer buffer)
+            throws SerializationException{
+
+        return deserialize(buffer, true);
+    }
+
+    /**
+     * Deserializes the remaining bytes of the given buffer to a <code>DataFrame</code>
+     * 
+     * @param buffer The <code>ByteBuffer</code> holding the serialized DataFrame
+     * @param lazy Indicates whether to defer the decoding of the columns
+     * @return A DataFrame from the remaining bytes of the given buffer
+     * @throws SerializationException If any errors occur during deserialization
+     */
+    private static DataFrame deserialize(final ByteBuffer buffer, final boolean lazy)
+            throws SerializationException{
+
+        if(buffer == null){
+            throw new SerializationException("Buffer argument must not be null");
+        }
+        try{
+            final int length = buffer.remaining();
+            final ThreadResources res = RESOURCES.get();
+            byte[] bytes;
+            int offset;
+            if(buffer.hasArray()){
+                bytes = buffer.array();
+                offset = buffer.arrayOffset() + buffer.position();
             }else{
-                throw new SerializationException(
-                        String.format("Unsupported encoding version (v:%s)",
-                        ((char)bytes[3])));
+                bytes = res.serialBuffer(length);
+                offset = 0;
+                buffer.duplicate().get(bytes, 0, length);
             }
+            if((bytes[offset] == DF_BYTE0) && (bytes[offset+1] == DF_BYTE1)){
+                bytes = inflate(res, bytes, offset, length);
+                offset = 0;
+            }
+            final DataFrame df = deserializeUncompressed(bytes, offset, lazy);
+            buffer.position(buffer.limit());
+            return df;
         }catch(SerializationException ex){
             throw ex;
         }catch(Exception ex){
@@ -428,20 +893,92 @@ public final class DataFrameSerializer {
         byte[] bytes = new byte[2048];
         final ByteArrayOutputStream baos = new ByteArrayOutputStream(bytes.length);
         try{
-            while((buffer.read(bytes, 0, bytes.length)) != -1){
-                baos.write(bytes, 0, bytes.length);
+            int n;
+            while((n = buffer.read(bytes, 0, bytes.length)) != -1){
+                baos.write(bytes, 0, n);
             }
         }finally{
             buffer.close();
         }
         bytes = baos.toByteArray();
-        if(bytes[0] != DF_BYTE0 || bytes[1] != DF_BYTE1){
+        if(RowGroupIndex.isRowGroupFile(bytes)){
+            return readRowGroups(bytes);
+        }
+        if(bytes.length < 2 || bytes[0] != DF_BYTE0 || bytes[1] != DF_BYTE1){
             throw new IOException(String.format(
                     "Is not a %s file. Starts with 0x%02X 0x%02X",
                     DF_FILE_EXTENSION, bytes[0], bytes[1]));
 
         }
-        return deserialize(decompress(bytes));
+        return deserialize(bytes);
+    }
+
+    /**
+     * Reads the rows in the specified range from the specified row-group
+     * based file as written by a {@link DataFrameAppender}. Only the row groups
+     * which overlap with the specified range are read and decompressed.
+     * 
+     * @param file The file to read. Must be a row-group based <code>.df</code> file
+     * @param from The index of the first row to read (inclusive)
+     * @param to The index of the last row to read (exclusive)
+     * @return A DataFrame holding all rows in the specified range
+     * @throws IOException If any errors occur during file reading, or if the
+     *                     specified file is not a row-group based file
+     * @throws SerializationException If any errors occur during deserialization,
+     *                                or if the specified row range is invalid
+     */
+    public static DataFrame readRows(final String file, final int from, final int to)
+            throws IOException, SerializationException{
+
+        return readRows(new File(file), from, to);
+    }
+
+    /**
+     * Reads the rows in the specified range from the specified row-group
+     * based file as written by a {@link DataFrameAppender}. Only the row groups
+     * which overlap with the specified range are read and decompressed.
+     * 
+     * @param file The file to read. Must be a row-group based <code>.df</code> file
+     * @param from The index of the first row to read (inclusive)
+     * @param to The index of the last row to read (exclusive)
+     * @return A DataFrame holding all rows in the specified range
+     * @throws IOException If any errors occur during file reading, or if the
+     *                     specified file is not a row-group based file
+     * @throws SerializationException If any errors occur during deserialization,
+     *                                or if the specified row range is invalid
+     */
+    public static DataFrame readRows(final File file, final int from, final int to)
+            throws IOException, SerializationException{
+
+        if(file == null){
+            throw new SerializationException("File argument must not be null");
+        }
+        try(RandomAccessFile raf = new RandomAccessFile(file, "r")){
+            final FileChannel channel = raf.getChannel();
+            final RowGroupIndex index = RowGroupIndex.read(channel);
+            if((from < 0) || (from >= to) || (to > index.totalRows())){
+                throw new SerializationException(String.format(
+                        "Invalid row range: [%s, %s)", from, to));
+            }
+            final DataFrame[] parts = new DataFrame[index.size()];
+            int count = 0;
+            long start = 0;
+            for(int i=0; i<index.size(); ++i){
+                final long end = start + index.rows(i);
+                if((end > from) && (start < to)){
+                    DataFrame part = deserialize(RowGroupIndex.readFully(
+                            channel, index.offset(i), index.length(i)).array());
+
+                    if((start < from) || (end > to)){
+                        part = part.getRows((int) Math.max(0, from - start),
+                                (int) (Math.min(end, to) - start));
+                    }
+                    parts[count++] = part;
+                }
+                start = end;
+            }
+            return DataFrame.concat(Arrays.copyOf(parts, count));
+        }
     }
 
     /**
@@ -467,7 +1004,7 @@ public final class DataFrameSerializer {
         }
         final BufferedOutputStream buffer = new BufferedOutputStream(os);
         try{
-            buffer.write(compress(serialize(df)));
+            buffer.write(serialize(df, MODE_COMPRESSED));
         }finally{
             buffer.close();
         }
@@ -481,109 +1018,290 @@ public final class DataFrameSerializer {
      * @throws SerializationException If any errors occur during serialization
      */
     private static byte[] serializeImplv2(final DataFrame df) throws SerializationException{
-        int ptr = 4;//place on write ready position
-        byte[] bytes = new byte[2048];
-        //HEADER
-        //must start with {v:2;
-        bytes[0] = 0x7b; bytes[1] = 0x76; bytes[2] = 0x3a;
-        bytes[3] = 0x32; bytes[4] = 0x3b;
-
-        //impl: default=0x64 nullable=0x6e
-        bytes[++ptr] = (df.isNullable() ? (byte)0x6e : (byte)0x64);
+        final Layout layout = layoutImplv2(df);
+        final byte[] bytes = new byte[layout.size];
+        serializeImplv2(df, layout, bytes, 0);
+        return bytes;
+    }
 
+    /**
+     * Computes the layout of the serialized form of the specified DataFrame in
+     * the binary-based <b>version 2</b> format (v2), i.e. the exact number of bytes
+     * required and the number of byte blocks of the lookup list.<br>
+     * This is the first pass of the serialization. It allows the second pass to
+     * write all bytes directly to an array of the exact size without having to
+     * resize any intermediate arrays.
+     * 
+     * @param df The DataFrame to compute the layout for
+     * @return The <code>Layout</code> of the serialized DataFrame
+     * @throws SerializationException If the serialized DataFrame would exceed
+     *                                the maximum array capacity
+     */
+    private static Layout layoutImplv2(final DataFrame df) throws SerializationException{
         final int rows = df.rows();
-        bytes[++ptr] = (byte) ((rows & 0xff000000) >> 24);
-        bytes[++ptr] = (byte) ((rows & 0xff0000) >> 16);
-        bytes[++ptr] = (byte) ((rows & 0xff00) >> 8);
-        bytes[++ptr] = (byte)  (rows & 0xff);
-
         final int cols = df.columns();
-        bytes[++ptr] = (byte) ((cols & 0xff000000) >> 24);
-        bytes[++ptr] = (byte) ((cols & 0xff0000) >> 16);
-        bytes[++ptr] = (byte) ((cols & 0xff00) >> 8);
-        bytes[++ptr] = (byte)  (cols & 0xff);
-
+        //header '{v:2;' + impl + rows + cols, the type codes and closing brace '}'
+        long size = 14 + cols + 1;
         if(df.hasColumnNames()){
             for(final String name : df.getColumnNames()){
-                bytes = ensureCapacity(bytes, ptr+name.length()+2);
-                for(final byte b : name.getBytes(UTF_8)){
-                    bytes[++ptr] = b;
-                }
-                ++ptr;//add null character as name delimeter
+                size += utf8Length(name) + 1;
             }
         }else{
-            //set indices as strings
             for(int i=0; i<cols; ++i){
-                final String name = String.valueOf(i);
-                bytes = ensureCapacity(bytes, ptr+name.length()+2);
-                for(final byte b : name.getBytes(UTF_8)){
-                    bytes[++ptr] = b;
-                }
-                ++ptr;
+                size += String.valueOf(i).length() + 1;
             }
         }
-        bytes = ensureCapacity(bytes, ptr+cols+4);
+        final int boolLength = ((rows%8==0) ? (rows/8) : ((rows/8)+1));
+        //number of bits in the lookup list
+        long li = 0L;
         for(int m=0; m<cols; ++m){
-            bytes[++ptr] = df.getColumn(m).typeCode();
-        }
-
-        if(df.isNullable()){//NullableDataFrame
-            //The specification requires a lookup list for differentiating between 
-            //default values (for example: zeros for numbers) and actual null values.
-            //This is implemented here as a bit vector initialized with all bits
-            //set to zero. The resizing and bounds checks are also handled here to
-            //avoid additional function calls.
-            //As the lookup list is part of the header, we must first serialize the
-            //entire payload and build the lookup list and then bind all the parts
-            //together at the end
-            final byte[] header = copyBytes(bytes, 0, ptr+1);
-            bytes = new byte[2048];
-            ptr = -1;//reset index pointer
-
-            //the lookup list
-            byte[] lookupBits = new byte[512];
-            //index pointer pointing to the current valid byte block
-            //for write operations to the lookup list
-            int ptrB = 0;
-            //list index pointing to the next writable bit within the lookup list
-            long li = 0l;
-            //PAYLOAD
-            for(int m=0; m<cols; ++m){
-                final Column col = df.getColumn(m);
-                switch(col.typeCode()){
+            final Column col = df.getColumn(m);
+            switch(col.typeCode()){
+            case ByteColumn.TYPE_CODE:
+            case CharColumn.TYPE_CODE:
+            case NullableCharColumn.TYPE_CODE:
+                size += rows;
+                break;
+            case ShortColumn.TYPE_CODE:
+                size += (rows*2L);
+                break;
+            case IntColumn.TYPE_CODE:
+            case FloatColumn.TYPE_CODE:
+                size += (rows*4L);
+                break;
+            case LongColumn.TYPE_CODE:
+            case DoubleColumn.TYPE_CODE:
+                size += (rows*8L);
+                break;
+            case BooleanColumn.TYPE_CODE:
+                size += boolLength;
+                break;
+            case StringColumn.TYPE_CODE:{
+                final String[] val = ((StringColumn)col).asArray();
+                size += rows;
+                for(int i=0; i<rows; ++i){
+                    size += utf8Length(val[i]);
+                }
+                break;
+            }case BinaryColumn.TYPE_CODE:{
+                final byte[][] val = ((BinaryColumn)col).asArray();
+                size += (rows*4L);
+                for(int i=0; i<rows; ++i){
+                    size += val[i].length;
+                }
+                break;
+            }case NullableByteColumn.TYPE_CODE:{
+                final Byte[] val = ((NullableByteColumn)col).asArray();
+                size += rows;
+                for(int i=0; i<rows; ++i){
+                    if((val[i] == null) || (val[i] == 0)){
+                        ++li;
+                    }
+                }
+                break;
+            }case NullableShortColumn.TYPE_CODE:{
+                final Short[] val = ((NullableShortColumn)col).asArray();
+                size += (rows*2L);
+                for(int i=0; i<rows; ++i){
+                    if((val[i] == null) || (val[i] == 0)){
+                        ++li;
+                    }
+                }
+                break;
+            }case NullableIntColumn.TYPE_CODE:{
+                final Integer[] val = ((NullableIntColumn)col).asArray();
+                size += (rows*4L);
+                for(int i=0; i<rows; ++i){
+                    if((val[i] == null) || (val[i] == 0)){
+                        ++li;
+                    }
+                }
+                break;
+            }case NullableLongColumn.TYPE_CODE:{
+                final Long[] val = ((NullableLongColumn)col).asArray();
+                size += (rows*8L);
+                for(int i=0; i<rows; ++i){
+                    if((val[i] == null) || (val[i] == 0)){
+                        ++li;
+                    }
+                }
+                break;
+            }case NullableStringColumn.TYPE_CODE:{
+                final String[] val = ((NullableStringColumn)col).asArray();
+                size += rows;
+                for(int i=0; i<rows; ++i){
+                    if((val[i] == null) || (val[i].isEmpty())){
+                        ++li;
+                    }else{
+                        size += utf8Length(val[i]);
+                    }
+                }
+                break;
+            }case NullableFloatColumn.TYPE_CODE:{
+                final Float[] val = ((NullableFloatColumn)col).asArray();
+                size += (rows*4L);
+                for(int i=0; i<rows; ++i){
+                    if((val[i] == null) || (Float.floatToIntBits(val[i]) == 0)){
+                        ++li;
+                    }
+                }
+                break;
+            }case NullableDoubleColumn.TYPE_CODE:{
+                final Double[] val = ((NullableDoubleColumn)col).asArray();
+                size += (rows*8L);
+                for(int i=0; i<rows; ++i){
+                    if((val[i] == null) || (Double.doubleToLongBits(val[i]) == 0)){
+                        ++li;
+                    }
+                }
+                break;
+            }case NullableBooleanColumn.TYPE_CODE:{
+                final Boolean[] val = ((NullableBooleanColumn)col).asArray();
+                size += boolLength;
+                for(int i=0; i<rows; ++i){
+                    if((val[i] == null) || (val[i] == false)){
+                        ++li;
+                    }
+                }
+                break;
+            }case NullableBinaryColumn.TYPE_CODE:{
+                final byte[][] val = ((NullableBinaryColumn)col).asArray();
+                size += (rows*4L);
+                for(int i=0; i<rows; ++i){
+                    if(val[i] != null){
+                        size += val[i].length;
+                    }
+                }
+                break;
+            }
+            default:
+                throw new SerializationException("Unknown column type: "
+                        + col.getClass().getName());
+            }
+        }
+        int lookupLength = 0;
+        if(df.isNullable()){
+            //Number of byte blocks of the lookup list.
+            //The specification requires that the lookup
+            //list has a minimum length of one block
+            lookupLength = (int) ((li == 0) ? 1 : (((li-1)/8L)+1));
+            size += (4 + lookupLength);
+        }
+        if(size > MAX_ARRAY_SIZE){
+            throw new SerializationException(
+                    "Array length exceeds maximum capacity");
+        }
+        return new Layout((int) size, lookupLength);
+    }
+
+    /**
+     * Serialization to the binary-based <b>version 2</b> format (v2).<br>
+     * This is the second pass of the serialization. All bytes are written to
+     * the specified array starting at the specified offset. The array must be
+     * able to hold the number of bytes specified by the given layout.
+     * Every byte within that range is written, so the content of the array
+     * prior to this operation is irrelevant.
+     * 
+     * @param df The DataFrame to serialize
+     * @param layout The layout of the serialized DataFrame as computed by
+     *               the <code>layoutImplv2()</code> method
+     * @param bytes The array to write the serialized DataFrame to
+     * @param offset The position within the array to start writing at
+     * @throws SerializationException If any errors occur during serialization
+     */
+    private static void serializeImplv2(final DataFrame df, final Layout layout,
+            final byte[] bytes, final int offset) throws SerializationException{
+
+        int ptr = offset+4;//place on write ready position
+        //HEADER
+        //must start with {v:2;
+        bytes[offset] = 0x7b; bytes[offset+1] = 0x76; bytes[offset+2] = 0x3a;
+        bytes[offset+3] = 0x32; bytes[offset+4] = 0x3b;
+
+        //impl: default=0x64 nullable=0x6e
+        bytes[++ptr] = (df.isNullable() ? (byte)0x6e : (byte)0x64);
+
+        final int rows = df.rows();
+        bytes[++ptr] = (byte) ((rows & 0xff000000) >> 24);
+        bytes[++ptr] = (byte) ((rows & 0xff0000) >> 16);
+        bytes[++ptr] = (byte) ((rows & 0xff00) >> 8);
+        bytes[++ptr] = (byte)  (rows & 0xff);
+
+        final int cols = df.columns();
+        bytes[++ptr] = (byte) ((cols & 0xff000000) >> 24);
+        bytes[++ptr] = (byte) ((cols & 0xff0000) >> 16);
+        bytes[++ptr] = (byte) ((cols & 0xff00) >> 8);
+        bytes[++ptr] = (byte)  (cols & 0xff);
+
+        if(df.hasColumnNames()){
+            for(final String name : df.getColumnNames()){
+                ptr = putUtf8(name, bytes, ptr);
+                bytes[++ptr] = 0;//add null character as name delimeter
+            }
+        }else{
+            //set indices as strings
+            for(int i=0; i<cols; ++i){
+                ptr = putUtf8(String.valueOf(i), bytes, ptr);
+                bytes[++ptr] = 0;
+            }
+        }
+        for(int m=0; m<cols; ++m){
+            bytes[++ptr] = df.getColumn(m).typeCode();
+        }
+
+        if(df.isNullable()){//NullableDataFrame
+            //The specification requires a lookup list for differentiating between
+            //default values (for example: zeros for numbers) and actual null values.
+            //This is implemented here as a bit vector initialized with all bits
+            //set to zero. As the exact length of the lookup list is known from
+            //the layout, the lookup bits are directly written to their final
+            //position within the header while the payload is serialized
+            final int bLength = layout.lookupLength;
+            bytes[++ptr] = (byte) ((bLength & 0xff000000) >> 24);
+            bytes[++ptr] = (byte) ((bLength & 0xff0000) >> 16);
+            bytes[++ptr] = (byte) ((bLength & 0xff00) >> 8);
+            bytes[++ptr] = (byte)  (bLength & 0xff);
+            //position of the first byte block of the lookup list
+            final int lb = ptr+1;
+            Arrays.fill(bytes, lb, lb+bLength, (byte)0);
+            ptr += bLength;
+            //add header closing brace '}'
+            bytes[++ptr] = 0x7d;
+            //END HEADER
+
+            //list index pointing to the next writable bit within the lookup list
+            long li = 0L;
+            //PAYLOAD
+            for(int m=0; m<cols; ++m){
+                final Column col = df.getColumn(m);
+                switch(col.typeCode()){
                 case NullableByteColumn.TYPE_CODE:{
-                    bytes = ensureCapacity(bytes, ptr+rows+2);
                     final Byte[] val = ((NullableByteColumn)col).asArray();
                     for(int i=0; i<rows; ++i){
                         if(val[i] == null){
-                            ++ptr;
-                            if(ptrB >= lookupBits.length){
-                                lookupBits = resize(lookupBits, ptrB);
-                            }
-                            lookupBits[ptrB] |= (1 << (7-(li%8L)));
-                            ptrB = (int) ((++li)/8L);
+                            bytes[++ptr] = 0;
+                            bytes[lb+(int)(li/8L)] |= (1 << (7-(li%8L)));
+                            ++li;
                         }else if(val[i] == 0){
-                            ++ptr;
-                            ptrB = (int) ((++li)/8L);
+                            bytes[++ptr] = 0;
+                            ++li;
                         }else{
                             bytes[++ptr] = val[i];
                         }
                     }
                     break;
                 }case NullableShortColumn.TYPE_CODE:{
-                    bytes = ensureCapacity(bytes, ptr+(rows*2)+2);
                     final Short[] val = ((NullableShortColumn)col).asArray();
                     for(int i=0; i<rows; ++i){
                         if(val[i] == null){
-                            ptr += 2;
-                            if(ptrB >= lookupBits.length){
-                                lookupBits = resize(lookupBits, ptrB);
-                            }
-                            lookupBits[ptrB] |= (1 << (7-(li%8L)));
-                            ptrB = (int) ((++li)/8L);
+                            bytes[++ptr] = 0;
+                            bytes[++ptr] = 0;
+                            bytes[lb+(int)(li/8L)] |= (1 << (7-(li%8L)));
+                            ++li;
                         }else if(val[i] == 0){
-                            ptr += 2;
-                            ptrB = (int) ((++li)/8L);
+                            bytes[++ptr] = 0;
+                            bytes[++ptr] = 0;
+                            ++li;
                         }else{
                             bytes[++ptr] = (byte) ((val[i] & 0xff00) >> 8);
                             bytes[++ptr] = (byte)  (val[i] & 0xff);
@@ -591,19 +1309,17 @@ public final class DataFrameSerializer {
                     }
                     break;
                 }case NullableIntColumn.TYPE_CODE:{
-                    bytes = ensureCapacity(bytes, ptr+(rows*4)+2);
                     final Integer[] val = ((NullableIntColumn)col).asArray();
                     for(int i=0; i<rows; ++i){
                         if(val[i] == null){
+                            Arrays.fill(bytes, ptr+1, ptr+5, (byte)0);
                             ptr += 4;
-                            if(ptrB >= lookupBits.length){
-                                lookupBits = resize(lookupBits, ptrB);
-                            }
-                            lookupBits[ptrB] |= (1 << (7-(li%8L)));
-                            ptrB = (int) ((++li)/8L);
+                            bytes[lb+(int)(li/8L)] |= (1 << (7-(li%8L)));
+                            ++li;
                         }else if(val[i] == 0){
+                            Arrays.fill(bytes, ptr+1, ptr+5, (byte)0);
                             ptr += 4;
-                            ptrB = (int) ((++li)/8L);
+                            ++li;
                         }else{
                             bytes[++ptr] = (byte) ((val[i] & 0xff000000) >> 24);
                             bytes[++ptr] = (byte) ((val[i] & 0xff0000) >> 16);
@@ -613,19 +1329,17 @@ public final class DataFrameSerializer {
                     }
                     break;
                 }case NullableLongColumn.TYPE_CODE:{
-                    bytes = ensureCapacity(bytes, ptr+(rows*8)+2);
                     final Long[] val = ((NullableLongColumn)col).asArray();
                     for(int i=0; i<rows; ++i){
                         if(val[i] == null){
+                            Arrays.fill(bytes, ptr+1, ptr+9, (byte)0);
                             ptr += 8;
-                            if(ptrB >= lookupBits.length){
-                                lookupBits = resize(lookupBits, ptrB);
-                            }
-                            lookupBits[ptrB] |= (1 << (7-(li%8L)));
-                            ptrB = (int) ((++li)/8L);
+                            bytes[lb+(int)(li/8L)] |= (1 << (7-(li%8L)));
+                            ++li;
                         }else if(val[i] == 0){
+                            Arrays.fill(bytes, ptr+1, ptr+9, (byte)0);
                             ptr += 8;
-                            ptrB = (int) ((++li)/8L);
+                            ++li;
                         }else{
                             bytes[++ptr] = (byte) ((val[i] & 0xff00000000000000L) >> 56);
                             bytes[++ptr] = (byte) ((val[i] & 0xff000000000000L) >> 48);
@@ -642,86 +1356,65 @@ public final class DataFrameSerializer {
                     final String[] val = ((NullableStringColumn)col).asArray();
                     for(int i=0; i<rows; ++i){
                         if(val[i] == null){
-                            bytes = ensureCapacity(bytes, ptr+1);
-                            if(ptrB >= lookupBits.length){
-                                lookupBits = resize(lookupBits, ptrB);
-                            }
-                            lookupBits[ptrB] |= (1 << (7-(li%8L)));
-                            ptrB = (int) ((++li)/8L);
+                            bytes[lb+(int)(li/8L)] |= (1 << (7-(li%8L)));
+                            ++li;
                         }else if(val[i].isEmpty()){
-                            bytes = ensureCapacity(bytes, ptr+1);
-                            ptrB = (int) ((++li)/8L);
+                            ++li;
                         }else{
-                            final byte[] b = val[i].getBytes(UTF_8);
-                            final int length = b.length;
-                            bytes = ensureCapacity(bytes, ptr+length+2);
-                            for(int j=0; j<length; ++j){
-                                bytes[++ptr] = b[j];
-                            }
+                            ptr = putUtf8(val[i], bytes, ptr);
                         }
-                        ++ptr;//add null character as string delimeter
+                        bytes[++ptr] = 0;//add null character as string delimeter
                     }
                     break;
                 }case NullableFloatColumn.TYPE_CODE:{
-                    bytes = ensureCapacity(bytes, ptr+(rows*4)+2);
                     final Float[] val = ((NullableFloatColumn)col).asArray();
                     for(int i=0; i<rows; ++i){
                         if(val[i] == null){
+                            Arrays.fill(bytes, ptr+1, ptr+5, (byte)0);
                             ptr += 4;
-                            if(ptrB >= lookupBits.length){
-                                lookupBits = resize(lookupBits, ptrB);
-                            }
-                            lookupBits[ptrB] |= (1 << (7-(li%8L)));
-                            ptrB = (int) ((++li)/8L);
+                            bytes[lb+(int)(li/8L)] |= (1 << (7-(li%8L)));
+                            ++li;
                         }else{
                             final int f = Float.floatToIntBits(val[i]);
                             if(f == 0){
-                                ptr += 4;
-                                ptrB = (int) ((++li)/8L);
-                            }else{
-                                bytes[++ptr] = (byte) ((f & 0xff000000) >> 24);
-                                bytes[++ptr] = (byte) ((f & 0xff0000) >> 16);
-                                bytes[++ptr] = (byte) ((f & 0xff00) >> 8);
-                                bytes[++ptr] = (byte)  (f & 0xff);
+                                ++li;
                             }
+                            bytes[++ptr] = (byte) ((f & 0xff000000) >> 24);
+                            bytes[++ptr] = (byte) ((f & 0xff0000) >> 16);
+                            bytes[++ptr] = (byte) ((f & 0xff00) >> 8);
+                            bytes[++ptr] = (byte)  (f & 0xff);
                         }
                     }
                     break;
                 }case NullableDoubleColumn.TYPE_CODE:{
-                    bytes = ensureCapacity(bytes, ptr+(rows*8)+2);
                     final Double[] val = ((NullableDoubleColumn)col).asArray();
                     for(int i=0; i<rows; ++i){
                         if(val[i] == null){
+                            Arrays.fill(bytes, ptr+1, ptr+9, (byte)0);
                             ptr += 8;
-                            if(ptrB >= lookupBits.length){
-                                lookupBits = resize(lookupBits, ptrB);
-                            }
-                            lookupBits[ptrB] |= (1 << (7-(li%8L)));
-                            ptrB = (int) ((++li)/8L);
+                            bytes[lb+(int)(li/8L)] |= (1 << (7-(li%8L)));
+                            ++li;
                         }else{
                             final long f = Double.doubleToLongBits(val[i]);
                             if(f == 0){
-                                ptr += 8;
-                                ptrB = (int) ((++li)/8L);
-                            }else{
-                                bytes[++ptr] = (byte) ((f & 0xff00000000000000L) >> 56);
-                                bytes[++ptr] = (byte) ((f & 0xff000000000000L) >> 48);
-                                bytes[++ptr] = (byte) ((f & 0xff0000000000L) >> 40);
-                                bytes[++ptr] = (byte) ((f & 0xff00000000L) >> 32);
-                                bytes[++ptr] = (byte) ((f & 0xff000000L) >> 24);
-                                bytes[++ptr] = (byte) ((f & 0xff0000L) >> 16);
-                                bytes[++ptr] = (byte) ((f & 0xff00L) >> 8);
-                                bytes[++ptr] = (byte)  (f & 0xffL);
+                                ++li;
                             }
+                            bytes[++ptr] = (byte) ((f & 0xff00000000000000L) >> 56);
+                            bytes[++ptr] = (byte) ((f & 0xff000000000000L) >> 48);
+                            bytes[++ptr] = (byte) ((f & 0xff0000000000L) >> 40);
+                            bytes[++ptr] = (byte) ((f & 0xff00000000L) >> 32);
+                            bytes[++ptr] = (byte) ((f & 0xff000000L) >> 24);
+                            bytes[++ptr] = (byte) ((f & 0xff0000L) >> 16);
+                            bytes[++ptr] = (byte) ((f & 0xff00L) >> 8);
+                            bytes[++ptr] = (byte)  (f & 0xffL);
                         }
                     }
                     break;
                 }case NullableCharColumn.TYPE_CODE:{
-                    bytes = ensureCapacity(bytes, ptr+(rows*2)+2);
                     final Character[] val = ((NullableCharColumn)col).asArray();
                     for(int i=0; i<rows; ++i){
                         if(val[i] == null){
-                            ptr += 1;
+                            bytes[++ptr] = 0;
                         }else{
                             bytes[++ptr] = (byte) (val[i].charValue() & 0xff);
                         }
@@ -729,22 +1422,19 @@ public final class DataFrameSerializer {
                     break;
                 }case NullableBooleanColumn.TYPE_CODE:{
                     final int length = ((rows%8==0) ? (rows/8) : ((rows/8)+1));
-                    bytes = ensureCapacity(bytes, ptr+length+2);
                     final Boolean[] val = ((NullableBooleanColumn)col).asArray();
                     ++ptr;//focus on next writable position
+                    Arrays.fill(bytes, ptr, ptr+length, (byte)0);
                     int ptrBoolB = 0;
                     long boolLi = 0L;
                     for(int i=0; i<rows; ++i){
                         if(val[i] == null){
                             ptrBoolB = (int) ((++boolLi)/8L);
-                            if(ptrB >= lookupBits.length){
-                                lookupBits = resize(lookupBits, ptrB);
-                            }
-                            lookupBits[ptrB] |= (1 << (7-(li%8L)));
-                            ptrB = (int) ((++li)/8L);
+                            bytes[lb+(int)(li/8L)] |= (1 << (7-(li%8L)));
+                            ++li;
                         }else if(val[i] == false){
                             ptrBoolB = (int) ((++boolLi)/8L);
-                            ptrB = (int) ((++li)/8l);
+                            ++li;
                         }else{
                             bytes[ptr+ptrBoolB] |= (1 << (7-(boolLi%8L)));
                             ptrBoolB = (int) ((++boolLi)/8L);
@@ -763,9 +1453,8 @@ public final class DataFrameSerializer {
                         bytes[++ptr] = (byte) ((dataLength & 0xff00) >> 8);
                         bytes[++ptr] = (byte)  (dataLength & 0xff);
                         if(data != null){//fixes NP warning
-                            for(int j=0; j<dataLength; ++j){
-                                bytes[++ptr] = data[j];
-                            }
+                            System.arraycopy(data, 0, bytes, ptr+1, dataLength);
+                            ptr += dataLength;
                         }
                     }
                     break;
@@ -775,40 +1464,6 @@ public final class DataFrameSerializer {
                             + col.getClass().getName());
                 }
             }//END PAYLOAD
-            //copy operations to stick everything together
-
-            //make sure to include all valid blocks in the lookup list
-            if(ptrB >= lookupBits.length){
-                lookupBits = resize(lookupBits, ptrB);
-            }
-            final byte[] payload = bytes;
-            final int payloadLength = ptr+1;
-            ptr = -1;
-            //Number of byte blocks of the lookup list.
-            //The specification requires that the lookup
-            //list has a minimum length of one block
-            final int bLength = (int) (((li-1)/8L)+1);
-            //allocate bytes for the final result
-            bytes = new byte[header.length + bLength + 5 + payloadLength];
-            //set header bytes
-            for(int i=0; i<header.length; ++i){
-                bytes[++ptr] = header[i];
-            }
-            //set lookup list length
-            bytes[++ptr] = (byte) ((bLength & 0xff000000) >> 24);
-            bytes[++ptr] = (byte) ((bLength & 0xff0000) >> 16);
-            bytes[++ptr] = (byte) ((bLength & 0xff00) >> 8);
-            bytes[++ptr] = (byte)  (bLength & 0xff);
-            //copy lookup bits
-            for(int i=0; i<bLength; ++i){
-                bytes[++ptr] = lookupBits[i];
-            }
-            //add header closing brace '}'
-            bytes[++ptr] = 0x7d;
-            //copy payload bytes
-            for(int i=0; i<payloadLength; ++i){
-                bytes[++ptr] = payload[i];
-            }
 
         }else{//DefaultDataFrame
             bytes[++ptr] = 0x7d;//add header closing brace '}'
@@ -821,14 +1476,11 @@ public final class DataFrameSerializer {
                 final Column col = df.getColumn(m);
                 switch(col.typeCode()){
                 case ByteColumn.TYPE_CODE:{
-                    bytes = ensureCapacity(bytes, ptr+rows+2);
                     final byte[] val = ((ByteColumn)col).asArray();
-                    for(int i=0; i<rows; ++i){
-                        bytes[++ptr] = val[i];
-                    }
+                    System.arraycopy(val, 0, bytes, ptr+1, rows);
+                    ptr += rows;
                     break;
                 }case ShortColumn.TYPE_CODE:{
-                    bytes = ensureCapacity(bytes, ptr+(rows*2)+2);
                     final short[] val = ((ShortColumn)col).asArray();
                     for(int i=0; i<rows; ++i){
                         bytes[++ptr] = (byte) ((val[i] & 0xff00) >> 8);
@@ -836,7 +1488,6 @@ public final class DataFrameSerializer {
                     }
                     break;
                 }case IntColumn.TYPE_CODE:{
-                    bytes = ensureCapacity(bytes, ptr+(rows*4)+2);
                     final int[] val = ((IntColumn)col).asArray();
                     for(int i=0; i<rows; ++i){
                         bytes[++ptr] = (byte) ((val[i] & 0xff000000) >> 24);
@@ -846,7 +1497,6 @@ public final class DataFrameSerializer {
                     }
                     break;
                 }case LongColumn.TYPE_CODE:{
-                    bytes = ensureCapacity(bytes, ptr+(rows*8)+2);
                     final long[] val = ((LongColumn)col).asArray();
                     for(int i=0; i<rows; ++i){
                         bytes[++ptr] = (byte) ((val[i] & 0xff00000000000000L) >> 56);
@@ -862,17 +1512,11 @@ public final class DataFrameSerializer {
                 }case StringColumn.TYPE_CODE:{
                     final String[] val = ((StringColumn)col).asArray();
                     for(int i=0; i<rows; ++i){
-                        final byte[] b = val[i].getBytes(UTF_8);
-                        final int length = b.length;
-                        bytes = ensureCapacity(bytes, ptr+length+2);
-                        for(int j=0; j<length; ++j){
-                            bytes[++ptr] = b[j];
-                        }
-                        ++ptr;//add null character as string delimeter
+                        ptr = putUtf8(val[i], bytes, ptr);
+                        bytes[++ptr] = 0;//add null character as string delimeter
                     }
                     break;
                 }case FloatColumn.TYPE_CODE:{
-                    bytes = ensureCapacity(bytes, ptr+(rows*4)+2);
                     final float[] val = ((FloatColumn)col).asArray();
                     for(int i=0; i<rows; ++i){
                         final int f = Float.floatToIntBits(val[i]);
@@ -883,7 +1527,6 @@ public final class DataFrameSerializer {
                     }
                     break;
                 }case DoubleColumn.TYPE_CODE:{
-                    bytes = ensureCapacity(bytes, ptr+(rows*8)+2);
                     final double[] val = ((DoubleColumn)col).asArray();
                     for(int i=0; i<rows; ++i){
                         long d = Double.doubleToLongBits(val[i]);
@@ -898,7 +1541,6 @@ public final class DataFrameSerializer {
                     }
                     break;
                 }case CharColumn.TYPE_CODE:{
-                    bytes = ensureCapacity(bytes, ptr+(rows*2)+2);
                     final char[] val = ((CharColumn)col).asArray();
                     for(int i=0; i<rows; ++i){
                         bytes[++ptr] = (byte) (val[i] & 0xff);
@@ -906,10 +1548,10 @@ public final class DataFrameSerializer {
                     break;
                 }case BooleanColumn.TYPE_CODE:{
                     final int length = ((rows%8==0) ? (rows/8) : ((rows/8)+1));
-                    bytes = ensureCapacity(bytes, ptr+length+2);
                     final boolean[] val = ((BooleanColumn)col).asArray();
                     ++ptr;//focus on next writable position
                     final int b0 = ptr;//cache first position as constant
+                    Arrays.fill(bytes, b0, b0+length, (byte)0);
                     int ptrBoolB = 0;
                     long boolLi = 0l;
                     for(int i=0; i<rows; ++i){
@@ -930,9 +1572,8 @@ public final class DataFrameSerializer {
                         bytes[++ptr] = (byte) ((dataLength & 0xff0000) >> 16);
                         bytes[++ptr] = (byte) ((dataLength & 0xff00) >> 8);
                         bytes[++ptr] = (byte)  (dataLength & 0xff);
-                        for(int j=0; j<dataLength; ++j){
-                            bytes[++ptr] = data[j];
-                        }
+                        System.arraycopy(data, 0, bytes, ptr+1, dataLength);
+                        ptr += dataLength;
                     }
                     break;
                 }
@@ -941,21 +1582,29 @@ public final class DataFrameSerializer {
                             + col.getClass().getName());
                 }
             }//END PAYLOAD
-            bytes = copyBytes(bytes, 0, ptr+1);//trim operation
         }
-        return bytes;
+        if((ptr+1-offset) != layout.size){
+            throw new SerializationException(
+                    "Serialization failed due to a concurrent modification of the DataFrame");
+        }
     }
 
     /**
      * Deserialization from the binary-based <b>version 2</b> format (v2).<br>
+     * If lazy deserialization is requested, then the columns of the returned
+     * DataFrame are only decoded when they are first accessed
      * 
      * @param bytes The byte array representing the DataFrame to deserialize
+     * @param offset The position of the first byte of the serialized DataFrame
+     * @param lazy Indicates whether to defer the decoding of the columns
      * @return A DataFrame from the given array of bytes
      * @throws SerializationException If any errors occur during deserialization
      */
-    private static DataFrame deserializeImplv2(final byte[] bytes) throws SerializationException{
+    private static DataFrame deserializeImplv2(final byte[] bytes, final int offset,
+            final boolean lazy) throws SerializationException{
+
         //HEADER
-        int ptr = 5;//first bytes have already been validated at this point
+        int ptr = offset+5;//first bytes have already been validated at this point
         final byte dfType = bytes[ptr];
         if((dfType != 0x64) && (dfType != 0x6e)){
             throw new SerializationException("Unsupported DataFrame implementation");
@@ -992,15 +1641,18 @@ public final class DataFrameSerializer {
         for(int i=0; i<cols; ++i){
             final int c0 = ptr+1;//first char
             while(bytes[++ptr] != 0);
-            names[i] = new String(copyBytes(bytes, c0, ptr), UTF_8);
+            names[i] = new String(bytes, c0, ptr-c0, UTF_8);
         }
         //column types
         final byte[] types = new byte[cols];
         for(int i=0; i<cols; ++i){
             types[i] = bytes[++ptr];
+            if(isNullableType(types[i]) == implDefault){
+                throw new SerializationException("Unknown column with type code: "
+                        + types[i]);
+            }
         }
-        DataFrame df = null;
-        final Column[] columns = new Column[cols];
+        byte[] lookupBits = null;
         if(!implDefault){//NullableDataFrame
             //first read the entire lookup list into memory
             final int lookupLength = ((bytes[++ptr] & 0xff) << 24
@@ -1008,463 +1660,879 @@ public final class DataFrameSerializer {
                     | (bytes[++ptr] & 0xff) << 8
                     | (bytes[++ptr] & 0xff));
 
-            final byte[] lookupBits = new byte[lookupLength];
-            for(int i=0; i<lookupLength; ++i){
-                lookupBits[i] = bytes[++ptr];
+            lookupBits = Arrays.copyOfRange(bytes, ptr+1, ptr+1+lookupLength);
+            ptr += lookupLength;
+        }
+        if(bytes[++ptr] != 0x7d){//header closing brace '}' missing
+            throw new SerializationException("Invalid format");
+        }
+        //END HEADER
+
+        if(cols == 0){//uninitialized instance
+            return implDefault ? new DefaultDataFrame() : new NullableDataFrame();
+        }
+        //PAYLOAD
+        final Cursor cursor = new Cursor(ptr, 0L);
+        if(lazy){
+            //only locate the start of each column
+            final int[] positions = new int[cols];
+            final long[] lookupIndices = new long[cols];
+            for(int i=0; i<cols; ++i){
+                positions[i] = cursor.ptr;
+                lookupIndices[i] = cursor.li;
+                skipImplv2(bytes, cursor, types[i], rows);
             }
-            //index pointer pointing to the current valid byte block
-            //for read operations from the lookup list
-            int ptrB = 0;
-            //list index pointing to the next readable bit within the lookup list
-            long li = 0l;
-            if(bytes[++ptr] != 0x7d){//header closing brace '}' missing
+            if((lookupBits != null) && (cursor.li > (lookupBits.length * 8L))){
                 throw new SerializationException("Invalid format");
             }
-            //END HEADER
-
-            //PAYLOAD
+            //the given array might be reused by the caller,
+            //so the undecoded payload is copied
+            final int p0 = ptr+1;
+            final byte[] payload = Arrays.copyOfRange(bytes, p0, cursor.ptr+1);
             for(int i=0; i<cols; ++i){
-                switch(types[i]){
-                case NullableByteColumn.TYPE_CODE:{
-                    final Byte[] val = new Byte[rows];
-                    for(int j=0; j<rows; ++j){
-                        final byte b = bytes[++ptr];
-                        if(b == 0){
-                            if((lookupBits[ptrB] & (1 << (7-(li%8L)))) == 0){
-                                val[j] = 0;
-                            }
-                            ptrB = (int) ((++li)/8L);
-                        }else{
-                            val[j] = b;
-                        }
-                    }
-                    columns[i] = new NullableByteColumn(val);
-                    break;
-                }case NullableShortColumn.TYPE_CODE:{
-                    final Short[] val = new Short[rows];
-                    for(int j=0; j<rows; ++j){
-                        final short s = (short) (((bytes[++ptr] & 0xff) << 8) 
-                                                | (bytes[++ptr] & 0xff));
-
-                        if(s == 0){
-                            if((lookupBits[ptrB] & (1 << (7-(li%8L)))) == 0){
-                                val[j] = 0;
-                            }
-                            ptrB = (int) ((++li)/8L);
-                        }else{
-                            val[j] = s;
-                        }
+                positions[i] -= p0;
+            }
+            return new LazyDataFrame(implDefault, rows, names, types,
+                    payload, positions, lookupBits, lookupIndices);
+        }
+        final Column[] columns = new Column[cols];
+        for(int i=0; i<cols; ++i){
+            columns[i] = decodeImplv2(bytes, cursor, types[i], rows, names[i], lookupBits);
+        }
+        //END PAYLOAD
+        return implDefault
+                ? new DefaultDataFrame(names, columns)
+                : new NullableDataFrame(names, columns);
+    }
+
+    /**
+     * Decodes the payload of one column in the binary-based <b>version 2</b>
+     * format (v2). The position of the specified cursor must point to the
+     * byte preceding the first byte of the column payload. Upon return,
+     * the cursor points to the last byte of the column payload
+     * 
+     * @param bytes The byte array holding the serialized column
+     * @param cursor The current read position
+     * @param type The type code of the column to decode
+     * @param rows The number of rows of the column
+     * @param name The name of the column
+     * @param lookupBits The lookup list of a NullableDataFrame, or null
+     *                   for a DefaultDataFrame
+     * @return The decoded <code>Column</code>
+     * @throws SerializationException If the type code is unknown
+     */
+    static Column decodeImplv2(final byte[] bytes, final Cursor cursor, final byte type,
+            final int rows, final String name, final byte[] lookupBits)
+                    throws SerializationException{
+
+        int ptr = cursor.ptr;
+        //list index pointing to the next readable bit within the lookup list
+        long li = cursor.li;
+        //index pointer pointing to the current valid byte block
+        //for read operations from the lookup list
+        int ptrB = (int) (li/8L);
+        Column column = null;
+        switch(type){
+        case NullableByteColumn.TYPE_CODE:{
+            final Byte[] val = new Byte[rows];
+            for(int j=0; j<rows; ++j){
+                final byte b = bytes[++ptr];
+                if(b == 0){
+                    if((lookupBits[ptrB] & (1 << (7-(li%8L)))) == 0){
+                        val[j] = 0;
                     }
-                    columns[i] = new NullableShortColumn(val);
-                    break;
-                }case NullableIntColumn.TYPE_CODE:{
-                    final Integer[] val = new Integer[rows];
-                    for(int j=0; j<rows; ++j){
-                        final int in = (((bytes[++ptr] & 0xff) << 24) 
-                                      | ((bytes[++ptr] & 0xff) << 16) 
-                                      | ((bytes[++ptr] & 0xff) << 8) 
-                                      |  (bytes[++ptr] & 0xff));
-
-                        if(in == 0){
-                            if((lookupBits[ptrB] & (1 << (7-(li%8L)))) == 0){
-                                val[j] = 0;
-                            }
-                            ptrB = (int) ((++li)/8L);
-                        }else{
-                            val[j] = in;
-                        }
+                    ptrB = (int) ((++li)/8L);
+                }else{
+                    val[j] = b;
+                }
+            }
+            column = new NullableByteColumn(name, val);
+            break;
+        }case NullableShortColumn.TYPE_CODE:{
+            final Short[] val = new Short[rows];
+            for(int j=0; j<rows; ++j){
+                final short s = (short) (((bytes[++ptr] & 0xff) << 8) 
+                                        | (bytes[++ptr] & 0xff));
+
+                if(s == 0){
+                    if((lookupBits[ptrB] & (1 << (7-(li%8L)))) == 0){
+                        val[j] = 0;
                     }
-                    columns[i] = new NullableIntColumn(val);
-                    break;
-                }case NullableLongColumn.TYPE_CODE:{
-                    final Long[] val = new Long[rows];
-                    for(int j=0; j<rows; ++j){						
-                        final long l = (((bytes[++ptr] & 0xffL) << 56)
-                                      | ((bytes[++ptr] & 0xffL) << 48)
-                                      | ((bytes[++ptr] & 0xffL) << 40)
-                                      | ((bytes[++ptr] & 0xffL) << 32)
-                                      | ((bytes[++ptr] & 0xffL) << 24) 
-                                      | ((bytes[++ptr] & 0xffL) << 16) 
-                                      | ((bytes[++ptr] & 0xffL) << 8) 
-                                      |  (bytes[++ptr] & 0xffL));
-
-                        if(l == 0){
-                            if((lookupBits[ptrB] & (1 << (7-(li%8L)))) == 0){
-                                val[j] = 0L;
-                            }
-                            ptrB = (int) ((++li)/8L);
-                        }else{
-                            val[j] = l;
-                        }
+                    ptrB = (int) ((++li)/8L);
+                }else{
+                    val[j] = s;
+                }
+            }
+            column = new NullableShortColumn(name, val);
+            break;
+        }case NullableIntColumn.TYPE_CODE:{
+            final Integer[] val = new Integer[rows];
+            for(int j=0; j<rows; ++j){
+                final int in = (((bytes[++ptr] & 0xff) << 24) 
+                              | ((bytes[++ptr] & 0xff) << 16) 
+                              | ((bytes[++ptr] & 0xff) << 8) 
+                              |  (bytes[++ptr] & 0xff));
+
+                if(in == 0){
+                    if((lookupBits[ptrB] & (1 << (7-(li%8L)))) == 0){
+                        val[j] = 0;
                     }
-                    columns[i] = new NullableLongColumn(val);
-                    break;
-                }case NullableStringColumn.TYPE_CODE:{
-                    final String[] val = new String[rows];
-                    for(int j=0; j<rows; ++j){
-                        int c0 = ptr+1;//marks the first character of each string
-                        while(bytes[++ptr] != 0);
-                        if((ptr-c0) == 0){
-                            if((lookupBits[ptrB] & (1 << (7-(li%8L)))) == 0){
-                                val[j] = "";
-                            }
-                            ptrB = (int) ((++li)/8L);
-                        }else{
-                            val[j] = new String(copyBytes(bytes, c0, ptr), UTF_8);
-                        }
+                    ptrB = (int) ((++li)/8L);
+                }else{
+                    val[j] = in;
+                }
+            }
+            column = new NullableIntColumn(name, val);
+            break;
+        }case NullableLongColumn.TYPE_CODE:{
+            final Long[] val = new Long[rows];
+            for(int j=0; j<rows; ++j){						
+                final long l = (((bytes[++ptr] & 0xffL) << 56)
+                              | ((bytes[++ptr] & 0xffL) << 48)
+                              | ((bytes[++ptr] & 0xffL) << 40)
+                              | ((bytes[++ptr] & 0xffL) << 32)
+                              | ((bytes[++ptr] & 0xffL) << 24) 
+                              | ((bytes[++ptr] & 0xffL) << 16) 
+                              | ((bytes[++ptr] & 0xffL) << 8) 
+                              |  (bytes[++ptr] & 0xffL));
+
+                if(l == 0){
+                    if((lookupBits[ptrB] & (1 << (7-(li%8L)))) == 0){
+                        val[j] = 0L;
                     }
-                    columns[i] = new NullableStringColumn(val);
-                    break;
-                }case NullableFloatColumn.TYPE_CODE:{
-                    final Float[] val = new Float[rows];
-                    for(int j=0; j<rows; ++j){
-                        final float f = Float.intBitsToFloat(
-                                (((bytes[++ptr] & 0xff) << 24) 
-                               | ((bytes[++ptr] & 0xff) << 16) 
-                               | ((bytes[++ptr] & 0xff) << 8) 
-                               |  (bytes[++ptr] & 0xff)));
-
-                        if(f == 0.0f){
-                            if((lookupBits[ptrB] & (1 << (7-(li%8L)))) == 0){
-                                val[j] = 0.0f;
-                            }
-                            ptrB = (int) ((++li)/8L);
-                        }else{
-                            val[j] = f;
-                        }
+                    ptrB = (int) ((++li)/8L);
+                }else{
+                    val[j] = l;
+                }
+            }
+            column = new NullableLongColumn(name, val);
+            break;
+        }case NullableStringColumn.TYPE_CODE:{
+            final String[] val = new String[rows];
+            for(int j=0; j<rows; ++j){
+                int c0 = ptr+1;//marks the first character of each string
+                while(bytes[++ptr] != 0);
+                if((ptr-c0) == 0){
+                    if((lookupBits[ptrB] & (1 << (7-(li%8L)))) == 0){
+                        val[j] = "";
                     }
-                    columns[i] = new NullableFloatColumn(val);
-                    break;
-                }case NullableDoubleColumn.TYPE_CODE:{
-                    final Double[] val = new Double[rows];
-                    for(int j=0; j<rows; ++j){
-                        final double d = Double.longBitsToDouble(
-                                (((bytes[++ptr] & 0xffL) << 56)
-                               | ((bytes[++ptr] & 0xffL) << 48)
-                               | ((bytes[++ptr] & 0xffL) << 40)
-                               | ((bytes[++ptr] & 0xffL) << 32)
-                               | ((bytes[++ptr] & 0xffL) << 24) 
-                               | ((bytes[++ptr] & 0xffL) << 16) 
-                               | ((bytes[++ptr] & 0xffL) << 8) 
-                               |  (bytes[++ptr] & 0xffL)));
-
-                        if(d == 0.0){
-                            if((lookupBits[ptrB] & (1 << (7-(li%8L)))) == 0){
-                                val[j] = 0.0;
-                            }
-                            ptrB = (int) ((++li)/8L);
-                        }else{
-                            val[j] = d;
-                        }
+                    ptrB = (int) ((++li)/8L);
+                }else{
+                    val[j] = new String(bytes, c0, ptr-c0, UTF_8);
+                }
+            }
+            column = new NullableStringColumn(name, val);
+            break;
+        }case NullableFloatColumn.TYPE_CODE:{
+            final Float[] val = new Float[rows];
+            for(int j=0; j<rows; ++j){
+                final float f = Float.intBitsToFloat(
+                        (((bytes[++ptr] & 0xff) << 24) 
+                       | ((bytes[++ptr] & 0xff) << 16) 
+                       | ((bytes[++ptr] & 0xff) << 8) 
+                       |  (bytes[++ptr] & 0xff)));
+
+                if(f == 0.0f){
+                    if((lookupBits[ptrB] & (1 << (7-(li%8L)))) == 0){
+                        val[j] = 0.0f;
                     }
-                    columns[i] = new NullableDoubleColumn(val);
-                    break;
-                }case NullableCharColumn.TYPE_CODE:{
-                    final Character[] val = new Character[rows];
-                    for(int j=0; j<rows; ++j){
-                        final byte b = bytes[++ptr];
-                        if(b == 0){
-                            val[j] = null;
-                        }else{
-                            val[j] = (char) b;
-                        }
+                    ptrB = (int) ((++li)/8L);
+                }else{
+                    val[j] = f;
+                }
+            }
+            column = new NullableFloatColumn(name, val);
+            break;
+        }case NullableDoubleColumn.TYPE_CODE:{
+            final Double[] val = new Double[rows];
+            for(int j=0; j<rows; ++j){
+                final double d = Double.longBitsToDouble(
+                        (((bytes[++ptr] & 0xffL) << 56)
+                       | ((bytes[++ptr] & 0xffL) << 48)
+                       | ((bytes[++ptr] & 0xffL) << 40)
+                       | ((bytes[++ptr] & 0xffL) << 32)
+                       | ((bytes[++ptr] & 0xffL) << 24) 
+                       | ((bytes[++ptr] & 0xffL) << 16) 
+                       | ((bytes[++ptr] & 0xffL) << 8) 
+                       |  (bytes[++ptr] & 0xffL)));
+
+                if(d == 0.0){
+                    if((lookupBits[ptrB] & (1 << (7-(li%8L)))) == 0){
+                        val[j] = 0.0;
                     }
-                    columns[i] = new NullableCharColumn(val);
-                    break;
-                }case NullableBooleanColumn.TYPE_CODE:{
-                    final int length = ((rows%8==0) ? (rows/8) : ((rows/8)+1));
-                    final Boolean[] val = new Boolean[rows];
-                    ++ptr;//focus on next writable position
-                    final int b0 = ptr;//cache first position as constant
-                    int ptrBoolB = 0;
-                    long boolLi = 0l;
-                    for(int j=0; j<rows; ++j){
-                        if((bytes[b0+ptrBoolB] & (1 << (7-(boolLi%8L)))) == 0){
-                            if((lookupBits[ptrB] & (1 << (7-(li%8L)))) == 0){
-                                val[j] = false;
-                            }
-                            ptrB = (int) ((++li)/8L);
-                        }else{
-                            val[j] = true;
-                        }
-                        ptrBoolB = (int) ((++boolLi)/8L);
+                    ptrB = (int) ((++li)/8L);
+                }else{
+                    val[j] = d;
+                }
+            }
+            column = new NullableDoubleColumn(name, val);
+            break;
+        }case NullableCharColumn.TYPE_CODE:{
+            final Character[] val = new Character[rows];
+            for(int j=0; j<rows; ++j){
+                final byte b = bytes[++ptr];
+                if(b == 0){
+                    val[j] = null;
+                }else{
+                    val[j] = (char) b;
+                }
+            }
+            column = new NullableCharColumn(name, val);
+            break;
+        }case NullableBooleanColumn.TYPE_CODE:{
+            final int length = ((rows%8==0) ? (rows/8) : ((rows/8)+1));
+            final Boolean[] val = new Boolean[rows];
+            ++ptr;//focus on next writable position
+            final int b0 = ptr;//cache first position as constant
+            int ptrBoolB = 0;
+            long boolLi = 0l;
+            for(int j=0; j<rows; ++j){
+                if((bytes[b0+ptrBoolB] & (1 << (7-(boolLi%8L)))) == 0){
+                    if((lookupBits[ptrB] & (1 << (7-(li%8L)))) == 0){
+                        val[j] = false;
                     }
-                    //let the base pointer jump forward to the last written byte
-                    ptr += (length-1);
-                    columns[i] = new NullableBooleanColumn(val);
-                    break;
-                }case NullableBinaryColumn.TYPE_CODE:{
-                    final byte[][] val = new byte[rows][0];
-                    for(int j=0; j<rows; ++j){
-                        final int dataLength = ((bytes[++ptr] & 0xff) << 24
-                                              | (bytes[++ptr] & 0xff) << 16
-                                              | (bytes[++ptr] & 0xff) << 8
-                                              | (bytes[++ptr] & 0xff));
-
-                        if(dataLength == 0){
-                            val[j] = null;
-                        }else{
-                            final byte[] data = new byte[dataLength];
-                            for(int k=0; k<dataLength; ++k){
-                                data[k] = bytes[++ptr];
-                            }
-                            val[j] = data;
-                        }
+                    ptrB = (int) ((++li)/8L);
+                }else{
+                    val[j] = true;
+                }
+                ptrBoolB = (int) ((++boolLi)/8L);
+            }
+            //let the base pointer jump forward to the last written byte
+            ptr += (length-1);
+            column = new NullableBooleanColumn(name, val);
+            break;
+        }case NullableBinaryColumn.TYPE_CODE:{
+            final byte[][] val = new byte[rows][0];
+            for(int j=0; j<rows; ++j){
+                final int dataLength = ((bytes[++ptr] & 0xff) << 24
+                                      | (bytes[++ptr] & 0xff) << 16
+                                      | (bytes[++ptr] & 0xff) << 8
+                                      | (bytes[++ptr] & 0xff));
+
+                if(dataLength == 0){
+                    val[j] = null;
+                }else{
+                    final byte[] data = new byte[dataLength];
+                    for(int k=0; k<dataLength; ++k){
+                        data[k] = bytes[++ptr];
                     }
-                    columns[i] = new NullableBinaryColumn(val);
-                    break;
+                    val[j] = data;
                 }
-                default:
-                    throw new SerializationException("Unknown column with type code: "
-                            + types[i]);
+            }
+            column = new NullableBinaryColumn(name, val);
+            break;
+        }case ByteColumn.TYPE_CODE:{
+            final byte[] val = new byte[rows];
+            for(int j=0; j<rows; ++j){
+                val[j] = bytes[++ptr];
+            }
+            column = new ByteColumn(name, val);
+            break;
+        }case ShortColumn.TYPE_CODE:{
+            final short[] val = new short[rows];
+            for(int j=0; j<rows; ++j){
+                val[j] = (short) (((bytes[++ptr] & 0xff) << 8) 
+                        | (bytes[++ptr] & 0xff));
+
+            }
+            column = new ShortColumn(name, val);
+            break;
+        }case IntColumn.TYPE_CODE:{
+            final int[] val = new int[rows];
+            for(int j=0; j<rows; ++j){
+                val[j] = (((bytes[++ptr] & 0xff) << 24) 
+                        | ((bytes[++ptr] & 0xff) << 16) 
+                        | ((bytes[++ptr] & 0xff) << 8) 
+                        |  (bytes[++ptr] & 0xff));
+
+            }
+            column = new IntColumn(name, val);
+            break;
+        }case LongColumn.TYPE_CODE:{
+            final long[] val = new long[rows];
+            for(int j=0; j<rows; ++j){
+                val[j] = (((bytes[++ptr] & 0xffL) << 56)
+                        | ((bytes[++ptr] & 0xffL) << 48)
+                        | ((bytes[++ptr] & 0xffL) << 40)
+                        | ((bytes[++ptr] & 0xffL) << 32)
+                        | ((bytes[++ptr] & 0xffL) << 24) 
+                        | ((bytes[++ptr] & 0xffL) << 16) 
+                        | ((bytes[++ptr] & 0xffL) << 8) 
+                        |  (bytes[++ptr] & 0xffL));
 
+            }
+            column = new LongColumn(name, val);
+            break;
+        }case StringColumn.TYPE_CODE:{
+            final String[] val = new String[rows];
+            for(int j=0; j<rows; ++j){
+                int c0 = ptr+1;
+                while(bytes[++ptr] != 0);
+                if((ptr-c0) == 0){
+                    val[j] = StringColumn.DEFAULT_VALUE;
+                }else{
+                    val[j] = new String(bytes, c0, ptr-c0, UTF_8);
                 }
-            }//END PAYLOAD
-            if(cols == 0){//uninitialized instance
-                df = new NullableDataFrame();
-            }else{
-                df = new NullableDataFrame(names, columns);
+                c0 = ptr+1;
             }
-        }else{//DefaultDataFrame
-            if(bytes[++ptr] != 0x7d){//header closing brace '}'
+            column = new StringColumn(name, val);
+            break;
+        }case FloatColumn.TYPE_CODE:{
+            final float[] val = new float[rows];
+            for(int j=0; j<rows; ++j){
+                val[j] = Float.intBitsToFloat(
+                        (((bytes[++ptr] & 0xff) << 24)
+                       | ((bytes[++ptr] & 0xff) << 16)
+                       | ((bytes[++ptr] & 0xff) << 8)
+                       |  (bytes[++ptr] & 0xff)));
+            }
+            column = new FloatColumn(name, val);
+            break;
+        }case DoubleColumn.TYPE_CODE:{
+            final double[] val = new double[rows];
+            for(int j=0; j<rows; ++j){
+                val[j] = Double.longBitsToDouble(
+                        (((bytes[++ptr] & 0xffL) << 56)
+                       | ((bytes[++ptr] & 0xffL) << 48)
+                       | ((bytes[++ptr] & 0xffL) << 40)
+                       | ((bytes[++ptr] & 0xffL) << 32)
+                       | ((bytes[++ptr] & 0xffL) << 24)
+                       | ((bytes[++ptr] & 0xffL) << 16)
+                       | ((bytes[++ptr] & 0xffL) << 8)
+                       |  (bytes[++ptr] & 0xffL)));
+            }
+            column = new DoubleColumn(name, val);
+            break;
+        }case CharColumn.TYPE_CODE:{
+            final char[] val = new char[rows];
+            for(int j=0; j<rows; ++j){
+                val[j] = (char) bytes[++ptr];
+            }
+            column = new CharColumn(name, val);
+            break;
+        }case BooleanColumn.TYPE_CODE:{
+            final int length = ((rows%8==0) ? (rows/8) : ((rows/8)+1));
+            final boolean[] val = new boolean[rows];
+            ++ptr;//focus on next writable position
+            final int b0 = ptr;//cache first position as constant
+            int ptrBoolB = 0;
+            long boolLi = 0l;
+            for(int j=0; j<rows; ++j){
+                val[j] = ((bytes[b0+ptrBoolB] & (1 << (7-(boolLi%8L)))) != 0);
+                ptrBoolB = (int) ((++boolLi)/8L);
+            }
+            //let the base pointer jump forward to the last written byte
+            ptr += (length-1);
+            column = new BooleanColumn(name, val);
+            break;
+        }case BinaryColumn.TYPE_CODE:{
+            final byte[][] val = new byte[rows][0];
+            for(int j=0; j<rows; ++j){
+                final int dataLength = ((bytes[++ptr] & 0xff) << 24
+                                      | (bytes[++ptr] & 0xff) << 16
+                                      | (bytes[++ptr] & 0xff) << 8
+                                      | (bytes[++ptr] & 0xff));
+
+                final byte[] data = new byte[dataLength];
+                for(int k=0; k<dataLength; ++k){
+                    data[k] = bytes[++ptr];
+                }
+                val[j] = data;
+            }
+            column = new BinaryColumn(name, val);
+            break;
+        }
+        default:
+            throw new SerializationException("Unknown column with type code: " + type);
+
+        }
+        cursor.ptr = ptr;
+        cursor.li = li;
+        return column;
+    }
+
+    /**
+     * Skips the payload of one column in the binary-based <b>version 2</b>
+     * format (v2) without decoding any values. Upon return, the specified cursor
+     * points to the last byte of the column payload and to the first lookup bit
+     * of the next column
+     * 
+     * @param bytes The byte array holding the serialized column
+     * @param cursor The current read position
+     * @param type The type code of the column to skip
+     * @param rows The number of rows of the column
+     * @throws SerializationException If the type code is unknown or
+     *                                if the payload is incomplete
+     */
+    private static void skipImplv2(final byte[] bytes, final Cursor cursor,
+            final byte type, final int rows) throws SerializationException{
+
+        long ptr = cursor.ptr;
+        long li = cursor.li;
+        switch(type){
+        case ByteColumn.TYPE_CODE:
+        case CharColumn.TYPE_CODE:
+        case NullableCharColumn.TYPE_CODE:
+            ptr += rows;
+            break;
+        case ShortColumn.TYPE_CODE:
+            ptr += (rows*2L);
+            break;
+        case IntColumn.TYPE_CODE:
+        case FloatColumn.TYPE_CODE:
+            ptr += (rows*4L);
+            break;
+        case LongColumn.TYPE_CODE:
+        case DoubleColumn.TYPE_CODE:
+            ptr += (rows*8L);
+            break;
+        case BooleanColumn.TYPE_CODE:
+            ptr += ((rows%8==0) ? (rows/8) : ((rows/8)+1));
+            break;
+        case NullableByteColumn.TYPE_CODE:
+        case NullableShortColumn.TYPE_CODE:
+        case NullableIntColumn.TYPE_CODE:
+        case NullableLongColumn.TYPE_CODE:
+        case NullableFloatColumn.TYPE_CODE:
+        case NullableDoubleColumn.TYPE_CODE:{
+            //each null or zero value uses one bit in the lookup list
+            final int width = numericWidth(type);
+            final boolean floating = (type == NullableFloatColumn.TYPE_CODE)
+                    || (type == NullableDoubleColumn.TYPE_CODE);
+
+            if((ptr + ((long) rows*width)) >= bytes.length){
                 throw new SerializationException("Invalid format");
             }
-            //END HEADER
+            int p = (int) ptr;
+            for(int j=0; j<rows; ++j){
+                //the sign bit is ignored for floating point
+                //numbers since -0.0 is equal to 0.0
+                int nonZero = floating ? (bytes[++p] & 0x7f) : bytes[++p];
+                for(int k=1; k<width; ++k){
+                    nonZero |= bytes[++p];
+                }
+                if(nonZero == 0){
+                    ++li;
+                }
+            }
+            ptr = p;
+            break;
+        }
+        case StringColumn.TYPE_CODE:
+        case NullableStringColumn.TYPE_CODE:{
+            final boolean nullable = (type == NullableStringColumn.TYPE_CODE);
+            int p = (int) ptr;
+            for(int j=0; j<rows; ++j){
+                final int c0 = p+1;
+                while(bytes[++p] != 0);
+                if(nullable && ((p-c0) == 0)){
+                    ++li;
+                }
+            }
+            ptr = p;
+            break;
+        }
+        case NullableBooleanColumn.TYPE_CODE:{
+            final int length = ((rows%8==0) ? (rows/8) : ((rows/8)+1));
+            if((ptr + length) >= bytes.length){
+                throw new SerializationException("Invalid format");
+            }
+            final int b0 = (int) ptr + 1;
+            for(int j=0; j<rows; ++j){
+                if((bytes[b0+(j/8)] & (1 << (7-(j%8)))) == 0){
+                    ++li;
+                }
+            }
+            ptr += length;
+            break;
+        }
+        case BinaryColumn.TYPE_CODE:
+        case NullableBinaryColumn.TYPE_CODE:{
+            for(int j=0; j<rows; ++j){
+                int p = (int) ptr;
+                final int dataLength = ((bytes[++p] & 0xff) << 24
+                                      | (bytes[++p] & 0xff) << 16
+                                      | (bytes[++p] & 0xff) << 8
+                                      | (bytes[++p] & 0xff));
+
+                ptr = p + (long) dataLength;
+                if((dataLength < 0) || (ptr >= bytes.length)){
+                    throw new SerializationException("Invalid format");
+                }
+            }
+            break;
+        }
+        default:
+            throw new SerializationException("Unknown column with type code: " + type);
 
-            //PAYLOAD
-            for(int i=0; i<cols; ++i){
-                switch(types[i]){
-                case ByteColumn.TYPE_CODE:{
-                    final byte[] val = new byte[rows];
-                    for(int j=0; j<rows; ++j){
-                        val[j] = bytes[++ptr];
-                    }
-                    columns[i] = new ByteColumn(val);
-                    break;
-                }case ShortColumn.TYPE_CODE:{
-                    final short[] val = new short[rows];
-                    for(int j=0; j<rows; ++j){
-                        val[j] = (short) (((bytes[++ptr] & 0xff) << 8) 
-                                | (bytes[++ptr] & 0xff));
+        }
+        if(ptr >= bytes.length){
+            throw new SerializationException("Invalid format");
+        }
+        cursor.ptr = (int) ptr;
+        cursor.li = li;
+    }
 
-                    }
-                    columns[i] = new ShortColumn(val);
-                    break;
-                }case IntColumn.TYPE_CODE:{
-                    final int[] val = new int[rows];
-                    for(int j=0; j<rows; ++j){
-                        val[j] = (((bytes[++ptr] & 0xff) << 24) 
-                                | ((bytes[++ptr] & 0xff) << 16) 
-                                | ((bytes[++ptr] & 0xff) << 8) 
-                                |  (bytes[++ptr] & 0xff));
+    /**
+     * Returns the number of bytes used by each value of the nullable
+     * numeric column with the specified type code
+     * 
+     * @param type The type code of the nullable numeric column
+     * @return The number of bytes of each serialized value
+     */
+    private static int numericWidth(final byte type){
+        switch(type){
+        case NullableByteColumn.TYPE_CODE:
+            return 1;
+        case NullableShortColumn.TYPE_CODE:
+            return 2;
+        case NullableIntColumn.TYPE_CODE:
+        case NullableFloatColumn.TYPE_CODE:
+            return 4;
+        default:
+            return 8;
+        }
+    }
 
-                    }
-                    columns[i] = new IntColumn(val);
-                    break;
-                }case LongColumn.TYPE_CODE:{
-                    final long[] val = new long[rows];
-                    for(int j=0; j<rows; ++j){
-                        val[j] = (((bytes[++ptr] & 0xffL) << 56)
-                                | ((bytes[++ptr] & 0xffL) << 48)
-                                | ((bytes[++ptr] & 0xffL) << 40)
-                                | ((bytes[++ptr] & 0xffL) << 32)
-                                | ((bytes[++ptr] & 0xffL) << 24) 
-                                | ((bytes[++ptr] & 0xffL) << 16) 
-                                | ((bytes[++ptr] & 0xffL) << 8) 
-                                |  (bytes[++ptr] & 0xffL));
+    /**
+     * Indicates whether the specified type code denotes a nullable column
+     * 
+     * @param type The type code to check
+     * @return True if the specified type code denotes a nullable column,
+     *         false otherwise
+     */
+    private static boolean isNullableType(final byte type){
+        return ((type >= NullableByteColumn.TYPE_CODE)
+                && (type <= NullableBooleanColumn.TYPE_CODE))
+                || (type == NullableBinaryColumn.TYPE_CODE);
+    }
 
-                    }
-                    columns[i] = new LongColumn(val);
-                    break;
-                }case StringColumn.TYPE_CODE:{
-                    final String[] val = new String[rows];
-                    for(int j=0; j<rows; ++j){
-                        int c0 = ptr+1;
-                        while(bytes[++ptr] != 0);
-                        if((ptr-c0) == 0){
-                            val[j] = StringColumn.DEFAULT_VALUE;
-                        }else{
-                            val[j] = new String(copyBytes(bytes, c0, ptr), UTF_8);
-                        }
-                        c0 = ptr+1;
-                    }
-                    columns[i] = new StringColumn(val);
-                    break;
-                }case FloatColumn.TYPE_CODE:{
-                    final float[] val = new float[rows];
-                    for(int j=0; j<rows; ++j){
-                        val[j] = Float.intBitsToFloat(
-                                (((bytes[++ptr] & 0xff) << 24)
-                               | ((bytes[++ptr] & 0xff) << 16)
-                               | ((bytes[++ptr] & 0xff) << 8)
-                               |  (bytes[++ptr] & 0xff)));
-                    }
-                    columns[i] = new FloatColumn(val);
-                    break;
-                }case DoubleColumn.TYPE_CODE:{
-                    final double[] val = new double[rows];
-                    for(int j=0; j<rows; ++j){
-                        val[j] = Double.longBitsToDouble(
-                                (((bytes[++ptr] & 0xffL) << 56)
-                               | ((bytes[++ptr] & 0xffL) << 48)
-                               | ((bytes[++ptr] & 0xffL) << 40)
-                               | ((bytes[++ptr] & 0xffL) << 32)
-                               | ((bytes[++ptr] & 0xffL) << 24)
-                               | ((bytes[++ptr] & 0xffL) << 16)
-                               | ((bytes[++ptr] & 0xffL) << 8)
-                               |  (bytes[++ptr] & 0xffL)));
-                    }
-                    columns[i] = new DoubleColumn(val);
-                    break;
-                }case CharColumn.TYPE_CODE:{
-                    final char[] val = new char[rows];
-                    for(int j=0; j<rows; ++j){
-                        val[j] = (char) bytes[++ptr];
-                    }
-                    columns[i] = new CharColumn(val);
-                    break;
-                }case BooleanColumn.TYPE_CODE:{
-                    final int length = ((rows%8==0) ? (rows/8) : ((rows/8)+1));
-                    final boolean[] val = new boolean[rows];
-                    ++ptr;//focus on next writable position
-                    final int b0 = ptr;//cache first position as constant
-                    int ptrBoolB = 0;
-                    long boolLi = 0l;
-                    for(int j=0; j<rows; ++j){
-                        val[j] = ((bytes[b0+ptrBoolB] & (1 << (7-(boolLi%8L)))) != 0);
-                        ptrBoolB = (int) ((++boolLi)/8L);
-                    }
-                    //let the base pointer jump forward to the last written byte
-                    ptr += (length-1);
-                    columns[i] = new BooleanColumn(val);
-                    break;
-                }case BinaryColumn.TYPE_CODE:{
-                    final byte[][] val = new byte[rows][0];
-                    for(int j=0; j<rows; ++j){
-                        final int dataLength = ((bytes[++ptr] & 0xff) << 24
-                                              | (bytes[++ptr] & 0xff) << 16
-                                              | (bytes[++ptr] & 0xff) << 8
-                                              | (bytes[++ptr] & 0xff));
-
-                        final byte[] data = new byte[dataLength];
-                        for(int k=0; k<dataLength; ++k){
-                            data[k] = bytes[++ptr];
-                        }
-                        val[j] = data;
-                    }
-                    columns[i] = new BinaryColumn(val);
-                    break;
-                }
-                default:
-                    throw new SerializationException("Unknown column with type code: "
-                            + types[i]);
+    /**
+     * Deserializes all row groups of the row-group based file represented
+     * by the specified bytes and concatenates them to one DataFrame
+     * 
+     * @param bytes The bytes of the entire row-group based file
+     * @return A DataFrame holding the rows of all row groups
+     * @throws IOException If the given bytes do not represent a valid row-group file
+     */
+    private static DataFrame readRowGroups(final byte[] bytes) throws IOException{
+        final RowGroupIndex index = RowGroupIndex.read(bytes);
+        if(index.size() == 0){
+            if(index.schema().length == 0){
+                throw new SerializationException("Row-group file has no schema");
+            }
+            return deserialize(index.schema());
+        }
+        final DataFrame[] parts = new DataFrame[index.size()];
+        for(int i=0; i<parts.length; ++i){
+            final int offset = (int) index.offset(i);
+            parts[i] = deserialize(
+                    copyBytes(bytes, offset, offset + index.length(i)));
+        }
+        return DataFrame.concat(parts);
+    }
 
-                }
-            }//END PAYLOAD
-            if(cols == 0){//uninitialized instance
-                df = new DefaultDataFrame();
-            }else{
-                df = new DefaultDataFrame(names, columns);	
+    /**
+     * Returns the index of the column tested by the specified predicate
+     * 
+     * @param df The DataFrame holding the column to test
+     * @param predicate The predicate to get the column index for
+     * @return The index of the column tested by the specified predicate
+     */
+    private static int columnIndex(final DataFrame df, final ColumnPredicate predicate){
+        final String name = predicate.getColumnName();
+        if(!df.hasColumn(name)){
+            throw new SerializationException(
+                    "Invalid predicate. Unknown column: '" + name + "'");
+        }
+        final int col = df.getColumnIndex(name);
+        predicate.checkType(df.getColumn(col));
+        return col;
+    }
+
+    /**
+     * Returns a DataFrame holding all rows of the specified DataFrame whose
+     * value in the specified column matches the specified predicate. If all
+     * rows match, then the specified DataFrame is returned
+     * 
+     * @param df The DataFrame to filter
+     * @param col The index of the column to test
+     * @param predicate The predicate to test each value with
+     * @return A DataFrame holding all matching rows
+     */
+    private static DataFrame filterRows(final DataFrame df, final int col,
+            final ColumnPredicate predicate){
+
+        final Column column = df.getColumn(col);
+        final int rows = df.rows();
+        final int[] matches = new int[rows];
+        int count = 0;
+        for(int i=0; i<rows; ++i){
+            if(predicate.test(column.getValue(i))){
+                matches[count++] = i;
+            }
+        }
+        if(count == rows){
+            return df;
+        }
+        final Column[] columns = new Column[df.columns()];
+        for(int j=0; j<columns.length; ++j){
+            final Column source = df.getColumn(j);
+            final Column target = Column.like(source, count);
+            for(int i=0; i<count; ++i){
+                target.setValue(i, source.getValue(matches[i]));
             }
+            columns[j] = target;
         }
-        return df;
+        return df.isNullable()
+                ? new NullableDataFrame(columns)
+                : new DefaultDataFrame(columns);
     }
 
     /**
-     * Compresses the given array of bytes and modifies the first two bytes of the compressed 
-     * instance to represent a serialized DataFrame
+     * Validates the header of the uncompressed serialized DataFrame starting
+     * at the specified offset and deserializes it
      * 
+     * @param bytes The bytes holding the uncompressed serialized DataFrame
+     * @param offset The position of the first byte of the serialized DataFrame
+     * @param lazy Indicates whether to defer the decoding of the columns
+     * @return A DataFrame from the given array of bytes
+     * @throws SerializationException If any errors occur during deserialization
+     */
+    private static DataFrame deserializeUncompressed(final byte[] bytes, final int offset,
+            final boolean lazy) throws SerializationException{
+
+        //validate the first bytes of the header and the used format version
+        //must start with '{v:'
+        if((bytes[offset] != 0x7b) || (bytes[offset+1] != 0x76) || (bytes[offset+2] != 0x3a)
+                || ((bytes[offset+3] != 0x32) && (bytes[offset+3] != 0x31))){//version 2 and 1 supported
+
+            throw new SerializationException(String.format("Unsupported encoding (v:%s)",
+                    ((char)bytes[offset+3])));
+        }
+        if(bytes[offset+3] == 0x32){//encoding version 2
+            return deserializeImplv2(bytes, offset, lazy);
+        }else{
+            throw new SerializationException(
+                    String.format("Unsupported encoding version (v:%s)",
+                    ((char)bytes[offset+3])));
+        }
+    }
+
+    /**
+     * Compresses the specified range of the given array of bytes. The first two
+     * bytes of the compressed array represent a serialized DataFrame
+     * 
+     * @param res The resources of the calling thread
      * @param bytes The bytes to compress
+     * @param offset The position of the first byte to compress
+     * @param length The number of bytes to compress
      * @return The compressed array of bytes
      */
-    private static byte[] compress(byte[] bytes){
-        final Deflater deflater = new Deflater();
-        deflater.setInput(bytes);
-        final ByteArrayOutputStream os = new ByteArrayOutputStream(bytes.length);
+    private static byte[] compress(final ThreadResources res, final byte[] bytes,
+            final int offset, final int length){
+
+        final byte[] out = res.deflateBuffer(deflateBound(length));
+        return Arrays.copyOf(out, deflate(res, bytes, offset, length, out, 0, out.length));
+    }
+
+    /**
+     * Compresses the specified range of the given source array and writes the
+     * compressed bytes to the specified range of the given destination array.
+     * The output is equal to the zlib format with the first two bytes
+     * replaced to represent a serialized DataFrame, i.e. the zlib header is
+     * followed by the raw deflate data and the Adler-32 checksum of
+     * the uncompressed bytes
+     * 
+     * @param res The resources of the calling thread
+     * @param src The bytes to compress
+     * @param srcOffset The position of the first byte to compress
+     * @param srcLength The number of bytes to compress
+     * @param dst The array to write the compressed bytes to
+     * @param dstOffset The position of the first byte to write
+     * @param dstLength The maximum number of bytes to write
+     * @return The number of bytes written to the destination array, or -1 if
+     *         the compressed bytes do not fit into the specified range
+     */
+    private static int deflate(final ThreadResources res, final byte[] src,
+            final int srcOffset, final int srcLength, final byte[] dst,
+            final int dstOffset, final int dstLength){
+
+        if(dstLength < 6){
+            return -1;
+        }
+        final Deflater deflater = res.deflater;
+        deflater.reset();
+        deflater.setInput(src, srcOffset, srcLength);
         deflater.finish();
-        byte[] buffer = new byte[2048];
+        dst[dstOffset] = DF_BYTE0;
+        dst[dstOffset+1] = DF_BYTE1;
+        int ptr = dstOffset+2;
+        //reserve space for the checksum
+        final int end = dstOffset+dstLength-4;
         while(!deflater.finished()){
-            os.write(buffer, 0, deflater.deflate(buffer));
+            if(ptr >= end){
+                return -1;
+            }
+            ptr += deflater.deflate(dst, ptr, end-ptr);
         }
-        bytes = os.toByteArray();
-        bytes[0] = DF_BYTE0;
-        bytes[1] = DF_BYTE1;
-        return bytes;
+        final Adler32 checksum = res.checksum;
+        checksum.reset();
+        checksum.update(src, srcOffset, srcLength);
+        final long value = checksum.getValue();
+        dst[ptr++] = (byte) ((value & 0xff000000L) >> 24);
+        dst[ptr++] = (byte) ((value & 0xff0000L) >> 16);
+        dst[ptr++] = (byte) ((value & 0xff00L) >> 8);
+        dst[ptr++] = (byte)  (value & 0xffL);
+        return ptr-dstOffset;
     }
 
     /**
-     * Decompresses the given array of bytes
+     * Decompresses the specified range of the given array of bytes. The
+     * decompressed bytes are written to a buffer of the calling thread,
+     * which is returned by this method. The length of the decompressed bytes
+     * is not returned, as the serialized DataFrame contains all information
+     * required for deserialization
      * 
+     * @param res The resources of the calling thread
      * @param bytes The bytes to decompress
-     * @return The decompressed array of bytes
+     * @param offset The position of the first byte to decompress
+     * @param length The number of bytes to decompress
+     * @return An array holding the decompressed bytes starting at index zero
      * @throws IOException If any errors occur during decompression
      */
-    private static byte[] decompress(final byte[] bytes) throws IOException{
-        final Inflater inflater = new Inflater();
-        //remember the first two bytes in order to reset them after
-        //decompression so that we don't have to create a copy of
-        //the entire array here. This only introduces problems when
-        //trying to read the provided array while decompression is
-        //still in process
-        final byte b0 = bytes[0];
-        final byte b1 = bytes[1];
-        //set zlib compression magic numbers
-        bytes[0] = (byte)0x78;
-        bytes[1] = (byte)0x9c;
-        inflater.setInput(bytes);
-        final ByteArrayOutputStream os = new ByteArrayOutputStream(bytes.length);
-        byte[] buffer = new byte[2048];
+    private static byte[] inflate(final ThreadResources res, final byte[] bytes,
+            final int offset, final int length) throws IOException{
+
+        if(length < 6){
+            throw new IOException("Invalid compressed data format");
+        }
+        final Inflater inflater = res.inflater;
+        inflater.reset();
+        //skip the first two bytes which replace the zlib header
+        inflater.setInput(bytes, offset+2, length-2);
+        byte[] out = res.inflateBuffer((int) Math.min(length * 2L, MAX_ARRAY_SIZE));
+        int ptr = 0;
         try{
             while(!inflater.finished()){
-                os.write(buffer, 0, inflater.inflate(buffer));
+                if(ptr == out.length){
+                    out = res.inflateBuffer(out, ptr);
+                }
+                final int n = inflater.inflate(out, ptr, out.length-ptr);
+                if((n == 0) && (inflater.needsInput() || inflater.needsDictionary())){
+                    throw new IOException("Invalid compressed data format");
+                }
+                ptr += n;
             }
         }catch(DataFormatException ex){
             throw new IOException("Invalid compressed data format");
         }
-        //reset original first two bytes
-        bytes[0] = b0;
-        bytes[1] = b1;
-        return os.toByteArray();
+        //verify the Adler-32 checksum following the deflate data
+        final int c0 = offset+length-inflater.getRemaining();
+        if((offset+length-c0) < 4){
+            throw new IOException("Invalid compressed data format. Missing checksum");
+        }
+        final long expected = ((bytes[c0] & 0xffL) << 24
+                             | (bytes[c0+1] & 0xffL) << 16
+                             | (bytes[c0+2] & 0xffL) << 8
+                             | (bytes[c0+3] & 0xffL));
+
+        final Adler32 checksum = res.checksum;
+        checksum.reset();
+        checksum.update(out, 0, ptr);
+        if(checksum.getValue() != expected){
+            throw new IOException("Invalid compressed data format. Checksum mismatch");
+        }
+        return out;
     }
 
     /**
-     * Ensures that the provided byte array has at least
-     * the specified minimum capacity
+     * Returns the maximum number of bytes of the compressed form
+     * of the specified number of bytes
      * 
-     * @param bytes The byte array to check for the specified minimum capacity
-     * @param min The minumum capacity of the specified byte array
-     * @return The potentially enlarged byte array
+     * @param length The number of uncompressed bytes
+     * @return The upper bound of the number of compressed bytes
      */
-    private static byte[] ensureCapacity(final byte[] bytes, final int min){
-        if((min-bytes.length) >= 0){
-            return resize(bytes, min);
-        }
-        return bytes;
+    private static int deflateBound(final int length){
+        final long bound = (long) length + (length >>> 12) + (length >>> 14)
+                + (length >>> 25) + 13 + 6;
+
+        return (int) Math.min(bound, MAX_ARRAY_SIZE);
     }
 
     /**
-     * Resizes the provided byte array to make sure it can hold at least the specifed
-     * amount of bytes
+     * Computes the number of bytes of the specified String when encoded in UTF-8.
+     * The result is equal to the length of the array returned by
+     * <code>getBytes(UTF_8)</code>, in which malformed surrogate characters
+     * are replaced by one byte
      * 
-     * @param bytes The byte array to resize
-     * @param min The minimum capacity of the byte array to be resized
-     * @return The enlarged byte array
+     * @param s The String to compute the encoded length for
+     * @return The number of bytes of the specified String encoded in UTF-8
      */
-    private static byte[] resize(final byte[] bytes, final int min){
-        int newCapacity = bytes.length;
-        if((min < 0) || (newCapacity == (Integer.MAX_VALUE-1))){
-            throw new SerializationException(
-                    "Array length exceeds maximum capacity");
+    private static int utf8Length(final String s){
+        final int n = s.length();
+        int length = n;
+        for(int i=0; i<n; ++i){
+            final char c = s.charAt(i);
+            if(c >= 0x80){
+                if(c < 0x800){
+                    length += 1;
+                }else if(Character.isSurrogate(c)){
+                    if(Character.isHighSurrogate(c) && ((i+1) < n)
+                            && Character.isLowSurrogate(s.charAt(i+1))){
+
+                        //two chars encoded as four bytes
+                        length += 2;
+                        ++i;
+                    }
+                }else{
+                    length += 2;
+                }
+            }
         }
-        while(newCapacity <= min){
-            newCapacity *= 2;
-            if(newCapacity < 1){
-                //overflow
-                newCapacity = Integer.MAX_VALUE-1;
-                break;
+        return length;
+    }
+
+    /**
+     * Encodes the specified String in UTF-8 and writes the bytes to the
+     * given array, starting at the position after the specified pointer.
+     * The encoding is equal to <code>getBytes(UTF_8)</code> but does not
+     * allocate any intermediate arrays
+     * 
+     * @param s The String to encode
+     * @param bytes The array to write the encoded bytes to
+     * @param ptr The position of the last written byte
+     * @return The position of the last written byte after encoding
+     */
+    private static int putUtf8(final String s, final byte[] bytes, int ptr){
+        final int n = s.length();
+        for(int i=0; i<n; ++i){
+            final char c = s.charAt(i);
+            if(c < 0x80){
+                bytes[++ptr] = (byte) c;
+            }else if(c < 0x800){
+                bytes[++ptr] = (byte) (0xc0 | (c >> 6));
+                bytes[++ptr] = (byte) (0x80 | (c & 0x3f));
+            }else if(Character.isSurrogate(c)){
+                if(Character.isHighSurrogate(c) && ((i+1) < n)
+                        && Character.isLowSurrogate(s.charAt(i+1))){
+
+                    final int cp = Character.toCodePoint(c, s.charAt(++i));
+                    bytes[++ptr] = (byte) (0xf0 | (cp >> 18));
+                    bytes[++ptr] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                    bytes[++ptr] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                    bytes[++ptr] = (byte) (0x80 | (cp & 0x3f));
+                }else{
+                    //malformed input is replaced
+                    bytes[++ptr] = (byte) '?';
+                }
+            }else{
+                bytes[++ptr] = (byte) (0xe0 | (c >> 12));
+                bytes[++ptr] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                bytes[++ptr] = (byte) (0x80 | (c & 0x3f));
             }
         }
-        return Arrays.copyOf(bytes, newCapacity);
+        return ptr;
     }
 
     /**
@@ -1485,7 +2553,129 @@ public final class DataFrameSerializer {
     }
 
     /**
-     * Background thread for concurrent write operations of DataFrames files.
+     * The size of a serialized DataFrame and of the
+     * lookup list for nullable column values.
+     *
+     */
+    private static final class Layout {
+
+        final int size;
+        final int lookupLength;
+
+        Layout(final int size, final int lookupLength){
+            this.size = size;
+            this.lookupLength = lookupLength;
+        }
+    }
+
+    /**
+     * A read position within the payload of a serialized DataFrame.
+     *
+     */
+    static final class Cursor {
+
+        /** The position of the last read byte **/
+        int ptr;
+        /** The index of the next readable bit within the lookup list **/
+        long li;
+
+        Cursor(final int ptr, final long li){
+            this.ptr = ptr;
+            this.li = li;
+        }
+    }
+
+    /**
+     * Holds the compression resources and scratch buffers used by one thread.
+     * Buffers larger than the maximum pooled size are not retained after
+     * the operation which requested them.
+     *
+     */
+    private static final class ThreadResources {
+
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        final Inflater inflater = new Inflater(true);
+        final Adler32 checksum = new Adler32();
+
+        private byte[] serialBuffer = new byte[0];
+        private byte[] deflateBuffer = new byte[0];
+        private byte[] inflateBuffer = new byte[0];
+
+        /**
+         * Returns a buffer for uncompressed serialized bytes
+         * 
+         * @param size The minimum size of the buffer
+         * @return A buffer with at least the specified size
+         */
+        byte[] serialBuffer(final int size){
+            if(serialBuffer.length >= size){
+                return serialBuffer;
+            }
+            final byte[] b = new byte[size];
+            if(size <= MAX_POOLED_BUFFER_SIZE){
+                this.serialBuffer = b;
+            }
+            return b;
+        }
+
+        /**
+         * Returns a buffer for compressed bytes
+         * 
+         * @param size The minimum size of the buffer
+         * @return A buffer with at least the specified size
+         */
+        byte[] deflateBuffer(final int size){
+            if(deflateBuffer.length >= size){
+                return deflateBuffer;
+            }
+            final byte[] b = new byte[size];
+            if(size <= MAX_POOLED_BUFFER_SIZE){
+                this.deflateBuffer = b;
+            }
+            return b;
+        }
+
+        /**
+         * Returns a buffer for decompressed bytes
+         * 
+         * @param size The minimum size of the buffer
+         * @return A buffer with at least the specified size
+         */
+        byte[] inflateBuffer(final int size){
+            if(inflateBuffer.length >= size){
+                return inflateBuffer;
+            }
+            final byte[] b = new byte[Math.min(size, MAX_ARRAY_SIZE)];
+            if(b.length <= MAX_POOLED_BUFFER_SIZE){
+                this.inflateBuffer = b;
+            }
+            return b;
+        }
+
+        /**
+         * Grows the specified buffer for decompressed bytes
+         * 
+         * @param buffer The full buffer to grow
+         * @param length The number of bytes to retain
+         * @return A larger buffer holding the specified number of bytes
+         *         of the given buffer
+         * @throws IOException If the buffer cannot be grown any further
+         */
+        byte[] inflateBuffer(final byte[] buffer, final int length) throws IOException{
+            if(buffer.length >= MAX_ARRAY_SIZE){
+                throw new IOException("Decompressed data exceeds maximum supported size");
+            }
+            final int size = (int) Math.min(((long) buffer.length << 1) + 64, MAX_ARRAY_SIZE);
+            final byte[] b = Arrays.copyOf(buffer, size);
+            if(size <= MAX_POOLED_BUFFER_SIZE){
+                this.inflateBuffer = b;
+            }
+            return b;
+        }
+    }
+
+    /**
+     * Background job for concurrent write operations of DataFrames files.
      *
      */
     private static class ConcurrentDFWriter implements Runnable {
@@ -1507,10 +2697,17 @@ public final class DataFrameSerializer {
         }
 
         /**
-         * Starts this Runnable in its own thread
+         * Submits this Runnable to the specified executor
+         * 
+         * @param executor The <code>Executor</code> to run this Runnable
+         * @return The <code>CompletableFuture</code> of this operation
          */
-        public CompletableFuture<Void> execute(){
-            new Thread(this).start();
+        CompletableFuture<Void> execute(final Executor executor){
+            try{
+                executor.execute(this);
+            }catch(RejectedExecutionException ex){
+                this.future.completeExceptionally(ex);
+            }
             return this.future;
         }
 
@@ -1526,7 +2723,7 @@ public final class DataFrameSerializer {
     }
 
     /**
-     * Background thread for concurrent read operations of DataFrames files.
+     * Background job for concurrent read operations of DataFrames files.
      *
      */
     private static class ConcurrentDFReader implements Runnable {
@@ -1545,10 +2742,17 @@ public final class DataFrameSerializer {
         }
 
         /**
-         * Starts this Runnable in its own thread
+         * Submits this Runnable to the specified executor
+         * 
+         * @param executor The <code>Executor</code> to run this Runnable
+         * @return The <code>CompletableFuture</code> of this operation
          */
-        public CompletableFuture<DataFrame> execute(){
-            new Thread(this).start();
+        CompletableFuture<DataFrame> execute(final Executor executor){
+            try{
+                executor.execute(this);
+            }catch(RejectedExecutionException ex){
+                this.future.completeExceptionally(ex);
+            }
             return this.future;
         }
 
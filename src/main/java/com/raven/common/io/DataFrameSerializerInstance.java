@@ -16,6 +16,8 @@
 
 package com.raven.common.io;
 
+import java.nio.ByteBuffer;
+
 import com.raven.common.struct.DataFrame;
 
 /**
@@ -79,4 +81,33 @@ public class DataFrameSerializerInstance implements Serializer<DataFrame> {
     public DataFrame deserialize(byte[] bytes) throws SerializationException{
         return DataFrameSerializer.deserialize(bytes);
     }
+
+    /**
+     * Serializes the specified DataFrame to the given buffer, according to
+     * the compression mode of this instance
+     * 
+     * @param object The DataFrame object to serialize
+     * @param buffer The <code>ByteBuffer</code> to write the serialized DataFrame to
+     * @return The number of bytes written to the specified buffer
+     * @throws SerializationException If an error occurs during serialization, or
+     *                                if the buffer has insufficient remaining space
+     * @see DataFrameSerializer#serialize(DataFrame, ByteBuffer, boolean)
+     * @since 4.1.0
+     */
+    public int serialize(DataFrame object, ByteBuffer buffer) throws SerializationException{
+        return DataFrameSerializer.serialize(object, buffer, mode);
+    }
+
+    /**
+     * Deserializes the remaining bytes of the specified buffer to a DataFrame object
+     * 
+     * @param buffer The <code>ByteBuffer</code> to deserialize
+     * @return A DataFrame from the remaining bytes of the specified buffer
+     * @throws SerializationException If an error occurs during deserialization
+     * @see DataFrameSerializer#deserialize(ByteBuffer)
+     * @since 4.1.0
+     */
+    public DataFrame deserialize(ByteBuffer buffer) throws SerializationException{
+        return DataFrameSerializer.deserialize(buffer);
+    }
 }
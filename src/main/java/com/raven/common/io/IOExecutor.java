@@ -0,0 +1,208 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.io;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provides the bounded <code>Executor</code> used for all asynchronous
+ * I/O operations of this package, for example {@link CSVReader#readAsync()},
+ * {@link CSVWriter#writeAsync(com.raven.common.struct.DataFrame)} and
+ * {@link DataFrameSerializer#readFileAsync(java.io.File)}.
+ * 
+ * <p>The default executor runs at most a fixed number of I/O jobs concurrently.
+ * Further jobs are queued. When the queue is full, the thread submitting
+ * another job is blocked until space in the queue becomes available. This
+ * provides back-pressure to callers which launch many asynchronous operations,
+ * instead of creating one thread per operation. Jobs submitted from within
+ * an I/O thread are never blocked but run directly in the submitting thread.
+ * 
+ * <p>The shared executor also runs the chunks of parallel operations,
+ * for example of a {@link CSVReader} or {@link CSVWriter} configured by
+ * {@link CSVReader#useThreads(int)} or {@link CSVWriter#useThreads(int)},
+ * and of parallel bulk operations of bloom filters, for example
+ * {@link com.raven.common.struct.AbstractBloomFilter#addAll(long[], int)}. The thread which waits for such
+ * a chunk runs it itself if no I/O thread has started it yet.
+ * 
+ * <p>The number of threads and the capacity of the queue can be changed by
+ * the {@link #configure(int, int)} method. All asynchronous methods of this
+ * package also have an overload which accepts an arbitrary <code>Executor</code>.
+ * 
+ * <p>Idle I/O threads are terminated after a short timeout. The threads are
+ * not daemon threads, so the JVM does not exit before all submitted
+ * I/O jobs have completed.
+ * 
+ * @author Phil Gaiser
+ * @since 4.1.0
+ *
+ */
+public final class IOExecutor {
+
+    /**
+     * The default number of threads of the shared I/O executor
+     */
+    public static final int DEFAULT_THREADS =
+            Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * The default number of jobs which can be queued by the shared I/O executor
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+    /** The time after which idle threads are terminated, in seconds **/
+    private static final long KEEP_ALIVE_TIME = 5L;
+
+    private static ExecutorService shared;
+
+    private IOExecutor(){ }
+
+    /**
+     * Returns the shared I/O executor used by all asynchronous methods of
+     * this package which do not take an <code>Executor</code> argument
+     * 
+     * @return The shared I/O <code>Executor</code>
+     */
+    public static synchronized Executor getDefault(){
+        if(shared == null){
+            shared = newBoundedExecutor(DEFAULT_THREADS, DEFAULT_QUEUE_CAPACITY);
+        }
+        return shared;
+    }
+
+    /**
+     * Configures the shared I/O executor to use the specified number of threads
+     * and the specified queue capacity. Jobs which have already been submitted
+     * to the previously used executor are still executed
+     * 
+     * @param threads The maximum number of concurrently executed I/O jobs.
+     *                Must be positive
+     * @param queueCapacity The maximum number of queued I/O jobs.
+     *                      Must be positive
+     * @throws IllegalArgumentException If any argument is not positive
+     */
+    public static synchronized void configure(final int threads, final int queueCapacity){
+        final ExecutorService executor = newBoundedExecutor(threads, queueCapacity);
+        if(shared != null){
+            shared.shutdown();
+        }
+        shared = executor;
+    }
+
+    /**
+     * Creates a new bounded <code>ExecutorService</code> with the same
+     * characteristics as the shared I/O executor. A thread which submits a job
+     * while the queue of the returned executor is full is blocked until space
+     * becomes available.
+     * 
+     * <p>The caller is responsible for shutting down the returned executor
+     * 
+     * @param threads The maximum number of concurrently executed jobs.
+     *                Must be positive
+     * @param queueCapacity The maximum number of queued jobs. Must be positive
+     * @return A new bounded <code>ExecutorService</code>
+     * @throws IllegalArgumentException If any argument is not positive
+     */
+    public static ExecutorService newBoundedExecutor(final int threads,
+            final int queueCapacity){
+
+        if(threads <= 0){
+            throw new IllegalArgumentException(
+                    "Number of threads must be positive: " + threads);
+        }
+        if(queueCapacity <= 0){
+            throw new IllegalArgumentException(
+                    "Queue capacity must be positive: " + queueCapacity);
+        }
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, KEEP_ALIVE_TIME, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity),
+                new IOThreadFactory(), new BlockingPolicy());
+
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates the threads used by I/O executors.
+     *
+     */
+    private static final class IOThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+        private final AtomicInteger count = new AtomicInteger();
+        private final int pool = POOL_COUNT.incrementAndGet();
+
+        @Override
+        public Thread newThread(final Runnable runnable){
+            return new IOThread(runnable,
+                    "claymore-io-" + pool + "-" + count.incrementAndGet());
+        }
+    }
+
+    /**
+     * Thread used by I/O executors.
+     *
+     */
+    private static final class IOThread extends Thread {
+
+        IOThread(final Runnable runnable, final String name){
+            super(runnable, name);
+        }
+    }
+
+    /**
+     * Blocks the submitting thread until the queue of the executor has space
+     * for the rejected job. Jobs submitted by I/O threads are run directly
+     * to avoid a deadlock when all I/O threads would be blocked.
+     *
+     */
+    private static final class BlockingPolicy implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(final Runnable job,
+                final ThreadPoolExecutor executor){
+
+            if(executor.isShutdown()){
+                throw new RejectedExecutionException("I/O executor has been shut down");
+            }
+            if(Thread.currentThread() instanceof IOThread){
+                job.run();
+                return;
+            }
+            try{
+                executor.getQueue().put(job);
+            }catch(InterruptedException ex){
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException(
+                        "Interrupted while waiting for I/O executor queue", ex);
+            }
+            //the executor might have been shut down while waiting
+            if(executor.isShutdown() && executor.remove(job)){
+                throw new RejectedExecutionException("I/O executor has been shut down");
+            }
+        }
+    }
+}
@@ -0,0 +1,1242 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.io;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import com.raven.common.struct.BinaryColumn;
+import com.raven.common.struct.BooleanColumn;
+import com.raven.common.struct.ByteColumn;
+import com.raven.common.struct.CharColumn;
+import com.raven.common.struct.Column;
+import com.raven.common.struct.DataFrame;
+import com.raven.common.struct.DefaultDataFrame;
+import com.raven.common.struct.DoubleColumn;
+import com.raven.common.struct.FloatColumn;
+import com.raven.common.struct.IndexedValueReplacement;
+import com.raven.common.struct.IntColumn;
+import com.raven.common.struct.LongColumn;
+import com.raven.common.struct.NullableBinaryColumn;
+import com.raven.common.struct.NullableBooleanColumn;
+import com.raven.common.struct.NullableByteColumn;
+import com.raven.common.struct.NullableCharColumn;
+import com.raven.common.struct.NullableDataFrame;
+import com.raven.common.struct.NullableDoubleColumn;
+import com.raven.common.struct.NullableFloatColumn;
+import com.raven.common.struct.NullableIntColumn;
+import com.raven.common.struct.NullableLongColumn;
+import com.raven.common.struct.NullableShortColumn;
+import com.raven.common.struct.NullableStringColumn;
+import com.raven.common.struct.Row;
+import com.raven.common.struct.ShortColumn;
+import com.raven.common.struct.StringColumn;
+import com.raven.common.struct.ValueReplacement;
+
+/**
+ * A DataFrame deserialized from the binary-based <b>version 2</b> format
+ * whose columns are decoded on demand.
+ * 
+ * <p>The payload of each column is kept in its serialized form until the column
+ * is accessed for the first time. Decoded columns are cached. Operations which
+ * only read individual values, columns or the column structure are answered by
+ * decoding the involved columns only. All other operations first decode all
+ * remaining columns into a {@link DefaultDataFrame} or {@link NullableDataFrame},
+ * respectively, to which they are then delegated. The decoded columns are
+ * used by that DataFrame directly, so any changes made to a column obtained
+ * before are visible afterwards.
+ * 
+ * <p>Instances of this class are created
+ * by {@link DataFrameSerializer#deserializeLazily(byte[])}.
+ * 
+ * @author Phil Gaiser
+ * @see DataFrameSerializer
+ * @since 4.1.0
+ *
+ */
+final class LazyDataFrame implements DataFrame {
+
+    private final boolean nullable;
+    private final int rows;
+    private final String[] names;
+    private final byte[] types;
+
+    private byte[] payload;
+    private int[] positions;
+    private byte[] lookupBits;
+    private long[] lookupIndices;
+    private Column[] decoded;
+
+    /** The DataFrame with all columns decoded, or null if not yet decoded **/
+    private DataFrame frame;
+
+    /**
+     * Constructs a new <code>LazyDataFrame</code> from the undecoded payload
+     * of a serialized DataFrame
+     * 
+     * @param implDefault Indicates whether the serialized DataFrame is
+     *                    a DefaultDataFrame
+     * @param rows The number of rows
+     * @param names The column names
+     * @param types The column type codes
+     * @param payload The serialized column values
+     * @param positions The position of the byte preceding the payload of
+     *                  each column
+     * @param lookupBits The lookup list of a NullableDataFrame, or null
+     * @param lookupIndices The index of the first lookup bit of each column
+     */
+    LazyDataFrame(final boolean implDefault, final int rows, final String[] names,
+            final byte[] types, final byte[] payload, final int[] positions,
+            final byte[] lookupBits, final long[] lookupIndices){
+
+        this.nullable = !implDefault;
+        this.rows = rows;
+        this.names = names;
+        this.types = types;
+        this.payload = payload;
+        this.positions = positions;
+        this.lookupBits = lookupBits;
+        this.lookupIndices = lookupIndices;
+        this.decoded = new Column[names.length];
+    }
+
+    /**
+     * Returns the column at the specified index, decoding it if necessary
+     * 
+     * @param col The index of the column to get. Must be valid
+     * @return The decoded column at the specified index
+     */
+    private Column decode(final int col){
+        Column column = decoded[col];
+        if(column == null){
+            column = DataFrameSerializer.decodeImplv2(payload,
+                    new DataFrameSerializer.Cursor(positions[col], lookupIndices[col]),
+                    types[col], rows, names[col], lookupBits);
+
+            decoded[col] = column;
+        }
+        return column;
+    }
+
+    /**
+     * Returns the DataFrame holding all columns, decoding all
+     * remaining columns if necessary
+     * 
+     * @return The DataFrame holding all decoded columns
+     */
+    private DataFrame frame(){
+        if(frame == null){
+            final Column[] columns = new Column[decoded.length];
+            for(int i=0; i<columns.length; ++i){
+                columns[i] = decode(i);
+            }
+            this.frame = nullable
+                    ? new NullableDataFrame(names, columns)
+                    : new DefaultDataFrame(names, columns);
+
+            //the undecoded payload is no longer needed
+            this.payload = null;
+            this.positions = null;
+            this.lookupBits = null;
+            this.lookupIndices = null;
+            this.decoded = null;
+        }
+        return frame;
+    }
+
+    /**
+     * Returns the index of the column with the specified name, or -1
+     * if the column is not found or all columns are already decoded
+     * 
+     * @param col The name of the column
+     * @return The index of the column with the specified name
+     */
+    private int indexOf(final String col){
+        if((frame == null) && (col != null)){
+            for(int i=0; i<names.length; ++i){
+                if(names[i].equals(col)){
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the decoded column at the specified index if the specified
+     * value can be read from it directly. Returns null if the access is
+     * invalid or if all columns are already decoded, in which case the
+     * operation must be delegated to the decoded DataFrame
+     * 
+     * @param col The index of the column
+     * @param row The index of the row
+     * @param typeDefault The type code of the expected default column
+     * @param typeNullable The type code of the expected nullable column
+     * @return The decoded column, or null
+     */
+    private Column column(final int col, final int row,
+            final byte typeDefault, final byte typeNullable){
+
+        if((frame != null) || (col < 0) || (col >= names.length)
+                || (row < 0) || (row >= rows)){
+
+            return null;
+        }
+        if(types[col] != (nullable ? typeNullable : typeDefault)){
+            return null;
+        }
+        return decode(col);
+    }
+
+    /**
+     * Returns this DataFrame if the specified DataFrame is the decoded
+     * DataFrame, or the specified DataFrame otherwise
+     * 
+     * @param df The DataFrame returned by the decoded DataFrame
+     * @return The DataFrame to return to the caller
+     */
+    private DataFrame self(final DataFrame df){
+        return ((df != null) && (df == frame)) ? this : df;
+    }
+
+    @Override
+    public Byte getByte(final int col, final int row){
+        final Column c = column(col, row,
+                ByteColumn.TYPE_CODE, NullableByteColumn.TYPE_CODE);
+
+        return (c != null) ? (Byte) c.getValue(row) : frame().getByte(col, row);
+    }
+
+    @Override
+    public Byte getByte(final String col, final int row){
+        final Column c = column(indexOf(col), row,
+                ByteColumn.TYPE_CODE, NullableByteColumn.TYPE_CODE);
+
+        return (c != null) ? (Byte) c.getValue(row) : frame().getByte(col, row);
+    }
+
+    @Override
+    public Short getShort(final int col, final int row){
+        final Column c = column(col, row,
+                ShortColumn.TYPE_CODE, NullableShortColumn.TYPE_CODE);
+
+        return (c != null) ? (Short) c.getValue(row) : frame().getShort(col, row);
+    }
+
+    @Override
+    public Short getShort(final String col, final int row){
+        final Column c = column(indexOf(col), row,
+                ShortColumn.TYPE_CODE, NullableShortColumn.TYPE_CODE);
+
+        return (c != null) ? (Short) c.getValue(row) : frame().getShort(col, row);
+    }
+
+    @Override
+    public Integer getInt(final int col, final int row){
+        final Column c = column(col, row,
+                IntColumn.TYPE_CODE, NullableIntColumn.TYPE_CODE);
+
+        return (c != null) ? (Integer) c.getValue(row) : frame().getInt(col, row);
+    }
+
+    @Override
+    public Integer getInt(final String col, final int row){
+        final Column c = column(indexOf(col), row,
+                IntColumn.TYPE_CODE, NullableIntColumn.TYPE_CODE);
+
+        return (c != null) ? (Integer) c.getValue(row) : frame().getInt(col, row);
+    }
+
+    @Override
+    public Long getLong(final int col, final int row){
+        final Column c = column(col, row,
+                LongColumn.TYPE_CODE, NullableLongColumn.TYPE_CODE);
+
+        return (c != null) ? (Long) c.getValue(row) : frame().getLong(col, row);
+    }
+
+    @Override
+    public Long getLong(final String col, final int row){
+        final Column c = column(indexOf(col), row,
+                LongColumn.TYPE_CODE, NullableLongColumn.TYPE_CODE);
+
+        return (c != null) ? (Long) c.getValue(row) : frame().getLong(col, row);
+    }
+
+    @Override
+    public String getString(final int col, final int row){
+        final Column c = column(col, row,
+                StringColumn.TYPE_CODE, NullableStringColumn.TYPE_CODE);
+
+        return (c != null) ? (String) c.getValue(row) : frame().getString(col, row);
+    }
+
+    @Override
+    public String getString(final String col, final int row){
+        final Column c = column(indexOf(col), row,
+                StringColumn.TYPE_CODE, NullableStringColumn.TYPE_CODE);
+
+        return (c != null) ? (String) c.getValue(row) : frame().getString(col, row);
+    }
+
+    @Override
+    public Float getFloat(final int col, final int row){
+        final Column c = column(col, row,
+                FloatColumn.TYPE_CODE, NullableFloatColumn.TYPE_CODE);
+
+        return (c != null) ? (Float) c.getValue(row) : frame().getFloat(col, row);
+    }
+
+    @Override
+    public Float getFloat(final String col, final int row){
+        final Column c = column(indexOf(col), row,
+                FloatColumn.TYPE_CODE, NullableFloatColumn.TYPE_CODE);
+
+        return (c != null) ? (Float) c.getValue(row) : frame().getFloat(col, row);
+    }
+
+    @Override
+    public Double getDouble(final int col, final int row){
+        final Column c = column(col, row,
+                DoubleColumn.TYPE_CODE, NullableDoubleColumn.TYPE_CODE);
+
+        return (c != null) ? (Double) c.getValue(row) : frame().getDouble(col, row);
+    }
+
+    @Override
+    public Double getDouble(final String col, final int row){
+        final Column c = column(indexOf(col), row,
+                DoubleColumn.TYPE_CODE, NullableDoubleColumn.TYPE_CODE);
+
+        return (c != null) ? (Double) c.getValue(row) : frame().getDouble(col, row);
+    }
+
+    @Override
+    public Character getChar(final int col, final int row){
+        final Column c = column(col, row,
+                CharColumn.TYPE_CODE, NullableCharColumn.TYPE_CODE);
+
+        return (c != null) ? (Character) c.getValue(row) : frame().getChar(col, row);
+    }
+
+    @Override
+    public Character getChar(final String col, final int row){
+        final Column c = column(indexOf(col), row,
+                CharColumn.TYPE_CODE, NullableCharColumn.TYPE_CODE);
+
+        return (c != null) ? (Character) c.getValue(row) : frame().getChar(col, row);
+    }
+
+    @Override
+    public Boolean getBoolean(final int col, final int row){
+        final Column c = column(col, row,
+                BooleanColumn.TYPE_CODE, NullableBooleanColumn.TYPE_CODE);
+
+        return (c != null) ? (Boolean) c.getValue(row) : frame().getBoolean(col, row);
+    }
+
+    @Override
+    public Boolean getBoolean(final String col, final int row){
+        final Column c = column(indexOf(col), row,
+                BooleanColumn.TYPE_CODE, NullableBooleanColumn.TYPE_CODE);
+
+        return (c != null) ? (Boolean) c.getValue(row) : frame().getBoolean(col, row);
+    }
+
+    @Override
+    public byte[] getBinary(final int col, final int row){
+        final Column c = column(col, row,
+                BinaryColumn.TYPE_CODE, NullableBinaryColumn.TYPE_CODE);
+
+        return (c != null) ? (byte[]) c.getValue(row) : frame().getBinary(col, row);
+    }
+
+    @Override
+    public byte[] getBinary(final String col, final int row){
+        final Column c = column(indexOf(col), row,
+                BinaryColumn.TYPE_CODE, NullableBinaryColumn.TYPE_CODE);
+
+        return (c != null) ? (byte[]) c.getValue(row) : frame().getBinary(col, row);
+    }
+
+    @Override
+    public Number getNumber(final int col, final int row){
+        if((frame == null) && (col >= 0) && (col < names.length)
+                && (row >= 0) && (row < rows)){
+
+            final Column c = decode(col);
+            if(c.isNumeric()){
+                return (Number) c.getValue(row);
+            }
+        }
+        return frame().getNumber(col, row);
+    }
+
+    @Override
+    public Number getNumber(final String col, final int row){
+        final int c = indexOf(col);
+        return (c != -1) ? getNumber(c, row) : frame().getNumber(col, row);
+    }
+
+    @Override
+    public String[] getColumnNames(){
+        return (frame == null) ? names.clone() : frame.getColumnNames();
+    }
+
+    @Override
+    public String getColumnName(final int col){
+        if((frame == null) && (col >= 0) && (col < names.length)){
+            return names[col];
+        }
+        return frame().getColumnName(col);
+    }
+
+    @Override
+    public int getColumnIndex(final String col){
+        final int c = indexOf(col);
+        return (c != -1) ? c : frame().getColumnIndex(col);
+    }
+
+    @Override
+    public boolean hasColumn(final String col){
+        if((frame == null) && (col != null) && !col.isEmpty()){
+            return (indexOf(col) != -1);
+        }
+        return frame().hasColumn(col);
+    }
+
+    @Override
+    public boolean hasColumnNames(){
+        return (frame == null) || frame.hasColumnNames();
+    }
+
+    @Override
+    public int columns(){
+        return (frame == null) ? names.length : frame.columns();
+    }
+
+    @Override
+    public int capacity(){
+        return (frame == null) ? rows : frame.capacity();
+    }
+
+    @Override
+    public int rows(){
+        return (frame == null) ? rows : frame.rows();
+    }
+
+    @Override
+    public boolean isEmpty(){
+        return (frame == null) ? (rows == 0) : frame.isEmpty();
+    }
+
+    @Override
+    public boolean isNullable(){
+        return nullable;
+    }
+
+    @Override
+    public void flush(){
+        //the capacity of all undecoded columns is equal to the row count
+        if(frame != null){
+            frame.flush();
+        }
+    }
+
+    @Override
+    public Column getColumn(final int col){
+        if((frame == null) && (col >= 0) && (col < names.length)){
+            return decode(col);
+        }
+        return frame().getColumn(col);
+    }
+
+    @Override
+    public Column getColumn(final String col){
+        final int c = indexOf(col);
+        return (c != -1) ? decode(c) : frame().getColumn(col);
+    }
+
+    @Override
+    public DataFrame clone(){
+        return frame().clone();
+    }
+
+    @Override
+    public int hashCode(){
+        return frame().hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj){
+        if(obj == this){
+            return true;
+        }
+        //like the concrete DataFrame implementations, a lazy
+        //DataFrame is only equal to DataFrames of its own kind
+        if(!(obj instanceof LazyDataFrame)){
+            return false;
+        }
+        return frame().equals(((LazyDataFrame) obj).frame());
+    }
+
+    @Override
+    public String toString(){
+        return frame().toString();
+    }
+
+    @Override
+    public void setByte(final int col, final int row, final Byte value){
+        frame().setByte(col, row, value);
+    }
+
+    @Override
+    public void setByte(final String col, final int row, final Byte value){
+        frame().setByte(col, row, value);
+    }
+
+    @Override
+    public void setShort(final int col, final int row, final Short value){
+        frame().setShort(col, row, value);
+    }
+
+    @Override
+    public void setShort(final String col, final int row, final Short value){
+        frame().setShort(col, row, value);
+    }
+
+    @Override
+    public void setInt(final int col, final int row, final Integer value){
+        frame().setInt(col, row, value);
+    }
+
+    @Override
+    public void setInt(final String col, final int row, final Integer value){
+        frame().setInt(col, row, value);
+    }
+
+    @Override
+    public void setLong(final int col, final int row, final Long value){
+        frame().setLong(col, row, value);
+    }
+
+    @Override
+    public void setLong(final String col, final int row, final Long value){
+        frame().setLong(col, row, value);
+    }
+
+    @Override
+    public void setString(final int col, final int row, final String value){
+        frame().setString(col, row, value);
+    }
+
+    @Override
+    public void setString(final String col, final int row, final String value){
+        frame().setString(col, row, value);
+    }
+
+    @Override
+    public void setFloat(final int col, final int row, final Float value){
+        frame().setFloat(col, row, value);
+    }
+
+    @Override
+    public void setFloat(final String col, final int row, final Float value){
+        frame().setFloat(col, row, value);
+    }
+
+    @Override
+    public void setDouble(final int col, final int row, final Double value){
+        frame().setDouble(col, row, value);
+    }
+
+    @Override
+    public void setDouble(final String col, final int row, final Double value){
+        frame().setDouble(col, row, value);
+    }
+
+    @Override
+    public void setChar(final int col, final int row, final Character value){
+        frame().setChar(col, row, value);
+    }
+
+    @Override
+    public void setChar(final String col, final int row, final Character value){
+        frame().setChar(col, row, value);
+    }
+
+    @Override
+    public void setBoolean(final int col, final int row, final Boolean value){
+        frame().setBoolean(col, row, value);
+    }
+
+    @Override
+    public void setBoolean(final String col, final int row, final Boolean value){
+        frame().setBoolean(col, row, value);
+    }
+
+    @Override
+    public void setBinary(final int col, final int row, final byte[] value){
+        frame().setBinary(col, row, value);
+    }
+
+    @Override
+    public void setBinary(final String col, final int row, final byte[] value){
+        frame().setBinary(col, row, value);
+    }
+
+    @Override
+    public void setNumber(final int col, final int row, final Number value){
+        frame().setNumber(col, row, value);
+    }
+
+    @Override
+    public void setNumber(final String col, final int row, final Number value){
+        frame().setNumber(col, row, value);
+    }
+
+    @Override
+    public DataFrame setColumnNames(final String... names){
+        return self(frame().setColumnNames(names));
+    }
+
+    @Override
+    public boolean setColumnName(final int col, final String name){
+        return frame().setColumnName(col, name);
+    }
+
+    @Override
+    public DataFrame setColumnName(final String col, final String name){
+        return self(frame().setColumnName(col, name));
+    }
+
+    @Override
+    public DataFrame removeColumnNames(){
+        return self(frame().removeColumnNames());
+    }
+
+    @Override
+    public Object[] getRow(final int index){
+        return frame().getRow(index);
+    }
+
+    @Override
+    public <T extends Row> T getRow(final int index, final Class<T> classOfT){
+        return frame().getRow(index, classOfT);
+    }
+
+    @Override
+    public DataFrame getRows(final int from, final int to){
+        return self(frame().getRows(from, to));
+    }
+
+    @Override
+    public DataFrame setRow(final int index, final Object... row){
+        return self(frame().setRow(index, row));
+    }
+
+    @Override
+    public DataFrame setRow(final int index, final Row row){
+        return self(frame().setRow(index, row));
+    }
+
+    @Override
+    public DataFrame addRow(final Object... row){
+        return self(frame().addRow(row));
+    }
+
+    @Override
+    public DataFrame addRow(final Row row){
+        return self(frame().addRow(row));
+    }
+
+    @Override
+    public DataFrame addRows(final DataFrame rows){
+        return self(frame().addRows(rows));
+    }
+
+    @Override
+    public DataFrame insertRow(final int index, final Object... row){
+        return self(frame().insertRow(index, row));
+    }
+
+    @Override
+    public DataFrame insertRow(final int index, final Row row){
+        return self(frame().insertRow(index, row));
+    }
+
+    @Override
+    public DataFrame removeRow(final int index){
+        return self(frame().removeRow(index));
+    }
+
+    @Override
+    public DataFrame removeRows(final int from, final int to){
+        return self(frame().removeRows(from, to));
+    }
+
+    @Override
+    public int removeRows(final int col, final String regex){
+        return frame().removeRows(col, regex);
+    }
+
+    @Override
+    public int removeRows(final String col, final String regex){
+        return frame().removeRows(col, regex);
+    }
+
+    @Override
+    public DataFrame addColumn(final Column col){
+        return self(frame().addColumn(col));
+    }
+
+    @Override
+    public DataFrame addColumn(final String colName, final Column col){
+        return self(frame().addColumn(colName, col));
+    }
+
+    @Override
+    public Column removeColumn(final int col){
+        return frame().removeColumn(col);
+    }
+
+    @Override
+    public Column removeColumn(final String col){
+        return frame().removeColumn(col);
+    }
+
+    @Override
+    public boolean removeColumn(final Column col){
+        return frame().removeColumn(col);
+    }
+
+    @Override
+    public DataFrame insertColumn(final int index, final Column col){
+        return self(frame().insertColumn(index, col));
+    }
+
+    @Override
+    public DataFrame insertColumn(final int index, final String colName,
+            final Column col){
+        return self(frame().insertColumn(index, colName, col));
+    }
+
+    @Override
+    public boolean contains(final int col, final String regex){
+        return frame().contains(col, regex);
+    }
+
+    @Override
+    public boolean contains(final String col, final String regex){
+        return frame().contains(col, regex);
+    }
+
+    @Override
+    public void clear(){
+        frame().clear();
+    }
+
+    @Override
+    public DataFrame getColumns(final int... cols){
+        return self(frame().getColumns(cols));
+    }
+
+    @Override
+    public DataFrame getColumns(final String... cols){
+        return self(frame().getColumns(cols));
+    }
+
+    @Override
+    public DataFrame getColumns(final Class<?>... cols){
+        return self(frame().getColumns(cols));
+    }
+
+    @Override
+    public DataFrame setColumn(final int index, final Column col){
+        return self(frame().setColumn(index, col));
+    }
+
+    @Override
+    public DataFrame setColumn(final String colName, final Column col){
+        return self(frame().setColumn(colName, col));
+    }
+
+    @Override
+    public DataFrame convert(final int col, final byte typeCode){
+        return self(frame().convert(col, typeCode));
+    }
+
+    @Override
+    public DataFrame convert(final String col, final byte typeCode){
+        return self(frame().convert(col, typeCode));
+    }
+
+    @Override
+    public int indexOf(final int col, final String regex){
+        return frame().indexOf(col, regex);
+    }
+
+    @Override
+    public int indexOf(final String col, final String regex){
+        return frame().indexOf(col, regex);
+    }
+
+    @Override
+    public int indexOf(final int col, final int startFrom, final String regex){
+        return frame().indexOf(col, startFrom, regex);
+    }
+
+    @Override
+    public int indexOf(final String col, final int startFrom, final String regex){
+        return frame().indexOf(col, startFrom, regex);
+    }
+
+    @Override
+    public int[] indexOfAll(final int col, final String regex){
+        return frame().indexOfAll(col, regex);
+    }
+
+    @Override
+    public int[] indexOfAll(final String col, final String regex){
+        return frame().indexOfAll(col, regex);
+    }
+
+    @Override
+    public DataFrame filter(final int col, final String regex){
+        return self(frame().filter(col, regex));
+    }
+
+    @Override
+    public DataFrame filter(final String col, final String regex){
+        return self(frame().filter(col, regex));
+    }
+
+    @Override
+    public DataFrame include(final int col, final String regex){
+        return self(frame().include(col, regex));
+    }
+
+    @Override
+    public DataFrame include(final String col, final String regex){
+        return self(frame().include(col, regex));
+    }
+
+    @Override
+    public DataFrame drop(final int col, final String regex){
+        return self(frame().drop(col, regex));
+    }
+
+    @Override
+    public DataFrame drop(final String col, final String regex){
+        return self(frame().drop(col, regex));
+    }
+
+    @Override
+    public DataFrame exclude(final int col, final String regex){
+        return self(frame().exclude(col, regex));
+    }
+
+    @Override
+    public DataFrame exclude(final String col, final String regex){
+        return self(frame().exclude(col, regex));
+    }
+
+    @Override
+    public int replace(final int col, final String regex, final Object value){
+        return frame().replace(col, regex, value);
+    }
+
+    @Override
+    public int replace(final String col, final String regex, final Object value){
+        return frame().replace(col, regex, value);
+    }
+
+    @Override
+    public <T> int replace(final int col, final ValueReplacement<T> value){
+        return frame().replace(col, value);
+    }
+
+    @Override
+    public <T> int replace(final String col, final ValueReplacement<T> value){
+        return frame().replace(col, value);
+    }
+
+    @Override
+    public <T> int replace(final int col, final IndexedValueReplacement<T> value){
+        return frame().replace(col, value);
+    }
+
+    @Override
+    public <T> int replace(final String col, final IndexedValueReplacement<T> value){
+        return frame().replace(col, value);
+    }
+
+    @Override
+    public <T> int replace(final int col, final String regex,
+            final ValueReplacement<T> value){
+        return frame().replace(col, regex, value);
+    }
+
+    @Override
+    public <T> int replace(final String col, final String regex,
+            final ValueReplacement<T> value){
+        return frame().replace(col, regex, value);
+    }
+
+    @Override
+    public <T> int replace(final int col, final String regex,
+            final IndexedValueReplacement<T> value){
+        return frame().replace(col, regex, value);
+    }
+
+    @Override
+    public <T> int replace(final String col, final String regex,
+            final IndexedValueReplacement<T> value){
+        return frame().replace(col, regex, value);
+    }
+
+    @Override
+    public int replace(final DataFrame df){
+        return frame().replace(df);
+    }
+
+    @Override
+    public Map<Object, Integer> factor(final int col){
+        return frame().factor(col);
+    }
+
+    @Override
+    public Map<Object, Integer> factor(final String col){
+        return frame().factor(col);
+    }
+
+    @Override
+    public DataFrame count(final int col){
+        return self(frame().count(col));
+    }
+
+    @Override
+    public DataFrame count(final String col){
+        return self(frame().count(col));
+    }
+
+    @Override
+    public int count(final int col, final String regex){
+        return frame().count(col, regex);
+    }
+
+    @Override
+    public int count(final String col, final String regex){
+        return frame().count(col, regex);
+    }
+
+    @Override
+    public int countUnique(final int col){
+        return frame().countUnique(col);
+    }
+
+    @Override
+    public int countUnique(final String col){
+        return frame().countUnique(col);
+    }
+
+    @Override
+    public <T> Set<T> unique(final int col){
+        return frame().unique(col);
+    }
+
+    @Override
+    public <T> Set<T> unique(final String col){
+        return frame().unique(col);
+    }
+
+    @Override
+    public DataFrame differenceColumns(final DataFrame df){
+        return self(frame().differenceColumns(df));
+    }
+
+    @Override
+    public DataFrame unionColumns(final DataFrame df){
+        return self(frame().unionColumns(df));
+    }
+
+    @Override
+    public DataFrame intersectionColumns(final DataFrame df){
+        return self(frame().intersectionColumns(df));
+    }
+
+    @Override
+    public DataFrame differenceRows(final DataFrame df){
+        return self(frame().differenceRows(df));
+    }
+
+    @Override
+    public DataFrame unionRows(final DataFrame df){
+        return self(frame().unionRows(df));
+    }
+
+    @Override
+    public DataFrame intersectionRows(final DataFrame df){
+        return self(frame().intersectionRows(df));
+    }
+
+    @Override
+    public DataFrame groupMinimumBy(final int col){
+        return self(frame().groupMinimumBy(col));
+    }
+
+    @Override
+    public DataFrame groupMinimumBy(final String col){
+        return self(frame().groupMinimumBy(col));
+    }
+
+    @Override
+    public DataFrame groupMaximumBy(final int col){
+        return self(frame().groupMaximumBy(col));
+    }
+
+    @Override
+    public DataFrame groupMaximumBy(final String col){
+        return self(frame().groupMaximumBy(col));
+    }
+
+    @Override
+    public DataFrame groupAverageBy(final int col){
+        return self(frame().groupAverageBy(col));
+    }
+
+    @Override
+    public DataFrame groupAverageBy(final String col){
+        return self(frame().groupAverageBy(col));
+    }
+
+    @Override
+    public DataFrame groupSumBy(final int col){
+        return self(frame().groupSumBy(col));
+    }
+
+    @Override
+    public DataFrame groupSumBy(final String col){
+        return self(frame().groupSumBy(col));
+    }
+
+    @Override
+    public DataFrame join(final DataFrame df){
+        return self(frame().join(df));
+    }
+
+    @Override
+    public DataFrame join(final DataFrame df, final String col){
+        return self(frame().join(df, col));
+    }
+
+    @Override
+    public DataFrame join(final DataFrame df, final String col1, final String col2){
+        return self(frame().join(df, col1, col2));
+    }
+
+    @Override
+    public double average(final int col){
+        return frame().average(col);
+    }
+
+    @Override
+    public double average(final String col){
+        return frame().average(col);
+    }
+
+    @Override
+    public double median(final int col){
+        return frame().median(col);
+    }
+
+    @Override
+    public double median(final String col){
+        return frame().median(col);
+    }
+
+    @Override
+    public double minimum(final int col){
+        return frame().minimum(col);
+    }
+
+    @Override
+    public double minimum(final String col){
+        return frame().minimum(col);
+    }
+
+    @Override
+    public DataFrame minimum(final int col, final int rank){
+        return self(frame().minimum(col, rank));
+    }
+
+    @Override
+    public DataFrame minimum(final String col, final int rank){
+        return self(frame().minimum(col, rank));
+    }
+
+    @Override
+    public double maximum(final int col){
+        return frame().maximum(col);
+    }
+
+    @Override
+    public double maximum(final String col){
+        return frame().maximum(col);
+    }
+
+    @Override
+    public DataFrame maximum(final int col, final int rank){
+        return self(frame().maximum(col, rank));
+    }
+
+    @Override
+    public DataFrame maximum(final String col, final int rank){
+        return self(frame().maximum(col, rank));
+    }
+
+    @Override
+    public double sum(final int col){
+        return frame().sum(col);
+    }
+
+    @Override
+    public double sum(final String col){
+        return frame().sum(col);
+    }
+
+    @Override
+    public DataFrame absolute(final int col){
+        return self(frame().absolute(col));
+    }
+
+    @Override
+    public DataFrame absolute(final String col){
+        return self(frame().absolute(col));
+    }
+
+    @Override
+    public DataFrame ceil(final int col){
+        return self(frame().ceil(col));
+    }
+
+    @Override
+    public DataFrame ceil(final String col){
+        return self(frame().ceil(col));
+    }
+
+    @Override
+    public DataFrame floor(final int col){
+        return self(frame().floor(col));
+    }
+
+    @Override
+    public DataFrame floor(final String col){
+        return self(frame().floor(col));
+    }
+
+    @Override
+    public DataFrame round(final int col, final int decPlaces){
+        return self(frame().round(col, decPlaces));
+    }
+
+    @Override
+    public DataFrame round(final String col, final int decPlaces){
+        return self(frame().round(col, decPlaces));
+    }
+
+    @Override
+    public DataFrame clip(final int col, final Number low, final Number high){
+        return self(frame().clip(col, low, high));
+    }
+
+    @Override
+    public DataFrame clip(final String col, final Number low, final Number high){
+        return self(frame().clip(col, low, high));
+    }
+
+    @Override
+    public DataFrame sortBy(final int col){
+        return self(frame().sortBy(col));
+    }
+
+    @Override
+    public DataFrame sortBy(final String col){
+        return self(frame().sortBy(col));
+    }
+
+    @Override
+    public DataFrame sortAscendingBy(final int col){
+        return self(frame().sortAscendingBy(col));
+    }
+
+    @Override
+    public DataFrame sortAscendingBy(final String col){
+        return self(frame().sortAscendingBy(col));
+    }
+
+    @Override
+    public DataFrame sortDescendingBy(final int col){
+        return self(frame().sortDescendingBy(col));
+    }
+
+    @Override
+    public DataFrame sortDescendingBy(final String col){
+        return self(frame().sortDescendingBy(col));
+    }
+
+    @Override
+    public DataFrame head(){
+        return self(frame().head());
+    }
+
+    @Override
+    public DataFrame head(final int rows){
+        return self(frame().head(rows));
+    }
+
+    @Override
+    public DataFrame tail(){
+        return self(frame().tail());
+    }
+
+    @Override
+    public DataFrame tail(final int rows){
+        return self(frame().tail(rows));
+    }
+
+    @Override
+    public String info(){
+        return frame().info();
+    }
+
+    @Override
+    public Object[][] toArray(){
+        return frame().toArray();
+    }
+
+    @Override
+    public int memoryUsage(){
+        return frame().memoryUsage();
+    }
+
+    @Override
+    public Iterator<Column> iterator(){
+        return frame().iterator();
+    }
+}
@@ -0,0 +1,725 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.raven.common.io;
+
+import java.math.BigInteger;
+
+/**
+ * Parses and formats numbers directly from and into character arrays without
+ * creating intermediate String objects.
+ * 
+ * <p>Decimal floating point numbers are parsed with the algorithm by
+ * Eisel and Lemire, which computes the correctly rounded value from the decimal
+ * significand and a precomputed 128-bit approximation of the corresponding
+ * power of five. Inputs which are not covered by that algorithm, for example
+ * values with more than 19 significant digits, subnormal values or any syntax
+ * other than plain decimal notation, are delegated to the parse methods
+ * of <code>Double</code> and <code>Float</code>.
+ * 
+ * <p>Floating point numbers are formatted with the Schubfach algorithm by
+ * Giulietti, which produces the shortest decimal representation that is
+ * parsed back to the same value. The produced text uses the same notation as
+ * <code>Double.toString()</code> and <code>Float.toString()</code>.
+ * 
+ * <p>This class is not part of the public API.
+ * 
+ * @author Phil Gaiser
+ * @see CSVReader
+ * @see CSVWriter
+ * @since 4.1.0
+ *
+ */
+final class NumberCodec {
+
+    /** The maximum number of characters written by any format method **/
+    static final int MAX_CHARS = 26;
+
+    /** The maximum number of significant digits handled without fallback **/
+    private static final int MAX_DIGITS = 19;
+
+    /** Exactly representable powers of ten of type double **/
+    private static final double[] DOUBLE_POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /** Exactly representable powers of ten of type float **/
+    private static final float[] FLOAT_POW10 = {
+        1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+
+    /** The smallest power of ten of the power of five table **/
+    private static final int MIN_POW5 = -342;
+
+    /** The largest power of ten of the power of five table **/
+    private static final int MAX_POW5 = 308;
+
+    /**
+     * 128-bit approximations of all powers of five within [MIN_POW5, MAX_POW5],
+     * stored as pairs of the high and low 64 bits. Each value is normalized
+     * so that its most significant bit is set
+     */
+    private static final long[] POW5 = powersOfFive();
+
+    /** The smallest decimal exponent of the Schubfach table **/
+    private static final int K_MIN = -324;
+
+    /** The largest decimal exponent of the Schubfach table **/
+    private static final int K_MAX = 292;
+
+    /**
+     * 126-bit approximations of all powers of ten 10<sup>-k</sup> for
+     * k within [K_MIN, K_MAX], stored as pairs of the high and low 63 bits
+     */
+    private static final long[] G = powersOfTen();
+
+    private static final long MASK_32 = (1L << 32) - 1;
+    private static final long MASK_63 = (1L << 63) - 1;
+
+    /** The number of significand bits of a double, including the hidden bit **/
+    private static final int DOUBLE_P = 53;
+    private static final int DOUBLE_Q_MIN = -1074;
+    private static final long DOUBLE_C_MIN = 1L << 52;
+    private static final int DOUBLE_C_TINY = 3;
+
+    /** The number of significand bits of a float, including the hidden bit **/
+    private static final int FLOAT_P = 24;
+    private static final int FLOAT_Q_MIN = -149;
+    private static final int FLOAT_C_MIN = 1 << 23;
+    private static final int FLOAT_C_TINY = 8;
+
+    private NumberCodec(){ }
+
+    /**
+     * Parses the specified range of characters as a decimal integer
+     * 
+     * @param chars The array holding the characters to parse
+     * @param start The start index of the range, inclusive
+     * @param end The end index of the range, exclusive
+     * @param min The minimum permitted value
+     * @param max The maximum permitted value
+     * @return The parsed value
+     * @throws NumberFormatException If the specified range does not represent
+     *                               a decimal integer within the specified bounds
+     */
+    static long parseLong(final char[] chars, final int start, final int end,
+            final long min, final long max){
+
+        int i = start;
+        boolean negative = false;
+        if(i < end){
+            final char c = chars[i];
+            if((c == '-') || (c == '+')){
+                negative = (c == '-');
+                ++i;
+            }
+        }
+        if(i == end){
+            throw numberFormatException(chars, start, end);
+        }
+        //accumulate negatively to be able to represent Long.MIN_VALUE
+        long value = 0;
+        final long limit = negative ? min : -max;
+        final long multmin = limit / 10;
+        for(; i<end; ++i){
+            final int digit = chars[i] - '0';
+            if((digit < 0) || (digit > 9) || (value < multmin)){
+                throw numberFormatException(chars, start, end);
+            }
+            value *= 10;
+            if(value < (limit + digit)){
+                throw numberFormatException(chars, start, end);
+            }
+            value -= digit;
+        }
+        return negative ? value : -value;
+    }
+
+    /**
+     * Parses the specified range of characters as a double. The accepted
+     * syntax is the same as of <code>Double.parseDouble(String)</code>
+     * 
+     * @param chars The array holding the characters to parse
+     * @param start The start index of the range, inclusive
+     * @param end The end index of the range, exclusive
+     * @return The double value closest to the specified decimal number
+     * @throws NumberFormatException If the specified range does not
+     *                               represent a number
+     */
+    static double parseDouble(final char[] chars, final int start, final int end){
+        return parse(chars, start, end, false);
+    }
+
+    /**
+     * Parses the specified range of characters as a float. The accepted
+     * syntax is the same as of <code>Float.parseFloat(String)</code>
+     * 
+     * @param chars The array holding the characters to parse
+     * @param start The start index of the range, inclusive
+     * @param end The end index of the range, exclusive
+     * @return The float value closest to the specified decimal number
+     * @throws NumberFormatException If the specified range does not
+     *                               represent a number
+     */
+    static float parseFloat(final char[] chars, final int start, final int end){
+        return (float) parse(chars, start, end, true);
+    }
+
+    /**
+     * Writes the decimal representation of the specified value
+     * into the specified buffer
+     * 
+     * @param value The value to format
+     * @param buffer The buffer to write to. Must have space for at
+     *               least <code>MAX_CHARS</code> characters
+     * @param pos The index at which to start writing
+     * @return The index after the last written character
+     */
+    static int formatLong(final long value, final char[] buffer, int pos){
+        if(value == Long.MIN_VALUE){
+            final String s = Long.toString(value);
+            s.getChars(0, s.length(), buffer, pos);
+            return pos + s.length();
+        }
+        long v = value;
+        if(v < 0){
+            buffer[pos++] = '-';
+            v = -v;
+        }
+        final int end = pos + digits(v);
+        int i = end;
+        do{
+            buffer[--i] = (char) ('0' + (v % 10));
+            v /= 10;
+        }while(v != 0);
+        return end;
+    }
+
+    /**
+     * Writes the shortest decimal representation of the specified value
+     * which is parsed back to the same value into the specified buffer.
+     * The notation is the same as of <code>Double.toString(double)</code>
+     * 
+     * @param value The value to format
+     * @param buffer The buffer to write to. Must have space for at
+     *               least <code>MAX_CHARS</code> characters
+     * @param pos The index at which to start writing
+     * @return The index after the last written character
+     */
+    static int formatDouble(final double value, final char[] buffer, int pos){
+        final long bits = Double.doubleToRawLongBits(value);
+        final long t = bits & (DOUBLE_C_MIN - 1);
+        final int bq = (int) (bits >>> 52) & 0x7FF;
+        if(bq == 0x7FF){
+            return special(t != 0, bits < 0, buffer, pos);
+        }
+        if(bits < 0){
+            buffer[pos++] = '-';
+        }
+        if(bq != 0){
+            final int mq = -DOUBLE_Q_MIN + 1 - bq;
+            final long c = DOUBLE_C_MIN | t;
+            //fast path for integral values
+            if((0 < mq) && (mq < DOUBLE_P)){
+                final long f = c >> mq;
+                if((f << mq) == c){
+                    return toChars(f, 0, buffer, pos);
+                }
+            }
+            return toDecimal(-mq, c, 0, buffer, pos);
+        }
+        if(t != 0){
+            return (t < DOUBLE_C_TINY)
+                    ? toDecimal(DOUBLE_Q_MIN, 10 * t, -1, buffer, pos)
+                    : toDecimal(DOUBLE_Q_MIN, t, 0, buffer, pos);
+        }
+        return zero(buffer, pos);
+    }
+
+    /**
+     * Writes the shortest decimal representation of the specified value
+     * which is parsed back to the same value into the specified buffer.
+     * The notation is the same as of <code>Float.toString(float)</code>
+     * 
+     * @param value The value to format
+     * @param buffer The buffer to write to. Must have space for at
+     *               least <code>MAX_CHARS</code> characters
+     * @param pos The index at which to start writing
+     * @return The index after the last written character
+     */
+    static int formatFloat(final float value, final char[] buffer, int pos){
+        final int bits = Float.floatToRawIntBits(value);
+        final int t = bits & (FLOAT_C_MIN - 1);
+        final int bq = (bits >>> 23) & 0xFF;
+        if(bq == 0xFF){
+            return special(t != 0, bits < 0, buffer, pos);
+        }
+        if(bits < 0){
+            buffer[pos++] = '-';
+        }
+        if(bq != 0){
+            final int mq = -FLOAT_Q_MIN + 1 - bq;
+            final int c = FLOAT_C_MIN | t;
+            //fast path for integral values
+            if((0 < mq) && (mq < FLOAT_P)){
+                final int f = c >> mq;
+                if((f << mq) == c){
+                    return toChars(f, 0, buffer, pos);
+                }
+            }
+            return toDecimal(-mq, c, 0, buffer, pos);
+        }
+        if(t != 0){
+            return (t < FLOAT_C_TINY)
+                    ? toDecimal(FLOAT_Q_MIN, 10 * t, -1, buffer, pos)
+                    : toDecimal(FLOAT_Q_MIN, t, 0, buffer, pos);
+        }
+        return zero(buffer, pos);
+    }
+
+    private static double parse(final char[] chars, final int start, final int end,
+            final boolean single){
+
+        int i = start;
+        boolean negative = false;
+        if(i < end){
+            final char c = chars[i];
+            if((c == '-') || (c == '+')){
+                negative = (c == '-');
+                ++i;
+            }
+        }
+        long significand = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean any = false;
+        for(; (i < end) && isDigit(chars[i]); ++i){
+            any = true;
+            if((digits == 0) && (chars[i] == '0')){
+                continue;//leading zero
+            }
+            if(digits == MAX_DIGITS){
+                return fallback(chars, start, end, single);
+            }
+            significand = 10 * significand + (chars[i] - '0');
+            ++digits;
+        }
+        if((i < end) && (chars[i] == '.')){
+            for(++i; (i < end) && isDigit(chars[i]); ++i){
+                any = true;
+                if((digits == 0) && (chars[i] == '0')){
+                    --exponent;
+                    continue;//leading zero
+                }
+                if(digits == MAX_DIGITS){
+                    return fallback(chars, start, end, single);
+                }
+                significand = 10 * significand + (chars[i] - '0');
+                ++digits;
+                --exponent;
+            }
+        }
+        if(!any){
+            return fallback(chars, start, end, single);
+        }
+        if((i < end) && ((chars[i] == 'e') || (chars[i] == 'E'))){
+            ++i;
+            boolean negativeExponent = false;
+            if((i < end) && ((chars[i] == '-') || (chars[i] == '+'))){
+                negativeExponent = (chars[i] == '-');
+                ++i;
+            }
+            if((i == end) || !isDigit(chars[i])){
+                return fallback(chars, start, end, single);
+            }
+            int e = 0;
+            for(; (i < end) && isDigit(chars[i]); ++i){
+                if(e < 100000){//saturate, the result is zero or infinity anyway
+                    e = 10 * e + (chars[i] - '0');
+                }
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        if(i != end){//type suffixes, hexadecimal notation, NaN, Infinity
+            return fallback(chars, start, end, single);
+        }
+        if(significand == 0){
+            return negative ? -0.0 : 0.0;
+        }
+        if(single){
+            //exact as long as the significand and the power are exact floats
+            if((Long.compareUnsigned(significand, 1L << 24) <= 0) && (exponent >= -10) && (exponent <= 10)){
+                final float value = (exponent >= 0)
+                        ? (float) significand * FLOAT_POW10[exponent]
+                        : (float) significand / FLOAT_POW10[-exponent];
+
+                return negative ? -value : value;
+            }
+            return fallback(chars, start, end, true);
+        }
+        //exact as long as the significand and the power are exact doubles
+        if((Long.compareUnsigned(significand, 1L << 53) <= 0) && (exponent >= -22) && (exponent <= 22)){
+            final double value = (exponent >= 0)
+                    ? (double) significand * DOUBLE_POW10[exponent]
+                    : (double) significand / DOUBLE_POW10[-exponent];
+
+            return negative ? -value : value;
+        }
+        final long bits = eiselLemire(significand, exponent);
+        if(bits == -1){
+            return fallback(chars, start, end, false);
+        }
+        return Double.longBitsToDouble(negative ? (bits | Long.MIN_VALUE) : bits);
+    }
+
+    /**
+     * Computes the bits of the double closest to the specified
+     * significand multiplied by the specified power of ten
+     * 
+     * @param significand The unsigned decimal significand. Must not be zero
+     * @param power The decimal exponent
+     * @return The bits of the positive double value, or -1 if the
+     *         result is a subnormal value
+     */
+    private static long eiselLemire(final long significand, final int power){
+        if(power < MIN_POW5){
+            return 0L;
+        }
+        if(power > MAX_POW5){
+            return Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+        }
+        final int lz = Long.numberOfLeadingZeros(significand);
+        final long w = significand << lz;
+        final int index = (power - MIN_POW5) << 1;
+        long hi = unsignedMultiplyHigh(w, POW5[index]);
+        long lo = w * POW5[index];
+        if((hi & 0x1FF) == 0x1FF){
+            final long second = unsignedMultiplyHigh(w, POW5[index + 1]);
+            final long sum = lo + second;
+            if(Long.compareUnsigned(second, sum) > 0){
+                ++hi;
+            }
+            lo = sum;
+        }
+        final int upper = (int) (hi >>> 63);
+        long mantissa = hi >>> (upper + 9);
+        int power2 = (((152170 + 65536) * power) >> 16) + 63 + upper - lz + 1023;
+        if(power2 <= 0){
+            return -1L;
+        }
+        //values exactly halfway between two doubles are rounded to even
+        if((Long.compareUnsigned(lo, 1) <= 0) && (power >= -4) && (power <= 23)
+                && ((mantissa & 3) == 1) && ((mantissa << (upper + 9)) == hi)){
+
+            mantissa &= ~1L;
+        }
+        mantissa += (mantissa & 1);
+        mantissa >>>= 1;
+        if(mantissa >= (2L << 52)){
+            mantissa = 1L << 52;
+            ++power2;
+        }
+        mantissa &= ~(1L << 52);
+        if(power2 >= 0x7FF){
+            return Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+        }
+        return mantissa | ((long) power2 << 52);
+    }
+
+    private static double fallback(final char[] chars, final int start, final int end,
+            final boolean single){
+
+        final String s = new String(chars, start, end - start);
+        return single ? Float.parseFloat(s) : Double.parseDouble(s);
+    }
+
+    private static int toDecimal(final int q, final long c, final int dk,
+            final char[] buffer, final int pos){
+
+        final int out = (int) c & 1;
+        final long cb = c << 2;
+        final long cbr = cb + 2;
+        final long cbl;
+        final int k;
+        if((c != DOUBLE_C_MIN) || (q == DOUBLE_Q_MIN)){
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        }else{
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        final int h = q + flog2pow10(-k) + 2;
+        final int index = (k - K_MIN) << 1;
+        final long g1 = G[index];
+        final long g0 = G[index + 1];
+        final long vb = rop(g1, g0, cb << h);
+        final long vbl = rop(g1, g0, cbl << h);
+        final long vbr = rop(g1, g0, cbr << h);
+        final long s = vb >> 2;
+        if(s >= 100){
+            final long sp10 = 10 * multiplyHigh(s, 115292150460684698L << 4);
+            final long tp10 = sp10 + 10;
+            final boolean upin = (vbl + out) <= (sp10 << 2);
+            final boolean wpin = ((tp10 << 2) + out) <= vbr;
+            if(upin != wpin){
+                return toChars(upin ? sp10 : tp10, k, buffer, pos);
+            }
+        }
+        final long t = s + 1;
+        final boolean uin = (vbl + out) <= (s << 2);
+        final boolean win = ((t << 2) + out) <= vbr;
+        if(uin != win){
+            return toChars(uin ? s : t, k + dk, buffer, pos);
+        }
+        final long cmp = vb - ((s + t) << 1);
+        return toChars(((cmp < 0) || ((cmp == 0) && ((s & 1) == 0))) ? s : t,
+                k + dk, buffer, pos);
+    }
+
+    private static int toDecimal(final int q, final int c, final int dk,
+            final char[] buffer, final int pos){
+
+        final int out = c & 1;
+        final long cb = (long) c << 2;
+        final long cbr = cb + 2;
+        final long cbl;
+        final int k;
+        if((c != FLOAT_C_MIN) || (q == FLOAT_Q_MIN)){
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        }else{
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        final int h = q + flog2pow10(-k) + 33;
+        final long g = G[(k - K_MIN) << 1] + 1;
+        final int vb = rop(g, cb << h);
+        final int vbl = rop(g, cbl << h);
+        final int vbr = rop(g, cbr << h);
+        final int s = vb >> 2;
+        if(s >= 100){
+            final int sp10 = 10 * (int) ((s * 1717986919L) >>> 34);
+            final int tp10 = sp10 + 10;
+            final boolean upin = (vbl + out) <= (sp10 << 2);
+            final boolean wpin = ((tp10 << 2) + out) <= vbr;
+            if(upin != wpin){
+                return toChars(upin ? sp10 : tp10, k, buffer, pos);
+            }
+        }
+        final int t = s + 1;
+        final boolean uin = (vbl + out) <= (s << 2);
+        final boolean win = ((t << 2) + out) <= vbr;
+        if(uin != win){
+            return toChars(uin ? s : t, k + dk, buffer, pos);
+        }
+        final int cmp = vb - ((s + t) << 1);
+        return toChars(((cmp < 0) || ((cmp == 0) && ((s & 1) == 0))) ? s : t,
+                k + dk, buffer, pos);
+    }
+
+    private static long rop(final long g1, final long g0, final long cp){
+        final long x1 = multiplyHigh(g0, cp);
+        final long y0 = g1 * cp;
+        final long y1 = multiplyHigh(g1, cp);
+        final long z = (y0 >>> 1) + x1;
+        final long vbp = y1 + (z >>> 63);
+        return vbp | (((z & MASK_63) + MASK_63) >>> 63);
+    }
+
+    private static int rop(final long g, final long cp){
+        final long x1 = multiplyHigh(g, cp);
+        final long vbp = x1 >>> 31;
+        return (int) (vbp | (((x1 & MASK_32) + MASK_32) >>> 32));
+    }
+
+    /**
+     * Writes the decimal number f * 10<sup>e</sup> in the notation
+     * used by <code>Double.toString()</code>
+     * 
+     * @param f The decimal significand. Must be positive
+     * @param e The decimal exponent
+     * @param buffer The buffer to write to
+     * @param pos The index at which to start writing
+     * @return The index after the last written character
+     */
+    private static int toChars(long f, int e, final char[] buffer, int pos){
+        while((f % 10) == 0){
+            f /= 10;
+            ++e;
+        }
+        final int n = digits(f);
+        //the value is 0.d1...dn * 10^x
+        final int x = e + n;
+        if((0 < x) && (x <= 7)){
+            pos = writeDigits(f, n, buffer, pos);
+            if(n <= x){
+                for(int i=n; i<x; ++i){
+                    buffer[pos++] = '0';
+                }
+                buffer[pos++] = '.';
+                buffer[pos++] = '0';
+            }else{
+                //insert the decimal point
+                System.arraycopy(buffer, pos - (n - x), buffer, pos - (n - x) + 1, n - x);
+                buffer[pos - (n - x)] = '.';
+                ++pos;
+            }
+            return pos;
+        }
+        if((-3 < x) && (x <= 0)){
+            buffer[pos++] = '0';
+            buffer[pos++] = '.';
+            for(int i=x; i<0; ++i){
+                buffer[pos++] = '0';
+            }
+            return writeDigits(f, n, buffer, pos);
+        }
+        pos = writeDigits(f, n, buffer, pos + 1);
+        //move the first digit before the decimal point
+        buffer[pos - n - 1] = buffer[pos - n];
+        buffer[pos - n] = '.';
+        if(n == 1){
+            buffer[pos++] = '0';
+        }
+        buffer[pos++] = 'E';
+        return formatLong(x - 1, buffer, pos);
+    }
+
+    private static int writeDigits(long f, final int n, final char[] buffer,
+            final int pos){
+
+        for(int i=pos+n-1; i>=pos; --i){
+            buffer[i] = (char) ('0' + (f % 10));
+            f /= 10;
+        }
+        return pos + n;
+    }
+
+    private static int special(final boolean nan, final boolean negative,
+            final char[] buffer, final int pos){
+
+        final String s = nan ? "NaN" : (negative ? "-Infinity" : "Infinity");
+        s.getChars(0, s.length(), buffer, pos);
+        return pos + s.length();
+    }
+
+    private static int zero(final char[] buffer, int pos){
+        buffer[pos++] = '0';
+        buffer[pos++] = '.';
+        buffer[pos++] = '0';
+        return pos;
+    }
+
+    private static int digits(final long value){
+        long p = 10;
+        for(int i=1; i<19; ++i){
+            if(value < p){
+                return i;
+            }
+            p *= 10;
+        }
+        return 19;
+    }
+
+    private static boolean isDigit(final char c){
+        return (c >= '0') && (c <= '9');
+    }
+
+    private static int flog10pow2(final int q){
+        return (int) ((q * 661971961083L) >> 41);
+    }
+
+    private static int flog10threeQuartersPow2(final int q){
+        return (int) (((q * 661971961083L) - 274743187321L) >> 41);
+    }
+
+    private static int flog2pow10(final int e){
+        return (int) ((e * 913124641741L) >> 38);
+    }
+
+    private static long multiplyHigh(final long x, final long y){
+        final long x1 = x >> 32;
+        final long x2 = x & MASK_32;
+        final long y1 = y >> 32;
+        final long y2 = y & MASK_32;
+        final long z2 = x2 * y2;
+        final long t = (x1 * y2) + (z2 >>> 32);
+        long z1 = t & MASK_32;
+        final long z0 = t >> 32;
+        z1 += x2 * y1;
+        return (x1 * y1) + z0 + (z1 >> 32);
+    }
+
+    private static long unsignedMultiplyHigh(final long x, final long y){
+        return multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    private static NumberFormatException numberFormatException(final char[] chars,
+            final int start, final int end){
+
+        return new NumberFormatException("For input string: \""
+                + new String(chars, start, end - start) + "\"");
+    }
+
+    private static long[] powersOfFive(){
+        final long[] table = new long[(MAX_POW5 - MIN_POW5 + 1) << 1];
+        final BigInteger five = BigInteger.valueOf(5);
+        final BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+        for(int q=MIN_POW5; q<=MAX_POW5; ++q){
+            BigInteger value;
+            if(q < 0){
+                final BigInteger power = five.pow(-q);
+                final int z = power.bitLength();
+                final int b = (q >= -27) ? (z + 127) : (2 * z + 128);
+                value = BigInteger.ONE.shiftLeft(b).divide(power).add(BigInteger.ONE);
+                if(value.bitLength() > 128){
+                    value = value.shiftRight(value.bitLength() - 128);
+                }
+            }else{
+                value = five.pow(q);
+                final int shift = 128 - value.bitLength();
+                value = (shift >= 0) ? value.shiftLeft(shift) : value.shiftRight(-shift);
+            }
+            final int index = (q - MIN_POW5) << 1;
+            table[index] = value.shiftRight(64).longValue();
+            table[index + 1] = value.and(mask).longValue();
+        }
+        return table;
+    }
+
+    private static long[] powersOfTen(){
+        final long[] table = new long[(K_MAX - K_MIN + 1) << 1];
+        final BigInteger mask = BigInteger.ONE.shiftLeft(63).subtract(BigInteger.ONE);
+        for(int k=K_MIN; k<=K_MAX; ++k){
+            BigInteger beta;
+            if(k <= 0){
+                final BigInteger power = BigInteger.TEN.pow(-k);
+                final int shift = 126 - power.bitLength();
+                beta = (shift >= 0) ? power.shiftLeft(shift) : power.shiftRight(-shift);
+            }else{
+                final BigInteger power = BigInteger.TEN.pow(k);
+                beta = BigInteger.ONE.shiftLeft(125 + power.bitLength()).divide(power);
+            }
+            final BigInteger g = beta.add(BigInteger.ONE);
+            final int index = (k - K_MIN) << 1;
+            table[index] = g.shiftRight(63).longValue();
+            table[index + 1] = g.and(mask).longValue();
+        }
+        return table;
+    }
+}
@@ -0,0 +1,415 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Index of all row groups of a row-group based <code>.df</code> file as
+ * written by a {@link DataFrameAppender}.<br>
+ * A row group is an independently compressed DataFrame holding a batch of
+ * consecutive rows. All row groups of a file share the same column structure.
+ * 
+ * <p>Such a file has the following layout:
+ * <pre>
+ * header:   'D' 'F' 'R' 'G' version(1) reserved(3)
+ * body:     row group 0 | row group 1 | ... | row group n-1
+ * footer:   schemaLength(4) schema(schemaLength)
+ *           n(4) columns(4)
+ *           n * [offset(8) length(4) rows(4) columns * statistics]
+ * trailer:  footerLength(4) 'D' 'F' 'R' 'G'
+ * </pre>
+ * 
+ * The schema is the uncompressed serialized form of a DataFrame without any
+ * rows, which describes the column structure of all row groups. The statistics
+ * of each column within a row group are encoded as described
+ * by {@link ColumnStatistics}. All numbers are encoded in big-endian byte order.
+ * Row groups are located by their offsets only. The body may contain unused
+ * bytes between the last row group and the footer, which are left behind when
+ * a footer is moved by a DataFrameAppender.
+ * 
+ * <p>This class is not part of the public API.
+ * 
+ * @author Phil Gaiser
+ * @see DataFrameAppender
+ * @since 4.1.0
+ *
+ */
+final class RowGroupIndex {
+
+    /** The magic number used to identify row-group based files **/
+    static final byte[] MAGIC = new byte[]{0x44, 0x46, 0x52, 0x47};
+
+    /** The version of the row-group file format **/
+    static final byte VERSION = 0x02;
+
+    /** The length of the file header in bytes **/
+    static final int HEADER_LENGTH = 8;
+
+    /** The length of the file trailer in bytes **/
+    static final int TRAILER_LENGTH = 8;
+
+    /** The number of bytes of one row group entry in the footer **/
+    private static final int ENTRY_LENGTH = 16;
+
+    private byte[] schema;
+    private long[] offsets;
+    private int[] lengths;
+    private int[] rows;
+    private ColumnStatistics[][] stats;
+    private int size;
+    private long totalRows;
+
+    /**
+     * Constructs a new empty <code>RowGroupIndex</code> for
+     * the specified schema
+     * 
+     * @param schema The serialized schema of all row groups
+     */
+    RowGroupIndex(final byte[] schema){
+        this.schema = schema;
+        this.offsets = new long[8];
+        this.lengths = new int[8];
+        this.rows = new int[8];
+        this.stats = new ColumnStatistics[8][];
+    }
+
+    /**
+     * Indicates whether the specified bytes start with the header
+     * of a row-group based file
+     * 
+     * @param bytes The bytes to check
+     * @return True if the specified bytes start with a row-group file header
+     */
+    static boolean isRowGroupFile(final byte[] bytes){
+        if(bytes.length < (HEADER_LENGTH + TRAILER_LENGTH)){
+            return false;
+        }
+        return startsWithMagic(bytes);
+    }
+
+    /**
+     * Indicates whether the specified bytes start with the magic
+     * number of a row-group based file
+     * 
+     * @param bytes The bytes to check
+     * @return True if the specified bytes start with the row-group magic number
+     */
+    static boolean startsWithMagic(final byte[] bytes){
+        if(bytes.length < MAGIC.length){
+            return false;
+        }
+        for(int i=0; i<MAGIC.length; ++i){
+            if(bytes[i] != MAGIC[i]){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates the header of a row-group based file
+     * 
+     * @return The bytes of the file header
+     */
+    static byte[] header(){
+        final byte[] header = new byte[HEADER_LENGTH];
+        System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+        header[4] = VERSION;
+        return header;
+    }
+
+    /**
+     * Reads the index of the row-group based file represented
+     * by the specified bytes
+     * 
+     * @param bytes The bytes of the entire file
+     * @return The <code>RowGroupIndex</code> of the specified file
+     * @throws IOException If the bytes do not represent a valid row-group file
+     */
+    static RowGroupIndex read(final byte[] bytes) throws IOException{
+        if(!isRowGroupFile(bytes)){
+            throw new IOException("Is not a row-group file");
+        }
+        checkVersion(bytes[4]);
+        final ByteBuffer trailer = ByteBuffer.wrap(
+                bytes, bytes.length - TRAILER_LENGTH, TRAILER_LENGTH);
+
+        final int footerLength = checkTrailer(trailer, bytes.length);
+        return parseFooter(ByteBuffer.wrap(
+                bytes, bytes.length - TRAILER_LENGTH - footerLength, footerLength));
+    }
+
+    /**
+     * Reads the index of the row-group based file which can be accessed
+     * through the specified FileChannel. The position of the channel
+     * is not changed by this method
+     * 
+     * @param channel The <code>FileChannel</code> of the file to read
+     * @return The <code>RowGroupIndex</code> of the specified file
+     * @throws IOException If any errors occur while reading, or if the file
+     *                     does not represent a valid row-group file
+     */
+    static RowGroupIndex read(final FileChannel channel) throws IOException{
+        final long length = channel.size();
+        if(length < (HEADER_LENGTH + TRAILER_LENGTH)){
+            throw new IOException("Is not a row-group file");
+        }
+        final ByteBuffer header = readFully(channel, 0, HEADER_LENGTH);
+        for(int i=0; i<MAGIC.length; ++i){
+            if(header.get(i) != MAGIC[i]){
+                throw new IOException(String.format(
+                        "Is not a row-group file. Starts with 0x%02X 0x%02X",
+                        header.get(0), header.get(1)));
+            }
+        }
+        checkVersion(header.get(4));
+        final ByteBuffer trailer = readFully(
+                channel, length - TRAILER_LENGTH, TRAILER_LENGTH);
+
+        final int footerLength = checkTrailer(trailer, length);
+        return parseFooter(readFully(
+                channel, length - TRAILER_LENGTH - footerLength, footerLength));
+    }
+
+    /**
+     * Adds an entry for a row group to this index
+     * 
+     * @param offset The file position of the first byte of the row group
+     * @param length The number of bytes of the row group
+     * @param rows The number of rows of the row group
+     * @param stats The statistics of all columns of the row group
+     */
+    void add(final long offset, final int length, final int rows,
+            final ColumnStatistics[] stats){
+
+        if(size == offsets.length){
+            final int newCapacity = size * 2;
+            this.offsets = Arrays.copyOf(offsets, newCapacity);
+            this.lengths = Arrays.copyOf(lengths, newCapacity);
+            this.rows = Arrays.copyOf(this.rows, newCapacity);
+            this.stats = Arrays.copyOf(this.stats, newCapacity);
+        }
+        this.offsets[size] = offset;
+        this.lengths[size] = length;
+        this.rows[size] = rows;
+        this.stats[size] = stats;
+        ++size;
+        this.totalRows += rows;
+    }
+
+    /**
+     * Serializes this index to the footer and trailer of a row-group file
+     * 
+     * @param columns The number of columns of all row groups
+     * @return The bytes of the footer followed by the trailer
+     */
+    byte[] toBytes(final int columns){
+        int footerLength = 12 + schema.length + (size * ENTRY_LENGTH);
+        for(int i=0; i<size; ++i){
+            for(int j=0; j<columns; ++j){
+                footerLength += statistics(i, j).byteSize();
+            }
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(footerLength + TRAILER_LENGTH);
+        buffer.putInt(schema.length);
+        buffer.put(schema);
+        buffer.putInt(size);
+        buffer.putInt(columns);
+        for(int i=0; i<size; ++i){
+            buffer.putLong(offsets[i]);
+            buffer.putInt(lengths[i]);
+            buffer.putInt(rows[i]);
+            for(int j=0; j<columns; ++j){
+                statistics(i, j).write(buffer);
+            }
+        }
+        buffer.putInt(footerLength);
+        buffer.put(MAGIC);
+        return buffer.array();
+    }
+
+    /**
+     * Returns the serialized schema of all row groups
+     * 
+     * @return The uncompressed serialized DataFrame describing the schema
+     */
+    byte[] schema(){
+        return this.schema;
+    }
+
+    /**
+     * Sets the serialized schema of all row groups
+     * 
+     * @param schema The uncompressed serialized DataFrame describing the schema
+     */
+    void setSchema(final byte[] schema){
+        this.schema = schema;
+    }
+
+    /**
+     * Returns the number of row groups in this index
+     * 
+     * @return The number of row groups
+     */
+    int size(){
+        return this.size;
+    }
+
+    /**
+     * Returns the total number of rows of all row groups in this index
+     * 
+     * @return The total number of rows
+     */
+    long totalRows(){
+        return this.totalRows;
+    }
+
+    /**
+     * Returns the file position of the first byte of the specified row group
+     * 
+     * @param group The index of the row group
+     * @return The file offset of the specified row group
+     */
+    long offset(final int group){
+        return this.offsets[group];
+    }
+
+    /**
+     * Returns the number of bytes of the specified row group
+     * 
+     * @param group The index of the row group
+     * @return The length in bytes of the specified row group
+     */
+    int length(final int group){
+        return this.lengths[group];
+    }
+
+    /**
+     * Returns the number of rows of the specified row group
+     * 
+     * @param group The index of the row group
+     * @return The number of rows of the specified row group
+     */
+    int rows(final int group){
+        return this.rows[group];
+    }
+
+    /**
+     * Returns the statistics of the specified column within the specified
+     * row group
+     * 
+     * @param group The index of the row group
+     * @param column The index of the column
+     * @return The <code>ColumnStatistics</code> of the specified column
+     */
+    ColumnStatistics statistics(final int group, final int column){
+        return this.stats[group][column];
+    }
+
+    /**
+     * Returns the file position directly after the last row group, i.e. the
+     * position at which the footer starts
+     * 
+     * @return The end position of the body of the file
+     */
+    long end(){
+        if(size == 0){
+            return HEADER_LENGTH;
+        }
+        return offsets[size-1] + lengths[size-1];
+    }
+
+    /**
+     * Reads the specified number of bytes from the given channel
+     * 
+     * @param channel The <code>FileChannel</code> to read from
+     * @param position The file position to start reading at
+     * @param length The number of bytes to read
+     * @return A ByteBuffer holding the read bytes with its position set to zero
+     * @throws IOException If any errors occur while reading
+     */
+    static ByteBuffer readFully(final FileChannel channel, long position,
+            final int length) throws IOException{
+
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        while(buffer.hasRemaining()){
+            final int n = channel.read(buffer, position);
+            if(n < 0){
+                throw new IOException("Unexpected end of file");
+            }
+            position += n;
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void checkVersion(final byte version) throws IOException{
+        if(version != VERSION){
+            throw new IOException(String.format(
+                    "Unsupported row-group file version: %s", version));
+        }
+    }
+
+    private static int checkTrailer(final ByteBuffer trailer, final long length)
+            throws IOException{
+
+        final int footerLength = trailer.getInt();
+        for(int i=0; i<MAGIC.length; ++i){
+            if(trailer.get() != MAGIC[i]){
+                throw new IOException("Invalid or incomplete row-group file. "
+                        + "The file might not have been closed properly");
+            }
+        }
+        if((footerLength < 8)
+                || (footerLength > (length - HEADER_LENGTH - TRAILER_LENGTH))){
+
+            throw new IOException("Invalid row-group file footer length: "
+                    + footerLength);
+        }
+        return footerLength;
+    }
+
+    private static RowGroupIndex parseFooter(final ByteBuffer footer) throws IOException{
+        try{
+            final byte[] schema = new byte[footer.getInt()];
+            footer.get(schema);
+            final int n = footer.getInt();
+            if(n < 0){
+                throw new IOException("Invalid row group count: " + n);
+            }
+            final int columns = footer.getInt();
+            final RowGroupIndex index = new RowGroupIndex(schema);
+            for(int i=0; i<n; ++i){
+                final long offset = footer.getLong();
+                final int length = footer.getInt();
+                final int rows = footer.getInt();
+                final ColumnStatistics[] stats = new ColumnStatistics[columns];
+                for(int j=0; j<columns; ++j){
+                    stats[j] = ColumnStatistics.read(footer);
+                }
+                index.add(offset, length, rows, stats);
+            }
+            return index;
+        }catch(RuntimeException ex){
+            throw new IOException("Invalid row-group file footer", ex);
+        }
+    }
+}
@@ -20,8 +20,14 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
+import com.raven.common.io.IOExecutor;
 import com.raven.common.io.SerializationException;
 import com.raven.common.io.Serializer;
 
@@ -30,6 +36,26 @@ import com.raven.common.io.Serializer;
  * a bloom filter data structure. This class provides common utility methods
  * used by concrete bloom filter implementations.
  * 
+ * <p>Besides the generic <code>add()</code> and <code>contains()</code> methods,
+ * a bloom filter provides methods which take primitive keys, character sequences
+ * and ranges of byte arrays directly. These methods compute the Murmur3 hash of
+ * the key without allocating any objects and bypass the configured
+ * {@link Serializer}. Adding a key by one of these methods is equivalent to
+ * adding the corresponding element to a filter without a Serializer:
+ * <ul>
+ * <li>{@link #addLong(long)} is equivalent to adding a <code>Long</code></li>
+ * <li>{@link #addInt(int)} is equivalent to adding an <code>Integer</code></li>
+ * <li>{@link #add(CharSequence)} is equivalent to adding a <code>String</code>
+ * with the same characters</li>
+ * <li>{@link #add(byte[], int, int)} is equivalent to adding a
+ * <code>byte[]</code> holding the bytes of the specified range</li>
+ * </ul>
+ * If no Serializer is configured, then elements of these types are also
+ * hashed directly instead of being serialized by an
+ * <code>ObjectOutputStream</code>. Primitive keys are hashed by their
+ * big-endian byte representation and character sequences by
+ * their UTF-8 encoding.
+ * 
  * @author Phil Gaiser
  * @see ProbabilisticSet
  *
@@ -37,12 +63,638 @@ import com.raven.common.io.Serializer;
  */
 public abstract class AbstractBloomFilter<E> implements ProbabilisticSet<E> {
 
+    /** The minimum number of keys of a partition of a parallel bulk operation **/
+    static final int MIN_PARTITION_SIZE = 1024;
+
+    /**
+     * The identifier of the hash function computed by the hash methods of this
+     * class. It is stored in persisted filters and must be changed whenever
+     * the computed hash values change. Filters holding the identifier 0 were
+     * written by a hash function which did not mix the number of hashed bytes
+     * into the Murmur3 finalization step
+     */
+    static final long HASH_FUNCTION = 1L;
+
     protected Serializer<E> serializer;
 
     public AbstractBloomFilter(final Serializer<E> serializer){
         this.serializer = serializer;
     }
 
+    /**
+     * Adds the specified hash value to this bloom filter. This method is used
+     * by all methods which take primitive keys, character sequences, byte
+     * ranges or columns. Subclasses must override this method in order to
+     * support these methods. The default implementation throws
+     * an <code>UnsupportedOperationException</code>
+     * 
+     * @param hash The hash value of the element to add
+     * @throws UnsupportedOperationException If this bloom filter does not
+     *                                       support adding hash values
+     * @since 4.1.0
+     */
+    protected void addHash(final long hash){
+        throw new UnsupportedOperationException(
+                getClass().getName() + " does not support adding hash values");
+    }
+
+    /**
+     * Indicates whether the specified hash value might have been added to this
+     * bloom filter. This method is used by all methods which take primitive
+     * keys, character sequences, byte ranges or columns. Subclasses must override
+     * this method in order to support these methods. The default implementation
+     * throws an <code>UnsupportedOperationException</code>
+     * 
+     * @param hash The hash value of the element to check
+     * @return True if the specified hash value might have been added to
+     *         this bloom filter, false if it is definitely not in this filter
+     * @throws UnsupportedOperationException If this bloom filter does not
+     *                                       support querying hash values
+     * @since 4.1.0
+     */
+    protected boolean containsHash(final long hash){
+        throw new UnsupportedOperationException(
+                getClass().getName() + " does not support querying hash values");
+    }
+
+    /**
+     * Adds the specified long value to this bloom filter. This method
+     * does not use the Serializer of this filter
+     * 
+     * @param value The value to add
+     * @since 4.1.0
+     */
+    public void addLong(final long value){
+        addHash(hashLong(value));
+    }
+
+    /**
+     * Indicates whether this bloom filter possibly contains the specified
+     * long value. This method does not use the Serializer of this filter
+     * 
+     * @param value The value whose presence in this filter is to be tested
+     * @return True if the specified value might have been added to this
+     *         filter, false if it is definitely not in this filter
+     * @since 4.1.0
+     */
+    public boolean containsLong(final long value){
+        return containsHash(hashLong(value));
+    }
+
+    /**
+     * Adds the specified int value to this bloom filter. This method
+     * does not use the Serializer of this filter
+     * 
+     * @param value The value to add
+     * @since 4.1.0
+     */
+    public void addInt(final int value){
+        addHash(hashInt(value));
+    }
+
+    /**
+     * Indicates whether this bloom filter possibly contains the specified
+     * int value. This method does not use the Serializer of this filter
+     * 
+     * @param value The value whose presence in this filter is to be tested
+     * @return True if the specified value might have been added to this
+     *         filter, false if it is definitely not in this filter
+     * @since 4.1.0
+     */
+    public boolean containsInt(final int value){
+        return containsHash(hashInt(value));
+    }
+
+    /**
+     * Adds the specified range of bytes to this bloom filter. The bytes are
+     * hashed directly, as if they had been returned by a Serializer
+     * 
+     * @param bytes The array holding the bytes to add
+     * @param offset The index of the first byte to add
+     * @param length The number of bytes to add
+     * @throws IndexOutOfBoundsException If the specified range is not
+     *                                   within the bounds of the array
+     * @since 4.1.0
+     */
+    public void add(final byte[] bytes, final int offset, final int length){
+        checkRange(bytes, offset, length);
+        addHash(hashMurmur3(bytes, offset, length));
+    }
+
+    /**
+     * Indicates whether this bloom filter possibly contains
+     * the specified range of bytes
+     * 
+     * @param bytes The array holding the bytes to check
+     * @param offset The index of the first byte to check
+     * @param length The number of bytes to check
+     * @return True if the specified bytes might have been added to this
+     *         filter, false if they are definitely not in this filter
+     * @throws IndexOutOfBoundsException If the specified range is not
+     *                                   within the bounds of the array
+     * @since 4.1.0
+     */
+    public boolean contains(final byte[] bytes, final int offset, final int length){
+        checkRange(bytes, offset, length);
+        return containsHash(hashMurmur3(bytes, offset, length));
+    }
+
+    /**
+     * Adds the specified character sequence to this bloom filter. The
+     * characters are hashed by their UTF-8 encoding without creating an
+     * intermediate String or byte array. This method does not use the
+     * Serializer of this filter
+     * 
+     * @param chars The character sequence to add
+     * @throws NullPointerException If the specified sequence is null
+     * @throws IllegalArgumentException If the specified sequence is empty
+     * @since 4.1.0
+     */
+    public void add(final CharSequence chars){
+        addHash(hashChars(chars));
+    }
+
+    /**
+     * Indicates whether this bloom filter possibly contains the specified
+     * character sequence. This method does not use the Serializer of this filter
+     * 
+     * @param chars The character sequence whose presence in this
+     *              filter is to be tested
+     * @return True if the specified sequence might have been added to this
+     *         filter, false if it is definitely not in this filter
+     * @throws NullPointerException If the specified sequence is null
+     * @throws IllegalArgumentException If the specified sequence is empty
+     * @since 4.1.0
+     */
+    public boolean contains(final CharSequence chars){
+        return containsHash(hashChars(chars));
+    }
+
+    /**
+     * Adds all specified long values to this bloom filter. This is equivalent
+     * to calling {@link #addLong(long)} for each value
+     * 
+     * @param values The values to add. Must not be null
+     * @since 4.1.0
+     */
+    public void addAll(final long[] values){
+        addAll(values, 1);
+    }
+
+    /**
+     * Adds all specified long values to this bloom filter by means of
+     * the specified number of threads. The values are split into
+     * contiguous partitions which are added in parallel to temporary filters
+     * with the same configuration as this filter. All temporary filters are
+     * merged into this filter by a logical OR after all partitions have been
+     * added. Thread-safe filters add all partitions directly. Filters which
+     * cannot be partitioned add all values in the calling thread.
+     * 
+     * <p>The partitions are added by the shared executor provided by
+     * {@link IOExecutor#getDefault()} and by the calling thread. Therefore, the
+     * number of partitions added at the same time is also bounded by the
+     * configuration of that executor
+     * 
+     * @param values The values to add. Must not be null
+     * @param threads The number of threads to use
+     * @since 4.1.0
+     */
+    public void addAll(final long[] values, final int threads){
+        addAll(new Keys(){
+            @Override
+            public int size(){
+                return values.length;
+            }
+
+            @Override
+            public long hash(final int index){
+                return hashLong(values[index]);
+            }
+        }, threads);
+    }
+
+    /**
+     * Adds all specified int values to this bloom filter. This is equivalent
+     * to calling {@link #addInt(int)} for each value
+     * 
+     * @param values The values to add. Must not be null
+     * @since 4.1.0
+     */
+    public void addAll(final int[] values){
+        addAll(values, 1);
+    }
+
+    /**
+     * Adds all specified int values to this bloom filter by means of
+     * the specified number of threads. See {@link #addAll(long[], int)}
+     * 
+     * @param values The values to add. Must not be null
+     * @param threads The number of threads to use
+     * @since 4.1.0
+     */
+    public void addAll(final int[] values, final int threads){
+        addAll(new Keys(){
+            @Override
+            public int size(){
+                return values.length;
+            }
+
+            @Override
+            public long hash(final int index){
+                return hashInt(values[index]);
+            }
+        }, threads);
+    }
+
+    /**
+     * Adds all entries of the specified Column to this bloom filter. Entries are
+     * hashed in the same way as by the methods for primitive keys:
+     * <ul>
+     * <li>long entries as by {@link #addLong(long)}</li>
+     * <li>byte, short, int and char entries as by {@link #addInt(int)}</li>
+     * <li>float and double entries by their IEEE 754 bit representation as
+     * by {@link #addInt(int)} and {@link #addLong(long)} respectively</li>
+     * <li>String entries as by {@link #add(CharSequence)}</li>
+     * <li>binary entries as by {@link #add(byte[], int, int)}</li>
+     * </ul>
+     * Null entries of a <code>NullableColumn</code> are skipped. All entries up
+     * to the capacity of the Column are added. The capacity of a Column of a
+     * DataFrame may be greater than the number of rows of the DataFrame,
+     * therefore such Columns should be added by {@link #addAll(DataFrame, int)}
+     * 
+     * @param column The Column whose entries to add. Must not be null
+     * @throws IllegalArgumentException If the Column is a boolean column
+     * @since 4.1.0
+     */
+    public void addAll(final Column column){
+        addAll(column, 1);
+    }
+
+    /**
+     * Adds all entries of the specified Column to this bloom filter by means of
+     * the specified number of threads. See {@link #addAll(Column)}
+     * and {@link #addAll(long[], int)}
+     * 
+     * @param column The Column whose entries to add. Must not be null
+     * @param threads The number of threads to use
+     * @throws IllegalArgumentException If the Column is a boolean column
+     * @since 4.1.0
+     */
+    public void addAll(final Column column, final int threads){
+        addAll(keys(column, (column != null) ? column.capacity() : 0), threads);
+    }
+
+    /**
+     * Adds all entries of the specified column of the specified DataFrame to
+     * this bloom filter. Only the entries of the rows of the DataFrame are
+     * added, regardless of the capacity of the Column. Entries are hashed as
+     * described by {@link #addAll(Column)}
+     * 
+     * @param df The DataFrame holding the column to add. Must not be null
+     * @param col The index of the column whose entries to add
+     * @throws IllegalArgumentException If the column is a boolean column
+     * @since 4.1.0
+     */
+    public void addAll(final DataFrame df, final int col){
+        addAll(df, col, 1);
+    }
+
+    /**
+     * Adds all entries of the specified column of the specified DataFrame to
+     * this bloom filter by means of the specified number of threads.
+     * See {@link #addAll(DataFrame, int)} and {@link #addAll(long[], int)}
+     * 
+     * @param df The DataFrame holding the column to add. Must not be null
+     * @param col The index of the column whose entries to add
+     * @param threads The number of threads to use
+     * @throws IllegalArgumentException If the column is a boolean column
+     * @since 4.1.0
+     */
+    public void addAll(final DataFrame df, final int col, final int threads){
+        if(df == null){
+            throw new IllegalArgumentException("DataFrame argument must not be null");
+        }
+        addAll(keys(df.getColumn(col), df.rows()), threads);
+    }
+
+    /**
+     * Indicates for each of the specified long values whether this bloom
+     * filter possibly contains it. The bit at index <i>i</i> of the result
+     * is set to the value returned by {@link #containsLong(long)}
+     * for the value at index <i>i</i>
+     * 
+     * @param values The values whose presence in this filter is to be tested.
+     *               Must not be null
+     * @param result The <code>BitVector</code> to store the result in. All bits
+     *               from index 0 to the number of values are overwritten and
+     *               the BitVector is enlarged if necessary. May be null
+     * @return A BitVector holding the result of all membership queries. This is
+     *         the specified BitVector, or a new BitVector if the specified
+     *         BitVector is null
+     * @since 4.1.0
+     */
+    public BitVector containsAll(final long[] values, final BitVector result){
+        return containsAll(new Keys(){
+            @Override
+            public int size(){
+                return values.length;
+            }
+
+            @Override
+            public long hash(final int index){
+                return hashLong(values[index]);
+            }
+        }, result);
+    }
+
+    /**
+     * Indicates for each of the specified int values whether this bloom
+     * filter possibly contains it. The bit at index <i>i</i> of the result
+     * is set to the value returned by {@link #containsInt(int)}
+     * for the value at index <i>i</i>
+     * 
+     * @param values The values whose presence in this filter is to be tested.
+     *               Must not be null
+     * @param result The <code>BitVector</code> to store the result in. All bits
+     *               from index 0 to the number of values are overwritten and
+     *               the BitVector is enlarged if necessary. May be null
+     * @return A BitVector holding the result of all membership queries. This is
+     *         the specified BitVector, or a new BitVector if the specified
+     *         BitVector is null
+     * @since 4.1.0
+     */
+    public BitVector containsAll(final int[] values, final BitVector result){
+        return containsAll(new Keys(){
+            @Override
+            public int size(){
+                return values.length;
+            }
+
+            @Override
+            public long hash(final int index){
+                return hashInt(values[index]);
+            }
+        }, result);
+    }
+
+    /**
+     * Indicates for each entry of the specified Column whether this bloom
+     * filter possibly contains it. Entries are hashed as described by
+     * {@link #addAll(Column)}. The result bit of a null entry
+     * of a <code>NullableColumn</code> is always unset
+     * 
+     * @param column The Column whose entries are to be tested. Must not be null
+     * @param result The <code>BitVector</code> to store the result in. All bits
+     *               from index 0 to the capacity of the Column are overwritten
+     *               and the BitVector is enlarged if necessary. May be null
+     * @return A BitVector holding the result of all membership queries. This is
+     *         the specified BitVector, or a new BitVector if the specified
+     *         BitVector is null
+     * @throws IllegalArgumentException If the Column is a boolean column
+     * @since 4.1.0
+     */
+    public BitVector containsAll(final Column column, final BitVector result){
+        return containsAll(keys(column, (column != null) ? column.capacity() : 0), result);
+    }
+
+    /**
+     * Indicates for each row of the specified DataFrame whether this bloom
+     * filter possibly contains the entry of the specified column. Entries are
+     * hashed as described by {@link #addAll(Column)}. The result bit of a null
+     * entry of a <code>NullableColumn</code> is always unset
+     * 
+     * @param df The DataFrame holding the column to test. Must not be null
+     * @param col The index of the column whose entries are to be tested
+     * @param result The <code>BitVector</code> to store the result in. All bits
+     *               from index 0 to the number of rows of the DataFrame are
+     *               overwritten and the BitVector is enlarged if necessary.
+     *               May be null
+     * @return A BitVector holding the result of all membership queries. This is
+     *         the specified BitVector, or a new BitVector if the specified
+     *         BitVector is null
+     * @throws IllegalArgumentException If the column is a boolean column
+     * @since 4.1.0
+     */
+    public BitVector containsAll(final DataFrame df, final int col, final BitVector result){
+        if(df == null){
+            throw new IllegalArgumentException("DataFrame argument must not be null");
+        }
+        return containsAll(keys(df.getColumn(col), df.rows()), result);
+    }
+
+    /**
+     * Returns a new partition of a parallel bulk operation. Filters which
+     * do not support partitioning return null
+     * 
+     * @return A <code>Partition</code> of this filter, or null
+     */
+    Partition<E> partition(){
+        return null;
+    }
+
+    /**
+     * Adds all specified keys to this bloom filter by means of
+     * the specified number of threads
+     * 
+     * @param keys The keys to add
+     * @param threads The number of threads to use
+     */
+    private void addAll(final Keys keys, final int threads){
+        final int size = keys.size();
+        final int n = Math.min(threads, size / MIN_PARTITION_SIZE);
+        final List<Partition<E>> partitions = new ArrayList<>(Math.max(n, 0));
+        for(int i=0; i<n; ++i){
+            final Partition<E> partition = partition();
+            if(partition == null){
+                break;
+            }
+            partitions.add(partition);
+        }
+        if(partitions.size() <= 1){
+            addAll(keys, 0, size);
+            return;
+        }
+        final Executor executor = IOExecutor.getDefault();
+        final List<FutureTask<Void>> jobs = new ArrayList<>(n);
+        try{
+            for(int i=0; i<n; ++i){
+                final AbstractBloomFilter<E> filter = partitions.get(i).filter;
+                final int from = (int) (((long) size * i) / n);
+                final int to = (int) (((long) size * (i + 1)) / n);
+                final FutureTask<Void> job = new FutureTask<>(
+                        () -> filter.addAll(keys, from, to), null);
+
+                jobs.add(job);
+                try{
+                    executor.execute(job);
+                }catch(RejectedExecutionException ex){
+                    //run by the calling thread
+                }
+            }
+            for(final FutureTask<Void> job : jobs){
+                //jobs which have not been started yet are run by the calling thread
+                job.run();
+                await(job);
+            }
+        }finally{
+            for(final FutureTask<Void> job : jobs){
+                job.cancel(false);
+            }
+        }
+        for(final Partition<E> partition : partitions){
+            if(partition.merge != null){
+                partition.merge.run();
+            }
+        }
+    }
+
+    /**
+     * Adds the specified range of keys to this bloom filter
+     * 
+     * @param keys The keys to add
+     * @param from The index of the first key to add, inclusive
+     * @param to The index of the last key to add, exclusive
+     */
+    private void addAll(final Keys keys, final int from, final int to){
+        for(int i=from; i<to; ++i){
+            if(!keys.isNull(i)){
+                addHash(keys.hash(i));
+            }
+        }
+    }
+
+    /**
+     * Checks the presence of all specified keys
+     * 
+     * @param keys The keys to check
+     * @param result The BitVector to store the result in. May be null
+     * @return The BitVector holding the result
+     */
+    private BitVector containsAll(final Keys keys, BitVector result){
+        final int size = keys.size();
+        if(result == null){
+            result = new BitVector(size);
+        }
+        if(size > 0){
+            result.set(0, size, false);
+        }
+        for(int i=0; i<size; ++i){
+            if(!keys.isNull(i) && containsHash(keys.hash(i))){
+                result.set(i, true);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates the keys for the specified number of entries of the specified Column
+     * 
+     * @param column The Column to create the keys for
+     * @param size The number of entries, starting at index 0. Must not be
+     *             greater than the capacity of the Column
+     * @return The keys of the specified Column
+     */
+    private static Keys keys(final Column column, final int size){
+        if(column == null){
+            throw new IllegalArgumentException("Column argument must not be null");
+        }
+        if((column instanceof BooleanColumn) || (column instanceof NullableBooleanColumn)){
+            throw new IllegalArgumentException(
+                    "Boolean columns are not supported by bloom filters");
+
+        }
+        if(column.isNullable()){
+            return new Keys(){
+                @Override
+                public int size(){
+                    return size;
+                }
+
+                @Override
+                public boolean isNull(final int index){
+                    return (column.getValue(index) == null);
+                }
+
+                @Override
+                public long hash(final int index){
+                    return hashValue(column.getValue(index));
+                }
+            };
+        }
+        return new Keys(){
+            @Override
+            public int size(){
+                return size;
+            }
+
+            @Override
+            public long hash(final int index){
+                switch(column.typeCode()){
+                case LongColumn.TYPE_CODE:
+                    return hashLong(((LongColumn) column).get(index));
+                case IntColumn.TYPE_CODE:
+                    return hashInt(((IntColumn) column).get(index));
+                case StringColumn.TYPE_CODE:
+                    return hashChars(((StringColumn) column).get(index));
+                default:
+                    return hashValue(column.getValue(index));
+                }
+            }
+        };
+    }
+
+    /**
+     * Hashes the specified Column entry
+     * 
+     * @param value The value of the entry to hash
+     * @return The hash value of the specified entry
+     */
+    private static long hashValue(final Object value){
+        if(value instanceof Long){
+            return hashLong((Long) value);
+        }else if((value instanceof Integer) || (value instanceof Short)
+                || (value instanceof Byte)){
+
+            return hashInt(((Number) value).intValue());
+        }else if(value instanceof Character){
+            return hashInt((Character) value);
+        }else if(value instanceof Float){
+            return hashInt(Float.floatToIntBits((Float) value));
+        }else if(value instanceof Double){
+            return hashLong(Double.doubleToLongBits((Double) value));
+        }else if(value instanceof String){
+            return hashChars((String) value);
+        }else if(value instanceof byte[]){
+            final byte[] bytes = (byte[]) value;
+            return hashMurmur3(bytes, 0, bytes.length);
+        }
+        throw new IllegalArgumentException(
+                "Unsupported column entry: " + value.getClass().getName());
+    }
+
+    /**
+     * Waits for the specified job of a parallel bulk operation to complete.
+     * Any exception thrown by the job is rethrown
+     * 
+     * @param job The <code>FutureTask</code> of the job
+     */
+    private static void await(final FutureTask<?> job){
+        try{
+            job.get();
+        }catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while adding elements", ex);
+        }catch(ExecutionException ex){
+            final Throwable cause = ex.getCause();
+            if(cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }else if(cause instanceof Error){
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
     /**
      * Hashes the specified element
      * 
@@ -53,37 +705,43 @@ public abstract class AbstractBloomFilter<E> implements ProbabilisticSet<E> {
         if(serializer != null){
             return hash(serializer.serialize(element));
         }else if(element instanceof String){
-            return hash((String)element);
+            return hashChars((String)element);
+        }else if(element instanceof Long){
+            return hashLong((Long)element);
+        }else if(element instanceof Integer){
+            return hashInt((Integer)element);
+        }else if(element instanceof byte[]){
+            return hash((byte[])element);
         }else if(element instanceof Serializable){
             return hash(serialize(element));
         }else{
-            return hash(element.toString());
+            return hashChars(element.toString());
         }
     }
 
     /**
-     * Hashes the specified String value
+     * Hashes the specified bytes
      * 
-     * @param str The String object to hash
-     * @return A hash for the specified String value as a primitive long
+     * @param bytes The bytes to hash
+     * @return A hash for the specified byte values as a primitive long
      */
-    private long hash(final String str){
-        if(str.isEmpty()){
-            throw new IllegalArgumentException(
-                    "Invalid Bloom filter element: empty String");
-
-        }
-        return hash(str.getBytes(StandardCharsets.UTF_8));
+    private long hash(final byte[] bytes){
+        return hashMurmur3(bytes, 0, bytes.length);
     }
 
     /**
-     * Hashes the specified bytes
+     * Checks that the specified range is within the bounds of the specified array
      * 
-     * @param bytes The bytes to hash
-     * @return A hash for the specified byte values as a primitive long
+     * @param bytes The array to check
+     * @param offset The index of the first byte of the range
+     * @param length The number of bytes of the range
      */
-    private long hash(final byte[] bytes){
-        return hashMurmur3(bytes);
+    static void checkRange(final byte[] bytes, final int offset, final int length){
+        if((offset < 0) || (length < 0) || (offset > (bytes.length - length))){
+            throw new IndexOutOfBoundsException(String.format(
+                    "Range [%s, %s) out of bounds for length %s",
+                    offset, ((long) offset + length), bytes.length));
+        }
     }
 
     /**
@@ -122,12 +780,17 @@ public abstract class AbstractBloomFilter<E> implements ProbabilisticSet<E> {
      * The original implementation of this method
      * was taken from Google's Guava library which is a
      * port of Austin Applebys original C++ code
+     * 
+     * @param data The array holding the bytes to hash
+     * @param offset The index of the first byte to hash
+     * @param length The number of bytes to hash
+     * @return The hash of the specified range of bytes
      */
-    private static long hashMurmur3(final byte[] data){
+    static long hashMurmur3(final byte[] data, final int offset, final int length){
         long h1 = 0;
         long h2 = 0;
-        int ptr = -1;
-        final int blocks = (data.length / 16);
+        int ptr = offset - 1;
+        final int blocks = (length / 16);
         for(int i = 0; i<blocks; ++i){
             long k1 = (((long) (data[++ptr]) << 56)
                      | ((long) (data[++ptr] & 0xff) << 48)
@@ -159,7 +822,7 @@ public abstract class AbstractBloomFilter<E> implements ProbabilisticSet<E> {
             h2 += h1;
             h2 = h2 * 5 + 0x38495ab5;
         }
-        final int remaining = (data.length % 16);
+        final int remaining = (length % 16);
         if(remaining > 0){
             ++ptr;
             long k1 = 0;
@@ -225,6 +888,148 @@ public abstract class AbstractBloomFilter<E> implements ProbabilisticSet<E> {
             h1 ^= mixK1(k1);
             h2 ^= mixK2(k2);
         }
+        return finish(h1, h2, length);
+    }
+
+    /**
+     * Computes the Murmur3 hash value of the big-endian representation of
+     * the specified long value. The result is equal to the hash of the
+     * corresponding 8 bytes as computed by <code>hashMurmur3(byte[], int, int)</code>
+     * 
+     * @param value The value to hash
+     * @return The hash of the specified value
+     */
+    static long hashLong(final long value){
+        return finish(mixK1(value), 0, 8);
+    }
+
+    /**
+     * Computes the Murmur3 hash value of the big-endian representation of
+     * the specified int value. The result is equal to the hash of the
+     * corresponding 4 bytes as computed by <code>hashMurmur3(byte[], int, int)</code>
+     * 
+     * @param value The value to hash
+     * @return The hash of the specified value
+     */
+    static long hashInt(final int value){
+        //a tail of fewer than 8 bytes is read in little-endian order
+        return finish(mixK1(Integer.reverseBytes(value) & 0xffffffffL), 0, 4);
+    }
+
+    /**
+     * Computes the Murmur3 hash value of the UTF-8 encoding of the specified
+     * characters. The characters are encoded on the fly without allocating
+     * any memory. The result is equal to the hash of the bytes returned by
+     * <code>String.getBytes(StandardCharsets.UTF_8)</code> as computed by
+     * <code>hashMurmur3(byte[], int, int)</code>, including the replacement
+     * of unpaired surrogates by a question mark
+     * 
+     * @param chars The characters to hash. Must not be empty
+     * @return The hash of the specified characters
+     */
+    static long hashChars(final CharSequence chars){
+        final int length = chars.length();
+        if(length == 0){
+            throw new IllegalArgumentException(
+                    "Invalid Bloom filter element: empty String");
+
+        }
+        long h1 = 0;
+        long h2 = 0;
+        //the current block is accumulated in big-endian order
+        long k1 = 0;
+        long k2 = 0;
+        int n = 0;
+        long total = 0;
+        for(int i=0; i<length; ++i){
+            final char c = chars.charAt(i);
+            int bytes;
+            int count;
+            if(c < 0x80){
+                bytes = c;
+                count = 1;
+            }else if(c < 0x800){
+                bytes = ((0xc0 | (c >> 6)) << 8)
+                        | (0x80 | (c & 0x3f));
+
+                count = 2;
+            }else if(Character.isSurrogate(c)){
+                if(Character.isHighSurrogate(c) && ((i + 1) < length)
+                        && Character.isLowSurrogate(chars.charAt(i + 1))){
+
+                    final int cp = Character.toCodePoint(c, chars.charAt(++i));
+                    bytes = ((0xf0 | (cp >> 18)) << 24)
+                            | ((0x80 | ((cp >> 12) & 0x3f)) << 16)
+                            | ((0x80 | ((cp >> 6) & 0x3f)) << 8)
+                            | (0x80 | (cp & 0x3f));
+
+                    count = 4;
+                }else{
+                    bytes = '?';
+                    count = 1;
+                }
+            }else{
+                bytes = ((0xe0 | (c >> 12)) << 16)
+                        | ((0x80 | ((c >> 6) & 0x3f)) << 8)
+                        | (0x80 | (c & 0x3f));
+
+                count = 3;
+            }
+            total += count;
+            for(int j=(count-1)*8; j>=0; j-=8){
+                final long b = (bytes >>> j) & 0xff;
+                if(n < 8){
+                    k1 = (k1 << 8) | b;
+                }else{
+                    k2 = (k2 << 8) | b;
+                }
+                if(++n == 16){
+                    h1 ^= mixK1(k1);
+
+                    h1 = Long.rotateLeft(h1, 27);
+                    h1 += h2;
+                    h1 = h1 * 5 + 0x52dce729;
+
+                    h2 ^= mixK2(k2);
+
+                    h2 = Long.rotateLeft(h2, 31);
+                    h2 += h1;
+                    h2 = h2 * 5 + 0x38495ab5;
+
+                    k1 = 0;
+                    k2 = 0;
+                    n = 0;
+                }
+            }
+        }
+        //convert the tail to the byte order used by hashMurmur3()
+        if(n > 8){
+            h1 ^= mixK1(k1);
+            h2 ^= mixK2(Long.reverseBytes(k2) >>> ((16 - n) * 8));
+        }else if(n == 8){
+            h1 ^= mixK1(k1);
+        }else if(n > 0){
+            h1 ^= mixK1(Long.reverseBytes(k1) >>> ((8 - n) * 8));
+        }
+        return finish(h1, h2, total);
+    }
+
+    /**
+     * Performs the finalization step of the Murmur3 hash function.
+     * Like in the reference implementation, the number of hashed bytes is
+     * mixed into both halves of the hash state before they are combined.
+     * Otherwise both halves would be equal for inputs of at most 8 bytes
+     * and the lowest bit of the final hash value would always be zero
+     * 
+     * @param h1 The first half of the hash state
+     * @param h2 The second half of the hash state
+     * @param length The number of hashed bytes
+     * @return The final hash value
+     */
+    private static long finish(long h1, long h2, final long length){
+        h1 ^= length;
+        h2 ^= length;
+
         h1 += h2;
         h2 += h1;
 
@@ -232,8 +1037,6 @@ public abstract class AbstractBloomFilter<E> implements ProbabilisticSet<E> {
         h2 = fmix64(h2);
 
         h1 += h2;
-        h2 += h1;
-
         return h1;
     }
 
@@ -290,4 +1093,68 @@ public abstract class AbstractBloomFilter<E> implements ProbabilisticSet<E> {
         }
         return (add ? (exponent + 1) : exponent);
     }
+
+    /**
+     * The keys of a bulk operation, which are addressed by their index
+     */
+    private interface Keys {
+
+        /**
+         * Returns the number of keys
+         * 
+         * @return The number of keys
+         */
+        int size();
+
+        /**
+         * Indicates whether the key at the specified index is null
+         * 
+         * @param index The index of the key
+         * @return True if the key at the specified index is null
+         */
+        default boolean isNull(int index){
+            return false;
+        }
+
+        /**
+         * Computes the hash value of the key at the specified index
+         * 
+         * @param index The index of the key
+         * @return The hash value of the key at the specified index
+         */
+        long hash(int index);
+
+    }
+
+    /**
+     * A partition of a parallel bulk operation. The keys of a partition are
+     * added to the filter of the partition. After all partitions have been
+     * added, the merge action of each partition is run by the calling thread.
+     * 
+     * <p>This class is not part of the public API.
+     * 
+     * @param <E> The type of elements of the partitioned filter
+     */
+    static final class Partition<E> {
+
+        /** The filter to which the keys of this partition are added **/
+        final AbstractBloomFilter<E> filter;
+
+        /** Merges the filter of this partition, or null if not required **/
+        final Runnable merge;
+
+        /**
+         * Constructs a new <code>Partition</code>
+         * 
+         * @param filter The filter to which the keys of the partition are added.
+         *               Either a new empty filter or the partitioned filter itself
+         * @param merge The action which merges the specified filter into the
+         *              partitioned filter. Must be null if the specified filter
+         *              is the partitioned filter itself
+         */
+        Partition(final AbstractBloomFilter<E> filter, final Runnable merge){
+            this.filter = filter;
+            this.merge = merge;
+        }
+    }
 }
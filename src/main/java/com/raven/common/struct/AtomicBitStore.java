@@ -0,0 +1,138 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.raven.common.struct;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe BitStore backed by an <code>AtomicLongArray</code>. Bits are
+ * set by a compare-and-set loop on the word holding the bit, so that concurrent
+ * writers never lose bits set by other threads. Reads are lock-free volatile
+ * reads of a single word. The number of set bits is maintained in a
+ * <code>LongAdder</code> to avoid contention on a single counter.
+ * 
+ * <p>Clearing an AtomicBitStore while other threads set bits is not atomic.
+ * Bits set concurrently with a call to <code>clear()</code> may or may not
+ * be retained, and the number of set bits may be inaccurate afterwards.
+ * 
+ * <p>This class is not part of the public API.
+ * 
+ * @author Phil Gaiser
+ * @see ConcurrentStaticBloomFilter
+ * @see ConcurrentScalableBloomFilter
+ * @since 4.1.0
+ *
+ */
+final class AtomicBitStore implements BitStore {
+
+    private final AtomicLongArray words;
+    private final long size;
+    private final LongAdder ones;
+
+    /**
+     * Constructs a new <code>AtomicBitStore</code> with the specified
+     * number of bits, all of which are unset
+     * 
+     * @param size The number of bits of the constructed AtomicBitStore
+     */
+    AtomicBitStore(final long size){
+        if((size < 0) || (size > HeapBitStore.MAX_SIZE)){
+            throw new IllegalArgumentException(
+                    "Invalid size of atomic bit store: " + size);
+        }
+        this.size = size;
+        this.words = new AtomicLongArray((int) ((size + 63) >>> 6));
+        this.ones = new LongAdder();
+    }
+
+    @Override
+    public long size(){
+        return this.size;
+    }
+
+    @Override
+    public boolean get(final long index){
+        return ((words.get((int) (index >>> 6)) & (1L << index)) != 0);
+    }
+
+    @Override
+    public boolean set(final long index){
+        final int i = (int) (index >>> 6);
+        final long mask = (1L << index);
+        long word = words.get(i);
+        while((word & mask) == 0){
+            if(words.compareAndSet(i, word, (word | mask))){
+                ones.increment();
+                return true;
+            }
+            word = words.get(i);
+        }
+        return false;
+    }
+
+    @Override
+    public long getWord(final long index){
+        return words.get((int) index);
+    }
+
+    @Override
+    public void orWord(final long index, final long bits){
+        final int i = (int) index;
+        long word = words.get(i);
+        while((bits & ~word) != 0){
+            if(words.compareAndSet(i, word, (word | bits))){
+                ones.add(Long.bitCount(bits & ~word));
+                return;
+            }
+            word = words.get(i);
+        }
+    }
+
+    @Override
+    public void andWord(final long index, final long bits){
+        final int i = (int) index;
+        long word = words.get(i);
+        while((word & ~bits) != 0){
+            if(words.compareAndSet(i, word, (word & bits))){
+                ones.add(-Long.bitCount(word & ~bits));
+                return;
+            }
+            word = words.get(i);
+        }
+    }
+
+    @Override
+    public long bitsSet(){
+        return ones.sum();
+    }
+
+    @Override
+    public void clear(){
+        for(int i=0; i<words.length(); ++i){
+            words.set(i, 0L);
+        }
+        ones.reset();
+    }
+
+    @Override
+    public long sizeInBytes(){
+        //Words of the array + 24 bytes for internally used vars
+        return ((long) words.length() << 3) + 24;
+    }
+}
@@ -0,0 +1,116 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.raven.common.struct;
+
+/**
+ * A fixed-size store of bits which is addressable by a long index. All bits are
+ * initially unset. A BitStore is used by Bloom filter implementations to hold
+ * the state of their filter. Since Bloom filters only ever set bits, a BitStore
+ * only supports setting individual bits and clearing all bits at once.
+ * 
+ * <p>A BitStore keeps track of the number of its set bits, so that the fill
+ * ratio of a filter can be queried in constant time.
+ * 
+ * <p>This class is not part of the public API.
+ * 
+ * @author Phil Gaiser
+ * @see LargeBitSet
+ * @since 4.1.0
+ *
+ */
+interface BitStore {
+
+    /**
+     * Returns the number of bits in this BitStore
+     * 
+     * @return The number of bits in this BitStore
+     */
+    long size();
+
+    /**
+     * Gets the value of the bit at the specified index
+     * 
+     * @param index The index of the bit to get. Must be within
+     *              the bounds of this BitStore
+     * @return True if the bit at the specified index is set, false otherwise
+     */
+    boolean get(long index);
+
+    /**
+     * Sets the bit at the specified index to 1
+     * 
+     * @param index The index of the bit to set. Must be within
+     *              the bounds of this BitStore
+     * @return True if the bit was previously unset, false if
+     *         it was already set
+     */
+    boolean set(long index);
+
+    /**
+     * Gets the 64-bit word at the specified word index. Bit <i>i</i> of the
+     * returned word is the bit at index <i>64 * index + i</i> of this BitStore
+     * 
+     * @param index The index of the word to get. Must be within
+     *              the bounds of this BitStore
+     * @return The word at the specified index
+     */
+    long getWord(long index);
+
+    /**
+     * Sets all bits of the word at the specified word index to 1 which
+     * are set in the specified bit mask. Bits of the word which are unset
+     * in the specified bit mask are not changed
+     * 
+     * @param index The index of the word to change. Must be within
+     *              the bounds of this BitStore
+     * @param bits The bit mask to combine with the word by a logical OR
+     */
+    void orWord(long index, long bits);
+
+    /**
+     * Sets all bits of the word at the specified word index to 0 (zero) which
+     * are unset in the specified bit mask. Bits of the word which are set
+     * in the specified bit mask are not changed
+     * 
+     * @param index The index of the word to change. Must be within
+     *              the bounds of this BitStore
+     * @param bits The bit mask to combine with the word by a logical AND
+     */
+    void andWord(long index, long bits);
+
+    /**
+     * Returns the number of set bits in this BitStore
+     * 
+     * @return The number of bits set to 1
+     */
+    long bitsSet();
+
+    /**
+     * Sets all bits of this BitStore to 0 (zero)
+     */
+    void clear();
+
+    /**
+     * Returns the number of bytes this BitStore has allocated
+     * to store all of its bits
+     * 
+     * @return The number of bytes used by this BitStore
+     */
+    long sizeInBytes();
+
+}
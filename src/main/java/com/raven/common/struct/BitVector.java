@@ -58,7 +58,10 @@ import java.util.Arrays;
  * {@link BitVector#wrap(byte[])} method. Wrapping does not require any copying
  * of data and is therefore a very efficient operation. It uses the reference to
  * the byte array directly, so any modifications made to the byte array externally
- * by other code or by the BitVector itself will be globally visible.
+ * by other code or by the BitVector itself will be globally visible.<br>
+ * Searching for set or unset bits and counting bits process the internal array
+ * in 64-bit words of 8 consecutive bytes. Range operations and shifts
+ * operate on whole bytes.
  * 
  * <p>Unlike the standard java BitSet implementation, a BitVector has no default
  * value for the stored bits. The value of each bit must be explicitly set by
@@ -146,6 +149,19 @@ public final class BitVector implements Cloneable, Serializable {
      */
     private int ones = -1;
 
+    /**
+     * The number of modifications made to this BitVector. This is used to
+     * detect whether a {@link RankSelectIndex} built over this
+     * vector is outdated
+     */
+    private transient int modCount;
+
+    /**
+     * Lazily built rank/select directory used by the <code>rank1()</code>
+     * and <code>select1()</code> methods
+     */
+    private transient RankSelectIndex rankSelect;
+
     /**
      * Constructs an empty <code>BitVector</code>
      */
@@ -223,12 +239,7 @@ public final class BitVector implements Cloneable, Serializable {
         final int length = (end - start);
         final int blocks = (((length%8) != 0) ? ((length >> 3) + 1) : (length >> 3));
         final byte[] bytes = new byte[blocks];
-        int pos = start;
-        for(int i=0; i<length; ++i){
-            final int mod = (pos%8);
-            bytes[i >> 3] |= (((bits[pos >> 3] & (0x80 >>> mod)) << mod) >>> (i%8));
-            ++pos;
-        }
+        copyBits(bits, start, bytes, 0, length);
         final BitVector vec = new BitVector(bytes);
         vec.next = length;
         return vec;
@@ -244,6 +255,7 @@ public final class BitVector implements Cloneable, Serializable {
      * @param bit The value of the bit to set
      */
     public void set(final int index, final boolean bit){
+        ++modCount;
         if(index < 0){
             throw new IndexOutOfBoundsException(String.valueOf(index));
         }
@@ -275,6 +287,7 @@ public final class BitVector implements Cloneable, Serializable {
      * @param bit The value of the bits to set
      */
     public void set(final int start, final int end, final boolean bit){
+        ++modCount;
         checkRangeOut(start, end);
         if(end >= next){
             next = end;
@@ -284,15 +297,7 @@ public final class BitVector implements Cloneable, Serializable {
             final int onesBefore = countOnes(start, end);
             this.ones += (bit ? (changed - onesBefore) : -onesBefore);
         }
-        if(bit){
-            for(int i=start; i<end; ++i){
-                bits[(i >> 3)] |= (0x80 >>> (i%8));
-            }
-        }else{
-            for(int i=start; i<end; ++i){
-                bits[(i >> 3)] &= ~(0x80 >>> (i%8));
-            }
-        }
+        fill(start, end, bit);
     }
 
     /**
@@ -305,6 +310,7 @@ public final class BitVector implements Cloneable, Serializable {
      *            set this BitVector's values
      */
     public void set(final int index, final BitVector vec){
+        ++modCount;
         if(index < 0){
             throw new IndexOutOfBoundsException(String.valueOf(index));
         }
@@ -313,10 +319,19 @@ public final class BitVector implements Cloneable, Serializable {
         }
         final int size = vec.size();
         ensureCapacitySet((index + size) >> 3);
-        final byte[] content = vec.bits;
-        int ptr = index;
-        for(int i=0; i<size; ++i){
-            set(ptr++, ((content[i >> 3] & (0x80 >>> (i%8))) != 0));
+        if(size == 0){
+            return;
+        }
+        final int end = (index + size);
+        final int onesBefore = ((ones != -1) ? countOnes(index, Math.min(end, next)) : 0);
+        //Copy the source first if both ranges might overlap
+        final byte[] content = ((vec == this) ? toArray() : vec.bits);
+        copyBits(content, 0, bits, index, size);
+        if(end > next){
+            next = end;
+        }
+        if(ones != -1){
+            ones += (countOnes(index, end) - onesBefore);
         }
     }
 
@@ -326,6 +341,7 @@ public final class BitVector implements Cloneable, Serializable {
      * @param bit The bit to be added to this BitVector
      */
     public void add(final boolean bit){
+        ++modCount;
         final int block = (next >> 3);
         ensureCapacityAdd(block);
         if(bit){
@@ -344,11 +360,7 @@ public final class BitVector implements Cloneable, Serializable {
      *            to be added to this BitVector
      */
     public void add(final BitVector vec){
-        final int size = vec.size();
-        ensureCapacitySet((next + size) >> 3);
-        for(int i=0; i<size; ++i){
-            this.add(vec.get(i));
-        }
+        set(next, vec);
     }
 
     /**
@@ -362,6 +374,7 @@ public final class BitVector implements Cloneable, Serializable {
      * @param bit The bit to be inserted
      */
     public void insertAt(final int index, final boolean bit){
+        ++modCount;
         if((index < 0) || (index > next)){
             throw new IndexOutOfBoundsException(String.valueOf(index));
         }
@@ -411,6 +424,7 @@ public final class BitVector implements Cloneable, Serializable {
      * @param vec The <code>BitVector</code> to be inserted
      */
     public void insertAt(final int index, final BitVector vec){
+        ++modCount;
         if(vec == null){
             throw new IllegalArgumentException(
                     "BitVector argument must not be null");
@@ -431,6 +445,7 @@ public final class BitVector implements Cloneable, Serializable {
      * @param index The index of the bit to be removed
      */
     public void remove(final int index){
+        ++modCount;
         check(index);
         final int targetBlock = (index >> 3);
         //Adjust the internal cache if applicable
@@ -474,6 +489,7 @@ public final class BitVector implements Cloneable, Serializable {
      * @param end The index to which to remove bits (exclusive)
      */
     public void remove(final int start, final int end){
+        ++modCount;
         checkRangeIn(start, end);
         final int targetBlock = (start >> 3);
         final int shift = (7 - (start%8));
@@ -515,6 +531,7 @@ public final class BitVector implements Cloneable, Serializable {
      * @see #clear(boolean)
      */
     public void clear(){
+        ++modCount;
         for(int i=0; i<bits.length; ++i){
             bits[i] = 0;
         }
@@ -532,9 +549,10 @@ public final class BitVector implements Cloneable, Serializable {
      * @see #clear()
      */
     public void clear(final boolean value){
+        ++modCount;
         if(value){
-            for(int i=0; i<next; ++i){
-                bits[i >> 3] |= (0x80 >>> (i%8));
+            if(next > 0){
+                fill(0, next, true);
             }
             ones = next;
         }else{
@@ -553,6 +571,7 @@ public final class BitVector implements Cloneable, Serializable {
      * @param index The index of the bit to flip
      */
     public void flip(final int index){
+        ++modCount;
         check(index);
         final int block = (index >> 3);
         final int mask = (0x80 >>> (index%8));
@@ -576,10 +595,22 @@ public final class BitVector implements Cloneable, Serializable {
      * @param end The index to which to flip bits to (exclusive)
      */
     public void flip(final int start, final int end){
+        ++modCount;
         checkRangeIn(start, end);
-        for(int i=start; i<end; ++i){
-            this.flip(i);
+        if(ones != -1){
+            ones += ((end - start) - (2 * countOnes(start, end)));
+        }
+        final int first = (start >> 3);
+        final int last = ((end - 1) >> 3);
+        if(first == last){
+            bits[first] ^= (headMask(start) & tailMask(end));
+            return;
         }
+        bits[first] ^= headMask(start);
+        for(int i=first+1; i<last; ++i){
+            bits[i] = (byte) ~bits[i];
+        }
+        bits[last] ^= tailMask(end);
     }
 
     /**
@@ -592,15 +623,39 @@ public final class BitVector implements Cloneable, Serializable {
      * @return The index of the next set bit, or -1 if there is no such bit
      */
     public int nextSetBit(final int index){
-        if((index < 0) || (index > (next - 1))){
-            throw new IndexOutOfBoundsException(String.valueOf(index));
-        }
-        for(int i=index; i<next; ++i){
-            if((bits[i >> 3] & (0x80 >>> (i%8))) != 0){
-                return i;
-            }
-        }
-        return -1;
+        return nextBit(index, true);
+    }
+
+    /**
+     * Returns the number of bits set to 1 at positions before the specified
+     * index. The first call builds a {@link RankSelectIndex} over this
+     * BitVector in linear time. Subsequent calls are answered in constant
+     * time until this BitVector is modified, after which the index is
+     * rebuilt by the next call
+     * 
+     * @param index The index up to which set bits are counted, exclusive.
+     *              Must be within [0, size]
+     * @return The number of set bits before the specified index
+     * @see RankSelectIndex#rank1(int)
+     */
+    public int rank1(final int index){
+        return rankSelect().rank1(index);
+    }
+
+    /**
+     * Returns the index of the set bit with the specified rank, i.e. the
+     * index of the <i>(k+1)</i>-th bit that is set to 1. The first call builds
+     * a {@link RankSelectIndex} over this BitVector in linear time. Subsequent
+     * calls are answered in near-constant time until this BitVector
+     * is modified, after which the index is rebuilt by the next call
+     * 
+     * @param k The rank of the set bit to find, starting at 0 (zero)
+     * @return The index of the set bit with the specified rank, or -1
+     *         if this BitVector has not more than <i>k</i> set bits
+     * @see RankSelectIndex#select1(int)
+     */
+    public int select1(final int k){
+        return rankSelect().select1(k);
     }
 
     /**
@@ -613,15 +668,7 @@ public final class BitVector implements Cloneable, Serializable {
      * @return The index of the next unset bit, or -1 if there is no such bit
      */
     public int nextUnsetBit(final int index){
-        if((index < 0) || (index > (next - 1))){
-            throw new IndexOutOfBoundsException(String.valueOf(index));
-        }
-        for(int i=index; i<next; ++i){
-            if((bits[i >> 3] & (0x80 >>> (i%8))) == 0){
-                return i;
-            }
-        }
-        return -1;
+        return nextBit(index, false);
     }
 
     /**
@@ -634,15 +681,7 @@ public final class BitVector implements Cloneable, Serializable {
      * @return The index of the previous set bit, or -1 if there is no such bit
      */
     public int previousSetBit(final int index){
-        if((index < 0) || (index > next)){
-            throw new IndexOutOfBoundsException(String.valueOf(index));
-        }
-        for(int i=index; i>=0; --i){
-            if((bits[i >> 3] & (0x80 >>> (i%8))) != 0){
-                return i;
-            }
-        }
-        return -1;
+        return previousBit(index, true);
     }
 
     /**
@@ -655,15 +694,7 @@ public final class BitVector implements Cloneable, Serializable {
      * @return The index of the previous unset bit, or -1 if there is no such bit
      */
     public int previousUnsetBit(final int index){
-        if((index < 0) || (index > next)){
-            throw new IndexOutOfBoundsException(String.valueOf(index));
-        }
-        for(int i=index; i>=0; --i){
-            if((bits[i >> 3] & (0x80 >>> (i%8))) == 0){
-                return i;
-            }
-        }
-        return -1;
+        return previousBit(index, false);
     }
 
     /**
@@ -769,28 +800,28 @@ public final class BitVector implements Cloneable, Serializable {
      * @return This <code>BitVector</code> instance
      */
     public BitVector shiftLeft(final int positions){
+        ++modCount;
         if(positions < 0){
             return shiftRight(-positions);
         }
+        if(next == 0){
+            return this;
+        }
         //First, the number of currently used blocks is computed.
-        //If the vector is shifted by more than 8 bits, then there
+        //If the vector is shifted by 8 bits or more, then there
         //is at least one entire block falling out the leftmost end.
         //Consequently, for every additional 8 bits shifted there is
-        //one more block falling out. Therefore the number of whole
-        //blocks is computed here so that the bytes which are guaranteed
-        //to be overridden can be set in a preprocessing step.
-        //The remaining bits (or all bits at once if shifted
-        //by less than 8 positions) can then be shifted and modified
-        //according to their adjacent blocks
-        final int blocks = (((next%8) != 0) ? (next >> 3) : ((next >> 3) - 1));
-        final int rounds = (positions >> 3);
+        //one more block falling out. All whole blocks are therefore
+        //moved by a single array copy and the blocks which are shifted
+        //in on the right are set to zero. The remaining bits (or all bits
+        //at once if shifted by less than 8 positions) can then be shifted
+        //and modified according to their adjacent blocks
+        final int blocks = ((next - 1) >> 3);
+        final int rounds = Math.min((positions >> 3), (blocks + 1));
         final int mod = (positions%8);
-        for(int i=0; i<rounds; ++i){
-            for(int j=0; j<blocks; ++j){
-                bits[j] = 0;
-                bits[j] |= bits[j+1];
-            }
-            bits[blocks] = 0;
+        if(rounds > 0){
+            System.arraycopy(bits, rounds, bits, 0, (blocks + 1 - rounds));
+            Arrays.fill(bits, (blocks + 1 - rounds), (blocks + 1), (byte) 0);
         }
         if(mod != 0){
             //Define constants used in for loop
@@ -829,28 +860,28 @@ public final class BitVector implements Cloneable, Serializable {
      * @return This <code>BitVector</code> instance
      */
     public BitVector shiftRight(final int positions){
+        ++modCount;
         if(positions < 0){
             return shiftLeft(-positions);
         }
+        if(next == 0){
+            return this;
+        }
         //First, the number of currently used blocks is computed.
-        //If the vector is shifted by more than 8 bits, then there
+        //If the vector is shifted by 8 bits or more, then there
         //is at least one entire block falling out the rightmost end.
         //Consequently, for every additional 8 bits shifted there is
-        //one more block falling out the right end. Therefore the
-        //number of whole blocks is computed here so that the bytes
-        //which are guaranteed to be overridden can be set
-        //in a preprocessing step. The remaining bits (or all bits at
-        //once if shifted by less than 8 positions) can then be shifted
-        //and modified according to their adjacent blocks
-        final int blocks = (((next%8) != 0) ? (next >> 3) : ((next >> 3) - 1));
-        final int rounds = (positions >> 3);
+        //one more block falling out the right end. All whole blocks are
+        //therefore moved by a single array copy and the blocks which are
+        //shifted in on the left are set to zero. The remaining bits (or
+        //all bits at once if shifted by less than 8 positions) can then
+        //be shifted and modified according to their adjacent blocks
+        final int blocks = ((next - 1) >> 3);
+        final int rounds = Math.min((positions >> 3), (blocks + 1));
         final int mod = (positions%8);
-        for(int i=0; i<rounds; ++i){
-            for(int j=blocks; j>0; --j){
-                bits[j] = 0;
-                bits[j] |= bits[j-1];
-            }
-            bits[0] = 0;
+        if(rounds > 0){
+            System.arraycopy(bits, 0, bits, rounds, (blocks + 1 - rounds));
+            Arrays.fill(bits, 0, rounds, (byte) 0);
         }
         if(mod != 0){
             //Define constants used in for loop.
@@ -896,6 +927,7 @@ public final class BitVector implements Cloneable, Serializable {
      * @return This <code>BitVector</code> instance
      */
     public BitVector rotateLeft(final int positions){
+        ++modCount;
         if(positions < 0){
             return rotateRight(-positions);
         }
@@ -925,6 +957,7 @@ public final class BitVector implements Cloneable, Serializable {
      * @return This <code>BitVector</code> instance
      */
     public BitVector rotateRight(final int positions){
+        ++modCount;
         if(positions < 0){
             return rotateLeft(-positions);
         }
@@ -971,6 +1004,7 @@ public final class BitVector implements Cloneable, Serializable {
      *                                  than this BitVector
      */
     public BitVector and(final BitVector vec){
+        ++modCount;
         if(vec.next != this.next){
             throw new IllegalArgumentException("BitVectors must be the same length");
         }
@@ -1023,6 +1057,7 @@ public final class BitVector implements Cloneable, Serializable {
      *                                  than this BitVector
      */
     public BitVector or(final BitVector vec){
+        ++modCount;
         if(vec.next != this.next){
             throw new IllegalArgumentException("BitVectors must be the same length");
         }
@@ -1075,6 +1110,7 @@ public final class BitVector implements Cloneable, Serializable {
      *                                  than this BitVector
      */
     public BitVector xor(final BitVector vec){
+        ++modCount;
         if(vec.next != this.next){
             throw new IllegalArgumentException("BitVectors must be the same length");
         }
@@ -1093,6 +1129,61 @@ public final class BitVector implements Cloneable, Serializable {
         return this;
     }
 
+    /**
+     * Performs a logical AND NOT operation to the bit at the specified
+     * index with the bit provided to this method. The bit at the
+     * specified index of this BitVector is set to the result of
+     * that operation, i.e. it is cleared if the provided bit is 1
+     * 
+     * @param index The index of the bit to use as the first operand
+     *              for the logical AND NOT operation
+     * @param bit The bit whose complement is used as the second operand
+     *            for the logical AND NOT operation
+     * @return This <code>BitVector</code> instance
+     * @since 4.1.0
+     */
+    public BitVector andNot(final int index, final boolean bit){
+        set(index, (get(index) & !bit));
+        return this;
+    }
+
+    /**
+     * Performs a logical AND NOT operation to all bits of this BitVector
+     * with all bits of the BitVector provided to this method. All bits of
+     * this BitVector which are set in the provided BitVector are cleared.
+     * The content of the BitVector provided as an argument to this
+     * method is not changed.
+     * 
+     * <p>Both BitVectors must have the same size
+     * 
+     * @param vec The <code>BitVector</code> whose complement is used as the
+     *            second operand for the logical AND NOT operations
+     * @return This <code>BitVector</code> instance
+     * @throws IllegalArgumentException If the BitVector passed to this
+     *                                  method has a different size
+     *                                  than this BitVector
+     * @since 4.1.0
+     */
+    public BitVector andNot(final BitVector vec){
+        ++modCount;
+        if(vec.next != this.next){
+            throw new IllegalArgumentException("BitVectors must be the same length");
+        }
+        //Compute the number of byte blocks to process.
+        //If the next free position is on a new block, we do not
+        //take that one into account in the loop
+        final int blocks = (((next%8) != 0) ? ((next >> 3) + 1) : (next >> 3));
+        for(int i=0; i<blocks; ++i){
+            bits[i] &= ~vec.bits[i];
+        }
+        //Reset the internal counter as we do not
+        //know which bits changed
+        if(ones != -1){
+            ones = -1;
+        }
+        return this;
+    }
+
     /**
      * Returns the first 8 bits of this BitVector as a primitive byte value.
      * The bits are read in big-endian order, i.e. the bit at index zero is
@@ -1370,6 +1461,23 @@ public final class BitVector implements Cloneable, Serializable {
         return new BitVector(bits);
     }
 
+    /**
+     * Wraps the specified byte array into a BitVector with the specified size.
+     * The size must not be greater than the number of bits in the array. The
+     * bits after the specified size must be 0 (zero).<br>
+     * This method is not part of the public API
+     * 
+     * @param bits The byte array to be wrapped into a newly allocated BitVector
+     * @param size The number of bits of the returned BitVector
+     * @return A <code>BitVector</code> holding the specified
+     *         byte array as its content
+     */
+    static BitVector wrap(final byte[] bits, final int size){
+        final BitVector vec = new BitVector(bits);
+        vec.next = size;
+        return vec;
+    }
+
     /**
      * Creates a BitVector from specified String object. The String argument should
      * only consist of the characters '0' and '1'. Every character which is not either
@@ -1539,8 +1647,8 @@ public final class BitVector implements Cloneable, Serializable {
         final BitVector vec = new BitVector(size);
         vec.next = size;
         if(bit){
-            for(int i=0; i<size; ++i){
-                vec.bits[i >> 3] |= (0x80 >>> (i%8));
+            if(size > 0){
+                vec.fill(0, size, true);
             }
             //Optimization as the state of all bits is known
             vec.ones = size;
@@ -1618,13 +1726,270 @@ public final class BitVector implements Cloneable, Serializable {
      * @return The number of 1s within the specified range of the BitVector
      */
     private int countOnes(final int from, final int to){
-        int total = 0;
-        for(int i=from; i<to; ++i){
-            if(((0xff & bits[i >> 3]) & (0x80 >>> (i%8))) != 0){
-                ++total;
+        if(from >= to){
+            return 0;
+        }
+        final int first = (from >> 3);
+        final int last = ((to - 1) >> 3);
+        if(first == last){
+            return Integer.bitCount(bits[first] & headMask(from) & tailMask(to));
+        }
+        int total = Integer.bitCount(bits[first] & headMask(from));
+        int i = (first + 1);
+        for(; (i + 7) < last; i += 8){
+            total += Long.bitCount(word(bits, i));
+        }
+        for(; i<last; ++i){
+            total += Integer.bitCount(bits[i] & 0xff);
+        }
+        return (total + Integer.bitCount(bits[last] & tailMask(to)));
+    }
+
+    /**
+     * Returns the index of the first bit with the specified value that
+     * occurs on or after the specified index. All whole blocks of 8 bytes
+     * are scanned as 64-bit words
+     * 
+     * @param index The index from which the BitVector is searched in
+     *              ascending order. The index is inclusive
+     * @param value The value of the bit to search for
+     * @return The index of the next bit with the specified value,
+     *         or -1 if there is no such bit
+     */
+    private int nextBit(final int index, final boolean value){
+        if((index < 0) || (index > (next - 1))){
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        //Complement all blocks when searching for unset bits
+        final int flip = (value ? 0 : 0xff);
+        final long flipWord = (value ? 0L : -1L);
+        final int last = ((next - 1) >> 3);
+        int block = (index >> 3);
+        final int head = ((bits[block] ^ flip) & headMask(index));
+        if(head != 0){
+            return bounded((block << 3) + Integer.numberOfLeadingZeros(head) - 24);
+        }
+        for(++block; (block + 7) <= last; block += 8){
+            final long word = (word(bits, block) ^ flipWord);
+            if(word != 0){
+                return bounded((block << 3) + Long.numberOfLeadingZeros(word));
+            }
+        }
+        for(; block<=last; ++block){
+            final int b = ((bits[block] ^ flip) & 0xff);
+            if(b != 0){
+                return bounded((block << 3) + Integer.numberOfLeadingZeros(b) - 24);
             }
         }
-        return total;
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first bit with the specified value that
+     * occurs on or prior to the specified index. All whole blocks of 8 bytes
+     * are scanned as 64-bit words
+     * 
+     * @param index The index from which the BitVector is searched in
+     *              descending order. The index is inclusive
+     * @param value The value of the bit to search for
+     * @return The index of the previous bit with the specified value,
+     *         or -1 if there is no such bit
+     */
+    private int previousBit(final int index, final boolean value){
+        if((index < 0) || (index > next)){
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        if(next == 0){
+            return -1;
+        }
+        //Complement all blocks when searching for unset bits
+        final int flip = (value ? 0 : 0xff);
+        final long flipWord = (value ? 0L : -1L);
+        final int from = Math.min(index, (next - 1));
+        int block = (from >> 3);
+        final int head = ((bits[block] ^ flip) & tailMask(from + 1));
+        if(head != 0){
+            return ((block << 3) + 7 - Integer.numberOfTrailingZeros(head));
+        }
+        for(--block; block>=7; block -= 8){
+            final long word = (word(bits, block - 7) ^ flipWord);
+            if(word != 0){
+                return ((block << 3) + 7 - Long.numberOfTrailingZeros(word));
+            }
+        }
+        for(; block>=0; --block){
+            final int b = ((bits[block] ^ flip) & 0xff);
+            if(b != 0){
+                return ((block << 3) + 7 - Integer.numberOfTrailingZeros(b));
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the specified bit index if it is within the bounds of
+     * this BitVector, or -1 otherwise
+     * 
+     * @param index The bit index to check
+     * @return The specified index, or -1 if it is out of bounds
+     */
+    private int bounded(final int index){
+        return ((index < next) ? index : -1);
+    }
+
+    /**
+     * Sets all bits within the specified range to the specified value.
+     * All whole blocks within the range are filled at once. The internal
+     * array must be large enough to hold the specified range
+     * 
+     * @param start The start index of the range (inclusive)
+     * @param end The end index of the range (exclusive). Must be
+     *            greater than the start index
+     * @param bit The value of the bits to set
+     */
+    private void fill(final int start, final int end, final boolean bit){
+        final int first = (start >> 3);
+        final int last = ((end - 1) >> 3);
+        final int mask = ((first == last)
+                ? (headMask(start) & tailMask(end))
+                : headMask(start));
+
+        if(bit){
+            bits[first] |= mask;
+        }else{
+            bits[first] &= ~mask;
+        }
+        if(first == last){
+            return;
+        }
+        Arrays.fill(bits, (first + 1), last, (bit ? (byte) 0xff : (byte) 0));
+        if(bit){
+            bits[last] |= tailMask(end);
+        }else{
+            bits[last] &= ~tailMask(end);
+        }
+    }
+
+    /**
+     * Copies the specified number of bits from the source array to the
+     * destination array. Whole blocks are copied at once if both positions
+     * are aligned to the same offset within their blocks. The source and
+     * destination ranges must not overlap
+     * 
+     * @param src The source array
+     * @param srcPos The bit index of the first bit to copy in the source array
+     * @param dst The destination array
+     * @param dstPos The bit index of the first bit to set in the destination array
+     * @param length The number of bits to copy
+     */
+    private static void copyBits(final byte[] src, int srcPos, final byte[] dst,
+            int dstPos, int length){
+
+        //Fill the first destination block up to its boundary
+        if((dstPos%8) != 0){
+            final int n = Math.min(length, (8 - (dstPos%8)));
+            writeBits(dst, dstPos, readBits(src, srcPos, n), n);
+            srcPos += n;
+            dstPos += n;
+            length -= n;
+        }
+        if((srcPos%8) == 0){
+            System.arraycopy(src, (srcPos >> 3), dst, (dstPos >> 3), (length >> 3));
+            final int copied = (length & ~7);
+            srcPos += copied;
+            dstPos += copied;
+            length -= copied;
+        }else{
+            for(; length>=8; length-=8){
+                dst[dstPos >> 3] = (byte) readBits(src, srcPos, 8);
+                srcPos += 8;
+                dstPos += 8;
+            }
+        }
+        if(length > 0){
+            writeBits(dst, dstPos, readBits(src, srcPos, length), length);
+        }
+    }
+
+    /**
+     * Reads up to 8 bits from the specified array
+     * 
+     * @param src The array to read from
+     * @param pos The bit index of the first bit to read
+     * @param n The number of bits to read. Must be in the range [1, 8]
+     * @return The read bits as the <i>n</i> least significant
+     *         bits of an int value
+     */
+    private static int readBits(final byte[] src, final int pos, final int n){
+        final int offset = (pos%8);
+        int window = ((src[pos >> 3] & 0xff) << 8);
+        if((offset + n) > 8){
+            window |= (src[(pos >> 3) + 1] & 0xff);
+        }
+        return ((window >>> (16 - offset - n)) & ((1 << n) - 1));
+    }
+
+    /**
+     * Writes up to 8 bits to a single block of the specified array
+     * 
+     * @param dst The array to write to
+     * @param pos The bit index of the first bit to write
+     * @param value The bits to write as the <i>n</i> least
+     *              significant bits of an int value
+     * @param n The number of bits to write. All bits must be
+     *          located within the same block
+     */
+    private static void writeBits(final byte[] dst, final int pos, final int value,
+            final int n){
+
+        final int shift = (8 - (pos%8) - n);
+        final int mask = (((1 << n) - 1) << shift);
+        dst[pos >> 3] = (byte) ((dst[pos >> 3] & ~mask) | (value << shift));
+    }
+
+    /**
+     * Returns the mask selecting all bits of a block which are
+     * located at or after the specified bit index
+     * 
+     * @param index The bit index to start the mask at (inclusive)
+     * @return A mask of the bits of the block of the specified index
+     */
+    private static int headMask(final int index){
+        return (0xff >>> (index%8));
+    }
+
+    /**
+     * Returns the mask selecting all bits of a block which are
+     * located before the specified bit index. The block is the block
+     * of the last bit before the specified index
+     * 
+     * @param end The bit index to end the mask at (exclusive)
+     * @return A mask of the bits of the block of the last bit
+     *         before the specified index
+     */
+    private static int tailMask(final int end){
+        return ((0xff00 >>> (((end - 1)%8) + 1)) & 0xff);
+    }
+
+    /**
+     * Returns 8 blocks of the specified array as a 64-bit word. The blocks
+     * are read in big-endian order, so that the bit with the lowest index
+     * is the most significant bit of the returned word
+     * 
+     * @param bytes The array to read from
+     * @param index The index of the first block to read
+     * @return The 64-bit word composed of the 8 blocks
+     *         starting at the specified index
+     */
+    static long word(final byte[] bytes, final int index){
+        return (((bytes[index] & 0xffL) << 56)
+              | ((bytes[index + 1] & 0xffL) << 48)
+              | ((bytes[index + 2] & 0xffL) << 40)
+              | ((bytes[index + 3] & 0xffL) << 32)
+              | ((bytes[index + 4] & 0xffL) << 24)
+              | ((bytes[index + 5] & 0xffL) << 16)
+              | ((bytes[index + 6] & 0xffL) << 8)
+              |  (bytes[index + 7] & 0xffL));
     }
 
     /**
@@ -1670,6 +2035,29 @@ public final class BitVector implements Cloneable, Serializable {
         this.bits = tmp;
     }
 
+    /**
+     * Returns the number of modifications made to this BitVector.<br>
+     * This method is not part of the public API
+     * 
+     * @return The modification count of this BitVector
+     */
+    int modCount(){
+        return this.modCount;
+    }
+
+    /**
+     * Returns the rank/select directory of this BitVector.
+     * The directory is rebuilt if it is outdated
+     * 
+     * @return An up-to-date <code>RankSelectIndex</code> for this BitVector
+     */
+    private RankSelectIndex rankSelect(){
+        if((rankSelect == null) || !rankSelect.isValid()){
+            this.rankSelect = new RankSelectIndex(this);
+        }
+        return this.rankSelect;
+    }
+
     /**
      * Ensures the internal counter variable is set
      * to the currently valid amount
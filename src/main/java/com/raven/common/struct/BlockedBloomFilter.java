@@ -0,0 +1,654 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.struct;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.text.DecimalFormat;
+import java.util.Arrays;
+
+import com.raven.common.io.SerializationException;
+import com.raven.common.io.Serializer;
+
+/**
+ * An implementation of a cache-line blocked Bloom filter. A BlockedBloomFilter
+ * is divided into blocks of 512 bits, which is the size of a typical cache line
+ * of 64 bytes. Each element is mapped to exactly one block and all bits of
+ * the element are set within that block. Therefore, adding an element or checking
+ * for its presence only accesses a single block of eight consecutive
+ * <code>long</code> words, instead of one random memory location per hash function
+ * as in a {@link StaticBloomFilter}. The block of an element is selected by
+ * multiply-shift reduction of the upper half of its 64-bit hash value and the
+ * positions of its bits inside the block are derived from the lower half by
+ * multiplication with distinct odd constants. No integer divisions
+ * are performed by any of these operations.
+ * 
+ * <p>The locality of the blocks comes at the cost of a somewhat higher
+ * false positive probability compared to a standard Bloom filter of equal size,
+ * because the number of elements mapped to each block varies. For a filter
+ * with <i>m</i> bits, blocks of <i>B</i> = 512 bits, <i>k</i> bits per element
+ * and <i>n</i> added elements, the number of elements in a block is
+ * approximately Poisson distributed with mean <i>&lambda; = nB/m</i>.
+ * The false positive probability is then given by
+ * <pre>
+ *   FPP(n, m, k) = &sum;<sub>i&ge;0</sub> (e<sup>-&lambda;</sup> &lambda;<sup>i</sup> / i!) * (1 - (1 - 1/B)<sup>ik</sup>)<sup>k</sup>
+ * </pre>
+ * which is computed by {@link #falsePositiveProbability(long, long, int)}. When
+ * a BlockedBloomFilter is constructed, its number of blocks and bits per element
+ * are chosen so that this probability does not exceed the specified maximum
+ * allowed error for the specified capacity. This typically requires a few
+ * percent more bits than a StaticBloomFilter for error rates around 10% and
+ * up to about 20% more bits for error rates below 0.1%.
+ * 
+ * <p>As with all Bloom filters, elements are hashed by means of the
+ * {@link Serializer} specified at construction time, or by one of the fallbacks
+ * described in {@link AbstractBloomFilter} if no Serializer is specified.
+ * A BlockedBloomFilter cannot grow dynamically as more elements are
+ * added to it. Adding more elements to a BlockedBloomFilter than the specified
+ * capacity will result in a rapidly increasing false positive rate.
+ * 
+ * <p>A BlockedBloomFilter cannot be used with null elements. Passing null
+ * to either the <code>add()</code> or <code>contains()</code> method will
+ * result in a <code>NullPointerException</code> being thrown.
+ * 
+ * <p>A BlockedBloomFilter can be persisted in a compact binary format by means
+ * of the {@link #writeTo(OutputStream)} method and be restored by
+ * {@link #readFrom(InputStream, Serializer)}. Filters with the same capacity
+ * and maximum error can be combined by {@link #union(BlockedBloomFilter)}
+ * and {@link #intersect(BlockedBloomFilter)}.
+ * 
+ * <p>This implementation is NOT thread-safe.
+ * 
+ * @author Phil Gaiser
+ * @see StaticBloomFilter
+ * @since 4.1.0
+ *
+ * @param <E> The type of elements to be used by the Bloom filter
+ */
+public class BlockedBloomFilter<E> extends AbstractBloomFilter<E> {
+
+    /** The number of bits of each block **/
+    static final int BLOCK_BITS = 512;
+
+    /** The number of long words of each block **/
+    private static final int BLOCK_WORDS = BLOCK_BITS / 64;
+
+    /** The maximum number of blocks of a filter **/
+    private static final long MAX_BLOCKS = Integer.MAX_VALUE / BLOCK_WORDS;
+
+    /** The odd multipliers used to derive the bit positions inside a block **/
+    private static final int[] SALTS = new int[]{
+        0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d,
+        0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31,
+        0x9e3779b1, 0x85ebca6b, 0xc2b2ae35, 0x27d4eb2f,
+        0x165667b1, 0xd3a2646d, 0xfd7046c5, 0xb55a4f09
+    };
+
+    /** The maximum number of bits set per element **/
+    static final int MAX_HASHES = SALTS.length;
+
+    private final long[] words;
+    private final int blocks;
+    private final int hashes;
+    private final long capacity;
+    private long bitsSet;
+
+    /**
+     * Constructs a new <code>BlockedBloomFilter</code> with a capacity
+     * of 10000 elements and a maximum allowed false positive
+     * probability of 1%.<br>
+     * Adding more elements to the constructed filter than the specified
+     * capacity will result in the actual false positive rate to
+     * exceed the maximum allowed value
+     * 
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the constructed
+     *                   BlockedBloomFilter
+     */
+    public BlockedBloomFilter(final Serializer<E> serializer){
+        this(serializer, 10000, 0.01);
+    }
+
+    /**
+     * Constructs a new <code>BlockedBloomFilter</code> with the specified
+     * capacity and a maximum allowed false positive probability of 1%.<br>
+     * Adding more elements to the constructed filter than the specified
+     * capacity will result in the actual false positive rate to
+     * exceed the maximum allowed value
+     * 
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the constructed
+     *                   BlockedBloomFilter
+     * @param capacity The number of elements the constructed
+     *                 BlockedBloomFilter should be able to hold
+     */
+    public BlockedBloomFilter(final Serializer<E> serializer, final int capacity){
+        this(serializer, capacity, 0.01);
+    }
+
+    /**
+     * Constructs a new <code>BlockedBloomFilter</code> with the specified
+     * capacity and maximum allowed false positive probability.<br>
+     * Adding more elements to the constructed filter than the specified
+     * capacity will result in the actual false positive rate to
+     * exceed the maximum allowed value
+     * 
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the constructed
+     *                   BlockedBloomFilter
+     * @param capacity The number of elements the constructed
+     *                 BlockedBloomFilter should be able to hold
+     * @param maxError The maximum allowed false positive probability the
+     *                 constructed BlockedBloomFilter should adhere to
+     * @throws IllegalArgumentException If the specified capacity is not positive,
+     *                                  if the specified maximum error is not
+     *                                  within (0, 1) or if the required number
+     *                                  of bits exceeds the maximum size of
+     *                                  a BlockedBloomFilter
+     */
+    public BlockedBloomFilter(final Serializer<E> serializer, final long capacity,
+            final double maxError){
+
+        super(serializer);
+        if(capacity <= 0){
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        if((maxError <= 0) || (maxError >= 1.0)){
+            throw new IllegalArgumentException("Maximum allowed error rate must be "
+                    + "positive and less than 1.0");
+        }
+        //Start with the size of a standard Bloom filter and
+        //grow it until the blocked error rate is small enough
+        long blocks = (long) Math.ceil((capacity * -Math.log(maxError))
+                / (0.480453014 * BLOCK_BITS));//const: ln(2)^2
+
+        blocks = Math.max(blocks, 1);
+        int hashes = optimalHashes(capacity, blocks);
+        while(falsePositiveProbability(capacity, blocks * BLOCK_BITS, hashes) > maxError){
+            blocks += Math.max(blocks / 32, 1);
+            if(blocks > MAX_BLOCKS){
+                throw new IllegalArgumentException(String.format(
+                        "A BlockedBloomFilter with capacity %s and maximum error "
+                        + "%s exceeds the maximum size", capacity, maxError));
+            }
+            hashes = optimalHashes(capacity, blocks);
+        }
+        this.capacity = capacity;
+        this.blocks = (int) blocks;
+        this.hashes = hashes;
+        this.words = new long[this.blocks * BLOCK_WORDS];
+    }
+
+    /**
+     * Constructs a new empty <code>BlockedBloomFilter</code> with the same
+     * configuration as the specified filter
+     * 
+     * @param other The filter whose configuration to copy
+     */
+    private BlockedBloomFilter(final BlockedBloomFilter<E> other){
+        this(other.serializer, other.capacity, other.blocks, other.hashes,
+                new long[other.words.length]);
+    }
+
+    /**
+     * Constructs a new <code>BlockedBloomFilter</code> with the
+     * specified configuration and words
+     * 
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the constructed
+     *                   BlockedBloomFilter
+     * @param capacity The capacity of the constructed BlockedBloomFilter
+     * @param blocks The number of blocks of the constructed BlockedBloomFilter
+     * @param hashes The number of bits set per element
+     * @param words The words holding all blocks
+     */
+    private BlockedBloomFilter(final Serializer<E> serializer, final long capacity,
+            final int blocks, final int hashes, final long[] words){
+
+        super(serializer);
+        this.capacity = capacity;
+        this.blocks = blocks;
+        this.hashes = hashes;
+        this.words = words;
+        long ones = 0;
+        for(final long word : words){
+            ones += Long.bitCount(word);
+        }
+        this.bitsSet = ones;
+    }
+
+    /**
+     * Adds the specified element to this BlockedBloomFilter. Adding an element
+     * which is already in the filter will have no effect
+     * 
+     * @param element The element to be added to this BlockedBloomFilter
+     * @throws NullPointerException If the specified element is null
+     * @throws IllegalArgumentException If the specified element
+     *                                  is invalid, e.g. an empty String
+     * @throws SerializationException If the specified element cannot be serialized
+     */
+    @Override
+    public void add(E element){
+        addHash(hash(element));
+    }
+
+    /**
+     * Indicates whether this BlockedBloomFilter possibly contains
+     * the specified element. If this method returns true, then the specified
+     * element might be in this filter in due consideration of the maximum allowed
+     * error probability this BlockedBloomFilter was configured with. If this
+     * method returns false, then the specified element is certainly
+     * not in this filter
+     * 
+     * @param element The element whose presence in this BlockedBloomFilter
+     *                is to be tested
+     * @return True if the specified element might have been added to
+     *         this BlockedBloomFilter, false if it is definitely not
+     *         in this BlockedBloomFilter
+     * @throws NullPointerException If the specified element is null
+     * @throws IllegalArgumentException If the specified element
+     *                                  is invalid, e.g. an empty String
+     * @throws SerializationException If the specified element cannot be serialized
+     */
+    @Override
+    public boolean contains(E element){
+        return containsHash(hash(element));
+    }
+
+    @Override
+    protected void addHash(final long hash){
+        final int base = block(hash) * BLOCK_WORDS;
+        final int h = (int) hash;
+        for(int i=0; i<hashes; ++i){
+            final int pos = (h * SALTS[i]) >>> 23;
+            final int index = base + (pos >>> 6);
+            final long word = words[index];
+            final long mask = (1L << pos);
+            if((word & mask) == 0){
+                words[index] = (word | mask);
+                ++bitsSet;
+            }
+        }
+    }
+
+    @Override
+    protected boolean containsHash(final long hash){
+        final int base = block(hash) * BLOCK_WORDS;
+        final int h = (int) hash;
+        for(int i=0; i<hashes; ++i){
+            final int pos = (h * SALTS[i]) >>> 23;
+            if((words[base + (pos >>> 6)] & (1L << pos)) == 0){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    Partition<E> partition(){
+        final BlockedBloomFilter<E> partition = new BlockedBloomFilter<E>(this);
+        return new Partition<E>(partition, () -> union(partition));
+    }
+
+    /**
+     * Adds all elements of the specified BlockedBloomFilter to this filter.
+     * After this operation, this filter affirms the presence of all elements
+     * which have been added to either of both filters. The specified
+     * filter must have been constructed with the same capacity and
+     * maximum error as this filter. It is not changed by this operation
+     * 
+     * @param other The <code>BlockedBloomFilter</code> whose elements to add
+     *              to this filter. Must not be null
+     * @return This BlockedBloomFilter
+     * @throws IllegalArgumentException If the specified filter is null or
+     *                                  not compatible with this filter
+     * @since 4.1.0
+     */
+    public BlockedBloomFilter<E> union(final BlockedBloomFilter<E> other){
+        checkCompatible(other);
+        final long[] bits = other.words;
+        long ones = 0;
+        for(int i=0; i<words.length; ++i){
+            words[i] |= bits[i];
+            ones += Long.bitCount(words[i]);
+        }
+        this.bitsSet = ones;
+        return this;
+    }
+
+    /**
+     * Retains only the bits of this filter which are also set in the specified
+     * BlockedBloomFilter. After this operation, this filter affirms the presence
+     * of all elements which have been added to both filters. The probability of
+     * false positives of the intersection can be higher than the probability of a
+     * filter to which only the common elements have been added. The specified
+     * filter must have been constructed with the same capacity and
+     * maximum error as this filter. It is not changed by this operation
+     * 
+     * @param other The <code>BlockedBloomFilter</code> to intersect this
+     *              filter with. Must not be null
+     * @return This BlockedBloomFilter
+     * @throws IllegalArgumentException If the specified filter is null or
+     *                                  not compatible with this filter
+     * @since 4.1.0
+     */
+    public BlockedBloomFilter<E> intersect(final BlockedBloomFilter<E> other){
+        checkCompatible(other);
+        final long[] bits = other.words;
+        long ones = 0;
+        for(int i=0; i<words.length; ++i){
+            words[i] &= bits[i];
+            ones += Long.bitCount(words[i]);
+        }
+        this.bitsSet = ones;
+        return this;
+    }
+
+    /**
+     * Writes this BlockedBloomFilter to the specified OutputStream in a versioned
+     * binary format. The format holds the configuration of this filter and
+     * all of its bits. The Serializer of this filter is not written.
+     * 
+     * <p>The output stream will be closed automatically before this method returns
+     * 
+     * @param os The <code>OutputStream</code> to write this filter to.
+     *           Must not be null
+     * @throws IOException If any errors occur when writing to the output stream
+     */
+    public void writeTo(final OutputStream os) throws IOException{
+        if(os == null){
+            throw new IllegalArgumentException("OutputStream argument must not be null");
+        }
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))){
+            BloomFilterFormat.writeHeader(out, BloomFilterFormat.TYPE_BLOCKED);
+            out.writeLong(capacity);
+            out.writeInt(blocks);
+            out.writeInt(hashes);
+            BloomFilterFormat.writeWords(out, words);
+        }
+    }
+
+    /**
+     * Reads a BlockedBloomFilter from the specified InputStream. The bytes must
+     * have been written by the {@link #writeTo(OutputStream)} method.
+     * 
+     * <p>The input stream will be closed automatically before this method returns
+     * 
+     * @param <E> The type of elements of the returned filter
+     * @param is The <code>InputStream</code> to read from. Must not be null
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the returned
+     *                   BlockedBloomFilter. Should be equal to the Serializer
+     *                   of the written filter
+     * @return A <code>BlockedBloomFilter</code> read from the specified InputStream
+     * @throws IOException If any errors occur when reading from the input stream
+     * @throws SerializationException If the bytes from the input stream
+     *                                do not constitute a BlockedBloomFilter
+     */
+    public static <E> BlockedBloomFilter<E> readFrom(final InputStream is,
+            final Serializer<E> serializer) throws IOException{
+
+        if(is == null){
+            throw new IllegalArgumentException("InputStream argument must not be null");
+        }
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(is))){
+            BloomFilterFormat.readHeader(in, BloomFilterFormat.TYPE_BLOCKED);
+            final long capacity = in.readLong();
+            final int blocks = in.readInt();
+            final int hashes = in.readInt();
+            if((capacity <= 0) || (blocks <= 0) || (blocks > MAX_BLOCKS)
+                    || (hashes <= 0) || (hashes > MAX_HASHES)){
+
+                throw new SerializationException("Invalid Bloom filter parameters");
+            }
+            final long[] words = new long[blocks * BLOCK_WORDS];
+            BloomFilterFormat.readWords(in, words);
+            if(in.read() != -1){
+                throw new SerializationException("Trailing bytes after Bloom filter data");
+            }
+            return new BlockedBloomFilter<E>(serializer, capacity, blocks, hashes, words);
+        }catch(EOFException ex){
+            throw new SerializationException("Bloom filter data is truncated", ex);
+        }
+    }
+
+    /**
+     * Checks that the specified filter can be combined with this filter
+     * 
+     * @param other The filter to check
+     */
+    private void checkCompatible(final BlockedBloomFilter<E> other){
+        if(other == null){
+            throw new IllegalArgumentException("Filter argument must not be null");
+        }
+        if((other.blocks != blocks) || (other.hashes != hashes)){
+            throw new IllegalArgumentException(
+                    "Bloom filters must have the same capacity and maximum error");
+        }
+    }
+
+    /**
+     * Indicates whether this BlockedBloomFilter is empty. An empty filter
+     * contains no elements
+     * 
+     * @return True if this filter contains no elements, false if it is not
+     *         empty and contains at least one element
+     */
+    @Override
+    public boolean isEmpty(){
+        return (bitsSet == 0);
+    }
+
+    /**
+     * Returns an estimation of the size of this BlockedBloomFilter.
+     * The number of elements is approximated by putting the total number
+     * of bits in relation to the fill ratio of the filter.<br>
+     * The actual size, that is, the number of distinct elements which have been
+     * added to the filter might be somewhat lower or higher than
+     * the value returned by this method
+     * 
+     * @return The estimated number of elements in this filter
+     */
+    @Override
+    public int approximateSize(){
+        final double size = (double) words.length * 64;
+        return (int) (-(size / hashes) * Math.log(1 - (bitsSet / size)));//saturated cast
+    }
+
+    /**
+     * Returns the size in bytes this BlockedBloomFilter has allocated in memory
+     * in order to store all elements of its current capacity
+     * 
+     * @return The number of bytes that this BlockedBloomFilter has allocated
+     *         in memory to store its current capacity
+     */
+    @Override
+    public long sizeInBytes(){
+        //Size of the words array
+        // + 32 bytes for internally used vars in this instance
+        return ((long) words.length * 8) + 16 + 32;
+    }
+
+    /**
+     * Removes all of the elements from this BlockedBloomFilter. The filter
+     * will be empty after this method returns. The capacity of this filter
+     * is not changed by this operation
+     */
+    @Override
+    public void clear(){
+        Arrays.fill(words, 0L);
+        this.bitsSet = 0;
+    }
+
+    /**
+     * Returns a string representation of this BlockedBloomFilter.<br>
+     * This method can be used to gather informative
+     * information about this filter
+     *
+     * @return A string representation of this BlockedBloomFilter
+     */
+    @Override
+    public String toString(){
+        final StringBuilder sb = new StringBuilder();
+        final String nl = System.lineSeparator();
+        final DecimalFormat d = new DecimalFormat("0.000");
+        final long totalSize = (long) words.length * 64;
+        final long sizeBytes = sizeInBytes();
+        sb.append("Filter: ");
+        sb.append(bitsSet);
+        sb.append("/");
+        sb.append(totalSize);
+        sb.append(" (");
+        sb.append(d.format(((double)bitsSet / (double)totalSize) * 100));
+        sb.append("% full)");
+        sb.append(nl);
+        sb.append("Blocks: ");
+        sb.append(blocks);
+        sb.append(" (");
+        sb.append(hashes);
+        sb.append(" bits per element)");
+        sb.append(nl);
+        sb.append("Total size: ");
+        sb.append(sizeBytes);
+        sb.append(" bytes (");
+        sb.append(sizeBytes / 1024);
+        sb.append(" KB)");
+        return sb.toString();
+    }
+
+    /**
+     * Gets the capacity of this BlockedBloomFilter. The capacity cannot
+     * change and denotes the maximum number of elements that should be
+     * added to the filter.<br>
+     * If the capacity exceeds <code>Integer.MAX_VALUE</code>, then
+     * <code>Integer.MAX_VALUE</code> is returned
+     * 
+     * @return The capacity of this BlockedBloomFilter
+     */
+    public int getCapacity(){
+        return (int) Math.min(this.capacity, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets the number of bits which are set within the
+     * block of an element when it is added to this filter
+     * 
+     * @return The number of bits per element of this BlockedBloomFilter
+     */
+    public int getHashCount(){
+        return this.hashes;
+    }
+
+    /**
+     * Gets the expected false positive probability of this BlockedBloomFilter
+     * when it holds as many elements as its capacity
+     * 
+     * @return The expected false positive probability at full capacity
+     */
+    public double expectedFalsePositiveProbability(){
+        return falsePositiveProbability(capacity, (long) words.length * 64, hashes);
+    }
+
+    /**
+     * Computes the false positive probability of a BlockedBloomFilter with blocks
+     * of 512 bits. See the class documentation for the formula
+     * 
+     * @param elements The number of elements added to the filter
+     * @param bits The total number of bits of the filter.
+     *             Must be a positive multiple of 512
+     * @param hashes The number of bits set per element
+     * @return The probability that the filter affirms the
+     *         presence of an element which was not added to it
+     * @throws IllegalArgumentException If any argument is out of range
+     */
+    public static double falsePositiveProbability(final long elements,
+            final long bits, final int hashes){
+
+        if(elements < 0){
+            throw new IllegalArgumentException("Number of elements must not be negative");
+        }
+        if((bits <= 0) || ((bits % BLOCK_BITS) != 0)){
+            throw new IllegalArgumentException(
+                    "Number of bits must be a positive multiple of " + BLOCK_BITS);
+        }
+        if(hashes <= 0){
+            throw new IllegalArgumentException("Number of hashes must be positive");
+        }
+        if(elements == 0){
+            return 0.0;
+        }
+        //Sum the Poisson distributed load of a block
+        //within a range of twelve standard deviations
+        final double lambda = ((double) elements * BLOCK_BITS) / bits;
+        final double spread = (12 * Math.sqrt(lambda)) + 12;
+        final int from = (int) Math.max(0, Math.floor(lambda - spread));
+        final int to = (int) Math.ceil(lambda + spread);
+        final double logLambda = Math.log(lambda);
+        final double logEmpty = Math.log1p(-1.0 / BLOCK_BITS) * hashes;
+        double logPoisson = -lambda;
+        for(int i=1; i<=from; ++i){
+            logPoisson += logLambda - Math.log(i);
+        }
+        double fpp = 0.0;
+        for(int i=from; i<=to; ++i){
+            if(i > from){
+                logPoisson += logLambda - Math.log(i);
+            }
+            final double fill = -Math.expm1(logEmpty * i);
+            fpp += Math.exp(logPoisson + (hashes * Math.log(fill)));
+        }
+        return Math.min(fpp, 1.0);
+    }
+
+    /**
+     * Determines the number of bits per element which minimizes the false
+     * positive probability of a filter with the specified size
+     * 
+     * @param capacity The number of elements of the filter
+     * @param blocks The number of blocks of the filter
+     * @return The optimal number of bits per element
+     */
+    private static int optimalHashes(final long capacity, final long blocks){
+        int best = 1;
+        double min = Double.MAX_VALUE;
+        for(int k=1; k<=MAX_HASHES; ++k){
+            final double fpp = falsePositiveProbability(capacity, blocks * BLOCK_BITS, k);
+            if(fpp < min){
+                min = fpp;
+                best = k;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Selects the block of the specified hash value by multiply-shift
+     * reduction of its upper 32 bits to the range [0, blocks)
+     * 
+     * @param hash The hash value of an element
+     * @return The index of the block of the specified hash value
+     */
+    private int block(final long hash){
+        return (int) (((hash >>> 32) * blocks) >>> 32);
+    }
+}
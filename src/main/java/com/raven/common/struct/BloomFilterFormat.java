@@ -0,0 +1,228 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.struct;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.raven.common.io.SerializationException;
+
+/**
+ * Defines the binary format of persisted Bloom filters and Cuckoo filters.
+ * Every persisted filter starts with a header of 16 bytes:
+ * <pre>
+ *   int   magic number (0x434C4246)
+ *   byte  format version
+ *   byte  filter type
+ *   short reserved (zero)
+ *   long  hash function identifier
+ * </pre>
+ * The header is followed by the parameters of the respective filter type and
+ * the words of all bit arrays of the filter. All header fields and parameters
+ * are written in big-endian byte order. The words of bit arrays are written in
+ * little-endian byte order, which is the byte order of a {@link LargeBitSet},
+ * so that the bits of a persisted filter can be memory-mapped directly.
+ * 
+ * <p>This class is not part of the public API.
+ * 
+ * @author Phil Gaiser
+ * @see StaticBloomFilter
+ * @see ScalableBloomFilter
+ * @see BlockedBloomFilter
+ * @see CuckooFilter
+ * @since 4.1.0
+ *
+ */
+final class BloomFilterFormat {
+
+    /** The magic number of the binary format **/
+    static final int MAGIC = 0x434C4246;
+
+    /** The current version of the binary format **/
+    static final byte VERSION = 1;
+
+    /** The type code of a StaticBloomFilter **/
+    static final byte TYPE_STATIC = 1;
+
+    /** The type code of a ScalableBloomFilter **/
+    static final byte TYPE_SCALABLE = 2;
+
+    /** The type code of a BlockedBloomFilter **/
+    static final byte TYPE_BLOCKED = 3;
+
+    /** The type code of a CuckooFilter **/
+    static final byte TYPE_CUCKOO = 4;
+
+    /** The number of bytes of the header **/
+    static final int HEADER_BYTES = 16;
+
+    /** The number of words which are converted at once **/
+    private static final int CHUNK_WORDS = 8192;
+
+    private BloomFilterFormat(){ }
+
+    /**
+     * Writes the header of a filter of the specified type
+     * 
+     * @param out The <code>DataOutput</code> to write to
+     * @param type The type code of the filter
+     * @throws IOException If an I/O error occurs
+     */
+    static void writeHeader(final DataOutput out, final byte type) throws IOException{
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(type);
+        out.writeShort(0);
+        out.writeLong(AbstractBloomFilter.HASH_FUNCTION);
+    }
+
+    /**
+     * Reads and validates the header of a filter of the specified type
+     * 
+     * @param in The <code>DataInput</code> to read from
+     * @param type The expected type code of the filter
+     * @throws IOException If an I/O error occurs
+     * @throws SerializationException If the header is invalid
+     */
+    static void readHeader(final DataInput in, final byte type) throws IOException{
+        if(in.readInt() != MAGIC){
+            throw new SerializationException("Invalid Bloom filter format");
+        }
+        final byte version = in.readByte();
+        if(version != VERSION){
+            throw new SerializationException(
+                    "Unsupported Bloom filter format version: " + version);
+        }
+        final byte actual = in.readByte();
+        if(actual != type){
+            throw new SerializationException(String.format(
+                    "Unexpected Bloom filter type: %s (expected %s)", actual, type));
+        }
+        in.readShort();
+        final long function = in.readLong();
+        if(function != AbstractBloomFilter.HASH_FUNCTION){
+            throw new SerializationException(
+                    "Unsupported Bloom filter hash function: " + function);
+        }
+    }
+
+    /**
+     * Writes all words of the specified BitStore
+     * 
+     * @param out The <code>DataOutput</code> to write to
+     * @param bits The BitStore whose words to write
+     * @throws IOException If an I/O error occurs
+     */
+    static void writeWords(final DataOutput out, final BitStore bits) throws IOException{
+        final long words = words(bits.size());
+        final ByteBuffer chunk = chunk(words);
+        for(long i=0; i<words; ){
+            chunk.clear();
+            final int n = (int) Math.min(CHUNK_WORDS, words - i);
+            for(int j=0; j<n; ++j){
+                chunk.putLong(bits.getWord(i++));
+            }
+            out.write(chunk.array(), 0, (n << 3));
+        }
+    }
+
+    /**
+     * Reads all words of the specified empty BitStore
+     * 
+     * @param in The <code>DataInput</code> to read from
+     * @param bits The empty BitStore to read the words into
+     * @throws IOException If an I/O error occurs
+     */
+    static void readWords(final DataInput in, final BitStore bits) throws IOException{
+        final long words = words(bits.size());
+        final ByteBuffer chunk = chunk(words);
+        for(long i=0; i<words; ){
+            chunk.clear();
+            final int n = (int) Math.min(CHUNK_WORDS, words - i);
+            in.readFully(chunk.array(), 0, (n << 3));
+            for(int j=0; j<n; ++j){
+                final long word = chunk.getLong();
+                if(word != 0){
+                    bits.orWord(i, word);
+                }
+                ++i;
+            }
+        }
+    }
+
+    /**
+     * Writes all specified words
+     * 
+     * @param out The <code>DataOutput</code> to write to
+     * @param words The words to write
+     * @throws IOException If an I/O error occurs
+     */
+    static void writeWords(final DataOutput out, final long[] words) throws IOException{
+        final ByteBuffer chunk = chunk(words.length);
+        for(int i=0; i<words.length; ){
+            chunk.clear();
+            final int n = Math.min(CHUNK_WORDS, words.length - i);
+            for(int j=0; j<n; ++j){
+                chunk.putLong(words[i++]);
+            }
+            out.write(chunk.array(), 0, (n << 3));
+        }
+    }
+
+    /**
+     * Reads words into the specified array until it is full
+     * 
+     * @param in The <code>DataInput</code> to read from
+     * @param words The array to read the words into
+     * @throws IOException If an I/O error occurs
+     */
+    static void readWords(final DataInput in, final long[] words) throws IOException{
+        final ByteBuffer chunk = chunk(words.length);
+        for(int i=0; i<words.length; ){
+            chunk.clear();
+            final int n = Math.min(CHUNK_WORDS, words.length - i);
+            in.readFully(chunk.array(), 0, (n << 3));
+            for(int j=0; j<n; ++j){
+                words[i++] = chunk.getLong();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of words required to store the specified number of bits
+     * 
+     * @param bits The number of bits
+     * @return The number of 64-bit words
+     */
+    static long words(final long bits){
+        return ((bits + 63) >>> 6);
+    }
+
+    /**
+     * Allocates a little-endian buffer to convert the specified number of words
+     * 
+     * @param words The total number of words to convert
+     * @return A buffer for at most <code>CHUNK_WORDS</code> words
+     */
+    private static ByteBuffer chunk(final long words){
+        final int size = (int) Math.max(1, Math.min(CHUNK_WORDS, words));
+        return ByteBuffer.allocate(size << 3).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
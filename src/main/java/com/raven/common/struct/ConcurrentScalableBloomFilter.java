@@ -0,0 +1,220 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.raven.common.struct;
+
+import com.raven.common.io.Serializer;
+
+/**
+ * A thread-safe implementation of a scalable Bloom filter. A
+ * ConcurrentScalableBloomFilter has the same characteristics as a
+ * {@link ScalableBloomFilter} but can be shared by any number of threads which
+ * concurrently add elements and perform membership queries without
+ * external synchronization.
+ * 
+ * <p>The bits of each stage are stored in an <code>AtomicLongArray</code> and
+ * are set by compare-and-set operations, so that concurrent additions never
+ * lose bits set by other threads. The stages of the filter are held in an
+ * array which is never modified after it has been published. When the active
+ * stage has reached its maximum fill ratio, a new array with an additional
+ * stage is created and published through a volatile field. Only the creation
+ * of a new stage is synchronized, and the stage is created exactly once even if
+ * multiple threads detect the full stage at the same time. Membership queries
+ * are lock-free and never block, not even while a new stage is created.
+ * 
+ * <p>An element is always added to the stage which is active when the adding
+ * thread reads the array of stages. A new stage is created after an addition
+ * has filled the active stage. Therefore, a stage might receive a few more
+ * elements than a ScalableBloomFilter would add to it while threads race to
+ * create the next stage. Once a call to <code>add()</code> has returned, the
+ * added element is reported as present by all subsequent calls
+ * to <code>contains()</code> in any thread.
+ * 
+ * <p>The <code>isEmpty()</code>, <code>approximateSize()</code> and
+ * <code>toString()</code> methods reflect a snapshot of the filter which
+ * might not include concurrent additions. Clearing a
+ * ConcurrentScalableBloomFilter while other threads add elements is not
+ * atomic. Elements added concurrently to a call to <code>clear()</code>
+ * might be removed as well.
+ * 
+ * <p>The {@link Serializer} of a ConcurrentScalableBloomFilter is used by all
+ * threads concurrently and must therefore be thread-safe.
+ * 
+ * @author Phil Gaiser
+ * @see ScalableBloomFilter
+ * @see ConcurrentStaticBloomFilter
+ * @since 4.1.0
+ * 
+ * @param <E> The type of elements to be used by the scalable Bloom filter
+ *
+ */
+public class ConcurrentScalableBloomFilter<E> extends ScalableBloomFilter<E> {
+
+    /**
+     * Constructs a new <code>ConcurrentScalableBloomFilter</code> with an initial
+     * capacity of 10000 elements and a maximum allowed false positive
+     * probability of 1%.<br>
+     * The Bloom filter will have a default scale factor and tightening ratio
+     * 
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the constructed
+     *                   ConcurrentScalableBloomFilter
+     */
+    public ConcurrentScalableBloomFilter(final Serializer<E> serializer){
+        this(serializer, 10000, 0.01,
+                DEFAULT_SCALE_FACTOR, DEFAULT_TIGHTENING_RATIO);
+    }
+
+    /**
+     * Constructs a new <code>ConcurrentScalableBloomFilter</code> with the
+     * specified initial capacity and a maximum allowed false positive
+     * probability of 1%.<br>
+     * The Bloom filter will have a default scale factor and tightening ratio
+     * 
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the constructed
+     *                   ConcurrentScalableBloomFilter
+     * @param initialCapacity The number of elements the constructed
+     *                        ConcurrentScalableBloomFilter should be able to hold
+     */
+    public ConcurrentScalableBloomFilter(final Serializer<E> serializer,
+            final int initialCapacity){
+
+        this(serializer, initialCapacity, 0.01,
+                DEFAULT_SCALE_FACTOR, DEFAULT_TIGHTENING_RATIO);
+    }
+
+    /**
+     * Constructs a new <code>ConcurrentScalableBloomFilter</code> with the
+     * specified initial capacity and maximum allowed false
+     * positive probability.<br>
+     * The Bloom filter will have a default scale factor and tightening ratio
+     * 
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the constructed
+     *                   ConcurrentScalableBloomFilter
+     * @param initialCapacity The number of elements the constructed
+     *                        ConcurrentScalableBloomFilter should be able to hold
+     * @param maxError The maximum allowed false positive probability the
+     *                  constructed ConcurrentScalableBloomFilter should adhere to
+     */
+    public ConcurrentScalableBloomFilter(final Serializer<E> serializer,
+            final int initialCapacity, final double maxError){
+
+        this(serializer, initialCapacity, maxError,
+                DEFAULT_SCALE_FACTOR, DEFAULT_TIGHTENING_RATIO);
+    }
+
+    /**
+     * Constructs a new <code>ConcurrentScalableBloomFilter</code> with the
+     * specified initial capacity, maximum allowed false positive probability,
+     * scale factor and tightening ratio
+     * 
+     * @param serializer The <code>Serializer</code> instance to use to serialize
+     *                   the elements used by the constructed
+     *                   ConcurrentScalableBloomFilter
+     * @param initialCapacity The number of elements the constructed
+     *                        ConcurrentScalableBloomFilter should be able to hold
+     * @param maxError The maximum allowed false positive probability the
+     *                  constructed ConcurrentScalableBloomFilter should adhere to
+     * @param scaleFactor The scale factor of the constructed
+     *                    ConcurrentScalableBloomFilter. Usually either 2 or 4
+     * @param tighteningRatio The tightening ration of the constructed
+     *                        ConcurrentScalableBloomFilter.
+     *                        Usually between 0.8 and 0.9
+     */
+    public ConcurrentScalableBloomFilter(final Serializer<E> serializer,
+            final int initialCapacity, final double maxError,
+            final int scaleFactor, final double tighteningRatio){
+
+        super(serializer, initialCapacity, maxError, scaleFactor, tighteningRatio);
+    }
+
+    /**
+     * Adds the specified hash value to this ConcurrentScalableBloomFilter.
+     * The filter will resize itself if necessary. This method
+     * may be called by multiple threads concurrently
+     * 
+     * @param hash The hash value of the element to add
+     */
+    @Override
+    protected void addHash(final long hash){
+        final Stage[] current = stages();
+        final Stage stage = current[current.length - 1];
+        //Only an addition which has set new bits can fill
+        //the stage, so the fill ratio is not checked for
+        //elements which are already present
+        if(stage.put(hash) && stage.isFull()){
+            grow(current);
+        }
+    }
+
+    /**
+     * Removes all of the elements from this ConcurrentScalableBloomFilter.
+     * The filter will be empty after this method returns, unless elements
+     * are added concurrently. The current capacity of this filter
+     * is not changed by this operation
+     */
+    @Override
+    public synchronized void clear(){
+        super.clear();
+    }
+
+    /**
+     * Adds all elements of the specified ScalableBloomFilter to this filter.
+     * Elements may be added to this filter concurrently, but the specified filter
+     * must not be changed while this method is executed.
+     * See {@link ScalableBloomFilter#union(ScalableBloomFilter)}
+     * 
+     * @param other The <code>ScalableBloomFilter</code> whose elements to add
+     *              to this filter. Must not be null
+     * @return This ConcurrentScalableBloomFilter
+     * @throws IllegalArgumentException If the specified filter is null or
+     *                                  not compatible with this filter
+     */
+    @Override
+    public synchronized ScalableBloomFilter<E> union(final ScalableBloomFilter<E> other){
+        return super.union(other);
+    }
+
+    /**
+     * Creates and publishes a new Stage, unless another thread has
+     * already published a new array of stages
+     * 
+     * @param current The array of stages the new Stage is appended to
+     * @return The active Stage after this operation
+     */
+    @Override
+    synchronized Stage grow(final Stage[] current){
+        final Stage[] latest = stages();
+        if(latest != current){
+            return latest[latest.length - 1];
+        }
+        return super.grow(current);
+    }
+
+    @Override
+    BitStore allocate(final long size){
+        return new AtomicBitStore(size);
+    }
+
+    @Override
+    Partition<E> partition(){
+        //All threads of a bulk operation can share this filter
+        return new Partition<E>(this, null);
+    }
+}
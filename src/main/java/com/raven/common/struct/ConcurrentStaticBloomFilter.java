@@ -0,0 +1,116 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.raven.common.struct;
+
+import com.raven.common.io.Serializer;
+
+/**
+ * A thread-safe implementation of a static Bloom filter. A
+ * ConcurrentStaticBloomFilter has the same characteristics as a
+ * {@link StaticBloomFilter} but can be shared by any number of threads which
+ * concurrently add elements and perform membership queries without
+ * external synchronization.
+ * 
+ * <p>The bits of the filter are stored in an <code>AtomicLongArray</code>. Adding
+ * an element sets each of its bits by a compare-and-set operation on the word
+ * holding the bit, so that concurrent additions never lose bits set by other
+ * threads. Membership queries are lock-free and never block. Once a call to
+ * <code>add()</code> has returned, the added element is reported as present by
+ * all subsequent calls to <code>contains()</code> in any thread.
+ * 
+ * <p>The <code>isEmpty()</code>, <code>approximateSize()</code> and
+ * <code>toString()</code> methods reflect a snapshot of the filter which
+ * might not include concurrent additions. Clearing a
+ * ConcurrentStaticBloomFilter while other threads add elements is not atomic.
+ * Elements added concurrently to a call to <code>clear()</code> might be
+ * removed as well.
+ * 
+ * <p>The {@link Serializer} of a ConcurrentStaticBloomFilter is used by all
+ * threads concurrently and must therefore be thread-safe.
+ * 
+ * @author Phil Gaiser
+ * @see StaticBloomFilter
+ * @see ConcurrentScalableBloomFilter
+ * @since 4.1.0
+ *
+ * @param <E> The type of elements to be used by the Bloom filter
+ */
+public class ConcurrentStaticBloomFilter<E> extends StaticBloomFilter<E> {
+
+    /**
+     * Constructs a new <code>ConcurrentStaticBloomFilter</code> with a capacity
+     * of 10000 elements and a maximum allowed false positive
+     * probability of 1%.<br>
+     * Adding more elements to the constructed filter than the specified
+     * capacity will result in the actual false positive rate to
+     * exceed the maximum allowed value
+     * 
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the constructed
+     *                   ConcurrentStaticBloomFilter
+     */
+    public ConcurrentStaticBloomFilter(final Serializer<E> serializer){
+        this(serializer, 10000, 0.01);
+    }
+
+    /**
+     * Constructs a new <code>ConcurrentStaticBloomFilter</code> with the specified
+     * capacity and a maximum allowed false positive probability of 1%.<br>
+     * Adding more elements to the constructed filter than the specified
+     * capacity will result in the actual false positive rate to
+     * exceed the maximum allowed value
+     * 
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the constructed
+     *                   ConcurrentStaticBloomFilter
+     * @param capacity The number of elements the constructed
+     *                 ConcurrentStaticBloomFilter should be able to hold
+     */
+    public ConcurrentStaticBloomFilter(final Serializer<E> serializer,
+            final int capacity){
+
+        this(serializer, capacity, 0.01);
+    }
+
+    /**
+     * Constructs a new <code>ConcurrentStaticBloomFilter</code> with the specified
+     * capacity and maximum allowed false positive probability.<br>
+     * Adding more elements to the constructed filter than the specified
+     * capacity will result in the actual false positive rate to
+     * exceed the maximum allowed value
+     * 
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the constructed
+     *                   ConcurrentStaticBloomFilter
+     * @param capacity The number of elements the constructed
+     *                 ConcurrentStaticBloomFilter should be able to hold
+     * @param maxError The maximum allowed false positive probability the
+     *                  constructed ConcurrentStaticBloomFilter should adhere to
+     */
+    public ConcurrentStaticBloomFilter(final Serializer<E> serializer,
+            final int capacity, final double maxError){
+
+        super(serializer, capacity, maxError, AtomicBitStore::new);
+    }
+
+    @Override
+    Partition<E> partition(){
+        //All threads of a bulk operation can share this filter
+        return new Partition<E>(this, null);
+    }
+}
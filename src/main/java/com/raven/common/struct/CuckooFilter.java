@@ -0,0 +1,831 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.struct;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.text.DecimalFormat;
+import java.util.Arrays;
+
+import com.raven.common.io.SerializationException;
+import com.raven.common.io.Serializer;
+
+/**
+ * An implementation of a Cuckoo filter. A CuckooFilter is a probabilistic set
+ * which, unlike a Bloom filter, supports the removal of elements. It stores a
+ * short fingerprint of each element in one of two candidate buckets. Each bucket
+ * has four slots and the fingerprints of all slots are packed into a
+ * contiguous array of <code>long</code> words without any padding, so that a
+ * fingerprint of <i>f</i> bits occupies exactly <i>f</i> bits of memory.
+ * 
+ * <p>The first bucket of an element is selected by multiply-shift reduction of
+ * the upper half of its 64-bit hash value and the fingerprint is taken from the
+ * lower half. The alternate bucket is computed from the first bucket and the
+ * fingerprint alone, by means of partial-key cuckoo hashing, so that a
+ * fingerprint can be relocated without knowing the original element. If both
+ * buckets of an element are full when it is added, a fingerprint of a random
+ * slot is evicted and moved to its alternate bucket. This is repeated at most
+ * 500 times. If the last evicted fingerprint still cannot be placed, it is kept
+ * in a single stash slot and the filter is considered full. All subsequent
+ * attempts to add a new element throw an <code>IllegalStateException</code>
+ * until an element has been removed and the stashed fingerprint could be
+ * placed in the table again. No element is lost by a failed relocation.
+ * 
+ * <p>A membership query checks at most eight slots in two buckets. For a filter
+ * with fingerprints of <i>f</i> bits and a load factor <i>&alpha;</i>,
+ * the false positive probability is given by
+ * <pre>
+ *   FPP(f, &alpha;) = 1 - (1 - 2<sup>-f</sup>)<sup>8&alpha;</sup>
+ * </pre>
+ * When a CuckooFilter is constructed, the number of buckets is chosen so that the
+ * specified capacity fills 95% of all slots and the number of fingerprint
+ * bits is chosen so that this probability does not exceed the specified maximum
+ * allowed error at full capacity. A CuckooFilter requires roughly
+ * <i>(log<sub>2</sub>(1/&epsilon;) + 3) / 0.95</i> bits per element for an error
+ * rate <i>&epsilon;</i>, compared to <i>1.44 log<sub>2</sub>(1/&epsilon;)</i>
+ * bits per element of a {@link StaticBloomFilter}. It is therefore smaller
+ * than an optimal Bloom filter for error rates below about 0.3%.
+ * 
+ * <p>Each addition of an element stores a fingerprint, even if the same
+ * fingerprint is already found in one of its buckets. Therefore, distinct
+ * elements which share their fingerprint and buckets are stored separately
+ * and removing one of them does not remove the other. An element which is
+ * added several times must also be removed as many times to be absent from
+ * the filter. Since the two buckets of an element hold at most eight
+ * fingerprints, adding the same element more than eight times fills the
+ * filter. An element should only be removed from a CuckooFilter if it has
+ * been added to it before. Removing an element which has never been added
+ * might remove another element from the filter.
+ * 
+ * <p>As with all Bloom filters, elements are hashed by means of the
+ * {@link Serializer} specified at construction time, or by one of the fallbacks
+ * described in {@link AbstractBloomFilter} if no Serializer is specified.
+ * Elements can also be added, queried and removed by their primitive keys,
+ * character sequences or byte ranges directly. A CuckooFilter cannot grow
+ * dynamically as more elements are added to it. Parallel bulk additions
+ * are performed by the calling thread only.
+ * 
+ * <p>A CuckooFilter cannot be used with null elements. Passing null
+ * to either the <code>add()</code>, <code>contains()</code> or
+ * <code>remove()</code> method will result in a
+ * <code>NullPointerException</code> being thrown.
+ * 
+ * <p>A CuckooFilter can be persisted in a compact binary format by means
+ * of the {@link #writeTo(OutputStream)} method and be restored by
+ * {@link #readFrom(InputStream, Serializer)}.
+ * 
+ * <p>This implementation is NOT thread-safe.
+ * 
+ * @author Phil Gaiser
+ * @see StaticBloomFilter
+ * @see BlockedBloomFilter
+ * @since 4.1.0
+ *
+ * @param <E> The type of elements to be used by the Cuckoo filter
+ */
+public class CuckooFilter<E> extends AbstractBloomFilter<E> {
+
+    /** The number of slots of each bucket **/
+    static final int BUCKET_SIZE = 4;
+
+    /** The maximum ratio of occupied slots at full capacity **/
+    static final double LOAD_FACTOR = 0.95;
+
+    /** The maximum number of evictions when an element is added **/
+    static final int MAX_KICKS = 500;
+
+    /** The minimum number of bits of a fingerprint **/
+    static final int MIN_FINGERPRINT_BITS = 4;
+
+    /** The maximum number of bits of a fingerprint **/
+    static final int MAX_FINGERPRINT_BITS = 32;
+
+    /** The maximum number of words of a filter **/
+    private static final long MAX_WORDS = Integer.MAX_VALUE - 8;
+
+    private final long[] words;
+    private final int buckets;
+    private final int bits;
+    private final long mask;
+    private final long capacity;
+    private long count;
+    private long victim;
+    private int victimIndex;
+    private long random;
+
+    /**
+     * Constructs a new <code>CuckooFilter</code> with a capacity
+     * of 10000 elements and a maximum allowed false positive
+     * probability of 1%
+     * 
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the constructed
+     *                   CuckooFilter
+     */
+    public CuckooFilter(final Serializer<E> serializer){
+        this(serializer, 10000, 0.01);
+    }
+
+    /**
+     * Constructs a new <code>CuckooFilter</code> with the specified
+     * capacity and a maximum allowed false positive probability of 1%
+     * 
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the constructed
+     *                   CuckooFilter
+     * @param capacity The number of elements the constructed
+     *                 CuckooFilter should be able to hold
+     */
+    public CuckooFilter(final Serializer<E> serializer, final int capacity){
+        this(serializer, capacity, 0.01);
+    }
+
+    /**
+     * Constructs a new <code>CuckooFilter</code> with the specified
+     * capacity and maximum allowed false positive probability.<br>
+     * Adding more elements to the constructed filter than the specified
+     * capacity might fail with an <code>IllegalStateException</code>
+     * 
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the constructed
+     *                   CuckooFilter
+     * @param capacity The number of elements the constructed
+     *                 CuckooFilter should be able to hold
+     * @param maxError The maximum allowed false positive probability the
+     *                 constructed CuckooFilter should adhere to
+     * @throws IllegalArgumentException If the specified capacity is not positive,
+     *                                  if the specified maximum error is not
+     *                                  within (0, 1), if the maximum error
+     *                                  requires fingerprints of more than 32 bits
+     *                                  or if the required number of bits exceeds
+     *                                  the maximum size of a CuckooFilter
+     */
+    public CuckooFilter(final Serializer<E> serializer, final long capacity,
+            final double maxError){
+
+        super(serializer);
+        if(capacity <= 0){
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        if((maxError <= 0) || (maxError >= 1.0)){
+            throw new IllegalArgumentException("Maximum allowed error rate must be "
+                    + "positive and less than 1.0");
+        }
+        final long buckets = (long) Math.ceil(capacity / (BUCKET_SIZE * LOAD_FACTOR));
+        final double load = (double) capacity / (buckets * BUCKET_SIZE);
+        int bits = MIN_FINGERPRINT_BITS;
+        while(falsePositiveProbability(bits, load) > maxError){
+            if(++bits > MAX_FINGERPRINT_BITS){
+                throw new IllegalArgumentException(
+                        "Maximum allowed error rate is too small: " + maxError);
+            }
+        }
+        if((buckets > Integer.MAX_VALUE)
+                || (BloomFilterFormat.words(buckets * BUCKET_SIZE * bits) > MAX_WORDS)){
+
+            throw new IllegalArgumentException(String.format(
+                    "A CuckooFilter with capacity %s and maximum error "
+                    + "%s exceeds the maximum size", capacity, maxError));
+        }
+        this.capacity = capacity;
+        this.buckets = (int) buckets;
+        this.bits = bits;
+        this.mask = ((1L << bits) - 1);
+        this.words = new long[(int) BloomFilterFormat.words(buckets * BUCKET_SIZE * bits)];
+        this.random = 0x9e3779b97f4a7c15L;
+    }
+
+    /**
+     * Constructs a new <code>CuckooFilter</code> with the
+     * specified configuration and words
+     * 
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the constructed
+     *                   CuckooFilter
+     * @param capacity The capacity of the constructed CuckooFilter
+     * @param buckets The number of buckets of the constructed CuckooFilter
+     * @param bits The number of bits of each fingerprint
+     * @param words The words holding all buckets
+     * @param victimIndex The bucket index of the stashed fingerprint
+     * @param victim The stashed fingerprint, or zero if the stash is empty
+     */
+    private CuckooFilter(final Serializer<E> serializer, final long capacity,
+            final int buckets, final int bits, final long[] words,
+            final int victimIndex, final long victim){
+
+        super(serializer);
+        this.capacity = capacity;
+        this.buckets = buckets;
+        this.bits = bits;
+        this.mask = ((1L << bits) - 1);
+        this.words = words;
+        this.victimIndex = victimIndex;
+        this.victim = victim;
+        this.random = 0x9e3779b97f4a7c15L;
+        final long slots = (long) buckets * BUCKET_SIZE;
+        long n = 0;
+        for(long i=0; i<slots; ++i){
+            if(get(i) != 0){
+                ++n;
+            }
+        }
+        this.count = (victim != 0 ? n + 1 : n);
+    }
+
+    /**
+     * Adds the specified element to this CuckooFilter. Each call stores another
+     * fingerprint of the element, so an element which is added several times
+     * must be removed as many times to be absent from this filter
+     * 
+     * @param element The element to be added to this CuckooFilter
+     * @throws NullPointerException If the specified element is null
+     * @throws IllegalArgumentException If the specified element
+     *                                  is invalid, e.g. an empty String
+     * @throws IllegalStateException If this filter is full
+     * @throws SerializationException If the specified element cannot be serialized
+     */
+    @Override
+    public void add(E element){
+        addHash(hash(element));
+    }
+
+    /**
+     * Indicates whether this CuckooFilter possibly contains
+     * the specified element. If this method returns true, then the specified
+     * element might be in this filter in due consideration of the maximum allowed
+     * error probability this CuckooFilter was configured with. If this
+     * method returns false, then the specified element is not in this filter,
+     * unless an element has been removed which had not been added before
+     * 
+     * @param element The element whose presence in this CuckooFilter
+     *                is to be tested
+     * @return True if the specified element might have been added to
+     *         this CuckooFilter, false if it is not in this CuckooFilter
+     * @throws NullPointerException If the specified element is null
+     * @throws IllegalArgumentException If the specified element
+     *                                  is invalid, e.g. an empty String
+     * @throws SerializationException If the specified element cannot be serialized
+     */
+    @Override
+    public boolean contains(E element){
+        return containsHash(hash(element));
+    }
+
+    /**
+     * Removes the specified element from this CuckooFilter. The element should
+     * have been added to this filter before. Removing an element which has
+     * never been added might remove another element from this filter
+     * 
+     * @param element The element to be removed from this CuckooFilter
+     * @return True if a fingerprint of the specified element was removed,
+     *         false if the specified element is not in this filter
+     * @throws NullPointerException If the specified element is null
+     * @throws IllegalArgumentException If the specified element
+     *                                  is invalid, e.g. an empty String
+     * @throws SerializationException If the specified element cannot be serialized
+     */
+    public boolean remove(E element){
+        return removeHash(hash(element));
+    }
+
+    /**
+     * Removes the specified long value from this CuckooFilter. This method
+     * does not use the Serializer of this filter
+     * 
+     * @param value The value to remove
+     * @return True if a fingerprint of the specified value was removed,
+     *         false if the specified value is not in this filter
+     */
+    public boolean removeLong(final long value){
+        return removeHash(hashLong(value));
+    }
+
+    /**
+     * Removes the specified int value from this CuckooFilter. This method
+     * does not use the Serializer of this filter
+     * 
+     * @param value The value to remove
+     * @return True if a fingerprint of the specified value was removed,
+     *         false if the specified value is not in this filter
+     */
+    public boolean removeInt(final int value){
+        return removeHash(hashInt(value));
+    }
+
+    /**
+     * Removes the specified range of bytes from this CuckooFilter. This method
+     * does not use the Serializer of this filter
+     * 
+     * @param bytes The array holding the bytes to remove. Must not be null
+     * @param offset The index of the first byte to remove
+     * @param length The number of bytes to remove. Must be positive
+     * @return True if a fingerprint of the specified bytes was removed,
+     *         false if the specified bytes are not in this filter
+     * @throws IndexOutOfBoundsException If the specified range is out of bounds
+     */
+    public boolean remove(final byte[] bytes, final int offset, final int length){
+        checkRange(bytes, offset, length);
+        return removeHash(hashMurmur3(bytes, offset, length));
+    }
+
+    /**
+     * Removes the specified characters from this CuckooFilter. This method
+     * does not use the Serializer of this filter
+     * 
+     * @param chars The characters to remove. Must not be null or empty
+     * @return True if a fingerprint of the specified characters was removed,
+     *         false if the specified characters are not in this filter
+     * @throws IllegalArgumentException If the specified CharSequence is empty
+     */
+    public boolean remove(final CharSequence chars){
+        return removeHash(hashChars(chars));
+    }
+
+    @Override
+    protected void addHash(final long hash){
+        if(victim != 0){
+            throw new IllegalStateException("CuckooFilter is full");
+        }
+        final long fp = fingerprint(hash);
+        final int i1 = index(hash);
+        put(i1, alternate(i1, fp), fp);
+    }
+
+    @Override
+    protected boolean containsHash(final long hash){
+        final long fp = fingerprint(hash);
+        final int i1 = index(hash);
+        final int i2 = alternate(i1, fp);
+        return find(i1, fp) || find(i2, fp) || isVictim(i1, i2, fp);
+    }
+
+    /**
+     * Removes one fingerprint of the specified hash value from this filter.
+     * If a fingerprint is stashed, another attempt is made to place it in
+     * the table. If that attempt fails, the last evicted fingerprint is stashed
+     * 
+     * @param hash The hash value of the element to remove
+     * @return True if a fingerprint was removed, false otherwise
+     */
+    private boolean removeHash(final long hash){
+        final long fp = fingerprint(hash);
+        final int i1 = index(hash);
+        final int i2 = alternate(i1, fp);
+        if(isVictim(i1, i2, fp)){
+            this.victim = 0;
+            --count;
+            return true;
+        }
+        if(!delete(i1, fp) && !delete(i2, fp)){
+            return false;
+        }
+        --count;
+        if(victim != 0){
+            final long stashed = victim;
+            final int index = victimIndex;
+            this.victim = 0;
+            --count;
+            put(index, alternate(index, stashed), stashed);
+        }
+        return true;
+    }
+
+    /**
+     * Places the specified fingerprint in one of its buckets, relocating
+     * other fingerprints if both buckets are full. If no free slot is found
+     * after <code>MAX_KICKS</code> relocations, the last evicted
+     * fingerprint is stashed
+     * 
+     * @param i1 The first bucket of the fingerprint
+     * @param i2 The alternate bucket of the fingerprint
+     * @param fp The fingerprint to place
+     */
+    private void put(final int i1, final int i2, final long fp){
+        ++count;
+        if(insert(i1, fp) || insert(i2, fp)){
+            return;
+        }
+        int index = ((nextRandom() & 1) == 0) ? i1 : i2;
+        long current = fp;
+        for(int n=0; n<MAX_KICKS; ++n){
+            final long slot = ((long) index * BUCKET_SIZE) + (nextRandom() & (BUCKET_SIZE - 1));
+            final long evicted = get(slot);
+            set(slot, current);
+            current = evicted;
+            index = alternate(index, current);
+            if(insert(index, current)){
+                return;
+            }
+        }
+        this.victim = current;
+        this.victimIndex = index;
+    }
+
+    /**
+     * Indicates whether the specified bucket holds the specified fingerprint
+     * 
+     * @param bucket The index of the bucket to search
+     * @param fp The fingerprint to search for
+     * @return True if the bucket holds the fingerprint, false otherwise
+     */
+    private boolean find(final int bucket, final long fp){
+        final long base = (long) bucket * BUCKET_SIZE;
+        for(int i=0; i<BUCKET_SIZE; ++i){
+            if(get(base + i) == fp){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stores the specified fingerprint in a free slot of the specified bucket
+     * 
+     * @param bucket The index of the bucket to store the fingerprint in
+     * @param fp The fingerprint to store
+     * @return True if the fingerprint was stored, false if the bucket is full
+     */
+    private boolean insert(final int bucket, final long fp){
+        final long base = (long) bucket * BUCKET_SIZE;
+        for(int i=0; i<BUCKET_SIZE; ++i){
+            if(get(base + i) == 0){
+                set(base + i, fp);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Clears one slot of the specified bucket holding the specified fingerprint
+     * 
+     * @param bucket The index of the bucket to remove the fingerprint from
+     * @param fp The fingerprint to remove
+     * @return True if the fingerprint was removed, false if the bucket
+     *         does not hold the fingerprint
+     */
+    private boolean delete(final int bucket, final long fp){
+        final long base = (long) bucket * BUCKET_SIZE;
+        for(int i=0; i<BUCKET_SIZE; ++i){
+            if(get(base + i) == fp){
+                set(base + i, 0L);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indicates whether the stashed fingerprint is the specified
+     * fingerprint with the specified buckets
+     * 
+     * @param i1 The first bucket of the fingerprint
+     * @param i2 The alternate bucket of the fingerprint
+     * @param fp The fingerprint to check
+     * @return True if the specified fingerprint is stashed, false otherwise
+     */
+    private boolean isVictim(final int i1, final int i2, final long fp){
+        return (victim == fp) && ((victimIndex == i1) || (victimIndex == i2));
+    }
+
+    /**
+     * Reads the fingerprint stored in the specified slot. A fingerprint
+     * can span two adjacent words
+     * 
+     * @param slot The index of the slot to read
+     * @return The fingerprint of the specified slot, or zero if the slot is free
+     */
+    private long get(final long slot){
+        final long pos = slot * bits;
+        final int index = (int) (pos >>> 6);
+        final int shift = (int) (pos & 63);
+        long value = (words[index] >>> shift);
+        if((shift + bits) > 64){
+            value |= (words[index + 1] << (64 - shift));
+        }
+        return (value & mask);
+    }
+
+    /**
+     * Writes the specified fingerprint to the specified slot
+     * 
+     * @param slot The index of the slot to write
+     * @param fp The fingerprint to write, or zero to free the slot
+     */
+    private void set(final long slot, final long fp){
+        final long pos = slot * bits;
+        final int index = (int) (pos >>> 6);
+        final int shift = (int) (pos & 63);
+        words[index] = (words[index] & ~(mask << shift)) | (fp << shift);
+        if((shift + bits) > 64){
+            final int spill = (64 - shift);
+            words[index + 1] = (words[index + 1] & ~(mask >>> spill)) | (fp >>> spill);
+        }
+    }
+
+    /**
+     * Takes the fingerprint from the lower bits of the specified hash value.
+     * A fingerprint is never zero, as zero denotes a free slot
+     * 
+     * @param hash The hash value of an element
+     * @return The fingerprint of the specified hash value
+     */
+    private long fingerprint(final long hash){
+        final long fp = (hash & mask);
+        return (fp != 0 ? fp : 1L);
+    }
+
+    /**
+     * Selects the first bucket of the specified hash value by multiply-shift
+     * reduction of its upper 32 bits to the range [0, buckets)
+     * 
+     * @param hash The hash value of an element
+     * @return The index of the first bucket of the specified hash value
+     */
+    private int index(final long hash){
+        return (int) (((hash >>> 32) * buckets) >>> 32);
+    }
+
+    /**
+     * Computes the alternate bucket of a fingerprint in the specified bucket.
+     * The alternate bucket is <i>(h(fp) - index) mod buckets</i>, so that
+     * the alternate bucket of the alternate bucket is the original bucket
+     * for any number of buckets
+     * 
+     * @param index The bucket holding the fingerprint
+     * @param fp The fingerprint
+     * @return The index of the alternate bucket
+     */
+    private int alternate(final int index, final long fp){
+        final long h = ((fp * 0xc6a4a7935bd1e995L) >>> 32);
+        final int alt = (int) ((h * buckets) >>> 32) - index;
+        return (alt < 0 ? alt + buckets : alt);
+    }
+
+    /**
+     * Returns the next value of the xorshift generator used
+     * to select the slots of evicted fingerprints
+     * 
+     * @return A pseudo-random int value
+     */
+    private int nextRandom(){
+        long x = random;
+        x ^= (x << 13);
+        x ^= (x >>> 7);
+        x ^= (x << 17);
+        this.random = x;
+        return (int) x;
+    }
+
+    /**
+     * Writes this CuckooFilter to the specified OutputStream in a versioned
+     * binary format. The format holds the configuration of this filter and
+     * all of its fingerprints. The Serializer of this filter is not written.
+     * 
+     * <p>The output stream will be closed automatically before this method returns
+     * 
+     * @param os The <code>OutputStream</code> to write this filter to.
+     *           Must not be null
+     * @throws IOException If any errors occur when writing to the output stream
+     */
+    public void writeTo(final OutputStream os) throws IOException{
+        if(os == null){
+            throw new IllegalArgumentException("OutputStream argument must not be null");
+        }
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))){
+            BloomFilterFormat.writeHeader(out, BloomFilterFormat.TYPE_CUCKOO);
+            out.writeLong(capacity);
+            out.writeInt(buckets);
+            out.writeInt(bits);
+            out.writeInt(victimIndex);
+            out.writeLong(victim);
+            BloomFilterFormat.writeWords(out, words);
+        }
+    }
+
+    /**
+     * Reads a CuckooFilter from the specified InputStream. The bytes must
+     * have been written by the {@link #writeTo(OutputStream)} method.
+     * 
+     * <p>The input stream will be closed automatically before this method returns
+     * 
+     * @param <E> The type of elements of the returned filter
+     * @param is The <code>InputStream</code> to read from. Must not be null
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the returned
+     *                   CuckooFilter. Should be equal to the Serializer
+     *                   of the written filter
+     * @return A <code>CuckooFilter</code> read from the specified InputStream
+     * @throws IOException If any errors occur when reading from the input stream
+     * @throws SerializationException If the bytes from the input stream
+     *                                do not constitute a CuckooFilter
+     */
+    public static <E> CuckooFilter<E> readFrom(final InputStream is,
+            final Serializer<E> serializer) throws IOException{
+
+        if(is == null){
+            throw new IllegalArgumentException("InputStream argument must not be null");
+        }
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(is))){
+            BloomFilterFormat.readHeader(in, BloomFilterFormat.TYPE_CUCKOO);
+            final long capacity = in.readLong();
+            final int buckets = in.readInt();
+            final int bits = in.readInt();
+            final int victimIndex = in.readInt();
+            final long victim = in.readLong();
+            if((capacity <= 0) || (buckets <= 0)
+                    || (bits < MIN_FINGERPRINT_BITS) || (bits > MAX_FINGERPRINT_BITS)
+                    || (victimIndex < 0) || (victimIndex >= buckets)
+                    || (victim < 0) || (victim > ((1L << bits) - 1))){
+
+                throw new SerializationException("Invalid Cuckoo filter parameters");
+            }
+            final long size = BloomFilterFormat.words((long) buckets * BUCKET_SIZE * bits);
+            if(size > MAX_WORDS){
+                throw new SerializationException("Invalid Cuckoo filter parameters");
+            }
+            final long[] words = new long[(int) size];
+            BloomFilterFormat.readWords(in, words);
+            if(in.read() != -1){
+                throw new SerializationException("Trailing bytes after Cuckoo filter data");
+            }
+            return new CuckooFilter<E>(serializer, capacity, buckets, bits,
+                    words, victimIndex, victim);
+        }catch(EOFException ex){
+            throw new SerializationException("Cuckoo filter data is truncated", ex);
+        }
+    }
+
+    /**
+     * Indicates whether this CuckooFilter is empty. An empty filter
+     * contains no elements
+     * 
+     * @return True if this filter contains no elements, false if it is not
+     *         empty and contains at least one element
+     */
+    @Override
+    public boolean isEmpty(){
+        return (count == 0);
+    }
+
+    /**
+     * Returns the number of fingerprints stored in this CuckooFilter.
+     * The number of fingerprints is equal to the number of additions of
+     * elements which have not been undone by a removal. An element which
+     * has been added several times is counted as many times
+     * 
+     * @return The number of elements in this filter
+     */
+    @Override
+    public int approximateSize(){
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the size in bytes this CuckooFilter has allocated in memory
+     * in order to store all elements of its current capacity
+     * 
+     * @return The number of bytes that this CuckooFilter has allocated
+     *         in memory to store its current capacity
+     */
+    @Override
+    public long sizeInBytes(){
+        //Size of the words array
+        // + 48 bytes for internally used vars in this instance
+        return ((long) words.length * 8) + 16 + 48;
+    }
+
+    /**
+     * Removes all of the elements from this CuckooFilter. The filter
+     * will be empty after this method returns. The capacity of this filter
+     * is not changed by this operation
+     */
+    @Override
+    public void clear(){
+        Arrays.fill(words, 0L);
+        this.count = 0;
+        this.victim = 0;
+        this.victimIndex = 0;
+    }
+
+    /**
+     * Returns a string representation of this CuckooFilter.<br>
+     * This method can be used to gather informative
+     * information about this filter
+     *
+     * @return A string representation of this CuckooFilter
+     */
+    @Override
+    public String toString(){
+        final StringBuilder sb = new StringBuilder();
+        final String nl = System.lineSeparator();
+        final DecimalFormat d = new DecimalFormat("0.000");
+        final long slots = (long) buckets * BUCKET_SIZE;
+        final long sizeBytes = sizeInBytes();
+        sb.append("Filter: ");
+        sb.append(count);
+        sb.append("/");
+        sb.append(slots);
+        sb.append(" (");
+        sb.append(d.format(((double)count / (double)slots) * 100));
+        sb.append("% full)");
+        sb.append(nl);
+        sb.append("Buckets: ");
+        sb.append(buckets);
+        sb.append(" (");
+        sb.append(bits);
+        sb.append(" bits per fingerprint)");
+        sb.append(nl);
+        sb.append("Total size: ");
+        sb.append(sizeBytes);
+        sb.append(" bytes (");
+        sb.append(sizeBytes / 1024);
+        sb.append(" KB)");
+        return sb.toString();
+    }
+
+    /**
+     * Gets the capacity of this CuckooFilter. The capacity cannot
+     * change and denotes the maximum number of elements that should be
+     * added to the filter.<br>
+     * If the capacity exceeds <code>Integer.MAX_VALUE</code>, then
+     * <code>Integer.MAX_VALUE</code> is returned
+     * 
+     * @return The capacity of this CuckooFilter
+     */
+    public int getCapacity(){
+        return (int) Math.min(this.capacity, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets the number of bits of the fingerprint stored for each element
+     * 
+     * @return The number of bits per fingerprint of this CuckooFilter
+     */
+    public int getFingerprintBits(){
+        return this.bits;
+    }
+
+    /**
+     * Indicates whether this CuckooFilter is full. A full filter cannot
+     * accept new elements until elements have been removed and the stashed
+     * fingerprint could be placed in the table again
+     * 
+     * @return True if this filter is full, false otherwise
+     */
+    public boolean isFull(){
+        return (victim != 0);
+    }
+
+    /**
+     * Gets the expected false positive probability of this CuckooFilter
+     * when it holds as many elements as its capacity
+     * 
+     * @return The expected false positive probability at full capacity
+     */
+    public double expectedFalsePositiveProbability(){
+        return falsePositiveProbability(bits,
+                (double) capacity / ((long) buckets * BUCKET_SIZE));
+    }
+
+    /**
+     * Computes the false positive probability of a CuckooFilter with buckets
+     * of four slots. See the class documentation for the formula
+     * 
+     * @param bits The number of bits of each fingerprint
+     * @param load The ratio of occupied slots. Must be within [0, 1]
+     * @return The probability that the filter affirms the
+     *         presence of an element which was not added to it
+     * @throws IllegalArgumentException If any argument is out of range
+     */
+    public static double falsePositiveProbability(final int bits, final double load){
+        if((bits <= 0) || (bits > 63)){
+            throw new IllegalArgumentException("Number of bits must be within [1, 63]");
+        }
+        if((load < 0) || (load > 1.0)){
+            throw new IllegalArgumentException("Load must be within [0, 1]");
+        }
+        final double slots = 2 * BUCKET_SIZE * load;
+        return -Math.expm1(slots * Math.log1p(-Math.pow(2, -bits)));
+    }
+}
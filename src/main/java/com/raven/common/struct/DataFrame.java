@@ -2818,6 +2818,25 @@ public interface DataFrame extends Cloneable, Iterable<Column> {
         return DataFrameUtils.merge(dataFrames);
     }
 
+    /**
+     * Concatenates all given {@link DataFrame} instances into one DataFrame.
+     * All DataFrames are concatenated by rows. All DataFrames must have the
+     * same column structure, i.e. an equal number of columns with equal
+     * column types, and must either all be nullable or all be non-nullable.
+     * The rows are added to the returned DataFrame in the order of the
+     * arguments passed to this method. Only passing one DataFrame to this
+     * method will simply return that instance.
+     * 
+     * <p>The returned DataFrame is independent from its origin, with the
+     * exception of the byte arrays of binary columns, which are shared.
+     * 
+     * @param dataFrames The DataFrames to be concatenated
+     * @return A DataFrame composed of all rows of the given DataFrames
+     */
+    public static DataFrame concat(final DataFrame... dataFrames){
+        return DataFrameUtils.concat(dataFrames);
+    }
+
     /**
      * Converts the given {@link DataFrame} from a {@link DefaultDataFrame} to a 
      * {@link NullableDataFrame} or vice versa.<br>
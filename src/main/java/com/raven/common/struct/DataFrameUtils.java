@@ -43,7 +43,7 @@ public final class DataFrameUtils {
             return null;
         }
         DataFrame copy = null;
-        if(df instanceof DefaultDataFrame){
+        if(!df.isNullable()){
             copy = new DefaultDataFrame();
         }else{
             copy = new NullableDataFrame();
@@ -220,6 +220,90 @@ public final class DataFrameUtils {
         return merged;
     }
 
+    /**
+     * Concatenates all given {@link DataFrame} instances into one DataFrame.
+     * All DataFrames are concatenated by rows, i.e. the rows of each DataFrame
+     * argument are appended to the rows of its predecessor in the order
+     * of the arguments passed to this method. Only passing one DataFrame to
+     * this method will simply return that instance.<br>
+     * All DataFrames must have the same number of columns, the same column
+     * types and must either all be nullable or all be non-nullable. The column
+     * names of the returned DataFrame are taken from the first argument.
+     * 
+     * <p>As opposed to adding rows one by one, this operation copies the
+     * internal arrays of all columns directly and therefore neither boxes
+     * primitive values nor creates intermediate row arrays. The content of
+     * binary columns is not copied, i.e. the byte arrays of the returned
+     * DataFrame are shared with the DataFrame arguments.
+     * 
+     * @param dataFrames The DataFrames to be concatenated
+     * @return A DataFrame composed of all rows of the given DataFrames
+     */
+    public static DataFrame concat(final DataFrame... dataFrames){
+        if((dataFrames == null) || (dataFrames.length == 0)){
+            throw new DataFrameException("Arg must not be null or empty");
+        }
+        if(dataFrames[0] == null){
+            throw new DataFrameException(
+                    "Invalid argument. DataFrame at index 0 must not be null");
+        }
+        if(dataFrames.length == 1){
+            return dataFrames[0];
+        }
+        final DataFrame first = dataFrames[0];
+        final int cols = first.columns();
+        long total = 0;
+        for(int i=0; i<dataFrames.length; ++i){
+            final DataFrame df = dataFrames[i];
+            if(df == null){
+                throw new DataFrameException(
+                        "Invalid argument. DataFrame at index "
+                        + i + " must not be null");
+            }
+            if(df.isNullable() != first.isNullable()){
+                throw new DataFrameException(String.format(
+                        "Type missmatch for DataFrame argument at index %s", i));
+            }
+            if(df.columns() != cols){
+                throw new DataFrameException(String.format(
+                        "Size missmatch for DataFrame argument at index %s. "
+                        + "Expected %s columns but found %s",
+                        i, cols, df.columns()));
+            }
+            for(int j=0; j<cols; ++j){
+                if(df.getColumn(j).typeCode() != first.getColumn(j).typeCode()){
+                    throw new DataFrameException(String.format(
+                            "Column type missmatch for DataFrame argument at "
+                            + "index %s at column index %s", i, j));
+                }
+            }
+            total += df.rows();
+        }
+        if(total > Integer.MAX_VALUE){
+            throw new DataFrameException(
+                    "Concatenated row count exceeds maximum supported size");
+        }
+        if(cols == 0){
+            return like(first);
+        }
+        final Column[] columns = new Column[cols];
+        for(int j=0; j<cols; ++j){
+            columns[j] = Column.like(first.getColumn(j), (int) total);
+            final Object target = arrayOf(columns[j]);
+            int ptr = 0;
+            for(int i=0; i<dataFrames.length; ++i){
+                final int rows = dataFrames[i].rows();
+                System.arraycopy(arrayOf(dataFrames[i].getColumn(j)),
+                        0, target, ptr, rows);
+
+                ptr += rows;
+            }
+        }
+        return first.isNullable()
+                ? new NullableDataFrame(columns)
+                : new DefaultDataFrame(columns);
+    }
+
     /**
      * Converts the given {@link DataFrame} from a {@link DefaultDataFrame} to a 
      * {@link NullableDataFrame} or vice-versa.<br>
@@ -614,4 +698,60 @@ public final class DataFrameUtils {
             }
         };
     }
+
+    /**
+     * Returns a reference to the internal array of the specified Column.
+     * The returned Object is either an array of primitives or an array
+     * of the wrapper type of the specified Column
+     * 
+     * @param col The <code>Column</code> to get the internal array from
+     * @return The internal array of the specified Column
+     */
+    private static Object arrayOf(final Column col){
+        switch(col.typeCode()){
+        case ByteColumn.TYPE_CODE:
+            return ((ByteColumn)col).asArray();
+        case ShortColumn.TYPE_CODE:
+            return ((ShortColumn)col).asArray();
+        case IntColumn.TYPE_CODE:
+            return ((IntColumn)col).asArray();
+        case LongColumn.TYPE_CODE:
+            return ((LongColumn)col).asArray();
+        case StringColumn.TYPE_CODE:
+            return ((StringColumn)col).asArray();
+        case FloatColumn.TYPE_CODE:
+            return ((FloatColumn)col).asArray();
+        case DoubleColumn.TYPE_CODE:
+            return ((DoubleColumn)col).asArray();
+        case CharColumn.TYPE_CODE:
+            return ((CharColumn)col).asArray();
+        case BooleanColumn.TYPE_CODE:
+            return ((BooleanColumn)col).asArray();
+        case BinaryColumn.TYPE_CODE:
+            return ((BinaryColumn)col).asArray();
+        case NullableByteColumn.TYPE_CODE:
+            return ((NullableByteColumn)col).asArray();
+        case NullableShortColumn.TYPE_CODE:
+            return ((NullableShortColumn)col).asArray();
+        case NullableIntColumn.TYPE_CODE:
+            return ((NullableIntColumn)col).asArray();
+        case NullableLongColumn.TYPE_CODE:
+            return ((NullableLongColumn)col).asArray();
+        case NullableStringColumn.TYPE_CODE:
+            return ((NullableStringColumn)col).asArray();
+        case NullableFloatColumn.TYPE_CODE:
+            return ((NullableFloatColumn)col).asArray();
+        case NullableDoubleColumn.TYPE_CODE:
+            return ((NullableDoubleColumn)col).asArray();
+        case NullableCharColumn.TYPE_CODE:
+            return ((NullableCharColumn)col).asArray();
+        case NullableBooleanColumn.TYPE_CODE:
+            return ((NullableBooleanColumn)col).asArray();
+        case NullableBinaryColumn.TYPE_CODE:
+            return ((NullableBinaryColumn)col).asArray();
+        default:
+            throw new DataFrameException("Unknown column type code: "
+                    + col.typeCode());
+        }
+    }
 }
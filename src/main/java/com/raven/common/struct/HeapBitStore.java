@@ -0,0 +1,117 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.raven.common.struct;
+
+import java.util.Arrays;
+
+/**
+ * A BitStore which holds all bits in an array of longs on the heap.
+ * The number of bits is therefore limited to 2^37.
+ * 
+ * <p>This class is not part of the public API.
+ * 
+ * @author Phil Gaiser
+ * @see BitStore
+ * @since 4.1.0
+ *
+ */
+final class HeapBitStore implements BitStore {
+
+    /** The maximum number of bits of a HeapBitStore **/
+    static final long MAX_SIZE = ((long) Integer.MAX_VALUE << 6);
+
+    private final long[] words;
+    private final long size;
+    private long ones;
+
+    /**
+     * Constructs a new <code>HeapBitStore</code> with the specified
+     * number of bits, all of which are unset
+     * 
+     * @param size The number of bits of the constructed HeapBitStore
+     */
+    HeapBitStore(final long size){
+        if((size < 0) || (size > MAX_SIZE)){
+            throw new IllegalArgumentException(
+                    "Invalid size of heap bit store: " + size);
+        }
+        this.size = size;
+        this.words = new long[(int) ((size + 63) >>> 6)];
+    }
+
+    @Override
+    public long size(){
+        return this.size;
+    }
+
+    @Override
+    public boolean get(final long index){
+        return ((words[(int) (index >>> 6)] & (1L << index)) != 0);
+    }
+
+    @Override
+    public boolean set(final long index){
+        final int i = (int) (index >>> 6);
+        final long word = words[i];
+        final long mask = (1L << index);
+        if((word & mask) != 0){
+            return false;
+        }
+        words[i] = (word | mask);
+        ++ones;
+        return true;
+    }
+
+    @Override
+    public long getWord(final long index){
+        return words[(int) index];
+    }
+
+    @Override
+    public void orWord(final long index, final long bits){
+        final int i = (int) index;
+        final long word = words[i];
+        ones += Long.bitCount(bits & ~word);
+        words[i] = (word | bits);
+    }
+
+    @Override
+    public void andWord(final long index, final long bits){
+        final int i = (int) index;
+        final long word = words[i];
+        ones -= Long.bitCount(word & ~bits);
+        words[i] = (word & bits);
+    }
+
+    @Override
+    public long bitsSet(){
+        return this.ones;
+    }
+
+    @Override
+    public void clear(){
+        Arrays.fill(words, 0L);
+        this.ones = 0;
+    }
+
+    @Override
+    public long sizeInBytes(){
+        //Words of the array + 16 bytes for internally used vars
+        return ((long) words.length << 3) + 16;
+    }
+}
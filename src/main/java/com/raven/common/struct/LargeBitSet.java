@@ -0,0 +1,461 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.raven.common.struct;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A fixed-size set of bits which is addressable by a long index and which is
+ * stored outside of the Java heap. A LargeBitSet can hold far more than 2^31 bits
+ * and therefore allows Bloom filters to be constructed for billions of elements.
+ * All bits are initially unset.
+ * 
+ * <p>The bits are split into segments of 2^30 bits (128 MB) each. Every segment
+ * is stored in a separate <code>ByteBuffer</code>, as a single buffer cannot hold
+ * more than 2^31 bytes. A LargeBitSet is either allocated in direct memory by
+ * the {@link #allocate(long)} method, or backed by a memory-mapped file by
+ * the {@link #map(File, long)} method. A file-backed LargeBitSet persists all
+ * bits in its file. When a file which already exists is mapped again, all bits
+ * are available immediately without reading the entire file, as the operating
+ * system loads the pages of the file on demand.
+ * 
+ * <p>Within each segment, the bits are stored in 64-bit words in little-endian
+ * byte order, so that files written on one platform can be mapped on any other
+ * platform. The bit at index <i>i</i> is located in word <i>i / 64</i> at the
+ * bit position <i>i % 64</i>, counted from the least significant bit.
+ * 
+ * <p>A LargeBitSet is usually passed to a Bloom filter, for example:
+ * <pre><code>
+ * long bits = StaticBloomFilter.requiredBits(10_000_000_000L, 0.001);
+ * LargeBitSet set = LargeBitSet.map(new File("filter.bits"), bits);
+ * StaticBloomFilter&lt;String&gt; filter = new StaticBloomFilter&lt;&gt;(
+ *         null, 10_000_000_000L, 0.001, set);
+ * </code></pre>
+ * 
+ * <p>Closing a LargeBitSet writes all changes of a file-backed set to its file
+ * and releases the segments. The direct memory of a LargeBitSet is freed
+ * when the segments are garbage collected.
+ * 
+ * <p>This implementation is NOT thread-safe.
+ * 
+ * @author Phil Gaiser
+ * @see StaticBloomFilter
+ * @see ScalableBloomFilter
+ * @since 4.1.0
+ *
+ */
+public final class LargeBitSet implements BitStore, Closeable {
+
+    /** The number of bits of each segment as a power of two **/
+    private static final int SEGMENT_SHIFT = 30;
+
+    /** The mask of the bit index within a segment **/
+    private static final long SEGMENT_MASK = ((1L << SEGMENT_SHIFT) - 1);
+
+    /** The number of bytes of each segment **/
+    private static final long SEGMENT_BYTES = (1L << (SEGMENT_SHIFT - 3));
+
+    private final ByteBuffer[] segments;
+    private final long size;
+    private final boolean mapped;
+    private long ones;
+
+    /**
+     * Constructs a new <code>LargeBitSet</code> from the specified segments
+     * 
+     * @param segments The buffers holding the segments of the constructed set
+     * @param size The number of bits of the constructed set
+     * @param mapped Indicates whether the segments are memory-mapped
+     * @param ones The number of set bits in the segments,
+     *             or -1 if it is unknown
+     */
+    private LargeBitSet(final ByteBuffer[] segments, final long size,
+            final boolean mapped, final long ones){
+
+        this.segments = segments;
+        this.size = size;
+        this.mapped = mapped;
+        this.ones = ones;
+    }
+
+    /**
+     * Gets the value of the bit at the specified index
+     * 
+     * @param index The index of the bit to get
+     * @return True if the bit at the specified index is 1
+     *         or false if the bit at the specified index is 0 (zero)
+     */
+    @Override
+    public boolean get(final long index){
+        check(index);
+        final ByteBuffer segment = segments[(int) (index >>> SEGMENT_SHIFT)];
+        return ((segment.getLong(offset(index)) & (1L << index)) != 0);
+    }
+
+    /**
+     * Sets the bit at the specified index to 1
+     * 
+     * @param index The index of the bit to set
+     * @return True if the bit was previously 0 (zero),
+     *         false if it was already set to 1
+     */
+    @Override
+    public boolean set(final long index){
+        check(index);
+        final ByteBuffer segment = segments[(int) (index >>> SEGMENT_SHIFT)];
+        final int offset = offset(index);
+        final long word = segment.getLong(offset);
+        final long mask = (1L << index);
+        if((word & mask) != 0){
+            return false;
+        }
+        segment.putLong(offset, (word | mask));
+        if(ones != -1){
+            ++ones;
+        }
+        return true;
+    }
+
+    /**
+     * Sets the bit at the specified index to the specified value
+     * 
+     * @param index The index of the bit to set
+     * @param bit The value of the bit to set
+     */
+    public void set(final long index, final boolean bit){
+        if(bit){
+            set(index);
+            return;
+        }
+        check(index);
+        final ByteBuffer segment = segments[(int) (index >>> SEGMENT_SHIFT)];
+        final int offset = offset(index);
+        final long word = segment.getLong(offset);
+        final long mask = (1L << index);
+        if((word & mask) != 0){
+            segment.putLong(offset, (word & ~mask));
+            if(ones != -1){
+                --ones;
+            }
+        }
+    }
+
+    /**
+     * Gets the 64-bit word at the specified word index. Bit <i>i</i> of the
+     * returned word is the bit at index <i>64 * index + i</i> of this LargeBitSet
+     * 
+     * @param index The index of the word to get
+     * @return The word at the specified index
+     */
+    @Override
+    public long getWord(final long index){
+        checkWord(index);
+        final ByteBuffer segment = segments[(int) (index >>> (SEGMENT_SHIFT - 6))];
+        return segment.getLong(offset(index << 6));
+    }
+
+    /**
+     * Sets all bits of the word at the specified word index to 1 which
+     * are set in the specified bit mask
+     * 
+     * @param index The index of the word to change
+     * @param bits The bit mask to combine with the word by a logical OR
+     */
+    @Override
+    public void orWord(final long index, final long bits){
+        checkWord(index);
+        final ByteBuffer segment = segments[(int) (index >>> (SEGMENT_SHIFT - 6))];
+        final int offset = offset(index << 6);
+        final long word = segment.getLong(offset);
+        segment.putLong(offset, (word | bits));
+        if(ones != -1){
+            ones += Long.bitCount(bits & ~word);
+        }
+    }
+
+    /**
+     * Sets all bits of the word at the specified word index to 0 (zero)
+     * which are unset in the specified bit mask
+     * 
+     * @param index The index of the word to change
+     * @param bits The bit mask to combine with the word by a logical AND
+     */
+    @Override
+    public void andWord(final long index, final long bits){
+        checkWord(index);
+        final ByteBuffer segment = segments[(int) (index >>> (SEGMENT_SHIFT - 6))];
+        final int offset = offset(index << 6);
+        final long word = segment.getLong(offset);
+        segment.putLong(offset, (word & bits));
+        if(ones != -1){
+            ones -= Long.bitCount(word & ~bits);
+        }
+    }
+
+    /**
+     * Returns the number of bits in this LargeBitSet
+     * 
+     * @return The number of bits in this LargeBitSet
+     */
+    @Override
+    public long size(){
+        return this.size;
+    }
+
+    /**
+     * Returns the number of set bits in this LargeBitSet. If the bits of a
+     * file-backed set have not been counted yet, then this method counts all
+     * bits of the file once. The count is subsequently updated
+     * as bits are changed
+     * 
+     * @return The number of bits set to 1 in this LargeBitSet
+     */
+    @Override
+    public long bitsSet(){
+        if(ones == -1){
+            long total = 0;
+            for(final ByteBuffer segment : segments){
+                final int limit = segment.capacity();
+                for(int i=0; i<limit; i+=8){
+                    total += Long.bitCount(segment.getLong(i));
+                }
+            }
+            this.ones = total;
+        }
+        return this.ones;
+    }
+
+    /**
+     * Sets all bits of this LargeBitSet to 0 (zero)
+     */
+    @Override
+    public void clear(){
+        for(final ByteBuffer segment : segments){
+            final int limit = segment.capacity();
+            for(int i=0; i<limit; i+=8){
+                segment.putLong(i, 0L);
+            }
+        }
+        this.ones = 0;
+    }
+
+    /**
+     * Returns the number of bytes this LargeBitSet has allocated
+     * outside of the Java heap
+     * 
+     * @return The number of bytes of all segments of this LargeBitSet
+     */
+    @Override
+    public long sizeInBytes(){
+        long total = 0;
+        for(final ByteBuffer segment : segments){
+            total += segment.capacity();
+        }
+        return total;
+    }
+
+    /**
+     * Indicates whether this LargeBitSet is backed by a memory-mapped file
+     * 
+     * @return True if this LargeBitSet is file-backed, false if
+     *         it is allocated in direct memory
+     */
+    public boolean isMapped(){
+        return this.mapped;
+    }
+
+    /**
+     * Writes all changes of a file-backed LargeBitSet to its file. This
+     * method has no effect if this LargeBitSet is not file-backed
+     */
+    public void force(){
+        if(mapped){
+            for(final ByteBuffer segment : segments){
+                if(segment != null){
+                    ((MappedByteBuffer) segment).force();
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes this LargeBitSet. All changes of a file-backed set are written
+     * to its file. The segments of this set are released and
+     * must not be accessed after this method returns
+     */
+    @Override
+    public void close(){
+        force();
+        for(int i=0; i<segments.length; ++i){
+            segments[i] = null;
+        }
+    }
+
+    /**
+     * Allocates a new LargeBitSet with the specified number of bits in direct
+     * memory. All bits of the returned set are initially unset
+     * 
+     * @param size The number of bits of the LargeBitSet to allocate.
+     *             Must not be negative
+     * @return A <code>LargeBitSet</code> with the specified number of bits
+     * @throws OutOfMemoryError If the direct memory is exhausted
+     */
+    public static LargeBitSet allocate(final long size){
+        if(size < 0){
+            throw new IllegalArgumentException("Size must not be negative: " + size);
+        }
+        final long bytes = bytes(size);
+        final ByteBuffer[] segments = new ByteBuffer[segments(bytes)];
+        for(int i=0; i<segments.length; ++i){
+            segments[i] = ByteBuffer.allocateDirect(
+                    (int) Math.min(SEGMENT_BYTES, bytes - (i * SEGMENT_BYTES)))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return new LargeBitSet(segments, size, false, 0);
+    }
+
+    /**
+     * Maps the specified file into memory as a LargeBitSet with the specified
+     * number of bits. If the file does not exist or is empty, then it is created
+     * with the required length and all bits of the returned set are unset.
+     * Otherwise the returned set holds all bits persisted in the file. In that
+     * case, the length of the file must match the specified number of bits
+     * 
+     * @param file The file to map. Must not be null
+     * @param size The number of bits of the LargeBitSet to map.
+     *             Must not be negative
+     * @return A file-backed <code>LargeBitSet</code> with
+     *         the specified number of bits
+     * @throws IOException If the file cannot be opened or mapped, or if
+     *                     the length of an existing file does not match
+     *                     the specified number of bits
+     */
+    public static LargeBitSet map(final File file, final long size) throws IOException{
+        return map(file, 0, size);
+    }
+
+    /**
+     * Maps the region of the specified file which starts at the specified
+     * position into memory as a LargeBitSet with the specified number of bits.
+     * The file must either be empty or have a length equal to the position plus
+     * the number of bytes of all words of the LargeBitSet
+     * 
+     * @param file The file to map. Must not be null
+     * @param position The position in the file at which the words
+     *                 of the LargeBitSet start
+     * @param size The number of bits of the LargeBitSet to map.
+     *             Must not be negative
+     * @return A file-backed <code>LargeBitSet</code> with
+     *         the specified number of bits
+     * @throws IOException If the file cannot be opened or mapped, or if
+     *                     the length of an existing file does not match
+     *                     the specified position and number of bits
+     */
+    static LargeBitSet map(final File file, final long position, final long size)
+            throws IOException{
+
+        if(file == null){
+            throw new IllegalArgumentException("File argument must not be null");
+        }
+        if(size < 0){
+            throw new IllegalArgumentException("Size must not be negative: " + size);
+        }
+        final long bytes = bytes(size);
+        try(FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)){
+
+            final long length = channel.size();
+            if((length != 0) && (length != (position + bytes))){
+                throw new IOException(String.format(
+                        "File size of %s bytes does not match expected size of %s bytes",
+                        length, (position + bytes)));
+            }
+            final ByteBuffer[] segments = new ByteBuffer[segments(bytes)];
+            for(int i=0; i<segments.length; ++i){
+                final long start = (i * SEGMENT_BYTES);
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, position + start,
+                        Math.min(SEGMENT_BYTES, bytes - start))
+                        .order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new LargeBitSet(segments, size, true, ((length == 0) ? 0 : -1));
+        }
+    }
+
+    /**
+     * Returns the byte offset of the word holding the specified
+     * bit within its segment
+     * 
+     * @param index The index of the bit
+     * @return The byte offset of the word within its segment
+     */
+    private static int offset(final long index){
+        return (int) (((index & SEGMENT_MASK) >>> 6) << 3);
+    }
+
+    /**
+     * Returns the number of bytes required to store the specified
+     * number of bits in 64-bit words
+     * 
+     * @param size The number of bits
+     * @return The number of bytes of all words
+     */
+    private static long bytes(final long size){
+        return (((size + 63) >>> 6) << 3);
+    }
+
+    /**
+     * Returns the number of segments required to store the
+     * specified number of bytes
+     * 
+     * @param bytes The number of bytes
+     * @return The number of segments
+     */
+    private static int segments(final long bytes){
+        return (int) ((bytes + SEGMENT_BYTES - 1) / SEGMENT_BYTES);
+    }
+
+    /**
+     * Checks that the specified bit index is not out of bounds
+     * 
+     * @param index The bit index to check 
+     */
+    private void check(final long index){
+        if((index < 0) || (index >= size)){
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+    }
+
+    /**
+     * Checks that the specified word index is not out of bounds
+     * 
+     * @param index The word index to check 
+     */
+    private void checkWord(final long index){
+        if((index < 0) || (index >= ((size + 63) >>> 6))){
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+    }
+}
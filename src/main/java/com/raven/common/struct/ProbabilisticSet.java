@@ -65,6 +65,7 @@ package com.raven.common.struct;
  * @author Phil Gaiser
  * @see StaticBloomFilter
  * @see ScalableBloomFilter
+ * @see CuckooFilter
  * @since 3.0.0
  *
  * @param <E> The type of elements to be used by the probabilistic set
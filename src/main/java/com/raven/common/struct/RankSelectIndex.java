@@ -0,0 +1,292 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.raven.common.struct;
+
+/**
+ * A succinct rank/select directory over a {@link BitVector}. A RankSelectIndex
+ * answers the number of set bits before a position (<i>rank</i>) in constant
+ * time and the position of the set bit with a given rank (<i>select</i>)
+ * in near-constant time, instead of scanning the BitVector.
+ * 
+ * <p>The directory is built in one pass over the BitVector. The bits are
+ * divided into blocks of 512 bits. For each block, the directory stores the
+ * number of set bits in all preceding blocks and, packed into a single long,
+ * the number of set bits before each of the eight 64-bit words within the
+ * block. The position of every 512th set bit is sampled to narrow down the
+ * blocks which are searched by a select query. Depending on the number of set
+ * bits, the directory requires between 19% and 25% of the memory of the
+ * indexed BitVector.
+ * 
+ * <p>A RankSelectIndex reflects the state of the BitVector at the time it was
+ * built. Any subsequent modification of the BitVector invalidates the index,
+ * which then throws an <code>IllegalStateException</code> when queried. The
+ * validity of an index can be checked with {@link #isValid()}. Modifications
+ * made directly to the array returned by {@link BitVector#asArray()} are not
+ * detected. The {@link BitVector#rank1(int)} and {@link BitVector#select1(int)}
+ * methods manage an index internally and rebuild it when necessary.
+ * 
+ * <p>This implementation is NOT thread-safe.
+ * 
+ * @author Phil Gaiser
+ * @see BitVector
+ * @since 4.1.0
+ *
+ */
+public final class RankSelectIndex {
+
+    /** The number of bits of each block as a power of two **/
+    private static final int BLOCK_SHIFT = 9;
+
+    /** The number of set bits between two select samples as a power of two **/
+    private static final int SAMPLE_SHIFT = 9;
+
+    /** The number of bits of each packed word count **/
+    private static final int COUNT_BITS = 9;
+
+    /** The mask of each packed word count **/
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final BitVector vector;
+    private final int modCount;
+    private final int size;
+    private final int ones;
+
+    /**
+     * The number of set bits before each block. The last
+     * element holds the total number of set bits
+     */
+    private final int[] counts;
+
+    /**
+     * The number of set bits before words 1 to 7 within each block,
+     * packed into 9 bits per word
+     */
+    private final long[] subcounts;
+
+    /**
+     * The index of the block holding every 512th set bit
+     */
+    private final int[] samples;
+
+    /**
+     * Constructs a new <code>RankSelectIndex</code> over the specified BitVector
+     * 
+     * @param vector The <code>BitVector</code> to index. Must not be null
+     */
+    public RankSelectIndex(final BitVector vector){
+        if(vector == null){
+            throw new IllegalArgumentException("BitVector argument must not be null");
+        }
+        this.vector = vector;
+        this.modCount = vector.modCount();
+        this.size = vector.size();
+        final byte[] bytes = vector.asArray();
+        final int words = (int) (((long) size + 63) >>> 6);
+        final int blocks = (words + 7) >>> 3;
+        this.counts = new int[blocks + 1];
+        this.subcounts = new long[blocks];
+        int total = 0;
+        for(int b=0; b<blocks; ++b){
+            counts[b] = total;
+            long packed = 0;
+            int count = 0;
+            for(int w=0; w<8; ++w){
+                if(w > 0){
+                    packed |= ((long) count << (COUNT_BITS * (w - 1)));
+                }
+                final int index = (b << 3) + w;
+                if(index < words){
+                    count += Long.bitCount(word(bytes, index));
+                }
+            }
+            subcounts[b] = packed;
+            total += count;
+        }
+        counts[blocks] = total;
+        this.ones = total;
+        this.samples = new int[(total + (1 << SAMPLE_SHIFT) - 1) >>> SAMPLE_SHIFT];
+        int block = 0;
+        for(int s=0; s<samples.length; ++s){
+            final int k = (s << SAMPLE_SHIFT);
+            while(counts[block + 1] <= k){
+                ++block;
+            }
+            samples[s] = block;
+        }
+    }
+
+    /**
+     * Returns the number of bits set to 1 at positions before the specified index
+     * 
+     * @param index The index up to which set bits are counted, exclusive.
+     *              Must be within [0, size] of the indexed BitVector
+     * @return The number of set bits before the specified index
+     * @throws IllegalStateException If the indexed BitVector has been modified
+     *                               after this index was built
+     */
+    public int rank1(final int index){
+        checkValid();
+        if((index < 0) || (index > size)){
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        if(index == size){
+            return ones;
+        }
+        final int w = (index >>> 6);
+        final int b = (w >>> 3);
+        final int sub = (w & 7);
+        int rank = counts[b];
+        if(sub != 0){
+            rank += (int) ((subcounts[b] >>> (COUNT_BITS * (sub - 1))) & COUNT_MASK);
+        }
+        final int bit = (index & 63);
+        if(bit != 0){
+            rank += Long.bitCount(word(vector.asArray(), w) >>> (64 - bit));
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the number of bits set to 0 (zero) at positions
+     * before the specified index
+     * 
+     * @param index The index up to which unset bits are counted, exclusive.
+     *              Must be within [0, size] of the indexed BitVector
+     * @return The number of unset bits before the specified index
+     * @throws IllegalStateException If the indexed BitVector has been modified
+     *                               after this index was built
+     */
+    public int rank0(final int index){
+        return (index - rank1(index));
+    }
+
+    /**
+     * Returns the index of the set bit with the specified rank, i.e. the index
+     * of the <i>(k+1)</i>-th bit that is set to 1. The sampled positions restrict
+     * the search to the blocks between two samples, which are searched
+     * by bisection
+     * 
+     * @param k The rank of the set bit to find, starting at 0 (zero)
+     * @return The index of the set bit with the specified rank, or -1 if the
+     *         indexed BitVector has not more than <i>k</i> set bits
+     * @throws IllegalStateException If the indexed BitVector has been modified
+     *                               after this index was built
+     */
+    public int select1(final int k){
+        checkValid();
+        if(k < 0){
+            throw new IllegalArgumentException("Rank must not be negative: " + k);
+        }
+        if(k >= ones){
+            return -1;
+        }
+        final int s = (k >>> SAMPLE_SHIFT);
+        int lo = samples[s];
+        int hi = ((s + 1) < samples.length) ? samples[s + 1] : (counts.length - 2);
+        while(lo < hi){
+            final int mid = (lo + hi + 1) >>> 1;
+            if(counts[mid] <= k){
+                lo = mid;
+            }else{
+                hi = mid - 1;
+            }
+        }
+        int r = k - counts[lo];
+        final long packed = subcounts[lo];
+        int w = 0;
+        while((w < 7) && (((packed >>> (COUNT_BITS * w)) & COUNT_MASK) <= r)){
+            ++w;
+        }
+        if(w > 0){
+            r -= (int) ((packed >>> (COUNT_BITS * (w - 1))) & COUNT_MASK);
+        }
+        final int index = (lo << 3) + w;
+        long word = word(vector.asArray(), index);
+        for(int i=0; i<r; ++i){
+            word ^= Long.highestOneBit(word);
+        }
+        return ((index << 6) + Long.numberOfLeadingZeros(word));
+    }
+
+    /**
+     * Returns the number of set bits of the indexed BitVector
+     * at the time this index was built
+     * 
+     * @return The number of set bits in the indexed BitVector
+     */
+    public int bitsSet(){
+        return this.ones;
+    }
+
+    /**
+     * Indicates whether this index is still valid, i.e. whether the indexed
+     * BitVector has not been modified since this index was built
+     * 
+     * @return True if this index can be queried, false if it is outdated
+     */
+    public boolean isValid(){
+        return (vector.modCount() == this.modCount);
+    }
+
+    /**
+     * Returns the number of bytes this RankSelectIndex has allocated in memory
+     * 
+     * @return The number of bytes used by this index
+     */
+    public long sizeInBytes(){
+        //arrays + 16 bytes for internally used vars
+        return (counts.length * 4L) + (subcounts.length * 8L)
+                + (samples.length * 4L) + 16;
+    }
+
+    /**
+     * Returns the specified 64-bit word of the indexed bits. All bits
+     * after the size of the indexed BitVector are cleared
+     * 
+     * @param bytes The array of the indexed BitVector
+     * @param index The index of the word
+     * @return The word at the specified index
+     */
+    private long word(final byte[] bytes, final int index){
+        final int pos = (index << 3);
+        long word;
+        if((pos + 8) <= bytes.length){
+            word = BitVector.word(bytes, pos);
+        }else{
+            word = 0;
+            for(int i=0; i<8; ++i){
+                word = (word << 8) | (((pos + i) < bytes.length) ? (bytes[pos + i] & 0xffL) : 0);
+            }
+        }
+        final long valid = (long) size - ((long) index << 6);
+        if(valid < 64){
+            word &= (valid <= 0) ? 0 : (-1L << (64 - valid));
+        }
+        return word;
+    }
+
+    /**
+     * Checks that the indexed BitVector has not been modified
+     */
+    private void checkValid(){
+        if(!isValid()){
+            throw new IllegalStateException(
+                    "BitVector has been modified after the index was built");
+        }
+    }
+}
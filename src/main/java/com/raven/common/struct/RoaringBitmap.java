@@ -0,0 +1,1771 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.raven.common.struct;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed set of non-negative int values. A RoaringBitmap can be used as
+ * an alternative to a {@link BitVector} for sets of row indices which are
+ * either very sparse or contain long ranges of consecutive values, for example
+ * null masks, filter results or inverted indexes over DataFrame columns.
+ * 
+ * <p>The value range is split into chunks of 2^16 values. The chunk of a value
+ * is determined by its 16 most significant bits. Only chunks which hold at
+ * least one value are stored. Each chunk is stored in one of three
+ * container types:
+ * <ul>
+ * <li>An <i>array container</i> stores the 16 least significant bits of all
+ * values in a sorted array. It is used for chunks with at most 4096 values.</li>
+ * <li>A <i>bitmap container</i> stores a bit for each of the 2^16 values of
+ * the chunk in 1024 64-bit words. It is used for chunks with
+ * more than 4096 values.</li>
+ * <li>A <i>run container</i> stores the start and length of each range of
+ * consecutive values. It is used for chunks in which long ranges of values
+ * are set, if this is smaller than the other two representations.</li>
+ * </ul>
+ * Array and bitmap containers are converted into each other automatically as
+ * values are added or removed. Run containers are created by adding ranges
+ * of values with {@link #add(int, int)}, by converting a BitVector with
+ * {@link #valueOf(BitVector)} and by calling {@link #runOptimize()}. Adding
+ * single values to or removing values from a run container converts it back
+ * into an array or bitmap container.
+ * 
+ * <p>The set operations {@link #and(RoaringBitmap)}, {@link #or(RoaringBitmap)}
+ * and {@link #andNot(RoaringBitmap)} modify this bitmap and return a reference
+ * to it, like the corresponding methods of a BitVector. They only process
+ * chunks which are present in at least one operand and operate on whole
+ * containers, so intersections of sparse bitmaps are computed in time
+ * proportional to the number of stored values instead of the covered value
+ * range. The number of values is returned by {@link #cardinality()}.
+ * 
+ * <p>All values can be iterated in ascending order by {@link #iterator()}
+ * or {@link #forEachValue(IntConsumer)}. A RoaringBitmap can be converted
+ * to and from a BitVector, in which case the value <i>i</i> corresponds to the bit
+ * at index <i>i</i>. The {@link #serialize()} and {@link #deserialize(byte[])}
+ * methods convert a RoaringBitmap to and from a compact binary
+ * representation which retains the type of all containers.
+ * 
+ * <p>A RoaringBitmap is {@link Cloneable}, {@link Serializable}
+ * 
+ * <p>This implementation is NOT thread-safe.
+ * 
+ * @author Phil Gaiser
+ * @see BitVector
+ * @since 4.1.0
+ *
+ */
+public final class RoaringBitmap implements Iterable<Integer>, Cloneable, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The version of the binary format of serialized bitmaps **/
+    private static final byte FORMAT_VERSION = 1;
+
+    /** The maximum cardinality of an array container **/
+    private static final int ARRAY_MAX = 4096;
+
+    /** The number of 64-bit words of a bitmap container **/
+    private static final int WORDS = 1024;
+
+    /** The number of values of each chunk **/
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /** The size of a bitmap container in bytes **/
+    private static final int BITMAP_BYTES = WORDS * 8;
+
+    /** The maximum key of a chunk of non-negative values **/
+    private static final int MAX_KEY = Integer.MAX_VALUE >>> 16;
+
+    private static final byte TYPE_ARRAY = 0;
+    private static final byte TYPE_BITMAP = 1;
+    private static final byte TYPE_RUN = 2;
+
+    /**
+     * The 16 most significant bits of the values of all
+     * stored chunks, in ascending order
+     */
+    private transient char[] keys;
+
+    /**
+     * The containers of all stored chunks. The container at
+     * index <i>i</i> holds the chunk with the key at index <i>i</i>
+     */
+    private transient Container[] containers;
+
+    /**
+     * The number of stored chunks
+     */
+    private transient int size;
+
+    /**
+     * Constructs a new empty <code>RoaringBitmap</code>
+     */
+    public RoaringBitmap(){
+        this.keys = new char[4];
+        this.containers = new Container[4];
+    }
+
+    /**
+     * Adds the specified value to this RoaringBitmap. Adding a value
+     * which is already in this bitmap has no effect
+     * 
+     * @param value The value to add. Must not be negative
+     */
+    public void add(final int value){
+        check(value);
+        final char key = (char) (value >>> 16);
+        final int i = indexOf(key);
+        if(i >= 0){
+            containers[i] = containers[i].add((char) value);
+        }else{
+            insertAt(-i - 1, key, new ArrayContainer().add((char) value));
+        }
+    }
+
+    /**
+     * Adds all values within the specified range to this RoaringBitmap.
+     * Chunks which are entirely covered by the specified range
+     * are stored as run containers
+     * 
+     * @param start The first value to add, inclusive. Must not be negative
+     * @param end The end of the range of values to add, exclusive.
+     *            Must not be less than the start value
+     */
+    public void add(final int start, final int end){
+        check(start);
+        if(end < start){
+            throw new IllegalArgumentException(String.format(
+                    "Invalid range: [%s, %s)", start, end));
+        }
+        if(start == end){
+            return;
+        }
+        final int last = end - 1;
+        final int firstKey = start >>> 16;
+        final int lastKey = last >>> 16;
+        for(int key=firstKey; key<=lastKey; ++key){
+            final int lo = (key == firstKey) ? (start & 0xFFFF) : 0;
+            final int hi = (key == lastKey) ? (last & 0xFFFF) : 0xFFFF;
+            final int i = indexOf((char) key);
+            if(i >= 0){
+                containers[i] = ((lo == 0) && (hi == 0xFFFF))
+                        ? RunContainer.range(lo, hi)
+                        : containers[i].add(lo, hi);
+            }else{
+                insertAt(-i - 1, (char) key, RunContainer.range(lo, hi));
+            }
+        }
+    }
+
+    /**
+     * Removes the specified value from this RoaringBitmap. Removing a value
+     * which is not in this bitmap has no effect
+     * 
+     * @param value The value to remove
+     */
+    public void remove(final int value){
+        if(value < 0){
+            return;
+        }
+        final int i = indexOf((char) (value >>> 16));
+        if(i >= 0){
+            final Container container = containers[i].remove((char) value);
+            if(container.cardinality() == 0){
+                removeAt(i);
+            }else{
+                containers[i] = container;
+            }
+        }
+    }
+
+    /**
+     * Indicates whether this RoaringBitmap contains the specified value
+     * 
+     * @param value The value to check
+     * @return True if the specified value is in this bitmap, false otherwise
+     */
+    public boolean contains(final int value){
+        if(value < 0){
+            return false;
+        }
+        final int i = indexOf((char) (value >>> 16));
+        return ((i >= 0) && containers[i].contains((char) value));
+    }
+
+    /**
+     * Returns the number of values in this RoaringBitmap
+     * 
+     * @return The number of values in this bitmap
+     */
+    public long cardinality(){
+        long total = 0;
+        for(int i=0; i<size; ++i){
+            total += containers[i].cardinality();
+        }
+        return total;
+    }
+
+    /**
+     * Indicates whether this RoaringBitmap is empty
+     * 
+     * @return True if this bitmap contains no values, false otherwise
+     */
+    public boolean isEmpty(){
+        return (size == 0);
+    }
+
+    /**
+     * Removes all values from this RoaringBitmap
+     */
+    public void clear(){
+        Arrays.fill(containers, 0, size, null);
+        this.size = 0;
+    }
+
+    /**
+     * Returns the smallest value in this RoaringBitmap
+     * 
+     * @return The smallest value in this bitmap
+     * @throws NoSuchElementException If this bitmap is empty
+     */
+    public int first(){
+        if(size == 0){
+            throw new NoSuchElementException("Bitmap is empty");
+        }
+        return ((keys[0] << 16) | containers[0].next(0));
+    }
+
+    /**
+     * Returns the largest value in this RoaringBitmap
+     * 
+     * @return The largest value in this bitmap
+     * @throws NoSuchElementException If this bitmap is empty
+     */
+    public int last(){
+        if(size == 0){
+            throw new NoSuchElementException("Bitmap is empty");
+        }
+        return ((keys[size - 1] << 16) | containers[size - 1].last());
+    }
+
+    /**
+     * Returns the smallest value in this RoaringBitmap which is
+     * equal to or greater than the specified value
+     * 
+     * @param from The value to start searching at, inclusive
+     * @return The next value in this bitmap, or -1 if there is no such value
+     */
+    public int nextValue(final int from){
+        if(from < 0){
+            return (size == 0) ? -1 : first();
+        }
+        final char key = (char) (from >>> 16);
+        int i = indexOf(key);
+        if(i >= 0){
+            final int next = containers[i].next(from & 0xFFFF);
+            if(next != -1){
+                return ((key << 16) | next);
+            }
+            ++i;
+        }else{
+            i = -i - 1;
+        }
+        return (i < size) ? ((keys[i] << 16) | containers[i].next(0)) : -1;
+    }
+
+    /**
+     * Computes the intersection of this RoaringBitmap and the specified bitmap.
+     * All values which are not in the specified bitmap are removed from
+     * this bitmap. The specified bitmap is not modified
+     * 
+     * @param bitmap The <code>RoaringBitmap</code> to intersect this bitmap with
+     * @return This RoaringBitmap instance
+     */
+    public RoaringBitmap and(final RoaringBitmap bitmap){
+        if(bitmap == null){
+            throw new IllegalArgumentException("Bitmap argument must not be null");
+        }
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while((i < size) && (j < bitmap.size)){
+            final char a = keys[i];
+            final char b = bitmap.keys[j];
+            if(a < b){
+                ++i;
+            }else if(a > b){
+                ++j;
+            }else{
+                final Container c = containers[i].and(bitmap.containers[j]);
+                if(c.cardinality() > 0){
+                    keys[n] = a;
+                    containers[n++] = c;
+                }
+                ++i;
+                ++j;
+            }
+        }
+        Arrays.fill(containers, n, size, null);
+        this.size = n;
+        return this;
+    }
+
+    /**
+     * Computes the union of this RoaringBitmap and the specified bitmap.
+     * All values of the specified bitmap are added to this bitmap.
+     * The specified bitmap is not modified
+     * 
+     * @param bitmap The <code>RoaringBitmap</code> to unite this bitmap with
+     * @return This RoaringBitmap instance
+     */
+    public RoaringBitmap or(final RoaringBitmap bitmap){
+        if(bitmap == null){
+            throw new IllegalArgumentException("Bitmap argument must not be null");
+        }
+        final char[] k = new char[Math.max(4, size + bitmap.size)];
+        final Container[] c = new Container[k.length];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while((i < size) || (j < bitmap.size)){
+            if((j == bitmap.size) || ((i < size) && (keys[i] < bitmap.keys[j]))){
+                k[n] = keys[i];
+                c[n++] = containers[i++];
+            }else if((i == size) || (keys[i] > bitmap.keys[j])){
+                k[n] = bitmap.keys[j];
+                c[n++] = bitmap.containers[j++].copy();
+            }else{
+                k[n] = keys[i];
+                c[n++] = containers[i++].or(bitmap.containers[j++]);
+            }
+        }
+        this.keys = k;
+        this.containers = c;
+        this.size = n;
+        return this;
+    }
+
+    /**
+     * Computes the difference of this RoaringBitmap and the specified bitmap.
+     * All values of the specified bitmap are removed from this bitmap.
+     * The specified bitmap is not modified
+     * 
+     * @param bitmap The <code>RoaringBitmap</code> holding the values
+     *               to remove from this bitmap
+     * @return This RoaringBitmap instance
+     */
+    public RoaringBitmap andNot(final RoaringBitmap bitmap){
+        if(bitmap == null){
+            throw new IllegalArgumentException("Bitmap argument must not be null");
+        }
+        int n = 0;
+        int j = 0;
+        for(int i=0; i<size; ++i){
+            final char key = keys[i];
+            while((j < bitmap.size) && (bitmap.keys[j] < key)){
+                ++j;
+            }
+            Container c = containers[i];
+            if((j < bitmap.size) && (bitmap.keys[j] == key)){
+                c = c.andNot(bitmap.containers[j]);
+            }
+            if(c.cardinality() > 0){
+                keys[n] = key;
+                containers[n++] = c;
+            }
+        }
+        Arrays.fill(containers, n, size, null);
+        this.size = n;
+        return this;
+    }
+
+    /**
+     * Converts all containers of this RoaringBitmap to run containers
+     * if this reduces their size, and converts run containers back
+     * to array or bitmap containers if they are not smaller
+     * 
+     * @return True if this bitmap holds at least one run container
+     *         after this method returns, false otherwise
+     */
+    public boolean runOptimize(){
+        boolean runs = false;
+        for(int i=0; i<size; ++i){
+            containers[i] = containers[i].optimize();
+            runs |= (containers[i] instanceof RunContainer);
+        }
+        return runs;
+    }
+
+    /**
+     * Performs the specified action for each value of this
+     * RoaringBitmap in ascending order
+     * 
+     * @param action The action to perform for each value
+     */
+    public void forEachValue(final IntConsumer action){
+        for(int i=0; i<size; ++i){
+            containers[i].forEachValue(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * Returns an iterator over all values of this RoaringBitmap in ascending
+     * order. The returned iterator must not be used after this
+     * bitmap has been modified
+     * 
+     * @return An iterator over all values of this bitmap
+     */
+    @Override
+    public PrimitiveIterator.OfInt iterator(){
+        return new ValueIterator();
+    }
+
+    /**
+     * Returns all values of this RoaringBitmap in ascending order
+     * 
+     * @return An array holding all values of this bitmap
+     * @throws IllegalStateException If this bitmap holds more
+     *                               values than an array can hold
+     */
+    public int[] toArray(){
+        final long cardinality = cardinality();
+        if(cardinality > (Integer.MAX_VALUE - 8)){
+            throw new IllegalStateException(
+                    "Bitmap is too large to be converted to an array");
+        }
+        final int[] values = new int[(int) cardinality];
+        int n = 0;
+        for(int i=0; i<size; ++i){
+            n = containers[i].toArray(keys[i] << 16, values, n);
+        }
+        return values;
+    }
+
+    /**
+     * Converts this RoaringBitmap to a BitVector. The bit at index <i>i</i>
+     * of the returned BitVector is set if the value <i>i</i> is in this bitmap.
+     * The size of the returned BitVector is the largest value of
+     * this bitmap plus one
+     * 
+     * @return A <code>BitVector</code> holding the values of this bitmap
+     * @throws IllegalStateException If this bitmap contains
+     *                               Integer.MAX_VALUE
+     */
+    public BitVector toBitVector(){
+        if(size == 0){
+            return BitVector.createInitialized(0, false);
+        }
+        final int last = last();
+        if(last == Integer.MAX_VALUE){
+            throw new IllegalStateException(
+                    "Bitmap is too large to be converted to a BitVector");
+        }
+        return toBitVector(last + 1);
+    }
+
+    /**
+     * Converts this RoaringBitmap to a BitVector with the specified size. The
+     * bit at index <i>i</i> of the returned BitVector is set if the value
+     * <i>i</i> is in this bitmap. All values which are equal to or greater
+     * than the specified size are ignored
+     * 
+     * @param size The size of the returned BitVector. Must not be negative
+     * @return A <code>BitVector</code> holding the values of this
+     *         bitmap which are less than the specified size
+     */
+    public BitVector toBitVector(final int size){
+        if(size < 0){
+            throw new IllegalArgumentException("Size must not be negative: " + size);
+        }
+        final byte[] bytes = new byte[(int) (((long) size + 7) >>> 3)];
+        final long[] words = new long[WORDS];
+        for(int i=0; i<this.size; ++i){
+            final int offset = (keys[i] << 13);//bytes per chunk: 2^13
+            if(offset >= bytes.length){
+                break;
+            }
+            Arrays.fill(words, 0L);
+            containers[i].toWords(words);
+            for(int j=0; j<WORDS; ++j){
+                final long word = Long.reverse(words[j]);
+                if(word != 0){
+                    final int pos = offset + (j << 3);
+                    for(int k=0; (k<8) && (pos + k < bytes.length); ++k){
+                        bytes[pos + k] = (byte) (word >>> (56 - (k << 3)));
+                    }
+                }
+            }
+        }
+        if((size % 8) != 0){
+            bytes[bytes.length - 1] &= (byte) (0xFF << (8 - (size % 8)));
+        }
+        return BitVector.wrap(bytes, size);
+    }
+
+    /**
+     * Returns the number of bytes this RoaringBitmap has allocated in memory
+     * 
+     * @return The approximate number of bytes used by this bitmap
+     */
+    public long sizeInBytes(){
+        //keys and container references
+        // + 12 bytes for internally used vars in this instance
+        long total = (keys.length * 2L) + (containers.length * 8L) + 12;
+        for(int i=0; i<size; ++i){
+            total += containers[i].sizeInBytes();
+        }
+        return total;
+    }
+
+    /**
+     * Serializes this RoaringBitmap to a byte array. The returned array
+     * can be converted back by {@link #deserialize(byte[])}
+     * 
+     * @return A byte array holding the binary representation of this bitmap
+     */
+    public byte[] serialize(){
+        int length = 5;
+        for(int i=0; i<size; ++i){
+            length += 3 + containers[i].serializedSize();
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.put(FORMAT_VERSION);
+        buffer.putInt(size);
+        for(int i=0; i<size; ++i){
+            buffer.putChar(keys[i]);
+            buffer.put(containers[i].type());
+            containers[i].write(buffer);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Creates and returns a copy of this RoaringBitmap. The returned
+     * bitmap is a deep copy which does not share any containers
+     * 
+     * @return A deep copy of this RoaringBitmap
+     */
+    @Override
+    public RoaringBitmap clone(){
+        final RoaringBitmap copy = new RoaringBitmap();
+        copy.keys = Arrays.copyOf(keys, Math.max(4, size));
+        copy.containers = new Container[copy.keys.length];
+        for(int i=0; i<size; ++i){
+            copy.containers[i] = containers[i].copy();
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    @Override
+    public int hashCode(){
+        int hash = 1;
+        for(int i=0; i<size; ++i){
+            hash = (31 * hash) + keys[i];
+            hash = (31 * hash) + Arrays.hashCode(containers[i].words());
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj){
+        if(obj == this){
+            return true;
+        }
+        if(!(obj instanceof RoaringBitmap)){
+            return false;
+        }
+        final RoaringBitmap other = (RoaringBitmap) obj;
+        if(size != other.size){
+            return false;
+        }
+        for(int i=0; i<size; ++i){
+            if(keys[i] != other.keys[i]){
+                return false;
+            }
+            final Container a = containers[i];
+            final Container b = other.containers[i];
+            if(a.cardinality() != b.cardinality()){
+                return false;
+            }
+            if(!Arrays.equals(a.words(), b.words())){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString(){
+        final StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        final PrimitiveIterator.OfInt iter = iterator();
+        while(iter.hasNext()){
+            sb.append(iter.nextInt());
+            if(iter.hasNext()){
+                sb.append(", ");
+            }
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    /**
+     * Creates a RoaringBitmap holding the specified values
+     * 
+     * @param values The values of the bitmap to create. Must not be negative
+     * @return A <code>RoaringBitmap</code> holding the specified values
+     */
+    public static RoaringBitmap of(final int... values){
+        if(values == null){
+            throw new IllegalArgumentException("Values argument must not be null");
+        }
+        final RoaringBitmap bitmap = new RoaringBitmap();
+        for(final int value : values){
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Creates a RoaringBitmap from the specified BitVector. The value <i>i</i>
+     * is in the returned bitmap if the bit at index <i>i</i> of the specified
+     * BitVector is set. Chunks with long ranges of set bits are stored as
+     * run containers
+     * 
+     * @param vec The <code>BitVector</code> to convert. Must not be null
+     * @return A <code>RoaringBitmap</code> holding the indices of
+     *         all set bits of the specified BitVector
+     */
+    public static RoaringBitmap valueOf(final BitVector vec){
+        if(vec == null){
+            throw new IllegalArgumentException("BitVector argument must not be null");
+        }
+        final RoaringBitmap bitmap = new RoaringBitmap();
+        final byte[] bytes = vec.asArray();
+        final int bits = vec.size();
+        final int length = (int) (((long) bits + 7) >>> 3);
+        long[] words = new long[WORDS];
+        for(int offset=0, key=0; offset<length; offset+=BITMAP_BYTES, ++key){
+            boolean empty = true;
+            for(int j=0; j<WORDS; ++j){
+                final int pos = offset + (j << 3);
+                long word = 0;
+                for(int k=0; k<8; ++k){
+                    final int index = pos + k;
+                    int b = (index < length) ? (bytes[index] & 0xFF) : 0;
+                    if((index == length - 1) && ((bits % 8) != 0)){
+                        b &= (0xFF << (8 - (bits % 8)));
+                    }
+                    word = (word << 8) | b;
+                }
+                words[j] = Long.reverse(word);
+                empty &= (word == 0);
+            }
+            if(!empty){
+                bitmap.insertAt(bitmap.size, (char) key,
+                        Container.fromWords(words).optimize());
+
+                words = new long[WORDS];
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * Deserializes the specified byte array into a RoaringBitmap. The array
+     * must have been created by the {@link #serialize()} method
+     * 
+     * @param bytes The byte array to deserialize. Must not be null
+     * @return A <code>RoaringBitmap</code> represented by the specified array
+     * @throws IllegalArgumentException If the specified array does not hold
+     *                                  a valid binary representation
+     *                                  of a RoaringBitmap
+     */
+    public static RoaringBitmap deserialize(final byte[] bytes){
+        if(bytes == null){
+            throw new IllegalArgumentException("Byte array argument must not be null");
+        }
+        try{
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            final byte version = buffer.get();
+            if(version != FORMAT_VERSION){
+                throw new IllegalArgumentException(
+                        "Unsupported bitmap format version: " + version);
+            }
+            final int size = buffer.getInt();
+            if((size < 0) || (size > (MAX_KEY + 1))){
+                throw new IllegalArgumentException("Invalid number of containers: " + size);
+            }
+            final RoaringBitmap bitmap = new RoaringBitmap();
+            bitmap.keys = new char[Math.max(4, size)];
+            bitmap.containers = new Container[bitmap.keys.length];
+            for(int i=0; i<size; ++i){
+                final char key = buffer.getChar();
+                if((key > MAX_KEY) || ((i > 0) && (key <= bitmap.keys[i - 1]))){
+                    throw new IllegalArgumentException("Invalid container key: " + (int) key);
+                }
+                final Container container;
+                final byte type = buffer.get();
+                switch(type){
+                case TYPE_ARRAY:
+                    container = ArrayContainer.read(buffer);
+                    break;
+                case TYPE_BITMAP:
+                    container = BitmapContainer.read(buffer);
+                    break;
+                case TYPE_RUN:
+                    container = RunContainer.read(buffer);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid container type: " + type);
+                }
+                bitmap.keys[i] = key;
+                bitmap.containers[i] = container;
+                bitmap.size = i + 1;
+            }
+            if(buffer.hasRemaining()){
+                throw new IllegalArgumentException("Trailing bytes after bitmap data");
+            }
+            return bitmap;
+        }catch(BufferUnderflowException ex){
+            throw new IllegalArgumentException("Bitmap data is truncated");
+        }
+    }
+
+    private void writeObject(final ObjectOutputStream out) throws IOException{
+        out.defaultWriteObject();
+        final byte[] bytes = serialize();
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private void readObject(final ObjectInputStream in)
+            throws IOException, ClassNotFoundException{
+
+        in.defaultReadObject();
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        final RoaringBitmap bitmap = deserialize(bytes);
+        this.keys = bitmap.keys;
+        this.containers = bitmap.containers;
+        this.size = bitmap.size;
+    }
+
+    /**
+     * Returns the index of the chunk with the specified key
+     * 
+     * @param key The key of the chunk to search for
+     * @return The index of the chunk, or <i>-(insertion point) - 1</i>
+     *         if no chunk with the specified key is stored
+     */
+    private int indexOf(final char key){
+        if((size > 0) && (keys[size - 1] == key)){//fast path for appends
+            return (size - 1);
+        }
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    /**
+     * Inserts the specified chunk at the specified index
+     * 
+     * @param index The index to insert the chunk at
+     * @param key The key of the chunk to insert
+     * @param container The container of the chunk to insert
+     */
+    private void insertAt(final int index, final char key, final Container container){
+        if(size == keys.length){
+            final int capacity = Math.max(4, size + (size >> 1));
+            this.keys = Arrays.copyOf(keys, capacity);
+            this.containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        ++size;
+    }
+
+    /**
+     * Removes the chunk at the specified index
+     * 
+     * @param index The index of the chunk to remove
+     */
+    private void removeAt(final int index){
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        containers[--size] = null;
+    }
+
+    /**
+     * Checks that the specified value is not negative
+     * 
+     * @param value The value to check
+     */
+    private static void check(final int value){
+        if(value < 0){
+            throw new IllegalArgumentException("Value must not be negative: " + value);
+        }
+    }
+
+    /**
+     * Returns the first set bit in the specified words at
+     * or after the specified position
+     * 
+     * @param words The words of a bitmap container
+     * @param from The position to start searching at, inclusive
+     * @return The position of the next set bit, or -1 if there is no such bit
+     */
+    private static int nextSet(final long[] words, final int from){
+        int i = from >>> 6;
+        if(i >= WORDS){
+            return -1;
+        }
+        long word = words[i] & (-1L << from);
+        while(true){
+            if(word != 0){
+                return ((i << 6) + Long.numberOfTrailingZeros(word));
+            }
+            if(++i == WORDS){
+                return -1;
+            }
+            word = words[i];
+        }
+    }
+
+    /**
+     * Returns the first unset bit in the specified words at
+     * or after the specified position
+     * 
+     * @param words The words of a bitmap container
+     * @param from The position to start searching at, inclusive
+     * @return The position of the next unset bit, or 2^16 if there is no such bit
+     */
+    private static int nextUnset(final long[] words, final int from){
+        int i = from >>> 6;
+        if(i >= WORDS){
+            return CHUNK_SIZE;
+        }
+        long word = ~words[i] & (-1L << from);
+        while(true){
+            if(word != 0){
+                return ((i << 6) + Long.numberOfTrailingZeros(word));
+            }
+            if(++i == WORDS){
+                return CHUNK_SIZE;
+            }
+            word = ~words[i];
+        }
+    }
+
+    /**
+     * Sets all bits within the specified range in the specified words
+     * 
+     * @param words The words of a bitmap container
+     * @param lo The first bit to set, inclusive
+     * @param hi The last bit to set, inclusive
+     */
+    private static void setRange(final long[] words, final int lo, final int hi){
+        final int first = lo >>> 6;
+        final int last = hi >>> 6;
+        final long head = (-1L << lo);
+        final long tail = (-1L >>> (63 - (hi & 63)));
+        if(first == last){
+            words[first] |= (head & tail);
+            return;
+        }
+        words[first] |= head;
+        for(int i=first+1; i<last; ++i){
+            words[i] = -1L;
+        }
+        words[last] |= tail;
+    }
+
+    /**
+     * Iterator over all values of a RoaringBitmap.
+     *
+     */
+    private final class ValueIterator implements PrimitiveIterator.OfInt {
+
+        private int index;
+        private int next;
+
+        private ValueIterator(){
+            this.next = (size > 0) ? containers[0].next(0) : -1;
+        }
+
+        @Override
+        public boolean hasNext(){
+            return (next != -1);
+        }
+
+        @Override
+        public int nextInt(){
+            if(next == -1){
+                throw new NoSuchElementException("No more values available");
+            }
+            final int value = ((keys[index] << 16) | next);
+            int n = (next < 0xFFFF) ? containers[index].next(next + 1) : -1;
+            if(n == -1){
+                ++index;
+                n = (index < size) ? containers[index].next(0) : -1;
+            }
+            this.next = n;
+            return value;
+        }
+    }
+
+    /**
+     * Base class of all containers holding the 16 least significant
+     * bits of the values of a chunk.
+     *
+     */
+    private abstract static class Container {
+
+        /**
+         * Returns the number of values in this container
+         * 
+         * @return The number of values in this container
+         */
+        abstract int cardinality();
+
+        /**
+         * Indicates whether this container holds the specified value
+         * 
+         * @param value The value to check
+         * @return True if this container holds the specified value
+         */
+        abstract boolean contains(char value);
+
+        /**
+         * Adds the specified value to this container
+         * 
+         * @param value The value to add
+         * @return The container holding all values after the operation,
+         *         which might be this container or a converted container
+         */
+        abstract Container add(char value);
+
+        /**
+         * Removes the specified value from this container
+         * 
+         * @param value The value to remove
+         * @return The container holding all values after the operation,
+         *         which might be this container or a converted container
+         */
+        abstract Container remove(char value);
+
+        /**
+         * Returns the smallest value in this container which is
+         * equal to or greater than the specified value
+         * 
+         * @param from The value to start searching at, inclusive.
+         *             Must be within [0, 2^16)
+         * @return The next value, or -1 if there is no such value
+         */
+        abstract int next(int from);
+
+        /**
+         * Returns the largest value in this container
+         * 
+         * @return The largest value in this container
+         */
+        abstract int last();
+
+        /**
+         * Sets the bits of all values of this container in the specified words
+         * 
+         * @param words The words to set the bits in
+         */
+        abstract void toWords(long[] words);
+
+        /**
+         * Performs the specified action for each value of this container
+         * 
+         * @param high The 16 most significant bits of all values
+         * @param action The action to perform for each value
+         */
+        abstract void forEachValue(int high, IntConsumer action);
+
+        /**
+         * Copies all values of this container into the specified array
+         * 
+         * @param high The 16 most significant bits of all values
+         * @param values The array to copy the values to
+         * @param index The index of the first value to copy in the array
+         * @return The index after the last copied value in the array
+         */
+        abstract int toArray(int high, int[] values, int index);
+
+        /**
+         * Returns a deep copy of this container
+         * 
+         * @return A copy of this container
+         */
+        abstract Container copy();
+
+        /**
+         * Returns the most compact representation of this container
+         * 
+         * @return A container holding the same values which
+         *         might be this container
+         */
+        abstract Container optimize();
+
+        /**
+         * Returns the number of bytes this container has allocated in memory
+         * 
+         * @return The number of bytes used by this container
+         */
+        abstract long sizeInBytes();
+
+        /**
+         * Returns the type identifier of this container used in
+         * the binary representation of a bitmap
+         * 
+         * @return The type identifier of this container
+         */
+        abstract byte type();
+
+        /**
+         * Returns the number of bytes of the binary representation
+         * of this container
+         * 
+         * @return The number of bytes written by <code>write()</code>
+         */
+        abstract int serializedSize();
+
+        /**
+         * Writes the binary representation of this container
+         * to the specified buffer
+         * 
+         * @param buffer The buffer to write to
+         */
+        abstract void write(ByteBuffer buffer);
+
+        /**
+         * Adds all values within the specified range to this container
+         * 
+         * @param lo The first value to add, inclusive
+         * @param hi The last value to add, inclusive
+         * @return The container holding all values after the operation
+         */
+        Container add(final int lo, final int hi){
+            final long[] words = words();
+            setRange(words, lo, hi);
+            return fromWords(words);
+        }
+
+        /**
+         * Computes the intersection of this container and the specified
+         * container. Neither container is modified
+         * 
+         * @param other The container to intersect with
+         * @return A container holding the intersection
+         */
+        Container and(final Container other){
+            if(other instanceof ArrayContainer){
+                return other.and(this);
+            }
+            final long[] words = words();
+            final long[] otherWords = other.words();
+            for(int i=0; i<WORDS; ++i){
+                words[i] &= otherWords[i];
+            }
+            return fromWords(words);
+        }
+
+        /**
+         * Computes the union of this container and the specified
+         * container. Neither container is modified
+         * 
+         * @param other The container to unite with
+         * @return A container holding the union
+         */
+        Container or(final Container other){
+            final long[] words = words();
+            other.toWords(words);
+            return fromWords(words);
+        }
+
+        /**
+         * Computes the difference of this container and the specified
+         * container. Neither container is modified
+         * 
+         * @param other The container holding the values to remove
+         * @return A container holding the difference
+         */
+        Container andNot(final Container other){
+            final long[] words = words();
+            final long[] otherWords = other.words();
+            for(int i=0; i<WORDS; ++i){
+                words[i] &= ~otherWords[i];
+            }
+            return fromWords(words);
+        }
+
+        /**
+         * Returns the bits of all values of this container in a new array
+         * 
+         * @return The words of a bitmap holding the values of this container
+         */
+        long[] words(){
+            final long[] words = new long[WORDS];
+            toWords(words);
+            return words;
+        }
+
+        /**
+         * Creates an array or bitmap container from the specified words,
+         * depending on the number of set bits
+         * 
+         * @param words The words holding the values of the container.
+         *              The array is used by a returned bitmap container
+         * @return A container holding the values of the specified words
+         */
+        static Container fromWords(final long[] words){
+            int cardinality = 0;
+            for(int i=0; i<WORDS; ++i){
+                cardinality += Long.bitCount(words[i]);
+            }
+            if(cardinality > ARRAY_MAX){
+                return new BitmapContainer(words, cardinality);
+            }
+            final char[] values = new char[Math.max(4, cardinality)];
+            int n = 0;
+            for(int i=0; i<WORDS; ++i){
+                long word = words[i];
+                while(word != 0){
+                    values[n++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= (word - 1);
+                }
+            }
+            return new ArrayContainer(values, cardinality);
+        }
+    }
+
+    /**
+     * A container storing the values of a sparse chunk in a sorted array.
+     *
+     */
+    private static final class ArrayContainer extends Container {
+
+        private char[] values;
+        private int cardinality;
+
+        private ArrayContainer(){
+            this.values = new char[4];
+        }
+
+        private ArrayContainer(final char[] values, final int cardinality){
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality(){
+            return this.cardinality;
+        }
+
+        @Override
+        boolean contains(final char value){
+            return (Arrays.binarySearch(values, 0, cardinality, value) >= 0);
+        }
+
+        @Override
+        Container add(final char value){
+            final int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if(i >= 0){
+                return this;
+            }
+            if(cardinality == ARRAY_MAX){
+                final long[] words = words();
+                words[value >>> 6] |= (1L << value);
+                return new BitmapContainer(words, cardinality + 1);
+            }
+            final int index = -i - 1;
+            if(cardinality == values.length){
+                this.values = Arrays.copyOf(values,
+                        Math.min(ARRAY_MAX, cardinality + (cardinality >> 1) + 4));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            ++cardinality;
+            return this;
+        }
+
+        @Override
+        Container remove(final char value){
+            final int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if(i >= 0){
+                System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+                --cardinality;
+            }
+            return this;
+        }
+
+        @Override
+        int next(final int from){
+            int i = Arrays.binarySearch(values, 0, cardinality, (char) from);
+            if(i < 0){
+                i = -i - 1;
+            }
+            return (i < cardinality) ? values[i] : -1;
+        }
+
+        @Override
+        int last(){
+            return values[cardinality - 1];
+        }
+
+        @Override
+        void toWords(final long[] words){
+            for(int i=0; i<cardinality; ++i){
+                final char value = values[i];
+                words[value >>> 6] |= (1L << value);
+            }
+        }
+
+        @Override
+        void forEachValue(final int high, final IntConsumer action){
+            for(int i=0; i<cardinality; ++i){
+                action.accept(high | values[i]);
+            }
+        }
+
+        @Override
+        int toArray(final int high, final int[] values, int index){
+            for(int i=0; i<cardinality; ++i){
+                values[index++] = (high | this.values[i]);
+            }
+            return index;
+        }
+
+        @Override
+        Container copy(){
+            return new ArrayContainer(Arrays.copyOf(values, values.length), cardinality);
+        }
+
+        @Override
+        Container optimize(){
+            int runs = (cardinality > 0) ? 1 : 0;
+            for(int i=1; i<cardinality; ++i){
+                if(values[i] != (values[i - 1] + 1)){
+                    ++runs;
+                }
+            }
+            if((runs * 4) >= (cardinality * 2)){
+                return this;
+            }
+            final char[] pairs = new char[runs * 2];
+            int n = 0;
+            int start = values[0];
+            for(int i=1; i<=cardinality; ++i){
+                if((i == cardinality) || (values[i] != (values[i - 1] + 1))){
+                    pairs[n++] = (char) start;
+                    pairs[n++] = (char) (values[i - 1] - start);
+                    if(i < cardinality){
+                        start = values[i];
+                    }
+                }
+            }
+            return new RunContainer(pairs, runs);
+        }
+
+        @Override
+        Container and(final Container other){
+            final char[] result = new char[Math.max(4, cardinality)];
+            int n = 0;
+            for(int i=0; i<cardinality; ++i){
+                if(other.contains(values[i])){
+                    result[n++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, n);
+        }
+
+        @Override
+        Container or(final Container other){
+            if(!(other instanceof ArrayContainer)){
+                return other.or(this);
+            }
+            final ArrayContainer array = (ArrayContainer) other;
+            if((cardinality + array.cardinality) > ARRAY_MAX){
+                return super.or(other);
+            }
+            final char[] result = new char[Math.max(4, cardinality + array.cardinality)];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while((i < cardinality) || (j < array.cardinality)){
+                if((j == array.cardinality)
+                        || ((i < cardinality) && (values[i] < array.values[j]))){
+
+                    result[n++] = values[i++];
+                }else if((i == cardinality) || (values[i] > array.values[j])){
+                    result[n++] = array.values[j++];
+                }else{
+                    result[n++] = values[i++];
+                    ++j;
+                }
+            }
+            return new ArrayContainer(result, n);
+        }
+
+        @Override
+        Container andNot(final Container other){
+            final char[] result = new char[Math.max(4, cardinality)];
+            int n = 0;
+            for(int i=0; i<cardinality; ++i){
+                if(!other.contains(values[i])){
+                    result[n++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, n);
+        }
+
+        @Override
+        long sizeInBytes(){
+            //values + 16 bytes for internally used vars
+            return (values.length * 2L) + 16;
+        }
+
+        @Override
+        byte type(){
+            return TYPE_ARRAY;
+        }
+
+        @Override
+        int serializedSize(){
+            return 4 + (cardinality * 2);
+        }
+
+        @Override
+        void write(final ByteBuffer buffer){
+            buffer.putInt(cardinality);
+            for(int i=0; i<cardinality; ++i){
+                buffer.putChar(values[i]);
+            }
+        }
+
+        static ArrayContainer read(final ByteBuffer buffer){
+            final int cardinality = buffer.getInt();
+            if((cardinality <= 0) || (cardinality > ARRAY_MAX)){
+                throw new IllegalArgumentException(
+                        "Invalid cardinality of array container: " + cardinality);
+            }
+            final char[] values = new char[Math.max(4, cardinality)];
+            for(int i=0; i<cardinality; ++i){
+                values[i] = buffer.getChar();
+                if((i > 0) && (values[i] <= values[i - 1])){
+                    throw new IllegalArgumentException("Array container is not sorted");
+                }
+            }
+            return new ArrayContainer(values, cardinality);
+        }
+    }
+
+    /**
+     * A container storing the values of a dense chunk in a bitmap.
+     *
+     */
+    private static final class BitmapContainer extends Container {
+
+        private final long[] words;
+        private int cardinality;
+
+        private BitmapContainer(final long[] words, final int cardinality){
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality(){
+            return this.cardinality;
+        }
+
+        @Override
+        boolean contains(final char value){
+            return ((words[value >>> 6] & (1L << value)) != 0);
+        }
+
+        @Override
+        Container add(final char value){
+            final long word = words[value >>> 6];
+            final long mask = (1L << value);
+            if((word & mask) == 0){
+                words[value >>> 6] = (word | mask);
+                ++cardinality;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(final char value){
+            final long word = words[value >>> 6];
+            final long mask = (1L << value);
+            if((word & mask) != 0){
+                words[value >>> 6] = (word & ~mask);
+                if(--cardinality == ARRAY_MAX){
+                    return fromWords(words);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        int next(final int from){
+            return nextSet(words, from);
+        }
+
+        @Override
+        int last(){
+            for(int i=WORDS-1; i>=0; --i){
+                if(words[i] != 0){
+                    return ((i << 6) + 63 - Long.numberOfLeadingZeros(words[i]));
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        void toWords(final long[] words){
+            for(int i=0; i<WORDS; ++i){
+                words[i] |= this.words[i];
+            }
+        }
+
+        @Override
+        void forEachValue(final int high, final IntConsumer action){
+            for(int i=0; i<WORDS; ++i){
+                long word = words[i];
+                while(word != 0){
+                    action.accept(high | ((i << 6) + Long.numberOfTrailingZeros(word)));
+                    word &= (word - 1);
+                }
+            }
+        }
+
+        @Override
+        int toArray(final int high, final int[] values, int index){
+            for(int i=0; i<WORDS; ++i){
+                long word = words[i];
+                while(word != 0){
+                    values[index++] = (high | ((i << 6) + Long.numberOfTrailingZeros(word)));
+                    word &= (word - 1);
+                }
+            }
+            return index;
+        }
+
+        @Override
+        Container copy(){
+            return new BitmapContainer(Arrays.copyOf(words, WORDS), cardinality);
+        }
+
+        @Override
+        Container optimize(){
+            int runs = 0;
+            long previous = 0;
+            for(int i=0; i<WORDS; ++i){
+                final long word = words[i];
+                runs += Long.bitCount(word & ~((word << 1) | (previous >>> 63)));
+                previous = word;
+            }
+            return ((runs * 4) < BITMAP_BYTES) ? RunContainer.fromWords(words, runs) : this;
+        }
+
+        @Override
+        long sizeInBytes(){
+            //words + 20 bytes for internally used vars
+            return BITMAP_BYTES + 20;
+        }
+
+        @Override
+        byte type(){
+            return TYPE_BITMAP;
+        }
+
+        @Override
+        int serializedSize(){
+            return BITMAP_BYTES;
+        }
+
+        @Override
+        void write(final ByteBuffer buffer){
+            for(int i=0; i<WORDS; ++i){
+                buffer.putLong(words[i]);
+            }
+        }
+
+        static BitmapContainer read(final ByteBuffer buffer){
+            final long[] words = new long[WORDS];
+            int cardinality = 0;
+            for(int i=0; i<WORDS; ++i){
+                words[i] = buffer.getLong();
+                cardinality += Long.bitCount(words[i]);
+            }
+            if(cardinality <= ARRAY_MAX){
+                throw new IllegalArgumentException(
+                        "Invalid cardinality of bitmap container: " + cardinality);
+            }
+            return new BitmapContainer(words, cardinality);
+        }
+    }
+
+    /**
+     * A container storing the values of a chunk as ranges of
+     * consecutive values.
+     *
+     */
+    private static final class RunContainer extends Container {
+
+        /**
+         * The start value and the length minus one of all runs.
+         * The run at index <i>i</i> starts at index <i>2i</i>
+         */
+        private final char[] runs;
+        private final int count;
+        private final int cardinality;
+
+        private RunContainer(final char[] runs, final int count){
+            this.runs = runs;
+            this.count = count;
+            int cardinality = 0;
+            for(int i=0; i<count; ++i){
+                cardinality += runs[(i << 1) + 1] + 1;
+            }
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality(){
+            return this.cardinality;
+        }
+
+        @Override
+        boolean contains(final char value){
+            final int i = find(value);
+            return ((i >= 0) && (value <= (runs[i << 1] + runs[(i << 1) + 1])));
+        }
+
+        @Override
+        Container add(final char value){
+            return contains(value) ? this : fromWords(words()).add(value);
+        }
+
+        @Override
+        Container remove(final char value){
+            return contains(value) ? fromWords(words()).remove(value) : this;
+        }
+
+        @Override
+        int next(final int from){
+            final int i = find(from);
+            if((i >= 0) && (from <= (runs[i << 1] + runs[(i << 1) + 1]))){
+                return from;
+            }
+            return ((i + 1) < count) ? runs[(i + 1) << 1] : -1;
+        }
+
+        @Override
+        int last(){
+            final int i = (count - 1) << 1;
+            return (runs[i] + runs[i + 1]);
+        }
+
+        @Override
+        void toWords(final long[] words){
+            for(int i=0; i<count; ++i){
+                final int start = runs[i << 1];
+                setRange(words, start, start + runs[(i << 1) + 1]);
+            }
+        }
+
+        @Override
+        void forEachValue(final int high, final IntConsumer action){
+            for(int i=0; i<count; ++i){
+                final int start = runs[i << 1];
+                final int end = start + runs[(i << 1) + 1];
+                for(int value=start; value<=end; ++value){
+                    action.accept(high | value);
+                }
+            }
+        }
+
+        @Override
+        int toArray(final int high, final int[] values, int index){
+            for(int i=0; i<count; ++i){
+                final int start = runs[i << 1];
+                final int end = start + runs[(i << 1) + 1];
+                for(int value=start; value<=end; ++value){
+                    values[index++] = (high | value);
+                }
+            }
+            return index;
+        }
+
+        @Override
+        Container copy(){
+            return new RunContainer(Arrays.copyOf(runs, runs.length), count);
+        }
+
+        @Override
+        Container optimize(){
+            if((count * 4) < Math.min(cardinality * 2, BITMAP_BYTES)){
+                return this;
+            }
+            return fromWords(words());
+        }
+
+        @Override
+        Container or(final Container other){
+            if(!(other instanceof RunContainer)){
+                return super.or(other);
+            }
+            final RunContainer o = (RunContainer) other;
+            final char[] result = new char[(count + o.count) << 1];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            int start = -1;
+            int end = -1;
+            while((i < count) || (j < o.count)){
+                final int s;
+                final int e;
+                if((j == o.count) || ((i < count) && (runs[i << 1] <= o.runs[j << 1]))){
+                    s = runs[i << 1];
+                    e = s + runs[(i << 1) + 1];
+                    ++i;
+                }else{
+                    s = o.runs[j << 1];
+                    e = s + o.runs[(j << 1) + 1];
+                    ++j;
+                }
+                if(start == -1){
+                    start = s;
+                    end = e;
+                }else if(s <= (end + 1)){
+                    end = Math.max(end, e);
+                }else{
+                    result[n++] = (char) start;
+                    result[n++] = (char) (end - start);
+                    start = s;
+                    end = e;
+                }
+            }
+            result[n++] = (char) start;
+            result[n++] = (char) (end - start);
+            return new RunContainer(result, n >> 1);
+        }
+
+        @Override
+        long sizeInBytes(){
+            //runs + 24 bytes for internally used vars
+            return (runs.length * 2L) + 24;
+        }
+
+        @Override
+        byte type(){
+            return TYPE_RUN;
+        }
+
+        @Override
+        int serializedSize(){
+            return 4 + (count * 4);
+        }
+
+        @Override
+        void write(final ByteBuffer buffer){
+            buffer.putInt(count);
+            for(int i=0; i<(count << 1); ++i){
+                buffer.putChar(runs[i]);
+            }
+        }
+
+        /**
+         * Returns the index of the last run which starts at or
+         * before the specified value
+         * 
+         * @param value The value to search for
+         * @return The index of the run, or -1 if all runs
+         *         start after the specified value
+         */
+        private int find(final int value){
+            int lo = 0;
+            int hi = count - 1;
+            while(lo <= hi){
+                final int mid = (lo + hi) >>> 1;
+                if(runs[mid << 1] <= value){
+                    lo = mid + 1;
+                }else{
+                    hi = mid - 1;
+                }
+            }
+            return hi;
+        }
+
+        static RunContainer range(final int lo, final int hi){
+            return new RunContainer(new char[]{(char) lo, (char) (hi - lo)}, 1);
+        }
+
+        static RunContainer fromWords(final long[] words, final int count){
+            final char[] runs = new char[count << 1];
+            int n = 0;
+            int start = nextSet(words, 0);
+            while(start != -1){
+                final int end = nextUnset(words, start);
+                runs[n++] = (char) start;
+                runs[n++] = (char) (end - 1 - start);
+                start = (end < CHUNK_SIZE) ? nextSet(words, end) : -1;
+            }
+            return new RunContainer(runs, count);
+        }
+
+        static RunContainer read(final ByteBuffer buffer){
+            final int count = buffer.getInt();
+            if((count <= 0) || (count > (CHUNK_SIZE / 2))){
+                throw new IllegalArgumentException(
+                        "Invalid number of runs in run container: " + count);
+            }
+            final char[] runs = new char[count << 1];
+            int end = -2;
+            for(int i=0; i<count; ++i){
+                final int start = buffer.getChar();
+                final int length = buffer.getChar();
+                if((start <= (end + 1)) || ((start + length) >= CHUNK_SIZE)){
+                    throw new IllegalArgumentException("Invalid run in run container");
+                }
+                runs[i << 1] = (char) start;
+                runs[(i << 1) + 1] = (char) length;
+                end = start + length;
+            }
+            return new RunContainer(runs, count);
+        }
+    }
+}
@@ -16,8 +16,18 @@
 
 package com.raven.common.struct;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.DecimalFormat;
+import java.util.Arrays;
 
+import com.raven.common.io.SerializationException;
 import com.raven.common.io.Serializer;
 
 /**
@@ -65,7 +75,20 @@ import com.raven.common.io.Serializer;
  * advanced way by specifying a scale factor and tightening ratio to use. Both
  * can be configured by using the corresponding constructor.
  * 
- * <p>This implementation is NOT thread-safe.
+ * <p>By default, the bits of all stages are stored on the Java heap. When a
+ * ScalableBloomFilter is constructed with the <code>offHeap</code> option, each
+ * stage stores its bits in a {@link LargeBitSet} allocated in direct memory
+ * instead. This allows stages to grow beyond 2^31 bits without putting
+ * pressure on the garbage collector.
+ * 
+ * <p>A ScalableBloomFilter can be persisted in a compact binary format by means
+ * of the {@link #writeTo(OutputStream)} method and be restored by
+ * {@link #readFrom(InputStream, Serializer)}. Filters constructed with the same
+ * configuration, for example filters built on different shards of a data set,
+ * can be combined by {@link #union(ScalableBloomFilter)}.
+ * 
+ * <p>This implementation is NOT thread-safe. A {@link ConcurrentScalableBloomFilter}
+ * can be shared by multiple threads without external synchronization.
  * 
  * @author Phil Gaiser
  * @see StaticBloomFilter
@@ -97,10 +120,11 @@ public class ScalableBloomFilter<E> extends AbstractBloomFilter<E> {
      */
     public static final double DEFAULT_TIGHTENING_RATIO = 0.9;
 
-    private Stage[] stages;
+    private volatile Stage[] stages;
     private final int scaleFactor;
     private final double tighteningRatio;
     private final double maxError0;
+    private final boolean offHeap;
 
     /**
      * Constructs a new <code>ScalableBloomFilter</code> with an initial
@@ -199,6 +223,36 @@ public class ScalableBloomFilter<E> extends AbstractBloomFilter<E> {
             final int initialCapacity, final double maxError,
             final int scaleFactor, final double tighteningRatio){
         
+        this(serializer, initialCapacity, maxError,
+                scaleFactor, tighteningRatio, false);
+    }
+
+    /**
+     * Constructs a new <code>ScalableBloomFilter</code> with the specified initial
+     * capacity, maximum allowed false positive probability, scale factor
+     * and tightening ratio. If <code>offHeap</code> is true, then the bits
+     * of all stages are stored in direct memory outside of the Java heap
+     * 
+     * @param serializer The <code>Serializer</code> instance to use to serialize
+     *                   the elements used by the constructed ScalableBloomFilter
+     * @param initialCapacity The number of elements the
+     *                        constructed ScalableBloomFilter should be able to hold
+     * @param maxError The maximum allowed false positive probability the
+     *                  constructed ScalableBloomFilter should adhere to
+     * @param scaleFactor The scale factor of the constructed ScalableBloomFilter.
+     *                    Usually either 2 or 4
+     * @param tighteningRatio The tightening ration of the constructed
+     *                        ScalableBloomFilter. Usually between 0.8 and 0.9
+     * @param offHeap Indicates whether the stages of the constructed
+     *                ScalableBloomFilter store their bits in a
+     *                {@link LargeBitSet} in direct memory
+     * @since 4.1.0
+     */
+    public ScalableBloomFilter(final Serializer<E> serializer,
+            final int initialCapacity, final double maxError,
+            final int scaleFactor, final double tighteningRatio,
+            final boolean offHeap){
+        
         super(serializer);
         if((maxError <= 0) || (maxError >= 1.0)){
             throw new IllegalArgumentException("Maximum allowed error rate must be "
@@ -213,8 +267,33 @@ public class ScalableBloomFilter<E> extends AbstractBloomFilter<E> {
         this.maxError0 = maxError;
         this.scaleFactor = scaleFactor;
         this.tighteningRatio = tighteningRatio;
+        this.offHeap = offHeap;
         this.stages = new Stage[1];
-        this.stages[0] = new Stage(initialCapacity, maxError);
+        this.stages[0] = new Stage(this, initialCapacity, maxError);
+    }
+
+    /**
+     * Constructs a new <code>ScalableBloomFilter</code> with the specified
+     * configuration but without any stages. The stages must be set
+     * before the constructed filter is used
+     * 
+     * @param serializer The <code>Serializer</code> instance to use
+     * @param maxError The maximum allowed false positive probability
+     * @param scaleFactor The scale factor of the constructed filter
+     * @param tighteningRatio The tightening ratio of the constructed filter
+     * @param offHeap Indicates whether the stages are stored in direct memory
+     * @param stages The number of stages of the constructed filter
+     */
+    private ScalableBloomFilter(final Serializer<E> serializer, final double maxError,
+            final int scaleFactor, final double tighteningRatio,
+            final boolean offHeap, final int stages){
+
+        super(serializer);
+        this.maxError0 = maxError;
+        this.scaleFactor = scaleFactor;
+        this.tighteningRatio = tighteningRatio;
+        this.offHeap = offHeap;
+        this.stages = new Stage[stages];
     }
 
     /**
@@ -230,15 +309,19 @@ public class ScalableBloomFilter<E> extends AbstractBloomFilter<E> {
      */
     @Override
     public void add(E element){
-        //Compute a hash for the given element and get
-        //the currently used stage for write operations
-        final long hash = hash(element);
-        final Stage stage = stages[stages.length - 1];
+        addHash(hash(element));
+    }
+
+    @Override
+    protected void addHash(final long hash){
+        //Get the currently used stage for write operations
+        final Stage[] current = this.stages;
+        final Stage stage = current[current.length - 1];
         //If the actively used stage has reached its maximum
         //fill ratio, then create a new stage and add the
         //element to it. Otherwise simply use the current stage
         if(stage.isFull()){
-            resize().put(hash);
+            grow(current).put(hash);
         }else{
             stage.put(hash);
         }
@@ -268,14 +351,18 @@ public class ScalableBloomFilter<E> extends AbstractBloomFilter<E> {
      */
     @Override
     public boolean contains(E element){
-      //Compute a hash for the given element and check
-      //all available stages in reversed order
-      final long hash = hash(element);
-      for(int i=stages.length-1; i>=0; --i){
+        return containsHash(hash(element));
+    }
+
+    @Override
+    protected boolean containsHash(final long hash){
+      //Check all available stages in reversed order
+      final Stage[] current = this.stages;
+      for(int i=current.length-1; i>=0; --i){
           //If one stage affirms the presence of the element,
           //then we can skip the rest of the
           //stages and return right away
-          if(stages[i].contains(hash)){
+          if(current[i].contains(hash)){
               return true;
           }
       }
@@ -293,7 +380,8 @@ public class ScalableBloomFilter<E> extends AbstractBloomFilter<E> {
      */
     @Override
     public boolean isEmpty(){
-        return ((stages.length == 1) && stages[0].isEmpty());
+        final Stage[] current = this.stages;
+        return ((current.length == 1) && current[0].isEmpty());
     }
 
     /**
@@ -309,8 +397,9 @@ public class ScalableBloomFilter<E> extends AbstractBloomFilter<E> {
     @Override
     public int approximateSize(){
         double size = 0.0;
-        for(int i=0; i<stages.length; ++i){
-            size += stages[i].approximateSize();
+        final Stage[] current = this.stages;
+        for(int i=0; i<current.length; ++i){
+            size += current[i].approximateSize();
         }
         return (int)size;
     }
@@ -326,8 +415,9 @@ public class ScalableBloomFilter<E> extends AbstractBloomFilter<E> {
     @Override
     public long sizeInBytes(){
         long size = 0;
-        for(int i=0; i<stages.length; ++i){
-            size += stages[i].sizeInBytes();
+        final Stage[] current = this.stages;
+        for(int i=0; i<current.length; ++i){
+            size += current[i].sizeInBytes();
         }
         return size;
     }
@@ -339,7 +429,8 @@ public class ScalableBloomFilter<E> extends AbstractBloomFilter<E> {
      */
     @Override
     public void clear(){
-        final Stage currentStage = stages[stages.length - 1];
+        final Stage[] current = this.stages;
+        final Stage currentStage = current[current.length - 1];
         currentStage.filter.clear();
         this.stages = new Stage[]{currentStage};
     }
@@ -367,8 +458,9 @@ public class ScalableBloomFilter<E> extends AbstractBloomFilter<E> {
         sb.append(nl);
         sb.append("Stages fill ratio (in bits):");
         sb.append(nl);
-        for(int i=0; i<stages.length; ++i){
-            final Stage s = stages[i];
+        final Stage[] current = this.stages;
+        for(int i=0; i<current.length; ++i){
+            final Stage s = current[i];
             sb.append("S");
             sb.append(i);
             sb.append(": ");
@@ -377,8 +469,8 @@ public class ScalableBloomFilter<E> extends AbstractBloomFilter<E> {
             sb.append(s.filter.size());
             sb.append(" (");
             sb.append(d.format(
-                    ((float)s.filter.bitsSet() /
-                     (float)s.filter.size())
+                    ((double)s.filter.bitsSet() /
+                     (double)s.filter.size())
                             * 100));
             
             sb.append("% full)");
@@ -394,35 +486,193 @@ public class ScalableBloomFilter<E> extends AbstractBloomFilter<E> {
     }
 
     /**
-     * Resizes the internal array of stages, creates a new Stage
-     * object and appends it to the resized array for further usage
+     * Adds all elements of the specified ScalableBloomFilter to this filter.
+     * After this operation, this filter affirms the presence of all elements
+     * which have been added to either of both filters. Each stage of this filter
+     * is combined with the stage of the specified filter at the same position,
+     * which requires both stages to have the same size. This is the case for
+     * filters which have been constructed with the same initial capacity,
+     * maximum error and scale factor. Stages of the specified filter which have
+     * no counterpart in this filter are copied and appended to this filter.
+     * The specified filter is not changed by this operation.<br>
+     * Stages which are combined might hold more elements than their capacity,
+     * which increases the false positive probability of this filter
      * 
-     * @return The newly allocated Stage
+     * @param other The <code>ScalableBloomFilter</code> whose elements to add
+     *              to this filter. Must not be null
+     * @return This ScalableBloomFilter
+     * @throws IllegalArgumentException If the specified filter is null or
+     *                                  not compatible with this filter
+     * @since 4.1.0
      */
-    private Stage resize(){
-        final Stage stage = stages[stages.length - 1];
-        final Stage newStage = new Stage(this,
-                (stage.capacity * scaleFactor),
-                (stage.errorRate * tighteningRatio));
+    public ScalableBloomFilter<E> union(final ScalableBloomFilter<E> other){
+        if(other == null){
+            throw new IllegalArgumentException("Filter argument must not be null");
+        }
+        final Stage[] current = this.stages;
+        final Stage[] others = other.stages();
+        final int common = Math.min(current.length, others.length);
+        for(int i=0; i<common; ++i){
+            if(!current[i].isCompatible(others[i])){
+                throw new IllegalArgumentException(
+                        "Bloom filters must have stages of the same size");
+            }
+        }
+        if(other == this){
+            return this;
+        }
+        for(int i=0; i<common; ++i){
+            current[i].or(others[i]);
+        }
+        if(others.length > current.length){
+            final Stage[] tmp = Arrays.copyOf(current, others.length);
+            for(int i=current.length; i<others.length; ++i){
+                tmp[i] = new Stage(this, others[i]);
+                tmp[i].or(others[i]);
+            }
+            this.stages = tmp;
+        }
+        return this;
+    }
 
-        append(newStage);
-        return newStage;
+    /**
+     * Writes this ScalableBloomFilter to the specified OutputStream in a versioned
+     * binary format. The format holds the configuration of this filter and
+     * the bits of all of its stages. The Serializer of this filter is not written.
+     * 
+     * <p>The output stream will be closed automatically before this method returns
+     * 
+     * @param os The <code>OutputStream</code> to write this filter to.
+     *           Must not be null
+     * @throws IOException If any errors occur when writing to the output stream
+     * @since 4.1.0
+     */
+    public void writeTo(final OutputStream os) throws IOException{
+        if(os == null){
+            throw new IllegalArgumentException("OutputStream argument must not be null");
+        }
+        final Stage[] current = this.stages;
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))){
+            BloomFilterFormat.writeHeader(out, BloomFilterFormat.TYPE_SCALABLE);
+            out.writeDouble(maxError0);
+            out.writeInt(scaleFactor);
+            out.writeDouble(tighteningRatio);
+            out.writeBoolean(offHeap);
+            out.writeInt(current.length);
+            for(final Stage stage : current){
+                out.writeLong(stage.capacity);
+                out.writeDouble(stage.errorRate);
+                out.writeInt(stage.slices);
+                out.writeLong(stage.sliceSize);
+                BloomFilterFormat.writeWords(out, stage.filter);
+            }
+        }
+    }
+
+    /**
+     * Reads a ScalableBloomFilter from the specified InputStream. The bytes must
+     * have been written by the {@link #writeTo(OutputStream)} method. The stages
+     * of the returned filter are stored in direct memory if the stages
+     * of the written filter were stored in direct memory.
+     * 
+     * <p>The input stream will be closed automatically before this method returns
+     * 
+     * @param <E> The type of elements of the returned filter
+     * @param is The <code>InputStream</code> to read from. Must not be null
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the returned
+     *                   ScalableBloomFilter. Should be equal to the Serializer
+     *                   of the written filter
+     * @return A <code>ScalableBloomFilter</code> read from the specified InputStream
+     * @throws IOException If any errors occur when reading from the input stream
+     * @throws SerializationException If the bytes from the input stream
+     *                                do not constitute a ScalableBloomFilter
+     * @since 4.1.0
+     */
+    public static <E> ScalableBloomFilter<E> readFrom(final InputStream is,
+            final Serializer<E> serializer) throws IOException{
+
+        if(is == null){
+            throw new IllegalArgumentException("InputStream argument must not be null");
+        }
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(is))){
+            BloomFilterFormat.readHeader(in, BloomFilterFormat.TYPE_SCALABLE);
+            final double maxError = in.readDouble();
+            final int scaleFactor = in.readInt();
+            final double tighteningRatio = in.readDouble();
+            final boolean offHeap = in.readBoolean();
+            final int length = in.readInt();
+            if((maxError <= 0) || (maxError >= 1.0) || (scaleFactor <= 1)
+                    || (tighteningRatio <= 0) || (length <= 0)){
+
+                throw new SerializationException("Invalid Bloom filter parameters");
+            }
+            final ScalableBloomFilter<E> filter = new ScalableBloomFilter<E>(
+                    serializer, maxError, scaleFactor, tighteningRatio, offHeap, length);
+
+            for(int i=0; i<length; ++i){
+                final long capacity = in.readLong();
+                final double errorRate = in.readDouble();
+                final int slices = in.readInt();
+                final long sliceSize = in.readLong();
+                if((capacity < 0) || (slices <= 0) || (sliceSize <= 0)
+                        || (sliceSize > (Long.MAX_VALUE / slices))){
+
+                    throw new SerializationException("Invalid Bloom filter stage parameters");
+                }
+                final Stage stage = new Stage(filter, capacity, errorRate, slices, sliceSize);
+                BloomFilterFormat.readWords(in, stage.filter);
+                filter.stages[i] = stage;
+            }
+            if(in.read() != -1){
+                throw new SerializationException("Trailing bytes after Bloom filter data");
+            }
+            return filter;
+        }catch(EOFException ex){
+            throw new SerializationException("Bloom filter data is truncated", ex);
+        }
     }
 
     /**
-     * Resizes the internal array to hold the specified Stage and appends
-     * it to the array
+     * Creates a new Stage object and publishes a copy of the specified array
+     * of stages with the new Stage appended to it for further usage
      * 
-     * @param stage The new stage to append to the internal array of stages
+     * @param current The array of stages the new Stage is appended to
+     * @return The newly allocated Stage
      */
-    private void append(final Stage stage){
-        final int length = stages.length;
+    Stage grow(final Stage[] current){
+        final int length = current.length;
+        final Stage stage = current[length - 1];
+        final Stage newStage = new Stage(this, current,
+                (stage.capacity * scaleFactor),
+                (stage.errorRate * tighteningRatio));
+
         final Stage[] tmp = new Stage[length + 1];
         for(int i=0; i<length; ++i){
-            tmp[i] = stages[i];
+            tmp[i] = current[i];
         }
+        tmp[length] = newStage;
         this.stages = tmp;
-        stages[length] = stage;
+        return newStage;
+    }
+
+    /**
+     * Returns the array of stages currently used by this filter
+     * 
+     * @return The current array of stages
+     */
+    Stage[] stages(){
+        return this.stages;
+    }
+
+    /**
+     * Allocates the bit store of a Stage of this filter
+     * 
+     * @param size The number of bits to allocate
+     * @return A <code>BitStore</code> with the specified number of bits
+     */
+    BitStore allocate(final long size){
+        return offHeap ? LargeBitSet.allocate(size) : new HeapBitStore(size);
     }
 
     /**
@@ -430,41 +680,69 @@ public class ScalableBloomFilter<E> extends AbstractBloomFilter<E> {
      * it to grow dynamically as a whole.
      *
      */
-    private static class Stage {
+    static final class Stage {
 
-        private final BitVector filter;
+        private final BitStore filter;
         private final double errorRate;
         private final int slices;
-        private final int sliceSize;
-        private final int capacity;
+        private final long sliceSize;
+        private final long capacity;
+
+        private Stage(final ScalableBloomFilter<?> parent, final long capacity,
+                final double errorRate){
 
-        private Stage(final int capacity, final double errorRate){
             this.capacity = capacity;
             this.errorRate = errorRate;
             this.slices = log2(1.0 / errorRate);
-            this.sliceSize = (int) Math.ceil((capacity * Math.abs(
-                    Math.log(errorRate))) / (slices * 0.480453014));//const: ln(2)^2
-
-            final int vectorSize = (slices * sliceSize);
-            this.filter = BitVector.createInitialized(vectorSize, false);
+            this.sliceSize = StaticBloomFilter.sliceSize(capacity, errorRate, slices);
+            this.filter = parent.allocate(slices * sliceSize);
         }
 
-        private Stage(final ScalableBloomFilter<?> parent, final int capacity,
-                final double errorRate){
+        private Stage(final ScalableBloomFilter<?> parent, final Stage[] stages,
+                final long capacity, final double errorRate){
 
             this.capacity = capacity;
             this.errorRate = errorRate;
             final int scaleMode = parent.scaleFactor;
-            final int m0 = parent.stages[0].sliceSize;
-            final int k0 = parent.stages[0].slices;
-            final int i = parent.stages.length + 1;
+            final long m0 = stages[0].sliceSize;
+            final int k0 = stages[0].slices;
+            final int i = stages.length + 1;
             final double tighteningRatio = 0.9;
             this.slices = (int) Math.round(
                     Math.ceil(k0 + (i * log2(1.0 / tighteningRatio))));
             
-            this.sliceSize = (int) Math.ceil((m0 * (Math.pow(scaleMode, i - 1))));
-            final int vectorSize = (slices * sliceSize);
-            this.filter = BitVector.createInitialized(vectorSize, false);
+            this.sliceSize = (long) Math.ceil((m0 * (Math.pow(scaleMode, i - 1))));
+            this.filter = parent.allocate(slices * sliceSize);
+        }
+
+        /**
+         * Constructs a new empty Stage with the specified dimensions
+         * 
+         * @param parent The filter which allocates the bits of the Stage
+         * @param capacity The capacity of the Stage
+         * @param errorRate The maximum error rate of the Stage
+         * @param slices The number of slices of the Stage
+         * @param sliceSize The number of bits of each slice
+         */
+        private Stage(final ScalableBloomFilter<?> parent, final long capacity,
+                final double errorRate, final int slices, final long sliceSize){
+
+            this.capacity = capacity;
+            this.errorRate = errorRate;
+            this.slices = slices;
+            this.sliceSize = sliceSize;
+            this.filter = parent.allocate(slices * sliceSize);
+        }
+
+        /**
+         * Constructs a new empty Stage with the same dimensions
+         * as the specified Stage
+         * 
+         * @param parent The filter which allocates the bits of the Stage
+         * @param other The Stage whose dimensions to copy
+         */
+        private Stage(final ScalableBloomFilter<?> parent, final Stage other){
+            this(parent, other.capacity, other.errorRate, other.slices, other.sliceSize);
         }
 
         /**
@@ -490,16 +768,20 @@ public class ScalableBloomFilter<E> extends AbstractBloomFilter<E> {
          * Adds the specified hash to this Stage
          * 
          * @param hash The hash value to be added to this Stage
+         * @return True if at least one bit was set by this operation,
+         *         false if all bits of the hash were already set
          */
-        private void put(final long hash){
-            int h1 = (int) hash;
-            final int h2 = (int) (hash >>> 32);
-            int offset = 0;
+        boolean put(final long hash){
+            long combined = hash;
+            final long step = Long.rotateLeft(hash, 32);
+            long offset = 0;
+            boolean changed = false;
             for(int i=0; i<slices; ++i){
-                filter.set(((h1 & 0x7fffffff) % sliceSize) + offset, true);
-                h1 += h2;
+                changed |= filter.set(((combined & Long.MAX_VALUE) % sliceSize) + offset);
+                combined += step;
                 offset += sliceSize;
             }
+            return changed;
         }
 
         /**
@@ -510,15 +792,15 @@ public class ScalableBloomFilter<E> extends AbstractBloomFilter<E> {
          * @return True if the specified hash value might have been added to
          *         this Stage, false if it is definitely not in this Stage
          */
-        private boolean contains(final long hash){
-            int h1 = (int) hash;
-            final int h2 = (int) (hash >>> 32);
-            int offset = 0;
+        boolean contains(final long hash){
+            long combined = hash;
+            final long step = Long.rotateLeft(hash, 32);
+            long offset = 0;
             for(int i=0; i<slices; ++i){
-                if(!filter.get(((h1 & 0x7fffffff) % sliceSize) + offset)){
+                if(!filter.get(((combined & Long.MAX_VALUE) % sliceSize) + offset)){
                     return false;
                 }
-                h1 += h2;
+                combined += step;
                 offset += sliceSize;
             }
             return true;
@@ -540,7 +822,21 @@ public class ScalableBloomFilter<E> extends AbstractBloomFilter<E> {
          * @return True if this Stage's fill ration is over the
          *         maximum allowed value, false otherwise
          */
-        private boolean isFull(){
+        private boolean isCompatible(final Stage other){
+            return ((slices == other.slices) && (sliceSize == other.sliceSize));
+        }
+
+        private void or(final Stage other){
+            final long words = BloomFilterFormat.words(filter.size());
+            for(long i=0; i<words; ++i){
+                final long word = other.filter.getWord(i);
+                if(word != 0){
+                    filter.orWord(i, word);
+                }
+            }
+        }
+
+        boolean isFull(){
             return (filter.bitsSet() > (filter.size() / 2));
         }
 
@@ -561,10 +857,9 @@ public class ScalableBloomFilter<E> extends AbstractBloomFilter<E> {
          * @return The number of bytes that this Stage has allocated in memory
          */
         private long sizeInBytes(){
-            //Capacity of the BitVector
-            // + 8 bytes for internally used vars in the BitVector
-            // + 20 bytes for internally used vars in this Stage
-            return filter.asArray().length + 28;
+            //Size of the bit store
+            // + 28 bytes for internally used vars in this Stage
+            return filter.sizeInBytes() + 28;
         }
 
         /**
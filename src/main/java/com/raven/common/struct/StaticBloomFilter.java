@@ -16,8 +16,20 @@
 
 package com.raven.common.struct;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.DecimalFormat;
+import java.util.function.LongFunction;
 
+import com.raven.common.io.SerializationException;
 import com.raven.common.io.Serializer;
 
 /**
@@ -56,11 +68,31 @@ import com.raven.common.io.Serializer;
  * elements to a StaticBloomFilter than the specified capacity will result
  * in a rapidly increasing false positive rate.
  * 
+ * <p>By default, the bits of a StaticBloomFilter are stored on the Java heap,
+ * which limits its size to roughly 2^37 bits. Filters for billions of elements
+ * can be constructed with a {@link LargeBitSet}, which stores the bits
+ * in direct memory or in a memory-mapped file. The number of bits such a set
+ * must hold is computed by {@link #requiredBits(long, double)}. A filter
+ * constructed with a file-backed LargeBitSet persists all added elements and
+ * can be reconstructed later by mapping the same file with the same capacity
+ * and maximum error. The hash values of all elements are expanded to 64-bit
+ * probe sequences, so that all slices can be addressed regardless of their size.
+ * 
+ * <p>A StaticBloomFilter can be persisted in a compact binary format by means
+ * of the {@link #writeTo(OutputStream)} method and be restored by
+ * {@link #readFrom(InputStream, Serializer)}. A file holding a persisted filter
+ * can also be memory-mapped by {@link #map(File, Serializer)}, which makes the
+ * filter available without reading all of its bits. Filters with the same
+ * capacity and maximum error, for example filters built on different shards
+ * of a data set, can be combined by {@link #union(StaticBloomFilter)} and
+ * {@link #intersect(StaticBloomFilter)}.
+ * 
  * <p>A StaticBloomFilter cannot be used with null elements. Passing null
  * to either the <code>add()</code> or <code>contains()</code> method will
  * result in a <code>NullPointerException</code> being thrown.
  * 
- * <p>This implementation is NOT thread-safe.
+ * <p>This implementation is NOT thread-safe. A {@link ConcurrentStaticBloomFilter}
+ * can be shared by multiple threads without external synchronization.
  * 
  * @author Phil Gaiser
  * @see ScalableBloomFilter
@@ -70,10 +102,13 @@ import com.raven.common.io.Serializer;
  */
 public class StaticBloomFilter<E> extends AbstractBloomFilter<E> {
 
-    private final BitVector filter;
-    private final int capacity;
+    /** The position of the first word within a persisted filter **/
+    private static final int MAPPED_HEADER_BYTES = BloomFilterFormat.HEADER_BYTES + 24;
+
+    private final BitStore filter;
+    private final long capacity;
     private final int slices;
-    private final int sliceSize;
+    private final long sliceSize;
 
     /**
      * Constructs a new <code>StaticBloomFilter</code> with a capacity
@@ -128,14 +163,108 @@ public class StaticBloomFilter<E> extends AbstractBloomFilter<E> {
     public StaticBloomFilter(final Serializer<E> serializer,
             final int capacity, final double maxError){
 
+        this(serializer, capacity, maxError, HeapBitStore::new);
+    }
+
+    /**
+     * Constructs a new <code>StaticBloomFilter</code> with the specified
+     * capacity and maximum allowed false positive probability which stores
+     * its bits in the specified <code>LargeBitSet</code>. The size of the
+     * LargeBitSet must be equal to the value returned by
+     * {@link #requiredBits(long, double)} for the specified capacity and maximum
+     * error. All bits which are already set in the LargeBitSet are
+     * retained, for example when it is backed by a file of a
+     * previously constructed filter.<br>
+     * Adding more elements to the constructed filter than the specified
+     * capacity will result in the actual false positive rate to
+     * exceed the maximum allowed value
+     * 
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the constructed
+     *                   StaticBloomFilter
+     * @param capacity The number of elements the constructed
+     *                 StaticBloomFilter should be able to hold
+     * @param maxError The maximum allowed false positive probability the
+     *                  constructed StaticBloomFilter should adhere to
+     * @param bits The <code>LargeBitSet</code> to store the bits of the
+     *             constructed StaticBloomFilter in. Must not be null
+     * @throws IllegalArgumentException If the size of the specified LargeBitSet
+     *                                  does not match the specified capacity
+     *                                  and maximum error
+     * @since 4.1.0
+     */
+    public StaticBloomFilter(final Serializer<E> serializer, final long capacity,
+            final double maxError, final LargeBitSet bits){
+
+        this(serializer, capacity, maxError, (size) -> {
+            if(bits == null){
+                throw new IllegalArgumentException("LargeBitSet argument must not be null");
+            }
+            if(bits.size() != size){
+                throw new IllegalArgumentException(String.format(
+                        "LargeBitSet must have a size of %s bits but has %s bits",
+                        size, bits.size()));
+            }
+            return bits;
+        });
+    }
+
+    /**
+     * Constructs a new <code>StaticBloomFilter</code> with the specified
+     * capacity and maximum allowed false positive probability which stores
+     * its bits in the <code>BitStore</code> returned by the specified function
+     * 
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the constructed
+     *                   StaticBloomFilter
+     * @param capacity The number of elements the constructed
+     *                 StaticBloomFilter should be able to hold
+     * @param maxError The maximum allowed false positive probability the
+     *                  constructed StaticBloomFilter should adhere to
+     * @param allocator The function returning the <code>BitStore</code>
+     *                  for a given number of bits
+     */
+    StaticBloomFilter(final Serializer<E> serializer, final long capacity,
+            final double maxError, final LongFunction<BitStore> allocator){
+
         super(serializer);
         this.capacity = capacity;
         this.slices = log2(1.0 / maxError);
-        this.sliceSize = (int) Math.ceil((capacity * Math.abs(
-                Math.log(maxError))) / (slices * 0.480453014));//const: ln(2)^2
+        this.sliceSize = sliceSize(capacity, maxError, slices);
+        this.filter = allocator.apply(slices * sliceSize);
+    }
+
+    /**
+     * Constructs a new empty <code>StaticBloomFilter</code> on the heap with
+     * the same configuration as the specified filter
+     * 
+     * @param other The filter whose configuration to copy
+     */
+    private StaticBloomFilter(final StaticBloomFilter<E> other){
+        this(other.serializer, other.capacity, other.slices, other.sliceSize,
+                new HeapBitStore(other.filter.size()));
+    }
+
+    /**
+     * Constructs a new <code>StaticBloomFilter</code> with the specified
+     * configuration which stores its bits in the specified <code>BitStore</code>
+     * 
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the constructed
+     *                   StaticBloomFilter
+     * @param capacity The capacity of the constructed StaticBloomFilter
+     * @param slices The number of slices of the constructed StaticBloomFilter
+     * @param sliceSize The number of bits of each slice
+     * @param filter The BitStore holding <code>slices * sliceSize</code> bits
+     */
+    private StaticBloomFilter(final Serializer<E> serializer, final long capacity,
+            final int slices, final long sliceSize, final BitStore filter){
 
-        final int vectorSize = (slices * sliceSize);
-        this.filter = BitVector.createInitialized(vectorSize, false);
+        super(serializer);
+        this.capacity = capacity;
+        this.slices = slices;
+        this.sliceSize = sliceSize;
+        this.filter = filter;
     }
 
     /**
@@ -150,7 +279,7 @@ public class StaticBloomFilter<E> extends AbstractBloomFilter<E> {
      */
     @Override
     public void add(E element){
-        put(hash(element));
+        addHash(hash(element));
     }
 
     /**
@@ -177,7 +306,7 @@ public class StaticBloomFilter<E> extends AbstractBloomFilter<E> {
      */
     @Override
     public boolean contains(E element){
-        return contains(hash(element));
+        return containsHash(hash(element));
     }
 
     /**
@@ -204,7 +333,7 @@ public class StaticBloomFilter<E> extends AbstractBloomFilter<E> {
      */
     @Override
     public int approximateSize(){
-        return (int) (-sliceSize * Math.log(1 - fillRatio()));
+        return (int) (-sliceSize * Math.log(1 - fillRatio()));//saturated cast
     }
 
     /**
@@ -216,10 +345,9 @@ public class StaticBloomFilter<E> extends AbstractBloomFilter<E> {
      */
     @Override
     public long sizeInBytes(){
-        //Capacity of the BitVector
-        // + 8 bytes for internally used vars in the BitVector
-        // + 12 bytes for internally used vars in this instance
-        return this.filter.asArray().length + 20;
+        //Size of the bit store
+        // + 20 bytes for internally used vars in this instance
+        return this.filter.sizeInBytes() + 20;
     }
 
     /**
@@ -244,15 +372,15 @@ public class StaticBloomFilter<E> extends AbstractBloomFilter<E> {
         final StringBuilder sb = new StringBuilder();
         final String nl = System.lineSeparator();
         final DecimalFormat d = new DecimalFormat("0.000");
-        final int  totalSize = filter.size();
-        final int bitsSet = filter.bitsSet();
+        final long totalSize = filter.size();
+        final long bitsSet = filter.bitsSet();
         final long sizeBytes = sizeInBytes();
         sb.append("Filter: ");
-        sb.append(filter.bitsSet());
+        sb.append(bitsSet);
         sb.append("/");
         sb.append(totalSize);
         sb.append(" (");
-        sb.append(d.format(((float)bitsSet / (float)totalSize) * 100));
+        sb.append(d.format(((double)bitsSet / (double)totalSize) * 100));
         sb.append("% full)");
         sb.append(nl);
         sb.append("Total size: ");
@@ -266,52 +394,295 @@ public class StaticBloomFilter<E> extends AbstractBloomFilter<E> {
     /**
      * Gets the capacity of this static Bloom filter. The capacity
      * for a static bloom filter cannot change and denotes the maximum
-     * number of elements that should be added to the filter
+     * number of elements that should be added to the filter.<br>
+     * If the capacity exceeds <code>Integer.MAX_VALUE</code>, then
+     * <code>Integer.MAX_VALUE</code> is returned
      * 
      * @return The capacity of this StaticBloomFilter
      */
     public int getCapacity(){
-        return this.capacity;
+        return (int) Math.min(this.capacity, Integer.MAX_VALUE);
     }
 
     /**
-     * Adds the specified hash to the filter
+     * Computes the number of bits a StaticBloomFilter with the specified
+     * capacity and maximum allowed false positive probability requires.
+     * This is the size of the {@link LargeBitSet} which must be passed to
+     * the constructor of such a filter
      * 
-     * @param hash The hash value to be added to the filter
+     * @param capacity The number of elements the filter should be able to hold
+     * @param maxError The maximum allowed false positive probability the
+     *                 filter should adhere to
+     * @return The number of bits of a StaticBloomFilter with the
+     *         specified capacity and maximum error
+     * @since 4.1.0
      */
-    private void put(final long hash){
-        int h1 = (int) hash;
-        final int h2 = (int) (hash >>> 32);
-        int offset = 0;
-        for(int i=0; i<slices; ++i){
-            filter.set(((h1 & 0x7fffffff) % sliceSize) + offset, true);
-            h1 += h2;
-            offset += sliceSize;
-        }
+    public static long requiredBits(final long capacity, final double maxError){
+        final int slices = log2(1.0 / maxError);
+        return (slices * sliceSize(capacity, maxError, slices));
     }
 
     /**
-     * Indicates whether the specified hash might have
-     * been added to this Stage
+     * Computes the size of each slice of a filter with the specified
+     * capacity and maximum error
      * 
-     * @param hash The hash value to check
-     * @return True if the specified hash value might have been added to
-     *         this Stage, false if it is definitely not in this Stage
+     * @param capacity The capacity of the filter
+     * @param maxError The maximum allowed false positive probability
+     * @param slices The number of slices of the filter
+     * @return The number of bits of each slice
      */
-    private boolean contains(final long hash){
-        int h1 = (int) hash;
-        final int h2 = (int) (hash >>> 32);
-        int offset = 0;
+    static long sliceSize(final long capacity, final double maxError,
+            final int slices){
+
+        return (long) Math.ceil((capacity * Math.abs(
+                Math.log(maxError))) / (slices * 0.480453014));//const: ln(2)^2
+    }
+
+    @Override
+    protected void addHash(final long hash){
+        long combined = hash;
+        final long step = Long.rotateLeft(hash, 32);
+        long offset = 0;
+        for(int i=0; i<slices; ++i){
+            filter.set(((combined & Long.MAX_VALUE) % sliceSize) + offset);
+            combined += step;
+            offset += sliceSize;
+        }
+    }
+
+    @Override
+    protected boolean containsHash(final long hash){
+        long combined = hash;
+        final long step = Long.rotateLeft(hash, 32);
+        long offset = 0;
         for(int i=0; i<slices; ++i){
-            if(!filter.get(((h1 & 0x7fffffff) % sliceSize) + offset)){
+            if(!filter.get(((combined & Long.MAX_VALUE) % sliceSize) + offset)){
                 return false;
             }
-            h1 += h2;
+            combined += step;
             offset += sliceSize;
         }
         return true;
     }
 
+    /**
+     * Adds all elements of the specified StaticBloomFilter to this filter.
+     * After this operation, this filter affirms the presence of all elements
+     * which have been added to either of both filters. The specified
+     * filter must have been constructed with the same capacity and
+     * maximum error as this filter. It is not changed by this operation
+     * 
+     * @param other The <code>StaticBloomFilter</code> whose elements to add
+     *              to this filter. Must not be null
+     * @return This StaticBloomFilter
+     * @throws IllegalArgumentException If the specified filter is null or
+     *                                  not compatible with this filter
+     * @since 4.1.0
+     */
+    public StaticBloomFilter<E> union(final StaticBloomFilter<E> other){
+        checkCompatible(other);
+        final BitStore bits = other.filter;
+        final long words = BloomFilterFormat.words(filter.size());
+        for(long i=0; i<words; ++i){
+            final long word = bits.getWord(i);
+            if(word != 0){
+                filter.orWord(i, word);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Retains only the bits of this filter which are also set in the specified
+     * StaticBloomFilter. After this operation, this filter affirms the presence
+     * of all elements which have been added to both filters. The probability of
+     * false positives of the intersection can be higher than the probability of a
+     * filter to which only the common elements have been added. The specified
+     * filter must have been constructed with the same capacity and
+     * maximum error as this filter. It is not changed by this operation
+     * 
+     * @param other The <code>StaticBloomFilter</code> to intersect this
+     *              filter with. Must not be null
+     * @return This StaticBloomFilter
+     * @throws IllegalArgumentException If the specified filter is null or
+     *                                  not compatible with this filter
+     * @since 4.1.0
+     */
+    public StaticBloomFilter<E> intersect(final StaticBloomFilter<E> other){
+        checkCompatible(other);
+        final BitStore bits = other.filter;
+        final long words = BloomFilterFormat.words(filter.size());
+        for(long i=0; i<words; ++i){
+            filter.andWord(i, bits.getWord(i));
+        }
+        return this;
+    }
+
+    /**
+     * Writes this StaticBloomFilter to the specified OutputStream in a versioned
+     * binary format. The format holds the configuration of this filter and
+     * all of its bits. The Serializer of this filter is not written.
+     * 
+     * <p>The output stream will be closed automatically before this method returns
+     * 
+     * @param os The <code>OutputStream</code> to write this filter to.
+     *           Must not be null
+     * @throws IOException If any errors occur when writing to the output stream
+     * @since 4.1.0
+     */
+    public void writeTo(final OutputStream os) throws IOException{
+        if(os == null){
+            throw new IllegalArgumentException("OutputStream argument must not be null");
+        }
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))){
+            BloomFilterFormat.writeHeader(out, BloomFilterFormat.TYPE_STATIC);
+            out.writeLong(capacity);
+            out.writeInt(slices);
+            out.writeInt(0);
+            out.writeLong(sliceSize);
+            BloomFilterFormat.writeWords(out, filter);
+        }
+    }
+
+    @Override
+    Partition<E> partition(){
+        if(filter.size() > HeapBitStore.MAX_SIZE){
+            return null;
+        }
+        final StaticBloomFilter<E> partition = new StaticBloomFilter<E>(this);
+        return new Partition<E>(partition, () -> union(partition));
+    }
+
+    /**
+     * Reads a StaticBloomFilter from the specified InputStream. The bytes must
+     * have been written by the {@link #writeTo(OutputStream)} method. The bits
+     * of the returned filter are stored on the heap.
+     * 
+     * <p>The input stream will be closed automatically before this method returns
+     * 
+     * @param <E> The type of elements of the returned filter
+     * @param is The <code>InputStream</code> to read from. Must not be null
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the returned
+     *                   StaticBloomFilter. Should be equal to the Serializer
+     *                   of the written filter
+     * @return A <code>StaticBloomFilter</code> read from the specified InputStream
+     * @throws IOException If any errors occur when reading from the input stream
+     * @throws SerializationException If the bytes from the input stream
+     *                                do not constitute a StaticBloomFilter
+     * @since 4.1.0
+     */
+    public static <E> StaticBloomFilter<E> readFrom(final InputStream is,
+            final Serializer<E> serializer) throws IOException{
+
+        if(is == null){
+            throw new IllegalArgumentException("InputStream argument must not be null");
+        }
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(is))){
+            BloomFilterFormat.readHeader(in, BloomFilterFormat.TYPE_STATIC);
+            final long capacity = in.readLong();
+            final int slices = in.readInt();
+            in.readInt();
+            final long sliceSize = in.readLong();
+            final long size = checkParameters(capacity, slices, sliceSize);
+            if(size > HeapBitStore.MAX_SIZE){
+                throw new SerializationException(
+                        "Bloom filter is too large for the heap: " + size + " bits");
+            }
+            final BitStore filter = new HeapBitStore(size);
+            BloomFilterFormat.readWords(in, filter);
+            if(in.read() != -1){
+                throw new SerializationException("Trailing bytes after Bloom filter data");
+            }
+            return new StaticBloomFilter<E>(serializer, capacity, slices, sliceSize, filter);
+        }catch(EOFException ex){
+            throw new SerializationException("Bloom filter data is truncated", ex);
+        }
+    }
+
+    /**
+     * Maps the specified file holding a StaticBloomFilter into memory. The file
+     * must have been written by the {@link #writeTo(OutputStream)} method.
+     * Only the header of the file is read by this method. The bits of the
+     * returned filter are stored in a memory-mapped {@link LargeBitSet}, so all
+     * elements added to the returned filter are written through to the file
+     * by the operating system
+     * 
+     * @param <E> The type of elements of the returned filter
+     * @param file The file to map. Must not be null
+     * @param serializer The <code>Serializer</code> instance to use to
+     *                   serialize the elements used by the returned
+     *                   StaticBloomFilter. Should be equal to the Serializer
+     *                   of the written filter
+     * @return A <code>StaticBloomFilter</code> backed by the specified file
+     * @throws IOException If the file cannot be read or mapped
+     * @throws SerializationException If the file does not hold
+     *                                a StaticBloomFilter
+     * @since 4.1.0
+     */
+    public static <E> StaticBloomFilter<E> map(final File file,
+            final Serializer<E> serializer) throws IOException{
+
+        if(file == null){
+            throw new IllegalArgumentException("File argument must not be null");
+        }
+        final long capacity;
+        final int slices;
+        final long sliceSize;
+        try(DataInputStream in = new DataInputStream(new FileInputStream(file))){
+            BloomFilterFormat.readHeader(in, BloomFilterFormat.TYPE_STATIC);
+            capacity = in.readLong();
+            slices = in.readInt();
+            in.readInt();
+            sliceSize = in.readLong();
+        }catch(EOFException ex){
+            throw new SerializationException("Bloom filter data is truncated", ex);
+        }
+        final long size = checkParameters(capacity, slices, sliceSize);
+        final long expected = (MAPPED_HEADER_BYTES + (BloomFilterFormat.words(size) << 3));
+        if(file.length() != expected){
+            throw new SerializationException(String.format(
+                    "File size of %s bytes does not match expected size of %s bytes",
+                    file.length(), expected));
+        }
+        final LargeBitSet bits = LargeBitSet.map(file, MAPPED_HEADER_BYTES, size);
+        return new StaticBloomFilter<E>(serializer, capacity, slices, sliceSize, bits);
+    }
+
+    /**
+     * Validates the specified parameters of a persisted filter
+     * 
+     * @param capacity The capacity of the filter
+     * @param slices The number of slices of the filter
+     * @param sliceSize The number of bits of each slice
+     * @return The total number of bits of the filter
+     */
+    private static long checkParameters(final long capacity, final int slices,
+            final long sliceSize){
+
+        if((capacity < 0) || (slices <= 0) || (sliceSize <= 0)
+                || (sliceSize > (Long.MAX_VALUE / slices))){
+
+            throw new SerializationException("Invalid Bloom filter parameters");
+        }
+        return (slices * sliceSize);
+    }
+
+    /**
+     * Checks that the specified filter can be combined with this filter
+     * 
+     * @param other The filter to check
+     */
+    private void checkCompatible(final StaticBloomFilter<E> other){
+        if(other == null){
+            throw new IllegalArgumentException("Filter argument must not be null");
+        }
+        if((other.slices != slices) || (other.sliceSize != sliceSize)){
+            throw new IllegalArgumentException(
+                    "Bloom filters must have the same capacity and maximum error");
+        }
+    }
+
     /**
      * Returns the fill ratio of this filter
      * 
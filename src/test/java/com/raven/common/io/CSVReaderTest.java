@@ -18,10 +18,21 @@ package com.raven.common.io;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -29,14 +40,21 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.raven.common.struct.BooleanColumn;
+import com.raven.common.struct.ByteColumn;
+import com.raven.common.struct.CharColumn;
 import com.raven.common.struct.DataFrame;
 import com.raven.common.struct.DefaultDataFrame;
 import com.raven.common.struct.DoubleColumn;
 import com.raven.common.struct.IntColumn;
+import com.raven.common.struct.LongColumn;
 import com.raven.common.struct.NullableDataFrame;
+import com.raven.common.struct.NullableByteColumn;
+import com.raven.common.struct.NullableCharColumn;
 import com.raven.common.struct.NullableDoubleColumn;
 import com.raven.common.struct.NullableIntColumn;
 import com.raven.common.struct.NullableStringColumn;
+import com.raven.common.struct.ShortColumn;
 import com.raven.common.struct.StringColumn;
 
 /**
@@ -248,4 +266,985 @@ public class CSVReaderTest {
         csv.readAsync();
         csv.readAsync();
     }
+
+    @Test
+    public void testReadQuotedValues() throws IOException{
+        String csv = "A;B;C\n"
+                + "\"a;1\";\"say \"\"hi\"\"\";\"\"\n"
+                + "\"multi\nline\";plain;\"x\"\n";
+
+        DataFrame df = new CSVReader(stream(csv)).useSeparator(';').read();
+        DataFrame expected = new DefaultDataFrame(
+                new StringColumn("A", new String[]{"a;1", "multi\nline"}),
+                new StringColumn("B", new String[]{"say \"hi\"", "plain"}),
+                new StringColumn("C", new String[]{"", "x"}));
+
+        assertEquals("DataFrames do not match", expected, df);
+    }
+
+    @Test
+    public void testReadLineTerminators() throws IOException{
+        String csv = "A,B\r\n1,2\r\n\r\n3,4\r5,6";
+        DataFrame df = new CSVReader(stream(csv))
+                .useColumnTypes(Integer.class, Integer.class)
+                .read();
+
+        DataFrame expected = new DefaultDataFrame(
+                new IntColumn("A", new int[]{1,3,5}),
+                new IntColumn("B", new int[]{2,4,6}));
+
+        assertEquals("DataFrames do not match", expected, df);
+    }
+
+    @Test
+    public void testReadEmptyFields() throws IOException{
+        String csv = ",b,\nnull,,\"null\"\n";
+        DataFrame df = new CSVReader(stream(csv)).withHeader(false).read();
+        DataFrame expected = new NullableDataFrame(
+                new NullableStringColumn(new String[]{null, null}),
+                new NullableStringColumn(new String[]{"b", null}),
+                new NullableStringColumn(new String[]{null, "null"}));
+
+        assertEquals("DataFrames do not match", expected, df);
+    }
+
+    @Test
+    public void testReadPrimitiveTypes() throws IOException{
+        String csv = "A,B,C,D,E,F\n"
+                + "-128,32767,-2147483648,9223372036854775807,TRUE,x\n"
+                + "+5,-1,0,-9223372036854775808,false,\"y\"\n";
+
+        DataFrame df = new CSVReader(stream(csv))
+                .useColumnTypes(Byte.class, Short.class, Integer.class,
+                        Long.class, Boolean.class, Character.class)
+                .read();
+
+        DataFrame expected = new DefaultDataFrame(
+                new ByteColumn("A", new byte[]{-128, 5}),
+                new ShortColumn("B", new short[]{32767, -1}),
+                new IntColumn("C", new int[]{Integer.MIN_VALUE, 0}),
+                new LongColumn("D", new long[]{Long.MAX_VALUE, Long.MIN_VALUE}),
+                new BooleanColumn("E", new boolean[]{true, false}),
+                new CharColumn("F", new char[]{'x', 'y'}));
+
+        assertEquals("DataFrames do not match", expected, df);
+    }
+
+    @Test
+    public void testReadLongLine() throws IOException{
+        StringBuilder sb = new StringBuilder();
+        for(int i=0; i<20000; ++i){
+            if(i > 0){
+                sb.append(',');
+            }
+            sb.append('"').append(i).append('"');
+        }
+        String line = sb.toString();
+        DataFrame df = new CSVReader(stream(line + "\n" + line))
+                .withHeader(false)
+                .read();
+
+        assertEquals("DataFrame should have 2 rows", 2, df.rows());
+        assertEquals("DataFrame should have 20000 columns", 20000, df.columns());
+        assertEquals("Value does not match", "19999", df.getString(19999, 1));
+    }
+
+    @Test
+    public void testReadNumberOverflow(){
+        String csv = "A\n128\n";
+        try{
+            new CSVReader(stream(csv)).useColumnTypes(Byte.class).read();
+            fail("Should have thrown IOException");
+        }catch(IOException ex){
+            assertTrue("Message should contain line number",
+                    ex.getMessage().endsWith("line: 2"));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadUnterminatedQuote() throws IOException{
+        new CSVReader(stream("A,B\n1,\"2\n")).read();
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadColumnCountMissmatch() throws IOException{
+        new CSVReader(stream("A,B\n1,2,3\n")).read();
+    }
+
+    @Test
+    public void testReadParallel() throws IOException{
+        assertReadParallel("\r\n");
+    }
+
+    @Test
+    public void testReadParallelCarriageReturn() throws IOException{
+        assertReadParallel("\r");
+    }
+
+    @Test
+    public void testReadParallelAsyncBusyExecutor() throws Exception{
+        StringBuilder sb = new StringBuilder("id,text\n");
+        for(int i=0; i<300000; ++i){
+            sb.append(i).append(",text").append(i).append('\n');
+        }
+        File file = tempFile(sb.toString());
+        IOExecutor.configure(1, 1);
+        try{
+            DataFrame df = new CSVReader(file)
+                    .useColumnTypes(Integer.class, String.class)
+                    .useThreads(4)
+                    .readAsync()
+                    .get(30, TimeUnit.SECONDS);
+
+            assertTrue("File should span multiple chunks",
+                    file.length() > (2 * CSVFileSplitter.MIN_CHUNK_SIZE));
+            assertEquals("DataFrame should have 300000 rows", 300000, df.rows());
+            assertEquals("Value does not match", "text299999", df.getString(1, 299999));
+        }finally{
+            IOExecutor.configure(IOExecutor.DEFAULT_THREADS, IOExecutor.DEFAULT_QUEUE_CAPACITY);
+        }
+    }
+
+    @Test
+    public void testReadParallelQuoteInUnquotedField() throws IOException{
+        StringBuilder sb = new StringBuilder("id,text\n0,5\" screen\n");
+        for(int i=1; i<200000; ++i){
+            sb.append(i).append(',');
+            if((i % 3) == 0){
+                sb.append("\"multi\nline ").append(i).append('"');
+            }else{
+                sb.append("text").append(i);
+            }
+            sb.append('\n');
+        }
+        File file = tempFile(sb.toString());
+        DataFrame expected = new CSVReader(file)
+                .useColumnTypes(Integer.class, String.class)
+                .read();
+
+        DataFrame df = new CSVReader(file)
+                .useColumnTypes(Integer.class, String.class)
+                .useThreads(8)
+                .read();
+
+        assertTrue("File should span multiple chunks",
+                file.length() > (2 * CSVFileSplitter.MIN_CHUNK_SIZE));
+        assertEquals("DataFrame should have 200000 rows", 200000, df.rows());
+        assertEquals("DataFrames do not match", expected, df);
+        assertEquals("Value does not match", "5\" screen", df.getString(1, 0));
+        assertEquals("Value does not match", "multi\nline 3", df.getString(1, 3));
+    }
+
+    private void assertReadParallel(String lineBreak) throws IOException{
+        StringBuilder sb = new StringBuilder("id,text,value").append(lineBreak);
+        for(int i=0; i<200000; ++i){
+            sb.append(i).append(',');
+            if((i % 7) == 0){
+                sb.append("\"multi\nline, \"\"").append(i).append("\"\"\"");
+            }else if((i % 11) == 0){
+                sb.append("null");
+            }else{
+                sb.append("text").append(i);
+            }
+            sb.append(',').append(i * 0.25).append(lineBreak);
+        }
+        File file = tempFile(sb.toString());
+        DataFrame expected = new CSVReader(file)
+                .useColumnTypes(Integer.class, String.class, Double.class)
+                .read();
+
+        DataFrame df = new CSVReader(file)
+                .useColumnTypes(Integer.class, String.class, Double.class)
+                .useThreads(4)
+                .read();
+
+        assertTrue("File should span multiple chunks",
+                file.length() > (2 * CSVFileSplitter.MIN_CHUNK_SIZE));
+        assertEquals("DataFrame should have 200000 rows", 200000, df.rows());
+        assertTrue("DataFrame should be nullable", df.isNullable());
+        assertEquals("DataFrames do not match", expected, df);
+        assertEquals("Value does not match", "multi\nline, \"7\"", df.getString(1, 7));
+    }
+
+    @Test
+    public void testReadParallelSmallFile() throws IOException{
+        URL url = this.getClass().getResource(csv1);
+        if(url == null){
+            fail("Test resource \"" + csv1 + "\" was not found");
+            return;
+        }
+        File file = new File(url.getFile());
+        DataFrame df = new CSVReader(file)
+                .useColumnTypes(Integer.class, Double.class, String.class)
+                .useThreads(2)
+                .read();
+
+        assertEquals("DataFrames do not match", df1, df);
+    }
+
+    @Test
+    public void testReadParallelNoHeaderUnicode() throws IOException{
+        File file = tempFile("\n\u00e4\u00f6,\"\u20ac;\u00df\"\n\u00fc,x\n");
+        DataFrame df = new CSVReader(file)
+                .withHeader(false)
+                .useThreads(2)
+                .read();
+
+        DataFrame expected = new DefaultDataFrame(
+                new StringColumn(new String[]{"\u00e4\u00f6", "\u00fc"}),
+                new StringColumn(new String[]{"\u20ac;\u00df", "x"}));
+
+        assertEquals("DataFrames do not match", expected, df);
+    }
+
+    @Test
+    public void testReadParallelEmptyFile() throws IOException{
+        DataFrame df = new CSVReader(tempFile(""))
+                .useColumnTypes(Integer.class, String.class)
+                .useThreads(2)
+                .read();
+
+        assertEquals("DataFrame should have 0 rows", 0, df.rows());
+        assertEquals("DataFrame should have 2 columns", 2, df.columns());
+    }
+
+    @Test
+    public void testReadParallelMalformed() throws IOException{
+        File file = tempFile("A,B\n1,2\n3,x\n");
+        try{
+            new CSVReader(file)
+                .useColumnTypes(Integer.class, Integer.class)
+                .useThreads(2)
+                .read();
+
+            fail("Should have thrown IOException");
+        }catch(IOException ex){
+            assertTrue("Message should contain line number",
+                    ex.getMessage().endsWith("line: 3"));
+        }
+    }
+
+    @Test
+    public void testReadInferColumnTypes() throws IOException{
+        String csv = "A,B,C,D,E,F,G\n"
+                + "1,300,70000,5000000000,1.5,true,x\n"
+                + "-2,-1,1,0,2,FALSE,y\n";
+
+        DataFrame df = new CSVReader(stream(csv)).inferColumnTypes(10).read();
+        DataFrame expected = new DefaultDataFrame(
+                new ByteColumn("A", new byte[]{1, -2}),
+                new ShortColumn("B", new short[]{300, -1}),
+                new IntColumn("C", new int[]{70000, 1}),
+                new LongColumn("D", new long[]{5000000000L, 0L}),
+                new DoubleColumn("E", new double[]{1.5, 2.0}),
+                new BooleanColumn("F", new boolean[]{true, false}),
+                new CharColumn("G", new char[]{'x', 'y'}));
+
+        assertEquals("DataFrames do not match", expected, df);
+    }
+
+    @Test
+    public void testReadInferColumnTypesWidening() throws IOException{
+        String csv = "A,B,C,D\n"
+                + "1,1,t,x\n"
+                + "2,2,true,y\n"
+                + "1000,2.5,false,zz\n"
+                + "5000000000,3,abc,w\n";
+
+        DataFrame df = new CSVReader(stream(csv)).inferColumnTypes(1).read();
+        DataFrame expected = new DefaultDataFrame(
+                new LongColumn("A", new long[]{1L, 2L, 1000L, 5000000000L}),
+                new DoubleColumn("B", new double[]{1.0, 2.0, 2.5, 3.0}),
+                new StringColumn("C", new String[]{"t", "true", "false", "abc"}),
+                new StringColumn("D", new String[]{"x", "y", "zz", "w"}));
+
+        assertEquals("DataFrames do not match", expected, df);
+    }
+
+    @Test
+    public void testReadInferColumnTypesWideningKeepsText() throws IOException{
+        String csv = "A,B,C,D\n"
+                + "2,007,9007199254740993,TRUE\n"
+                + "2.5,+1,-0,false\n"
+                + "NaN,x,1.5,maybe\n";
+
+        DataFrame df = new CSVReader(stream(csv)).inferColumnTypes(1).read();
+        DataFrame expected = new DefaultDataFrame(
+                new StringColumn("A", new String[]{"2", "2.5", "NaN"}),
+                new StringColumn("B", new String[]{"007", "+1", "x"}),
+                new StringColumn("C", new String[]{"9007199254740993", "-0", "1.5"}),
+                new StringColumn("D", new String[]{"TRUE", "false", "maybe"}));
+
+        assertEquals("DataFrames do not match", expected, df);
+    }
+
+    @Test
+    public void testReadInferColumnTypesInexactDouble() throws IOException{
+        String csv = "A,B\n"
+                + "9007199254740993,9007199254740992\n"
+                + "1.5,1.5\n";
+
+        DataFrame df = new CSVReader(stream(csv)).inferColumnTypes(10).read();
+        DataFrame expected = new DefaultDataFrame(
+                new StringColumn("A", new String[]{"9007199254740993", "1.5"}),
+                new DoubleColumn("B", new double[]{9007199254740992.0, 1.5}));
+
+        assertEquals("DataFrames do not match", expected, df);
+    }
+
+    @Test
+    public void testReadInferColumnTypesParallelInexactDouble() throws IOException{
+        StringBuilder sb = new StringBuilder("id,value\n");
+        for(int i=0; i<150000; ++i){
+            sb.append(i).append(',');
+            sb.append((i < 100000) ? String.valueOf(9007199254740993L + i) : (i + ".5"));
+            sb.append('\n');
+        }
+        File file = tempFile(sb.toString());
+        DataFrame expected = new CSVReader(file).inferColumnTypes(100).read();
+        DataFrame df = new CSVReader(file)
+                .inferColumnTypes(100)
+                .useThreads(4)
+                .read();
+
+        assertEquals("Column type should be string", StringColumn.class,
+                df.getColumn("value").getClass());
+
+        assertEquals("DataFrames do not match", expected, df);
+        assertEquals("Value does not match", "9007199254740993", df.getString("value", 0));
+        assertEquals("Value does not match", "149999.5", df.getString("value", 149999));
+    }
+
+    @Test
+    public void testReadInferColumnTypesNullable() throws IOException{
+        String csv = "A,B,C\n"
+                + "null,,1\n"
+                + ",,2\n"
+                + "7,x,\n";
+
+        DataFrame df = new CSVReader(stream(csv)).inferColumnTypes(2).read();
+        DataFrame expected = new NullableDataFrame(
+                new NullableByteColumn("A", new Byte[]{null, null, 7}),
+                new NullableCharColumn("B", new Character[]{null, null, 'x'}),
+                new NullableByteColumn("C", new Byte[]{1, 2, null}));
+
+        assertEquals("DataFrames do not match", expected, df);
+    }
+
+    @Test
+    public void testReadInferColumnTypesParallel() throws IOException{
+        StringBuilder sb = new StringBuilder("id,value,label\n");
+        for(int i=0; i<150000; ++i){
+            sb.append(i).append(',');
+            sb.append((i < 100000) ? String.valueOf(i % 100) : (i + ".5")).append(',');
+            sb.append((i == 140000) ? "null" : ("L" + (i % 3))).append('\n');
+        }
+        File file = tempFile(sb.toString());
+        DataFrame expected = new CSVReader(file).inferColumnTypes(100).read();
+        DataFrame df = new CSVReader(file)
+                .inferColumnTypes(100)
+                .useThreads(4)
+                .read();
+
+        assertEquals("Column type should be int", NullableIntColumn.class,
+                df.getColumn("id").getClass());
+
+        assertEquals("DataFrames do not match", expected, df);
+        assertEquals("Value does not match", 140000, (int) df.getInt("id", 140000));
+        assertEquals("Value does not match", 149999.5, df.getDouble("value", 149999), 0.0);
+        assertNull("Value should be null", df.getString("label", 140000));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInferColumnTypesInvalid(){
+        new CSVReader(stream("")).inferColumnTypes(0);
+    }
+
+    @Test
+    public void testReadDeclaredNullableColumns() throws IOException{
+        URL url = this.getClass().getResource(csv1);
+        if(url == null){
+            fail("Test resource \"" + csv1 + "\" was not found");
+            return;
+        }
+        File file = new File(url.getFile());
+        DataFrame df = new CSVReader(file)
+                .useColumnTypes(Integer.class, Double.class, String.class)
+                .useNullableColumns(true)
+                .read();
+
+        assertTrue("DataFrame should be nullable", df.isNullable());
+        assertEquals("DataFrames do not match",
+                DataFrame.convert(df1, NullableDataFrame.class), df);
+    }
+
+    @Test
+    public void testReadLateNullValue() throws IOException{
+        StringBuilder sb = new StringBuilder("A,B\n");
+        for(int i=0; i<10000; ++i){
+            sb.append(i).append(',').append((i == 9999) ? "" : ("v" + i)).append('\n');
+        }
+        DataFrame df = new CSVReader(stream(sb.toString()))
+                .useColumnTypes(Integer.class, String.class)
+                .read();
+
+        assertTrue("DataFrame should be nullable", df.isNullable());
+        assertEquals("DataFrame should have 10000 rows", 10000, df.rows());
+        assertEquals("Value does not match", 9998, (int) df.getInt("A", 9998));
+        assertEquals("Value does not match", "v9998", df.getString("B", 9998));
+        assertEquals("Value does not match", 9999, (int) df.getInt("A", 9999));
+        assertNull("Value should be null", df.getString("B", 9999));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUseThreadsInvalid(){
+        new CSVReader(stream("")).useThreads(0);
+    }
+
+    @Test
+    public void testReadSelectColumnsByName() throws IOException{
+        DataFrame df = new CSVReader(stream("A,B,C\n1,\"x,y\",1.5\n2,z,2.5\n"))
+                .useColumnTypes(Double.class, Integer.class)
+                .selectColumns("C", "A")
+                .read();
+
+        assertEquals("DataFrame should have 2 columns", 2, df.columns());
+        assertEquals("DataFrame should have 2 rows", 2, df.rows());
+        assertArrayEquals("Column names do not match",
+                new String[]{"C", "A"}, df.getColumnNames());
+        assertEquals("Value does not match", 1.5, df.getDouble("C", 0), 0.0);
+        assertEquals("Value does not match", 2, (int) df.getInt("A", 1));
+    }
+
+    @Test
+    public void testReadSelectColumnsByIndex() throws IOException{
+        DataFrame df = new CSVReader(stream("1,a,true\n2,b,false\n"))
+                .withHeader(false)
+                .selectColumns(2, 1)
+                .read();
+
+        assertEquals("DataFrame should have 2 columns", 2, df.columns());
+        assertEquals("DataFrame should have 2 rows", 2, df.rows());
+        assertEquals("Value does not match", "true", df.getString(0, 0));
+        assertEquals("Value does not match", "b", df.getString(1, 1));
+    }
+
+    @Test
+    public void testReadSkipRowsAndLimit() throws IOException{
+        StringBuilder sb = new StringBuilder("A,B\n");
+        for(int i=0; i<100; ++i){
+            sb.append(i).append(",v").append(i).append('\n');
+        }
+        DataFrame df = new CSVReader(stream(sb.toString()))
+                .useColumnTypes(Integer.class, String.class)
+                .skipRows(10)
+                .limit(5)
+                .read();
+
+        assertEquals("DataFrame should have 5 rows", 5, df.rows());
+        assertEquals("Value does not match", 10, (int) df.getInt("A", 0));
+        assertEquals("Value does not match", "v14", df.getString("B", 4));
+
+        df = new CSVReader(stream(sb.toString()))
+                .withHeader(false)
+                .skipRows(99)
+                .read();
+
+        assertEquals("DataFrame should have 2 rows", 2, df.rows());
+        assertEquals("Value does not match", "98", df.getString(0, 0));
+
+        df = new CSVReader(stream(sb.toString())).limit(0).read();
+        assertEquals("DataFrame should have 0 rows", 0, df.rows());
+        assertArrayEquals("Column names do not match",
+                new String[]{"A", "B"}, df.getColumnNames());
+    }
+
+    @Test
+    public void testReadSelectColumnsWithSkipRows() throws IOException{
+        DataFrame df = new CSVReader(stream("A,B,C\n1,a,x\n2,\"b\nb\",y\n3,c,z\n"))
+                .selectColumns("C")
+                .skipRows(1)
+                .limit(1)
+                .read();
+
+        assertEquals("DataFrame should have 1 column", 1, df.columns());
+        assertEquals("DataFrame should have 1 row", 1, df.rows());
+        assertEquals("Value does not match", "y", df.getString("C", 0));
+    }
+
+    @Test
+    public void testReadSelectColumnsParallel() throws IOException{
+        StringBuilder sb = new StringBuilder("id,text,value\n");
+        for(int i=0; i<200000; ++i){
+            sb.append(i).append(",\"t,").append(i).append("\",").append(i * 0.5).append('\n');
+        }
+        File file = tempFile(sb.toString());
+        DataFrame df = new CSVReader(file)
+                .useColumnTypes(Double.class, Integer.class)
+                .selectColumns("value", "id")
+                .useThreads(4)
+                .read();
+
+        assertEquals("DataFrame should have 2 columns", 2, df.columns());
+        assertEquals("DataFrame should have 200000 rows", 200000, df.rows());
+        assertEquals("Value does not match", 199999, (int) df.getInt("id", 199999));
+        assertEquals("Value does not match", 50000.0, df.getDouble("value", 100000), 0.0);
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadSelectUnknownColumn() throws IOException{
+        new CSVReader(stream("A,B\n1,2\n")).selectColumns("C").read();
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadSelectColumnIndexOutOfBounds() throws IOException{
+        new CSVReader(stream("A,B\n1,2\n")).selectColumns(2).read();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSelectColumnsInvalid(){
+        new CSVReader(stream("")).selectColumns(0, -1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSkipRowsInvalid(){
+        new CSVReader(stream("")).skipRows(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLimitInvalid(){
+        new CSVReader(stream("")).limit(-1);
+    }
+
+    @Test
+    public void testStream() throws IOException{
+        StringBuilder sb = new StringBuilder("A,B,C\n");
+        for(int i=0; i<1050; ++i){
+            sb.append(i).append(",\"v,").append(i).append("\",").append(i * 0.5).append('\n');
+        }
+        DataFrame expected = new CSVReader(stream(sb.toString()))
+                .useColumnTypes(Integer.class, String.class, Double.class)
+                .read();
+
+        CSVBatchIterator it = new CSVReader(stream(sb.toString()))
+                .useColumnTypes(Integer.class, String.class, Double.class)
+                .stream(100);
+
+        int batches = 0;
+        int row = 0;
+        while(it.hasNext()){
+            DataFrame batch = it.next();
+            assertArrayEquals("Column names do not match",
+                    new String[]{"A", "B", "C"}, batch.getColumnNames());
+            assertEquals("Batch should have 100 rows",
+                    (batches < 10) ? 100 : 50, batch.rows());
+            for(int i=0; i<batch.rows(); ++i, ++row){
+                assertArrayEquals("Row does not match",
+                        expected.getRow(row), batch.getRow(i));
+            }
+            ++batches;
+        }
+        assertEquals("Iterator should produce 11 batches", 11, batches);
+        assertEquals("Iterator should cover all rows", 1050, row);
+        assertFalse("Iterator should be exhausted", it.hasNext());
+    }
+
+    @Test
+    public void testStreamReuseBuffers() throws IOException{
+        StringBuilder sb = new StringBuilder("A,B\n");
+        for(int i=0; i<1000; ++i){
+            sb.append(i).append(',').append((i % 2) == 0).append('\n');
+        }
+        File file = tempFile(sb.toString());
+        long sum = 0;
+        int rows = 0;
+        try(CSVBatchIterator it = new CSVReader(file).inferColumnTypes(10).stream(64, true)){
+            while(it.hasNext()){
+                DataFrame batch = it.next();
+                assertTrue("Column should be numeric",
+                        batch.getColumn("A") instanceof IntColumn);
+                assertTrue("Column should be boolean",
+                        batch.getColumn("B") instanceof BooleanColumn);
+                for(int i=0; i<batch.rows(); ++i){
+                    sum += batch.getInt("A", i);
+                }
+                rows += batch.rows();
+            }
+        }
+        assertEquals("Iterator should cover all rows", 1000, rows);
+        assertEquals("Sum does not match", 499500, sum);
+    }
+
+    @Test
+    public void testStreamLargeBatchSmallInput() throws IOException{
+        File file = tempFile("A,B\n1,x\n2,y\n");
+        for(boolean reuse : new boolean[]{false, true}){
+            try(CSVBatchIterator it = new CSVReader(file)
+                    .useColumnTypes(Integer.class, String.class)
+                    .stream(Integer.MAX_VALUE, reuse)){
+
+                assertTrue("Iterator should have a batch", it.hasNext());
+                DataFrame batch = it.next();
+                assertEquals("Row count does not match", 2, batch.rows());
+                assertEquals("Value does not match", "y", batch.getString("B", 1));
+                assertFalse("Iterator should be exhausted", it.hasNext());
+            }
+        }
+    }
+
+    @Test
+    public void testStreamSelectAndLimit() throws IOException{
+        StringBuilder sb = new StringBuilder("A,B\n");
+        for(int i=0; i<100; ++i){
+            sb.append(i).append(",v").append(i).append('\n');
+        }
+        CSVBatchIterator it = new CSVReader(stream(sb.toString()))
+                .selectColumns("B")
+                .skipRows(5)
+                .limit(20)
+                .stream(8);
+
+        DataFrame batch = it.next();
+        assertEquals("DataFrame should have 1 column", 1, batch.columns());
+        assertEquals("Value does not match", "v5", batch.getString("B", 0));
+        assertEquals("Batch should have 8 rows", 8, it.next().rows());
+        batch = it.next();
+        assertEquals("Batch should have 4 rows", 4, batch.rows());
+        assertEquals("Value does not match", "v24", batch.getString("B", 3));
+        assertFalse("Iterator should be exhausted", it.hasNext());
+    }
+
+    @Test
+    public void testStreamEmpty() throws IOException{
+        assertFalse("Iterator should be empty",
+                new CSVReader(stream("")).stream(10).hasNext());
+        assertFalse("Iterator should be empty",
+                new CSVReader(stream("A,B\n")).stream(10).hasNext());
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testStreamMalformed() throws IOException{
+        CSVBatchIterator it = new CSVReader(stream("A,B\n1,2\n3\n"))
+                .useColumnTypes(Integer.class, Integer.class)
+                .stream(1);
+
+        assertEquals("Value does not match", 1, (int) it.next().getInt("A", 0));
+        it.next();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStreamInvalid() throws IOException{
+        new CSVReader(stream("")).stream(0);
+    }
+
+    @Test
+    public void testReadGzipStream() throws IOException{
+        StringBuilder sb = new StringBuilder("A,B\n");
+        for(int i=0; i<200000; ++i){
+            sb.append(i).append(",v").append(i).append('\n');
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(GZIPOutputStream out = new GZIPOutputStream(bytes)){
+            out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        DataFrame df = new CSVReader(new ByteArrayInputStream(bytes.toByteArray()))
+                .useColumnTypes(Integer.class, String.class)
+                .read();
+
+        DataFrame expected = new CSVReader(stream(sb.toString()))
+                .useColumnTypes(Integer.class, String.class)
+                .read();
+
+        assertEquals("DataFrames do not match", expected, df);
+    }
+
+    @Test
+    public void testReadGzipFile() throws IOException{
+        String csv = "A,B\n1,x\n2,y\n3,z\n";
+        File file = File.createTempFile("csv_reader_test", ".csv.gz");
+        file.deleteOnExit();
+        try(GZIPOutputStream out = new GZIPOutputStream(new FileOutputStream(file))){
+            out.write(csv.getBytes(StandardCharsets.UTF_8));
+        }
+        DataFrame df = new CSVReader(file)
+                .useColumnTypes(Integer.class, String.class)
+                .useThreads(4)
+                .read();
+
+        DataFrame expected = new CSVReader(stream(csv))
+                .useColumnTypes(Integer.class, String.class)
+                .read();
+
+        assertEquals("DataFrames do not match", expected, df);
+    }
+
+    @Test
+    public void testReadDeflateFile() throws IOException{
+        String csv = "A,B\n1,x\n2,y\n3,z\n";
+        File file = File.createTempFile("csv_reader_test", ".csv.deflate");
+        file.deleteOnExit();
+        try(DeflaterOutputStream out = new DeflaterOutputStream(new FileOutputStream(file))){
+            out.write(csv.getBytes(StandardCharsets.UTF_8));
+        }
+        DataFrame df = new CSVReader(file)
+                .useColumnTypes(Integer.class, String.class)
+                .read();
+
+        DataFrame expected = new CSVReader(stream(csv))
+                .useColumnTypes(Integer.class, String.class)
+                .read();
+
+        assertEquals("DataFrames do not match", expected, df);
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadGzipMalformed() throws IOException{
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(GZIPOutputStream out = new GZIPOutputStream(bytes)){
+            out.write("A,B\n1,2\n".getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] data = bytes.toByteArray();
+        new CSVReader(new ByteArrayInputStream(Arrays.copyOf(data, data.length - 8))).read();
+    }
+
+    @Test
+    public void testFollow() throws IOException{
+        File file = tempFile("A,B\n1,x\n2,y\n3,");
+        try(CSVFollower follower = new CSVReader(file)
+                .useColumnTypes(Integer.class, String.class)
+                .follow()){
+
+            DataFrame df = follower.poll();
+            assertNotNull("DataFrame should not be null", df);
+            assertEquals("Row count does not match", 2, df.rows());
+            assertEquals("Value does not match", "y", df.getString("B", 1));
+            assertEquals("Position does not match", 12, follower.position());
+            assertNull("No new records should be available", follower.poll());
+
+            append(file, "z\n4,w\n");
+            df = follower.poll();
+            assertEquals("Row count does not match", 2, df.rows());
+            assertEquals("Value does not match", 3, (int) df.getInt("A", 0));
+            assertEquals("Value does not match", "w", df.getString("B", 1));
+            assertEquals("Position does not match", file.length(), follower.position());
+            assertNull("No new records should be available", follower.poll());
+        }
+    }
+
+    @Test
+    public void testFollowCarriageReturn() throws IOException{
+        File file = tempFile("A,B\r1,x\r2,");
+        try(CSVFollower follower = new CSVReader(file)
+                .useColumnTypes(Integer.class, String.class)
+                .follow()){
+
+            DataFrame df = follower.poll();
+            assertNotNull("DataFrame should not be null", df);
+            assertEquals("Row count does not match", 1, df.rows());
+            assertEquals("Value does not match", "x", df.getString("B", 0));
+            append(file, "y\r\n3,z\r");
+            df = follower.poll();
+            assertEquals("Row count does not match", 2, df.rows());
+            assertEquals("Value does not match", "y", df.getString("B", 0));
+            assertEquals("Value does not match", "z", df.getString("B", 1));
+            append(file, "\n4,w\r\n");
+            df = follower.poll();
+            assertEquals("Row count does not match", 1, df.rows());
+            assertEquals("Value does not match", 4, (int) df.getInt("A", 0));
+            assertNull("No new records should be available", follower.poll());
+        }
+    }
+
+    @Test
+    public void testFollowAppendTo() throws IOException{
+        File file = tempFile("A,B\n");
+        try(CSVFollower follower = new CSVReader(file).inferColumnTypes(10).follow()){
+            assertNull("No records should be available", follower.poll());
+            append(file, "1,1.5\n2,2.5\n");
+            DataFrame df = follower.poll();
+            assertTrue("Column should be a LongColumn",
+                    df.getColumn("A") instanceof LongColumn);
+
+            append(file, "300000,3.5\n");
+            assertEquals("Appended row count does not match", 1, follower.appendTo(df));
+            assertEquals("Appended row count does not match", 0, follower.appendTo(df));
+            assertEquals("Row count does not match", 3, df.rows());
+            assertEquals("Value does not match", 300000L, (long) df.getLong("A", 2));
+            assertEquals("Value does not match", 3.5, df.getDouble("B", 2), 0.0);
+        }
+    }
+
+    @Test
+    public void testFollowInferLargeInteger() throws IOException{
+        File file = tempFile("A,B\n1,10\n");
+        try(CSVFollower follower = new CSVReader(file).inferColumnTypes(10).follow()){
+            DataFrame df = follower.poll();
+            assertTrue("Column should be a LongColumn",
+                    df.getColumn("B") instanceof LongColumn);
+
+            append(file, "3,30000000000\n");
+            df = follower.poll();
+            assertEquals("Row count does not match", 1, df.rows());
+            assertEquals("Value does not match", 30000000000L, (long) df.getLong("B", 0));
+            assertEquals("Position does not match", file.length(), follower.position());
+        }
+    }
+
+    @Test
+    public void testFollowReinferColumnTypes() throws IOException{
+        File file = tempFile("A,B\n1,10\n");
+        try(CSVFollower follower = new CSVReader(file).inferColumnTypes(10).follow()){
+            follower.poll();
+            long position = follower.position();
+            append(file, "2,2.5\n3,x\n");
+            try{
+                follower.poll();
+                fail("Poll should fail for values of a different type");
+            }catch(IOException ex){
+                //expected
+            }
+            assertEquals("Position should not advance", position, follower.position());
+            follower.reinferColumnTypes();
+            DataFrame df = follower.poll();
+            assertEquals("Row count does not match", 2, df.rows());
+            assertEquals("Column names do not match", "B", df.getColumnName(1));
+            assertTrue("Column should be a StringColumn",
+                    df.getColumn("B") instanceof StringColumn);
+
+            assertEquals("Value does not match", "x", df.getString("B", 1));
+            assertEquals("Position does not match", file.length(), follower.position());
+        }
+    }
+
+    @Test
+    public void testFollowReinferColumnTypesLimit() throws IOException{
+        File file = tempFile("A,B\n1,x\n");
+        try(CSVFollower follower = new CSVReader(file)
+                .inferColumnTypes(10)
+                .limit(3)
+                .follow()){
+
+            assertEquals("Row count does not match", 1, follower.poll().rows());
+            append(file, "2,y\nabc,z\n");
+            try{
+                follower.poll();
+                fail("Poll should fail for values of a different type");
+            }catch(IOException ex){
+                //expected
+            }
+            follower.reinferColumnTypes();
+            DataFrame df = follower.poll();
+            assertEquals("Row count does not match", 2, df.rows());
+            assertEquals("Value does not match", "2", df.getString("A", 0));
+            assertEquals("Value does not match", "abc", df.getString("A", 1));
+            assertEquals("Value does not match", 'z', (char) df.getChar("B", 1));
+            append(file, "4,w\n");
+            assertNull("Records beyond the limit should not be read", follower.poll());
+        }
+    }
+
+    @Test
+    public void testFollowQuotedLineBreak() throws IOException{
+        File file = tempFile("A,B\n1,\"x\ny");
+        try(CSVFollower follower = new CSVReader(file).follow()){
+            assertNull("Incomplete record should not be read", follower.poll());
+            append(file, "\"\n");
+            DataFrame df = follower.poll();
+            assertEquals("Row count does not match", 1, df.rows());
+            assertEquals("Value does not match", "x\ny", df.getString("B", 0));
+        }
+    }
+
+    @Test
+    public void testFollowQuoteInUnquotedField() throws IOException{
+        File file = tempFile("A,B\n1,5\" screen\n2,x\n");
+        try(CSVFollower follower = new CSVReader(file).follow()){
+            DataFrame df = follower.poll();
+            assertEquals("Row count does not match", 2, df.rows());
+            assertEquals("Value does not match", "5\" screen", df.getString("B", 0));
+            assertEquals("Position does not match", file.length(), follower.position());
+        }
+    }
+
+    @Test
+    public void testFollowSelectSkipLimit() throws IOException{
+        File file = tempFile("A,B,C\n1,2,3\n");
+        try(CSVFollower follower = new CSVReader(file)
+                .selectColumns("C", "A")
+                .skipRows(2)
+                .limit(2)
+                .follow()){
+
+            assertNull("Skipped records should not be read", follower.poll());
+            append(file, "4,5,6\n7,8,9\n10,11,12\n");
+            DataFrame df = follower.poll();
+            assertEquals("Row count does not match", 2, df.rows());
+            assertEquals("Column name does not match", "C", df.getColumnName(0));
+            assertEquals("Value does not match", "9", df.getString("C", 0));
+            assertEquals("Value does not match", "10", df.getString("A", 1));
+            append(file, "13,14,15\n");
+            assertNull("Records beyond the limit should not be read", follower.poll());
+        }
+    }
+
+    @Test
+    public void testFollowWait() throws Exception{
+        File file = tempFile("A\n1\n");
+        try(CSVFollower follower = new CSVReader(file).follow()){
+            assertEquals("Row count does not match", 1, follower.poll().rows());
+            assertNull("No records should be available",
+                    follower.poll(50, TimeUnit.MILLISECONDS));
+
+            CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+                try{
+                    Thread.sleep(100);
+                    append(file, "2\n");
+                }catch(Exception ex){
+                    throw new RuntimeException(ex);
+                }
+            });
+            DataFrame df = follower.poll(10, TimeUnit.SECONDS);
+            writer.join();
+            assertNotNull("DataFrame should not be null", df);
+            assertEquals("Value does not match", "2", df.getString("A", 0));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testFollowTruncated() throws IOException{
+        File file = tempFile("A\n1\n2\n");
+        try(CSVFollower follower = new CSVReader(file).follow()){
+            follower.poll();
+            Files.write(file.toPath(), "A\n".getBytes(StandardCharsets.UTF_8));
+            follower.poll();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFollowStream() throws IOException{
+        new CSVReader(stream("A\n1\n")).follow();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFollowClosed() throws IOException{
+        CSVFollower follower = new CSVReader(tempFile("A\n1\n")).follow();
+        follower.close();
+        follower.poll();
+    }
+
+    private static File tempFile(final String content) throws IOException{
+        File file = File.createTempFile("csv_reader_test", ".csv");
+        file.deleteOnExit();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static void append(final File file, final String content) throws IOException{
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+    }
+
+    private static ByteArrayInputStream stream(final String csv){
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
 }
@@ -21,10 +21,15 @@ import static org.junit.Assert.*;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -32,14 +37,20 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.raven.common.struct.BooleanColumn;
+import com.raven.common.struct.ByteColumn;
+import com.raven.common.struct.CharColumn;
 import com.raven.common.struct.DataFrame;
 import com.raven.common.struct.DefaultDataFrame;
 import com.raven.common.struct.DoubleColumn;
+import com.raven.common.struct.FloatColumn;
 import com.raven.common.struct.IntColumn;
+import com.raven.common.struct.LongColumn;
 import com.raven.common.struct.NullableDataFrame;
 import com.raven.common.struct.NullableDoubleColumn;
 import com.raven.common.struct.NullableIntColumn;
 import com.raven.common.struct.NullableStringColumn;
+import com.raven.common.struct.ShortColumn;
 import com.raven.common.struct.StringColumn;
 
 /**
@@ -169,6 +180,188 @@ public class CSVWriterTest {
         csv.writeAsync(df1);
     }
     
+    @Test
+    public void testWriteEscaping() throws IOException{
+        DataFrame df = new DefaultDataFrame(
+                new StringColumn("A,1", new String[]{"a\"b", "\"quoted\"", "line\nbreak", "", "x,y"}),
+                new CharColumn("B", new char[]{',', '"', 'c', 'd', 'e'}));
+        
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new CSVWriter(baos).write(df);
+        DataFrame result = new CSVReader(new ByteArrayInputStream(baos.toByteArray()))
+                .useColumnTypes(String.class, Character.class)
+                .read();
+        
+        assertEquals("DataFrames do not match", df, result);
+    }
+    
+    @Test
+    public void testWritePrimitiveTypes() throws IOException{
+        DataFrame df = new DefaultDataFrame(
+                new ByteColumn("A", new byte[]{Byte.MIN_VALUE, 0, Byte.MAX_VALUE}),
+                new ShortColumn("B", new short[]{Short.MIN_VALUE, 0, Short.MAX_VALUE}),
+                new IntColumn("C", new int[]{Integer.MIN_VALUE, 0, Integer.MAX_VALUE}),
+                new LongColumn("D", new long[]{Long.MIN_VALUE, 0, Long.MAX_VALUE}),
+                new FloatColumn("E", new float[]{Float.MIN_VALUE, 0.1f, Float.MAX_VALUE}),
+                new DoubleColumn("F", new double[]{Double.MIN_VALUE, 0.1, 1e23}),
+                new BooleanColumn("G", new boolean[]{true, false, true}));
+        
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new CSVWriter(baos).useSeparator(';').write(df);
+        String nl = System.lineSeparator();
+        assertTrue("CSV data does not match", new String(baos.toByteArray(),
+                StandardCharsets.UTF_8).startsWith("A;B;C;D;E;F;G" + nl
+                        + "-128;-32768;-2147483648;-9223372036854775808;1.4E-45;4.9E-324;true" + nl));
+        
+        DataFrame result = new CSVReader(new ByteArrayInputStream(baos.toByteArray()))
+                .useSeparator(';')
+                .useColumnTypes(Byte.class, Short.class, Integer.class, Long.class,
+                        Float.class, Double.class, Boolean.class)
+                .read();
+        
+        assertEquals("DataFrames do not match", df, result);
+    }
+    
+    @Test
+    public void testWriteParallel() throws IOException{
+        int rows = 100000;
+        int[] ints = new int[rows];
+        double[] doubles = new double[rows];
+        Integer[] nullableInts = new Integer[rows];
+        String[] strings = new String[rows];
+        for(int i=0; i<rows; ++i){
+            ints[i] = i;
+            doubles[i] = i * 0.25;
+            nullableInts[i] = ((i % 3) == 0) ? null : -i;
+            strings[i] = ((i % 5) == 0) ? ("\"v," + i + "\"") : ("v" + i);
+        }
+        DataFrame df = new NullableDataFrame(
+                new NullableIntColumn("A", nullableInts),
+                new NullableStringColumn("B", strings),
+                new NullableDoubleColumn("C", toObject(doubles)),
+                new NullableIntColumn("D", toObject(ints)));
+        
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        new CSVWriter(expected).write(df);
+        File file = File.createTempFile("csv_writer_test", ".csv");
+        file.deleteOnExit();
+        new CSVWriter(file).useThreads(4).write(df);
+        
+        assertArrayEquals("CSV data does not match",
+                expected.toByteArray(), Files.readAllBytes(file.toPath()));
+        
+        DataFrame result = new CSVReader(file)
+                .useColumnTypes(Integer.class, String.class, Double.class, Integer.class)
+                .read();
+        
+        assertEquals("DataFrames do not match", df, result);
+    }
+    
+    @Test
+    public void testWriteParallelAsyncBusyExecutor() throws Exception{
+        int rows = 100000;
+        int[] ints = new int[rows];
+        String[] strings = new String[rows];
+        for(int i=0; i<rows; ++i){
+            ints[i] = i;
+            strings[i] = "v" + i;
+        }
+        DataFrame df = new DefaultDataFrame(
+                new IntColumn("A", ints),
+                new StringColumn("B", strings));
+        
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        new CSVWriter(expected).write(df);
+        File file = File.createTempFile("csv_writer_test", ".csv");
+        file.deleteOnExit();
+        IOExecutor.configure(1, 1);
+        try{
+            new CSVWriter(file).useThreads(4).writeAsync(df).get(30, TimeUnit.SECONDS);
+        }finally{
+            IOExecutor.configure(IOExecutor.DEFAULT_THREADS, IOExecutor.DEFAULT_QUEUE_CAPACITY);
+        }
+        assertArrayEquals("CSV data does not match",
+                expected.toByteArray(), Files.readAllBytes(file.toPath()));
+    }
+    
+    @Test
+    public void testWriteGzip() throws IOException{
+        int rows = 50000;
+        Integer[] ints = new Integer[rows];
+        String[] strings = new String[rows];
+        for(int i=0; i<rows; ++i){
+            ints[i] = ((i % 7) == 0) ? null : i;
+            strings[i] = "v" + i;
+        }
+        DataFrame df = new NullableDataFrame(
+                new NullableIntColumn("A", ints),
+                new NullableStringColumn("B", strings));
+        
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        new CSVWriter(expected).write(df);
+        File file = File.createTempFile("csv_writer_test", ".csv.gz");
+        file.deleteOnExit();
+        new CSVWriter(file).useThreads(4).write(df);
+        
+        byte[] compressed = Files.readAllBytes(file.toPath());
+        assertEquals("Missing gzip magic", (byte) 0x1f, compressed[0]);
+        assertEquals("Missing gzip magic", (byte) 0x8b, compressed[1]);
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        try(GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))){
+            byte[] buffer = new byte[8192];
+            int n;
+            while((n = in.read(buffer)) != -1){
+                actual.write(buffer, 0, n);
+            }
+        }
+        assertArrayEquals("CSV data does not match",
+                expected.toByteArray(), actual.toByteArray());
+        
+        DataFrame result = new CSVReader(file)
+                .useColumnTypes(Integer.class, String.class)
+                .read();
+        
+        assertEquals("DataFrames do not match", df, result);
+    }
+    
+    @Test
+    public void testWriteDeflate() throws IOException{
+        DataFrame df = new DefaultDataFrame(
+                new IntColumn("A", new int[]{1, 2, 3}),
+                new LongColumn("B", new long[]{4L, 5L, 6L}));
+        
+        File file = File.createTempFile("csv_writer_test", ".csv.zz");
+        file.deleteOnExit();
+        new CSVWriter(file).write(df);
+        
+        DataFrame result = new CSVReader(file)
+                .useColumnTypes(Integer.class, Long.class)
+                .read();
+        
+        assertEquals("DataFrames do not match", df, result);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testUseThreadsInvalid(){
+        new CSVWriter(new ByteArrayOutputStream()).useThreads(0);
+    }
+    
+    private static Double[] toObject(double[] values){
+        Double[] result = new Double[values.length];
+        for(int i=0; i<values.length; ++i){
+            result[i] = values[i];
+        }
+        return result;
+    }
+    
+    private static Integer[] toObject(int[] values){
+        Integer[] result = new Integer[values.length];
+        for(int i=0; i<values.length; ++i){
+            result[i] = values[i];
+        }
+        return result;
+    }
+    
     private String normalize(String str){
         if((str == null) || str.isEmpty()){
             return str;
@@ -0,0 +1,472 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.io;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.raven.common.struct.DataFrame;
+import com.raven.common.struct.DefaultDataFrame;
+import com.raven.common.struct.DoubleColumn;
+import com.raven.common.struct.IntColumn;
+import com.raven.common.struct.NullableDataFrame;
+import com.raven.common.struct.NullableIntColumn;
+import com.raven.common.struct.NullableStringColumn;
+import com.raven.common.struct.StringColumn;
+
+/**
+ * Tests for the DataFrameAppender implementation.
+ *
+ */
+public class DataFrameAppenderTest {
+
+    private File file;
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp() throws IOException{
+        file = File.createTempFile("appender_test", DataFrameSerializer.DF_FILE_EXTENSION);
+        file.deleteOnExit();
+        file.delete();
+    }
+
+    @After
+    public void tearDown(){
+        file.delete();
+    }
+
+    private static DataFrame batch(final int start, final int rows){
+        final int[] ids = new int[rows];
+        final String[] names = new String[rows];
+        final double[] values = new double[rows];
+        for(int i=0; i<rows; ++i){
+            ids[i] = start + i;
+            names[i] = "name" + (start + i);
+            values[i] = (start + i) * 0.5;
+        }
+        return new DefaultDataFrame(
+                new String[]{"id", "name", "value"},
+                new IntColumn(ids),
+                new StringColumn(names),
+                new DoubleColumn(values));
+    }
+
+    @Test
+    public void testAppendAndReadFile() throws IOException{
+        try(DataFrameAppender appender = new DataFrameAppender(file)){
+            appender.append(batch(0, 10));
+            appender.append(batch(10, 5));
+            appender.append(batch(15, 20));
+            assertEquals("Row count does not match", 35, appender.rows());
+            assertEquals("Row group count does not match", 3, appender.rowGroups());
+        }
+        final DataFrame df = DataFrameSerializer.readFile(file);
+        assertEquals("DataFrames do not match", batch(0, 35), df);
+    }
+
+    @Test
+    public void testAppendAfterReopen() throws IOException{
+        try(DataFrameAppender appender = new DataFrameAppender(file)){
+            appender.append(batch(0, 10));
+        }
+        final long length = file.length();
+        try(DataFrameAppender appender = new DataFrameAppender(file)){
+            assertEquals("Row count does not match", 10, appender.rows());
+            appender.append(batch(10, 10));
+        }
+        assertTrue("File was not extended", file.length() > length);
+        final DataFrame df = DataFrameSerializer.readFile(file);
+        assertEquals("DataFrames do not match", batch(0, 20), df);
+    }
+
+    @Test
+    public void testFlush() throws IOException{
+        try(DataFrameAppender appender = new DataFrameAppender(file)){
+            appender.append(batch(0, 10));
+            appender.flush();
+            assertEquals("DataFrames do not match",
+                    batch(0, 10), DataFrameSerializer.readFile(file));
+
+            appender.append(batch(10, 10));
+            appender.flush();
+            assertEquals("DataFrames do not match",
+                    batch(0, 20), DataFrameSerializer.readFile(file));
+        }
+    }
+
+    @Test
+    public void testReadableBeforeFlush() throws IOException{
+        try(DataFrameAppender appender = new DataFrameAppender(file)){
+            appender.append(batch(0, 10));
+        }
+        try(DataFrameAppender appender = new DataFrameAppender(file)){
+            int rows = 10;
+            for(int i=0; i<20; ++i){
+                final int n = ((i % 2) == 0) ? 1 : 50;
+                appender.append(batch(rows, n));
+                rows += n;
+                assertEquals("Unflushed row groups should not be visible",
+                        batch(0, 10), DataFrameSerializer.readFile(file));
+            }
+            appender.flush();
+            assertEquals("DataFrames do not match",
+                    batch(0, rows), DataFrameSerializer.readFile(file));
+
+            appender.append(batch(rows, 5));
+            assertEquals("Unflushed row groups should not be visible",
+                    batch(0, rows), DataFrameSerializer.readFile(file));
+        }
+    }
+
+    @Test
+    public void testFooterCopyForcedBeforeOverwrite() throws IOException{
+        try(DataFrameAppender appender = new DataFrameAppender(file)){
+            appender.append(batch(0, 10));
+        }
+        RecordingChannel channel = new RecordingChannel(FileChannel.open(file.toPath(),
+                StandardOpenOption.READ, StandardOpenOption.WRITE));
+
+        try(DataFrameAppender appender = new DataFrameAppender(file, channel)){
+            //the row group overlaps the footer, which must be moved first
+            appender.append(batch(10, 50));
+            assertEquals("Footer copy must be forced before the row group is written",
+                    Arrays.asList("write", "force", "write"), channel.events);
+        }
+        assertEquals("DataFrames do not match",
+                batch(0, 60), DataFrameSerializer.readFile(file));
+    }
+
+    @Test
+    public void testReadRows() throws IOException{
+        try(DataFrameAppender appender = new DataFrameAppender(file)){
+            for(int i=0; i<10; ++i){
+                appender.append(batch(i * 10, 10));
+            }
+        }
+        assertEquals("DataFrames do not match",
+                batch(0, 10).getRows(2, 7),
+                DataFrameSerializer.readRows(file, 2, 7));
+
+        assertEquals("DataFrames do not match",
+                batch(25, 30),
+                DataFrameSerializer.readRows(file, 25, 55));
+
+        assertEquals("DataFrames do not match",
+                batch(0, 100),
+                DataFrameSerializer.readRows(file, 0, 100));
+    }
+
+    @Test(expected=SerializationException.class)
+    public void testReadRowsInvalidRange() throws IOException{
+        try(DataFrameAppender appender = new DataFrameAppender(file)){
+            appender.append(batch(0, 10));
+        }
+        DataFrameSerializer.readRows(file, 5, 11);
+    }
+
+    @Test
+    public void testAppendNullable() throws IOException{
+        final DataFrame df1 = new NullableDataFrame(
+                new String[]{"a", "b"},
+                new NullableIntColumn(new Integer[]{1, null, 3}),
+                new NullableStringColumn(new String[]{null, "b", "c"}));
+
+        final DataFrame df2 = new NullableDataFrame(
+                new String[]{"a", "b"},
+                new NullableIntColumn(new Integer[]{null, 5}),
+                new NullableStringColumn(new String[]{"d", null}));
+
+        try(DataFrameAppender appender = new DataFrameAppender(file)){
+            appender.append(df1);
+            appender.append(df2);
+        }
+        final DataFrame truth = new NullableDataFrame(
+                new String[]{"a", "b"},
+                new NullableIntColumn(new Integer[]{1, null, 3, null, 5}),
+                new NullableStringColumn(new String[]{null, "b", "c", "d", null}));
+
+        assertEquals("DataFrames do not match", truth, DataFrameSerializer.readFile(file));
+    }
+
+    @Test
+    public void testAppendEmpty() throws IOException{
+        try(DataFrameAppender appender = new DataFrameAppender(file)){
+            appender.append(batch(0, 0));
+            assertEquals("Row group count does not match", 0, appender.rowGroups());
+        }
+        final DataFrame df = DataFrameSerializer.readFile(file);
+        assertEquals("Row count does not match", 0, df.rows());
+        assertEquals("Column count does not match", 3, df.columns());
+    }
+
+    @Test(expected=SerializationException.class)
+    public void testAppendSchemaMismatch() throws IOException{
+        try(DataFrameAppender appender = new DataFrameAppender(file)){
+            appender.append(batch(0, 10));
+            appender.append(new DefaultDataFrame(
+                    new IntColumn(new int[]{1}),
+                    new IntColumn(new int[]{2}),
+                    new IntColumn(new int[]{3})));
+        }
+    }
+
+    @Test(expected=IOException.class)
+    public void testOpenNonRowGroupFile() throws IOException{
+        DataFrameSerializer.writeFile(file, batch(0, 10));
+        new DataFrameAppender(file).close();
+    }
+
+    @Test
+    public void testReadWithPredicate() throws IOException{
+        try(DataFrameAppender appender = new DataFrameAppender(file)){
+            for(int i=0; i<10; ++i){
+                appender.append(batch(i * 10, 10));
+            }
+        }
+        assertEquals("DataFrames do not match",
+                batch(42, 14),
+                DataFrameSerializer.readFile(file, ColumnPredicate.between("id", 42, 55)));
+
+        assertEquals("DataFrames do not match",
+                batch(77, 1),
+                DataFrameSerializer.readFile(file, ColumnPredicate.equalTo("id", 77)));
+
+        assertEquals("DataFrames do not match",
+                batch(95, 5),
+                DataFrameSerializer.readFile(file, ColumnPredicate.atLeast("value", 47.5)));
+
+        assertEquals("DataFrames do not match",
+                batch(0, 3),
+                DataFrameSerializer.readFile(file, ColumnPredicate.atMost("id", 2L)));
+
+        assertEquals("DataFrames do not match",
+                batch(5, 1),
+                DataFrameSerializer.readFile(file, ColumnPredicate.equalTo("name", "name5")));
+
+        final DataFrame empty = DataFrameSerializer.readFile(
+                file, ColumnPredicate.atLeast("id", 1000));
+
+        assertEquals("Row count does not match", 0, empty.rows());
+        assertEquals("Column count does not match", 3, empty.columns());
+    }
+
+    @Test
+    public void testReadWithPredicateSkipsRowGroups() throws IOException{
+        try(DataFrameAppender appender = new DataFrameAppender(file)){
+            appender.append(batch(0, 10));
+            appender.append(batch(10, 10));
+        }
+        //corrupt the first row group which must not be read
+        try(RandomAccessFile raf = new RandomAccessFile(file, "rw")){
+            raf.seek(RowGroupIndex.HEADER_LENGTH + 2);
+            raf.write(new byte[]{0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00});
+        }
+        assertEquals("DataFrames do not match",
+                batch(12, 3),
+                DataFrameSerializer.readFile(file, ColumnPredicate.between("id", 12, 14)));
+    }
+
+    @Test
+    public void testReadWithPredicateNullable() throws IOException{
+        try(DataFrameAppender appender = new DataFrameAppender(file)){
+            appender.append(new NullableDataFrame(
+                    new String[]{"a", "b"},
+                    new NullableIntColumn(new Integer[]{null, null}),
+                    new NullableStringColumn(new String[]{"x", "y"})));
+
+            appender.append(new NullableDataFrame(
+                    new String[]{"a", "b"},
+                    new NullableIntColumn(new Integer[]{1, null, 3}),
+                    new NullableStringColumn(new String[]{null, "b", "c"})));
+        }
+        final DataFrame truth = new NullableDataFrame(
+                new String[]{"a", "b"},
+                new NullableIntColumn(new Integer[]{3}),
+                new NullableStringColumn(new String[]{"c"}));
+
+        assertEquals("DataFrames do not match", truth,
+                DataFrameSerializer.readFile(file, ColumnPredicate.atLeast("a", 2)));
+    }
+
+    @Test
+    public void testReadWithPredicateNonRowGroupFile() throws IOException{
+        DataFrameSerializer.writeFile(file, batch(0, 10));
+        assertEquals("DataFrames do not match",
+                batch(3, 2),
+                DataFrameSerializer.readFile(file, ColumnPredicate.between("id", 3, 4)));
+    }
+
+    @Test(expected=SerializationException.class)
+    public void testReadWithPredicateUnknownColumn() throws IOException{
+        try(DataFrameAppender appender = new DataFrameAppender(file)){
+            appender.append(batch(0, 10));
+        }
+        DataFrameSerializer.readFile(file, ColumnPredicate.equalTo("unknown", 1));
+    }
+
+    @Test(expected=SerializationException.class)
+    public void testReadWithPredicateInvalidType() throws IOException{
+        try(DataFrameAppender appender = new DataFrameAppender(file)){
+            appender.append(batch(0, 10));
+        }
+        DataFrameSerializer.readFile(file, ColumnPredicate.equalTo("id", "1"));
+    }
+
+    @Test(expected=IOException.class)
+    public void testAppendAfterClose() throws IOException{
+        final DataFrameAppender appender = new DataFrameAppender(file);
+        appender.close();
+        appender.append(batch(0, 10));
+    }
+
+    /**
+     * Delegates to a FileChannel and records all write and force operations.
+     *
+     */
+    private static final class RecordingChannel extends FileChannel {
+
+        private final FileChannel delegate;
+        private final List<String> events = new ArrayList<>();
+
+        RecordingChannel(final FileChannel delegate){
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException{
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException{
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException{
+            events.add("write");
+            return delegate.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException{
+            events.add("write");
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException{
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException{
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException{
+            return delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException{
+            events.add("truncate");
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException{
+            events.add("force");
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target)
+                throws IOException{
+
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count)
+                throws IOException{
+
+            events.add("write");
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException{
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException{
+            events.add("write");
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size)
+                throws IOException{
+
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException{
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException{
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException{
+            delegate.close();
+        }
+    }
+}
@@ -21,6 +21,9 @@ import static org.junit.Assert.*;
 import static com.raven.common.io.DataFrameSerializer.MODE_COMPRESSED;
 import static com.raven.common.io.DataFrameSerializer.MODE_UNCOMPRESSED;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -34,6 +37,7 @@ import com.raven.common.struct.ByteColumn;
 import com.raven.common.struct.CharColumn;
 import com.raven.common.struct.Column;
 import com.raven.common.struct.DataFrame;
+import com.raven.common.struct.DataFrameException;
 import com.raven.common.struct.DefaultDataFrame;
 import com.raven.common.struct.DoubleColumn;
 import com.raven.common.struct.FloatColumn;
@@ -469,4 +473,218 @@ public class DataFrameSerializerImplv2Test {
         }
     }
 
+    @Test
+    public void testSerializedSize() throws Exception{
+        assertEquals("Serialized size does not match",
+                truthImplv2.length, DataFrameSerializer.serializedSize(dfDefault));
+        assertEquals("Serialized size does not match",
+                truthNullableImplv2.length, DataFrameSerializer.serializedSize(dfNullable));
+    }
+
+    @Test
+    public void testSerializationByteBuffer() throws Exception{
+        ByteBuffer buffer = ByteBuffer.allocate(truthImplv2.length + 10);
+        buffer.position(5);
+        int n = DataFrameSerializer.serialize(dfDefault, buffer);
+        assertEquals("Number of written bytes does not match", truthImplv2.length, n);
+        assertEquals("Buffer position does not match", truthImplv2.length + 5,
+                buffer.position());
+
+        byte[] bytes = new byte[n];
+        System.arraycopy(buffer.array(), 5, bytes, 0, n);
+        assertArrayEquals(
+                "Serialized Dataframe does not match expected bytes",
+                truthImplv2, bytes);
+    }
+
+    @Test
+    public void testSerializationByteBufferCompressed() throws Exception{
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1024);
+        int n = DataFrameSerializer.serialize(dfNullable, buffer, MODE_COMPRESSED);
+        assertEquals("Number of written bytes does not match",
+                truthNullableImplv2Compressed.length, n);
+
+        buffer.flip();
+        byte[] bytes = new byte[n];
+        buffer.get(bytes);
+        assertArrayEquals(
+                "Serialized Dataframe does not match expected bytes",
+                truthNullableImplv2Compressed, bytes);
+    }
+
+    @Test
+    public void testSerialDeserialByteBuffer() throws Exception{
+        for(ByteBuffer buffer : new ByteBuffer[]{
+                ByteBuffer.allocate(1024), ByteBuffer.allocateDirect(1024)}){
+
+            for(boolean mode : new boolean[]{MODE_UNCOMPRESSED, MODE_COMPRESSED}){
+                for(DataFrame df : new DataFrame[]{dfDefault, dfNullable}){
+                    buffer.clear();
+                    DataFrameSerializer.serialize(df, buffer, mode);
+                    buffer.flip();
+                    DataFrame res = DataFrameSerializer.deserialize(buffer);
+                    assertTrue("DataFrames are not equal", res.equals(df));
+                    assertFalse("Buffer should have no remaining bytes",
+                            buffer.hasRemaining());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSerializationByteBufferInsufficientCapacity() throws Exception{
+        ByteBuffer buffer = ByteBuffer.allocate(truthImplv2.length - 1);
+        try{
+            DataFrameSerializer.serialize(dfDefault, buffer);
+            fail("Should have thrown SerializationException");
+        }catch(SerializationException ex){
+            assertEquals("Buffer position should be unchanged", 0, buffer.position());
+        }
+        buffer = ByteBuffer.allocateDirect(truthImplv2Compressed.length - 1);
+        try{
+            DataFrameSerializer.serialize(dfDefault, buffer, MODE_COMPRESSED);
+            fail("Should have thrown SerializationException");
+        }catch(SerializationException ex){
+            assertEquals("Buffer position should be unchanged", 0, buffer.position());
+        }
+    }
+
+    @Test
+    public void testSerialDeserialUnicodeStrings() throws Exception{
+        DataFrame df = new NullableDataFrame(
+                new String[]{"\u00e4\u00f6\u00fc", "B"},
+                new NullableStringColumn(new String[]{
+                        "\u00df", "\u20ac10", null, "\ud83d\ude00", "a\ud800b"}),
+                new NullableIntColumn(new Integer[]{1, 2, 3, 4, 5}));
+
+        byte[] bytes = DataFrameSerializer.serialize(df);
+        assertEquals("Serialized size does not match",
+                bytes.length, DataFrameSerializer.serializedSize(df));
+
+        DataFrame res = DataFrameSerializer.deserialize(bytes);
+        assertEquals("Column name does not match", "\u00e4\u00f6\u00fc",
+                res.getColumnName(0));
+        assertEquals("String does not match", "\ud83d\ude00", res.getString(0, 3));
+        assertEquals("String does not match", "a?b", res.getString(0, 4));
+        df.setString(0, 4, "a?b");
+        assertTrue("DataFrames are not equal", res.equals(df));
+    }
+
+    @Test
+    public void testSerializerInstanceByteBuffer() throws Exception{
+        DataFrameSerializerInstance serializer = new DataFrameSerializerInstance();
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        int n = serializer.serialize(dfDefault, buffer);
+        assertEquals("Number of written bytes does not match",
+                truthImplv2Compressed.length, n);
+
+        buffer.flip();
+        assertTrue("DataFrames are not equal",
+                serializer.deserialize(buffer).equals(dfDefault));
+    }
+
+    @Test
+    public void testDeserializationLazyDefault() throws Exception{
+        for(byte[] bytes : new byte[][]{truthImplv2, truthImplv2Compressed}){
+            DataFrame res = DataFrameSerializer.deserializeLazily(bytes);
+            assertFalse("DataFrame should not be nullable", res.isNullable());
+            assertEquals("DataFrame row count should be 5", 5, res.rows());
+            assertEquals("DataFrame column count should be 10", 10, res.columns());
+            assertArrayEquals("Column names do not match",
+                    columnNames, res.getColumnNames());
+
+            assertEquals("Value does not match", Boolean.FALSE, res.getBoolean(8, 3));
+            assertEquals("Value does not match", "30", res.getString("stringCol", 2));
+            assertArrayEquals("Value does not match", new byte[]{5,2,1,2,3},
+                    res.getBinary(9, 2));
+
+            assertEquals("Value does not match", 41.4, res.getDouble(7, 3), 0.0);
+            assertEquals("Value does not match", 52, res.getNumber("intCol", 4));
+            assertEquals("Column name does not match", "longCol",
+                    res.getColumn(3).getName());
+
+            assertFalse("Lazy DataFrame should not equal DefaultDataFrame",
+                    res.equals(dfDefault));
+            assertFalse("DefaultDataFrame should not equal lazy DataFrame",
+                    dfDefault.equals(res));
+            assertTrue("Lazy DataFrames should be equal",
+                    res.equals(DataFrameSerializer.deserializeLazily(bytes)));
+            assertEquals("Hash codes of equal DataFrames should be equal",
+                    res.hashCode(), DataFrameSerializer.deserializeLazily(bytes).hashCode());
+            assertTrue("DataFrame differs in content", dfDefault.equals(DataFrame.copy(res)));
+            assertTrue("DataFrame copy should be of type DefaultDataFrame",
+                    DataFrame.copy(res) instanceof DefaultDataFrame);
+        }
+    }
+
+    @Test
+    public void testDeserializationLazyNullable() throws Exception{
+        for(byte[] bytes : new byte[][]{truthNullableImplv2, truthNullableImplv2Compressed}){
+            //access columns in reverse order so that the lookup list
+            //positions of preceding columns are not decoded
+            DataFrame res = DataFrameSerializer.deserializeLazily(bytes);
+            assertTrue("DataFrame should be nullable", res.isNullable());
+            assertNull("Value should be null", res.getBinary(9, 2));
+            assertNull("Value should be null", res.getBoolean(8, 1));
+            assertEquals("Value does not match", Boolean.FALSE, res.getBoolean(8, 2));
+            assertEquals("Value does not match", 0.0, res.getDouble(7, 1), 0.0);
+            assertNull("Value should be null", res.getDouble(7, 3));
+            assertNull("Value should be null", res.getFloat(6, 1));
+            assertEquals("Value does not match", 0.0f, res.getFloat(6, 2), 0.0f);
+            assertNull("Value should be null", res.getChar(5, 2));
+            assertEquals("Value does not match", "", res.getString(4, 3));
+            assertNull("Value should be null", res.getString(4, 2));
+            assertNull("Value should be null", res.getLong(3, 0));
+            assertEquals("Value does not match", Long.valueOf(0), res.getLong(3, 3));
+            assertNull("Value should be null", res.getInt(2, 4));
+            assertEquals("Value does not match", Integer.valueOf(0), res.getInt(2, 3));
+            assertFalse("NullableDataFrame should not equal lazy DataFrame",
+                    dfNullable.equals(res));
+            assertTrue("DataFrame differs in content", dfNullable.equals(DataFrame.copy(res)));
+            assertTrue("DataFrame copy should be of type NullableDataFrame",
+                    DataFrame.copy(res) instanceof NullableDataFrame);
+        }
+    }
+
+    @Test
+    public void testDeserializationLazyByteBuffer() throws Exception{
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1024);
+        DataFrameSerializer.serialize(dfNullable, buffer, MODE_COMPRESSED);
+        buffer.flip();
+        DataFrame res = DataFrameSerializer.deserializeLazily(buffer);
+        assertFalse("Buffer should have no remaining bytes", buffer.hasRemaining());
+        //the lazy frame must not depend on the content of reused buffers
+        buffer.clear();
+        DataFrameSerializer.serialize(dfDefault, buffer);
+        DataFrameSerializer.deserialize(truthImplv2Compressed);
+        assertTrue("DataFrame differs in content", dfNullable.equals(DataFrame.copy(res)));
+    }
+
+    @Test
+    public void testDeserializationLazyModification() throws Exception{
+        DataFrame res = DataFrameSerializer.deserializeLazily(truthImplv2);
+        res.getColumn("intCol").setValue(0, 99);
+        DataFrame ret = res.addRow(
+                (byte)1, (short)2, 3, 4L, "5", 'f', 7.0f, 8.0, true, new byte[]{1});
+
+        assertTrue("Operation should return the same instance", ret == res);
+        assertEquals("DataFrame row count should be 6", 6, res.rows());
+        assertEquals("Value does not match", Integer.valueOf(99), res.getInt(2, 0));
+        assertEquals("Value does not match", Integer.valueOf(3), res.getInt(2, 5));
+        DataFrame df = DataFrameSerializer.deserialize(DataFrameSerializer.serialize(res));
+        assertTrue("DataFrame differs in content", df.equals(DataFrame.copy(res)));
+    }
+
+    @Test(expected=DataFrameException.class)
+    public void testDeserializationLazyInvalidType() throws Exception{
+        DataFrame res = DataFrameSerializer.deserializeLazily(truthImplv2);
+        res.getInt(0, 0);
+    }
+
+    @Test(expected=SerializationException.class)
+    public void testDeserializationLazyTruncated() throws Exception{
+        DataFrameSerializer.deserializeLazily(
+                Arrays.copyOf(truthImplv2, truthImplv2.length - 3));
+    }
+
 }
@@ -0,0 +1,173 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.io;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.raven.common.struct.DataFrame;
+import com.raven.common.struct.DefaultDataFrame;
+import com.raven.common.struct.IntColumn;
+import com.raven.common.struct.StringColumn;
+
+/**
+ * Tests for the IOExecutor implementation and the asynchronous I/O methods.
+ *
+ */
+public class IOExecutorTest {
+
+    private File file;
+    private DataFrame df;
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp() throws IOException{
+        file = File.createTempFile("executor_test", DataFrameSerializer.DF_FILE_EXTENSION);
+        file.deleteOnExit();
+        df = new DefaultDataFrame(
+                new String[]{"A", "B"},
+                new IntColumn(new int[]{1, 2, 3}),
+                new StringColumn(new String[]{"a", "b", "c"}));
+    }
+
+    @After
+    public void tearDown(){
+        file.delete();
+    }
+
+    @Test
+    public void testAsyncWithCustomExecutor() throws Exception{
+        final AtomicInteger count = new AtomicInteger();
+        final Executor executor = (job) -> {
+            count.incrementAndGet();
+            job.run();
+        };
+        DataFrameSerializer.writeFileAsync(file, df, executor).get();
+        DataFrame res = DataFrameSerializer.readFileAsync(file, executor).get();
+        assertEquals("Executor should have been used twice", 2, count.get());
+        assertEquals("DataFrame does not match original", df, res);
+    }
+
+    @Test
+    public void testAsyncWithDefaultExecutor() throws Exception{
+        DataFrameSerializer.writeFileAsync(file, df).get();
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[50];
+        for(int i=0; i<futures.length; ++i){
+            futures[i] = DataFrameSerializer.readFileAsync(file);
+        }
+        for(CompletableFuture<?> future : futures){
+            assertEquals("DataFrame does not match original", df, future.get());
+        }
+    }
+
+    @Test
+    public void testAsyncRejected() throws Exception{
+        final Executor executor = (job) -> {
+            throw new RejectedExecutionException();
+        };
+        try{
+            DataFrameSerializer.readFileAsync(file, executor).get();
+            fail("Should have thrown ExecutionException");
+        }catch(ExecutionException ex){
+            assertTrue("Cause should be a RejectedExecutionException",
+                    ex.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    @Test
+    public void testBoundedExecutorBackPressure() throws Exception{
+        final ExecutorService executor = IOExecutor.newBoundedExecutor(1, 1);
+        try{
+            final CountDownLatch release = new CountDownLatch(1);
+            final CountDownLatch started = new CountDownLatch(1);
+            final AtomicInteger done = new AtomicInteger();
+            executor.execute(() -> {
+                started.countDown();
+                try{
+                    release.await();
+                }catch(InterruptedException ex){ }
+                done.incrementAndGet();
+            });
+            started.await();
+            //fills the queue
+            executor.execute(() -> done.incrementAndGet());
+            final CountDownLatch submitted = new CountDownLatch(1);
+            final Thread submitter = new Thread(() -> {
+                executor.execute(() -> done.incrementAndGet());
+                submitted.countDown();
+            });
+            submitter.start();
+            assertFalse("Submitting thread should be blocked",
+                    submitted.await(200, TimeUnit.MILLISECONDS));
+
+            release.countDown();
+            assertTrue("Submitting thread should be unblocked",
+                    submitted.await(5, TimeUnit.SECONDS));
+
+            executor.shutdown();
+            assertTrue("Executor should terminate",
+                    executor.awaitTermination(5, TimeUnit.SECONDS));
+
+            assertEquals("All jobs should have been executed", 3, done.get());
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConfigure() throws Exception{
+        IOExecutor.configure(2, 4);
+        try{
+            DataFrameSerializer.writeFileAsync(file, df).get();
+            assertEquals("DataFrame does not match original",
+                    df, DataFrameSerializer.readFileAsync(file).get());
+        }finally{
+            IOExecutor.configure(IOExecutor.DEFAULT_THREADS, IOExecutor.DEFAULT_QUEUE_CAPACITY);
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConfigureInvalid(){
+        IOExecutor.configure(0, 10);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAsyncNullExecutor(){
+        DataFrameSerializer.readFileAsync(file, (Executor) null);
+    }
+}
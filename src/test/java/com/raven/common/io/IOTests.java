@@ -26,6 +26,9 @@ import org.junit.runners.Suite.SuiteClasses;
     DataFrameSerializerImplv2Test.class,
     CSVReaderTest.class,
     CSVWriterTest.class,
+    NumberCodecTest.class,
+    DataFrameAppenderTest.class,
+    IOExecutorTest.class,
     PropertiesFile.class,
     PropertiesFileHandlerTest.class,
     ConfigurationFile.class,
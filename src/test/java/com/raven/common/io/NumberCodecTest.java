@@ -0,0 +1,233 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.raven.common.io;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests for the NumberCodec implementation.
+ *
+ */
+public class NumberCodecTest {
+
+    private char[] buffer;
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp(){
+        buffer = new char[NumberCodec.MAX_CHARS];
+    }
+
+    @After
+    public void tearDown(){ }
+
+    @Test
+    public void testParseLong(){
+        assertEquals("Value does not match", 0L, parseLong("0"));
+        assertEquals("Value does not match", -42L, parseLong("-42"));
+        assertEquals("Value does not match", 42L, parseLong("+42"));
+        assertEquals("Value does not match", Long.MAX_VALUE, parseLong("9223372036854775807"));
+        assertEquals("Value does not match", Long.MIN_VALUE, parseLong("-9223372036854775808"));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testParseLongOverflow(){
+        parseLong("9223372036854775808");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testParseLongOutOfRange(){
+        char[] chars = "128".toCharArray();
+        NumberCodec.parseLong(chars, 0, chars.length, Byte.MIN_VALUE, Byte.MAX_VALUE);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testParseLongInvalid(){
+        parseLong("1.5");
+    }
+
+    @Test
+    public void testParseDouble(){
+        String[] values = new String[]{
+            "0", "-0", "1", "-1.5", "00012.50", ".5", "5.", "1E5", "1e-5", "1.5d",
+            "NaN", "-Infinity", "0x1p3", "1e400", "-1e-400", "9007199254740993",
+            "2.2250738585072011e-308", "4.9e-324", "1.7976931348623157e308",
+            "123456789012345678901234", "0.1", "0.30000000000000004",
+            "9.999999999999999e22", "1e23", "93.44204029355502428"};
+
+        for(String s : values){
+            assertEquals("Value does not match: " + s,
+                    Double.doubleToRawLongBits(Double.parseDouble(s)),
+                    Double.doubleToRawLongBits(parseDouble(s)));
+        }
+    }
+
+    @Test
+    public void testParseDoubleRandom(){
+        Random random = new Random(42);
+        for(int i=0; i<100000; ++i){
+            double value = Double.longBitsToDouble(random.nextLong());
+            if(Double.isNaN(value) || Double.isInfinite(value)){
+                continue;
+            }
+            String s = new BigDecimal(value)
+                    .round(new MathContext(1 + random.nextInt(19)))
+                    .toString();
+
+            assertEquals("Value does not match: " + s,
+                    Double.doubleToRawLongBits(Double.parseDouble(s)),
+                    Double.doubleToRawLongBits(parseDouble(s)));
+
+            s = Double.toString(value);
+            assertEquals("Value does not match: " + s,
+                    Double.doubleToRawLongBits(value),
+                    Double.doubleToRawLongBits(parseDouble(s)));
+        }
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testParseDoubleInvalid(){
+        parseDouble("1.5.3");
+    }
+
+    @Test
+    public void testParseFloatRandom(){
+        Random random = new Random(42);
+        for(int i=0; i<100000; ++i){
+            float value = Float.intBitsToFloat(random.nextInt());
+            if(Float.isNaN(value) || Float.isInfinite(value)){
+                continue;
+            }
+            String s = new BigDecimal(value)
+                    .round(new MathContext(1 + random.nextInt(12)))
+                    .toString();
+
+            char[] chars = s.toCharArray();
+            assertEquals("Value does not match: " + s,
+                    Float.floatToRawIntBits(Float.parseFloat(s)),
+                    Float.floatToRawIntBits(NumberCodec.parseFloat(chars, 0, chars.length)));
+        }
+    }
+
+    @Test
+    public void testFormatLong(){
+        long[] values = new long[]{0, 1, -1, 9, 10, 99, 100, 123456789,
+            Long.MAX_VALUE, Long.MIN_VALUE, Integer.MIN_VALUE};
+
+        for(long value : values){
+            int length = NumberCodec.formatLong(value, buffer, 0);
+            assertEquals("Text does not match", Long.toString(value),
+                    new String(buffer, 0, length));
+        }
+    }
+
+    @Test
+    public void testFormatDouble(){
+        assertEquals("Text does not match", "0.0", formatDouble(0.0));
+        assertEquals("Text does not match", "-0.0", formatDouble(-0.0));
+        assertEquals("Text does not match", "1.0", formatDouble(1.0));
+        assertEquals("Text does not match", "-1.5", formatDouble(-1.5));
+        assertEquals("Text does not match", "0.001", formatDouble(0.001));
+        assertEquals("Text does not match", "1.0E-4", formatDouble(0.0001));
+        assertEquals("Text does not match", "1234567.0", formatDouble(1234567.0));
+        assertEquals("Text does not match", "1.0E7", formatDouble(1.0E7));
+        assertEquals("Text does not match", "1.0E23", formatDouble(1.0E23));
+        assertEquals("Text does not match", "0.1", formatDouble(0.1));
+        assertEquals("Text does not match", "4.9E-324", formatDouble(Double.MIN_VALUE));
+        assertEquals("Text does not match", "1.7976931348623157E308",
+                formatDouble(Double.MAX_VALUE));
+        assertEquals("Text does not match", "NaN", formatDouble(Double.NaN));
+        assertEquals("Text does not match", "-Infinity",
+                formatDouble(Double.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    public void testFormatDoubleRandom(){
+        Random random = new Random(42);
+        for(int i=0; i<100000; ++i){
+            double value = ((i & 1) == 0)
+                    ? Double.longBitsToDouble(random.nextLong())
+                    : Math.round(random.nextDouble() * 1e6) / 100.0;
+
+            if(Double.isNaN(value)){
+                continue;
+            }
+            String s = formatDouble(value);
+            assertEquals("Value does not round trip: " + s,
+                    Double.doubleToRawLongBits(value),
+                    Double.doubleToRawLongBits(Double.parseDouble(s)));
+
+            assertTrue("Text should not be longer than Double.toString(): " + s,
+                    s.length() <= Double.toString(value).length());
+        }
+    }
+
+    @Test
+    public void testFormatFloatRandom(){
+        assertEquals("Text does not match", "1.0E10", formatFloat(1.0E10f));
+        assertEquals("Text does not match", "1.4E-45", formatFloat(Float.MIN_VALUE));
+        assertEquals("Text does not match", "3.4028235E38", formatFloat(Float.MAX_VALUE));
+        Random random = new Random(42);
+        for(int i=0; i<100000; ++i){
+            float value = Float.intBitsToFloat(random.nextInt());
+            if(Float.isNaN(value)){
+                continue;
+            }
+            String s = formatFloat(value);
+            assertEquals("Value does not round trip: " + s,
+                    Float.floatToRawIntBits(value),
+                    Float.floatToRawIntBits(Float.parseFloat(s)));
+
+            assertTrue("Text should not be longer than Float.toString(): " + s,
+                    s.length() <= Float.toString(value).length());
+        }
+    }
+
+    private static long parseLong(final String s){
+        char[] chars = s.toCharArray();
+        return NumberCodec.parseLong(chars, 0, chars.length, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    private static double parseDouble(final String s){
+        char[] chars = s.toCharArray();
+        return NumberCodec.parseDouble(chars, 0, chars.length);
+    }
+
+    private String formatDouble(final double value){
+        return new String(buffer, 0, NumberCodec.formatDouble(value, buffer, 0));
+    }
+
+    private String formatFloat(final float value){
+        return new String(buffer, 0, NumberCodec.formatFloat(value, buffer, 0));
+    }
+}
@@ -1033,4 +1033,156 @@ public class BitVectorTest {
         assertTrue(vec.toString().equals("111111111"));
     }
     
+    @Test
+    public void testRankSelect(){
+        BitVector vec = BitVector.createInitialized(5000, false);
+        for(int i=0; i<5000; i+=5){
+            vec.set(i, true);
+        }
+        assertEquals("Rank does not match", 200, vec.rank1(1000));
+        assertEquals("Rank does not match", 201, vec.rank1(1001));
+        assertEquals("Select does not match", 1000, vec.select1(200));
+        assertEquals("Select should return -1", -1, vec.select1(1000));
+        vec.set(1, true);
+        assertEquals("Rank should reflect modification", 201, vec.rank1(1000));
+        assertEquals("Select should reflect modification", 1, vec.select1(1));
+        vec.remove(0);
+        assertEquals("Select should reflect modification", 0, vec.select1(0));
+        assertEquals("Select should reflect modification", 4, vec.select1(1));
+        vec.add(true);
+        assertEquals("Select should reflect modification", 4999, vec.select1(1000));
+    }
+
+    @Test
+    public void testAndNot(){
+        BitVector vec = BitVector.valueOf("11001010");
+        vec.andNot(BitVector.valueOf("10011100"));
+        assertTrue(vec.toString().equals("01000010"));
+        assertTrue(vec.bitsSet() == 2);
+        vec.andNot(1, Bit._1);
+        vec.andNot(6, Bit._0);
+        assertTrue(vec.toString().equals("00000010"));
+    }
+    
+    @Test
+    public void testScansLarge(){
+        java.util.Random rand = new java.util.Random(42);
+        for(int n : new int[]{1, 7, 8, 63, 64, 65, 200, 1031}){
+            boolean[] ref = new boolean[n];
+            for(int i=0; i<n; ++i){
+                ref[i] = (rand.nextInt(97) == 0);
+            }
+            BitVector vec = BitVector.valueOf(ref);
+            BitVector inv = BitVector.valueOf(ref);
+            inv.flip(0, n);
+            int ones = 0;
+            for(int i=0; i<n; ++i){
+                ones += (ref[i] ? 1 : 0);
+                assertEquals("Next set bit does not match",
+                        next(ref, i, true), vec.nextSetBit(i));
+                assertEquals("Next unset bit does not match",
+                        next(ref, i, false), vec.nextUnsetBit(i));
+                assertEquals("Previous set bit does not match",
+                        previous(ref, i, true), vec.previousSetBit(i));
+                assertEquals("Previous unset bit does not match",
+                        previous(ref, i, false), vec.previousUnsetBit(i));
+                assertEquals("Next set bit of inverse does not match",
+                        next(ref, i, false), inv.nextSetBit(i));
+            }
+            assertEquals("Bits set does not match", ones, vec.bitsSet());
+            assertEquals("Bits unset does not match", ones, inv.bitsUnset());
+        }
+    }
+    
+    @Test
+    public void testRangeOperationsLarge(){
+        java.util.Random rand = new java.util.Random(7);
+        int n = 517;
+        boolean[] ref = new boolean[n];
+        BitVector vec = BitVector.createInitialized(n, false);
+        for(int round=0; round<300; ++round){
+            int start = rand.nextInt(n);
+            int end = start + 1 + rand.nextInt(n - start);
+            switch(rand.nextInt(3)){
+            case 0:
+                vec.flip(start, end);
+                for(int i=start; i<end; ++i){
+                    ref[i] = !ref[i];
+                }
+                break;
+            case 1:
+                boolean bit = rand.nextBoolean();
+                vec.set(start, end, bit);
+                for(int i=start; i<end; ++i){
+                    ref[i] = bit;
+                }
+                break;
+            default:
+                BitVector part = vec.get(start, end);
+                assertEquals("Range size does not match", end - start, part.size());
+                for(int i=start; i<end; ++i){
+                    assertEquals("Range bit does not match", ref[i], part.get(i - start));
+                }
+                int to = rand.nextInt(n - part.size() + 1);
+                vec.set(to, part);
+                for(int i=start; i<end; ++i){
+                    ref[to + i - start] = part.get(i - start);
+                }
+            }
+            assertEquals("BitVectors should be equal", BitVector.valueOf(ref), vec);
+            assertEquals("Bits set does not match",
+                    BitVector.valueOf(ref).bitsSet(), vec.bitsSet());
+        }
+    }
+    
+    @Test
+    public void testShiftRotateLarge(){
+        java.util.Random rand = new java.util.Random(11);
+        int n = 203;
+        boolean[] ref = new boolean[n];
+        for(int i=0; i<n; ++i){
+            ref[i] = rand.nextBoolean();
+        }
+        for(int positions : new int[]{1, 5, 8, 13, 64, 71, 202, 203, 300}){
+            BitVector vec = BitVector.valueOf(ref).shiftLeft(positions);
+            for(int i=0; i<n; ++i){
+                boolean expected = ((i + positions) < n) && ref[i + positions];
+                assertEquals("Left shifted bit does not match", expected, vec.get(i));
+            }
+            vec = BitVector.valueOf(ref).shiftRight(positions);
+            for(int i=0; i<n; ++i){
+                boolean expected = ((i - positions) >= 0) && ref[i - positions];
+                assertEquals("Right shifted bit does not match", expected, vec.get(i));
+            }
+            vec = BitVector.valueOf(ref).rotateLeft(positions);
+            for(int i=0; i<n; ++i){
+                assertEquals("Left rotated bit does not match",
+                        ref[(i + positions) % n], vec.get(i));
+            }
+            vec = BitVector.valueOf(ref).rotateRight(positions);
+            for(int i=0; i<n; ++i){
+                assertEquals("Right rotated bit does not match",
+                        ref[i], vec.get((i + positions) % n));
+            }
+        }
+    }
+    
+    private static int next(boolean[] bits, int index, boolean value){
+        for(int i=index; i<bits.length; ++i){
+            if(bits[i] == value){
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static int previous(boolean[] bits, int index, boolean value){
+        for(int i=index; i>=0; --i){
+            if(bits[i] == value){
+                return i;
+            }
+        }
+        return -1;
+    }
+    
 }
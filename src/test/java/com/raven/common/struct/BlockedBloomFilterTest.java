@@ -0,0 +1,257 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.struct;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.raven.common.io.StringSerializer;
+
+/**
+ * Tests for the BlockedBloomFilter implementation.
+ *
+ */
+public class BlockedBloomFilterTest {
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp(){ }
+
+    @After
+    public void tearDown(){ }
+
+    @Test
+    public void testAdd(){
+        BlockedBloomFilter<String> bf = newStringBf(1000, 0.01);
+        int max = 1000;
+        for(int i=0; i<max; ++i){
+            bf.add("elem" + i);
+        }
+        for(int i=0; i<max; ++i){
+            String element = ("elem" + i);
+            assertTrue("Bloom filter should contain element \""
+                    + element + "\"", bf.contains(element));
+        }
+    }
+
+    @Test
+    public void testAddNoSerializer(){
+        BlockedBloomFilter<String> bf = new BlockedBloomFilter<String>(null, 1000, 0.01);
+        int max = 600;
+        for(int i=0; i<max; ++i){
+            bf.add(new StringBuilder("elem").append(i));
+        }
+        for(int i=0; i<max; ++i){
+            String element = ("elem" + i);
+            assertTrue("Bloom filter should contain element \""
+                    + element + "\"", bf.contains(element));
+        }
+    }
+
+    @Test
+    public void testAddLong(){
+        BlockedBloomFilter<Long> bf = new BlockedBloomFilter<Long>(null, 5000, 0.01);
+        for(int i=0; i<5000; ++i){
+            bf.addLong(i * 17L);
+        }
+        for(int i=0; i<5000; ++i){
+            assertTrue("Bloom filter should contain value " + (i * 17L),
+                    bf.contains(Long.valueOf(i * 17L)));
+        }
+    }
+
+    @Test
+    public void testAddAllParallel(){
+        long[] values = new long[50000];
+        for(int i=0; i<values.length; ++i){
+            values[i] = (i * 7919L);
+        }
+        BlockedBloomFilter<Long> expected = new BlockedBloomFilter<Long>(null, 60000, 0.01);
+        BlockedBloomFilter<Long> bf = new BlockedBloomFilter<Long>(null, 60000, 0.01);
+        for(long value : values){
+            expected.addLong(value);
+        }
+        bf.addAll(values, 4);
+        assertEquals("Filters should be equal", expected.toString(), bf.toString());
+        BitVector result = bf.containsAll(values, null);
+        assertEquals("All values should be contained", values.length, result.bitsSet());
+    }
+
+    @Test
+    public void testWriteRead() throws IOException{
+        BlockedBloomFilter<String> bf = newStringBf(5000, 0.001);
+        for(int i=0; i<3000; ++i){
+            bf.add("elem" + i);
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        bf.writeTo(baos);
+        BlockedBloomFilter<String> read = BlockedBloomFilter.readFrom(
+                new ByteArrayInputStream(baos.toByteArray()), new StringSerializer());
+
+        assertEquals("Filters should be equal", bf.toString(), read.toString());
+        assertEquals("Hash count does not match", bf.getHashCount(), read.getHashCount());
+        for(int i=0; i<3000; ++i){
+            assertTrue("Bloom filter should contain element",
+                    read.contains("elem" + i));
+        }
+    }
+
+    @Test
+    public void testUnionIntersect(){
+        BlockedBloomFilter<Long> bf1 = new BlockedBloomFilter<Long>(null, 5000, 0.001);
+        BlockedBloomFilter<Long> bf2 = new BlockedBloomFilter<Long>(null, 5000, 0.001);
+        BlockedBloomFilter<Long> bf3 = new BlockedBloomFilter<Long>(null, 5000, 0.001);
+        for(int i=0; i<2000; ++i){
+            bf1.addLong(i);
+            bf2.addLong(i + 1000);
+            bf3.addLong(i);
+        }
+        bf3.union(bf2);
+        for(int i=0; i<3000; ++i){
+            assertTrue("Union should contain value", bf3.containsLong(i));
+        }
+        bf1.intersect(bf2);
+        for(int i=1000; i<2000; ++i){
+            assertTrue("Intersection should contain value", bf1.containsLong(i));
+        }
+        assertTrue("Intersection should be smaller",
+                bf1.approximateSize() < bf3.approximateSize());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testUnionIncompatible(){
+        newStringBf(1000, 0.01).union(newStringBf(1000, 0.001));
+    }
+
+    @Test
+    public void testFalsePositiveRate(){
+        double[] errors = new double[]{0.1, 0.01, 0.001};
+        for(double maxError : errors){
+            int n = 20000;
+            BlockedBloomFilter<Long> bf = new BlockedBloomFilter<Long>(null, n, maxError);
+            for(int i=0; i<n; ++i){
+                bf.addLong(i);
+            }
+            int queries = 200000;
+            int positives = 0;
+            for(int i=n; i<n+queries; ++i){
+                if(bf.containsLong(i)){
+                    ++positives;
+                }
+            }
+            double rate = (double) positives / queries;
+            assertTrue("Expected false positive probability should not exceed max error",
+                    bf.expectedFalsePositiveProbability() <= maxError);
+            assertTrue("False positive rate " + rate + " exceeds max error " + maxError,
+                    rate <= (maxError * 1.25));
+        }
+    }
+
+    @Test
+    public void testFalsePositiveProbability(){
+        assertEquals("Empty filter should have no false positives",
+                0.0, BlockedBloomFilter.falsePositiveProbability(0, 512, 4), 0.0);
+        double fpp1 = BlockedBloomFilter.falsePositiveProbability(1000, 512 * 20, 7);
+        double fpp2 = BlockedBloomFilter.falsePositiveProbability(1000, 512 * 40, 7);
+        assertTrue("Probability should decrease with size", fpp2 < fpp1);
+        assertTrue("Probability should be within (0, 1)", (fpp1 > 0) && (fpp1 < 1));
+        //For a single bit per element the sum has the closed form 1 - exp(-n/m)
+        double single = BlockedBloomFilter.falsePositiveProbability(1, 512, 1);
+        assertEquals("Probability does not match", -Math.expm1(-1.0 / 512), single, 1e-12);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testFalsePositiveProbabilityInvalidBits(){
+        BlockedBloomFilter.falsePositiveProbability(1000, 1000, 4);
+    }
+
+    @Test
+    public void testIsEmpty(){
+        BlockedBloomFilter<String> bf = newStringBf(1000, 0.01);
+        assertTrue("Bloom filter should be empty", bf.isEmpty());
+        bf.add("elem");
+        assertFalse("Bloom filter should not be empty", bf.isEmpty());
+    }
+
+    @Test
+    public void testApproximateSize(){
+        BlockedBloomFilter<String> bf = newStringBf(10000, 0.01);
+        for(int i=0; i<5000; ++i){
+            bf.add("elem" + i);
+        }
+        assertEquals("Approximate size does not match", 5000, bf.approximateSize(), 250);
+    }
+
+    @Test
+    public void testSizeInBytes(){
+        BlockedBloomFilter<String> bf = newStringBf(10000, 0.01);
+        long bits = StaticBloomFilter.requiredBits(10000, 0.01);
+        assertTrue("Size should be at least the size of a standard filter",
+                bf.sizeInBytes() >= (bits / 8));
+        assertTrue("Size should not exceed the size of a standard filter by 30%",
+                bf.sizeInBytes() <= ((bits * 13) / 80));
+    }
+
+    @Test
+    public void testClear(){
+        BlockedBloomFilter<String> bf = newStringBf(1000, 0.01);
+        for(int i=0; i<500; ++i){
+            bf.add("elem" + i);
+        }
+        bf.clear();
+        assertTrue("Bloom filter should be empty", bf.isEmpty());
+        assertEquals("Approximate size should be zero", 0, bf.approximateSize());
+        for(int i=0; i<500; ++i){
+            assertFalse("Bloom filter should not contain element",
+                    bf.contains("elem" + i));
+        }
+        assertEquals("Capacity should not change", 1000, bf.getCapacity());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidCapacity(){
+        newStringBf(0, 0.01);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidMaxError(){
+        newStringBf(1000, 1.0);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testAddNull(){
+        newStringBf(1000, 0.01).add((String) null);
+    }
+
+    private BlockedBloomFilter<String> newStringBf(int capacity, double maxError){
+        return new BlockedBloomFilter<String>(new StringSerializer(), capacity, maxError);
+    }
+}
@@ -0,0 +1,195 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.struct;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.raven.common.io.StringSerializer;
+
+/**
+ * Tests for the ConcurrentScalableBloomFilter implementation.
+ *
+ */
+public class ConcurrentScalableBloomFilterTest {
+
+    private static final int THREADS = 8;
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp(){ }
+
+    @After
+    public void tearDown(){ }
+
+    @Test
+    public void testAddWithScaling(){
+        ConcurrentScalableBloomFilter<String> bf = newStringBf(1000, 0.01);
+        assertTrue("Bloom filter should be empty", bf.isEmpty());
+        int max = 20000;
+        for(int i=0; i<max; ++i){
+            bf.add("elem" + i);
+        }
+        for(int i=0; i<max; ++i){
+            String element = ("elem" + i);
+            assertTrue("Bloom filter should contain element \""
+                        + element + "\"", bf.contains(element));
+        }
+        assertTrue("Bloom filter should have scaled", bf.stages().length > 1);
+        bf.clear();
+        assertTrue("Bloom filter should be empty", bf.isEmpty());
+        assertEquals("Bloom filter should have one stage", 1, bf.stages().length);
+    }
+
+    @Test
+    public void testMatchesScalableBloomFilter(){
+        ScalableBloomFilter<String> expected = new ScalableBloomFilter<String>(
+                new StringSerializer(), 1000, 0.01);
+
+        ConcurrentScalableBloomFilter<String> bf = newStringBf(1000, 0.01);
+        for(int i=0; i<20000; ++i){
+            expected.add("elem" + i);
+            bf.add("elem" + i);
+        }
+        assertEquals("Number of stages does not match",
+                expected.stages().length, bf.stages().length);
+
+        assertEquals("Approximate sizes do not match",
+                expected.approximateSize(), bf.approximateSize());
+
+        for(int i=0; i<20000; ++i){
+            String element = ("other" + i);
+            assertEquals("Membership of element \"" + element + "\" does not match",
+                    expected.contains(element), bf.contains(element));
+        }
+    }
+
+    @Test
+    public void testConcurrentAddWithScaling() throws Exception{
+        final ConcurrentScalableBloomFilter<String> bf = newStringBf(1000, 0.01);
+        final int perThread = 20000;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try{
+            List<Future<Integer>> futures = new ArrayList<>();
+            for(int t=0; t<THREADS; ++t){
+                final int thread = t;
+                futures.add(executor.submit(new Callable<Integer>(){
+                    @Override
+                    public Integer call() throws Exception{
+                        start.await();
+                        int missing = 0;
+                        for(int i=0; i<perThread; ++i){
+                            String element = ("elem" + thread + "_" + i);
+                            bf.add(element);
+                            if(!bf.contains(element)){
+                                ++missing;
+                            }
+                        }
+                        return missing;
+                    }
+                }));
+            }
+            start.countDown();
+            for(Future<Integer> future : futures){
+                assertEquals("Added elements should be visible", 0, future.get().intValue());
+            }
+        }finally{
+            executor.shutdown();
+        }
+        for(int t=0; t<THREADS; ++t){
+            for(int i=0; i<perThread; ++i){
+                String element = ("elem" + t + "_" + i);
+                assertTrue("Bloom filter should contain element \""
+                        + element + "\"", bf.contains(element));
+            }
+        }
+        ScalableBloomFilter.Stage[] stages = bf.stages();
+        for(int i=0; i<stages.length-1; ++i){
+            assertTrue("Only the last stage should accept elements", stages[i].isFull());
+        }
+    }
+
+    @Test
+    public void testConcurrentReadersDuringGrowth() throws Exception{
+        final ConcurrentScalableBloomFilter<String> bf = newStringBf(500, 0.01);
+        for(int i=0; i<100; ++i){
+            bf.add("fixed" + i);
+        }
+        final AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try{
+            List<Future<Integer>> readers = new ArrayList<>();
+            for(int t=0; t<THREADS-1; ++t){
+                readers.add(executor.submit(new Callable<Integer>(){
+                    @Override
+                    public Integer call(){
+                        int missing = 0;
+                        while(!done.get()){
+                            for(int i=0; i<100; ++i){
+                                if(!bf.contains("fixed" + i)){
+                                    ++missing;
+                                }
+                            }
+                        }
+                        return missing;
+                    }
+                }));
+            }
+            Future<?> writer = executor.submit(new Runnable(){
+                @Override
+                public void run(){
+                    for(int i=0; i<50000; ++i){
+                        bf.add("elem" + i);
+                    }
+                    done.set(true);
+                }
+            });
+            writer.get();
+            for(Future<Integer> reader : readers){
+                assertEquals("Readers should never miss elements", 0, reader.get().intValue());
+            }
+        }finally{
+            done.set(true);
+            executor.shutdown();
+        }
+        assertTrue("Bloom filter should have scaled", bf.stages().length > 3);
+    }
+
+    private ConcurrentScalableBloomFilter<String> newStringBf(int initCap, double maxError){
+        return new ConcurrentScalableBloomFilter<String>(new StringSerializer(), initCap, maxError);
+    }
+}
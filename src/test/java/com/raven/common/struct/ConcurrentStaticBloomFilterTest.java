@@ -0,0 +1,170 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.struct;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.raven.common.io.StringSerializer;
+
+/**
+ * Tests for the ConcurrentStaticBloomFilter implementation.
+ *
+ */
+public class ConcurrentStaticBloomFilterTest {
+
+    private static final int THREADS = 8;
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp(){ }
+
+    @After
+    public void tearDown(){ }
+
+    @Test
+    public void testAddContains(){
+        ConcurrentStaticBloomFilter<String> bf = new ConcurrentStaticBloomFilter<String>(
+                new StringSerializer(), 5000, 0.01);
+
+        assertTrue("Bloom filter should be empty", bf.isEmpty());
+        for(int i=0; i<2000; ++i){
+            bf.add("elem" + i);
+        }
+        for(int i=0; i<2000; ++i){
+            String element = ("elem" + i);
+            assertTrue("Bloom filter should contain element \""
+                        + element + "\"", bf.contains(element));
+        }
+        assertTrue("Approximate size should be positive", bf.approximateSize() > 0);
+        assertTrue("Size in bytes should be positive", bf.sizeInBytes() > 0);
+        bf.clear();
+        assertTrue("Bloom filter should be empty", bf.isEmpty());
+        assertEquals("Approximate size should be zero", 0, bf.approximateSize());
+    }
+
+    @Test
+    public void testMatchesStaticBloomFilter(){
+        StaticBloomFilter<String> expected = new StaticBloomFilter<String>(
+                new StringSerializer(), 3000, 0.001);
+
+        ConcurrentStaticBloomFilter<String> bf = new ConcurrentStaticBloomFilter<String>(
+                new StringSerializer(), 3000, 0.001);
+
+        for(int i=0; i<1000; ++i){
+            expected.add("elem" + i);
+            bf.add("elem" + i);
+        }
+        assertEquals("Approximate sizes do not match",
+                expected.approximateSize(), bf.approximateSize());
+
+        for(int i=0; i<5000; ++i){
+            String element = ("other" + i);
+            assertEquals("Membership of element \"" + element + "\" does not match",
+                    expected.contains(element), bf.contains(element));
+        }
+    }
+
+    @Test
+    public void testAddAllParallel(){
+        long[] values = new long[20000];
+        for(int i=0; i<values.length; ++i){
+            values[i] = (i * 31L);
+        }
+        StaticBloomFilter<Long> expected = new StaticBloomFilter<Long>(null, 30000, 0.01);
+        ConcurrentStaticBloomFilter<Long> bf = new ConcurrentStaticBloomFilter<Long>(
+                null, 30000, 0.01);
+
+        expected.addAll(values);
+        bf.addAll(values, 4);
+        assertEquals("Approximate sizes do not match",
+                expected.approximateSize(), bf.approximateSize());
+
+        for(int i=0; i<values.length; ++i){
+            assertTrue("Bloom filter should contain value " + values[i],
+                    bf.containsLong(values[i]));
+        }
+    }
+
+    @Test
+    public void testConcurrentAdd() throws Exception{
+        final ConcurrentStaticBloomFilter<String> bf = new ConcurrentStaticBloomFilter<String>(
+                new StringSerializer(), 100000, 0.01);
+
+        final int perThread = 10000;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try{
+            List<Future<Integer>> futures = new ArrayList<>();
+            for(int t=0; t<THREADS; ++t){
+                final int thread = t;
+                futures.add(executor.submit(new Callable<Integer>(){
+                    @Override
+                    public Integer call(){
+                        int missing = 0;
+                        for(int i=0; i<perThread; ++i){
+                            String element = ("elem" + thread + "_" + i);
+                            bf.add(element);
+                            if(!bf.contains(element)){
+                                ++missing;
+                            }
+                        }
+                        return missing;
+                    }
+                }));
+            }
+            for(Future<Integer> future : futures){
+                assertEquals("Added elements should be visible", 0, future.get().intValue());
+            }
+        }finally{
+            executor.shutdown();
+        }
+        for(int t=0; t<THREADS; ++t){
+            for(int i=0; i<perThread; ++i){
+                String element = ("elem" + t + "_" + i);
+                assertTrue("Bloom filter should contain element \""
+                        + element + "\"", bf.contains(element));
+            }
+        }
+        StaticBloomFilter<String> expected = new StaticBloomFilter<String>(
+                new StringSerializer(), 100000, 0.01);
+
+        for(int t=0; t<THREADS; ++t){
+            for(int i=0; i<perThread; ++i){
+                expected.add("elem" + t + "_" + i);
+            }
+        }
+        assertEquals("No bits should be lost by concurrent additions",
+                expected.approximateSize(), bf.approximateSize());
+    }
+}
@@ -0,0 +1,345 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.struct;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.raven.common.io.SerializationException;
+import com.raven.common.io.StringSerializer;
+
+/**
+ * Tests for the CuckooFilter implementation.
+ *
+ */
+public class CuckooFilterTest {
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp(){ }
+
+    @After
+    public void tearDown(){ }
+
+    @Test
+    public void testAdd(){
+        CuckooFilter<String> cf = newStringCf(1000, 0.01);
+        assertTrue("Cuckoo filter should be empty", cf.isEmpty());
+        int max = 1000;
+        for(int i=0; i<max; ++i){
+            cf.add("elem" + i);
+        }
+        for(int i=0; i<max; ++i){
+            String element = ("elem" + i);
+            assertTrue("Cuckoo filter should contain element \""
+                    + element + "\"", cf.contains(element));
+        }
+        assertFalse("Cuckoo filter should not be empty", cf.isEmpty());
+        assertFalse("Cuckoo filter should not be full", cf.isFull());
+    }
+
+    @Test
+    public void testAddDuplicate(){
+        CuckooFilter<String> cf = newStringCf(1000, 0.01);
+        for(int i=0; i<8; ++i){
+            cf.add("elem");
+        }
+        assertEquals("Size should be eight", 8, cf.approximateSize());
+        assertFalse("Cuckoo filter should not be full", cf.isFull());
+        for(int i=0; i<7; ++i){
+            assertTrue("Element should be removed", cf.remove("elem"));
+            assertTrue("Cuckoo filter should contain element", cf.contains("elem"));
+        }
+        assertTrue("Element should be removed", cf.remove("elem"));
+        assertFalse("Cuckoo filter should not contain element", cf.contains("elem"));
+        assertTrue("Cuckoo filter should be empty", cf.isEmpty());
+    }
+
+    @Test
+    public void testAddDuplicateFull(){
+        CuckooFilter<String> cf = newStringCf(1000, 0.01);
+        for(int i=0; i<9; ++i){
+            cf.add("elem");
+        }
+        assertTrue("Cuckoo filter should be full", cf.isFull());
+        assertEquals("Size should be nine", 9, cf.approximateSize());
+        try{
+            cf.add("elem");
+            fail("Adding to a full filter should throw an exception");
+        }catch(IllegalStateException ex){
+            //expected
+        }
+        assertTrue("Element should be removed", cf.remove("elem"));
+        assertFalse("Cuckoo filter should not be full", cf.isFull());
+        assertEquals("Size should be eight", 8, cf.approximateSize());
+    }
+
+    @Test
+    public void testRemoveColliding(){
+        CuckooFilter<Long> cf = new CuckooFilter<Long>(null, 100, 0.1);
+        cf.addLong(0L);
+        //any false positive shares the fingerprint and buckets of the element
+        long other = 1L;
+        while(!cf.containsLong(other)){
+            ++other;
+        }
+        cf.addLong(other);
+        assertEquals("Size should be two", 2, cf.approximateSize());
+        assertTrue("Element should be removed", cf.removeLong(0L));
+        assertTrue("Cuckoo filter should contain colliding value " + other,
+                cf.containsLong(other));
+
+        assertTrue("Colliding value should be removed", cf.removeLong(other));
+        assertFalse("Cuckoo filter should not contain colliding value " + other,
+                cf.containsLong(other));
+
+        assertTrue("Cuckoo filter should be empty", cf.isEmpty());
+    }
+
+    @Test
+    public void testRemove(){
+        CuckooFilter<String> cf = newStringCf(2000, 0.001);
+        for(int i=0; i<2000; ++i){
+            cf.add("elem" + i);
+        }
+        assertEquals("Size should be 2000", 2000, cf.approximateSize());
+        for(int i=0; i<1000; ++i){
+            assertTrue("Element \"elem" + i + "\" should be removed",
+                    cf.remove("elem" + i));
+        }
+        assertEquals("Size should be 1000", 1000, cf.approximateSize());
+        for(int i=1000; i<2000; ++i){
+            String element = ("elem" + i);
+            assertTrue("Cuckoo filter should contain element \""
+                    + element + "\"", cf.contains(element));
+        }
+        int positives = 0;
+        for(int i=0; i<1000; ++i){
+            if(cf.contains("elem" + i)){
+                ++positives;
+            }
+        }
+        assertTrue("Removed elements should not be contained", positives < 10);
+        for(int i=1000; i<2000; ++i){
+            cf.remove("elem" + i);
+        }
+        assertTrue("Cuckoo filter should be empty", cf.isEmpty());
+        assertEquals("Size should be zero", 0, cf.approximateSize());
+    }
+
+    @Test
+    public void testRemoveAbsent(){
+        CuckooFilter<Long> cf = new CuckooFilter<Long>(null, 1000, 0.0001);
+        cf.addLong(1L);
+        assertFalse("Absent element should not be removed", cf.removeLong(2L));
+        assertTrue("Cuckoo filter should contain value", cf.containsLong(1L));
+    }
+
+    @Test
+    public void testPrimitiveKeys(){
+        CuckooFilter<Object> cf = new CuckooFilter<Object>(null, 1000, 0.001);
+        cf.addLong(42L);
+        cf.addInt(7);
+        cf.add("text");
+        byte[] bytes = "xxbytesxx".getBytes(StandardCharsets.UTF_8);
+        cf.add(bytes, 2, 5);
+        assertTrue("Long key should match Long element", cf.contains(Long.valueOf(42L)));
+        assertTrue("Int key should match Integer element", cf.contains(Integer.valueOf(7)));
+        assertTrue("CharSequence key should match String element",
+                cf.contains(new StringBuilder("text")));
+
+        assertTrue("Byte range should match byte array element",
+                cf.contains("bytes".getBytes(StandardCharsets.UTF_8)));
+
+        assertTrue("Value should be removed", cf.removeLong(42L));
+        assertTrue("Value should be removed", cf.removeInt(7));
+        assertTrue("Characters should be removed", cf.remove((CharSequence) "text"));
+        assertTrue("Bytes should be removed", cf.remove(bytes, 2, 5));
+        assertTrue("Cuckoo filter should be empty", cf.isEmpty());
+    }
+
+    @Test
+    public void testAddAll(){
+        long[] values = new long[5000];
+        for(int i=0; i<values.length; ++i){
+            values[i] = (i * 17L);
+        }
+        CuckooFilter<Long> cf = new CuckooFilter<Long>(null, 5000, 0.001);
+        cf.addAll(values, 4);
+        assertEquals("Size does not match", values.length, cf.approximateSize(), 10);
+        BitVector result = cf.containsAll(values, null);
+        assertEquals("All values should be contained", values.length, result.bitsSet());
+    }
+
+    @Test
+    public void testFull(){
+        CuckooFilter<Long> cf = new CuckooFilter<Long>(null, 1000, 0.001);
+        long added = 0;
+        try{
+            while(true){
+                cf.addLong(added);
+                ++added;
+            }
+        }catch(IllegalStateException ex){
+            //expected
+        }
+        assertTrue("Cuckoo filter should be full", cf.isFull());
+        assertTrue("Filter should accept at least its capacity", added >= 1000);
+        for(long i=0; i<added; ++i){
+            assertTrue("Cuckoo filter should contain value " + i, cf.containsLong(i));
+        }
+        //the stashed fingerprint is placed again when a free slot can be reached
+        long removed = 0;
+        while(cf.isFull()){
+            assertTrue("Value should be removed", cf.removeLong(removed));
+            ++removed;
+        }
+        assertTrue("Cuckoo filter should not be full after few removals", removed < 10);
+        for(long i=removed; i<added; ++i){
+            assertTrue("Cuckoo filter should contain value " + i, cf.containsLong(i));
+        }
+        cf.addLong(added);
+        assertTrue("Cuckoo filter should contain value", cf.containsLong(added));
+    }
+
+    @Test
+    public void testFalsePositiveRate(){
+        CuckooFilter<Long> cf = new CuckooFilter<Long>(null, 20000, 0.001);
+        for(int i=0; i<20000; ++i){
+            cf.addLong(i);
+        }
+        int positives = 0;
+        int queries = 200000;
+        for(int i=0; i<queries; ++i){
+            if(cf.containsLong(i + 1000000L)){
+                ++positives;
+            }
+        }
+        double rate = ((double) positives / queries);
+        assertTrue("False positive rate too high: " + rate, rate < 0.0015);
+        assertTrue("Expected false positive probability should not exceed maximum",
+                cf.expectedFalsePositiveProbability() <= 0.001);
+    }
+
+    @Test
+    public void testSmallerThanBloomFilter(){
+        CuckooFilter<Long> cf = new CuckooFilter<Long>(null, 100000, 0.0001);
+        StaticBloomFilter<Long> bf = new StaticBloomFilter<Long>(null, 100000, 0.0001);
+        assertTrue("Cuckoo filter should be smaller than Bloom filter",
+                cf.sizeInBytes() < bf.sizeInBytes());
+    }
+
+    @Test
+    public void testFalsePositiveProbability(){
+        assertEquals("Empty filter should have no false positives",
+                0.0, CuckooFilter.falsePositiveProbability(8, 0.0), 0.0);
+        assertEquals("False positive probability does not match",
+                -Math.expm1(8 * Math.log1p(-1.0 / 256)),
+                CuckooFilter.falsePositiveProbability(8, 1.0), 1e-15);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidCapacity(){
+        new CuckooFilter<String>(null, 0, 0.01);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidMaxError(){
+        new CuckooFilter<String>(null, 1000, 1e-12);
+    }
+
+    @Test
+    public void testWriteRead() throws IOException{
+        CuckooFilter<String> cf = newStringCf(5000, 0.001);
+        for(int i=0; i<3000; ++i){
+            cf.add("elem" + i);
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        cf.writeTo(baos);
+        CuckooFilter<String> read = CuckooFilter.readFrom(
+                new ByteArrayInputStream(baos.toByteArray()), new StringSerializer());
+
+        assertEquals("Filters should be equal", cf.toString(), read.toString());
+        assertEquals("Size does not match", cf.approximateSize(), read.approximateSize());
+        for(int i=0; i<3000; ++i){
+            assertTrue("Cuckoo filter should contain element",
+                    read.contains("elem" + i));
+        }
+        for(int i=0; i<3000; ++i){
+            assertTrue("Element should be removed", read.remove("elem" + i));
+        }
+        assertTrue("Cuckoo filter should be empty", read.isEmpty());
+    }
+
+    @Test
+    public void testWriteReadFull() throws IOException{
+        CuckooFilter<Long> cf = new CuckooFilter<Long>(null, 100, 0.01);
+        long added = 0;
+        while(!cf.isFull()){
+            cf.addLong(added++);
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        cf.writeTo(baos);
+        CuckooFilter<Long> read = CuckooFilter.readFrom(
+                new ByteArrayInputStream(baos.toByteArray()), null);
+
+        assertTrue("Cuckoo filter should be full", read.isFull());
+        assertEquals("Size does not match", cf.approximateSize(), read.approximateSize());
+        for(long i=0; i<added; ++i){
+            assertTrue("Cuckoo filter should contain value " + i, read.containsLong(i));
+        }
+    }
+
+    @Test(expected=SerializationException.class)
+    public void testReadWrongType() throws IOException{
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new BlockedBloomFilter<String>(null, 1000, 0.01).writeTo(baos);
+        CuckooFilter.readFrom(new ByteArrayInputStream(baos.toByteArray()), null);
+    }
+
+    @Test
+    public void testClear(){
+        CuckooFilter<String> cf = newStringCf(1000, 0.01);
+        for(int i=0; i<500; ++i){
+            cf.add("elem" + i);
+        }
+        long size = cf.sizeInBytes();
+        cf.clear();
+        assertTrue("Cuckoo filter should be empty", cf.isEmpty());
+        assertEquals("Size in bytes should not change", size, cf.sizeInBytes());
+        assertFalse("Cuckoo filter should not contain element", cf.contains("elem0"));
+    }
+
+    private CuckooFilter<String> newStringCf(int capacity, double maxError){
+        return new CuckooFilter<String>(new StringSerializer(), capacity, maxError);
+    }
+}
@@ -880,6 +880,97 @@ public class DataFrameUtilsTest {
 
 
 
+    //***************************************//
+    //           Concat operation            //
+    //***************************************//
+
+
+
+    @Test
+    public void testConcatDefault(){
+        DataFrame df1 = new DefaultDataFrame(
+                Column.create("A", "AAA","AAB","AAC"),
+                Column.create("B", 11.11,22.22,33.33),
+                Column.create("C", 'A','B','C'));
+
+        DataFrame df2 = new DefaultDataFrame(
+                Column.create("D", "BBA","BBB"),
+                Column.create("E", 44.44,55.55),
+                Column.create("F", 'D','E'));
+
+        DataFrame res = DataFrame.concat(df1, df2);
+        assertTrue("DataFrame should be of type DefaultDataFrame",
+                res instanceof DefaultDataFrame);
+
+        DataFrame truth = new DefaultDataFrame(
+                Column.create("A", "AAA","AAB","AAC","BBA","BBB"),
+                Column.create("B", 11.11,22.22,33.33,44.44,55.55),
+                Column.create("C", 'A','B','C','D','E'));
+
+        assertEquals("DataFrames do not match", truth, res);
+    }
+
+    @Test
+    public void testConcatNullable(){
+        DataFrame df1 = new NullableDataFrame(
+                Column.nullable("A", 1,null,3),
+                Column.nullable("B", "a",null,"c"));
+
+        DataFrame df2 = new NullableDataFrame(
+                Column.nullable("A", null,5),
+                Column.nullable("B", "d",null));
+
+        DataFrame df3 = new NullableDataFrame(
+                Column.nullable("A", 6),
+                Column.nullable("B", "f"));
+
+        DataFrame res = DataFrame.concat(df1, df2, df3);
+        assertTrue("DataFrame should be of type NullableDataFrame",
+                res instanceof NullableDataFrame);
+
+        DataFrame truth = new NullableDataFrame(
+                Column.nullable("A", 1,null,3,null,5,6),
+                Column.nullable("B", "a",null,"c","d",null,"f"));
+
+        assertEquals("DataFrames do not match", truth, res);
+    }
+
+    @Test
+    public void testConcatOneArg(){
+        DataFrame df1 = new DefaultDataFrame(
+                Column.create("A", "AAA","AAB","AAC"),
+                Column.create("B", 11.11,22.22,33.33));
+
+        DataFrame res = DataFrame.concat(df1);
+        assertTrue("DataFrame reference does not match", res == df1);
+    }
+
+    @Test(expected=DataFrameException.class)
+    public void testConcatFailTypeMismatch(){
+        DataFrame df1 = new DefaultDataFrame(
+                Column.create("A", "AAA","AAB","AAC"),
+                Column.create("B", 11.11,22.22,33.33));
+
+        DataFrame df2 = new DefaultDataFrame(
+                Column.create("A", "BBA","BBB"),
+                Column.create("B", 10,11));
+
+        DataFrame.concat(df1, df2);
+    }
+
+    @Test(expected=DataFrameException.class)
+    public void testConcatFailMixedImplementations(){
+        DataFrame df1 = new DefaultDataFrame(
+                Column.create("A", 1,2,3));
+
+        DataFrame df2 = new NullableDataFrame(
+                Column.nullable("A", 4,5));
+
+        DataFrame.concat(df1, df2);
+    }
+
+
+
     //***************************************//
     //           Convert operation           //
     //***************************************//
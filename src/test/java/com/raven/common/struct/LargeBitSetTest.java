@@ -0,0 +1,187 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.struct;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests for the LargeBitSet implementation.
+ *
+ */
+public class LargeBitSetTest {
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp(){ }
+
+    @After
+    public void tearDown(){ }
+
+    @Test
+    public void testAllocate(){
+        LargeBitSet bits = LargeBitSet.allocate(1000);
+        assertEquals("Size does not match", 1000, bits.size());
+        assertEquals("Size in bytes does not match", 128, bits.sizeInBytes());
+        assertFalse("LargeBitSet should not be mapped", bits.isMapped());
+        assertEquals("No bits should be set", 0, bits.bitsSet());
+        for(int i=0; i<1000; ++i){
+            assertFalse("Bit should not be set", bits.get(i));
+        }
+    }
+
+    @Test
+    public void testSetGet(){
+        LargeBitSet bits = LargeBitSet.allocate(999);
+        for(int i=0; i<999; i+=3){
+            assertTrue("Bit should be previously unset", bits.set(i));
+        }
+        assertFalse("Bit should be previously set", bits.set(0));
+        assertEquals("Number of set bits does not match", 333, bits.bitsSet());
+        for(int i=0; i<999; ++i){
+            assertEquals("Bit at index " + i + " does not match", (i % 3 == 0), bits.get(i));
+        }
+        bits.set(3, false);
+        bits.set(4, false);
+        bits.set(5, true);
+        assertFalse("Bit should be unset", bits.get(3));
+        assertTrue("Bit should be set", bits.get(5));
+        assertEquals("Number of set bits does not match", 333, bits.bitsSet());
+    }
+
+    @Test
+    public void testClear(){
+        LargeBitSet bits = LargeBitSet.allocate(200);
+        bits.set(0);
+        bits.set(63);
+        bits.set(64);
+        bits.set(199);
+        assertEquals("Number of set bits does not match", 4, bits.bitsSet());
+        bits.clear();
+        assertEquals("No bits should be set", 0, bits.bitsSet());
+        for(int i=0; i<200; ++i){
+            assertFalse("Bit should not be set", bits.get(i));
+        }
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testGetOutOfBounds(){
+        LargeBitSet bits = LargeBitSet.allocate(100);
+        bits.get(100);
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testSetNegativeIndex(){
+        LargeBitSet bits = LargeBitSet.allocate(100);
+        bits.set(-1);
+    }
+
+    @Test
+    public void testWords(){
+        LargeBitSet bits = LargeBitSet.allocate(200);
+        bits.set(0);
+        bits.set(65);
+        assertEquals("Word does not match", 1L, bits.getWord(0));
+        assertEquals("Word does not match", 2L, bits.getWord(1));
+        bits.orWord(1, 0x6L);
+        bits.orWord(3, 0xffL);
+        assertEquals("Word does not match", 6L, bits.getWord(1));
+        assertTrue("Bit should be set", bits.get(66));
+        assertTrue("Bit should be set", bits.get(199));
+        assertEquals("Number of set bits does not match", 11, bits.bitsSet());
+        bits.andWord(1, 0x4L);
+        assertEquals("Word does not match", 4L, bits.getWord(1));
+        assertEquals("Number of set bits does not match", 10, bits.bitsSet());
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testWordOutOfBounds(){
+        LargeBitSet bits = LargeBitSet.allocate(200);
+        bits.getWord(4);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAllocateNegativeSize(){
+        LargeBitSet.allocate(-1);
+    }
+
+    @Test
+    public void testMapPersistent() throws IOException{
+        File file = File.createTempFile("large_bit_set_test", ".bits");
+        file.deleteOnExit();
+        try(LargeBitSet bits = LargeBitSet.map(file, 10000)){
+            assertTrue("LargeBitSet should be mapped", bits.isMapped());
+            assertEquals("No bits should be set", 0, bits.bitsSet());
+            for(int i=0; i<10000; i+=7){
+                bits.set(i);
+            }
+        }
+        assertEquals("File size does not match", 1256, file.length());
+        try(LargeBitSet bits = LargeBitSet.map(file, 10000)){
+            assertEquals("Number of set bits does not match", 1429, bits.bitsSet());
+            for(int i=0; i<10000; ++i){
+                assertEquals("Bit at index " + i + " does not match", (i % 7 == 0), bits.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testMapSegmentBoundary() throws IOException{
+        File file = File.createTempFile("large_bit_set_test", ".bits");
+        file.deleteOnExit();
+        long boundary = (1L << 30);
+        long[] indices = {0, boundary - 1, boundary, boundary + 1, boundary + 127};
+        try(LargeBitSet bits = LargeBitSet.map(file, boundary + 128)){
+            assertEquals("Size does not match", boundary + 128, bits.size());
+            for(long index : indices){
+                assertTrue("Bit should be previously unset", bits.set(index));
+            }
+            assertFalse("Bit should not be set", bits.get(boundary - 2));
+            assertFalse("Bit should not be set", bits.get(boundary + 2));
+        }
+        try(LargeBitSet bits = LargeBitSet.map(file, boundary + 128)){
+            for(long index : indices){
+                assertTrue("Bit at index " + index + " should be set", bits.get(index));
+            }
+        }finally{
+            file.delete();
+        }
+    }
+
+    @Test(expected=IOException.class)
+    public void testMapSizeMismatch() throws IOException{
+        File file = File.createTempFile("large_bit_set_test", ".bits");
+        file.deleteOnExit();
+        try(LargeBitSet bits = LargeBitSet.map(file, 1000)){
+            bits.set(1);
+        }
+        LargeBitSet.map(file, 2000);
+    }
+}
@@ -0,0 +1,161 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.struct;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests for the RankSelectIndex implementation.
+ *
+ */
+public class RankSelectIndexTest {
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp(){ }
+
+    @After
+    public void tearDown(){ }
+
+    @Test
+    public void testRankSelectSmall(){
+        BitVector vec = BitVector.valueOf("0110100111");
+        RankSelectIndex index = new RankSelectIndex(vec);
+        int[] ranks = {0, 0, 1, 2, 2, 3, 3, 3, 4, 5, 6};
+        for(int i=0; i<ranks.length; ++i){
+            assertEquals("Rank at index " + i + " does not match", ranks[i], index.rank1(i));
+            assertEquals("Rank0 at index " + i + " does not match", i - ranks[i], index.rank0(i));
+        }
+        int[] positions = {1, 2, 4, 7, 8, 9};
+        for(int k=0; k<positions.length; ++k){
+            assertEquals("Select of rank " + k + " does not match", positions[k], index.select1(k));
+        }
+        assertEquals("Select beyond bits set should return -1", -1, index.select1(6));
+        assertEquals("Number of set bits does not match", 6, index.bitsSet());
+    }
+
+    @Test
+    public void testRankSelectRandom(){
+        Random rand = new Random(3);
+        double[] densities = {0.001, 0.05, 0.5, 0.97};
+        int[] sizes = {1, 63, 64, 65, 511, 512, 513, 4000, 100003};
+        for(double density : densities){
+            for(int size : sizes){
+                BitVector vec = BitVector.createInitialized(size, false);
+                for(int i=0; i<size; ++i){
+                    if(rand.nextDouble() < density){
+                        vec.set(i, true);
+                    }
+                }
+                assertMatches(vec, new RankSelectIndex(vec));
+            }
+        }
+    }
+
+    @Test
+    public void testRankSelectLongRuns(){
+        BitVector vec = BitVector.createInitialized(300000, false);
+        vec.set(1000, 2000, true);
+        vec.set(250000, 299999, true);
+        vec.set(123456, true);
+        assertMatches(vec, new RankSelectIndex(vec));
+    }
+
+    @Test
+    public void testRankSelectEmpty(){
+        RankSelectIndex index = new RankSelectIndex(new BitVector());
+        assertEquals("Rank does not match", 0, index.rank1(0));
+        assertEquals("Select should return -1", -1, index.select1(0));
+        index = new RankSelectIndex(BitVector.createInitialized(1000, false));
+        assertEquals("Rank does not match", 0, index.rank1(1000));
+        assertEquals("Select should return -1", -1, index.select1(0));
+    }
+
+    @Test
+    public void testIgnoresBitsAfterSize(){
+        BitVector vec = BitVector.wrap(new byte[]{(byte) 0xff, (byte) 0xff});
+        vec.remove(12, 16);
+        RankSelectIndex index = new RankSelectIndex(vec);
+        assertEquals("Number of set bits does not match", vec.bitsSet(), index.bitsSet());
+        assertEquals("Rank does not match", 12, index.rank1(12));
+        assertEquals("Select should return -1", -1, index.select1(12));
+    }
+
+    @Test
+    public void testInvalidation(){
+        BitVector vec = BitVector.createInitialized(100, true);
+        RankSelectIndex index = new RankSelectIndex(vec);
+        assertTrue("Index should be valid", index.isValid());
+        vec.set(5, false);
+        assertFalse("Index should be invalid", index.isValid());
+        try{
+            index.rank1(10);
+            fail("Outdated index should throw");
+        }catch(IllegalStateException ex){
+            //expected
+        }
+        index = new RankSelectIndex(vec);
+        assertEquals("Rank does not match", 9, index.rank1(10));
+        vec.flip(0, 10);
+        assertFalse("Index should be invalid", index.isValid());
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testRankOutOfBounds(){
+        new RankSelectIndex(BitVector.createInitialized(10, true)).rank1(11);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testSelectNegative(){
+        new RankSelectIndex(BitVector.createInitialized(10, true)).select1(-1);
+    }
+
+    @Test
+    public void testSizeInBytes(){
+        BitVector vec = BitVector.createInitialized(1 << 20, true);
+        RankSelectIndex index = new RankSelectIndex(vec);
+        assertTrue("Index should not exceed a quarter of the vector",
+                index.sizeInBytes() <= (vec.asArray().length / 4) + 64);
+    }
+
+    private static void assertMatches(BitVector vec, RankSelectIndex index){
+        int rank = 0;
+        for(int i=0; i<vec.size(); ++i){
+            assertEquals("Rank at index " + i + " does not match", rank, index.rank1(i));
+            if(vec.get(i)){
+                assertEquals("Select of rank " + rank + " does not match", i, index.select1(rank));
+                ++rank;
+            }
+        }
+        assertEquals("Rank at size does not match", rank, index.rank1(vec.size()));
+        assertEquals("Number of set bits does not match", rank, index.bitsSet());
+        assertEquals("Select beyond bits set should return -1", -1, index.select1(rank));
+    }
+}
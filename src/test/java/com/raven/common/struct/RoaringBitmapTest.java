@@ -0,0 +1,353 @@
+/* 
+ * Copyright (C) 2021 Raven Computing
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.raven.common.struct;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests for the RoaringBitmap implementation.
+ *
+ */
+public class RoaringBitmapTest {
+
+    @BeforeClass
+    public static void setUpBeforeClass(){ }
+
+    @AfterClass
+    public static void tearDownAfterClass(){ }
+
+    @Before
+    public void setUp(){ }
+
+    @After
+    public void tearDown(){ }
+
+    @Test
+    public void testAddContainsRemove(){
+        RoaringBitmap bitmap = new RoaringBitmap();
+        assertTrue("Bitmap should be empty", bitmap.isEmpty());
+        int[] values = {0, 1, 65535, 65536, 1000000, Integer.MAX_VALUE};
+        for(int value : values){
+            bitmap.add(value);
+        }
+        bitmap.add(1);
+        assertEquals("Cardinality does not match", values.length, bitmap.cardinality());
+        for(int value : values){
+            assertTrue("Bitmap should contain " + value, bitmap.contains(value));
+        }
+        assertFalse("Bitmap should not contain 2", bitmap.contains(2));
+        assertFalse("Bitmap should not contain -1", bitmap.contains(-1));
+        assertEquals("First value does not match", 0, bitmap.first());
+        assertEquals("Last value does not match", Integer.MAX_VALUE, bitmap.last());
+        bitmap.remove(65536);
+        bitmap.remove(65536);
+        bitmap.remove(7);
+        assertFalse("Bitmap should not contain 65536", bitmap.contains(65536));
+        assertEquals("Cardinality does not match", values.length - 1, bitmap.cardinality());
+        bitmap.clear();
+        assertTrue("Bitmap should be empty", bitmap.isEmpty());
+        assertEquals("Cardinality does not match", 0, bitmap.cardinality());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAddNegative(){
+        new RoaringBitmap().add(-1);
+    }
+
+    @Test(expected=NoSuchElementException.class)
+    public void testFirstEmpty(){
+        new RoaringBitmap().first();
+    }
+
+    @Test
+    public void testDenseChunk(){
+        RoaringBitmap bitmap = new RoaringBitmap();
+        BitSet expected = new BitSet();
+        for(int i=0; i<10000; ++i){
+            bitmap.add(i * 3);
+            expected.set(i * 3);
+        }
+        assertMatches(expected, bitmap);
+        for(int i=0; i<10000; i+=2){
+            bitmap.remove(i * 3);
+            expected.clear(i * 3);
+        }
+        assertMatches(expected, bitmap);
+    }
+
+    @Test
+    public void testAddRange(){
+        RoaringBitmap bitmap = new RoaringBitmap();
+        bitmap.add(100, 300000);
+        bitmap.add(5);
+        bitmap.add(299990, 300010);
+        BitSet expected = new BitSet();
+        expected.set(100, 300000);
+        expected.set(5);
+        expected.set(299990, 300010);
+        assertMatches(expected, bitmap);
+        bitmap.add(7, 7);
+        assertEquals("Cardinality does not match", expected.cardinality(), bitmap.cardinality());
+        assertTrue("Ranges should be stored in run containers", bitmap.runOptimize());
+        assertTrue("Size in bytes should be small", bitmap.sizeInBytes() < 1000);
+        bitmap.remove(1000);
+        bitmap.add(400000);
+        expected.clear(1000);
+        expected.set(400000);
+        assertMatches(expected, bitmap);
+    }
+
+    @Test
+    public void testSetOperationsRandom(){
+        Random rand = new Random(42);
+        for(int round=0; round<20; ++round){
+            BitSet a = randomSet(rand);
+            BitSet b = randomSet(rand);
+            RoaringBitmap ra = toBitmap(a, rand.nextBoolean());
+            RoaringBitmap rb = toBitmap(b, rand.nextBoolean());
+
+            BitSet and = (BitSet) a.clone();
+            and.and(b);
+            assertMatches(and, ra.clone().and(rb));
+
+            BitSet or = (BitSet) a.clone();
+            or.or(b);
+            assertMatches(or, ra.clone().or(rb));
+
+            BitSet andNot = (BitSet) a.clone();
+            andNot.andNot(b);
+            assertMatches(andNot, ra.clone().andNot(rb));
+
+            assertMatches(a, ra);
+            assertMatches(b, rb);
+        }
+    }
+
+    @Test
+    public void testSetOperationsSelf(){
+        RoaringBitmap bitmap = RoaringBitmap.of(1, 2, 70000);
+        bitmap.add(200000, 300000);
+        RoaringBitmap copy = bitmap.clone();
+        assertEquals("Bitmaps should be equal", copy, bitmap.and(bitmap));
+        assertEquals("Bitmaps should be equal", copy, bitmap.or(bitmap));
+        assertTrue("Bitmap should be empty", bitmap.andNot(bitmap).isEmpty());
+    }
+
+    @Test
+    public void testIteration(){
+        RoaringBitmap bitmap = RoaringBitmap.of(3, 1, 65536, 131071, 1 << 20);
+        bitmap.add(200000, 200003);
+        int[] expected = {1, 3, 65536, 131071, 200000, 200001, 200002, 1 << 20};
+        assertArrayEquals("Values do not match", expected, bitmap.toArray());
+        PrimitiveIterator.OfInt iter = bitmap.iterator();
+        for(int value : expected){
+            assertTrue("Iterator should have a next value", iter.hasNext());
+            assertEquals("Iterated value does not match", value, iter.nextInt());
+        }
+        assertFalse("Iterator should not have a next value", iter.hasNext());
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEachValue(value -> values.add(value));
+        assertEquals("Number of values does not match", expected.length, values.size());
+        for(int i=0; i<expected.length; ++i){
+            assertEquals("Value does not match", expected[i], values.get(i).intValue());
+        }
+        assertEquals("Next value does not match", 1, bitmap.nextValue(-5));
+        assertEquals("Next value does not match", 3, bitmap.nextValue(2));
+        assertEquals("Next value does not match", 65536, bitmap.nextValue(4));
+        assertEquals("Next value does not match", 200001, bitmap.nextValue(200001));
+        assertEquals("Next value does not match", -1, bitmap.nextValue((1 << 20) + 1));
+        assertEquals("String representation does not match",
+                "{1, 3, 65536, 131071, 200000, 200001, 200002, 1048576}", bitmap.toString());
+    }
+
+    @Test
+    public void testBitVectorConversion(){
+        Random rand = new Random(7);
+        BitSet expected = randomSet(rand);
+        BitVector vec = BitVector.createInitialized(expected.length() + 5, false);
+        for(int i=expected.nextSetBit(0); i>=0; i=expected.nextSetBit(i + 1)){
+            vec.set(i, true);
+        }
+        RoaringBitmap bitmap = RoaringBitmap.valueOf(vec);
+        assertMatches(expected, bitmap);
+        BitVector back = bitmap.toBitVector(vec.size());
+        assertEquals("BitVector sizes do not match", vec.size(), back.size());
+        assertEquals("BitVectors should be equal", vec, back);
+        assertEquals("Number of set bits does not match", vec.bitsSet(), back.bitsSet());
+        BitVector trimmed = bitmap.toBitVector();
+        assertEquals("BitVector size does not match", expected.length(), trimmed.size());
+    }
+
+    @Test
+    public void testBitVectorConversionSmall(){
+        BitVector vec = BitVector.valueOf("0110100111");
+        RoaringBitmap bitmap = RoaringBitmap.valueOf(vec);
+        assertArrayEquals("Values do not match",
+                new int[]{1, 2, 4, 7, 8, 9}, bitmap.toArray());
+
+        assertEquals("BitVectors should be equal", vec, bitmap.toBitVector());
+        assertEquals("BitVectors should be equal",
+                BitVector.valueOf("01101"), bitmap.toBitVector(5));
+
+        assertEquals("BitVector should be empty", 0,
+                new RoaringBitmap().toBitVector().size());
+    }
+
+    @Test
+    public void testBitVectorConversionDense(){
+        BitVector vec = BitVector.createInitialized(200000, true);
+        vec.set(70000, false);
+        RoaringBitmap bitmap = RoaringBitmap.valueOf(vec);
+        assertEquals("Cardinality does not match", 199999, bitmap.cardinality());
+        assertFalse("Bitmap should not contain 70000", bitmap.contains(70000));
+        assertTrue("Size in bytes should be small", bitmap.sizeInBytes() < 1000);
+        assertEquals("BitVectors should be equal", vec, bitmap.toBitVector());
+    }
+
+    @Test
+    public void testSerialize(){
+        Random rand = new Random(11);
+        BitSet expected = randomSet(rand);
+        RoaringBitmap bitmap = toBitmap(expected, true);
+        bitmap.add(5000000, 5100000);
+        expected.set(5000000, 5100000);
+        bitmap.runOptimize();
+        byte[] bytes = bitmap.serialize();
+        RoaringBitmap copy = RoaringBitmap.deserialize(bytes);
+        assertMatches(expected, copy);
+        assertEquals("Bitmaps should be equal", bitmap, copy);
+        assertEquals("Hash codes should be equal", bitmap.hashCode(), copy.hashCode());
+        assertArrayEquals("Serialized bytes do not match", bytes, copy.serialize());
+        RoaringBitmap empty = RoaringBitmap.deserialize(new RoaringBitmap().serialize());
+        assertTrue("Bitmap should be empty", empty.isEmpty());
+    }
+
+    @Test
+    public void testDeserializeMalformed(){
+        byte[] bytes = RoaringBitmap.of(1, 2, 3, 100000).serialize();
+        byte[] truncated = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        byte[] version = bytes.clone();
+        version[0] = 9;
+        for(byte[] malformed : new byte[][]{truncated, version}){
+            try{
+                RoaringBitmap.deserialize(malformed);
+                fail("Malformed bytes should be rejected");
+            }catch(IllegalArgumentException ex){
+                //expected
+            }
+        }
+    }
+
+    @Test
+    public void testJavaSerialization() throws IOException, ClassNotFoundException{
+        RoaringBitmap bitmap = RoaringBitmap.of(1, 5, 1 << 24);
+        bitmap.add(1000, 100000);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(ObjectOutputStream out = new ObjectOutputStream(bytes)){
+            out.writeObject(bitmap);
+        }
+        try(ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))){
+
+            assertEquals("Bitmaps should be equal", bitmap, in.readObject());
+        }
+    }
+
+    @Test
+    public void testEqualsAcrossContainerTypes(){
+        RoaringBitmap ranges = new RoaringBitmap();
+        ranges.add(10, 20000);
+        RoaringBitmap values = new RoaringBitmap();
+        for(int i=10; i<20000; ++i){
+            values.add(i);
+        }
+        assertEquals("Bitmaps should be equal", ranges, values);
+        assertEquals("Hash codes should be equal", ranges.hashCode(), values.hashCode());
+        values.remove(15);
+        assertNotEquals("Bitmaps should not be equal", ranges, values);
+    }
+
+    private static BitSet randomSet(Random rand){
+        BitSet set = new BitSet();
+        int chunks = 1 + rand.nextInt(6);
+        for(int c=0; c<chunks; ++c){
+            int base = rand.nextInt(40) << 16;
+            switch(rand.nextInt(3)){
+            case 0://sparse
+                for(int i=0; i<100; ++i){
+                    set.set(base + rand.nextInt(1 << 16));
+                }
+                break;
+            case 1://dense
+                for(int i=0; i<30000; ++i){
+                    set.set(base + rand.nextInt(1 << 16));
+                }
+                break;
+            default://runs
+                for(int i=0; i<10; ++i){
+                    int start = base + rand.nextInt(1 << 16);
+                    set.set(start, Math.min(base + (1 << 16), start + rand.nextInt(3000)));
+                }
+            }
+        }
+        return set;
+    }
+
+    private static RoaringBitmap toBitmap(BitSet set, boolean optimize){
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for(int i=set.nextSetBit(0); i>=0; i=set.nextSetBit(i + 1)){
+            bitmap.add(i);
+        }
+        if(optimize){
+            bitmap.runOptimize();
+        }
+        return bitmap;
+    }
+
+    private static void assertMatches(BitSet expected, RoaringBitmap bitmap){
+        assertEquals("Cardinality does not match", expected.cardinality(), bitmap.cardinality());
+        int[] values = bitmap.toArray();
+        int n = 0;
+        for(int i=expected.nextSetBit(0); i>=0; i=expected.nextSetBit(i + 1)){
+            assertEquals("Value does not match", i, values[n++]);
+            assertTrue("Bitmap should contain " + i, bitmap.contains(i));
+        }
+        if(!expected.isEmpty()){
+            assertEquals("First value does not match", expected.nextSetBit(0), bitmap.first());
+            assertEquals("Last value does not match", expected.length() - 1, bitmap.last());
+        }
+    }
+}
@@ -18,6 +18,10 @@ package com.raven.common.struct;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -174,6 +178,155 @@ public class ScalableBloomFilterTest {
         assertTrue("Size in bytes should be positive", bf.sizeInBytes() > 0);
     }
 
+    @Test
+    public void testOffHeap(){
+        ScalableBloomFilter<String> bf = new ScalableBloomFilter<String>(
+                new StringSerializer(), 1000, 0.01,
+                ScalableBloomFilter.DEFAULT_SCALE_FACTOR,
+                ScalableBloomFilter.DEFAULT_TIGHTENING_RATIO, true);
+
+        assertTrue("Bloom filter should be empty", bf.isEmpty());
+        int max = 10000;
+        for(int i=0; i<max; ++i){
+            bf.add("elem" + i);
+        }
+        for(int i=0; i<max; ++i){
+            String element = ("elem" + i);
+            assertTrue("Bloom filter should contain element \""
+                        + element + "\"", bf.contains(element));
+        }
+        assertTrue("Approximate size should be positive", bf.approximateSize() > 0);
+        bf.clear();
+        assertTrue("Bloom filter should be empty", bf.isEmpty());
+    }
+
+    @Test
+    public void testAddLong(){
+        ScalableBloomFilter<Long> bf = new ScalableBloomFilter<Long>(null, 100, 0.01);
+        int max = 2000;
+        for(int i=0; i<max; ++i){
+            bf.addLong(i * 31L);
+        }
+        for(int i=0; i<max; ++i){
+            Long element = Long.valueOf(i * 31L);
+            assertTrue("Bloom filter should contain value " + element,
+                    bf.containsLong(element));
+            assertTrue("Bloom filter should contain element " + element,
+                    bf.contains(element));
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRateLong(){
+        ScalableBloomFilter<Long> bf = new ScalableBloomFilter<Long>(null);
+        ScalableBloomFilter<Integer> bfInt = new ScalableBloomFilter<Integer>(null);
+        int max = 200000;
+        for(int i=0; i<max; ++i){
+            bf.add(Long.valueOf(i));
+            bfInt.addInt(i);
+        }
+        int falsePositives = 0;
+        int falsePositivesInt = 0;
+        for(int i=max; i<(2 * max); ++i){
+            if(bf.containsLong(i)){
+                ++falsePositives;
+            }
+            if(bfInt.containsInt(i)){
+                ++falsePositivesInt;
+            }
+        }
+        //the default maximum error is 1%
+        assertTrue("False positive rate of long keys is too high: " + falsePositives,
+                falsePositives < (max / 50));
+        assertTrue("False positive rate of int keys is too high: " + falsePositivesInt,
+                falsePositivesInt < (max / 50));
+    }
+
+    @Test
+    public void testAddCharSequence(){
+        ScalableBloomFilter<String> bf = new ScalableBloomFilter<String>(
+                new StringSerializer(), 100, 0.01);
+
+        int max = 2000;
+        for(int i=0; i<max; ++i){
+            bf.add(new StringBuilder("elem\u00e9").append(i));
+        }
+        for(int i=0; i<max; ++i){
+            String element = ("elem\u00e9" + i);
+            assertTrue("Bloom filter should contain element \""
+                    + element + "\"", bf.contains(element));
+            assertTrue("Bloom filter should contain char sequence \""
+                    + element + "\"", bf.contains((CharSequence) element));
+        }
+    }
+
+    @Test
+    public void testAddAll(){
+        ScalableBloomFilter<Long> bf = new ScalableBloomFilter<Long>(null, 100, 0.01);
+        long[] values = new long[5000];
+        for(int i=0; i<values.length; ++i){
+            values[i] = i;
+        }
+        bf.addAll(values, 4);
+        BitVector result = bf.containsAll(values, null);
+        assertEquals("All values should be contained", values.length, result.bitsSet());
+    }
+
+    @Test
+    public void testWriteRead() throws IOException{
+        ScalableBloomFilter<String> bf = new ScalableBloomFilter<String>(
+                new StringSerializer(), 100, 0.01);
+
+        for(int i=0; i<2000; ++i){
+            bf.add("elem" + i);
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        bf.writeTo(baos);
+        ScalableBloomFilter<String> read = ScalableBloomFilter.readFrom(
+                new ByteArrayInputStream(baos.toByteArray()), new StringSerializer());
+
+        assertEquals("Filters should be equal", bf.toString(), read.toString());
+        for(int i=0; i<2000; ++i){
+            assertTrue("Bloom filter should contain element",
+                    read.contains("elem" + i));
+        }
+        for(int i=2000; i<6000; ++i){
+            bf.add("elem" + i);
+            read.add("elem" + i);
+        }
+        assertEquals("Filters should grow equally", bf.toString(), read.toString());
+    }
+
+    @Test
+    public void testUnion(){
+        ScalableBloomFilter<Long> bf1 = new ScalableBloomFilter<Long>(null, 100, 0.01);
+        ScalableBloomFilter<Long> bf2 = new ScalableBloomFilter<Long>(null, 100, 0.01);
+        for(int i=0; i<50; ++i){
+            bf1.addLong(i);
+        }
+        for(int i=0; i<3000; ++i){
+            bf2.addLong(i + 10000);
+        }
+        assertSame("Union should return this filter", bf1, bf1.union(bf2));
+        for(int i=0; i<50; ++i){
+            assertTrue("Union should contain value", bf1.containsLong(i));
+        }
+        for(int i=0; i<3000; ++i){
+            assertTrue("Union should contain value", bf1.containsLong(i + 10000));
+        }
+        bf1.addLong(-1L);
+        assertTrue("Union should contain value", bf1.containsLong(-1L));
+        assertFalse("Other filter should not change", bf2.containsLong(0L)
+                && bf2.containsLong(1L) && bf2.containsLong(2L));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testUnionIncompatible(){
+        ScalableBloomFilter<Long> bf1 = new ScalableBloomFilter<Long>(null, 100, 0.01);
+        ScalableBloomFilter<Long> bf2 = new ScalableBloomFilter<Long>(null, 1000, 0.01);
+        bf1.union(bf2);
+    }
+
     @Test
     public void testClear(){
         ScalableBloomFilter<String> bf = newStringBf(5000, 0.01);
@@ -18,12 +18,25 @@ package com.raven.common.struct;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.raven.common.io.SerializationException;
 import com.raven.common.io.StringSerializer;
 
 /**
@@ -192,6 +205,517 @@ public class StaticBloomFilterTest {
         assertTrue("Bloom filter should not contain any elements", bf.approximateSize() == 0);
     }
     
+    @Test
+    public void testLargeBitSet(){
+        long bits = StaticBloomFilter.requiredBits(5000, 0.01);
+        StaticBloomFilter<String> bf = new StaticBloomFilter<String>(
+                new StringSerializer(), 5000, 0.01, LargeBitSet.allocate(bits));
+
+        assertTrue("Bloom filter should be empty", bf.isEmpty());
+        for(int i=0; i<2000; ++i){
+            bf.add("elem" + i);
+        }
+        int falsePositives = 0;
+        for(int i=0; i<2000; ++i){
+            String element = ("elem" + i);
+            assertTrue("Bloom filter should contain element \""
+                        + element + "\"", bf.contains(element));
+            if(bf.contains("other" + i)){
+                ++falsePositives;
+            }
+        }
+        assertTrue("False positive rate is too high", falsePositives < 60);
+        assertEquals("Capacity does not match", 5000, bf.getCapacity());
+        assertTrue("Size in bytes should cover all bits", bf.sizeInBytes() >= bits / 8);
+    }
+
+    @Test
+    public void testLargeBitSetMatchesHeap(){
+        StaticBloomFilter<String> heap = newStringBf(3000, 0.001);
+        StaticBloomFilter<String> offHeap = new StaticBloomFilter<String>(
+                new StringSerializer(), 3000, 0.001,
+                LargeBitSet.allocate(StaticBloomFilter.requiredBits(3000, 0.001)));
+
+        for(int i=0; i<1000; ++i){
+            heap.add("elem" + i);
+            offHeap.add("elem" + i);
+        }
+        assertEquals("Approximate sizes do not match",
+                heap.approximateSize(), offHeap.approximateSize());
+
+        for(int i=0; i<5000; ++i){
+            String element = ("other" + i);
+            assertEquals("Membership of element \"" + element + "\" does not match",
+                    heap.contains(element), offHeap.contains(element));
+        }
+    }
+
+    @Test
+    public void testMappedReopen() throws IOException{
+        File file = File.createTempFile("bloom_filter_test", ".bits");
+        file.deleteOnExit();
+        long bits = StaticBloomFilter.requiredBits(10000, 0.01);
+        try(LargeBitSet set = LargeBitSet.map(file, bits)){
+            StaticBloomFilter<String> bf = new StaticBloomFilter<String>(
+                    new StringSerializer(), 10000, 0.01, set);
+
+            for(int i=0; i<5000; ++i){
+                bf.add("elem" + i);
+            }
+        }
+        try(LargeBitSet set = LargeBitSet.map(file, bits)){
+            StaticBloomFilter<String> bf = new StaticBloomFilter<String>(
+                    new StringSerializer(), 10000, 0.01, set);
+
+            assertFalse("Bloom filter should not be empty", bf.isEmpty());
+            for(int i=0; i<5000; ++i){
+                String element = ("elem" + i);
+                assertTrue("Bloom filter should contain element \""
+                            + element + "\"", bf.contains(element));
+            }
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testLargeBitSetSizeMismatch(){
+        long bits = StaticBloomFilter.requiredBits(1000, 0.01);
+        new StaticBloomFilter<String>(new StringSerializer(), 2000, 0.01,
+                LargeBitSet.allocate(bits));
+    }
+
+    @Test
+    public void testRequiredBitsLarge(){
+        long bits = StaticBloomFilter.requiredBits(10_000_000_000L, 0.001);
+        assertTrue("Required bits should exceed integer range",
+                bits > Integer.MAX_VALUE);
+        assertEquals("Required bits do not match",
+                bits, StaticBloomFilter.requiredBits(10_000_000_000L, 0.001));
+    }
+
+    @Test
+    public void testAddLong(){
+        StaticBloomFilter<Long> bf = new StaticBloomFilter<Long>(null, 1000, 0.01);
+        int max = 600;
+        for(int i=0; i<max; ++i){
+            bf.addLong(i * 31L);
+        }
+        for(int i=0; i<max; ++i){
+            Long element = Long.valueOf(i * 31L);
+            assertTrue("Bloom filter should contain value " + element,
+                    bf.containsLong(element));
+            assertTrue("Bloom filter should contain element " + element,
+                    bf.contains(element));
+        }
+    }
+
+    @Test
+    public void testAddInt(){
+        StaticBloomFilter<Integer> bf = new StaticBloomFilter<Integer>(null, 1000, 0.01);
+        int max = 600;
+        for(int i=0; i<max; ++i){
+            bf.add(Integer.valueOf(-i));
+        }
+        for(int i=0; i<max; ++i){
+            assertTrue("Bloom filter should contain value " + (-i), bf.containsInt(-i));
+        }
+        assertFalse("Bloom filter should not contain long value",
+                bf.containsLong(1L) && bf.containsLong(2L) && bf.containsLong(3L));
+    }
+
+    @Test
+    public void testAddCharSequence(){
+        StaticBloomFilter<String> bf = newStringBf(1000, 0.01);
+        int max = 600;
+        for(int i=0; i<max; ++i){
+            StringBuilder sb = new StringBuilder("elem\u00e9\u20ac");
+            sb.appendCodePoint(0x1f600 + i).append(i);
+            if((i % 7) == 0){
+                sb.append('\ud800');//unpaired surrogate
+            }
+            bf.add(sb);
+        }
+        for(int i=0; i<max; ++i){
+            StringBuilder sb = new StringBuilder("elem\u00e9\u20ac");
+            sb.appendCodePoint(0x1f600 + i).append(i);
+            if((i % 7) == 0){
+                sb.append('\ud800');
+            }
+            String element = sb.toString();
+            assertTrue("Bloom filter should contain element \""
+                    + element + "\"", bf.contains(element));
+        }
+    }
+
+    @Test
+    public void testAddCharSequenceNoSerializer(){
+        StaticBloomFilter<String> bf1 = new StaticBloomFilter<String>(null, 1000, 0.01);
+        StaticBloomFilter<String> bf2 = new StaticBloomFilter<String>(null, 1000, 0.01);
+        for(int i=0; i<600; ++i){
+            bf1.add("elem" + i);
+            bf2.add(new StringBuilder("elem").append(i));
+        }
+        assertEquals("Filters should be equal", bf1.toString(), bf2.toString());
+        for(int i=0; i<600; ++i){
+            assertTrue("Bloom filter should contain element",
+                    bf2.contains("elem" + i));
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAddEmptyCharSequence(){
+        StaticBloomFilter<String> bf = new StaticBloomFilter<String>(null, 1000, 0.01);
+        bf.add(new StringBuilder());
+    }
+
+    @Test
+    public void testAddByteRange(){
+        StaticBloomFilter<String> bf = newStringBf(1000, 0.01);
+        StringBuilder sb = new StringBuilder();
+        for(int i=0; i<600; ++i){
+            sb.append("element").append(i).append(';');
+        }
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        int start = 0;
+        for(int i=0; i<bytes.length; ++i){
+            if(bytes[i] == ';'){
+                bf.add(bytes, start, i - start);
+                start = i + 1;
+            }
+        }
+        for(int i=0; i<600; ++i){
+            String element = ("element" + i);
+            assertTrue("Bloom filter should contain element \""
+                    + element + "\"", bf.contains(element));
+            byte[] b = element.getBytes(StandardCharsets.UTF_8);
+            assertTrue("Bloom filter should contain bytes of element \""
+                    + element + "\"", bf.contains(b, 0, b.length));
+        }
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testAddByteRangeOutOfBounds(){
+        StaticBloomFilter<String> bf = newStringBf(1000, 0.01);
+        bf.add(new byte[8], 4, 5);
+    }
+
+    @Test
+    public void testAddAllLong(){
+        long[] values = new long[5000];
+        for(int i=0; i<values.length; ++i){
+            values[i] = (i * 7919L);
+        }
+        StaticBloomFilter<Long> expected = new StaticBloomFilter<Long>(null, 10000, 0.01);
+        StaticBloomFilter<Long> bf = new StaticBloomFilter<Long>(null, 10000, 0.01);
+        for(long value : values){
+            expected.addLong(value);
+        }
+        bf.addAll(values);
+        assertEquals("Filters should be equal", expected.toString(), bf.toString());
+        BitVector result = bf.containsAll(values, null);
+        assertEquals("Result size does not match", values.length, result.size());
+        assertEquals("All values should be contained", values.length, result.bitsSet());
+    }
+
+    @Test
+    public void testAddAllParallel(){
+        int[] values = new int[20000];
+        for(int i=0; i<values.length; ++i){
+            values[i] = (i * 31);
+        }
+        StaticBloomFilter<Integer> expected = new StaticBloomFilter<Integer>(null, 30000, 0.01);
+        StaticBloomFilter<Integer> bf = new StaticBloomFilter<Integer>(null, 30000, 0.01);
+        expected.addAll(values);
+        bf.addAll(values, 4);
+        assertEquals("Filters should be equal", expected.toString(), bf.toString());
+        for(int i=0; i<values.length; ++i){
+            assertTrue("Bloom filter should contain value " + values[i],
+                    bf.containsInt(values[i]));
+        }
+    }
+
+    @Test
+    public void testContainsAll(){
+        StaticBloomFilter<Long> bf = new StaticBloomFilter<Long>(null, 1000, 0.001);
+        long[] values = new long[3000];
+        for(int i=0; i<values.length; ++i){
+            values[i] = i;
+            if((i % 2) == 0){
+                bf.addLong(i);
+            }
+        }
+        BitVector result = new BitVector();
+        result.set(4000, true);
+        assertSame("Result should be the specified BitVector",
+                result, bf.containsAll(values, result));
+        assertEquals("Result size should not change", 4001, result.size());
+        assertTrue("Bit beyond the values should not change", result.get(4000));
+        for(int i=0; i<values.length; ++i){
+            assertEquals("Result does not match for value " + i,
+                    bf.containsLong(i), result.get(i));
+            if((i % 2) == 0){
+                assertTrue("Result should be set for value " + i, result.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testAddAllColumn(){
+        StaticBloomFilter<String> bf = newStringBf(1000, 0.01);
+        Column col = Column.create("col", "a", "b", "c\u00e9", "d");
+        bf.addAll(col);
+        assertTrue("Bloom filter should contain element", bf.contains("c\u00e9"));
+        assertEquals("All entries should be contained", 4,
+                bf.containsAll(col, null).bitsSet());
+
+        StaticBloomFilter<Long> bfl = new StaticBloomFilter<Long>(null, 1000, 0.01);
+        bfl.addAll(Column.create("col", 1L, 2L, 3L));
+        bfl.addAll(Column.create("col", 4, 5));
+        bfl.addAll(Column.create("col", 6.5));
+        assertTrue("Bloom filter should contain long value", bfl.containsLong(3L));
+        assertTrue("Bloom filter should contain int value", bfl.containsInt(5));
+        assertTrue("Bloom filter should contain double value",
+                bfl.containsLong(Double.doubleToLongBits(6.5)));
+    }
+
+    @Test
+    public void testAddAllNullableColumn(){
+        StaticBloomFilter<Long> bf = new StaticBloomFilter<Long>(null, 1000, 0.001);
+        Column col = Column.nullable("col", 1L, null, 3L, null);
+        bf.addAll(col);
+        assertTrue("Bloom filter should contain value", bf.containsLong(1L));
+        assertTrue("Bloom filter should contain value", bf.containsLong(3L));
+        BitVector result = bf.containsAll(col, null);
+        assertEquals("Result size does not match", 4, result.size());
+        assertTrue("Result should be set", result.get(0));
+        assertFalse("Result of null entry should be unset", result.get(1));
+        assertTrue("Result should be set", result.get(2));
+        assertFalse("Result of null entry should be unset", result.get(3));
+    }
+
+    @Test
+    public void testAddAllUnflushedDataFrame(){
+        DataFrame df = new DefaultDataFrame(new IntColumn("A"), new StringColumn("B"));
+        df.addRow(1, "a");
+        df.addRow(2, "b");
+        df.addRow(3, "c");
+        df.addRow(4, "d");
+        df.addRow(5, "e");
+        assertTrue("DataFrame should not be flushed", df.capacity() > df.rows());
+        StaticBloomFilter<Integer> bf = new StaticBloomFilter<Integer>(null, 1000, 0.001);
+        bf.addAll(df, 0);
+        for(int i=1; i<=5; ++i){
+            assertTrue("Bloom filter should contain value", bf.containsInt(i));
+        }
+        assertFalse("Bloom filter should not contain unused entry", bf.containsInt(0));
+        BitVector result = bf.containsAll(df, 0, null);
+        assertEquals("Result size does not match", 5, result.size());
+        assertEquals("Result bits do not match", 5, result.bitsSet());
+        StaticBloomFilter<String> bfs = new StaticBloomFilter<String>(null, 1000, 0.001);
+        bfs.addAll(df, 1, 2);
+        assertTrue("Bloom filter should contain value", bfs.contains("e"));
+        assertEquals("Result bits do not match", 5, bfs.containsAll(df, 1, null).bitsSet());
+        result = new BitVector(0);
+        result.set(0, 8, true);
+        StaticBloomFilter<String> empty = new StaticBloomFilter<String>(null, 1000, 0.001);
+        assertSame("Result should be the specified BitVector",
+                result, empty.containsAll(df, 1, result));
+        assertEquals("Result size does not match", 8, result.size());
+        assertEquals("Result bits do not match", 3, result.bitsSet());
+        assertFalse("Result bit should be overwritten", result.get(4));
+        assertTrue("Result bit should not be overwritten", result.get(5));
+    }
+
+    @Test
+    public void testSubclassWithoutHashMethods(){
+        //a subclass which only implements the methods of a ProbabilisticSet
+        AbstractBloomFilter<String> bf = new AbstractBloomFilter<String>(null){
+            private final Set<Long> hashes = new HashSet<>();
+
+            @Override
+            public void add(String element){
+                hashes.add(hash(element));
+            }
+
+            @Override
+            public boolean contains(String element){
+                return hashes.contains(hash(element));
+            }
+
+            @Override
+            public boolean isEmpty(){
+                return hashes.isEmpty();
+            }
+
+            @Override
+            public int approximateSize(){
+                return hashes.size();
+            }
+
+            @Override
+            public long sizeInBytes(){
+                return hashes.size() * 8L;
+            }
+
+            @Override
+            public void clear(){
+                hashes.clear();
+            }
+        };
+        bf.add("abc");
+        assertTrue("Bloom filter should contain value", bf.contains("abc"));
+        try{
+            bf.addLong(1L);
+            fail("Adding a primitive key should not be supported");
+        }catch(UnsupportedOperationException ex){
+            //expected
+        }
+        try{
+            bf.contains((CharSequence) "abc");
+            fail("Querying a character sequence should not be supported");
+        }catch(UnsupportedOperationException ex){
+            //expected
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAddAllBooleanColumn(){
+        StaticBloomFilter<Boolean> bf = new StaticBloomFilter<Boolean>(null, 1000, 0.01);
+        bf.addAll(Column.create("col", true, false));
+    }
+
+    @Test
+    public void testWriteRead() throws IOException{
+        StaticBloomFilter<String> bf = newStringBf(5000, 0.001);
+        for(int i=0; i<3000; ++i){
+            bf.add("elem" + i);
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        bf.writeTo(baos);
+        StaticBloomFilter<String> read = StaticBloomFilter.readFrom(
+                new ByteArrayInputStream(baos.toByteArray()), new StringSerializer());
+
+        assertEquals("Filters should be equal", bf.toString(), read.toString());
+        assertEquals("Capacity does not match", bf.getCapacity(), read.getCapacity());
+        for(int i=0; i<3000; ++i){
+            assertTrue("Bloom filter should contain element",
+                    read.contains("elem" + i));
+        }
+        for(int i=0; i<3000; ++i){
+            String element = ("other" + i);
+            assertEquals("Membership of element \"" + element + "\" does not match",
+                    bf.contains(element), read.contains(element));
+        }
+    }
+
+    @Test
+    public void testMap() throws IOException{
+        File file = File.createTempFile("bloom_filter_test", ".bf");
+        file.deleteOnExit();
+        StaticBloomFilter<String> bf = newStringBf(5000, 0.01);
+        for(int i=0; i<2000; ++i){
+            bf.add("elem" + i);
+        }
+        bf.writeTo(new FileOutputStream(file));
+        StaticBloomFilter<String> mapped = StaticBloomFilter.map(file, new StringSerializer());
+        assertEquals("Filters should have equal sizes",
+                bf.approximateSize(), mapped.approximateSize());
+
+        for(int i=0; i<2000; ++i){
+            assertTrue("Mapped Bloom filter should contain element",
+                    mapped.contains("elem" + i));
+        }
+        mapped.add("added");
+        StaticBloomFilter<String> read = StaticBloomFilter.readFrom(
+                new FileInputStream(file), new StringSerializer());
+
+        assertTrue("Element added to mapped filter should be persisted",
+                read.contains("added"));
+    }
+
+    @Test(expected=SerializationException.class)
+    public void testReadInvalidFormat() throws IOException{
+        StaticBloomFilter.readFrom(new ByteArrayInputStream(new byte[64]), null);
+    }
+
+    @Test(expected=SerializationException.class)
+    public void testReadTruncated() throws IOException{
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        newStringBf(1000, 0.01).writeTo(baos);
+        byte[] bytes = Arrays.copyOf(baos.toByteArray(), baos.size() - 8);
+        StaticBloomFilter.readFrom(new ByteArrayInputStream(bytes), null);
+    }
+
+    @Test(expected=SerializationException.class)
+    public void testReadWrongType() throws IOException{
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new BlockedBloomFilter<String>(null, 1000, 0.01).writeTo(baos);
+        StaticBloomFilter.readFrom(new ByteArrayInputStream(baos.toByteArray()), null);
+    }
+
+    @Test
+    public void testReadOtherHashFunction() throws IOException{
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        newStringBf(1000, 0.01).writeTo(baos);
+        byte[] bytes = baos.toByteArray();
+        assertEquals("Hash function identifier does not match",
+                AbstractBloomFilter.HASH_FUNCTION,
+                ByteBuffer.wrap(bytes).getLong(8));
+
+        //identifier of the hash function without length finalization
+        bytes[15] = 0;
+        try{
+            StaticBloomFilter.readFrom(new ByteArrayInputStream(bytes), null);
+            fail("Filters of another hash function should be rejected");
+        }catch(SerializationException ex){
+            //expected
+        }
+    }
+
+    @Test
+    public void testUnion(){
+        StaticBloomFilter<Long> bf1 = new StaticBloomFilter<Long>(null, 5000, 0.01);
+        StaticBloomFilter<Long> bf2 = new StaticBloomFilter<Long>(null, 5000, 0.01);
+        StaticBloomFilter<Long> expected = new StaticBloomFilter<Long>(null, 5000, 0.01);
+        for(int i=0; i<2000; ++i){
+            bf1.addLong(i);
+            bf2.addLong(i + 10000);
+            expected.addLong(i);
+            expected.addLong(i + 10000);
+        }
+        assertSame("Union should return this filter", bf1, bf1.union(bf2));
+        assertEquals("Filters should be equal", expected.toString(), bf1.toString());
+        for(int i=0; i<2000; ++i){
+            assertTrue("Union should contain value", bf1.containsLong(i));
+            assertTrue("Union should contain value", bf1.containsLong(i + 10000));
+        }
+    }
+
+    @Test
+    public void testIntersect(){
+        StaticBloomFilter<Long> bf1 = new StaticBloomFilter<Long>(null, 5000, 0.001);
+        StaticBloomFilter<Long> bf2 = new StaticBloomFilter<Long>(null, 5000, 0.001);
+        for(int i=0; i<2000; ++i){
+            bf1.addLong(i);
+            bf2.addLong(i + 1000);
+        }
+        bf1.intersect(bf2);
+        for(int i=1000; i<2000; ++i){
+            assertTrue("Intersection should contain value", bf1.containsLong(i));
+        }
+        int positives = 0;
+        for(int i=0; i<1000; ++i){
+            if(bf1.containsLong(i)){
+                ++positives;
+            }
+        }
+        assertTrue("Intersection should not contain most other values", positives < 50);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testUnionIncompatible(){
+        newStringBf(1000, 0.01).union(newStringBf(2000, 0.01));
+    }
+
     private StaticBloomFilter<String> newStringBf(int initCap, double maxError){
         return new StaticBloomFilter<String>(new StringSerializer(), initCap, maxError);
     }
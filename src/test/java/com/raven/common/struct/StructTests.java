@@ -29,7 +29,14 @@ import org.junit.runners.Suite.SuiteClasses;
     WritableItemTest.class,
     BitVectorTest.class,
     StaticBloomFilterTest.class,
-    ScalableBloomFilterTest.class})
+    BlockedBloomFilterTest.class,
+    CuckooFilterTest.class,
+    LargeBitSetTest.class,
+    RoaringBitmapTest.class,
+    RankSelectIndexTest.class,
+    ScalableBloomFilterTest.class,
+    ConcurrentStaticBloomFilterTest.class,
+    ConcurrentScalableBloomFilterTest.class})
 public class StructTests {
 
 }